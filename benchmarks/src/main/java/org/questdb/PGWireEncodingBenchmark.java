@@ -0,0 +1,140 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package org.questdb;
+
+import io.questdb.cutlass.pgwire.PGConnectionContext;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rnd;
+import io.questdb.std.Unsafe;
+import io.questdb.std.microtime.TimestampFormatUtils;
+import io.questdb.std.str.AbstractCharSink;
+import io.questdb.std.str.CharSink;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares text and binary encoding of (timestamp, double) data rows
+ * the way PostgreSQL wire protocol server puts them into send buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PGWireEncodingBenchmark {
+    private static final int ROW_COUNT = 1024;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final long PG_EPOCH_OFFSET_MICROS = 946684800000000L;
+    private final long[] timestamps = new long[ROW_COUNT];
+    private final double[] doubles = new double[ROW_COUNT];
+    private final AsciiSink sink = new AsciiSink();
+    private long buffer;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PGWireEncodingBenchmark.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        buffer = Unsafe.malloc(BUFFER_SIZE);
+        Rnd rnd = new Rnd();
+        long ts = 1576152000000000L;
+        for (int i = 0; i < ROW_COUNT; i++) {
+            timestamps[i] = ts += rnd.nextPositiveInt();
+            doubles[i] = rnd.nextDouble() * 1000;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Unsafe.free(buffer, BUFFER_SIZE);
+    }
+
+    @Benchmark
+    public long testBinary() {
+        long p = buffer;
+        for (int i = 0; i < ROW_COUNT; i++) {
+            PGConnectionContext.putInt(p, Long.BYTES);
+            PGConnectionContext.putLong(p + Integer.BYTES, timestamps[i] - PG_EPOCH_OFFSET_MICROS);
+            p += Integer.BYTES + Long.BYTES;
+            PGConnectionContext.putInt(p, Double.BYTES);
+            PGConnectionContext.putLong(p + Integer.BYTES, Double.doubleToRawLongBits(doubles[i]));
+            p += Integer.BYTES + Double.BYTES;
+        }
+        return p - buffer;
+    }
+
+    @Benchmark
+    public long testText() {
+        sink.ptr = buffer;
+        for (int i = 0; i < ROW_COUNT; i++) {
+            long a = sink.ptr;
+            sink.ptr += Integer.BYTES;
+            TimestampFormatUtils.PG_TIMESTAMP_FORMAT.format(timestamps[i], null, null, sink);
+            PGConnectionContext.putInt(a, (int) (sink.ptr - a - Integer.BYTES));
+
+            a = sink.ptr;
+            sink.ptr += Integer.BYTES;
+            sink.put(doubles[i], Numbers.MAX_SCALE);
+            PGConnectionContext.putInt(a, (int) (sink.ptr - a - Integer.BYTES));
+        }
+        return sink.ptr - buffer;
+    }
+
+    private static class AsciiSink extends AbstractCharSink {
+        private long ptr;
+
+        @Override
+        public CharSink put(CharSequence cs) {
+            for (int i = 0, n = cs.length(); i < n; i++) {
+                Unsafe.getUnsafe().putByte(ptr++, (byte) cs.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public CharSink put(char c) {
+            Unsafe.getUnsafe().putByte(ptr++, (byte) c);
+            return this;
+        }
+
+        @Override
+        public CharSink put(char[] chars, int start, int len) {
+            for (int i = 0; i < len; i++) {
+                Unsafe.getUnsafe().putByte(ptr++, (byte) chars[start + i]);
+            }
+            return this;
+        }
+    }
+}
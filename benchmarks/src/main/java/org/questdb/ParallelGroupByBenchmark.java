@@ -0,0 +1,201 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.questdb;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.engine.groupby.KeyedGroupByJob;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures keyed GROUP BY over a table of ROW_COUNT rows. Query is aggregated by the worker
+ * pool when "workerCount" is greater than one, every worker aggregates into its own map,
+ * which makes map memory grow with both key cardinality and worker count. Native memory
+ * in use is printed after every iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelGroupByBenchmark {
+
+    private static final int ROW_COUNT = 5_000_000;
+
+    @Param({"100", "10000", "1000000"})
+    public int keyCardinality;
+
+    @Param({"1", "4", "8"})
+    public int workerCount;
+
+    @Param({"LONG", "STRING", "MIXED"})
+    public String keyType;
+
+    @Param({"65536", "4194304"})
+    public int mapPageSize;
+
+    private CairoEngine engine;
+    private SqlCompiler compiler;
+    private WorkerPool workerPool;
+    private RecordCursorFactory factory;
+    private SqlExecutionContext executionContext;
+    private int countIndex;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ParallelGroupByBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+
+        LogFactory.INSTANCE.haltThread();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws SqlException {
+        final CairoConfiguration configuration = new DefaultCairoConfiguration(".") {
+            @Override
+            public int getSqlMapPageSize() {
+                return mapPageSize;
+            }
+        };
+        engine = new CairoEngine(configuration);
+        compiler = new SqlCompiler(engine);
+
+        final SqlExecutionContext ddlContext = new SqlExecutionContextImpl(engine, 1).with(AllowAllCairoSecurityContext.INSTANCE, null, null, -1, null);
+        try (Path path = new Path()) {
+            if (engine.getStatus(AllowAllCairoSecurityContext.INSTANCE, path, "gb") == TableUtils.TABLE_EXISTS) {
+                compiler.compile("drop table gb", ddlContext);
+            }
+        }
+        compiler.compile(
+                "create table gb as (select" +
+                        " rnd_long(0, " + (keyCardinality - 1) + ", 0) lk," +
+                        " rnd_str(" + keyCardinality + ", 8, 16, 0) sk," +
+                        " rnd_int(0, 9, 0) ik," +
+                        " rnd_double() price," +
+                        " rnd_long() qty," +
+                        " timestamp_sequence(0, 100000) ts" +
+                        " from long_sequence(" + ROW_COUNT + ")" +
+                        ") timestamp(ts) partition by DAY",
+                ddlContext
+        );
+
+        if (workerCount > 1) {
+            final int[] affinity = new int[workerCount];
+            for (int i = 0; i < workerCount; i++) {
+                affinity[i] = -1;
+            }
+            workerPool = new WorkerPool(new WorkerPoolConfiguration() {
+                @Override
+                public int[] getWorkerAffinity() {
+                    return affinity;
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return workerCount;
+                }
+
+                @Override
+                public boolean haltOnError() {
+                    return false;
+                }
+            });
+            workerPool.assign(new KeyedGroupByJob(engine.getMessageBus()));
+            workerPool.start(null);
+        }
+
+        final String keys;
+        switch (keyType) {
+            case "STRING":
+                keys = "sk";
+                countIndex = 1;
+                break;
+            case "MIXED":
+                keys = "sk, ik";
+                countIndex = 2;
+                break;
+            default:
+                keys = "lk";
+                countIndex = 1;
+                break;
+        }
+        // parallel group-by is used when execution context has more than one worker
+        executionContext = new SqlExecutionContextImpl(engine, workerCount)
+                .with(AllowAllCairoSecurityContext.INSTANCE, null, null, -1, null);
+        factory = compiler.compile("select " + keys + ", count(), sum(price), max(qty) from gb", executionContext).getRecordCursorFactory();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printMemory() {
+        System.out.print(" [mem=" + Unsafe.getMemUsed() + "] ");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        factory.close();
+        if (workerPool != null) {
+            workerPool.halt();
+            workerPool = null;
+        }
+        compiler.close();
+        engine.close();
+    }
+
+    @Benchmark
+    public long testGroupBy() {
+        long count = 0;
+        try (RecordCursor cursor = factory.getCursor(executionContext)) {
+            final Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                count += record.getLong(countIndex);
+            }
+        }
+        return count;
+    }
+}
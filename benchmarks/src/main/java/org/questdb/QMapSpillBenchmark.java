@@ -0,0 +1,140 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.questdb;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.SingleColumnType;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.SpillingMap;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rnd;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QMapSpillBenchmark {
+
+    private static final double loadFactor = 0.5;
+    private static final int M = 25;
+    // number of keys aggregated by merge benchmark, about 6MB of entries
+    private static final int N = 100_000;
+    private static final long memoryLimit = 4 * Numbers.SIZE_1MB;
+    private static final FastMap map = new FastMap(1024 * 1024, new SingleColumnType(ColumnType.STRING), new SingleColumnType(ColumnType.LONG), 64, loadFactor, Integer.MAX_VALUE);
+    private static final SpillingMap spillingMap = new SpillingMap(
+            FilesFacadeImpl.INSTANCE,
+            System.getProperty("java.io.tmpdir"),
+            509,
+            1024 * 1024,
+            new SingleColumnType(ColumnType.STRING),
+            new SingleColumnType(ColumnType.LONG),
+            64,
+            loadFactor,
+            memoryLimit,
+            64,
+            (destValue, srcValue) -> destValue.addLong(0, srcValue.getLong(0))
+    );
+
+    private final Rnd rnd = new Rnd();
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(QMapSpillBenchmark.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        System.out.print(" [f=" + map.size() + ", s=" + spillingMap.size() + ", spilled=" + spillingMap.isSpilled() + "] ");
+        map.clear();
+        spillingMap.clear();
+        rnd.reset();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        map.close();
+        spillingMap.close();
+    }
+
+    @Benchmark
+    public void testFastMap() {
+        MapKey key = map.withKey();
+        key.putStr(rnd.nextChars(M));
+        MapValue value = key.createValue();
+        value.putLong(0, 20);
+    }
+
+    @Benchmark
+    public void testSpillingMap() {
+        MapKey key = spillingMap.withKey();
+        key.putStr(rnd.nextChars(M));
+        MapValue value = key.createValue();
+        value.putLong(0, 20);
+    }
+
+    @Benchmark
+    public long testSpillingMapMerge() {
+        // every key is seen twice, second occurrence is likely to be merged with spilled one
+        spillingMap.clear();
+        for (int i = 0; i < 2; i++) {
+            rnd.reset();
+            for (int j = 0; j < N; j++) {
+                MapKey key = spillingMap.withKey();
+                key.putStr(rnd.nextChars(M));
+                MapValue value = key.createValue();
+                if (value.isNew()) {
+                    value.putLong(0, 1);
+                } else {
+                    value.addLong(0, 1);
+                }
+            }
+        }
+
+        long sum = 0;
+        final RecordCursor cursor = spillingMap.getCursor();
+        final Record record = cursor.getRecord();
+        while (cursor.hasNext()) {
+            sum += record.getLong(0);
+        }
+        return sum;
+    }
+}
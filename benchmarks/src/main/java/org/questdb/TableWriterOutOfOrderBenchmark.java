@@ -0,0 +1,174 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package org.questdb;
+
+import io.questdb.MessageBus;
+import io.questdb.MessageBusImpl;
+import io.questdb.cairo.*;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
+import io.questdb.std.Rnd;
+import io.questdb.std.microtime.Timestamps;
+import io.questdb.std.str.Path;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures latency of a commit that merges out-of-order rows into a number of existing DAY partitions.
+ * Column copies are executed by the worker pool when "workerCount" is greater than zero.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TableWriterOutOfOrderBenchmark {
+
+    private static final int ROWS_PER_PARTITION = 100_000;
+    private static final int OOO_ROWS_PER_PARTITION = 10_000;
+    private static final CairoConfiguration configuration = new DefaultCairoConfiguration(".") {
+        @Override
+        public boolean isOutOfOrderEnabled() {
+            return true;
+        }
+    };
+
+    private final Rnd rnd = new Rnd();
+    private final Path path = new Path();
+
+    @Param({"1", "4", "12", "32"})
+    public int partitionCount;
+
+    @Param({"0", "4"})
+    public int workerCount;
+
+    private MessageBus messageBus;
+    private WorkerPool workerPool;
+    private TableWriter writer;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(TableWriterOutOfOrderBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+
+        LogFactory.INSTANCE.haltThread();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        messageBus = new MessageBusImpl(configuration);
+        if (workerCount > 0) {
+            final int[] affinity = new int[workerCount];
+            for (int i = 0; i < workerCount; i++) {
+                affinity[i] = -1;
+            }
+            workerPool = new WorkerPool(new WorkerPoolConfiguration() {
+                @Override
+                public int[] getWorkerAffinity() {
+                    return affinity;
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return workerCount;
+                }
+
+                @Override
+                public boolean haltOnError() {
+                    return false;
+                }
+            });
+            workerPool.assign(new OutOfOrderCopyJob(messageBus));
+            workerPool.start(null);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (workerPool != null) {
+            workerPool.halt();
+            workerPool = null;
+        }
+        path.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void createTable() throws SqlException {
+        try (CairoEngine engine = new CairoEngine(configuration)) {
+            SqlExecutionContext sqlExecutionContext = new SqlExecutionContextImpl(engine, 1, null).with(AllowAllCairoSecurityContext.INSTANCE, null, null, -1, null);
+            try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                if (engine.getStatus(AllowAllCairoSecurityContext.INSTANCE, path, "ooo") == TableUtils.TABLE_EXISTS) {
+                    compiler.compile("drop table ooo", sqlExecutionContext);
+                }
+                compiler.compile(
+                        "create table ooo as (select" +
+                                " rnd_symbol(100,4,8,0) sym," +
+                                " rnd_double() price," +
+                                " rnd_long() qty," +
+                                " rnd_str(5,16,2) note," +
+                                " timestamp_sequence(0, " + Timestamps.DAY_MICROS / ROWS_PER_PARTITION + ") ts" +
+                                " from long_sequence(" + (long) ROWS_PER_PARTITION * partitionCount + ")" +
+                                ") timestamp(ts) partition by DAY",
+                        sqlExecutionContext
+                );
+            }
+        }
+        writer = new TableWriter(configuration, "ooo", messageBus);
+        rnd.reset();
+        for (int p = 0; p < partitionCount; p++) {
+            for (int i = 0; i < OOO_ROWS_PER_PARTITION; i++) {
+                TableWriter.Row r = writer.newRow(p * Timestamps.DAY_MICROS + (rnd.nextLong() & Long.MAX_VALUE) % Timestamps.DAY_MICROS);
+                r.putSym(0, rnd.nextChars(4));
+                r.putDouble(1, rnd.nextDouble());
+                r.putLong(2, rnd.nextLong());
+                r.putStr(3, rnd.nextChars(10));
+                r.append();
+            }
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeWriter() {
+        writer.close();
+    }
+
+    @Benchmark
+    public void testCommit() {
+        writer.commit(CommitMode.NOSYNC);
+    }
+}
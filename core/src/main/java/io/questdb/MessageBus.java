@@ -28,7 +28,14 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.TableBlockWriter.TableBlockWriterTaskHolder;
 import io.questdb.mp.RingQueue;
 import io.questdb.mp.Sequence;
+import io.questdb.mp.WorkerWakeup;
 import io.questdb.tasks.ColumnIndexerTask;
+import io.questdb.tasks.HashJoinTask;
+import io.questdb.tasks.OutOfOrderCopyTask;
+import io.questdb.tasks.PageFrameFilterTask;
+import io.questdb.tasks.KeyedGroupByTask;
+import io.questdb.tasks.SampleByTask;
+import io.questdb.tasks.TextImportTask;
 import io.questdb.tasks.VectorAggregateTask;
 
 public interface MessageBus {
@@ -56,5 +63,84 @@ public interface MessageBus {
         return null;
     }
 
+    default RingQueue<OutOfOrderCopyTask> getOutOfOrderCopyQueue() {
+        return null;
+    }
+
+    default Sequence getOutOfOrderCopyPubSequence() {
+        return null;
+    }
+
+    default Sequence getOutOfOrderCopySubSequence() {
+        return null;
+    }
+
+    default RingQueue<PageFrameFilterTask> getPageFrameFilterQueue() {
+        return null;
+    }
+
+    default Sequence getPageFrameFilterPubSequence() {
+        return null;
+    }
+
+    default Sequence getPageFrameFilterSubSequence() {
+        return null;
+    }
+
+    default RingQueue<TextImportTask> getTextImportQueue() {
+        return null;
+    }
+
+    default Sequence getTextImportPubSequence() {
+        return null;
+    }
+
+    default Sequence getTextImportSubSequence() {
+        return null;
+    }
+
+    default RingQueue<HashJoinTask> getHashJoinQueue() {
+        return null;
+    }
+
+    default Sequence getHashJoinPubSequence() {
+        return null;
+    }
+
+    default Sequence getHashJoinSubSequence() {
+        return null;
+    }
+
+    default RingQueue<SampleByTask> getSampleByQueue() {
+        return null;
+    }
+
+    default Sequence getSampleByPubSequence() {
+        return null;
+    }
+
+    default Sequence getSampleBySubSequence() {
+        return null;
+    }
+
+    default RingQueue<KeyedGroupByTask> getKeyedGroupByQueue() {
+        return null;
+    }
+
+    default Sequence getKeyedGroupByPubSequence() {
+        return null;
+    }
+
+    default Sequence getKeyedGroupBySubSequence() {
+        return null;
+    }
+
     CairoConfiguration getConfiguration();
+
+    /**
+     * @return wait strategy of consumer sequences, pools running bus jobs should be woken up by it
+     */
+    default WorkerWakeup getWorkerWakeup() {
+        return null;
+    }
 }
@@ -32,7 +32,14 @@ import io.questdb.mp.MCSequence;
 import io.questdb.mp.MPSequence;
 import io.questdb.mp.RingQueue;
 import io.questdb.mp.Sequence;
+import io.questdb.mp.WorkerWakeup;
 import io.questdb.tasks.ColumnIndexerTask;
+import io.questdb.tasks.HashJoinTask;
+import io.questdb.tasks.OutOfOrderCopyTask;
+import io.questdb.tasks.PageFrameFilterTask;
+import io.questdb.tasks.KeyedGroupByTask;
+import io.questdb.tasks.SampleByTask;
+import io.questdb.tasks.TextImportTask;
 import io.questdb.tasks.VectorAggregateTask;
 
 public class MessageBusImpl implements MessageBus {
@@ -48,26 +55,81 @@ public class MessageBusImpl implements MessageBus {
     private final MPSequence tableBlockWriterPubSeq;
     private final MCSequence tableBlockWriterSubSeq;
 
+    private final RingQueue<OutOfOrderCopyTask> outOfOrderCopyQueue;
+    private final MPSequence outOfOrderCopyPubSeq;
+    private final MCSequence outOfOrderCopySubSeq;
+
+    private final RingQueue<PageFrameFilterTask> pageFrameFilterQueue;
+    private final MPSequence pageFrameFilterPubSeq;
+    private final MCSequence pageFrameFilterSubSeq;
+
+    private final RingQueue<TextImportTask> textImportQueue;
+    private final MPSequence textImportPubSeq;
+    private final MCSequence textImportSubSeq;
+
+    private final RingQueue<HashJoinTask> hashJoinQueue;
+    private final MPSequence hashJoinPubSeq;
+    private final MCSequence hashJoinSubSeq;
+
+    private final RingQueue<SampleByTask> sampleByQueue;
+    private final MPSequence sampleByPubSeq;
+    private final MCSequence sampleBySubSeq;
+
+    private final RingQueue<KeyedGroupByTask> keyedGroupByQueue;
+    private final MPSequence keyedGroupByPubSeq;
+    private final MCSequence keyedGroupBySubSeq;
+
     private final CairoConfiguration configuration;
+    private final WorkerWakeup workerWakeup = new WorkerWakeup();
 
     public MessageBusImpl(@NotNull CairoConfiguration configuration) {
         this.configuration = configuration;
 
         this.indexerQueue = new RingQueue<>(ColumnIndexerTask::new, 1024);
         this.indexerPubSeq = new MPSequence(indexerQueue.getCapacity());
-        this.indexerSubSeq = new MCSequence(indexerQueue.getCapacity());
+        this.indexerSubSeq = new MCSequence(indexerQueue.getCapacity(), workerWakeup);
 
         this.vectorAggregateQueue = new RingQueue<>(VectorAggregateTask::new, 1024);
         this.vectorAggregatePubSeq = new MPSequence(vectorAggregateQueue.getCapacity());
-        this.vectorAggregateSubSeq = new MCSequence(vectorAggregateQueue.getCapacity());
+        this.vectorAggregateSubSeq = new MCSequence(vectorAggregateQueue.getCapacity(), workerWakeup);
 
         indexerPubSeq.then(indexerSubSeq).then(indexerPubSeq);
         vectorAggregatePubSeq.then(vectorAggregateSubSeq).then(vectorAggregatePubSeq);
 
         this.tableBlockWriterQueue = new RingQueue<>(TableBlockWriterTaskHolder::new, configuration.getTableBlockWriterQueueSize());
         this.tableBlockWriterPubSeq = new MPSequence(tableBlockWriterQueue.getCapacity());
-        this.tableBlockWriterSubSeq = new MCSequence(tableBlockWriterQueue.getCapacity());
+        this.tableBlockWriterSubSeq = new MCSequence(tableBlockWriterQueue.getCapacity(), workerWakeup);
         tableBlockWriterPubSeq.then(tableBlockWriterSubSeq).then(tableBlockWriterPubSeq);
+
+        this.outOfOrderCopyQueue = new RingQueue<>(OutOfOrderCopyTask::new, 1024);
+        this.outOfOrderCopyPubSeq = new MPSequence(outOfOrderCopyQueue.getCapacity());
+        this.outOfOrderCopySubSeq = new MCSequence(outOfOrderCopyQueue.getCapacity(), workerWakeup);
+        outOfOrderCopyPubSeq.then(outOfOrderCopySubSeq).then(outOfOrderCopyPubSeq);
+
+        this.pageFrameFilterQueue = new RingQueue<>(PageFrameFilterTask::new, 1024);
+        this.pageFrameFilterPubSeq = new MPSequence(pageFrameFilterQueue.getCapacity());
+        this.pageFrameFilterSubSeq = new MCSequence(pageFrameFilterQueue.getCapacity(), workerWakeup);
+        pageFrameFilterPubSeq.then(pageFrameFilterSubSeq).then(pageFrameFilterPubSeq);
+
+        this.textImportQueue = new RingQueue<>(TextImportTask::new, 256);
+        this.textImportPubSeq = new MPSequence(textImportQueue.getCapacity());
+        this.textImportSubSeq = new MCSequence(textImportQueue.getCapacity(), workerWakeup);
+        textImportPubSeq.then(textImportSubSeq).then(textImportPubSeq);
+
+        this.hashJoinQueue = new RingQueue<>(HashJoinTask::new, 1024);
+        this.hashJoinPubSeq = new MPSequence(hashJoinQueue.getCapacity());
+        this.hashJoinSubSeq = new MCSequence(hashJoinQueue.getCapacity(), workerWakeup);
+        hashJoinPubSeq.then(hashJoinSubSeq).then(hashJoinPubSeq);
+
+        this.sampleByQueue = new RingQueue<>(SampleByTask::new, 1024);
+        this.sampleByPubSeq = new MPSequence(sampleByQueue.getCapacity());
+        this.sampleBySubSeq = new MCSequence(sampleByQueue.getCapacity(), workerWakeup);
+        sampleByPubSeq.then(sampleBySubSeq).then(sampleByPubSeq);
+
+        this.keyedGroupByQueue = new RingQueue<>(KeyedGroupByTask::new, 1024);
+        this.keyedGroupByPubSeq = new MPSequence(keyedGroupByQueue.getCapacity());
+        this.keyedGroupBySubSeq = new MCSequence(keyedGroupByQueue.getCapacity(), workerWakeup);
+        keyedGroupByPubSeq.then(keyedGroupBySubSeq).then(keyedGroupByPubSeq);
     }
 
     @Override
@@ -75,6 +137,11 @@ public class MessageBusImpl implements MessageBus {
         return configuration;
     }
 
+    @Override
+    public WorkerWakeup getWorkerWakeup() {
+        return workerWakeup;
+    }
+
     @Override
     public Sequence getIndexerPubSequence() {
         return indexerPubSeq;
@@ -119,4 +186,94 @@ public class MessageBusImpl implements MessageBus {
     public Sequence getTableBlockWriterSubSequence() {
         return tableBlockWriterSubSeq;
     }
+
+    @Override
+    public RingQueue<OutOfOrderCopyTask> getOutOfOrderCopyQueue() {
+        return outOfOrderCopyQueue;
+    }
+
+    @Override
+    public Sequence getOutOfOrderCopyPubSequence() {
+        return outOfOrderCopyPubSeq;
+    }
+
+    @Override
+    public Sequence getOutOfOrderCopySubSequence() {
+        return outOfOrderCopySubSeq;
+    }
+
+    @Override
+    public RingQueue<PageFrameFilterTask> getPageFrameFilterQueue() {
+        return pageFrameFilterQueue;
+    }
+
+    @Override
+    public Sequence getPageFrameFilterPubSequence() {
+        return pageFrameFilterPubSeq;
+    }
+
+    @Override
+    public Sequence getPageFrameFilterSubSequence() {
+        return pageFrameFilterSubSeq;
+    }
+
+    @Override
+    public RingQueue<TextImportTask> getTextImportQueue() {
+        return textImportQueue;
+    }
+
+    @Override
+    public Sequence getTextImportPubSequence() {
+        return textImportPubSeq;
+    }
+
+    @Override
+    public Sequence getTextImportSubSequence() {
+        return textImportSubSeq;
+    }
+
+    @Override
+    public RingQueue<HashJoinTask> getHashJoinQueue() {
+        return hashJoinQueue;
+    }
+
+    @Override
+    public Sequence getHashJoinPubSequence() {
+        return hashJoinPubSeq;
+    }
+
+    @Override
+    public Sequence getHashJoinSubSequence() {
+        return hashJoinSubSeq;
+    }
+
+    @Override
+    public RingQueue<SampleByTask> getSampleByQueue() {
+        return sampleByQueue;
+    }
+
+    @Override
+    public Sequence getSampleByPubSequence() {
+        return sampleByPubSeq;
+    }
+
+    @Override
+    public Sequence getSampleBySubSequence() {
+        return sampleBySubSeq;
+    }
+
+    @Override
+    public RingQueue<KeyedGroupByTask> getKeyedGroupByQueue() {
+        return keyedGroupByQueue;
+    }
+
+    @Override
+    public Sequence getKeyedGroupByPubSequence() {
+        return keyedGroupByPubSeq;
+    }
+
+    @Override
+    public Sequence getKeyedGroupBySubSequence() {
+        return keyedGroupBySubSeq;
+    }
 }
@@ -41,6 +41,9 @@ import io.questdb.cutlass.text.TextConfiguration;
 import io.questdb.cutlass.text.types.InputFormatConfiguration;
 import io.questdb.griffin.SqlInterruptorConfiguration;
 import io.questdb.log.Log;
+import io.questdb.mp.AdaptiveIdleStrategy;
+import io.questdb.mp.BackoffIdleStrategy;
+import io.questdb.mp.WorkerIdleStrategyFactory;
 import io.questdb.mp.WorkerPoolConfiguration;
 import io.questdb.network.*;
 import io.questdb.std.*;
@@ -97,6 +100,12 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlMapPageSize;
     private final int sqlMapMaxPages;
     private final int sqlMapMaxResizes;
+    private final boolean sqlMapSpillEnabled;
+    private final long sqlMapSpillThreshold;
+    private final int sqlMapSpillPartitionCount;
+    private final boolean sqlRadixSortEnabled;
+    private final long sqlSortSpillThreshold;
+    private final int sqlSortTopKMaxRows;
     private final int sqlModelPoolCapacity;
     private final long sqlSortKeyPageSize;
     private final int sqlSortKeyMaxPages;
@@ -104,6 +113,9 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlSortLightValueMaxPages;
     private final int sqlHashJoinValuePageSize;
     private final int sqlHashJoinValueMaxPages;
+    private final boolean sqlHashJoinSpillEnabled;
+    private final long sqlHashJoinSpillThreshold;
+    private final int sqlHashJoinSpillPartitionCount;
     private final long sqlLatestByRowCount;
     private final int sqlHashJoinLightValuePageSize;
     private final int sqlHashJoinLightValueMaxPages;
@@ -111,6 +123,18 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlSortValueMaxPages;
     private final long workStealTimeoutNanos;
     private final boolean parallelIndexingEnabled;
+    private final boolean outOfOrderParallelCopyEnabled;
+    private final long inflatedColumnCacheSize;
+    private final long inflatedColumnMemoryLimit;
+    private final int sqlPageFrameMaxRows;
+    private final boolean sqlParallelFilterEnabled;
+    private final boolean sqlJitFilterEnabled;
+    private final boolean sqlParallelHashJoinEnabled;
+    private final boolean sqlParallelSampleByEnabled;
+    private final boolean sqlParallelGroupByEnabled;
+    private final boolean sqlVectorSampleByEnabled;
+    private final boolean sqlLatestByRowsEnabled;
+    private final boolean sqlAsOfJoinSeekEnabled;
     private final int sqlJoinMetadataPageSize;
     private final int sqlJoinMetadataMaxResizes;
     private final int lineUdpCommitRate;
@@ -122,6 +146,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int[] sharedWorkerAffinity;
     private final int sharedWorkerCount;
     private final boolean sharedWorkerHaltOnError;
+    private final WorkerIdleStrategyFactory sharedWorkerIdleStrategyFactory;
+    private final boolean sharedWorkerJobCountersEnabled;
     private final WorkerPoolConfiguration workerPoolConfiguration = new PropWorkerPoolConfiguration();
     private final PGWireConfiguration pgWireConfiguration = new PropPGWireConfiguration();
     private final InputFormatConfiguration inputFormatConfiguration;
@@ -145,6 +171,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final DateLocale dateLocale;
     private final TimestampLocale timestampLocale;
     private final String backupRoot;
+    private final String sqlTempRoot;
     private final TimestampFormat backupDirTimestampFormat;
     private final CharSequence backupTempDirName;
     private final int backupMkdirMode;
@@ -188,6 +215,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private CharSequence indexFileName;
     private String publicDirectory;
     private int httpActiveConnectionLimit;
+    private int httpDispatcherCount;
     private int httpEventCapacity;
     private int httpIOQueueCapacity;
     private long httpIdleConnectionTimeout;
@@ -201,6 +229,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private double maxRequiredDelimiterStdDev;
     private double maxRequiredLineLengthStdDev;
     private int metadataStringPoolCapacity;
+    private int parallelImportChunkSize;
     private int rollBufferLimit;
     private int rollBufferSize;
     private int textAnalysisMaxLines;
@@ -224,6 +253,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int interruptorNIterationsPerCheck;
     private int interruptorBufferSize;
     private int pgNetActiveConnectionLimit;
+    private int pgNetDispatcherCount;
     private int pgNetBindIPv4Address;
     private int pgNetBindPort;
     private int pgNetEventCapacity;
@@ -256,6 +286,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int rerunInitialWaitQueueSize;
     private int rerunMaxProcessingQueueSize;
     private int lineTcpNetActiveConnectionLimit;
+    private int lineTcpNetDispatcherCount;
     private int lineTcpNetBindIPv4Address;
     private int lineTcpNetBindPort;
     private int lineTcpNetEventCapacity;
@@ -269,6 +300,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int lineTcpMsgBufferSize;
     private int lineTcpMaxMeasurementSize;
     private int lineTcpWriterQueueSize;
+    private int lineTcpWriterBatchRows;
     private int lineTcpWorkerCount;
     private int[] lineTcpWorkerAffinity;
     private boolean lineTcpWorkerPoolHaltOnError;
@@ -300,6 +332,8 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.sharedWorkerCount = getInt(properties, env, "shared.worker.count", Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
         this.sharedWorkerAffinity = getAffinity(properties, env, "shared.worker.affinity", sharedWorkerCount);
         this.sharedWorkerHaltOnError = getBoolean(properties, env, "shared.worker.haltOnError", false);
+        this.sharedWorkerIdleStrategyFactory = getIdleStrategyFactory(properties, env, "shared.worker.idle.strategy");
+        this.sharedWorkerJobCountersEnabled = getBoolean(properties, env, "shared.worker.job.counters.enabled", false);
         this.httpMinServerEnabled = getBoolean(properties, env, "http.min.enabled", true);
         if (httpMinServerEnabled) {
             this.httpMinWorkerAffinity = getAffinity(properties, env, "http.min.worker.affinity", httpWorkerCount);
@@ -368,6 +402,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             }
 
             this.httpActiveConnectionLimit = getInt(properties, env, "http.net.active.connection.limit", 256);
+            this.httpDispatcherCount = getInt(properties, env, "http.net.dispatcher.count", 1);
             this.httpEventCapacity = getInt(properties, env, "http.net.event.capacity", 1024);
             this.httpIOQueueCapacity = getInt(properties, env, "http.net.io.queue.capacity", 1024);
             this.httpIdleConnectionTimeout = getLong(properties, env, "http.net.idle.connection.timeout", 5 * 60 * 1000L);
@@ -381,6 +416,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.maxRequiredDelimiterStdDev = getDouble(properties, env, "http.text.max.required.delimiter.stddev", 0.1222d);
             this.maxRequiredLineLengthStdDev = getDouble(properties, env, "http.text.max.required.line.length.stddev", 0.8);
             this.metadataStringPoolCapacity = getInt(properties, env, "http.text.metadata.string.pool.capacity", 128);
+            this.parallelImportChunkSize = getIntSize(properties, env, "http.text.parallel.import.chunk.size", 16 * 1024 * 1024);
 
             this.rollBufferLimit = getIntSize(properties, env, "http.text.roll.buffer.limit", 1024 * 4096);
             this.rollBufferSize = getIntSize(properties, env, "http.text.roll.buffer.size", 1024);
@@ -416,6 +452,7 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.pgEnabled = getBoolean(properties, env, "pg.enabled", true);
         if (pgEnabled) {
             pgNetActiveConnectionLimit = getInt(properties, env, "pg.net.active.connection.limit", 10);
+            this.pgNetDispatcherCount = getInt(properties, env, "pg.net.dispatcher.count", 1);
             parseBindTo(properties, env, "pg.net.bind.to", "0.0.0.0:8812", (a, p) -> {
                 pgNetBindIPv4Address = a;
                 pgNetBindPort = p;
@@ -485,6 +522,12 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.sqlMapPageSize = getIntSize(properties, env, "cairo.sql.map.page.size", 4 * 1024 * 1024);
         this.sqlMapMaxPages = getIntSize(properties, env, "cairo.sql.map.max.pages", Integer.MAX_VALUE);
         this.sqlMapMaxResizes = getIntSize(properties, env, "cairo.sql.map.max.resizes", Integer.MAX_VALUE);
+        this.sqlMapSpillEnabled = getBoolean(properties, env, "cairo.sql.map.spill.enabled", false);
+        this.sqlMapSpillThreshold = getLongSize(properties, env, "cairo.sql.map.spill.threshold", 256 * 1024 * 1024);
+        this.sqlMapSpillPartitionCount = getInt(properties, env, "cairo.sql.map.spill.partitions", 64);
+        this.sqlRadixSortEnabled = getBoolean(properties, env, "cairo.sql.sort.radix.enabled", true);
+        this.sqlSortSpillThreshold = getLongSize(properties, env, "cairo.sql.sort.spill.threshold", 256 * 1024 * 1024);
+        this.sqlSortTopKMaxRows = getInt(properties, env, "cairo.sql.sort.top.k.max.rows", 1000);
         this.sqlModelPoolCapacity = getInt(properties, env, "cairo.model.pool.capacity", 1024);
         this.sqlSortKeyPageSize = getLongSize(properties, env, "cairo.sql.sort.key.page.size", 4 * 1024 * 1024);
         this.sqlSortKeyMaxPages = getIntSize(properties, env, "cairo.sql.sort.key.max.pages", Integer.MAX_VALUE);
@@ -492,6 +535,9 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.sqlSortLightValueMaxPages = getIntSize(properties, env, "cairo.sql.sort.light.value.max.pages", Integer.MAX_VALUE);
         this.sqlHashJoinValuePageSize = getIntSize(properties, env, "cairo.sql.hash.join.value.page.size", 16777216);
         this.sqlHashJoinValueMaxPages = getIntSize(properties, env, "cairo.sql.hash.join.value.max.pages", Integer.MAX_VALUE);
+        this.sqlHashJoinSpillEnabled = getBoolean(properties, env, "cairo.sql.hash.join.spill.enabled", false);
+        this.sqlHashJoinSpillThreshold = getLongSize(properties, env, "cairo.sql.hash.join.spill.threshold", 256 * 1024 * 1024);
+        this.sqlHashJoinSpillPartitionCount = getInt(properties, env, "cairo.sql.hash.join.spill.partitions", 32);
         this.sqlLatestByRowCount = getInt(properties, env, "cairo.sql.latest.by.row.count", 1000);
         this.sqlHashJoinLightValuePageSize = getIntSize(properties, env, "cairo.sql.hash.join.light.value.page.size", 1048576);
         this.sqlHashJoinLightValueMaxPages = getIntSize(properties, env, "cairo.sql.hash.join.light.value.max.pages", Integer.MAX_VALUE);
@@ -499,6 +545,18 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.sqlSortValueMaxPages = getIntSize(properties, env, "cairo.sql.sort.value.max.pages", Integer.MAX_VALUE);
         this.workStealTimeoutNanos = getLong(properties, env, "cairo.work.steal.timeout.nanos", 10_000);
         this.parallelIndexingEnabled = getBoolean(properties, env, "cairo.parallel.indexing.enabled", true);
+        this.outOfOrderParallelCopyEnabled = getBoolean(properties, env, "cairo.o3.parallel.copy.enabled", true);
+        this.inflatedColumnCacheSize = getLongSize(properties, env, "cairo.inflated.column.cache.size", 64 * 1024 * 1024);
+        this.inflatedColumnMemoryLimit = getLongSize(properties, env, "cairo.inflated.column.memory.limit", 1024 * 1024 * 1024);
+        this.sqlPageFrameMaxRows = getInt(properties, env, "cairo.sql.page.frame.max.rows", 1_000_000);
+        this.sqlParallelFilterEnabled = getBoolean(properties, env, "cairo.sql.parallel.filter.enabled", true);
+        this.sqlJitFilterEnabled = getBoolean(properties, env, "cairo.sql.jit.filter.enabled", true);
+        this.sqlParallelHashJoinEnabled = getBoolean(properties, env, "cairo.sql.parallel.hash.join.enabled", true);
+        this.sqlParallelSampleByEnabled = getBoolean(properties, env, "cairo.sql.parallel.sample.by.enabled", true);
+        this.sqlParallelGroupByEnabled = getBoolean(properties, env, "cairo.sql.parallel.group.by.enabled", true);
+        this.sqlVectorSampleByEnabled = getBoolean(properties, env, "cairo.sql.vector.sample.by.enabled", true);
+        this.sqlLatestByRowsEnabled = getBoolean(properties, env, "cairo.sql.latest.by.rows.enabled", true);
+        this.sqlAsOfJoinSeekEnabled = getBoolean(properties, env, "cairo.sql.asof.join.seek.enabled", true);
         this.sqlJoinMetadataPageSize = getIntSize(properties, env, "cairo.sql.join.metadata.page.size", 16384);
         this.sqlJoinMetadataMaxResizes = getIntSize(properties, env, "cairo.sql.join.metadata.max.resizes", Integer.MAX_VALUE);
         this.sqlAnalyticColumnPoolCapacity = getInt(properties, env, "cairo.sql.analytic.column.pool.capacity", 64);
@@ -549,6 +607,12 @@ public class PropServerConfiguration implements ServerConfiguration {
 
         this.inputRoot = getString(properties, env, "cairo.sql.copy.root", null);
         this.backupRoot = getString(properties, env, "cairo.sql.backup.root", null);
+        final String sqlTempRoot = getString(properties, env, "cairo.sql.tmp.root", "tmp");
+        if (new File(sqlTempRoot).isAbsolute()) {
+            this.sqlTempRoot = sqlTempRoot;
+        } else {
+            this.sqlTempRoot = new File(root, sqlTempRoot).getAbsolutePath();
+        }
         this.backupDirTimestampFormat = getTimestampFormat(properties, env, "cairo.sql.backup.dir.datetime.format", "yyyy-MM-dd");
         this.backupTempDirName = getString(properties, env, "cairo.sql.backup.dir.tmp.name", "tmp");
         this.backupMkdirMode = getInt(properties, env, "cairo.sql.backup.mkdir.mode", 509);
@@ -584,6 +648,7 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.lineTcpEnabled = getBoolean(properties, env, "line.tcp.enabled", true);
         if (lineTcpEnabled) {
             lineTcpNetActiveConnectionLimit = getInt(properties, env, "line.tcp.net.active.connection.limit", 10);
+            this.lineTcpNetDispatcherCount = getInt(properties, env, "line.tcp.net.dispatcher.count", 1);
             parseBindTo(properties, env, "line.tcp.net.bind.to", "0.0.0.0:9009", (a, p) -> {
                 lineTcpNetBindIPv4Address = a;
                 lineTcpNetBindPort = p;
@@ -604,6 +669,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                         "line.tcp.max.measurement.size (" + this.lineTcpMaxMeasurementSize + ") cannot be more than line.tcp.msg.buffer.size (" + this.lineTcpMsgBufferSize + ")");
             }
             this.lineTcpWriterQueueSize = getIntSize(properties, env, "line.tcp.writer.queue.size", 128);
+            this.lineTcpWriterBatchRows = getInt(properties, env, "line.tcp.writer.batch.rows", 1000);
             this.lineTcpWorkerCount = getInt(properties, env, "line.tcp.worker.count", 0);
             this.lineTcpWorkerAffinity = getAffinity(properties, env, "line.tcp.worker.affinity", lineTcpWorkerCount);
             this.lineTcpWorkerPoolHaltOnError = getBoolean(properties, env, "line.tcp.halt.on.error", false);
@@ -738,6 +804,18 @@ public class PropServerConfiguration implements ServerConfiguration {
         }
     }
 
+    private WorkerIdleStrategyFactory getIdleStrategyFactory(Properties properties, Map<String, String> env, String key) throws ServerConfigurationException {
+        final String strategy = getString(properties, env, key, "backoff");
+        switch (strategy) {
+            case "backoff":
+                return wakeup -> new BackoffIdleStrategy();
+            case "adaptive":
+                return AdaptiveIdleStrategy::new;
+            default:
+                throw new ServerConfigurationException(key, strategy);
+        }
+    }
+
     private LineProtoTimestampAdapter getLineTimestampAdaptor(Properties properties, Map<String, String> env, String propNm) {
         final String lineUdpTimestampSwitch = getString(properties, env, propNm, "n");
         switch (lineUdpTimestampSwitch) {
@@ -892,6 +970,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MillisecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public int getDispatcherCount() {
+            return httpDispatcherCount;
+        }
+
         @Override
         public String getDispatcherLogName() {
             return "http-server";
@@ -974,6 +1057,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MillisecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public int getDispatcherCount() {
+            return 1;
+        }
+
         @Override
         public String getDispatcherLogName() {
             return "http-min-server";
@@ -1067,6 +1155,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return metadataStringPoolCapacity;
         }
 
+        @Override
+        public int getParallelImportChunkSize() {
+            return parallelImportChunkSize;
+        }
+
         @Override
         public int getRollBufferLimit() {
             return rollBufferLimit;
@@ -1393,6 +1486,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return backupRoot;
         }
 
+        @Override
+        public CharSequence getSqlTempRoot() {
+            return sqlTempRoot;
+        }
+
         @Override
         public TimestampFormat getBackupDirTimestampFormat() {
             return backupDirTimestampFormat;
@@ -1473,6 +1571,36 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlMapMaxResizes;
         }
 
+        @Override
+        public long getSqlMapSpillThreshold() {
+            return sqlMapSpillThreshold;
+        }
+
+        @Override
+        public int getSqlMapSpillPartitionCount() {
+            return sqlMapSpillPartitionCount;
+        }
+
+        @Override
+        public boolean isSqlMapSpillEnabled() {
+            return sqlMapSpillEnabled;
+        }
+
+        @Override
+        public long getSqlSortSpillThreshold() {
+            return sqlSortSpillThreshold;
+        }
+
+        @Override
+        public int getSqlSortTopKMaxRows() {
+            return sqlSortTopKMaxRows;
+        }
+
+        @Override
+        public boolean isSqlRadixSortEnabled() {
+            return sqlRadixSortEnabled;
+        }
+
         @Override
         public int getSqlModelPoolCapacity() {
             return sqlModelPoolCapacity;
@@ -1508,6 +1636,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlHashJoinValueMaxPages;
         }
 
+        @Override
+        public long getSqlHashJoinSpillThreshold() {
+            return sqlHashJoinSpillThreshold;
+        }
+
+        @Override
+        public int getSqlHashJoinSpillPartitionCount() {
+            return sqlHashJoinSpillPartitionCount;
+        }
+
+        @Override
+        public boolean isSqlHashJoinSpillEnabled() {
+            return sqlHashJoinSpillEnabled;
+        }
+
         @Override
         public int getSqlAnalyticStorePageSize() {
             return sqlAnalyticStorePageSize;
@@ -1578,6 +1721,66 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexingEnabled;
         }
 
+        @Override
+        public boolean isOutOfOrderParallelCopyEnabled() {
+            return outOfOrderParallelCopyEnabled;
+        }
+
+        @Override
+        public long getInflatedColumnCacheSize() {
+            return inflatedColumnCacheSize;
+        }
+
+        @Override
+        public long getInflatedColumnMemoryLimit() {
+            return inflatedColumnMemoryLimit;
+        }
+
+        @Override
+        public int getSqlPageFrameMaxRows() {
+            return sqlPageFrameMaxRows;
+        }
+
+        @Override
+        public boolean isSqlJitFilterEnabled() {
+            return sqlJitFilterEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelFilterEnabled() {
+            return sqlParallelFilterEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelHashJoinEnabled() {
+            return sqlParallelHashJoinEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelSampleByEnabled() {
+            return sqlParallelSampleByEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelGroupByEnabled() {
+            return sqlParallelGroupByEnabled;
+        }
+
+        @Override
+        public boolean isSqlVectorSampleByEnabled() {
+            return sqlVectorSampleByEnabled;
+        }
+
+        @Override
+        public boolean isSqlLatestByRowsEnabled() {
+            return sqlLatestByRowsEnabled;
+        }
+
+        @Override
+        public boolean isSqlAsOfJoinSeekEnabled() {
+            return sqlAsOfJoinSeekEnabled;
+        }
+
         @Override
         public int getSqlJoinMetadataPageSize() {
             return sqlJoinMetadataPageSize;
@@ -1768,6 +1971,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MillisecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public int getDispatcherCount() {
+            return lineTcpNetDispatcherCount;
+        }
+
         @Override
         public String getDispatcherLogName() {
             return "tcp-line-server";
@@ -1897,6 +2105,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineTcpWriterQueueSize;
         }
 
+        @Override
+        public int getWriterBatchRows() {
+            return lineTcpWriterBatchRows;
+        }
+
         @Override
         public MicrosecondClock getMicrosecondClock() {
             return MicrosecondClockImpl.INSTANCE;
@@ -1981,6 +2194,11 @@ public class PropServerConfiguration implements ServerConfiguration {
     }
 
     private class PropWorkerPoolConfiguration implements WorkerPoolConfiguration {
+        @Override
+        public WorkerIdleStrategyFactory getIdleStrategyFactory() {
+            return sharedWorkerIdleStrategyFactory;
+        }
+
         @Override
         public int[] getWorkerAffinity() {
             return sharedWorkerAffinity;
@@ -1995,6 +2213,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public boolean haltOnError() {
             return sharedWorkerHaltOnError;
         }
+
+        @Override
+        public boolean isJobCountersEnabled() {
+            return sharedWorkerJobCountersEnabled;
+        }
     }
 
     private class PropWaitProcessorConfiguration implements WaitProcessorConfiguration {
@@ -2047,6 +2270,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MillisecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public int getDispatcherCount() {
+            return pgNetDispatcherCount;
+        }
+
         @Override
         public String getDispatcherLogName() {
             return "pg-server";
@@ -32,6 +32,10 @@ public class BitmapIndexBwdNullReader implements BitmapIndexReader {
 
     @Override
     public RowCursor getCursor(boolean cachedInstance, int key, long minValue, long maxValue) {
+        if (key != 0) {
+            // column is absent from partition, all its values are null
+            return EmptyRowCursor.INSTANCE;
+        }
         final NullCursor cursor = getCursor(cachedInstance);
         cursor.value = maxValue;
         return cursor;
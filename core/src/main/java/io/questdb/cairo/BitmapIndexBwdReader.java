@@ -50,7 +50,8 @@ public class BitmapIndexBwdReader extends AbstractIndexReader {
 
         if (key == 0 && unIndexedNullCount > 0) {
             final NullCursor nullCursor = getNullCursor(cachedInstance);
-            nullCursor.nullCount = unIndexedNullCount;
+            // column top rows are not indexed, they cannot exceed max value either
+            nullCursor.nullCount = Math.min(unIndexedNullCount, maxValue + 1);
             nullCursor.of(key, minValue, maxValue, keyCount);
             return nullCursor;
         }
@@ -33,6 +33,10 @@ public class BitmapIndexFwdNullReader implements BitmapIndexReader {
 
     @Override
     public RowCursor getCursor(boolean cachedInstance, int key, long minValue, long maxValue) {
+        if (key != 0) {
+            // column is absent from partition, all its values are null
+            return EmptyRowCursor.INSTANCE;
+        }
         final NullCursor cursor = getCursor(cachedInstance);
         cursor.max = maxValue + 1;
         cursor.value = 0;
@@ -86,6 +86,13 @@ public interface CairoConfiguration {
     // null disables backups
     CharSequence getBackupRoot();
 
+    /**
+     * Directory for temporary files of queries, such as maps that spilled to disk.
+     *
+     * @return absolute path
+     */
+    CharSequence getSqlTempRoot();
+
     TimestampFormat getBackupDirTimestampFormat();
 
     CharSequence getBackupTempDirName();
@@ -118,6 +125,39 @@ public interface CairoConfiguration {
 
     int getSqlMapMaxResizes();
 
+    /**
+     * Memory a single GROUP BY or DISTINCT map may hold before it starts moving keys
+     * to temporary files. Only used when map spilling is enabled.
+     *
+     * @return number of bytes
+     */
+    long getSqlMapSpillThreshold();
+
+    /**
+     * Number of hash partitions of a map that can spill to disk. Each partition is
+     * written to its own file and merged back on its own, larger number of partitions
+     * requires less memory to merge a spilled map.
+     *
+     * @return number of partitions
+     */
+    int getSqlMapSpillPartitionCount();
+
+    /**
+     * Memory radix sort of ORDER BY may hold sort keys in. Keys above this limit are
+     * written to temporary files as sorted runs, which are merged when result is read.
+     *
+     * @return number of bytes
+     */
+    long getSqlSortSpillThreshold();
+
+    /**
+     * Largest constant LIMIT of ORDER BY that is evaluated by keeping only top rows
+     * of the sort order instead of sorting all of the rows.
+     *
+     * @return number of rows
+     */
+    int getSqlSortTopKMaxRows();
+
     int getSqlModelPoolCapacity();
 
     long getSqlSortKeyPageSize();
@@ -132,6 +172,24 @@ public interface CairoConfiguration {
 
     int getSqlHashJoinValueMaxPages();
 
+    /**
+     * Memory rows of the right side of a hash join may hold before both sides of
+     * the join are partitioned to temporary files. Only used when hash join spilling
+     * is enabled.
+     *
+     * @return number of bytes
+     */
+    long getSqlHashJoinSpillThreshold();
+
+    /**
+     * Number of key hash partitions of a hash join that spilled to disk. Partitions
+     * are joined one at a time, larger number of partitions requires less memory
+     * for each of them.
+     *
+     * @return number of partitions
+     */
+    int getSqlHashJoinSpillPartitionCount();
+
     int getSqlAnalyticStorePageSize();
 
     int getSqlAnalyticStoreMaxPages();
@@ -160,6 +218,109 @@ public interface CairoConfiguration {
 
     boolean isParallelIndexingEnabled();
 
+    /**
+     * Whether columns of partitions touched by out-of-order commit can be copied by worker pool.
+     * When disabled writer copies all columns on its own thread.
+     *
+     * @return true when out-of-order copy is published to worker pool
+     */
+    boolean isOutOfOrderParallelCopyEnabled();
+
+    /**
+     * Inflated compressed column files are kept for reuse after last reader releases them.
+     * This is the limit of memory such files hold across all tables.
+     *
+     * @return size of inflated column cache in bytes
+     */
+    long getInflatedColumnCacheSize();
+
+    /**
+     * Limit of memory all inflated compressed column files hold across all tables, whether readers read
+     * them or not. Reading compressed partition fails when the limit is reached.
+     *
+     * @return inflated column memory limit in bytes
+     */
+    long getInflatedColumnMemoryLimit();
+
+    /**
+     * Maximum number of rows a single task of parallel filter evaluates. Page frames
+     * larger than that are split into several tasks.
+     *
+     * @return number of rows
+     */
+    int getSqlPageFrameMaxRows();
+
+    /**
+     * Whether WHERE clause evaluated over page frames can be compiled into bytecode. Filters
+     * that cannot be compiled are evaluated by functions.
+     *
+     * @return true when filter compilation is enabled
+     */
+    boolean isSqlJitFilterEnabled();
+
+    boolean isSqlParallelFilterEnabled();
+
+    /**
+     * Whether hash joins of tables with fixed-size columns can be built and probed by worker pool.
+     *
+     * @return true when parallel hash join is enabled
+     */
+    boolean isSqlParallelHashJoinEnabled();
+
+    /**
+     * Whether keyed GROUP BY over table with fixed-size and STRING columns can be aggregated
+     * by worker pool. Group-by functions of the query must support merge.
+     *
+     * @return true when parallel group by is enabled
+     */
+    boolean isSqlParallelGroupByEnabled();
+
+    /**
+     * Whether SAMPLE BY with FILL(NONE) over table with fixed-size columns can be aggregated
+     * by worker pool. Group-by functions of the query must support merge.
+     *
+     * @return true when parallel sample by is enabled
+     */
+    boolean isSqlParallelSampleByEnabled();
+
+    /**
+     * Whether not keyed SAMPLE BY over fixed size intervals can be aggregated by vector
+     * functions directly from page frames. Applies to sum, min, max, avg and count with
+     * FILL(NONE), FILL(NULL) and FILL(PREV).
+     *
+     * @return true when vector sample by is enabled
+     */
+    boolean isSqlVectorSampleByEnabled();
+
+    /**
+     * Whether LATEST BY a single symbol column without filter can read most recent row of every
+     * symbol from latest rows table writer maintains next to symbol map, instead of scanning the table.
+     *
+     * @return true when latest rows lookup is enabled
+     */
+    boolean isSqlLatestByRowsEnabled();
+
+    /**
+     * Whether ASOF and LT joins against full table scan can locate slave rows by binary search
+     * of designated timestamp and symbol index rather than by iterating slave table.
+     *
+     * @return true when timestamp seek is enabled
+     */
+    boolean isSqlAsOfJoinSeekEnabled();
+
+    boolean isSqlMapSpillEnabled();
+
+    /**
+     * Hash join that is allowed to spill returns rows grouped by key hash once it spills,
+     * rather than in the order of left side rows. Such joins are only used when the query
+     * does not need designated timestamp of the join.
+     *
+     * @return true when hash joins may write their rows to temporary files
+     */
+    boolean isSqlHashJoinSpillEnabled();
+
+    boolean isSqlRadixSortEnabled();
+
     /**
      * This holds table metadata, which is usually quite small. 16K page should be adequate.
      *
@@ -136,6 +136,10 @@ public class CairoEngine implements Closeable {
         return readerPool.getBusyCount();
     }
 
+    public InflatedColumnMemory getInflatedColumnMemory() {
+        return readerPool.getInflatedMemory();
+    }
+
     public int getBusyWriterCount() {
         return writerPool.getBusyCount();
     }
@@ -0,0 +1,318 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Converts column files between raw and compressed formats. Compressed file is a sequence
+ * of independently deflated blocks, prefixed by header and offsets of the blocks:
+ * <pre>
+ * magic (long), raw size (long), block size (int), block count (int), block offsets (long * (block count + 1))
+ * </pre>
+ * Conversion writes new file next to the existing one under temporary name, renames it
+ * in place and then removes the old file. Readers check for raw file first, so they either
+ * see complete raw file or complete compressed file.
+ */
+public class ColumnCompressor implements Closeable {
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+    private static final long MAGIC = 0x7a42504251445451L;
+    private static final int HEADER_SIZE = 24;
+    private static final Log LOG = LogFactory.getLog(ColumnCompressor.class);
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private final FilesFacade ff;
+    private final int blockSize;
+    private final Path other = new Path();
+    private long buffer;
+    private long bufferSize;
+    private long deflateStream;
+    private long inflateStream;
+
+    public ColumnCompressor(FilesFacade ff, int blockSize) {
+        this.ff = ff;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Validates header of compressed file, which is mapped at given address.
+     *
+     * @return size of raw file
+     */
+    public static long getRawSize(long address, long len, CharSequence name) {
+        if (len < HEADER_SIZE || Unsafe.getUnsafe().getLong(address) != MAGIC) {
+            throw CairoException.instance(0).put("not a compressed column file [path=").put(name).put(']');
+        }
+        return Unsafe.getUnsafe().getLong(address + Long.BYTES);
+    }
+
+    /**
+     * Inflates compressed file, which is mapped at given address, into memory of raw size.
+     */
+    public static void inflate(long inflateStream, long address, long len, long dest, CharSequence name) {
+        final long rawSize = getRawSize(address, len, name);
+        final int blockSize = Unsafe.getUnsafe().getInt(address + 2 * Long.BYTES);
+        final int blockCount = Unsafe.getUnsafe().getInt(address + 2 * Long.BYTES + Integer.BYTES);
+        final long offsets = address + HEADER_SIZE;
+        for (int i = 0; i < blockCount; i++) {
+            final long lo = Unsafe.getUnsafe().getLong(offsets + i * 8L);
+            final long hi = Unsafe.getUnsafe().getLong(offsets + (i + 1) * 8L);
+            final long rawOffset = (long) i * blockSize;
+            final int rawLen = (int) Math.min(blockSize, rawSize - rawOffset);
+            if (hi > len || lo > hi) {
+                throw CairoException.instance(0).put("corrupt compressed column file [path=").put(name).put(", block=").put(i).put(']');
+            }
+            Zip.inflateReset(inflateStream);
+            Zip.setInput(inflateStream, address + lo, (int) (hi - lo));
+            final int n = Zip.inflate(inflateStream, dest + rawOffset, rawLen, true);
+            if (n != rawLen) {
+                throw CairoException.instance(0).put("could not inflate column file [path=").put(name).put(", block=").put(i).put(", ret=").put(n).put(']');
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (buffer != 0) {
+            Unsafe.free(buffer, bufferSize);
+            buffer = 0;
+            bufferSize = 0;
+        }
+        if (deflateStream != 0) {
+            Zip.deflateEnd(deflateStream);
+            deflateStream = 0;
+        }
+        if (inflateStream != 0) {
+            Zip.inflateEnd(inflateStream);
+            inflateStream = 0;
+        }
+        Misc.free(other);
+    }
+
+    /**
+     * Replaces raw file with compressed one.
+     *
+     * @param path raw file name, compressed file name is raw file name with ".z" suffix
+     * @return size of compressed file or -1 when there is no raw file
+     */
+    public long compress(Path path) {
+        if (!ff.exists(path)) {
+            return -1;
+        }
+        final long rawSize = ff.length(path);
+        final int blockCount = (int) ((rawSize + blockSize - 1) / blockSize);
+        final long headerSize = HEADER_SIZE + (blockCount + 1) * 8L;
+        ensureBuffer(Math.max(headerSize, blockSize));
+        if (deflateStream == 0) {
+            deflateStream = Zip.deflateInit();
+            if (deflateStream < 0) {
+                deflateStream = 0;
+                throw CairoException.instance(0).put("could not initialize deflater");
+            }
+        }
+
+        final long fd = openRO(path);
+        long rawAddress = 0;
+        try {
+            if (rawSize > 0) {
+                rawAddress = ff.mmap(fd, rawSize, 0, Files.MAP_RO);
+                if (rawAddress == FilesFacade.MAP_FAILED) {
+                    rawAddress = 0;
+                    throw CairoException.instance(ff.errno()).put("could not mmap [path=").put(path).put(", size=").put(rawSize).put(']');
+                }
+            }
+
+            final long outFd = openTemp(path, TableUtils.FILE_SUFFIX_COMPRESSED);
+            long offset = headerSize;
+            try {
+                // block offsets are collected in the tail of the header as blocks are written
+                final LongList offsets = new LongList(blockCount + 1);
+                for (int i = 0; i < blockCount; i++) {
+                    offsets.add(offset);
+                    final long lo = (long) i * blockSize;
+                    Zip.deflateReset(deflateStream);
+                    Zip.setInput(deflateStream, rawAddress + lo, (int) Math.min(blockSize, rawSize - lo));
+                    int ret;
+                    do {
+                        ret = Zip.deflate(deflateStream, buffer, (int) bufferSize, true);
+                        if (ret < 0) {
+                            throw CairoException.instance(0).put("could not deflate [path=").put(path).put(", ret=").put(ret).put(']');
+                        }
+                        final long len = bufferSize - Zip.availOut(deflateStream);
+                        write(outFd, buffer, len, offset);
+                        offset += len;
+                    } while (ret != 1);
+                }
+                offsets.add(offset);
+
+                Unsafe.getUnsafe().putLong(buffer, MAGIC);
+                Unsafe.getUnsafe().putLong(buffer + Long.BYTES, rawSize);
+                Unsafe.getUnsafe().putInt(buffer + 2 * Long.BYTES, blockSize);
+                Unsafe.getUnsafe().putInt(buffer + 2 * Long.BYTES + Integer.BYTES, blockCount);
+                for (int i = 0; i <= blockCount; i++) {
+                    Unsafe.getUnsafe().putLong(buffer + HEADER_SIZE + i * 8L, offsets.getQuick(i));
+                }
+                write(outFd, buffer, headerSize, 0);
+            } finally {
+                ff.close(outFd);
+            }
+            replace(path, TableUtils.FILE_SUFFIX_COMPRESSED);
+            LOG.info().$("compressed [path=").$(path).$(", size=").$(rawSize).$(", compressedSize=").$(offset).$(']').$();
+            return offset;
+        } finally {
+            if (rawAddress != 0) {
+                ff.munmap(rawAddress, rawSize);
+            }
+            ff.close(fd);
+        }
+    }
+
+    /**
+     * Replaces compressed file with raw one.
+     *
+     * @param path raw file name
+     * @return size of raw file or -1 when there is no compressed file
+     */
+    public long decompress(Path path) {
+        final int len = path.length();
+        final long fd;
+        try {
+            if (!ff.exists(path.chopZ().put(TableUtils.FILE_SUFFIX_COMPRESSED).$())) {
+                return -1;
+            }
+            fd = openRO(path);
+        } finally {
+            path.trimTo(len).$();
+        }
+
+        final long compressedSize = ff.length(fd);
+        long address = 0;
+        try {
+            address = ff.mmap(fd, compressedSize, 0, Files.MAP_RO);
+            if (address == FilesFacade.MAP_FAILED) {
+                address = 0;
+                throw CairoException.instance(ff.errno()).put("could not mmap [path=").put(path).put(", size=").put(compressedSize).put(']');
+            }
+            final long rawSize = getRawSize(address, compressedSize, path);
+
+            final long outFd = openTemp(path, "");
+            try {
+                if (rawSize > 0) {
+                    if (!ff.truncate(outFd, rawSize)) {
+                        throw CairoException.instance(ff.errno()).put("could not truncate [path=").put(other).put(", size=").put(rawSize).put(']');
+                    }
+                    final long rawAddress = ff.mmap(outFd, rawSize, 0, Files.MAP_RW);
+                    if (rawAddress == FilesFacade.MAP_FAILED) {
+                        throw CairoException.instance(ff.errno()).put("could not mmap [path=").put(other).put(", size=").put(rawSize).put(']');
+                    }
+                    try {
+                        inflate(inflateStream(), address, compressedSize, rawAddress, path);
+                    } finally {
+                        ff.munmap(rawAddress, rawSize);
+                    }
+                }
+            } finally {
+                ff.close(outFd);
+            }
+            replace(path, "");
+            LOG.info().$("decompressed [path=").$(path).$(", size=").$(rawSize).$(']').$();
+            return rawSize;
+        } finally {
+            if (address != 0) {
+                ff.munmap(address, compressedSize);
+            }
+            ff.close(fd);
+        }
+    }
+
+    private void ensureBuffer(long size) {
+        if (size > bufferSize) {
+            buffer = buffer == 0 ? Unsafe.malloc(size) : Unsafe.realloc(buffer, bufferSize, size);
+            bufferSize = size;
+        }
+    }
+
+    private long inflateStream() {
+        if (inflateStream == 0) {
+            inflateStream = Zip.inflateInit(true);
+            if (inflateStream < 0) {
+                inflateStream = 0;
+                throw CairoException.instance(0).put("could not initialize inflater");
+            }
+        }
+        return inflateStream;
+    }
+
+    private long openRO(LPSZ path) {
+        final long fd = ff.openRO(path);
+        if (fd == -1) {
+            throw CairoException.instance(ff.errno()).put("could not open [path=").put(path).put(']');
+        }
+        return fd;
+    }
+
+    private long openTemp(Path path, CharSequence suffix) {
+        other.of(path).put(suffix).put(TEMP_FILE_SUFFIX).$();
+        final long fd = ff.openRW(other);
+        if (fd == -1) {
+            throw CairoException.instance(ff.errno()).put("could not open [path=").put(other).put(']');
+        }
+        return fd;
+    }
+
+    /**
+     * Moves temporary file in place of the file with given suffix and removes the file it was converted from.
+     */
+    private void replace(Path path, CharSequence suffix) {
+        final int len = path.length();
+        try {
+            // "other" holds temporary file name
+            final Path to = path.chopZ().put(suffix).$();
+            if (!ff.rename(other, to)) {
+                throw CairoException.instance(ff.errno()).put("could not rename [from=").put(other).put(", to=").put(to).put(']');
+            }
+            path.trimTo(len);
+            if (suffix.length() == 0) {
+                path.put(TableUtils.FILE_SUFFIX_COMPRESSED);
+            }
+            if (!ff.remove(path.$())) {
+                LOG.error().$("could not remove [path=").$(path).$(", errno=").$(ff.errno()).$(']').$();
+            }
+        } finally {
+            path.trimTo(len).$();
+        }
+    }
+
+    private void write(long fd, long address, long len, long offset) {
+        if (ff.write(fd, address, len, offset) != len) {
+            throw CairoException.instance(ff.errno()).put("could not write [fd=").put(fd).put(", size=").put(len).put(']');
+        }
+    }
+}
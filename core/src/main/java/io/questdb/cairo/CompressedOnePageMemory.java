@@ -0,0 +1,186 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.Chars;
+import io.questdb.std.Files;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Zip;
+import io.questdb.std.str.LPSZ;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Read-only column backed by compressed column file. Opening column only reads file header, file is
+ * inflated in full into native memory on first access, so that columns queries do not read cost nothing
+ * and column is still a single contiguous page to page frame consumers. Pooled readers share inflated
+ * files, their memory is limited, see {@link InflatedColumnMemory}.
+ */
+public class CompressedOnePageMemory extends OnePageMemory {
+    private static final Log LOG = LogFactory.getLog(CompressedOnePageMemory.class);
+    private final InflatedColumnMemory inflatedMemory;
+    private String name;
+    private long compressedSize;
+
+    public CompressedOnePageMemory(FilesFacade ff, LPSZ name) {
+        this(ff, name, null);
+    }
+
+    /**
+     * @param inflatedMemory accounts inflated memory, null when memory is private to the caller
+     */
+    public CompressedOnePageMemory(FilesFacade ff, LPSZ name, @Nullable InflatedColumnMemory inflatedMemory) {
+        this.inflatedMemory = inflatedMemory;
+        of(ff, name, 0, 0);
+    }
+
+    @Override
+    public long addressOf(long offset) {
+        if (page == -1) {
+            inflate();
+        }
+        return super.addressOf(offset);
+    }
+
+    @Override
+    public void close() {
+        if (page != -1) {
+            Unsafe.free(page, size);
+            if (inflatedMemory != null) {
+                inflatedMemory.release(size);
+            }
+            this.page = -1;
+        }
+        this.size = 0;
+        if (fd != -1) {
+            ff.close(fd);
+            fd = -1;
+        }
+    }
+
+    @Override
+    public void detach() {
+        close();
+    }
+
+    @Override
+    public long getPageAddress(int pageIndex) {
+        if (page == -1) {
+            inflate();
+        }
+        return absolutePointer;
+    }
+
+    /**
+     * @return size of native memory file is inflated into, zero until file is read
+     */
+    public long getInflatedSize() {
+        return page != -1 ? size : 0;
+    }
+
+    /**
+     * Inflates file unless it has been inflated already. Readers that share column call this method
+     * to see inflated memory.
+     *
+     * @return address of inflated file or -1 when file is empty
+     */
+    synchronized long inflate() {
+        if (page != -1 || size == 0) {
+            return absolutePointer;
+        }
+
+        if (inflatedMemory != null) {
+            inflatedMemory.reserve(size, name);
+        }
+        long page = -1;
+        final long address = ff.mmap(fd, compressedSize, 0, Files.MAP_RO);
+        try {
+            if (address == FilesFacade.MAP_FAILED) {
+                throw CairoException.instance(ff.errno())
+                        .put("Could not mmap ").put(name)
+                        .put(" [size=").put(compressedSize)
+                        .put(", fd=").put(fd)
+                        .put(']');
+            }
+            page = Unsafe.malloc(size);
+            final long inflateStream = Zip.inflateInit(true);
+            if (inflateStream < 0) {
+                throw CairoException.instance(0).put("could not initialize inflater");
+            }
+            try {
+                ColumnCompressor.inflate(inflateStream, address, compressedSize, page, name);
+            } finally {
+                Zip.inflateEnd(inflateStream);
+            }
+        } catch (CairoException e) {
+            if (page != -1) {
+                Unsafe.free(page, size);
+            }
+            if (inflatedMemory != null) {
+                inflatedMemory.release(size);
+            }
+            throw e;
+        } finally {
+            if (address != FilesFacade.MAP_FAILED) {
+                ff.munmap(address, compressedSize);
+            }
+        }
+        this.absolutePointer = page;
+        this.page = page;
+        LOG.info().$("inflated ").$(name).$(" [fd=").$(fd).$(", compressedSize=").$(compressedSize).$(", size=").$(size).$(']').$();
+        return page;
+    }
+
+    @Override
+    protected void map(FilesFacade ff, LPSZ name, long size) {
+        this.name = Chars.toString(name);
+        this.compressedSize = ff.length(fd);
+        this.page = -1;
+        this.absolutePointer = -1;
+        // only header is read, it has size of inflated file
+        final long address = ff.mmap(fd, compressedSize, 0, Files.MAP_RO);
+        if (address == FilesFacade.MAP_FAILED) {
+            long fd = this.fd;
+            close();
+            throw CairoException.instance(ff.errno())
+                    .put("Could not mmap ").put(name)
+                    .put(" [size=").put(compressedSize)
+                    .put(", fd=").put(fd)
+                    .put(']');
+        }
+
+        try {
+            this.size = ColumnCompressor.getRawSize(address, compressedSize, name);
+        } catch (CairoException e) {
+            close();
+            throw e;
+        } finally {
+            ff.munmap(address, compressedSize);
+        }
+        LOG.info().$("open ").$(name).$(" [fd=").$(fd).$(", compressedSize=").$(compressedSize).$(", size=").$(this.size).$(']').$();
+    }
+}
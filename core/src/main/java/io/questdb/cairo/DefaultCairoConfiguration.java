@@ -247,6 +247,26 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 64;
     }
 
+    @Override
+    public long getSqlMapSpillThreshold() {
+        return 256 * Numbers.SIZE_1MB;
+    }
+
+    @Override
+    public int getSqlMapSpillPartitionCount() {
+        return 64;
+    }
+
+    @Override
+    public long getSqlSortSpillThreshold() {
+        return 256 * Numbers.SIZE_1MB;
+    }
+
+    @Override
+    public int getSqlSortTopKMaxRows() {
+        return 1000;
+    }
+
     @Override
     public int getSqlModelPoolCapacity() {
         return 1024;
@@ -282,6 +302,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public long getSqlHashJoinSpillThreshold() {
+        return 256 * Numbers.SIZE_1MB;
+    }
+
+    @Override
+    public int getSqlHashJoinSpillPartitionCount() {
+        return 32;
+    }
+
     @Override
     public int getSqlAnalyticStorePageSize() {
         return 4 * 1024;
@@ -352,6 +382,86 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isOutOfOrderParallelCopyEnabled() {
+        return true;
+    }
+
+    @Override
+    public long getInflatedColumnCacheSize() {
+        return 64 * 1024 * 1024;
+    }
+
+    @Override
+    public long getInflatedColumnMemoryLimit() {
+        return 1024 * 1024 * 1024;
+    }
+
+    @Override
+    public int getSqlPageFrameMaxRows() {
+        return 1_000_000;
+    }
+
+    @Override
+    public boolean isSqlJitFilterEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelFilterEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelSampleByEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlVectorSampleByEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlLatestByRowsEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlAsOfJoinSeekEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlMapSpillEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlHashJoinSpillEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlRadixSortEnabled() {
+        return true;
+    }
+
+    @Override
+    public CharSequence getSqlTempRoot() {
+        return System.getProperty("java.io.tmpdir");
+    }
+
     @Override
     public int getSqlJoinMetadataPageSize() {
         return 16 * 1024;
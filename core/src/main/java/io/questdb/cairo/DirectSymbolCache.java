@@ -0,0 +1,168 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.Chars;
+import io.questdb.std.Hash;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+
+import java.io.Closeable;
+
+/**
+ * Off-heap open addressing hash of symbol value to symbol key. Entries hold hash code of the value
+ * and the key, values themselves are never copied. They are compared via flyweight over symbol map
+ * "offset" and "char" memory, so heap footprint of the cache does not depend on number of symbols.
+ */
+class DirectSymbolCache implements Closeable {
+    private static final int ENTRY_SIZE = 8;
+    private static final int MIN_CAPACITY = 16;
+    private final VirtualMemory offsetMem;
+    private final VirtualMemory charMem;
+    private long address;
+    private int capacity;
+    private int mask;
+    private int size;
+    private int free;
+
+    DirectSymbolCache(VirtualMemory offsetMem, VirtualMemory charMem, int symbolCapacity) {
+        this.offsetMem = offsetMem;
+        this.charMem = charMem;
+        // keep load factor at 0.5
+        this.capacity = Math.max(MIN_CAPACITY, Numbers.ceilPow2(symbolCapacity) * 2);
+        this.address = Unsafe.calloc(allocSize(capacity));
+        this.mask = capacity - 1;
+        this.free = capacity / 2;
+    }
+
+    void clear() {
+        if (size > 0) {
+            Unsafe.getUnsafe().setMemory(address, allocSize(capacity), (byte) 0);
+            free += size;
+            size = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (address != 0) {
+            Unsafe.free(address, allocSize(capacity));
+            address = 0;
+        }
+    }
+
+    /**
+     * @param symbol symbol value
+     * @param hash   {@link Chars#hashCode(CharSequence)} of symbol value
+     * @return symbol key or -1 when value is not in the cache
+     */
+    int get(CharSequence symbol, int hash) {
+        int index = Hash.spread(hash) & mask;
+        while (true) {
+            final long p = address + (long) index * ENTRY_SIZE;
+            // keys are stored as key + 1 so that zero marks empty entry
+            final int key = Unsafe.getUnsafe().getInt(p + Integer.BYTES) - 1;
+            if (key == -1) {
+                return -1;
+            }
+            if (Unsafe.getUnsafe().getInt(p) == hash && equalsValue(symbol, key)) {
+                return key;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Adds key for value that is known not to be in the cache.
+     *
+     * @param hash {@link Chars#hashCode(CharSequence)} of symbol value
+     * @param key  symbol key
+     */
+    void put(int hash, int key) {
+        put0(address, mask, hash, key);
+        size++;
+        if (--free == 0) {
+            rehash();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static long allocSize(int capacity) {
+        return (long) capacity * ENTRY_SIZE;
+    }
+
+    private static void put0(long address, int mask, int hash, int key) {
+        int index = Hash.spread(hash) & mask;
+        long p = address + (long) index * ENTRY_SIZE;
+        while (Unsafe.getUnsafe().getInt(p + Integer.BYTES) != 0) {
+            index = (index + 1) & mask;
+            p = address + (long) index * ENTRY_SIZE;
+        }
+        Unsafe.getUnsafe().putInt(p, hash);
+        Unsafe.getUnsafe().putInt(p + Integer.BYTES, key + 1);
+    }
+
+    private void rehash() {
+        final int newCapacity = capacity * 2;
+        final int newMask = newCapacity - 1;
+        final long newAddress = Unsafe.calloc(allocSize(newCapacity));
+        for (long p = address, hi = address + allocSize(capacity); p < hi; p += ENTRY_SIZE) {
+            final int key = Unsafe.getUnsafe().getInt(p + Integer.BYTES);
+            if (key != 0) {
+                put0(newAddress, newMask, Unsafe.getUnsafe().getInt(p), key - 1);
+            }
+        }
+        Unsafe.free(address, allocSize(capacity));
+        this.address = newAddress;
+        this.capacity = newCapacity;
+        this.mask = newMask;
+        this.free = newCapacity / 2 - size;
+    }
+
+    private boolean equalsValue(CharSequence symbol, int key) {
+        final long offset = offsetMem.getLong(SymbolMapWriter.keyToOffset(key));
+        final int len = charMem.getInt(offset);
+        if (len != symbol.length()) {
+            return false;
+        }
+        final long lo = offset + VirtualMemory.STRING_LENGTH_BYTES;
+        final long size = (long) len * Character.BYTES;
+        if (charMem.pageRemaining(lo) < size) {
+            // value spans pages, let flyweight deal with it
+            return Chars.equals(symbol, charMem.getStr(offset));
+        }
+        final long address = charMem.addressOf(lo);
+        for (int i = 0; i < len; i++) {
+            if (Unsafe.getUnsafe().getChar(address + (long) i * Character.BYTES) != symbol.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -25,6 +25,7 @@
 package io.questdb.cairo;
 
 import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.LongList;
 
 public class EmptySymbolMapReader implements SymbolMapReader {
 
@@ -60,6 +61,11 @@ public class EmptySymbolMapReader implements SymbolMapReader {
         return true;
     }
 
+    @Override
+    public boolean readLatestRows(long txn, LongList rows) {
+        return false;
+    }
+
     @Override
     public void updateSymbolCount(int count) {
     }
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.Chars;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.microtime.MicrosecondClock;
+
+/**
+ * Native memory of compressed column files inflated for pooled readers, all tables share one instance.
+ * Files readers read and files nobody reads count against memory limit. Files nobody reads are kept
+ * for reuse within cache size, oldest files are freed first to make room for new ones. When memory
+ * limit is reached, inflating another file frees files nobody reads and fails if that is not enough.
+ */
+public class InflatedColumnMemory {
+    private static final Log LOG = LogFactory.getLog(InflatedColumnMemory.class);
+    // inflated files nobody reads, oldest first
+    private final ObjList<SharedColumnMappings.Mapping> idleMappings = new ObjList<>();
+    private final MicrosecondClock clock;
+    private final long cacheSize;
+    private final long memoryLimit;
+    private long idleSize;
+    private long usedSize;
+
+    /**
+     * @param clock       clock to time out inflated files nobody reads
+     * @param cacheSize   limit of inflated memory nobody reads
+     * @param memoryLimit limit of all inflated memory, it includes cache
+     */
+    public InflatedColumnMemory(MicrosecondClock clock, long cacheSize, long memoryLimit) {
+        this.clock = clock;
+        this.cacheSize = Math.min(cacheSize, memoryLimit);
+        this.memoryLimit = memoryLimit;
+    }
+
+    /**
+     * @return number of inflated files nobody reads, which are kept for reuse
+     */
+    public synchronized int getIdleCount() {
+        return idleMappings.size();
+    }
+
+    /**
+     * @return size of inflated files nobody reads in bytes
+     */
+    public synchronized long getIdleSize() {
+        return idleSize;
+    }
+
+    /**
+     * @return size of all inflated files in bytes
+     */
+    public synchronized long getUsedSize() {
+        return usedSize;
+    }
+
+    /**
+     * Frees inflated files nobody has read since deadline.
+     *
+     * @param deadline files released before this time are freed, Long.MAX_VALUE frees all of them
+     */
+    public synchronized void releaseIdle(long deadline) {
+        int n = 0;
+        for (int size = idleMappings.size(); n < size && idleMappings.getQuick(n).releaseTime < deadline; n++) {
+            freeIdle(idleMappings.getQuick(n));
+        }
+        if (n > 0) {
+            idleMappings.remove(0, n - 1);
+        }
+    }
+
+    /**
+     * Frees inflated files of one table nobody reads.
+     *
+     * @param owner mappings of the table
+     */
+    public synchronized void releaseIdle(SharedColumnMappings owner) {
+        for (int i = idleMappings.size() - 1; i > -1; i--) {
+            final SharedColumnMappings.Mapping mapping = idleMappings.getQuick(i);
+            if (mapping.getOwner() == owner) {
+                freeIdle(mapping);
+                idleMappings.remove(i);
+            }
+        }
+    }
+
+    private void freeIdle(SharedColumnMappings.Mapping mapping) {
+        idleSize -= mapping.getMemory().size();
+        // memory gives its size back on close
+        Misc.free(mapping.getMemory());
+        LOG.debug().$("released [name=").$(mapping.getName()).$(']').$();
+    }
+
+    synchronized boolean keepIdle(SharedColumnMappings.Mapping mapping) {
+        final long size = ((CompressedOnePageMemory) mapping.getMemory()).getInflatedSize();
+        if (size == 0 || size > cacheSize) {
+            return false;
+        }
+        while (idleSize + size > cacheSize) {
+            freeIdle(idleMappings.getQuick(0));
+            idleMappings.remove(0);
+        }
+        idleSize += size;
+        mapping.releaseTime = clock.getTicks();
+        idleMappings.add(mapping);
+        LOG.debug().$("idle [name=").$(mapping.getName()).$(", size=").$(size).$(']').$();
+        return true;
+    }
+
+    synchronized void release(long size) {
+        usedSize -= size;
+    }
+
+    /**
+     * Accounts memory of file about to be inflated.
+     *
+     * @throws CairoException when memory limit is reached and files nobody reads cannot free enough of it
+     */
+    synchronized void reserve(long size, CharSequence name) {
+        while (usedSize + size > memoryLimit) {
+            if (idleMappings.size() == 0) {
+                throw CairoException.instance(0)
+                        .put("inflated column memory limit reached [path=").put(name)
+                        .put(", size=").put(size)
+                        .put(", used=").put(usedSize)
+                        .put(", limit=").put(memoryLimit)
+                        .put(']');
+            }
+            freeIdle(idleMappings.getQuick(0));
+            idleMappings.remove(0);
+        }
+        usedSize += size;
+    }
+
+    synchronized SharedColumnMappings.Mapping takeIdle(SharedColumnMappings owner, CharSequence name, long partitionRowCount, long dataVersion, long partitionTableVersion) {
+        for (int i = idleMappings.size() - 1; i > -1; i--) {
+            final SharedColumnMappings.Mapping mapping = idleMappings.getQuick(i);
+            if (mapping.getOwner() == owner && Chars.equals(name, mapping.getName())) {
+                idleMappings.remove(i);
+                if (mapping.isVersion(partitionRowCount, dataVersion, partitionTableVersion)) {
+                    idleSize -= mapping.getMemory().size();
+                    return mapping;
+                }
+                // there is only one idle mapping of the file, newer version replaces it
+                freeIdle(mapping);
+                return null;
+            }
+        }
+        return null;
+    }
+}
@@ -171,7 +171,7 @@ public class OnePageMemory implements ReadOnlyColumn, Closeable {
 
     @Override
     public final short getShort(long offset) {
-        return Unsafe.getUnsafe().getShort(absolutePointer + offset);
+        return Unsafe.getUnsafe().getShort(addressOf(offset));
     }
 
     @Override
@@ -313,7 +313,7 @@ public class OnePageMemory implements ReadOnlyColumn, Closeable {
         public void copyTo(long address, final long start, final long length) {
             long bytesRemaining = Math.min(length, this.len - start);
             long offset = this.offset + start;
-            Unsafe.getUnsafe().copyMemory(page + offset, address, bytesRemaining);
+            Unsafe.getUnsafe().copyMemory(readAddress + start, address, bytesRemaining);
         }
 
         @Override
@@ -324,7 +324,7 @@ public class OnePageMemory implements ReadOnlyColumn, Closeable {
         ByteSequenceView of(long offset, long len) {
             this.offset = offset;
             this.len = len;
-            this.readAddress = page + offset;
+            this.readAddress = getPageAddress(0) + offset;
             return this;
         }
     }
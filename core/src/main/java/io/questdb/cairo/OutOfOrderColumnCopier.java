@@ -0,0 +1,74 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.Unsafe;
+
+/**
+ * Copies out-of-order data of single column into the partition that writer is currently merging.
+ * Instances are owned by {@link TableWriter}, one per column, and are handed to worker threads
+ * via {@link io.questdb.tasks.OutOfOrderCopyTask}. Copy plan itself is held by the writer.
+ */
+public class OutOfOrderColumnCopier {
+    private static final long SEQUENCE_OFFSET;
+
+    static {
+        SEQUENCE_OFFSET = Unsafe.getFieldOffset(OutOfOrderColumnCopier.class, "sequence");
+    }
+
+    private final TableWriter writer;
+    private final int columnIndex;
+    private volatile long sequence = 0L;
+    private volatile boolean distressed = false;
+
+    public OutOfOrderColumnCopier(TableWriter writer, int columnIndex) {
+        this.writer = writer;
+        this.columnIndex = columnIndex;
+    }
+
+    public void copy() {
+        writer.copyOutOfOrderColumn(columnIndex);
+    }
+
+    public void distress() {
+        distressed = true;
+    }
+
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public boolean isDistressed() {
+        return distressed;
+    }
+
+    public boolean tryLock(long expectedSequence) {
+        return Unsafe.cas(this, SEQUENCE_OFFSET, expectedSequence, expectedSequence + 1);
+    }
+}
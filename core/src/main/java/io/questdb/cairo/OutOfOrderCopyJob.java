@@ -0,0 +1,65 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.MessageBus;
+import io.questdb.mp.Job;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.tasks.OutOfOrderCopyTask;
+
+public class OutOfOrderCopyJob implements Job {
+    private final RingQueue<OutOfOrderCopyTask> queue;
+    private final Sequence subSeq;
+
+    public OutOfOrderCopyJob(MessageBus messageBus) {
+        this.queue = messageBus.getOutOfOrderCopyQueue();
+        this.subSeq = messageBus.getOutOfOrderCopySubSequence();
+    }
+
+    @Override
+    public boolean run(int workerId) {
+        long cursor = subSeq.next();
+        return cursor > -1 && doCopy(cursor);
+    }
+
+    private boolean doCopy(long cursor) {
+        final OutOfOrderCopyTask queueItem = queue.get(cursor);
+        // copy values and release queue item
+        final OutOfOrderColumnCopier copier = queueItem.copier;
+        final long copySequence = queueItem.sequence;
+        final SOCountDownLatch latch = queueItem.countDownLatch;
+        subSeq.done(cursor);
+
+        // writer thread steals columns it has not seen picked up by workers,
+        // CAS on copier sequence ensures column is copied exactly once
+        if (copier.tryLock(copySequence)) {
+            TableWriter.copyOutOfOrderColumnAndCountDown(copier, latch);
+            return true;
+        }
+        return false;
+    }
+}
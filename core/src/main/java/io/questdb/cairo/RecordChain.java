@@ -28,6 +28,7 @@ import io.questdb.cairo.sql.AnalyticSPI;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.std.BinarySequence;
+import io.questdb.std.FilesFacade;
 import io.questdb.std.Long256;
 import io.questdb.std.Mutable;
 import io.questdb.std.Transient;
@@ -104,6 +105,31 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         varAppendOffset = 0L;
     }
 
+    /**
+     * Reads chain image previously written by {@link #spill(FilesFacade, long, long)}. Records
+     * that were in the chain are discarded, loaded records can be iterated after {@link #toTop()}.
+     *
+     * @param ff     files facade
+     * @param fd     file descriptor
+     * @param offset position of the image in file
+     * @param size   size of the image in bytes
+     */
+    public void load(FilesFacade ff, long fd, long offset, long size) {
+        mem.jumpTo(size);
+        if (ff.read(fd, mem.addressOf(0), size, offset) != size) {
+            throw CairoException.instance(ff.errno()).put("could not read record chain [fd=").put(fd).put(", offset=").put(offset).put(", size=").put(size).put(']');
+        }
+        varAppendOffset = size;
+        nextRecordOffset = -1L;
+    }
+
+    /**
+     * @return number of bytes taken by records of this chain
+     */
+    public long getMemoryUsed() {
+        return varAppendOffset;
+    }
+
     public long getOffsetOfColumn(long recordOffset, int columnIndex) {
         return rowToDataOffset(recordOffset) + varOffset + columnOffsets[columnIndex];
     }
@@ -269,6 +295,32 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         this.symbolTableResolver = resolver;
     }
 
+    /**
+     * Writes records of this chain to file as a single image. Record offsets are relative
+     * to the start of the chain, so the image is valid wherever it is loaded.
+     *
+     * @param ff     files facade
+     * @param fd     file descriptor
+     * @param offset position in file to write image at
+     * @return size of the image in bytes
+     */
+    public long spill(FilesFacade ff, long fd, long offset) {
+        final long size = varAppendOffset;
+        if (size > 0 && ff.write(fd, mem.addressOf(0), size, offset) != size) {
+            throw CairoException.instance(ff.errno()).put("could not write record chain [fd=").put(fd).put(", offset=").put(offset).put(", size=").put(size).put(']');
+        }
+        return size;
+    }
+
+    /**
+     * Removes all records and keeps allocated memory for the records to come.
+     */
+    public void truncate() {
+        mem.jumpTo(0);
+        nextRecordOffset = -1L;
+        varAppendOffset = 0L;
+    }
+
     private static long rowToDataOffset(long row) {
         return row + 8;
     }
@@ -380,6 +432,11 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
             return symbolTableResolver.getSymbolTable(col).valueOf(getInt(col));
         }
 
+        @Override
+        public CharSequence getSymB(int col) {
+            return symbolTableResolver.getSymbolTable(col).valueBOf(getInt(col));
+        }
+
         private long fixedWithColumnOffset(int index) {
             return fixedOffset + columnOffsets[index];
         }
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.BinarySequence;
+import io.questdb.std.Long256;
+import io.questdb.std.NumericException;
+import io.questdb.std.microtime.TimestampFormatUtils;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives column values of a single row. Implemented by {@link TableWriter.Row}, which
+ * writes values to the table, and by sinks that buffer values to be written later.
+ */
+public interface RowSink {
+    void append();
+
+    void cancel();
+
+    void putBin(int index, long address, long len);
+
+    void putBin(int index, BinarySequence sequence);
+
+    void putBool(int index, boolean value);
+
+    void putByte(int index, byte value);
+
+    void putChar(int index, char value);
+
+    void putDate(int index, long value);
+
+    void putDouble(int index, double value);
+
+    void putFloat(int index, float value);
+
+    void putInt(int index, int value);
+
+    void putLong(int index, long value);
+
+    void putLong256(int index, long l0, long l1, long l2, long l3);
+
+    void putLong256(int index, Long256 value);
+
+    void putLong256(int index, CharSequence hexString);
+
+    void putLong256(int index, @NotNull CharSequence hexString, int start, int end);
+
+    void putShort(int index, short value);
+
+    void putStr(int index, CharSequence value);
+
+    void putStr(int index, char value);
+
+    void putStr(int index, CharSequence value, int pos, int len);
+
+    void putSym(int index, CharSequence value);
+
+    void putSym(int index, char value);
+
+    void putTimestamp(int index, long value);
+
+    default void putTimestamp(int index, CharSequence value) {
+        // try UTC timestamp first (micro)
+        long l;
+        try {
+            l = TimestampFormatUtils.parseTimestamp(value);
+        } catch (NumericException e) {
+            try {
+                l = TimestampFormatUtils.parseDateTime(value);
+            } catch (NumericException numericException) {
+                throw CairoException.instance(0).put("could not convert to timestamp [value=").put(value).put(']');
+            }
+        }
+        putTimestamp(index, l);
+    }
+}
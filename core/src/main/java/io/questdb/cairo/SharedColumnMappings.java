@@ -0,0 +1,165 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.Chars;
+import io.questdb.std.ConcurrentHashMap;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Misc;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Column file mappings of partitions that are no longer appended to, shared by all readers of the same table.
+ * Such files do not change for as long as table data version and partition table version are the same, so readers
+ * of any transaction can use the same mapping. Mappings are reference counted, the last reader to release
+ * mapping unmaps the file.
+ * <p>
+ * Compressed files are inflated on first read. Inflated memory is accounted by {@link InflatedColumnMemory},
+ * which also keeps inflated files nobody reads for reuse.
+ */
+public class SharedColumnMappings {
+    private static final Log LOG = LogFactory.getLog(SharedColumnMappings.class);
+    private final ConcurrentHashMap<Mapping> mappings = new ConcurrentHashMap<>();
+    private final InflatedColumnMemory inflatedMemory;
+
+    /**
+     * @param inflatedMemory accounts inflated memory of compressed files, registries of all tables share it
+     */
+    public SharedColumnMappings(InflatedColumnMemory inflatedMemory) {
+        this.inflatedMemory = inflatedMemory;
+    }
+
+    /**
+     * @return number of mapped files readers can acquire
+     */
+    public int size() {
+        return mappings.size();
+    }
+
+    /**
+     * Finds mapping of the file or maps the file if there is no mapping of the same partition size and table version.
+     * Lookup does not allocate and does not touch file system, file is only opened when it has to be mapped.
+     * Returned mapping is acquired on behalf of caller, who must release it once done.
+     *
+     * @param ff                    files facade
+     * @param path                  column file path
+     * @param name                  reusable char sequence over the same path, it is the lookup key
+     * @param compressed            true when column file is compressed and has to be inflated
+     * @param partitionRowCount     number of rows in partition, it changes when out-of-order data is merged into partition
+     * @param dataVersion           table data version, it changes when table is truncated
+     * @param partitionTableVersion version of table partition list, it changes when partitions are removed
+     * @return acquired mapping
+     */
+    Mapping acquire(FilesFacade ff, Path path, CharSequence name, boolean compressed, long partitionRowCount, long dataVersion, long partitionTableVersion) {
+        Mapping mapping = mappings.get(name);
+        if (mapping != null && mapping.isVersion(partitionRowCount, dataVersion, partitionTableVersion) && mapping.acquire()) {
+            return mapping;
+        }
+
+        if (compressed && (mapping = inflatedMemory.takeIdle(this, name, partitionRowCount, dataVersion, partitionTableVersion)) != null) {
+            mapping.refCount.set(1);
+            mappings.put(mapping.name, mapping);
+            return mapping;
+        }
+
+        mapping = new Mapping(
+                Chars.toString(name),
+                compressed ? new CompressedOnePageMemory(ff, path, inflatedMemory) : new OnePageMemory(ff, path, ff.length(path)),
+                partitionRowCount,
+                dataVersion,
+                partitionTableVersion
+        );
+        // mapping we replace is still valid for readers that hold it
+        mappings.put(mapping.name, mapping);
+        return mapping;
+    }
+
+    class Mapping implements Closeable {
+        private final String name;
+        private final OnePageMemory mem;
+        private final long partitionRowCount;
+        private final long dataVersion;
+        private final long partitionTableVersion;
+        private final AtomicInteger refCount = new AtomicInteger(1);
+        // time mapping was kept idle, see InflatedColumnMemory
+        long releaseTime;
+
+        private Mapping(String name, OnePageMemory mem, long partitionRowCount, long dataVersion, long partitionTableVersion) {
+            this.name = name;
+            this.mem = mem;
+            this.partitionRowCount = partitionRowCount;
+            this.dataVersion = dataVersion;
+            this.partitionTableVersion = partitionTableVersion;
+        }
+
+        @Override
+        public void close() {
+            if (refCount.decrementAndGet() == 0) {
+                mappings.remove(name, this);
+                if (!(mem instanceof CompressedOnePageMemory) || !inflatedMemory.keepIdle(this)) {
+                    Misc.free(mem);
+                    LOG.debug().$("released [name=").$(name).$(']').$();
+                }
+            }
+        }
+
+        OnePageMemory getMemory() {
+            return mem;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        SharedColumnMappings getOwner() {
+            return SharedColumnMappings.this;
+        }
+
+        boolean isVersion(long partitionRowCount, long dataVersion, long partitionTableVersion) {
+            return this.partitionRowCount == partitionRowCount
+                    && this.dataVersion == dataVersion
+                    && this.partitionTableVersion == partitionTableVersion;
+        }
+
+        private boolean acquire() {
+            while (true) {
+                final int count = refCount.get();
+                // mapping that dropped to zero is being closed and cannot be brought back
+                if (count == 0) {
+                    return false;
+                }
+                if (refCount.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+/**
+ * Reader's view of column mapping shared with other readers of the same table. View owns nothing but
+ * reference to {@link SharedColumnMappings.Mapping}, string and binary flyweights remain private to the reader.
+ * Compressed files are inflated by whichever reader reads them first.
+ */
+public class SharedOnePageMemory extends OnePageMemory {
+    private SharedColumnMappings.Mapping mapping;
+
+    @Override
+    public long addressOf(long offset) {
+        if (page == -1) {
+            attach();
+        }
+        return super.addressOf(offset);
+    }
+
+    @Override
+    public void close() {
+        if (mapping != null) {
+            final SharedColumnMappings.Mapping mapping = this.mapping;
+            this.mapping = null;
+            this.page = -1;
+            this.fd = -1;
+            this.size = 0;
+            mapping.close();
+        } else {
+            super.close();
+        }
+    }
+
+    @Override
+    public void detach() {
+        close();
+    }
+
+    @Override
+    public long getPageAddress(int pageIndex) {
+        if (page == -1) {
+            attach();
+        }
+        return absolutePointer;
+    }
+
+    private void attach() {
+        final OnePageMemory mem = mapping != null ? mapping.getMemory() : null;
+        if (mem instanceof CompressedOnePageMemory) {
+            this.absolutePointer = this.page = ((CompressedOnePageMemory) mem).inflate();
+        }
+    }
+
+    void of(SharedColumnMappings.Mapping mapping) {
+        close();
+        final OnePageMemory mem = mapping.getMemory();
+        this.mapping = mapping;
+        this.ff = mem.ff;
+        this.fd = mem.fd;
+        this.size = mem.size;
+        if (mem instanceof CompressedOnePageMemory) {
+            // another reader may be inflating file, address is taken when view is read
+            this.page = -1;
+            this.absolutePointer = -1;
+        } else {
+            this.page = mem.page;
+            this.absolutePointer = mem.absolutePointer;
+        }
+    }
+}
@@ -26,6 +26,7 @@ package io.questdb.cairo;
 
 
 import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.std.LongList;
 
 public interface SymbolMapReader extends StaticSymbolTable {
     int getSymbolCapacity();
@@ -34,6 +35,16 @@ public interface SymbolMapReader extends StaticSymbolTable {
 
     boolean isDeleted();
 
+    /**
+     * Copies position of the most recent row for every symbol key, null key first. Each position
+     * is a pair of partition timestamp and row index plus one, zero row means symbol key has no rows.
+     *
+     * @param txn  transaction of table reader
+     * @param rows sink for pairs of partition timestamp and row + 1
+     * @return false when latest rows are not maintained or are not consistent with given transaction
+     */
+    boolean readLatestRows(long txn, LongList rows);
+
     void updateSymbolCount(int count);
 
     long symbolCharsAddressOf(int symbolIndex);
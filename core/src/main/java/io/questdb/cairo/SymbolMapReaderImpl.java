@@ -38,6 +38,9 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
     private final BitmapIndexBwdReader indexReader = new BitmapIndexBwdReader();
     private final ExtendableOnePageMemory charMem = new ExtendableOnePageMemory();
     private final ExtendableOnePageMemory offsetMem = new ExtendableOnePageMemory();
+    private final ExtendableOnePageMemory latestMem = new ExtendableOnePageMemory();
+    // unlike writer cache, values here cannot be flyweights over mapped memory: callers,
+    // such as sort comparators, hold on to value of one key while reading value of another
     private final ObjList<String> cache = new ObjList<>();
     private int maxHash;
     private boolean cached;
@@ -54,6 +57,7 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
     public void close() {
         Misc.free(indexReader);
         Misc.free(charMem);
+        Misc.free(latestMem);
         this.cache.clear();
         long fd = this.offsetMem.getFd();
         Misc.free(offsetMem);
@@ -75,6 +79,34 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
         return offsetMem.isDeleted();
     }
 
+    @Override
+    public boolean readLatestRows(long txn, LongList rows) {
+        if (latestMem.getFd() == -1) {
+            return false;
+        }
+
+        // latest rows are mapped on first use, most queries never need them
+        final long hi = SymbolMapWriter.latestEntryOffset(symbolCount + 1);
+        if (latestMem.size() < hi) {
+            latestMem.grow(hi);
+        }
+
+        // writer extends file before it makes latest rows valid for this transaction
+        if (latestMem.getLong(SymbolMapWriter.LATEST_HEADER_TXN) != txn) {
+            return false;
+        }
+        Unsafe.getUnsafe().loadFence();
+
+        for (long offset = SymbolMapWriter.latestEntryOffset(0); offset < hi; offset += SymbolMapWriter.LATEST_ENTRY_SIZE) {
+            rows.add(latestMem.getLong(offset));
+            rows.add(latestMem.getLong(offset + Long.BYTES));
+        }
+
+        // writer could have started next transaction while we were copying
+        Unsafe.getUnsafe().loadFence();
+        return latestMem.getLong(SymbolMapWriter.LATEST_HEADER_TXN) == txn;
+    }
+
     @Override
     public void updateSymbolCount(int symbolCount) {
         if (symbolCount > this.symbolCount) {
@@ -127,6 +159,10 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
             // move append pointer for symbol values in the correct place
             growCharMemToSymbolCount(symbolCount);
 
+            // latest rows are optional, only columns that opted in have them
+            this.latestMem.close();
+            openLatestRows(configuration, path.trimTo(plen), name);
+
             // we use index hash maximum equals to half of symbol capacity, which
             // theoretically should require 2 value cells in index per hash
             // we use 4 cells to compensate for occasionally unlucky hash distribution
@@ -144,6 +180,29 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
         }
     }
 
+    public boolean isTrackingLatestRows() {
+        return latestMem.getFd() != -1;
+    }
+
+    /**
+     * Opens latest rows when column tracks them. Columns can start tracking latest rows
+     * after reader has been opened.
+     */
+    public void openLatestRows(CairoConfiguration configuration, Path path, CharSequence name) {
+        if (isTrackingLatestRows()) {
+            return;
+        }
+        final FilesFacade ff = configuration.getFilesFacade();
+        final int plen = path.length();
+        try {
+            if (ff.exists(SymbolMapWriter.latestFileName(path, name))) {
+                this.latestMem.of(ff, path, ff.getMapPageSize(), 0);
+            }
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
     @Override
     public int size() {
         return symbolCount;
@@ -156,7 +215,7 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
             RowCursor cursor = indexReader.getCursor(true, hash, 0, maxOffset);
             while (cursor.hasNext()) {
                 long offsetOffset = cursor.next();
-                if (Chars.equals(value, charMem.getStr(offsetMem.getLong(offsetOffset)))) {
+                if (equalsValue(value, offsetMem.getLong(offsetOffset))) {
                     return SymbolMapWriter.offsetToKey(offsetOffset);
                 }
             }
@@ -180,11 +239,42 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
         return null;
     }
 
+    /**
+     * Flyweight over mapped symbol chars, which does not cost heap regardless of whether
+     * column is "cached". Value is only valid until next call, callers that keep values
+     * should use {@link #valueOf(int)}.
+     *
+     * @param key symbol key
+     * @return symbol value or null when key is out of range
+     */
+    @Override
+    public CharSequence valueBOf(int key) {
+        if (key > -1 && key < symbolCount) {
+            return charMem.getStr2(offsetMem.getLong(SymbolMapWriter.keyToOffset(key)));
+        }
+        return null;
+    }
+
     private CharSequence cachedValue(int key) {
         String symbol = cache.getQuiet(key);
         return symbol != null ? symbol : fetchAndCache(key);
     }
 
+    // compares without flyweights, values held by callers of valueOf() and valueBOf() stay intact
+    private boolean equalsValue(CharSequence value, long offset) {
+        final int len = charMem.getInt(offset);
+        if (len != value.length()) {
+            return false;
+        }
+        final long address = charMem.addressOf(offset + VirtualMemory.STRING_LENGTH_BYTES);
+        for (int i = 0; i < len; i++) {
+            if (Unsafe.getUnsafe().getChar(address + (long) i * Character.BYTES) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private CharSequence fetchAndCache(int key) {
         String symbol;
         CharSequence cs = charMem.getStr(offsetMem.getLong(SymbolMapWriter.keyToOffset(key)));
@@ -30,12 +30,14 @@ import io.questdb.cairo.sql.RowCursor;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
-import io.questdb.std.CharSequenceIntHashMap;
 import io.questdb.std.Chars;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.Hash;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
 import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
 import io.questdb.std.str.DirectCharSequence;
 import io.questdb.std.str.Path;
 import io.questdb.std.str.SingleCharCharSequence;
@@ -45,14 +47,31 @@ public class SymbolMapWriter implements Closeable {
     public static final int HEADER_CAPACITY = 0;
     public static final int HEADER_CACHE_ENABLED = 4;
     public static final int HEADER_NULL_FLAG = 8;
+    // optional "latest row" file keeps position of the most recent row for every symbol key;
+    // header holds txn the content is valid for, -1 when content cannot be trusted
+    public static final int LATEST_HEADER_SIZE = 16;
+    public static final int LATEST_HEADER_TXN = 0;
+    public static final int LATEST_ENTRY_SIZE = 16;
+    public static final long LATEST_TXN_INVALID = -1;
     private static final Log LOG = LogFactory.getLog(SymbolMapWriter.class);
+    private static final long LATEST_ROW_UNRESOLVED = Long.MIN_VALUE;
     private final BitmapIndexWriter indexWriter;
     private final ReadWriteMemory charMem;
     private final ReadWriteMemory offsetMem;
-    private final CharSequenceIntHashMap cache;
+    private final DirectSymbolCache cache;
     private final DirectCharSequence tmpSymbol;
     private final int maxHash;
+    // pending latest rows of current transaction, pairs of (partition timestamp, row + 1) addressed by entry,
+    // which is key + 1 for symbol values and 0 for null
+    private final LongList latestPendingRows = new LongList();
+    private final IntList latestPendingEntries = new IntList();
+    // all latest rows while they are being rebuilt from table data, same layout as pending rows
+    private final LongList latestRebuildRows = new LongList();
+    private ReadWriteMemory latestMem;
+    private int latestRebuildUnresolvedCount;
     private boolean nullValue = false;
+    private long rowRef = -1;
+    private int rowKey;
 
     public SymbolMapWriter(CairoConfiguration configuration, Path path, CharSequence name, int symbolCount) {
         final int plen = path.length();
@@ -91,13 +110,21 @@ public class SymbolMapWriter implements Closeable {
             // move append pointer for symbol values in the correct place
             jumpCharMemToSymbolCount(symbolCount);
 
+            // latest rows are tracked only for columns that opted in
+            if (ff.exists(latestFileName(path.trimTo(plen), name))) {
+                this.latestMem = new ReadWriteMemory(ff, path, mapPageSize);
+                this.latestMem.jumpTo(latestEntryOffset(symbolCount + 1));
+            } else {
+                this.latestMem = null;
+            }
+
             // we use index hash maximum equals to half of symbol capacity, which
             // theoretically should require 2 value cells in index per hash
             // we use 4 cells to compensate for occasionally unlucky hash distribution
             this.maxHash = Numbers.ceilPow2(symbolCapacity / 2) - 1;
 
             if (useCache) {
-                this.cache = new CharSequenceIntHashMap(symbolCapacity);
+                this.cache = new DirectSymbolCache(offsetMem, charMem, symbolCapacity);
             } else {
                 this.cache = null;
             }
@@ -137,14 +164,20 @@ public class SymbolMapWriter implements Closeable {
         }
     }
 
+    public static Path latestFileName(Path path, CharSequence columnName) {
+        return path.concat(columnName).put(".l").$();
+    }
+
     public static Path offsetFileName(Path path, CharSequence columnName) {
         return path.concat(columnName).put(".o").$();
     }
 
     @Override
     public void close() {
+        Misc.free(cache);
         Misc.free(indexWriter);
         Misc.free(charMem);
+        Misc.free(latestMem);
         if (this.offsetMem != null) {
             long fd = this.offsetMem.getFd();
             Misc.free(offsetMem);
@@ -157,6 +190,10 @@ public class SymbolMapWriter implements Closeable {
         return offsetToKey(offsetMem.getAppendOffset());
     }
 
+    public boolean isTrackingLatestRows() {
+        return latestMem != null;
+    }
+
     public int put(char c) {
         return put(SingleCharCharSequence.get(c));
     }
@@ -172,8 +209,9 @@ public class SymbolMapWriter implements Closeable {
         }
 
         if (cache != null) {
-            int index = cache.keyIndex(symbol);
-            return index < 0 ? cache.valueAt(index) : lookupPutAndCache(index, symbol);
+            final int hash = Chars.hashCode(symbol);
+            final int key = cache.get(symbol, hash);
+            return key > -1 ? key : lookupPutAndCache(symbol, hash);
         }
         return lookupAndPut(symbol);
     }
@@ -195,6 +233,170 @@ public class SymbolMapWriter implements Closeable {
         offsetMem.putBool(HEADER_NULL_FLAG, flag);
     }
 
+    /**
+     * Moves latest rows forward to next transaction when transaction did not change rows of the table.
+     *
+     * @param txn     transaction latest rows are currently valid for
+     * @param nextTxn transaction to make latest rows valid for
+     */
+    void advanceLatestRows(long txn, long nextTxn) {
+        if (isLatestRowsValid(txn)) {
+            latestMem.putLong(LATEST_HEADER_TXN, nextTxn);
+        }
+    }
+
+    /**
+     * Writes latest rows accumulated by current transaction, which only appended rows at the end of
+     * the table. Readers use header to validate their copy of latest rows, so header is invalidated
+     * for the duration of the update. Transactions that moved existing rows around, such as out-of-order
+     * merge, rebuild latest rows from table data instead.
+     *
+     * @param txn     transaction latest rows are currently valid for
+     * @param nextTxn transaction being committed
+     */
+    void commitLatestRows(long txn, long nextTxn) {
+        if (isLatestRowsValid(txn)) {
+            latestMem.putLong(LATEST_HEADER_TXN, LATEST_TXN_INVALID);
+            Unsafe.getUnsafe().storeFence();
+            for (int i = 0, n = latestPendingEntries.size(); i < n; i++) {
+                final int entry = latestPendingEntries.getQuick(i);
+                final long offset = latestEntryOffset(entry);
+                latestMem.putLong(offset, latestPendingRows.getQuick(entry * 2));
+                latestMem.putLong(offset + Long.BYTES, latestPendingRows.getQuick(entry * 2 + 1));
+            }
+            latestMem.jumpTo(Math.max(latestMem.getAppendOffset(), latestEntryOffset(getSymbolCount() + 1)));
+            Unsafe.getUnsafe().storeFence();
+            latestMem.putLong(LATEST_HEADER_TXN, nextTxn);
+        }
+        clearLatestRows();
+    }
+
+    /**
+     * Writes rebuilt latest rows and makes them valid for given transaction.
+     *
+     * @param txn transaction latest rows have been rebuilt for
+     */
+    void finishLatestRowsRebuild(long txn) {
+        final int entryCount = latestRebuildRows.size() / 2;
+        latestMem.jumpTo(latestEntryOffset(entryCount));
+        for (int entry = 0; entry < entryCount; entry++) {
+            final long offset = latestEntryOffset(entry);
+            final long row = latestRebuildRows.getQuick(entry * 2 + 1);
+            // keys without rows are left unresolved when their rows are gone
+            latestMem.putLong(offset, row == 0 ? 0 : latestRebuildRows.getQuick(entry * 2));
+            latestMem.putLong(offset + Long.BYTES, row);
+        }
+        Unsafe.getUnsafe().storeFence();
+        latestMem.putLong(LATEST_HEADER_TXN, txn);
+        latestRebuildRows.clear();
+    }
+
+    boolean isLatestRowsRebuildComplete() {
+        return latestRebuildUnresolvedCount == 0;
+    }
+
+    boolean isLatestRowsValid(long txn) {
+        return latestMem != null && latestMem.getLong(LATEST_HEADER_TXN) == txn;
+    }
+
+    boolean isRebuildingLatestRows() {
+        return latestRebuildRows.size() > 0;
+    }
+
+    /**
+     * Creates latest rows file for the column, which makes writer track latest rows from then on.
+     * File content is invalid until it is rebuilt from table data.
+     */
+    void openLatestRows(FilesFacade ff, Path path, CharSequence name) {
+        final int plen = path.length();
+        try {
+            this.latestMem = new ReadWriteMemory(ff, latestFileName(path.trimTo(plen), name), ff.getMapPageSize());
+            latestMem.putLong(LATEST_HEADER_TXN, LATEST_TXN_INVALID);
+            latestMem.jumpTo(latestEntryOffset(1));
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    /**
+     * Offers row to latest rows being rebuilt. Partitions are expected to be offered newest first and
+     * rows within partition last to first, so the row is taken when key has no row yet or its row is in
+     * an older partition.
+     *
+     * @param key                symbol key stored in the row
+     * @param partitionTimestamp timestamp of the partition row belongs to
+     * @param row                row index within partition
+     */
+    void putRebuiltLatestRow(int key, long partitionTimestamp, long row) {
+        final int slot = (key == SymbolTable.VALUE_IS_NULL ? 0 : key + 1) * 2;
+        if (slot >= latestRebuildRows.size()) {
+            return;
+        }
+
+        if (latestRebuildRows.getQuick(slot + 1) == 0) {
+            if (latestRebuildRows.getQuick(slot) == LATEST_ROW_UNRESOLVED) {
+                latestRebuildUnresolvedCount--;
+            }
+            latestRebuildRows.setQuick(slot, partitionTimestamp);
+            latestRebuildRows.setQuick(slot + 1, row + 1);
+        } else if (latestRebuildRows.getQuick(slot) < partitionTimestamp) {
+            latestRebuildRows.setQuick(slot, partitionTimestamp);
+            latestRebuildRows.setQuick(slot + 1, row + 1);
+        }
+    }
+
+    void rollbackLatestRows() {
+        clearLatestRows();
+        latestRebuildRows.clear();
+    }
+
+    /**
+     * Prepares latest rows to be rebuilt from table data. Rows in partitions between "staleLo" and
+     * "staleHi" inclusive cannot be trusted anymore and keys they point to have to be looked up again.
+     * Latest rows in other partitions are kept when latest rows are valid for given transaction,
+     * otherwise all keys are looked up.
+     *
+     * @param txn     transaction latest rows are expected to be valid for
+     * @param staleLo timestamp of the oldest partition, which content has changed
+     * @param staleHi timestamp of the newest partition, which content has changed
+     */
+    void startLatestRowsRebuild(long txn, long staleLo, long staleHi) {
+        final int entryCount = getSymbolCount() + 1;
+        latestRebuildRows.setPos(entryCount * 2);
+        latestRebuildRows.zero(0);
+        latestRebuildUnresolvedCount = 0;
+
+        if (isLatestRowsValid(txn)) {
+            // keys added by current transaction have no entries yet, rows of changed partitions will have them
+            final int validCount = (int) Math.min(entryCount, (latestMem.getAppendOffset() - LATEST_HEADER_SIZE) / LATEST_ENTRY_SIZE);
+            for (int entry = 0; entry < validCount; entry++) {
+                final long offset = latestEntryOffset(entry);
+                final long partitionTimestamp = latestMem.getLong(offset);
+                final long row = latestMem.getLong(offset + Long.BYTES);
+                if (row != 0) {
+                    if (partitionTimestamp < staleLo || partitionTimestamp > staleHi) {
+                        latestRebuildRows.setQuick(entry * 2, partitionTimestamp);
+                        latestRebuildRows.setQuick(entry * 2 + 1, row);
+                    } else {
+                        latestRebuildRows.setQuick(entry * 2, LATEST_ROW_UNRESOLVED);
+                        latestRebuildUnresolvedCount++;
+                    }
+                }
+            }
+        } else {
+            for (int entry = 0; entry < entryCount; entry++) {
+                latestRebuildRows.setQuick(entry * 2, LATEST_ROW_UNRESOLVED);
+            }
+            latestRebuildUnresolvedCount = entryCount;
+        }
+        latestMem.putLong(LATEST_HEADER_TXN, LATEST_TXN_INVALID);
+        clearLatestRows();
+    }
+
+    static long latestEntryOffset(int entry) {
+        return LATEST_HEADER_SIZE + (long) entry * LATEST_ENTRY_SIZE;
+    }
+
     static int offsetToKey(long offset) {
         return (int) ((offset - HEADER_SIZE) / 8L);
     }
@@ -207,6 +409,41 @@ public class SymbolMapWriter implements Closeable {
         return cache != null;
     }
 
+    void putLatestRow(long ref, long partitionTimestamp, long row) {
+        if (latestMem != null) {
+            // null key occupies first entry
+            final int entry = rowRef == ref && rowKey != SymbolTable.VALUE_IS_NULL ? rowKey + 1 : 0;
+            final int slot = entry * 2;
+            if (slot >= latestPendingRows.size() || latestPendingRows.getQuick(slot + 1) == 0) {
+                latestPendingEntries.add(entry);
+            }
+            latestPendingRows.extendAndSet(slot + 1, row + 1);
+            latestPendingRows.setQuick(slot, partitionTimestamp);
+        }
+    }
+
+    void resetLatestRows(long txn) {
+        if (latestMem != null) {
+            clearLatestRows();
+            latestMem.jumpTo(latestEntryOffset(1));
+            latestMem.zero();
+            latestMem.putLong(LATEST_HEADER_TXN, txn);
+        }
+    }
+
+    int updateRowKey(long ref, int key) {
+        this.rowRef = ref;
+        this.rowKey = key;
+        return key;
+    }
+
+    private void clearLatestRows() {
+        for (int i = 0, n = latestPendingEntries.size(); i < n; i++) {
+            latestPendingRows.setQuick(latestPendingEntries.getQuick(i) * 2 + 1, 0);
+        }
+        latestPendingEntries.clear();
+    }
+
     private void jumpCharMemToSymbolCount(int symbolCount) {
         if (symbolCount > 0) {
             long lastSymbolOffset = this.offsetMem.getLong(keyToOffset(symbolCount - 1));
@@ -229,10 +466,9 @@ public class SymbolMapWriter implements Closeable {
         return put0(symbol, hash);
     }
 
-    private int lookupPutAndCache(int index, CharSequence symbol) {
-        int result;
-        result = lookupAndPut(symbol);
-        cache.putAt(index, symbol.toString(), result);
+    private int lookupPutAndCache(CharSequence symbol, int hash) {
+        final int result = lookupAndPut(symbol);
+        cache.put(hash, result);
         return result;
     }
 
@@ -266,11 +502,11 @@ public class SymbolMapWriter implements Closeable {
 
             long offsetOffset = offsetMem.getAppendOffset();
             offsetMem.putLong(symCharsOffset);
-            int hash = Hash.boundedHash(tmpSymbol, maxHash);
-            indexWriter.add(hash, offsetOffset);
+            final int hashCode = Chars.hashCode(tmpSymbol);
+            indexWriter.add((hashCode & 0xFFFFFFF) & maxHash, offsetOffset);
 
             if (cache != null) {
-                cache.putAt(symbolIndex, tmpSymbol.toString(), offsetToKey(offsetOffset));
+                cache.put(hashCode, offsetToKey(offsetOffset));
             }
 
             offset = symCharsOffsetHi;
@@ -284,6 +520,8 @@ public class SymbolMapWriter implements Closeable {
         offsetMem.jumpTo(keyToOffset(0));
         charMem.jumpTo(0);
         indexWriter.truncate();
-        cache.clear();
+        if (cache != null) {
+            cache.clear();
+        }
     }
 }
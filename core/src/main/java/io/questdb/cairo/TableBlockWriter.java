@@ -239,6 +239,9 @@ public class TableBlockWriter implements Closeable {
             case PartitionBy.YEAR:
                 timestampFloorMethod = Timestamps.FLOOR_YYYY;
                 break;
+            case PartitionBy.HOUR:
+                timestampFloorMethod = Timestamps.FLOOR_HH;
+                break;
             default:
                 timestampFloorMethod = NO_PARTITIONING_FLOOR;
                 break;
@@ -10,6 +10,7 @@ import org.jetbrains.annotations.Nullable;
 
 public class TablePageFrameCursor implements PageFrameCursor {
     private final LongList columnFrameAddresses = new LongList();
+    private final LongList columnFrameIndexAddresses = new LongList();
     private final LongList columnFrameLengths = new LongList();
     private final LongList columnTops = new LongList();
     private final ReplicationPageFrame frame = new ReplicationPageFrame();
@@ -25,6 +26,8 @@ public class TablePageFrameCursor implements PageFrameCursor {
     private int partitionCount;
     private int timestampColumnIndex;
     private long frameFirstRow;
+    private long frameLo;
+    private long frameHi;
     private long nPartitionRows;
     private long firstTimestamp = Long.MIN_VALUE;
     private int columnBase;
@@ -67,6 +70,7 @@ public class TablePageFrameCursor implements PageFrameCursor {
         columnCount = columnIndexes.size();
         this.timestampColumnIndex = timestampColumnIndex;
         columnFrameAddresses.ensureCapacity(columnCount);
+        columnFrameIndexAddresses.ensureCapacity(columnCount);
         columnFrameLengths.ensureCapacity(columnCount);
         columnTops.ensureCapacity(columnCount);
         toTop();
@@ -126,6 +130,7 @@ public class TablePageFrameCursor implements PageFrameCursor {
 
                     long columnPageAddress = col.getPageAddress(0);
                     long columnPageLength;
+                    long columnIndexPageAddress = 0;
 
                     int columnType = reader.getMetadata().getColumnType(columnIndex);
                     switch (columnType) {
@@ -138,7 +143,7 @@ public class TablePageFrameCursor implements PageFrameCursor {
                                 columnPageAddress += columnPageBegin;
                                 columnPageLength -= columnPageBegin;
                             }
-
+                            columnIndexPageAddress = strLenCol.getPageAddress(0) + (colFrameFirstRow << 3);
                             break;
                         }
 
@@ -167,6 +172,7 @@ public class TablePageFrameCursor implements PageFrameCursor {
                     }
 
                     columnFrameAddresses.setQuick(i, columnPageAddress);
+                    columnFrameIndexAddresses.setQuick(i, columnIndexPageAddress);
                     columnFrameLengths.setQuick(i, columnPageLength);
 
                     if (timestampColumnIndex == columnIndex) {
@@ -174,11 +180,14 @@ public class TablePageFrameCursor implements PageFrameCursor {
                     }
                 } else {
                     columnFrameAddresses.setQuick(i, 0);
+                    columnFrameIndexAddresses.setQuick(i, 0);
                     // Frame length is the number of rows missing from the top of the partition (i.e. the columnTop)
                     columnFrameLengths.setQuick(i, nFrameRows);
                 }
             }
 
+            frameLo = frameFirstRow;
+            frameHi = frameFirstRow + nFrameRows;
             frameFirstRow += nFrameRows;
             assert frameFirstRow <= nPartitionRows;
             if (frameFirstRow == nPartitionRows) {
@@ -254,15 +263,31 @@ public class TablePageFrameCursor implements PageFrameCursor {
             return columnFrameAddresses.getQuick(i);
         }
 
+        @Override
+        public long getIndexPageAddress(int i) {
+            return columnFrameIndexAddresses.getQuick(i);
+        }
+
         @Override
         public long getFirstTimestamp() {
             return firstTimestamp;
         }
 
+        @Override
         public int getPartitionIndex() {
             return partitionIndex;
         }
 
+        @Override
+        public long getPartitionLo() {
+            return frameLo;
+        }
+
+        @Override
+        public long getPartitionHi() {
+            return frameHi;
+        }
+
         @Override
         public long getPageSize(int i) {
             return columnFrameLengths.getQuick(i);
@@ -28,8 +28,10 @@ import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
 import io.questdb.std.microtime.Timestamps;
+import io.questdb.std.str.NativeLPSZ;
 import io.questdb.std.str.Path;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 import java.util.concurrent.locks.LockSupport;
@@ -41,6 +43,7 @@ public class TableReader implements Closeable {
     private static final PartitionPathGenerator YEAR_GEN = TableReader::pathGenYear;
     private static final PartitionPathGenerator MONTH_GEN = TableReader::pathGenMonth;
     private static final PartitionPathGenerator DAY_GEN = TableReader::pathGenDay;
+    private static final PartitionPathGenerator HOUR_GEN = TableReader::pathGenHour;
     private static final PartitionPathGenerator DEFAULT_GEN = (reader, partitionIndex) -> reader.pathGenDefault();
     private static final ReloadMethod NON_PARTITIONED_RELOAD_METHOD = TableReader::reloadNonPartitioned;
     private static final ReloadMethod FIRST_TIME_NON_PARTITIONED_RELOAD_METHOD = TableReader::reloadInitialNonPartitioned;
@@ -64,6 +67,8 @@ public class TableReader implements Closeable {
     private final CairoConfiguration configuration;
     private final IntList symbolCountSnapshot = new IntList();
     private final LongHashSet removedPartitions = new LongHashSet();
+    private final SharedColumnMappings sharedMappings;
+    private final NativeLPSZ mappingName = new NativeLPSZ();
     private LongList columnTops;
     private ObjList<ReadOnlyColumn> columns;
     private ObjList<BitmapIndexReader> bitmapIndexes;
@@ -85,8 +90,19 @@ public class TableReader implements Closeable {
     private long tempMem8b = Unsafe.malloc(8);
 
     public TableReader(CairoConfiguration configuration, CharSequence tableName) {
+        this(configuration, tableName, null);
+    }
+
+    /**
+     * @param configuration  cairo configuration
+     * @param tableName      name of table to read
+     * @param sharedMappings mappings of partitions that are no longer appended to, shared with other readers
+     *                       of the same table, or null when reader is to map all partitions on its own
+     */
+    public TableReader(CairoConfiguration configuration, CharSequence tableName, @Nullable SharedColumnMappings sharedMappings) {
         LOG.info().$("open '").utf8(tableName).$('\'').$();
         this.configuration = configuration;
+        this.sharedMappings = sharedMappings;
         this.ff = configuration.getFilesFacade();
         this.tableName = Chars.toString(tableName);
         this.path = new Path().of(configuration.getRoot()).concat(tableName);
@@ -119,6 +135,13 @@ public class TableReader implements Closeable {
                     intervalLengthMethod = Timestamps::getYearsBetween;
                     timestampAddMethod = Timestamps::addYear;
                     break;
+                case PartitionBy.HOUR:
+                    partitionPathGenerator = HOUR_GEN;
+                    reloadMethod = FIRST_TIME_PARTITIONED_RELOAD_METHOD;
+                    timestampFloorMethod = Timestamps::floorHH;
+                    intervalLengthMethod = Timestamps::getHoursBetween;
+                    timestampAddMethod = Timestamps::addHours;
+                    break;
                 default:
                     partitionPathGenerator = DEFAULT_GEN;
                     reloadMethod = FIRST_TIME_NON_PARTITIONED_RELOAD_METHOD;
@@ -368,6 +391,41 @@ public class TableReader implements Closeable {
         return openPartition0(partitionIndex);
     }
 
+    /**
+     * Reads row ids of the most recent row of every value of symbol column. Row ids are stored
+     * by symbol key, null key first, and -1 marks symbol keys without rows.
+     *
+     * @param columnIndex index of symbol column
+     * @param rowIds      list to read row ids to, it is cleared first
+     * @return false when symbol column does not maintain latest rows for current transaction
+     */
+    public boolean readLatestRows(int columnIndex, LongList rowIds) {
+        rowIds.clear();
+        if (partitionCount == 0 || !symbolMapReaders.getQuick(columnIndex).readLatestRows(txn, rowIds)) {
+            return false;
+        }
+
+        // convert (partition timestamp, row + 1) pairs to row ids in place
+        final boolean partitioned = getPartitionedBy() != PartitionBy.NONE;
+        final int n = rowIds.size();
+        for (int i = 0; i < n; i += 2) {
+            final long row = rowIds.getQuick(i + 1) - 1;
+            if (row > -1) {
+                final long partitionTimestamp = rowIds.getQuick(i);
+                final int partitionIndex = partitioned ? getPartitionCountBetweenTimestamps(minTimestamp, partitionTimestamp) : 0;
+                // records can only be read from open partitions
+                if ((partitioned && partitionTimestamp < minTimestamp) || partitionIndex >= partitionCount || row >= openPartition(partitionIndex)) {
+                    return false;
+                }
+                rowIds.setQuick(i / 2, Rows.toRowID(partitionIndex, row));
+            } else {
+                rowIds.setQuick(i / 2, -1);
+            }
+        }
+        rowIds.setPos(n / 2);
+        return true;
+    }
+
     public boolean reload() {
         return reloadMethod.reload(this);
     }
@@ -807,6 +865,21 @@ public class TableReader implements Closeable {
         return symbolMapReaders.getQuick(columnIndex).isCached();
     }
 
+    /**
+     * Checks if column file, which name path holds, exists in compressed form only.
+     */
+    private boolean isCompressed(Path path) {
+        if (ff.exists(path)) {
+            return false;
+        }
+        final int plen = path.length();
+        try {
+            return ff.exists(path.chopZ().put(TableUtils.FILE_SUFFIX_COMPRESSED).$());
+        } finally {
+            path.trimTo(plen).$();
+        }
+    }
+
     private TableReaderMetadata openMetaFile() {
         try {
             return new TableReaderMetadata(ff, path.concat(TableUtils.META_FILE_NAME).$());
@@ -816,7 +889,40 @@ public class TableReader implements Closeable {
     }
 
     @NotNull
-    private ReadOnlyColumn openOrCreateMemory(Path path, ObjList<ReadOnlyColumn> columns, boolean lastPartition, int primaryIndex, ReadOnlyColumn mem) {
+    private ReadOnlyColumn openOrCreateMemory(Path path, ObjList<ReadOnlyColumn> columns, long partitionRowCount, boolean lastPartition, int primaryIndex, ReadOnlyColumn mem) {
+        if (!lastPartition && sharedMappings != null) {
+            return openSharedMemory(path, columns, partitionRowCount, primaryIndex, mem);
+        }
+
+        if (mem instanceof SharedOnePageMemory) {
+            // partition is appended to again, it needs its own mapping
+            Misc.free(mem);
+            mem = null;
+        }
+
+        if (!lastPartition && isCompressed(path)) {
+            final int plen = path.length();
+            try {
+                path.chopZ().put(TableUtils.FILE_SUFFIX_COMPRESSED).$();
+                if (mem instanceof CompressedOnePageMemory) {
+                    mem.of(ff, path, 0, 0);
+                } else {
+                    Misc.free(mem);
+                    mem = new CompressedOnePageMemory(ff, path);
+                    columns.setQuick(primaryIndex, mem);
+                }
+            } finally {
+                path.trimTo(plen).$();
+            }
+            return mem;
+        }
+
+        if (mem instanceof CompressedOnePageMemory) {
+            // partition has been decompressed
+            Misc.free(mem);
+            mem = null;
+        }
+
         if (mem != null && mem != NullColumn.INSTANCE) {
             mem.of(ff, path, ff.getMapPageSize(), ff.length(path));
         } else {
@@ -830,6 +936,39 @@ public class TableReader implements Closeable {
         return mem;
     }
 
+    private ReadOnlyColumn openSharedMemory(Path path, ObjList<ReadOnlyColumn> columns, long partitionRowCount, int primaryIndex, ReadOnlyColumn mem) {
+        final SharedOnePageMemory sharedMem;
+        if (mem instanceof SharedOnePageMemory) {
+            sharedMem = (SharedOnePageMemory) mem;
+        } else {
+            Misc.free(mem);
+            sharedMem = new SharedOnePageMemory();
+            columns.setQuick(primaryIndex, sharedMem);
+        }
+
+        final boolean compressed = isCompressed(path);
+        final int plen = path.length();
+        try {
+            if (compressed) {
+                path.chopZ().put(TableUtils.FILE_SUFFIX_COMPRESSED).$();
+            }
+            sharedMem.of(sharedMappings.acquire(ff, path, mappingName.of(path.address()), compressed, partitionRowCount, dataVersion, partitionTableVersion));
+        } finally {
+            path.trimTo(plen).$();
+        }
+        return sharedMem;
+    }
+
+    // symbol columns can start tracking latest rows at any time, this changes table structure
+    private void openLatestRows() {
+        for (int i = 0; i < columnCount; i++) {
+            final SymbolMapReader reader = symbolMapReaders.getQuick(i);
+            if (reader instanceof SymbolMapReaderImpl) {
+                ((SymbolMapReaderImpl) reader).openLatestRows(configuration, path.trimTo(rootLen), metadata.getColumnName(i));
+            }
+        }
+    }
+
     private long openPartition0(int partitionIndex) {
         // is this table is partitioned?
         if (timestampAddMethod != null
@@ -921,6 +1060,16 @@ public class TableReader implements Closeable {
         return path.concat(TableUtils.DEFAULT_PARTITION_NAME).$();
     }
 
+    private Path pathGenHour(int partitionIndex) {
+        TableUtils.fmtHour.format(
+                Timestamps.addHours(minTimestamp, partitionIndex),
+                null, // this format does not need locale access
+                null,
+                path.put(Files.SEPARATOR)
+        );
+        return path.$();
+    }
+
     private Path pathGenMonth(int partitionIndex) {
         TableUtils.fmtMonth.format(
                 Timestamps.addMonths(minTimestamp, partitionIndex),
@@ -1053,9 +1202,9 @@ public class TableReader implements Closeable {
             ReadOnlyColumn mem1 = columns.getQuick(primaryIndex);
             ReadOnlyColumn mem2 = columns.getQuick(secondaryIndex);
 
-            if (ff.exists(TableUtils.dFile(path.trimTo(plen), name))) {
+            if (ff.exists(TableUtils.dFile(path.trimTo(plen), name)) || isCompressed(path)) {
 
-                mem1 = openOrCreateMemory(path, columns, lastPartition, primaryIndex, mem1);
+                mem1 = openOrCreateMemory(path, columns, partitionRowCount, lastPartition, primaryIndex, mem1);
 
                 final long columnTop = TableUtils.readColumnTop(ff, path.trimTo(plen), name, plen, tempMem8b);
                 final int type = metadata.getColumnType(columnIndex);
@@ -1064,7 +1213,7 @@ public class TableReader implements Closeable {
                     case ColumnType.BINARY:
                     case ColumnType.STRING:
                         TableUtils.iFile(path.trimTo(plen), name);
-                        mem2 = openOrCreateMemory(path, columns, lastPartition, secondaryIndex, mem2);
+                        mem2 = openOrCreateMemory(path, columns, partitionRowCount, lastPartition, secondaryIndex, mem2);
                         growColumn(mem1, mem2, type, partitionRowCount - columnTop);
                         break;
                     default:
@@ -1123,6 +1272,7 @@ public class TableReader implements Closeable {
             // rearrange symbol map reader list
             reshuffleSymbolMapReaders(pTransitionIndex);
             this.columnCount = columnCount;
+            openLatestRows();
         } finally {
             TableReaderMetadata.freeTransitionIndex(pTransitionIndex);
         }
@@ -42,6 +42,7 @@ public class TableReaderRecordCursorFactory extends AbstractRecordCursorFactory
     private final IntList columnSizes;
     private TablePageFrameCursor pageFrameCursor = null;
     private final boolean framingSupported;
+    private final boolean varSizeFramingSupported;
 
     public TableReaderRecordCursorFactory(
             RecordMetadata metadata,
@@ -50,7 +51,8 @@ public class TableReaderRecordCursorFactory extends AbstractRecordCursorFactory
             long tableVersion,
             @NotNull IntList columnIndexes,
             @NotNull IntList columnSizes,
-            boolean framingSupported
+            boolean framingSupported,
+            boolean varSizeFramingSupported
     ) {
         super(metadata);
         this.cursor = new TableReaderSelectedColumnRecordCursor(columnIndexes);
@@ -60,6 +62,7 @@ public class TableReaderRecordCursorFactory extends AbstractRecordCursorFactory
         this.columnIndexes = columnIndexes;
         this.columnSizes = columnSizes;
         this.framingSupported = framingSupported;
+        this.varSizeFramingSupported = varSizeFramingSupported;
     }
 
     @Override
@@ -84,7 +87,7 @@ public class TableReaderRecordCursorFactory extends AbstractRecordCursorFactory
         if (pageFrameCursor != null) {
             return pageFrameCursor.of(engine.getReader(executionContext.getCairoSecurityContext(), tableName), Long.MAX_VALUE, -1,
                     columnIndexes, columnSizes);
-        } else if (framingSupported) {
+        } else if (framingSupported || varSizeFramingSupported) {
             pageFrameCursor = new TablePageFrameCursor();
             return pageFrameCursor.of(engine.getReader(executionContext.getCairoSecurityContext(), tableName), Long.MAX_VALUE, -1,
                     columnIndexes, columnSizes);
@@ -97,4 +100,9 @@ public class TableReaderRecordCursorFactory extends AbstractRecordCursorFactory
     public boolean supportPageFrameCursor() {
         return framingSupported;
     }
+
+    @Override
+    public boolean supportVarSizePageFrameCursor() {
+        return varSizeFramingSupported;
+    }
 }
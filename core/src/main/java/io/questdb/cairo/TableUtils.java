@@ -56,12 +56,14 @@ public final class TableUtils {
     public static final long META_OFFSET_TABLE_ID = 16;
     public static final String FILE_SUFFIX_I = ".i";
     public static final String FILE_SUFFIX_D = ".d";
+    public static final String FILE_SUFFIX_COMPRESSED = ".z";
     static final int MIN_INDEX_VALUE_BLOCK_SIZE = Numbers.ceilPow2(4);
     static final byte TODO_RESTORE_META = 2;
     static final byte TODO_TRUNCATE = 1;
     static final TimestampFormat fmtDay;
     static final TimestampFormat fmtMonth;
     static final TimestampFormat fmtYear;
+    static final TimestampFormat fmtHour;
     static final String ARCHIVE_FILE_NAME = "_archive";
     static final String DEFAULT_PARTITION_NAME = "default";
     // transaction file structure
@@ -371,6 +373,21 @@ public final class TableUtils {
                 TimestampFormatUtils.append000(path, y);
                 partitionHi = Timestamps.addYear(Timestamps.yearMicros(y, leap), 1) - 1;
                 break;
+            case PartitionBy.HOUR:
+                y = Timestamps.getYear(timestamp);
+                leap = Timestamps.isLeapYear(y);
+                m = Timestamps.getMonthOfYear(timestamp, y, leap);
+                d = Timestamps.getDayOfMonth(timestamp, y, m, leap);
+                TimestampFormatUtils.append000(path, y);
+                path.put('-');
+                TimestampFormatUtils.append0(path, m);
+                path.put('-');
+                TimestampFormatUtils.append0(path, d);
+                path.put('T');
+                TimestampFormatUtils.append0(path, Timestamps.getHourOfDay(timestamp));
+
+                partitionHi = Timestamps.ceilHH(timestamp);
+                break;
             default:
                 path.put(DEFAULT_PARTITION_NAME);
                 partitionHi = Long.MAX_VALUE;
@@ -516,6 +533,14 @@ public final class TableUtils {
         return path.concat(columnName).put(FILE_SUFFIX_D).$();
     }
 
+    static LPSZ dzFile(Path path, CharSequence columnName) {
+        return path.concat(columnName).put(FILE_SUFFIX_D).put(FILE_SUFFIX_COMPRESSED).$();
+    }
+
+    static LPSZ izFile(Path path, CharSequence columnName) {
+        return path.concat(columnName).put(FILE_SUFFIX_I).put(FILE_SUFFIX_COMPRESSED).$();
+    }
+
     static LPSZ topFile(Path path, CharSequence columnName) {
         return path.concat(columnName).put(".top").$();
     }
@@ -601,6 +626,8 @@ public final class TableUtils {
                 return Timestamps.floorMM(timestampA) == Timestamps.floorMM(timestampB);
             case PartitionBy.YEAR:
                 return Timestamps.floorYYYY(timestampA) == Timestamps.floorYYYY(timestampB);
+            case PartitionBy.HOUR:
+                return Timestamps.floorHH(timestampA) == Timestamps.floorHH(timestampB);
             default:
                 throw CairoException.instance(0).put("Cannot compare timestamps for unsupported partition type: [").put(partitionBy).put(']');
         }
@@ -636,5 +663,6 @@ public final class TableUtils {
         fmtDay = compiler.compile("yyyy-MM-dd");
         fmtMonth = compiler.compile("yyyy-MM");
         fmtYear = compiler.compile("yyyy");
+        fmtHour = compiler.compile("yyyy-MM-ddTHH");
     }
 }
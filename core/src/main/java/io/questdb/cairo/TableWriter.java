@@ -36,12 +36,12 @@ import io.questdb.mp.SOCountDownLatch;
 import io.questdb.mp.Sequence;
 import io.questdb.std.*;
 import io.questdb.std.microtime.TimestampFormat;
-import io.questdb.std.microtime.TimestampFormatUtils;
 import io.questdb.std.microtime.Timestamps;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.NativeLPSZ;
 import io.questdb.std.str.Path;
 import io.questdb.tasks.ColumnIndexerTask;
+import io.questdb.tasks.OutOfOrderCopyTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -74,10 +74,13 @@ public class TableWriter implements Closeable {
     final ObjList<AppendMemory> columns;
     private final ObjList<SymbolMapWriter> symbolMapWriters;
     private final ObjList<SymbolMapWriter> denseSymbolMapWriters;
+    // symbol map writers of columns that opted in to track latest rows
+    private final ObjList<SymbolMapWriter> latestRowsWriters = new ObjList<>();
     private final ObjList<ColumnIndexer> indexers;
     private final ObjList<ColumnIndexer> denseIndexers = new ObjList<>();
     private final Path path;
     private final Path other;
+    private ColumnCompressor columnCompressor;
     private final LongList refs = new LongList();
     private final Row row = new Row();
     private final int rootLen;
@@ -105,6 +108,10 @@ public class TableWriter implements Closeable {
     private final LongList indexSequences = new LongList();
     private final MessageBus messageBus;
     private final boolean parallelIndexerEnabled;
+    private final SOCountDownLatch oooCopyLatch = new SOCountDownLatch();
+    private final LongList oooCopySequences = new LongList();
+    private final ObjList<OutOfOrderColumnCopier> oooColumnCopiers = new ObjList<>();
+    private final boolean parallelOutOfOrderCopyEnabled;
     private final LongHashSet removedPartitions = new LongHashSet();
     private final Timestamps.TimestampFloorMethod timestampFloorMethod;
     private final Timestamps.TimestampAddMethod timestampAddMethod;
@@ -138,6 +145,10 @@ public class TableWriter implements Closeable {
     private long minTimestamp;
     private long prevMinTimestamp;
     private long partitionHi;
+    private long partitionLo;
+    // timestamp of the oldest partition current transaction has changed existing rows in, latest symbol rows
+    // have to be rebuilt from there on. Long.MAX_VALUE when transaction only appends rows
+    private long txLatestRowsStaleLo = Long.MAX_VALUE;
     private long transientRowCount = 0;
     private long masterRef = 0;
     private boolean removeDirOnCancelRow = true;
@@ -173,6 +184,19 @@ public class TableWriter implements Closeable {
     private long mergeRowCount;
     private final LongConsumer mergeTimestampMethodRef = this::mergeTimestampSetter;
     private long transientRowCountBeforeOutOfOrder;
+    // out of order copy plan for the partition being merged, all column copiers share it
+    private long[] oooMergeStruct;
+    private int oooPrefixType;
+    private long oooPrefixLo;
+    private long oooPrefixHi;
+    private int oooMergeType;
+    private long oooMergeLo;
+    private long oooMergeHi;
+    private long oooMergeIndex;
+    private long oooMergeIndexLen;
+    private int oooSuffixType;
+    private long oooSuffixLo;
+    private long oooSuffixHi;
 
     public TableWriter(CairoConfiguration configuration, CharSequence name) {
         this(configuration, name, null);
@@ -207,6 +231,7 @@ public class TableWriter implements Closeable {
         this.defaultCommitMode = configuration.getCommitMode();
         this.lifecycleManager = lifecycleManager;
         this.parallelIndexerEnabled = messageBus != null && configuration.isParallelIndexingEnabled();
+        this.parallelOutOfOrderCopyEnabled = messageBus != null && configuration.isOutOfOrderParallelCopyEnabled() && messageBus.getOutOfOrderCopyQueue() != null;
         this.ff = configuration.getFilesFacade();
         this.mkDirMode = configuration.getMkDirMode();
         this.fileOperationRetryCount = configuration.getFileOperationRetryCount();
@@ -285,6 +310,11 @@ public class TableWriter implements Closeable {
                     timestampAddMethod = Timestamps.ADD_YYYY;
                     partitionDirFmt = fmtYear;
                     break;
+                case PartitionBy.HOUR:
+                    timestampFloorMethod = Timestamps.FLOOR_HH;
+                    timestampAddMethod = Timestamps.ADD_HH;
+                    partitionDirFmt = fmtHour;
+                    break;
                 default:
                     timestampFloorMethod = null;
                     timestampAddMethod = null;
@@ -312,6 +342,8 @@ public class TableWriter implements Closeable {
                 return fmtMonth;
             case PartitionBy.YEAR:
                 return fmtYear;
+            case PartitionBy.HOUR:
+                return fmtHour;
             default:
                 return null;
         }
@@ -545,6 +577,38 @@ public class TableWriter implements Closeable {
         LOG.info().$("ADDED index to '").utf8(columnName).$('[').$(ColumnType.nameOf(existingType)).$("]' to ").$(path).$();
     }
 
+    /**
+     * Starts tracking position of the most recent row for every key of symbol column. Positions
+     * are looked up in existing table data and are maintained by commits from then on. Tracking
+     * costs a little on every appended row, so it is only done for columns that asked for it.
+     *
+     * @param columnName name of symbol column
+     */
+    public void addLatestRows(CharSequence columnName) {
+        checkDistressed();
+
+        final int columnIndex = getColumnIndex(columnName);
+        if (metadata.getColumnType(columnIndex) != ColumnType.SYMBOL) {
+            throw CairoException.instance(0).put("cannot track latest rows for [column=").put(columnName).put(", type=").put(ColumnType.nameOf(metadata.getColumnType(columnIndex))).put(']');
+        }
+
+        commit();
+
+        final SymbolMapWriter w = getSymbolMapWriter(columnIndex);
+        if (w.isTrackingLatestRows()) {
+            throw CairoException.instance(0).put("already tracking latest rows [column=").put(columnName).put(']');
+        }
+
+        LOG.info().$("adding latest rows to '").utf8(columnName).$("' [path=").$(path).$(']').$();
+        w.openLatestRows(ff, path.trimTo(rootLen), columnName);
+        latestRowsWriters.add(w);
+        w.startLatestRowsRebuild(txn, Long.MIN_VALUE, Long.MAX_VALUE);
+        rebuildLatestRows(Long.MIN_VALUE, Long.MAX_VALUE);
+
+        // readers open latest rows when they reload structure
+        bumpStructureVersion();
+    }
+
     public void changeCacheFlag(int columnIndex, boolean cache) {
         checkDistressed();
 
@@ -570,6 +634,62 @@ public class TableWriter implements Closeable {
         }
     }
 
+    /**
+     * Replaces column files of partition with their compressed versions. Readers inflate
+     * compressed columns when they open the partition, writer restores raw files when it
+     * needs to write to the partition again.
+     *
+     * @param timestamp partition timestamp
+     * @return true when partition has been compressed, false when partition cannot be compressed
+     */
+    public boolean compressPartition(long timestamp) {
+        if (partitionBy == PartitionBy.NONE || timestamp < timestampFloorMethod.floor(minTimestamp) || timestamp > maxTimestamp) {
+            return false;
+        }
+
+        if (timestampFloorMethod.floor(timestamp) == timestampFloorMethod.floor(maxTimestamp)) {
+            LOG.error()
+                    .$("cannot compress active partition [path=").$(path)
+                    .$(", maxTimestamp=").$ts(maxTimestamp)
+                    .$(']').$();
+            return false;
+        }
+
+        if (removedPartitions.contains(timestamp)) {
+            LOG.error().$("partition is marked for delete [path=").$(path).$(']').$();
+            return false;
+        }
+
+        try {
+            setStateForTimestamp(path, timestamp, false);
+            if (!ff.exists(path.$())) {
+                LOG.error().$("cannot compress missing partition [path=").$(path).$(']').$();
+                return false;
+            }
+
+            final int plen = path.chopZ().length();
+            final ColumnCompressor compressor = getColumnCompressor();
+            for (int i = 0; i < columnCount; i++) {
+                final CharSequence columnName = metadata.getColumnName(i);
+                dFile(path.trimTo(plen), columnName);
+                compressor.compress(path);
+                switch (metadata.getColumnType(i)) {
+                    case ColumnType.STRING:
+                    case ColumnType.BINARY:
+                        iFile(path.trimTo(plen), columnName);
+                        compressor.compress(path);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            LOG.info().$("compressed partition [path=").$(path.trimTo(plen)).$(']').$();
+            return true;
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     public void commit() {
         commit(defaultCommitMode);
     }
@@ -602,6 +722,19 @@ public class TableWriter implements Closeable {
 
             updateIndexes();
 
+            boolean rebuildLatestRows = false;
+            for (int i = 0, n = latestRowsWriters.size(); i < n; i++) {
+                final SymbolMapWriter w = latestRowsWriters.getQuick(i);
+                if (txLatestRowsStaleLo == Long.MAX_VALUE && w.isLatestRowsValid(txn)) {
+                    w.commitLatestRows(txn, txn + 1);
+                } else {
+                    w.startLatestRowsRebuild(txn, txLatestRowsStaleLo, Long.MAX_VALUE);
+                    rebuildLatestRows = true;
+                }
+            }
+            final long latestRowsStaleLo = txLatestRowsStaleLo;
+            txLatestRowsStaleLo = Long.MAX_VALUE;
+
             txMem.putLong(TX_OFFSET_TXN, ++txn);
             Unsafe.getUnsafe().storeFence();
 
@@ -628,6 +761,11 @@ public class TableWriter implements Closeable {
                 txMem.sync(0, commitMode == CommitMode.ASYNC);
             }
             txPrevTransientRowCount = transientRowCount;
+
+            // rows of committed partitions can be read back now, readers scan the table until this is done
+            if (rebuildLatestRows) {
+                rebuildLatestRows(latestRowsStaleLo, Long.MAX_VALUE);
+            }
         }
     }
 
@@ -701,6 +839,9 @@ public class TableWriter implements Closeable {
                 case PartitionBy.MONTH:
                     ee.put("'YYYY-MM'");
                     break;
+                case PartitionBy.HOUR:
+                    ee.put("'YYYY-MM-DDTHH'");
+                    break;
                 default:
                     ee.put("'YYYY'");
                     break;
@@ -838,8 +979,12 @@ public class TableWriter implements Closeable {
                 int symbolWriterCount = denseSymbolMapWriters.size();
                 int partitionTableSize = txMem.getInt(getPartitionTableSizeOffset(symbolWriterCount));
 
-                long txn = txMem.getLong(TX_OFFSET_TXN) + 1;
-                txMem.putLong(TX_OFFSET_TXN, txn);
+                // latest rows in removed partition have to be looked up in older partitions
+                for (int i = 0, n = latestRowsWriters.size(); i < n; i++) {
+                    latestRowsWriters.getQuick(i).startLatestRowsRebuild(txn, timestamp, timestamp);
+                }
+
+                txMem.putLong(TX_OFFSET_TXN, ++txn);
                 Unsafe.getUnsafe().storeFence();
 
                 final long partitionVersion = txMem.getLong(TX_OFFSET_PARTITION_TABLE_VERSION) + 1;
@@ -869,6 +1014,10 @@ public class TableWriter implements Closeable {
                 fixedRowCount -= partitionSize;
 
                 LOG.info().$("partition marked for delete [path=").$(path).$(']').$();
+
+                if (latestRowsWriters.size() > 0) {
+                    rebuildLatestRows(timestamp, timestamp);
+                }
                 return true;
             } else {
                 LOG.error().$("cannot remove already missing partition [path=").$(path).$(']').$();
@@ -967,6 +1116,7 @@ public class TableWriter implements Closeable {
             configureAppendPosition();
             rollbackIndexes();
             purgeUnusedPartitions();
+            rollbackLatestRows();
             LOG.info().$("tx rollback complete [name=").$(name).$(']').$();
         }
     }
@@ -1004,6 +1154,7 @@ public class TableWriter implements Closeable {
         }
 
         if (size() == 0) {
+            resetLatestRows();
             return;
         }
 
@@ -1036,6 +1187,7 @@ public class TableWriter implements Closeable {
         fixedRowCount = 0;
         txn++;
         txPartitionCount = 1;
+        resetLatestRows();
 
         resetTxn(txMem, metadata.getSymbolMapCount(), txn, ++dataVersion);
         try {
@@ -1133,6 +1285,17 @@ public class TableWriter implements Closeable {
         }
     }
 
+    static void copyOutOfOrderColumnAndCountDown(OutOfOrderColumnCopier copier, SOCountDownLatch latch) {
+        try {
+            copier.copy();
+        } catch (CairoException e) {
+            copier.distress();
+            LOG.error().$("ooo copy error [column=").$(copier.getColumnIndex()).$(']').$('{').$((Sinkable) e).$('}').$();
+        } finally {
+            latch.countDown();
+        }
+    }
+
     private static void removeOrException(FilesFacade ff, LPSZ path) {
         if (ff.exists(path) && !ff.remove(path)) {
             throw CairoException.instance(ff.errno()).put("Cannot remove ").put(path);
@@ -1401,6 +1564,10 @@ public class TableWriter implements Closeable {
     }
 
     private void bumpStructureVersion() {
+        // structure changes do not move rows, latest symbol rows remain valid
+        for (int i = 0, n = latestRowsWriters.size(); i < n; i++) {
+            latestRowsWriters.getQuick(i).advanceLatestRows(txn, txn + 1);
+        }
         txMem.putLong(TX_OFFSET_TXN, ++txn);
         Unsafe.getUnsafe().storeFence();
 
@@ -1539,6 +1706,8 @@ public class TableWriter implements Closeable {
                 return Timestamps.ceilMM(this.maxTimestamp);
             case PartitionBy.YEAR:
                 return Timestamps.ceilYYYY(this.maxTimestamp);
+            case PartitionBy.HOUR:
+                return Timestamps.ceilHH(this.maxTimestamp);
             default:
                 assert false;
                 return -1;
@@ -1581,6 +1750,8 @@ public class TableWriter implements Closeable {
             prevMinTimestamp = minTimestamp;
         }
 
+        // blocks bypass rows, latest symbol rows are looked up in partitions block has written to
+        txLatestRowsStaleLo = Math.min(txLatestRowsStaleLo, getLatestRowsStaleLo(firstTimestamp));
         commit();
         setAppendPosition(transientRowCount, true);
     }
@@ -1679,6 +1850,9 @@ public class TableWriter implements Closeable {
                 SymbolMapWriter symbolMapWriter = new SymbolMapWriter(configuration, path.trimTo(rootLen), metadata.getColumnName(i), txMem.getInt(nextSymbolCountOffset));
                 symbolMapWriters.extendAndSet(i, symbolMapWriter);
                 denseSymbolMapWriters.add(symbolMapWriter);
+                if (symbolMapWriter.isTrackingLatestRows()) {
+                    latestRowsWriters.add(symbolMapWriter);
+                }
                 nextSymbolCountOffset += 4;
             }
 
@@ -1827,89 +2001,236 @@ public class TableWriter implements Closeable {
         copyFixedSizeCol(mem.addressOf(0), mergeStruct, columnIndex, srcLo, srcHi, shl);
     }
 
-    private void copyOutOfOrderData(long indexLo, long indexHi, long[] mergeStruct, int timestampIndex) {
-        for (int i = 0; i < columnCount; i++) {
-            ContiguousVirtualMemory mem = oooColumns.getQuick(getPrimaryColumnIndex(i));
-            ContiguousVirtualMemory mem2;
-            final int columnType = metadata.getColumnType(i);
+    private void copyOutOfOrderBlock(int columnIndex, int blockType, long lo, long hi, int timestampIndex) {
+        switch (blockType) {
+            case OO_BLOCK_OO:
+                copyOutOfOrderData(lo, hi, oooMergeStruct, columnIndex, timestampIndex);
+                break;
+            case OO_BLOCK_DATA:
+                copyPartitionData(lo, hi, oooMergeStruct, columnIndex);
+                break;
+            default:
+                break;
+        }
+    }
 
-            switch (columnType) {
-                case ColumnType.STRING:
-                case ColumnType.BINARY:
-                    // we can find out the edge of string column in one of two ways
-                    // 1. if indexHi is at the limit of the page - we need to copy the whole page of strings
-                    // 2  if there are more items behind indexHi we can get offset of indexHi+1
-                    mem2 = oooColumns.getQuick(getSecondaryColumnIndex(i));
-                    copyVarSizeCol(
-                            mem2.addressOf(0),
-                            mem2.getAppendOffset(),
-                            mem.addressOf(0),
-                            mem.getAppendOffset(),
-                            mergeStruct,
-                            i,
-                            indexLo,
-                            indexHi
-                    );
-                    break;
-                case ColumnType.BOOLEAN:
-                case ColumnType.BYTE:
-                    copyOOFixed(mem, mergeStruct, i, indexLo, indexHi, 0);
-                    break;
-                case ColumnType.CHAR:
-                case ColumnType.SHORT:
-                    copyOOFixed(mem, mergeStruct, i, indexLo, indexHi, 1);
-                    break;
-                case ColumnType.INT:
-                case ColumnType.FLOAT:
-                case ColumnType.SYMBOL:
-                    copyOOFixed(mem, mergeStruct, i, indexLo, indexHi, 2);
-                    break;
-                case ColumnType.LONG:
-                case ColumnType.DATE:
-                case ColumnType.DOUBLE:
-                    copyOOFixed(mem, mergeStruct, i, indexLo, indexHi, 3);
-                    break;
-                case ColumnType.TIMESTAMP:
-                    if (i != timestampIndex) {
-                        copyOOFixed(mem, mergeStruct, i, indexLo, indexHi, 3);
-                    } else {
-                        copyFromTimestampIndex(mem.addressOf(0), mergeStruct, i, indexLo, indexHi);
-                    }
-                    break;
-                default:
-                    break;
+    /**
+     * Copies prefix, merge and suffix blocks of the current out of order plan for single column.
+     * Columns do not share any state in merge struct and this method is safe to call concurrently
+     * for different column indexes.
+     *
+     * @param columnIndex index of column to copy
+     */
+    void copyOutOfOrderColumn(int columnIndex) {
+        final int timestampIndex = metadata.getTimestampIndex();
+        copyOutOfOrderBlock(columnIndex, oooPrefixType, oooPrefixLo, oooPrefixHi, timestampIndex);
+        if (oooMergeType == OO_BLOCK_MERGE) {
+            mergeOOAndShuffleColumn(oooMergeStruct, oooMergeIndex, oooMergeIndexLen, columnIndex, timestampIndex);
+        } else {
+            copyOutOfOrderBlock(columnIndex, oooMergeType, oooMergeLo, oooMergeHi, timestampIndex);
+        }
+        copyOutOfOrderBlock(columnIndex, oooSuffixType, oooSuffixLo, oooSuffixHi, timestampIndex);
+    }
+
+    private void copyOutOfOrderColumns(
+            long[] mergeStruct,
+            int prefixType,
+            long prefixLo,
+            long prefixHi,
+            int mergeType,
+            long mergeLo,
+            long mergeHi,
+            long mergeIndex,
+            long mergeIndexLen,
+            int suffixType,
+            long suffixLo,
+            long suffixHi
+    ) {
+        this.oooMergeStruct = mergeStruct;
+        this.oooPrefixType = prefixType;
+        this.oooPrefixLo = prefixLo;
+        this.oooPrefixHi = prefixHi;
+        this.oooMergeType = mergeType;
+        this.oooMergeLo = mergeLo;
+        this.oooMergeHi = mergeHi;
+        this.oooMergeIndex = mergeIndex;
+        this.oooMergeIndexLen = mergeIndexLen;
+        this.oooSuffixType = suffixType;
+        this.oooSuffixLo = suffixLo;
+        this.oooSuffixHi = suffixHi;
+        try {
+            if (parallelOutOfOrderCopyEnabled && columnCount > 1) {
+                copyOutOfOrderColumnsParallel();
+            } else {
+                for (int i = 0; i < columnCount; i++) {
+                    copyOutOfOrderColumn(i);
+                }
             }
+        } finally {
+            this.oooMergeStruct = null;
         }
     }
 
-    private void copyPartitionData(long indexLo, long indexHi, long[] mergeStruct) {
-        for (int i = 0; i < columnCount; i++) {
-            final int columnType = metadata.getColumnType(i);
-            switch (columnType) {
-                case ColumnType.STRING:
-                case ColumnType.BINARY:
-                    copyVarSizeCol(
-                            MergeStruct.getSrcFixedAddress(mergeStruct, i),
-                            MergeStruct.getSrcFixedAddressSize(mergeStruct, i),
-                            MergeStruct.getSrcVarAddress(mergeStruct, i),
-                            MergeStruct.getSrcVarAddressSize(mergeStruct, i),
-                            mergeStruct,
-                            i,
-                            indexLo,
-                            indexHi
-                    );
-                    break;
-                default:
-                    copyFixedSizeCol(
-                            MergeStruct.getSrcFixedAddress(mergeStruct, i),
-                            mergeStruct,
-                            i,
-                            indexLo,
-                            indexHi,
-                            ColumnType.pow2SizeOf(columnType)
-                    );
-                    break;
+    private void copyOutOfOrderColumnsParallel() {
+        for (int i = oooColumnCopiers.size(); i < columnCount; i++) {
+            oooColumnCopiers.add(new OutOfOrderColumnCopier(this, i));
+        }
+
+        oooCopySequences.clear();
+        oooCopyLatch.setCount(columnCount);
+        final int nParallelColumns = columnCount - 1;
+        final Sequence pubSequence = this.messageBus.getOutOfOrderCopyPubSequence();
+        final RingQueue<OutOfOrderCopyTask> queue = this.messageBus.getOutOfOrderCopyQueue();
+
+        int serialCopyCount = 0;
+
+        // we are going to copy last column in this thread while other columns are on the queue
+        OUT:
+        for (int i = 0; i < nParallelColumns; i++) {
+            final OutOfOrderColumnCopier copier = oooColumnCopiers.getQuick(i);
+            long cursor = pubSequence.next();
+            if (cursor == -1) {
+                // queue is full, copy column in the current thread
+                copyOutOfOrderColumnAndCountDown(copier, oooCopyLatch);
+                oooCopySequences.add(-1);
+                serialCopyCount++;
+                continue;
+            }
+
+            if (cursor == -2) {
+                // CAS issue, retry
+                do {
+                    cursor = pubSequence.next();
+                    if (cursor == -1) {
+                        copyOutOfOrderColumnAndCountDown(copier, oooCopyLatch);
+                        oooCopySequences.add(-1);
+                        serialCopyCount++;
+                        continue OUT;
+                    }
+                } while (cursor < 0);
             }
+
+            final OutOfOrderCopyTask queueItem = queue.get(cursor);
+            final long sequence = copier.getSequence();
+            queueItem.copier = copier;
+            queueItem.countDownLatch = oooCopyLatch;
+            queueItem.sequence = sequence;
+            oooCopySequences.add(sequence);
+            pubSequence.done(cursor);
+        }
+
+        // copy last column while other columns are brewing on the queue
+        copyOutOfOrderColumnAndCountDown(oooColumnCopiers.getQuick(nParallelColumns), oooCopyLatch);
+        serialCopyCount++;
+
+        // steal columns workers did not get to yet
+        if (!oooCopyLatch.await(configuration.getWorkStealTimeoutNanos())) {
+            for (int i = 0; i < nParallelColumns; i++) {
+                final long sequence = oooCopySequences.getQuick(i);
+                if (sequence > -1) {
+                    final OutOfOrderColumnCopier copier = oooColumnCopiers.getQuick(i);
+                    if (copier.tryLock(sequence)) {
+                        copyOutOfOrderColumnAndCountDown(copier, oooCopyLatch);
+                        serialCopyCount++;
+                    }
+                }
+            }
+            // wait for the ones we cannot steal
+            oooCopyLatch.await();
+        }
+
+        boolean distressed = false;
+        for (int i = 0; i < columnCount; i++) {
+            distressed = distressed | oooColumnCopiers.getQuick(i).isDistressed();
+        }
+
+        if (distressed) {
+            throwDistressException(null);
+        }
+
+        LOG.debug().$("parallel ooo copy done [columnCount=").$(columnCount).$(", serialCount=").$(serialCopyCount).$(']').$();
+    }
+
+    private void copyOutOfOrderData(long indexLo, long indexHi, long[] mergeStruct, int columnIndex, int timestampIndex) {
+        final int i = columnIndex;
+        ContiguousVirtualMemory mem = oooColumns.getQuick(getPrimaryColumnIndex(i));
+        ContiguousVirtualMemory mem2;
+        final int columnType = metadata.getColumnType(i);
+
+        switch (columnType) {
+            case ColumnType.STRING:
+            case ColumnType.BINARY:
+                // we can find out the edge of string column in one of two ways
+                // 1. if indexHi is at the limit of the page - we need to copy the whole page of strings
+                // 2  if there are more items behind indexHi we can get offset of indexHi+1
+                mem2 = oooColumns.getQuick(getSecondaryColumnIndex(i));
+                copyVarSizeCol(
+                        mem2.addressOf(0),
+                        mem2.getAppendOffset(),
+                        mem.addressOf(0),
+                        mem.getAppendOffset(),
+                        mergeStruct,
+                        i,
+                        indexLo,
+                        indexHi
+                );
+                break;
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+                copyOOFixed(mem, mergeStruct, i, indexLo, indexHi, 0);
+                break;
+            case ColumnType.CHAR:
+            case ColumnType.SHORT:
+                copyOOFixed(mem, mergeStruct, i, indexLo, indexHi, 1);
+                break;
+            case ColumnType.INT:
+            case ColumnType.FLOAT:
+            case ColumnType.SYMBOL:
+                copyOOFixed(mem, mergeStruct, i, indexLo, indexHi, 2);
+                break;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.DOUBLE:
+                copyOOFixed(mem, mergeStruct, i, indexLo, indexHi, 3);
+                break;
+            case ColumnType.TIMESTAMP:
+                if (i != timestampIndex) {
+                    copyOOFixed(mem, mergeStruct, i, indexLo, indexHi, 3);
+                } else {
+                    copyFromTimestampIndex(mem.addressOf(0), mergeStruct, i, indexLo, indexHi);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void copyPartitionData(long indexLo, long indexHi, long[] mergeStruct, int columnIndex) {
+        final int columnType = metadata.getColumnType(columnIndex);
+        switch (columnType) {
+            case ColumnType.STRING:
+            case ColumnType.BINARY:
+                copyVarSizeCol(
+                        MergeStruct.getSrcFixedAddress(mergeStruct, columnIndex),
+                        MergeStruct.getSrcFixedAddressSize(mergeStruct, columnIndex),
+                        MergeStruct.getSrcVarAddress(mergeStruct, columnIndex),
+                        MergeStruct.getSrcVarAddressSize(mergeStruct, columnIndex),
+                        mergeStruct,
+                        columnIndex,
+                        indexLo,
+                        indexHi
+                );
+                break;
+            default:
+                copyFixedSizeCol(
+                        MergeStruct.getSrcFixedAddress(mergeStruct, columnIndex),
+                        mergeStruct,
+                        columnIndex,
+                        indexLo,
+                        indexHi,
+                        ColumnType.pow2SizeOf(columnType)
+                );
+                break;
         }
     }
 
@@ -2031,6 +2352,24 @@ public class TableWriter implements Closeable {
         symbolMapWriters.extendAndSet(columnCount, w);
     }
 
+    private void decompressColumn(int plen, CharSequence columnName) {
+        if (ff.exists(dzFile(path.trimTo(plen), columnName))) {
+            dFile(path.trimTo(plen), columnName);
+            getColumnCompressor().decompress(path);
+        }
+        if (ff.exists(izFile(path.trimTo(plen), columnName))) {
+            iFile(path.trimTo(plen), columnName);
+            getColumnCompressor().decompress(path);
+        }
+        path.trimTo(plen);
+    }
+
+    private void decompressPartition(int plen) {
+        for (int i = 0; i < columnCount; i++) {
+            decompressColumn(plen, metadata.getColumnName(i));
+        }
+    }
+
     private void doClose(boolean truncate) {
         boolean tx = inTransaction();
         freeColumns(truncate);
@@ -2046,6 +2385,7 @@ public class TableWriter implements Closeable {
             Misc.free(txPendingPartitionSizes);
             Misc.free(ddlMem);
             Misc.free(other);
+            Misc.free(columnCompressor);
             Misc.free(tmpShuffleData);
             Misc.free(tmpShuffleIndex);
             Misc.free(timestampSearchColumn);
@@ -2059,6 +2399,13 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private ColumnCompressor getColumnCompressor() {
+        if (columnCompressor == null) {
+            columnCompressor = new ColumnCompressor(ff, ColumnCompressor.DEFAULT_BLOCK_SIZE);
+        }
+        return columnCompressor;
+    }
+
     private void findAllPartitions(Function function) {
         try {
             activePartition = timestampFloorMethod.floor(maxTimestamp);
@@ -2147,6 +2494,10 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private long getLatestRowsStaleLo(long timestamp) {
+        return timestampFloorMethod != null ? timestampFloorMethod.floor(timestamp) : Long.MIN_VALUE;
+    }
+
     private long getNextMinTimestamp(
             Timestamps.TimestampFloorMethod timestampFloorMethod,
             Timestamps.TimestampAddMethod timestampAddMethod
@@ -2294,6 +2645,7 @@ public class TableWriter implements Closeable {
 
                     final int plen = path.length();
 
+                    decompressColumn(plen, columnName);
                     TableUtils.dFile(path.trimTo(plen), columnName);
 
                     if (ff.exists(path)) {
@@ -2336,6 +2688,16 @@ public class TableWriter implements Closeable {
         indexer.refreshSourceAndIndex(0, transientRowCount);
     }
 
+    private boolean isLatestRowsRebuildComplete() {
+        for (int i = 0, n = latestRowsWriters.size(); i < n; i++) {
+            final SymbolMapWriter w = latestRowsWriters.getQuick(i);
+            if (w.isRebuildingLatestRows() && !w.isLatestRowsRebuildComplete()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     boolean isSymbolMapWriterCached(int columnIndex) {
         return symbolMapWriters.getQuick(columnIndex).isCached();
     }
@@ -2447,57 +2809,38 @@ public class TableWriter implements Closeable {
         MergeStruct.setDestVarAppendOffset(mergeStruct, columnIndex, destVarOffset);
     }
 
-    private void mergeOOAndShuffleColumns(int timestampIndex, long mergedTimestamps, long mergeDataLo, long mergeDataHi, long mergeOOOLo, long mergeOOOHi, long[] mergeStruct) {
-        final long dataOOMergeIndexLen = mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1;
-        // copy timestamp column of the partition into a "index" memory
-
-        final long dataOOMergeIndex = mergeTimestampAndOutOfOrder(
-                timestampIndex,
-                mergedTimestamps,
-                mergeDataLo,
-                mergeDataHi,
-                mergeOOOLo,
-                mergeOOOHi,
-                mergeStruct
-        );
-
-        try {
-            for (int i = 0; i < columnCount; i++) {
-                switch (metadata.getColumnType(i)) {
-                    case ColumnType.BOOLEAN:
-                    case ColumnType.BYTE:
-                        mergeShuffle(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, i, 0, MERGE_SHUFFLE_8);
-                        break;
-                    case ColumnType.SHORT:
-                    case ColumnType.CHAR:
-                        mergeShuffle(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, i, 1, MERGE_SHUFFLE_16);
-                        break;
-                    case ColumnType.STRING:
-                        mergeCopyStr(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, i);
-                        break;
-                    case ColumnType.BINARY:
-                        mergeCopyBin(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, i);
-                        break;
-                    case ColumnType.INT:
-                    case ColumnType.FLOAT:
-                    case ColumnType.SYMBOL:
-                        mergeShuffle(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, i, 2, MERGE_SHUFFLE_32);
-                        break;
-                    case ColumnType.DOUBLE:
-                    case ColumnType.LONG:
-                    case ColumnType.DATE:
-                    case ColumnType.TIMESTAMP:
-                        if (i == timestampIndex) {
-                            // copy timestamp values from the merge index
-                            copyIndex(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, i);
-                            break;
-                        }
-                        mergeShuffle(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, i, 3, MERGE_SHUFFLE_64);
-                        break;
+    private void mergeOOAndShuffleColumn(long[] mergeStruct, long dataOOMergeIndex, long dataOOMergeIndexLen, int columnIndex, int timestampIndex) {
+        switch (metadata.getColumnType(columnIndex)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+                mergeShuffle(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, columnIndex, 0, MERGE_SHUFFLE_8);
+                break;
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+                mergeShuffle(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, columnIndex, 1, MERGE_SHUFFLE_16);
+                break;
+            case ColumnType.STRING:
+                mergeCopyStr(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, columnIndex);
+                break;
+            case ColumnType.BINARY:
+                mergeCopyBin(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, columnIndex);
+                break;
+            case ColumnType.INT:
+            case ColumnType.FLOAT:
+            case ColumnType.SYMBOL:
+                mergeShuffle(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, columnIndex, 2, MERGE_SHUFFLE_32);
+                break;
+            case ColumnType.DOUBLE:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                if (columnIndex == timestampIndex) {
+                    // copy timestamp values from the merge index
+                    copyIndex(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, columnIndex);
+                    break;
                 }
-            }
-        } finally {
-            Vect.freeMergedIndex(dataOOMergeIndex);
+                mergeShuffle(mergeStruct, dataOOMergeIndex, dataOOMergeIndexLen, columnIndex, 3, MERGE_SHUFFLE_64);
+                break;
         }
     }
 
@@ -2563,6 +2906,9 @@ public class TableWriter implements Closeable {
             long ooTimestampMin = getTimestampIndexValue(mergedTimestamps, 0);
             long ooTimestampHi = getTimestampIndexValue(mergedTimestamps, indexMax - 1);
 
+            // merge moves rows of partitions it writes to
+            txLatestRowsStaleLo = Math.min(txLatestRowsStaleLo, getLatestRowsStaleLo(ooTimestampMin));
+
             LOG.debug()
                     .$("before loop [ooTimestampMin=").microTime(ooTimestampMin)
                     .$(", ooTimestampHi=").microTime(ooTimestampHi)
@@ -2626,7 +2972,20 @@ public class TableWriter implements Closeable {
                             indexMax
                     );
                     try {
-                        copyOutOfOrderData(indexLo, indexHi, mergeStruct, timestampIndex);
+                        copyOutOfOrderColumns(
+                                mergeStruct,
+                                OO_BLOCK_OO,
+                                indexLo,
+                                indexHi,
+                                OO_BLOCK_NONE,
+                                -1,
+                                -1,
+                                0,
+                                0,
+                                OO_BLOCK_NONE,
+                                -1,
+                                -1
+                        );
                     } finally {
                         freeMergeStruct(mergeStruct);
                     }
@@ -2642,6 +3001,8 @@ public class TableWriter implements Closeable {
                             LOG.debug().$("reused FDs").$();
                         } else {
 
+                            // archive partition may have been compressed
+                            decompressPartition(plen);
                             dataIndexMax = readPartitionSize(ff, path, tempMem8b);
                             // out of order data is going into archive partition
                             // we need to read "low" and "high" boundaries of the partition. "low" being oldest timestamp
@@ -2952,20 +3313,22 @@ public class TableWriter implements Closeable {
                                 );
                             }
                         }
+                        long mergeIndex = 0;
                         try {
                             switch (prefixType) {
                                 case OO_BLOCK_OO:
                                     LOG.info().$("copy ooo prefix set [from=").$(prefixLo).$(", to=").$(prefixHi).$(']').$();
-                                    copyOutOfOrderData(prefixLo, prefixHi, mergeStruct, timestampIndex);
                                     break;
                                 case OO_BLOCK_DATA:
                                     LOG.info().$("copy data prefix set [from=").$(prefixLo).$(", to=").$(prefixHi).$(']').$();
-                                    copyPartitionData(prefixLo, prefixHi, mergeStruct);
                                     break;
                                 default:
                                     break;
                             }
 
+                            long mergeLo = -1;
+                            long mergeHi = -1;
+                            long mergeIndexLen = 0;
                             switch (mergeType) {
                                 case OO_BLOCK_MERGE:
                                     LOG.info()
@@ -2974,7 +3337,9 @@ public class TableWriter implements Closeable {
                                             .$(", oooFrom=").$(mergeOOOLo)
                                             .$(", oooTo=").$(mergeOOOHi)
                                             .$(']').$();
-                                    mergeOOAndShuffleColumns(
+                                    mergeIndexLen = mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1;
+                                    // copy timestamp column of the partition into a "index" memory
+                                    mergeIndex = mergeTimestampAndOutOfOrder(
                                             timestampIndex,
                                             mergedTimestamps,
                                             mergeDataLo,
@@ -2986,11 +3351,13 @@ public class TableWriter implements Closeable {
                                     break;
                                 case OO_BLOCK_DATA:
                                     LOG.info().$("copy data middle set [from=").$(mergeDataLo).$(", to=").$(mergeDataHi).$(']').$();
-                                    copyPartitionData(mergeDataLo, mergeDataHi, mergeStruct);
+                                    mergeLo = mergeDataLo;
+                                    mergeHi = mergeDataHi;
                                     break;
                                 case OO_BLOCK_OO:
                                     LOG.info().$("copy OO middle set [from=").$(mergeOOOLo).$(", to=").$(mergeOOOHi).$(']').$();
-                                    copyOutOfOrderData(mergeOOOLo, mergeOOOHi, mergeStruct, timestampIndex);
+                                    mergeLo = mergeOOOLo;
+                                    mergeHi = mergeOOOHi;
                                     break;
                                 default:
                                     break;
@@ -2999,16 +3366,31 @@ public class TableWriter implements Closeable {
                             switch (suffixType) {
                                 case OO_BLOCK_OO:
                                     LOG.info().$("copy ooo suffix set [from=").$(suffixLo).$(", to=").$(suffixHi).$(']').$();
-                                    copyOutOfOrderData(suffixLo, suffixHi, mergeStruct, timestampIndex);
                                     break;
                                 case OO_BLOCK_DATA:
                                     LOG.info().$("copy data suffix set [from=").$(suffixLo).$(", to=").$(suffixHi).$(']').$();
-                                    copyPartitionData(suffixLo, suffixHi, mergeStruct);
                                     break;
                                 default:
                                     break;
                             }
 
+                            // columns are independent of each other, they are copied
+                            // on worker threads when message bus is available
+                            copyOutOfOrderColumns(
+                                    mergeStruct,
+                                    prefixType,
+                                    prefixLo,
+                                    prefixHi,
+                                    mergeType,
+                                    mergeLo,
+                                    mergeHi,
+                                    mergeIndex,
+                                    mergeIndexLen,
+                                    suffixType,
+                                    suffixLo,
+                                    suffixHi
+                            );
+
                             oooUpdateIndexes(mergeStruct);
 
                             if (prefixType != OO_BLOCK_NONE || mergeType != OO_BLOCK_NONE) {
@@ -3016,6 +3398,9 @@ public class TableWriter implements Closeable {
                             }
 
                         } finally {
+                            if (mergeIndex != 0) {
+                                Vect.freeMergedIndex(mergeIndex);
+                            }
                             freeMergeStruct(mergeStruct);
                         }
                     } finally {
@@ -3811,6 +4196,108 @@ public class TableWriter implements Closeable {
         }
     }
 
+    /**
+     * Looks up latest rows of symbol columns, which have started rebuild, in committed table data. Partitions
+     * are visited newest first. Partitions newer than "staleHi" are skipped, their rows have not changed.
+     * Partitions older than "staleLo" are only visited until latest row of every key is known.
+     *
+     * @param staleLo timestamp of the oldest partition, which content has changed
+     * @param staleHi timestamp of the newest partition, which content has changed
+     */
+    private void rebuildLatestRows(long staleLo, long staleHi) {
+        if (size() > 0) {
+            try (ReadOnlyMemory roMem = new ReadOnlyMemory()) {
+                if (partitionBy == PartitionBy.NONE) {
+                    setStateForTimestamp(path, 0, false);
+                    rebuildLatestRows(roMem, 0, transientRowCount, false);
+                } else {
+                    final long lastTimestamp = timestampFloorMethod.floor(maxTimestamp);
+                    final long minTimestamp = timestampFloorMethod.floor(this.minTimestamp);
+                    for (long timestamp = Math.min(lastTimestamp, staleHi); timestamp >= minTimestamp; timestamp = timestampAddMethod.calculate(timestamp, -1)) {
+                        final boolean resolveOnly = timestamp < staleLo;
+                        if (resolveOnly && isLatestRowsRebuildComplete()) {
+                            break;
+                        }
+
+                        if (removedPartitions.contains(timestamp)) {
+                            continue;
+                        }
+
+                        setStateForTimestamp(path.trimTo(rootLen), timestamp, false);
+                        if (ff.exists(path.$())) {
+                            final long partitionSize = timestamp == lastTimestamp ? transientRowCount : TableUtils.readPartitionSize(ff, path.chopZ(), tempMem8b);
+                            rebuildLatestRows(roMem, timestamp, partitionSize, resolveOnly);
+                        }
+                    }
+                }
+            } catch (CairoException e) {
+                // latest rows stay invalid, readers scan the table and next commit rebuilds them
+                LOG.error().$("could not rebuild latest rows [path=").$(path).$(", errno=").$(e.getErrno()).$(", msg=").$(e.getFlyweightMessage()).$(']').$();
+                for (int i = 0, n = latestRowsWriters.size(); i < n; i++) {
+                    latestRowsWriters.getQuick(i).rollbackLatestRows();
+                }
+                return;
+            } finally {
+                path.trimTo(rootLen);
+            }
+        }
+
+        for (int i = 0, n = latestRowsWriters.size(); i < n; i++) {
+            final SymbolMapWriter w = latestRowsWriters.getQuick(i);
+            if (w.isRebuildingLatestRows()) {
+                w.finishLatestRowsRebuild(txn);
+            }
+        }
+        LOG.info().$("rebuilt latest rows [path=").$(path).$(']').$();
+    }
+
+    private void rebuildLatestRows(ReadOnlyMemory roMem, long partitionTimestamp, long partitionSize, boolean resolveOnly) {
+        final int plen = path.chopZ().length();
+        for (int i = 0, n = latestRowsWriters.size(); i < n; i++) {
+            final SymbolMapWriter w = latestRowsWriters.getQuick(i);
+            if (!w.isRebuildingLatestRows() || (resolveOnly && w.isLatestRowsRebuildComplete())) {
+                continue;
+            }
+
+            final CharSequence columnName = metadata.getColumnName(symbolMapWriters.indexOf(w));
+            final boolean compressed = ff.exists(dzFile(path.trimTo(plen), columnName));
+            // partitions that existed before column was added have no column file
+            final long columnTop = compressed || ff.exists(dFile(path.trimTo(plen), columnName))
+                    ? Math.min(TableUtils.readColumnTop(ff, path.trimTo(plen), columnName, plen, tempMem8b), partitionSize)
+                    : partitionSize;
+            if (partitionSize > columnTop) {
+                final long size = (partitionSize - columnTop) << ColumnType.pow2SizeOf(ColumnType.INT);
+                // compressed partitions are inflated in memory, files on disk stay as they are
+                final ReadOnlyColumn mem;
+                if (compressed) {
+                    mem = new CompressedOnePageMemory(ff, dzFile(path.trimTo(plen), columnName));
+                } else {
+                    roMem.of(ff, dFile(path.trimTo(plen), columnName), ff.getMapPageSize(), size);
+                    mem = roMem;
+                }
+
+                try {
+                    for (long row = partitionSize - 1; row >= columnTop; row--) {
+                        w.putRebuiltLatestRow(mem.getInt((row - columnTop) << ColumnType.pow2SizeOf(ColumnType.INT)), partitionTimestamp, row);
+                        if (resolveOnly && w.isLatestRowsRebuildComplete()) {
+                            break;
+                        }
+                    }
+                } finally {
+                    if (mem != roMem) {
+                        mem.close();
+                    }
+                }
+            }
+
+            // rows above column top are null
+            if (columnTop > 0) {
+                w.putRebuiltLatestRow(SymbolTable.VALUE_IS_NULL, partitionTimestamp, columnTop - 1);
+            }
+        }
+        path.trimTo(plen);
+    }
+
     private void recoverFromMetaRenameFailure(CharSequence columnName) {
         openMetaFile();
     }
@@ -3886,6 +4373,8 @@ public class TableWriter implements Closeable {
                     removeLambda.remove(ff, dFile(path, columnName));
                     removeLambda.remove(ff, iFile(path.trimTo(plen), columnName));
                     removeLambda.remove(ff, topFile(path.trimTo(plen), columnName));
+                    removeLambda.remove(ff, dzFile(path.trimTo(plen), columnName));
+                    removeLambda.remove(ff, izFile(path.trimTo(plen), columnName));
                     removeLambda.remove(ff, BitmapIndexUtils.keyFileName(path.trimTo(plen), columnName));
                     removeLambda.remove(ff, BitmapIndexUtils.valueFileName(path.trimTo(plen), columnName));
                 }
@@ -3894,6 +4383,7 @@ public class TableWriter implements Closeable {
             if (columnType == ColumnType.SYMBOL) {
                 removeLambda.remove(ff, SymbolMapWriter.offsetFileName(path.trimTo(rootLen), columnName));
                 removeLambda.remove(ff, SymbolMapWriter.charFileName(path.trimTo(rootLen), columnName));
+                removeLambda.remove(ff, SymbolMapWriter.latestFileName(path.trimTo(rootLen), columnName));
                 removeLambda.remove(ff, BitmapIndexUtils.keyFileName(path.trimTo(rootLen), columnName));
                 removeLambda.remove(ff, BitmapIndexUtils.valueFileName(path.trimTo(rootLen), columnName));
             }
@@ -4027,6 +4517,7 @@ public class TableWriter implements Closeable {
         try {
             removeFileAndOrLog(ff, SymbolMapWriter.offsetFileName(path.trimTo(rootLen), name));
             removeFileAndOrLog(ff, SymbolMapWriter.charFileName(path.trimTo(rootLen), name));
+            removeFileAndOrLog(ff, SymbolMapWriter.latestFileName(path.trimTo(rootLen), name));
             removeFileAndOrLog(ff, BitmapIndexUtils.keyFileName(path.trimTo(rootLen), name));
             removeFileAndOrLog(ff, BitmapIndexUtils.valueFileName(path.trimTo(rootLen), name));
         } finally {
@@ -4039,6 +4530,7 @@ public class TableWriter implements Closeable {
         symbolMapWriters.remove(index);
         if (writer != null) {
             denseSymbolMapWriters.remove(writer);
+            latestRowsWriters.remove(writer);
             Misc.free(writer);
         }
     }
@@ -4103,6 +4595,8 @@ public class TableWriter implements Closeable {
                     renameFileOrLog(ff, dFile(path.trimTo(plen), columnName), dFile(other.trimTo(plen), newName));
                     renameFileOrLog(ff, iFile(path.trimTo(plen), columnName), iFile(other.trimTo(plen), newName));
                     renameFileOrLog(ff, topFile(path.trimTo(plen), columnName), topFile(other.trimTo(plen), newName));
+                    renameFileOrLog(ff, dzFile(path.trimTo(plen), columnName), dzFile(other.trimTo(plen), newName));
+                    renameFileOrLog(ff, izFile(path.trimTo(plen), columnName), izFile(other.trimTo(plen), newName));
                     renameFileOrLog(ff, BitmapIndexUtils.keyFileName(path.trimTo(plen), columnName), BitmapIndexUtils.keyFileName(other.trimTo(plen), newName));
                     renameFileOrLog(ff, BitmapIndexUtils.valueFileName(path.trimTo(plen), columnName), BitmapIndexUtils.valueFileName(other.trimTo(plen), newName));
                 }
@@ -4111,6 +4605,7 @@ public class TableWriter implements Closeable {
             if (columnType == ColumnType.SYMBOL) {
                 renameFileOrLog(ff, SymbolMapWriter.offsetFileName(path.trimTo(rootLen), columnName), SymbolMapWriter.offsetFileName(other.trimTo(rootLen), newName));
                 renameFileOrLog(ff, SymbolMapWriter.charFileName(path.trimTo(rootLen), columnName), SymbolMapWriter.charFileName(other.trimTo(rootLen), newName));
+                renameFileOrLog(ff, SymbolMapWriter.latestFileName(path.trimTo(rootLen), columnName), SymbolMapWriter.latestFileName(other.trimTo(rootLen), newName));
                 renameFileOrLog(ff, BitmapIndexUtils.keyFileName(path.trimTo(rootLen), columnName), BitmapIndexUtils.keyFileName(other.trimTo(rootLen), newName));
                 renameFileOrLog(ff, BitmapIndexUtils.valueFileName(path.trimTo(rootLen), columnName), BitmapIndexUtils.valueFileName(other.trimTo(rootLen), newName));
             }
@@ -4291,6 +4786,13 @@ public class TableWriter implements Closeable {
         removeTodoFile();
     }
 
+    private void resetLatestRows() {
+        for (int i = 0, n = latestRowsWriters.size(); i < n; i++) {
+            latestRowsWriters.getQuick(i).resetLatestRows(txn);
+        }
+        txLatestRowsStaleLo = Long.MAX_VALUE;
+    }
+
     private void restoreMetaFrom(CharSequence fromBase, int fromIndex) {
         try {
             path.concat(fromBase);
@@ -4317,6 +4819,13 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void rollbackLatestRows() {
+        for (int i = 0, n = latestRowsWriters.size(); i < n; i++) {
+            latestRowsWriters.getQuick(i).rollbackLatestRows();
+        }
+        txLatestRowsStaleLo = Long.MAX_VALUE;
+    }
+
     private void rollbackSymbolTables() {
         int expectedMapWriters = txMem.getInt(TX_OFFSET_MAP_WRITER_COUNT);
         for (int i = 0; i < expectedMapWriters; i++) {
@@ -4367,6 +4876,7 @@ public class TableWriter implements Closeable {
         long partitionHi = TableUtils.setPathForPartition(path, partitionBy, timestamp);
         if (updatePartitionInterval) {
             this.partitionHi = partitionHi;
+            this.partitionLo = timestampFloorMethod != null ? timestampFloorMethod.floor(timestamp) : 0;
         }
     }
 
@@ -4828,10 +5338,11 @@ public class TableWriter implements Closeable {
         }
     }
 
-    public class Row {
+    public class Row implements RowSink {
         private ObjList<? extends BigMem> activeColumns;
         private ObjList<Runnable> activeNullSetters;
 
+        @Override
         public void append() {
             if ((masterRef & 1) != 0) {
                 for (int i = 0; i < columnCount; i++) {
@@ -4839,6 +5350,9 @@ public class TableWriter implements Closeable {
                         activeNullSetters.getQuick(i).run();
                     }
                 }
+                for (int i = 0, n = latestRowsWriters.size(); i < n; i++) {
+                    latestRowsWriters.getQuick(i).putLatestRow(masterRef, partitionLo, transientRowCount);
+                }
                 transientRowCount++;
                 masterRef++;
                 if (prevMinTimestamp == Long.MAX_VALUE) {
@@ -4847,128 +5361,137 @@ public class TableWriter implements Closeable {
             }
         }
 
+        @Override
         public void cancel() {
             cancelRow();
         }
 
+        @Override
         public void putBin(int index, long address, long len) {
             getSecondaryColumn(index).putLong(getPrimaryColumn(index).putBin(address, len));
             notNull(index);
         }
 
+        @Override
         public void putBin(int index, BinarySequence sequence) {
             getSecondaryColumn(index).putLong(getPrimaryColumn(index).putBin(sequence));
             notNull(index);
         }
 
+        @Override
         public void putBool(int index, boolean value) {
             getPrimaryColumn(index).putBool(value);
             notNull(index);
         }
 
+        @Override
         public void putByte(int index, byte value) {
             getPrimaryColumn(index).putByte(value);
             notNull(index);
         }
 
+        @Override
         public void putChar(int index, char value) {
             getPrimaryColumn(index).putChar(value);
             notNull(index);
         }
 
+        @Override
         public void putDate(int index, long value) {
             putLong(index, value);
         }
 
+        @Override
         public void putDouble(int index, double value) {
             getPrimaryColumn(index).putDouble(value);
             notNull(index);
         }
 
+        @Override
         public void putFloat(int index, float value) {
             getPrimaryColumn(index).putFloat(value);
             notNull(index);
         }
 
+        @Override
         public void putInt(int index, int value) {
             getPrimaryColumn(index).putInt(value);
             notNull(index);
         }
 
+        @Override
         public void putLong(int index, long value) {
             getPrimaryColumn(index).putLong(value);
             notNull(index);
         }
 
+        @Override
         public void putLong256(int index, long l0, long l1, long l2, long l3) {
             getPrimaryColumn(index).putLong256(l0, l1, l2, l3);
             notNull(index);
         }
 
+        @Override
         public void putLong256(int index, Long256 value) {
             getPrimaryColumn(index).putLong256(value.getLong0(), value.getLong1(), value.getLong2(), value.getLong3());
             notNull(index);
         }
 
+        @Override
         public void putLong256(int index, CharSequence hexString) {
             getPrimaryColumn(index).putLong256(hexString);
             notNull(index);
         }
 
+        @Override
         public void putLong256(int index, @NotNull CharSequence hexString, int start, int end) {
             getPrimaryColumn(index).putLong256(hexString, start, end);
             notNull(index);
         }
 
+        @Override
         public void putShort(int index, short value) {
             getPrimaryColumn(index).putShort(value);
             notNull(index);
         }
 
+        @Override
         public void putStr(int index, CharSequence value) {
             getSecondaryColumn(index).putLong(getPrimaryColumn(index).putStr(value));
             notNull(index);
         }
 
+        @Override
         public void putStr(int index, char value) {
             getSecondaryColumn(index).putLong(getPrimaryColumn(index).putStr(value));
             notNull(index);
         }
 
+        @Override
         public void putStr(int index, CharSequence value, int pos, int len) {
             getSecondaryColumn(index).putLong(getPrimaryColumn(index).putStr(value, pos, len));
             notNull(index);
         }
 
+        @Override
         public void putSym(int index, CharSequence value) {
-            getPrimaryColumn(index).putInt(symbolMapWriters.getQuick(index).put(value));
+            final SymbolMapWriter writer = symbolMapWriters.getQuick(index);
+            getPrimaryColumn(index).putInt(writer.updateRowKey(masterRef, writer.put(value)));
             notNull(index);
         }
 
+        @Override
         public void putSym(int index, char value) {
-            getPrimaryColumn(index).putInt(symbolMapWriters.getQuick(index).put(value));
+            final SymbolMapWriter writer = symbolMapWriters.getQuick(index);
+            getPrimaryColumn(index).putInt(writer.updateRowKey(masterRef, writer.put(value)));
             notNull(index);
         }
 
+        @Override
         public void putTimestamp(int index, long value) {
             putLong(index, value);
         }
 
-        public void putTimestamp(int index, CharSequence value) {
-            // try UTC timestamp first (micro)
-            long l;
-            try {
-                l = TimestampFormatUtils.parseTimestamp(value);
-            } catch (NumericException e) {
-                try {
-                    l = TimestampFormatUtils.parseDateTime(value);
-                } catch (NumericException numericException) {
-                    throw CairoException.instance(0).put("could not convert to timestamp [value=").put(value).put(']');
-                }
-            }
-            putTimestamp(index, l);
-        }
-
         private BigMem getPrimaryColumn(int columnIndex) {
             return activeColumns.getQuick(getPrimaryColumnIndex(columnIndex));
         }
@@ -142,6 +142,11 @@ public class CompactMapRecord implements MapRecord {
         return symbolTableResolver.getSymbolTable(symbolTableIndex.getQuick(col)).valueOf(getInt(col));
     }
 
+    @Override
+    public CharSequence getSymB(int col) {
+        return symbolTableResolver.getSymbolTable(symbolTableIndex.getQuick(col)).valueBOf(getInt(col));
+    }
+
     @Override
     public MapValue getValue() {
         value.of(offset, false);
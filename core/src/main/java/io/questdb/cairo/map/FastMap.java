@@ -58,6 +58,9 @@ public class FastMap implements Map {
     private int mask;
     private int nResizes;
     private final int maxResizes;
+    private final int[] valueOffsets;
+    private final int initialPageSize;
+    private final int initialKeyCapacity;
 
     public FastMap(int pageSize,
                    @Transient @NotNull ColumnTypes keyTypes,
@@ -91,11 +94,13 @@ public class FastMap implements Map {
         assert loadFactor > 0 && loadFactor < 1d;
 
         this.loadFactor = loadFactor;
+        this.initialPageSize = pageSize;
         this.kStart = kPos = Unsafe.malloc(this.capacity = pageSize);
         this.kLimit = kStart + pageSize;
 
         this.keyCapacity = (int) (keyCapacity / loadFactor);
         this.keyCapacity = this.keyCapacity < MIN_INITIAL_CAPACITY ? MIN_INITIAL_CAPACITY : Numbers.ceilPow2(this.keyCapacity);
+        this.initialKeyCapacity = this.keyCapacity;
         this.mask = this.keyCapacity - 1;
         this.free = (int) (this.keyCapacity * loadFactor);
         this.offsets = new DirectLongList(this.keyCapacity);
@@ -142,6 +147,7 @@ public class FastMap implements Map {
                         throw CairoException.instance(0).put("value type is not supported: ").put(ColumnType.nameOf(valueTypes.getColumnType(i)));
                 }
             }
+            this.valueOffsets = valueOffsets;
             this.value = new FastMapValue(valueOffsets);
             this.value2 = new FastMapValue(valueOffsets);
             this.value3 = new FastMapValue(valueOffsets);
@@ -150,6 +156,7 @@ public class FastMap implements Map {
             this.record = new FastMapRecord(valueOffsets, columnSplit, keyDataOffset, keyBlockOffset, value, keyTypes);
         } else {
             this.valueColumnCount = 0;
+            this.valueOffsets = null;
             this.value = new FastMapValue(null);
             this.value2 = new FastMapValue(null);
             this.value3 = new FastMapValue(null);
@@ -232,6 +239,21 @@ public class FastMap implements Map {
         return size;
     }
 
+    /**
+     * Finds entry with the same key as the record or copies the record, values included,
+     * into this map when there is none. Record must come from cursor of another FastMap
+     * with identical key and value types.
+     *
+     * @param record record of FastMap cursor
+     * @return value of existing entry or value of the copy, which is marked as new
+     */
+    public MapValue createValueFromRecord(MapRecord record) {
+        assert record instanceof FastMapRecord;
+        final long entryAddress = record.getRowId();
+        final int len = Unsafe.getUnsafe().getInt(entryAddress);
+        return createValueFromEntry(entryAddress, hashFunction.hash(entryAddress + keyDataOffset, len - keyDataOffset));
+    }
+
     @Override
     public MapValue valueAt(long address) {
         return valueOf(address, false, this.value);
@@ -255,23 +277,22 @@ public class FastMap implements Map {
     private FastMapValue probe0(Key keyWriter, int index, FastMapValue value) {
         long offset;
         while ((offset = offsets.get(index = (++index & mask))) != -1) {
-            if (eq(keyWriter, offset)) {
+            if (eq(keyWriter.startAddress, keyWriter.len, offset)) {
                 return valueOf(kStart + offset, false, value);
             }
         }
         return asNew(keyWriter, index, value);
     }
 
-    private boolean eq(Key keyWriter, long offset) {
+    private boolean eq(long b, int len, long offset) {
         long a = kStart + offset;
-        long b = keyWriter.startAddress;
 
         // check length first
         if (Unsafe.getUnsafe().getInt(a) != Unsafe.getUnsafe().getInt(b)) {
             return false;
         }
 
-        long lim = b + keyWriter.len;
+        long lim = b + len;
 
         // skip to the data
         a += keyDataOffset;
@@ -289,10 +310,97 @@ public class FastMap implements Map {
         return eqMixed(a, b, lim);
     }
 
+    /**
+     * Finds entry with the same key as the given one or copies the given entry into this map
+     * when there is none. Entry must come from a map of identical key and value types, such
+     * as spill file of {@link SpillingMap}, and is copied together with its values.
+     *
+     * @param entryAddress address of entry, [ len | value block | key offset block | key data block ]
+     * @param hashCode     hash of key data block
+     * @return value of existing entry or value of the copy, which is marked as new
+     */
+    MapValue createValueFromEntry(long entryAddress, int hashCode) {
+        final int len = Unsafe.getUnsafe().getInt(entryAddress);
+        int index = hashCode & mask;
+        long offset;
+        while ((offset = offsets.get(index)) != -1) {
+            if (eq(entryAddress, len, offset)) {
+                return valueOf(kStart + offset, false, value);
+            }
+            index = (index + 1) & mask;
+        }
+
+        if (kPos + len > kLimit) {
+            growKeyArea(kPos + len - kStart);
+        }
+        final long address = kPos;
+        Unsafe.getUnsafe().copyMemory(entryAddress, address, len);
+        kPos += len;
+        offsets.set(index, address - kStart);
+        if (--free == 0) {
+            rehash();
+        }
+        size++;
+        return valueOf(address, true, value);
+    }
+
+    MapValue findValueFromEntry(long entryAddress, int hashCode) {
+        final int len = Unsafe.getUnsafe().getInt(entryAddress);
+        int index = hashCode & mask;
+        long offset;
+        while ((offset = offsets.get(index)) != -1) {
+            if (eq(entryAddress, len, offset)) {
+                return valueOf(kStart + offset, false, value);
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
     long getAppendOffset() {
         return kPos;
     }
 
+    long getAreaSize() {
+        return kPos - kStart;
+    }
+
+    long getAreaStart() {
+        return kStart;
+    }
+
+    int getKeyDataOffset() {
+        return keyDataOffset;
+    }
+
+    long getMemoryUsed() {
+        return capacity + ((long) keyCapacity << 3);
+    }
+
+    int[] getValueOffsets() {
+        return valueOffsets;
+    }
+
+    /**
+     * Clears the map and gives back memory it acquired on top of the initial capacity.
+     */
+    void restoreInitialCapacity() {
+        if (capacity > initialPageSize) {
+            kStart = Unsafe.realloc(kStart, capacity, initialPageSize);
+            capacity = initialPageSize;
+            kLimit = kStart + initialPageSize;
+        }
+        if (keyCapacity > initialKeyCapacity) {
+            offsets.close();
+            offsets = new DirectLongList(initialKeyCapacity);
+            offsets.setPos(initialKeyCapacity);
+            keyCapacity = initialKeyCapacity;
+            mask = keyCapacity - 1;
+        }
+        nResizes = 0;
+        clear();
+    }
+
     int getValueColumnCount() {
         return valueColumnCount;
     }
@@ -304,7 +412,7 @@ public class FastMap implements Map {
     private FastMapValue probeReadOnly(Key keyWriter, int index, FastMapValue value) {
         long offset;
         while ((offset = offsets.get(index = (++index & mask))) != -1) {
-            if (eq(keyWriter, offset)) {
+            if (eq(keyWriter.startAddress, keyWriter.len, offset)) {
                 return valueOf(kStart + offset, false, value);
             }
         }
@@ -312,10 +420,28 @@ public class FastMap implements Map {
     }
 
     private void resize(int size) {
+        final long d = growKeyArea(key.appendAddress + size - kStart);
+        long colOffsetDelta = key.nextColOffset - key.startAddress;
+        key.startAddress += d;
+        key.appendAddress += d;
+        key.nextColOffset = key.startAddress + colOffsetDelta;
+
+        assert kPos > 0;
+        assert key.startAddress > 0;
+        assert key.appendAddress > 0;
+        assert key.nextColOffset > 0;
+    }
+
+    /**
+     * Grows key area to fit at least target number of bytes.
+     *
+     * @param target required size of key area
+     * @return distance the key area moved by
+     */
+    private long growKeyArea(long target) {
         if (nResizes < maxResizes) {
             nResizes++;
             long kCapacity = (kLimit - kStart) << 1;
-            long target = key.appendAddress + size - kStart;
             if (kCapacity < target) {
                 kCapacity = Numbers.ceilPow2(target);
             }
@@ -324,18 +450,9 @@ public class FastMap implements Map {
             this.capacity = kCapacity;
             long d = kAddress - this.kStart;
             kPos += d;
-            long colOffsetDelta = key.nextColOffset - key.startAddress;
-            key.startAddress += d;
-            key.appendAddress += d;
-            key.nextColOffset = key.startAddress + colOffsetDelta;
-
-            assert kPos > 0;
-            assert key.startAddress > 0;
-            assert key.appendAddress > 0;
-            assert key.nextColOffset > 0;
-
             this.kStart = kAddress;
             this.kLimit = kAddress + kCapacity;
+            return d;
         } else {
             throw LimitOverflowException.instance().put("limit of ").put(maxResizes).put(" resizes exceeded in FastMap");
         }
@@ -419,7 +536,7 @@ public class FastMap implements Map {
 
             if (offset == -1) {
                 return asNew(this, index, value);
-            } else if (eq(this, offset)) {
+            } else if (eq(startAddress, len, offset)) {
                 return valueOf(kStart + offset, false, value);
             } else {
                 return probe0(this, index, value);
@@ -433,7 +550,7 @@ public class FastMap implements Map {
 
             if (offset == -1) {
                 return null;
-            } else if (eq(this, offset)) {
+            } else if (eq(startAddress, len, offset)) {
                 return valueOf(kStart + offset, false, value);
             } else {
                 return probeReadOnly(this, index, value);
@@ -445,6 +562,17 @@ public class FastMap implements Map {
             sink.copy(record, this);
         }
 
+        /**
+         * Finishes key without looking it up in the map. Entry stays outside of the map
+         * and is overwritten by the next key.
+         *
+         * @return address of the entry
+         */
+        long commitEntry() {
+            commit();
+            return startAddress;
+        }
+
         public Key init() {
             startAddress = kPos;
             appendAddress = kPos + keyDataOffset;
@@ -257,6 +257,11 @@ final class FastMapRecord implements MapRecord {
         return symbolTableResolver.getSymbolTable(symbolTableIndex.getQuick(col)).valueOf(getInt(col));
     }
 
+    @Override
+    public CharSequence getSymB(int col) {
+        return symbolTableResolver.getSymbolTable(symbolTableIndex.getQuick(col)).valueBOf(getInt(col));
+    }
+
     @Override
     public MapValue getValue() {
         return value.of(address0, false);
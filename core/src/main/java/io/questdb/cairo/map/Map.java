@@ -37,6 +37,16 @@ public interface Map extends Mutable, Closeable {
 
     MapRecord getRecord();
 
+    /**
+     * Spilling maps hold some of the keys on disk. Until the map is iterated these keys
+     * are not visible to lookups and keys that are created may not be new.
+     *
+     * @return true when some of the keys are not held in memory
+     */
+    default boolean isSpilled() {
+        return false;
+    }
+
     long size();
 
     MapValue valueAt(long address);
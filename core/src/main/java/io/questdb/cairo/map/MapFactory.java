@@ -30,6 +30,7 @@ import io.questdb.cairo.ColumnTypes;
 import io.questdb.std.Chars;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class MapFactory {
     public static Map createMap(
@@ -62,6 +63,41 @@ public class MapFactory {
         throw CairoException.instance(0).put("unknown map type: ").put(mapType);
     }
 
+    /**
+     * Creates map for GROUP BY and DISTINCT, which moves keys to disk when it grows above
+     * spill threshold. Spilling must be enabled in configuration, otherwise default map
+     * type is created.
+     *
+     * @param configuration configuration
+     * @param keyTypes      key types
+     * @param valueTypes    value types, null when map has no values
+     * @param merger        combines values of the same key that were spilled at different times
+     * @return new map
+     */
+    public static Map createSpillingMap(
+            CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @Nullable ColumnTypes valueTypes,
+            @NotNull MapValueMerger merger
+    ) {
+        if (configuration.isSqlMapSpillEnabled()) {
+            return new SpillingMap(
+                    configuration.getFilesFacade(),
+                    configuration.getSqlTempRoot(),
+                    configuration.getMkDirMode(),
+                    configuration.getSqlMapPageSize(),
+                    keyTypes,
+                    valueTypes,
+                    configuration.getSqlMapKeyCapacity(),
+                    configuration.getSqlFastMapLoadFactor(),
+                    configuration.getSqlMapSpillThreshold(),
+                    configuration.getSqlMapSpillPartitionCount(),
+                    merger
+            );
+        }
+        return valueTypes != null ? createMap(configuration, keyTypes, valueTypes) : createMap(configuration, keyTypes);
+    }
+
     public static Map createMap(
             CairoConfiguration configuration,
             @Transient @NotNull ColumnTypes keyTypes) {
@@ -0,0 +1,523 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.map;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Map that keeps its memory under given limit by writing keys and values to temporary files.
+ * Keys are split between partitions by hash, each partition is a {@link FastMap}. When memory
+ * limit is exceeded the largest partitions are appended to their files as is and cleared.
+ * Cursor merges file contents of spilled partitions back, one partition at a time, and combines
+ * values of repeated keys with {@link MapValueMerger}.
+ * <p>
+ * Keys that were spilled are not visible to lookups until the map is iterated and random
+ * access is limited to records of the partition cursor is on. This map therefore suits
+ * "aggregate, then iterate" use, such as GROUP BY and DISTINCT.
+ */
+public class SpillingMap implements Map {
+    private static final Log LOG = LogFactory.getLog(SpillingMap.class);
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+    private static final long FIBONACCI_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final int MIN_PARTITION_PAGE_SIZE = 4 * 1024;
+    private final FilesFacade ff;
+    private final CharSequence spillRoot;
+    private final int mkDirMode;
+    private final Path path = new Path();
+    private final long id;
+    private final FastMap[] partitions;
+    private final long[] spillFds;
+    private final long[] spillSizes;
+    private final int partitionShift;
+    private final long memoryLimit;
+    private final MapValueMerger merger;
+    // key is assembled in this map and then copied to its partition
+    private final FastMap keyMap;
+    private final int keyDataOffset;
+    private final Key key = new Key();
+    private final FastMapValue mergeValue;
+    private final SpillingMapCursor cursor;
+    private long memoryUsed;
+    private boolean spillPending;
+    private int spilledPartitionCount;
+    private long bufAddress;
+    private long bufSize;
+
+    public SpillingMap(
+            FilesFacade ff,
+            CharSequence spillRoot,
+            int mkDirMode,
+            int pageSize,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @Nullable ColumnTypes valueTypes,
+            int keyCapacity,
+            double loadFactor,
+            long memoryLimit,
+            int partitionCount,
+            @NotNull MapValueMerger merger
+    ) {
+        this.ff = ff;
+        this.spillRoot = spillRoot;
+        this.mkDirMode = mkDirMode;
+        this.id = ID_SEQUENCE.incrementAndGet();
+        this.memoryLimit = memoryLimit;
+        this.merger = merger;
+
+        partitionCount = Numbers.ceilPow2(Math.max(2, partitionCount));
+        this.partitionShift = 64 - Numbers.msb(partitionCount);
+        this.partitions = new FastMap[partitionCount];
+        this.spillFds = new long[partitionCount];
+        this.spillSizes = new long[partitionCount];
+        Arrays.fill(spillFds, -1);
+        // empty partitions must stay well under the limit, otherwise every spill is followed by another one
+        final long pageSizeLimit = 1L << Numbers.msb(Math.max(1, memoryLimit / (partitionCount * 2L)));
+        final int partitionPageSize = (int) Math.max(MIN_PARTITION_PAGE_SIZE, Math.min(pageSizeLimit, Numbers.ceilPow2(pageSize / partitionCount)));
+        final int partitionKeyCapacity = keyCapacity / partitionCount;
+        try {
+            for (int i = 0; i < partitionCount; i++) {
+                partitions[i] = new FastMap(partitionPageSize, keyTypes, valueTypes, partitionKeyCapacity, loadFactor, Integer.MAX_VALUE);
+                memoryUsed += partitions[i].getMemoryUsed();
+            }
+            this.keyMap = new FastMap(partitionPageSize, keyTypes, valueTypes, 0, loadFactor, Integer.MAX_VALUE);
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+        this.keyDataOffset = keyMap.getKeyDataOffset();
+        this.mergeValue = new FastMapValue(keyMap.getValueOffsets());
+        this.cursor = new SpillingMapCursor();
+        this.bufSize = partitionPageSize;
+        this.bufAddress = Unsafe.malloc(bufSize);
+    }
+
+    @Override
+    public void clear() {
+        cursor.release();
+        removeSpillFiles();
+        memoryUsed = 0;
+        for (int i = 0, n = partitions.length; i < n; i++) {
+            partitions[i].restoreInitialCapacity();
+            memoryUsed += partitions[i].getMemoryUsed();
+        }
+        spillPending = false;
+    }
+
+    @Override
+    public final void close() {
+        removeSpillFiles();
+        for (int i = 0, n = partitions.length; i < n; i++) {
+            partitions[i] = Misc.free(partitions[i]);
+        }
+        Misc.free(keyMap);
+        if (bufAddress != 0) {
+            Unsafe.free(bufAddress, bufSize);
+            bufAddress = 0;
+        }
+        Misc.free(path);
+    }
+
+    @Override
+    public RecordCursor getCursor() {
+        return cursor.init();
+    }
+
+    @Override
+    public MapRecord getRecord() {
+        return partitions[0].getRecord();
+    }
+
+    @Override
+    public boolean isSpilled() {
+        return spilledPartitionCount > 0;
+    }
+
+    @Override
+    public long size() {
+        if (spilledPartitionCount > 0) {
+            // repeated keys are not known until partitions are merged
+            return -1;
+        }
+        long size = 0;
+        for (int i = 0, n = partitions.length; i < n; i++) {
+            size += partitions[i].size();
+        }
+        return size;
+    }
+
+    @Override
+    public MapValue valueAt(long address) {
+        return partitions[0].valueAt(address);
+    }
+
+    @Override
+    public MapKey withKey() {
+        if (spillPending) {
+            // values handed out earlier are no longer in use, it is safe to move them to disk
+            spill();
+        }
+        return key.init();
+    }
+
+    long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    private int partitionOf(int hashCode) {
+        // top bits of the product, FastMap takes its slot from the bottom bits of the hash
+        return (int) ((hashCode * FIBONACCI_MULTIPLIER) >>> partitionShift);
+    }
+
+    private void load(int partitionIndex) {
+        final FastMap partition = partitions[partitionIndex];
+        // bring the file up to date, it has all entries of the partition after this
+        spillPartition(partitionIndex);
+
+        final long fd = spillFds[partitionIndex];
+        final long fileSize = spillSizes[partitionIndex];
+        final long memoryBefore = partition.getMemoryUsed();
+        long offset = 0;
+        while (offset < fileSize) {
+            final long len = Math.min(bufSize, fileSize - offset);
+            if (ff.read(fd, bufAddress, len, offset) != len) {
+                throw CairoException.instance(ff.errno()).put("could not read spill file [fd=").put(fd).put(", offset=").put(offset).put(']');
+            }
+
+            final long lim = bufAddress + len;
+            long p = bufAddress;
+            while (p + Integer.BYTES <= lim) {
+                final int entryLen = Unsafe.getUnsafe().getInt(p);
+                if (p + entryLen > lim) {
+                    break;
+                }
+                final int hashCode = Hash.hashMem(p + keyDataOffset, entryLen - keyDataOffset);
+                final MapValue value = partition.createValueFromEntry(p, hashCode);
+                if (!value.isNew()) {
+                    merger.merge(value, mergeValue.of(p, false));
+                }
+                p += entryLen;
+            }
+
+            if (p == bufAddress) {
+                // entry is larger than the buffer
+                final long size = Numbers.ceilPow2(Unsafe.getUnsafe().getInt(p));
+                bufAddress = Unsafe.realloc(bufAddress, bufSize, size);
+                bufSize = size;
+            }
+            offset += p - bufAddress;
+        }
+        memoryUsed += partition.getMemoryUsed() - memoryBefore;
+    }
+
+    private long openSpillFile(int partitionIndex) {
+        path.of(spillRoot).put(Files.SEPARATOR).$();
+        if (!ff.exists(path) && ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.instance(ff.errno()).put("could not create spill directory [path=").put(path).put(']');
+        }
+        spillFileName(partitionIndex);
+        final long fd = ff.openRW(path);
+        if (fd == -1) {
+            throw CairoException.instance(ff.errno()).put("could not open spill file [path=").put(path).put(']');
+        }
+        return fd;
+    }
+
+    private void removeSpillFiles() {
+        for (int i = 0, n = spillFds.length; i < n; i++) {
+            final long fd = spillFds[i];
+            if (fd != -1) {
+                ff.close(fd);
+                spillFileName(i);
+                if (!ff.remove(path)) {
+                    LOG.error().$("could not remove spill file [path=").$(path).$(", errno=").$(ff.errno()).$(']').$();
+                }
+                spillFds[i] = -1;
+                spillSizes[i] = 0;
+            }
+        }
+        spilledPartitionCount = 0;
+    }
+
+    private void spill() {
+        spillPending = false;
+        while (memoryUsed > memoryLimit) {
+            int victim = -1;
+            long victimSize = 0;
+            for (int i = 0, n = partitions.length; i < n; i++) {
+                final long size = partitions[i].getAreaSize();
+                if (size > victimSize) {
+                    victim = i;
+                    victimSize = size;
+                }
+            }
+            if (victim == -1) {
+                break;
+            }
+            spillPartition(victim);
+        }
+    }
+
+    private void spillFileName(int partitionIndex) {
+        path.of(spillRoot).concat("map-");
+        path.put(Os.getPid()).put('-').put(id).put('-').put(partitionIndex).put(".tmp");
+        path.$();
+    }
+
+    private void spillPartition(int partitionIndex) {
+        final FastMap partition = partitions[partitionIndex];
+        final long size = partition.getAreaSize();
+        if (size > 0) {
+            long fd = spillFds[partitionIndex];
+            if (fd == -1) {
+                fd = spillFds[partitionIndex] = openSpillFile(partitionIndex);
+                spilledPartitionCount++;
+            }
+            // entries are stored back to back, key area is written in one go
+            if (ff.write(fd, partition.getAreaStart(), size, spillSizes[partitionIndex]) != size) {
+                throw CairoException.instance(ff.errno()).put("could not write spill file [fd=").put(fd).put(", size=").put(size).put(']');
+            }
+            spillSizes[partitionIndex] += size;
+            LOG.debug().$("spilled [id=").$(id).$(", partition=").$(partitionIndex).$(", size=").$(size).$(", total=").$(spillSizes[partitionIndex]).$(']').$();
+        }
+        memoryUsed -= partition.getMemoryUsed();
+        partition.restoreInitialCapacity();
+        memoryUsed += partition.getMemoryUsed();
+    }
+
+    private class Key implements MapKey {
+        private FastMap.Key delegate;
+
+        @Override
+        public MapValue createValue() {
+            final long entry = delegate.commitEntry();
+            final int hashCode = Hash.hashMem(entry + keyDataOffset, Unsafe.getUnsafe().getInt(entry) - keyDataOffset);
+            final FastMap partition = partitions[partitionOf(hashCode)];
+            final long memoryBefore = partition.getMemoryUsed();
+            final MapValue value = partition.createValueFromEntry(entry, hashCode);
+            memoryUsed += partition.getMemoryUsed() - memoryBefore;
+            spillPending = memoryUsed > memoryLimit;
+            return value;
+        }
+
+        @Override
+        public MapValue findValue() {
+            final long entry = delegate.commitEntry();
+            final int hashCode = Hash.hashMem(entry + keyDataOffset, Unsafe.getUnsafe().getInt(entry) - keyDataOffset);
+            return partitions[partitionOf(hashCode)].findValueFromEntry(entry, hashCode);
+        }
+
+        @Override
+        public void put(Record record, RecordSink sink) {
+            sink.copy(record, this);
+        }
+
+        @Override
+        public void putBin(BinarySequence value) {
+            delegate.putBin(value);
+        }
+
+        @Override
+        public void putBool(boolean value) {
+            delegate.putBool(value);
+        }
+
+        @Override
+        public void putByte(byte value) {
+            delegate.putByte(value);
+        }
+
+        @Override
+        public void putDate(long value) {
+            delegate.putDate(value);
+        }
+
+        @Override
+        public void putDouble(double value) {
+            delegate.putDouble(value);
+        }
+
+        @Override
+        public void putFloat(float value) {
+            delegate.putFloat(value);
+        }
+
+        @Override
+        public void putInt(int value) {
+            delegate.putInt(value);
+        }
+
+        @Override
+        public void putLong(long value) {
+            delegate.putLong(value);
+        }
+
+        @Override
+        public void putLong256(Long256 value) {
+            delegate.putLong256(value);
+        }
+
+        @Override
+        public void putShort(short value) {
+            delegate.putShort(value);
+        }
+
+        @Override
+        public void putChar(char value) {
+            delegate.putChar(value);
+        }
+
+        @Override
+        public void putStr(CharSequence value) {
+            delegate.putStr(value);
+        }
+
+        @Override
+        public void putStr(CharSequence value, int lo, int hi) {
+            delegate.putStr(value, lo, hi);
+        }
+
+        @Override
+        public void putRecord(Record value) {
+            delegate.putRecord(value);
+        }
+
+        @Override
+        public void putTimestamp(long value) {
+            delegate.putTimestamp(value);
+        }
+
+        @Override
+        public void skip(int bytes) {
+            delegate.skip(bytes);
+        }
+
+        private Key init() {
+            delegate = (FastMap.Key) keyMap.withKey();
+            return this;
+        }
+    }
+
+    private class SpillingMapCursor implements RecordCursor {
+        private final FastMapRecord recordA;
+        private final MapRecord recordB;
+        private int partitionIndex;
+        // spilled partition that is merged into memory
+        private int loadedPartitionIndex = -1;
+        private long address;
+        private long remaining;
+
+        private SpillingMapCursor() {
+            this.recordA = (FastMapRecord) partitions[0].getRecord();
+            this.recordB = recordA.clone();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return recordA;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (remaining == 0) {
+                if (partitionIndex == partitions.length - 1) {
+                    release();
+                    return false;
+                }
+                openPartition(++partitionIndex);
+            }
+            final long address = this.address;
+            this.address = address + Unsafe.getUnsafe().getInt(address);
+            remaining--;
+            recordA.of(address);
+            return true;
+        }
+
+        @Override
+        public Record getRecordB() {
+            return recordB;
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            // row ids are only valid while cursor is on the same partition
+            assert record instanceof FastMapRecord;
+            ((FastMapRecord) record).of(atRowId);
+        }
+
+        @Override
+        public void toTop() {
+            init();
+        }
+
+        @Override
+        public long size() {
+            return SpillingMap.this.size();
+        }
+
+        private SpillingMapCursor init() {
+            release();
+            partitionIndex = -1;
+            remaining = 0;
+            return this;
+        }
+
+        private void openPartition(int index) {
+            release();
+            if (spillFds[index] != -1) {
+                load(index);
+                loadedPartitionIndex = index;
+            }
+            final FastMap partition = partitions[index];
+            address = partition.getAreaStart();
+            remaining = partition.size();
+        }
+
+        private void release() {
+            if (loadedPartitionIndex != -1) {
+                final FastMap partition = partitions[loadedPartitionIndex];
+                memoryUsed -= partition.getMemoryUsed();
+                partition.restoreInitialCapacity();
+                memoryUsed += partition.getMemoryUsed();
+                loadedPartitionIndex = -1;
+            }
+        }
+    }
+}
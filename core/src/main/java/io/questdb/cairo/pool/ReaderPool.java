@@ -26,6 +26,8 @@ package io.questdb.cairo.pool;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoException;
+import io.questdb.cairo.InflatedColumnMemory;
+import io.questdb.cairo.SharedColumnMappings;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.pool.ex.EntryLockedException;
 import io.questdb.cairo.EntryUnavailableException;
@@ -51,11 +53,18 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
     private final ConcurrentHashMap<Entry> entries = new ConcurrentHashMap<>();
     private final int maxSegments;
     private final int maxEntries;
+    // inflated compressed files of all tables
+    private final InflatedColumnMemory inflatedMemory;
 
     public ReaderPool(CairoConfiguration configuration) {
         super(configuration, configuration.getInactiveReaderTTL());
         this.maxSegments = configuration.getReaderPoolMaxSegments();
         this.maxEntries = maxSegments * ENTRY_SIZE;
+        this.inflatedMemory = new InflatedColumnMemory(
+                clock,
+                configuration.getInflatedColumnCacheSize(),
+                configuration.getInflatedColumnMemoryLimit()
+        );
     }
 
     @Override
@@ -110,7 +119,7 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
             // all allocated, create next entry if possible
             if (Unsafe.getUnsafe().compareAndSwapInt(e, NEXT_STATUS, NEXT_OPEN, NEXT_ALLOCATED)) {
                 LOG.debug().$("Thread ").$(thread).$(" allocated entry ").$(e.index + 1).$();
-                e.next = new Entry(e.index + 1, clock.getTicks());
+                e.next = new Entry(e.index + 1, clock.getTicks(), e.mappings);
             }
             e = e.next;
         } while (e != null && e.index < maxSegments);
@@ -137,6 +146,10 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
         return count;
     }
 
+    public InflatedColumnMemory getInflatedMemory() {
+        return inflatedMemory;
+    }
+
     public int getMaxEntries() {
         return maxEntries;
     }
@@ -144,6 +157,7 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
     public boolean lock(CharSequence name) {
 
         Entry e = getEntry(name);
+        final SharedColumnMappings mappings = e.mappings;
 
         long thread = Thread.currentThread().getId();
 
@@ -178,6 +192,8 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
             notifyListener(thread, name, PoolListener.EV_LOCK_BUSY, -1, -1);
             return false;
         }
+        // table is about to be dropped or renamed, files kept for reuse must go too
+        inflatedMemory.releaseIdle(mappings);
         notifyListener(thread, name, PoolListener.EV_LOCK_SUCCESS, -1, -1);
         LOG.info().$("locked [table=`").utf8(name).$("`, thread=").$(thread).$(']').$();
         return true;
@@ -237,7 +253,6 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
         for (Map.Entry<CharSequence, Entry> me : entries.entrySet()) {
 
             Entry e = me.getValue();
-
             do {
                 for (int i = 0; i < ENTRY_SIZE; i++) {
                     R r;
@@ -263,6 +278,9 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
             } while (e != null);
         }
 
+        // readers closed above could have left their inflated files behind
+        inflatedMemory.releaseIdle(deadline);
+
         // when we are timing out entries the result is "true" if there was any work done
         // when we closing pool, the result is true when pool is empty
         if (closeReason == PoolConstants.CR_IDLE) {
@@ -277,7 +295,7 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
 
         Entry e = entries.get(name);
         if (e == null) {
-            e = new Entry(0, clock.getTicks());
+            e = new Entry(0, clock.getTicks(), new SharedColumnMappings(inflatedMemory));
             Entry other = entries.putIfAbsent(name, e);
             if (other != null) {
                 e = other;
@@ -329,13 +347,16 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
         final long[] releaseTimes = new long[ENTRY_SIZE];
         final R[] readers = new R[ENTRY_SIZE];
         final int index;
+        // readers of all entries of the same table share mappings
+        final SharedColumnMappings mappings;
         volatile long lockOwner = -1L;
         @SuppressWarnings("unused")
         long nextStatus = 0;
         volatile Entry next;
 
-        public Entry(int index, long currentMicros) {
+        public Entry(int index, long currentMicros, SharedColumnMappings mappings) {
             this.index = index;
+            this.mappings = mappings;
             Arrays.fill(allocations, UNALLOCATED);
             Arrays.fill(releaseTimes, currentMicros);
         }
@@ -347,7 +368,7 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
         private Entry entry;
 
         public R(ReaderPool pool, Entry entry, int index, CharSequence name) {
-            super(pool.getConfiguration(), name);
+            super(pool.getConfiguration(), name, entry.mappings);
             this.pool = pool;
             this.entry = entry;
             this.index = index;
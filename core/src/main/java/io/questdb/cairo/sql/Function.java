@@ -109,6 +109,10 @@ public interface Function extends Closeable {
 
     CharSequence getSymbol(Record rec);
 
+    default CharSequence getSymbolB(Record rec) {
+        return getSymbol(rec);
+    }
+
     long getTimestamp(Record rec);
 
     int getType();
@@ -40,6 +40,19 @@ public interface PageFrame {
      */
     long getPageAddress(int columnIndex);
 
+    /**
+     * Return the address of the index page of variable-size column, such as STRING. Index holds
+     * 8-byte offsets of column values, one per row, starting with the first row of the frame.
+     * Page address of variable-size column points at the value of the first row, which makes
+     * value of row N located at page address + index[N] - index[0].
+     *
+     * @param columnIndex index of column
+     * @return address of column index or 0 if column is empty or is fixed-size
+     */
+    default long getIndexPageAddress(int columnIndex) {
+        return 0;
+    }
+
     /**
      * Return the size of the page frame or if the page represents a column top
      * (a column that was added to the table when other columns already had data),
@@ -49,4 +62,25 @@ public interface PageFrame {
      * @return size of page in bytes
      */
     long getPageSize(int columnIndex);
+
+    /**
+     * Return index of the partition this frame belongs to.
+     *
+     * @return partition index
+     */
+    int getPartitionIndex();
+
+    /**
+     * Return number of the first row of this frame within its partition.
+     *
+     * @return partition row number, inclusive
+     */
+    long getPartitionLo();
+
+    /**
+     * Return number of the row following the last row of this frame within its partition.
+     *
+     * @return partition row number, exclusive
+     */
+    long getPartitionHi();
 }
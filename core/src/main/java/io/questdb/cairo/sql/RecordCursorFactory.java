@@ -50,4 +50,15 @@ public interface RecordCursorFactory extends Closeable {
     default boolean supportPageFrameCursor() {
         return false;
     }
+
+    /**
+     * Factories that support variable-size page frames return page frame cursor when some of
+     * the columns are STRING. These columns are accessed via {@link PageFrame#getIndexPageAddress(int)}.
+     * Factory that supports fixed-size page frames only returns false.
+     *
+     * @return true when page frames can include STRING columns
+     */
+    default boolean supportVarSizePageFrameCursor() {
+        return false;
+    }
 }
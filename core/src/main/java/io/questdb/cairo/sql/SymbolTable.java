@@ -31,4 +31,9 @@ public interface SymbolTable {
     int VALUE_IS_NULL = Numbers.INT_NaN;
 
     CharSequence valueOf(int key);
+
+    // second flyweight, values of two keys can be held at the same time, e.g. by sort comparators
+    default CharSequence valueBOf(int key) {
+        return valueOf(key);
+    }
 }
@@ -149,6 +149,11 @@ public class VirtualRecord implements ColumnTypes, DelegatingRecord {
         return getFunction(col).getSymbol(base);
     }
 
+    @Override
+    public CharSequence getSymB(int col) {
+        return getFunction(col).getSymbolB(base);
+    }
+
     @Override
     public long getTimestamp(int col) {
         return getFunction(col).getTimestamp(base);
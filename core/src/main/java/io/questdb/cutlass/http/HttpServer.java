@@ -29,10 +29,16 @@ import io.questdb.WorkerPoolAwareConfiguration;
 import io.questdb.WorkerPoolAwareConfiguration.ServerFactory;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.ColumnIndexerJob;
+import io.questdb.cairo.OutOfOrderCopyJob;
 import io.questdb.cairo.TableBlockWriter.TableBlockWriterJob;
 import io.questdb.cutlass.http.processors.*;
+import io.questdb.cutlass.text.TextImportJob;
 import io.questdb.griffin.FunctionFactoryCache;
+import io.questdb.griffin.engine.groupby.KeyedGroupByJob;
+import io.questdb.griffin.engine.groupby.SampleByJob;
 import io.questdb.griffin.engine.groupby.vect.GroupByJob;
+import io.questdb.griffin.engine.join.HashJoinJob;
+import io.questdb.griffin.engine.table.PageFrameFilterJob;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.*;
@@ -77,6 +83,7 @@ public class HttpServer implements Closeable {
                 httpContextFactory
         );
         pool.assign(dispatcher);
+        pool.wakeOn(dispatcher.getWorkerWakeup());
         this.rescheduleContext = new WaitProcessor(configuration.getWaitProcessorConfiguration());
         pool.assign(this.rescheduleContext);
 
@@ -130,7 +137,7 @@ public class HttpServer implements Closeable {
         server.bind(new HttpRequestProcessorFactory() {
             @Override
             public HttpRequestProcessor newInstance() {
-                return new TextImportProcessor(cairoEngine);
+                return new TextImportProcessor(cairoEngine, messageBus, workerPool.getWorkerCount());
             }
 
             @Override
@@ -185,6 +192,13 @@ public class HttpServer implements Closeable {
         workerPool.assign(new ColumnIndexerJob(messageBus));
         workerPool.assign(new GroupByJob(messageBus));
         workerPool.assign(new TableBlockWriterJob(messageBus));
+        workerPool.assign(new OutOfOrderCopyJob(messageBus));
+        workerPool.assign(new PageFrameFilterJob(messageBus));
+        workerPool.assign(new TextImportJob(messageBus));
+        workerPool.assign(new HashJoinJob(messageBus));
+        workerPool.assign(new SampleByJob(messageBus));
+        workerPool.assign(new KeyedGroupByJob(messageBus));
+        workerPool.wakeOn(messageBus.getWorkerWakeup());
     }
 
     @Nullable
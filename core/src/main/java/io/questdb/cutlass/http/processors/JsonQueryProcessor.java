@@ -124,7 +124,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         // the only time we need to copy random from state is when we resume request execution
         sqlExecutionContext.with(context.getCairoSecurityContext(), null, null, context.getFd(), interruptor.of(context.getFd()));
         state.info().$("exec [q='").utf8(state.getQuery()).$("']").$();
-        final RecordCursorFactory factory = QueryCache.getInstance().poll(state.getQuery());
+        final RecordCursorFactory factory = state.isProfile() ? null : QueryCache.getInstance().poll(state.getQuery());
         try {
             if (factory != null) {
                 try {
@@ -301,7 +301,9 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
 
     private void compileQuery(JsonQueryProcessorState state) throws SqlException, PeerDisconnectedException, PeerIsSlowToReadException {
         final long nanos = nanosecondClock.getTicks();
-        final CompiledQuery cc = compiler.compile(state.getQuery(), sqlExecutionContext);
+        final CompiledQuery cc = state.isProfile()
+                ? compiler.compileProfiled(state.getQuery(), sqlExecutionContext)
+                : compiler.compile(state.getQuery(), sqlExecutionContext);
         sqlExecutionContext.storeTelemetry(cc.getType(), Telemetry.ORIGIN_HTTP_JSON);
         state.setCompilerNanos(nanosecondClock.getTicks() - nanos);
         queryExecutors.getQuick(cc.getType()).execute(
@@ -37,6 +37,7 @@ import io.questdb.cutlass.text.TextUtil;
 import io.questdb.cutlass.text.Utf8Exception;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.engine.profile.ProfiledRecordCursorFactory;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.log.LogRecord;
@@ -89,6 +90,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private long recordCountNanos;
     private long compilerNanos;
     private boolean timings;
+    private boolean profile;
     private boolean queryCacheable = false;
 
     public JsonQueryProcessorState(
@@ -186,6 +188,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.noMeta = Chars.equalsNc("true", request.getUrlParam("nm"));
         this.countRows = Chars.equalsNc("true", request.getUrlParam("count"));
         this.timings = Chars.equalsNc("true", request.getUrlParam("timings"));
+        this.profile = Chars.equalsNc("true", request.getUrlParam("profile"));
     }
 
     public LogRecord error() {
@@ -208,6 +211,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.rnd = rnd;
     }
 
+    public boolean isProfile() {
+        return profile;
+    }
+
     public LogRecord info() {
         return LOG.info().$('[').$(getFd()).$("] ");
     }
@@ -495,6 +502,13 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
                 socket.putQuoted("count").put(':').put(recordCountNanos);
                 socket.put('}');
             }
+            if (profile && recordCursorFactory instanceof ProfiledRecordCursorFactory) {
+                // closed cursors report their size to the profile
+                cursor = Misc.free(cursor);
+                socket.put(',').putQuoted("profile").put(':').put('[');
+                putProfile(socket, (ProfiledRecordCursorFactory) recordCursorFactory, 0);
+                socket.put(']');
+            }
             socket.put('}');
             count = -1;
             socket.sendChunk();
@@ -514,6 +528,23 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         doQuerySuffix(socket, columnCount);
     }
 
+    private static void putProfile(HttpChunkedResponseSocket socket, ProfiledRecordCursorFactory factory, int depth) {
+        socket.put('{');
+        socket.putQuoted("factory").put(':').putQuoted(factory.getName()).put(',');
+        socket.putQuoted("depth").put(':').put(depth).put(',');
+        socket.putQuoted("rows").put(':').put(factory.getRowCount()).put(',');
+        socket.putQuoted("size").put(':').put(factory.getSize()).put(',');
+        socket.putQuoted("cursors").put(':').put(factory.getCursorCount()).put(',');
+        socket.putQuoted("openNanos").put(':').put(factory.getOpenNanos()).put(',');
+        socket.putQuoted("nextNanos").put(':').put(factory.getNextNanos());
+        socket.put('}');
+        final ObjList<ProfiledRecordCursorFactory> children = factory.getChildren();
+        for (int i = 0, n = children.size(); i < n; i++) {
+            socket.put(',');
+            putProfile(socket, children.getQuick(i), depth + 1);
+        }
+    }
+
     private long getFd() {
         return httpConnectionContext.getFd();
     }
@@ -524,7 +555,8 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
 
     boolean of(RecordCursorFactory factory, SqlExecutionContextImpl sqlExecutionContext) throws PeerDisconnectedException, PeerIsSlowToReadException {
         this.recordCursorFactory = factory;
-        queryCacheable = true;
+        // profiled factories are not to be reused by queries that are not profiled
+        queryCacheable = !profile;
         this.cursor = factory.getCursor(sqlExecutionContext);
         final RecordMetadata metadata = factory.getMetadata();
         HttpRequestHeader header = httpConnectionContext.getRequestHeader();
@@ -24,6 +24,7 @@
 
 package io.questdb.cutlass.http.processors;
 
+import io.questdb.MessageBus;
 import io.questdb.cairo.*;
 import io.questdb.cairo.EntryUnavailableException;
 import io.questdb.cairo.sql.RecordMetadata;
@@ -40,6 +41,7 @@ import io.questdb.network.PeerIsSlowToReadException;
 import io.questdb.network.ServerDisconnectException;
 import io.questdb.std.*;
 import io.questdb.std.str.CharSink;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
@@ -67,11 +69,19 @@ public class TextImportProcessor implements HttpRequestProcessor, HttpMultipartC
     // which is LV, has to be the same between processor instances
     private static final LocalValue<TextImportProcessorState> LV = new LocalValue<>();
     private final CairoEngine engine;
+    private final MessageBus messageBus;
+    private final int workerCount;
     private HttpConnectionContext transientContext;
     private TextImportProcessorState transientState;
 
     public TextImportProcessor(CairoEngine cairoEngine) {
+        this(cairoEngine, null, 0);
+    }
+
+    public TextImportProcessor(CairoEngine cairoEngine, @Nullable MessageBus messageBus, int workerCount) {
         this.engine = cairoEngine;
+        this.messageBus = messageBus;
+        this.workerCount = workerCount;
     }
 
     @Override
@@ -157,6 +167,9 @@ public class TextImportProcessor implements HttpRequestProcessor, HttpMultipartC
             );
             transientState.textLoader.setForceHeaders(Chars.equalsNc("true", rh.getUrlParam("forceHeader")));
             transientState.textLoader.setSkipRowsWithExtraValues(Chars.equalsNc("true", rh.getUrlParam("skipLev")));
+            if (Chars.equalsNc("true", rh.getUrlParam("parallel"))) {
+                transientState.textLoader.setParallel(messageBus, workerCount);
+            }
             transientState.textLoader.setState(TextLoader.ANALYZE_STRUCTURE);
 
             transientState.forceHeader = Chars.equalsNc("true", rh.getUrlParam("forceHeader"));
@@ -133,40 +133,51 @@ class LineTcpConnectionContext implements IOContext, Mutable {
     IOContextResult handleIO() {
         while (read()) {
             try {
-                // Process as much data as possible
+                // Process as much data as possible, consecutive measurements for the same table
+                // are batched into a single event
                 long recvBufLineStart = recvBufStart;
                 final long lim = recvBufPos;
                 queueFull = false;
-                do {
-                    final LineTcpMeasurementEvent event = scheduler.getNewEvent();
-                    if (event != null) {
-                        boolean success = true;
-                        try {
-                            final long recvBufLineNext = event.parseLine(recvBufLineStart, recvBufPos);
-                            if (recvBufLineNext > -1 && event.isSuccess()) {
-                                recvBufLineStart = recvBufLineNext;
-                            } else if (recvBufLineNext == -1) {
-                                // incomplete line
-                                success = false;
+                LineTcpMeasurementEvent event = null;
+                try {
+                    do {
+                        if (null == event) {
+                            event = scheduler.getNewEvent();
+                            if (null == event) {
+                                // Waiting for writer threads to drain queue, request callback as soon as possible
+                                if (checkQueueFullLogHysteresis()) {
+                                    LOG.info().$('[').$(fd).$("] queue full, consider increasing queue size or number of writer jobs").$();
+                                }
+                                queueFull = true;
                                 break;
-                            } else {
-                                success = false;
-                                LOG.error().$('[').$(fd).$("] could not parse measurement, code ").$(event.getErrorCode()).$(" at ").$(event.getErrorPosition()).$(" in ")
-                                        .$(byteCharSequence.of(recvBufLineStart, Math.min(recvBufLineNext, recvBufPos))).$();
-                                recvBufLineStart = recvBufLineNext;
                             }
-                        } finally {
-                            scheduler.commitNewEvent(event, success);
                         }
-                    } else {
-                        // Waiting for writer threads to drain queue, request callback as soon as possible
-                        if (checkQueueFullLogHysteresis()) {
-                            LOG.info().$('[').$(fd).$("] queue full, consider increasing queue size or number of writer jobs").$();
+
+                        final long recvBufLineNext = event.parseLine(recvBufLineStart, recvBufPos);
+                        if (recvBufLineNext == -1) {
+                            // incomplete line
+                            break;
                         }
-                        queueFull = true;
-                        break;
+
+                        if (event.isSuccess()) {
+                            if (!event.appendLine()) {
+                                // hand over the batch, line will be parsed again into the next event
+                                final LineTcpMeasurementEvent fullEvent = event;
+                                event = null;
+                                scheduler.commitNewEvent(fullEvent, true);
+                                continue;
+                            }
+                        } else {
+                            LOG.error().$('[').$(fd).$("] could not parse measurement, code ").$(event.getErrorCode()).$(" at ").$(event.getErrorPosition()).$(" in ")
+                                    .$(byteCharSequence.of(recvBufLineStart, Math.min(recvBufLineNext, recvBufPos))).$();
+                        }
+                        recvBufLineStart = recvBufLineNext;
+                    } while (recvBufLineStart != lim);
+                } finally {
+                    if (null != event) {
+                        scheduler.commitNewEvent(event, event.hasRows());
                     }
-                } while (recvBufLineStart != lim);
+                }
 
                 // Compact input buffer
                 assert recvBufLineStart <= recvBufPos;
@@ -0,0 +1,367 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cutlass.line.CairoLineProtoParserSupport;
+import io.questdb.cutlass.line.CairoLineProtoParserSupport.BadCastException;
+import io.questdb.cutlass.line.tcp.LineTcpMeasurementScheduler.LineTcpMeasurementEvent;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.log.LogRecord;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectCharSequence;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+/**
+ * Consecutive measurements for the same table, decoded by the IO thread into binary rows.
+ * Value types are resolved and numbers are parsed once, when measurement is received, so that
+ * writer job can append the whole batch without going back to the measurement text.
+ * <p>
+ * Row layout is timestamp (long), value count (int) and index of the first field (int), followed
+ * by the values. Each value is name length (int), name chars, line protocol type (int), encoding (byte)
+ * and the encoded value. Strings, symbols and values that could not be parsed are encoded as
+ * length (int) followed by chars.
+ */
+class LineTcpMeasurementBatch implements Closeable, Mutable {
+    private static final Log LOG = LogFactory.getLog(LineTcpMeasurementBatch.class);
+    private static final byte ENCODING_NONE = 0;
+    private static final byte ENCODING_LONG = 1;
+    private static final byte ENCODING_DOUBLE = 2;
+    private static final byte ENCODING_BOOLEAN = 3;
+    private static final byte ENCODING_CHARS = 4;
+    private static final int ROW_HEADER_SIZE = Long.BYTES + 2 * Integer.BYTES;
+    // name length, type, encoding and either 8-byte value or chars length
+    private static final int VALUE_HEADER_SIZE = 2 * Integer.BYTES + Byte.BYTES + Long.BYTES;
+    private final int maxRows;
+    private final StringSink tableName = new StringSink();
+    private final LongList valueAddresses = new LongList();
+    private final DirectCharSequence nameSequence = new DirectCharSequence();
+    private final DirectCharSequence charsSequence = new DirectCharSequence();
+    private long lo;
+    private long hi;
+    private long appendAddress;
+    private int rowCount;
+    private long readAddress;
+    private long rowTimestamp;
+    private int rowFirstFieldIndex;
+
+    LineTcpMeasurementBatch(int initialCapacity, int maxRows) {
+        this.lo = Unsafe.malloc(initialCapacity);
+        this.hi = lo + initialCapacity;
+        this.maxRows = maxRows;
+        clear();
+    }
+
+    @Override
+    public void clear() {
+        tableName.clear();
+        appendAddress = lo;
+        readAddress = lo;
+        rowCount = 0;
+    }
+
+    @Override
+    public void close() {
+        if (lo != 0) {
+            Unsafe.free(lo, hi - lo);
+            lo = hi = appendAddress = readAddress = 0;
+        }
+    }
+
+    int getFirstFieldIndex() {
+        return rowFirstFieldIndex;
+    }
+
+    CharSequence getName(int index) {
+        final long address = valueAddresses.getQuick(index);
+        return nameSequence.of(address + Integer.BYTES, address + Integer.BYTES + ((long) Unsafe.getUnsafe().getInt(address) << 1));
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    CharSequence getTableName() {
+        return tableName;
+    }
+
+    long getTimestamp() {
+        return rowTimestamp;
+    }
+
+    int getType(int index) {
+        return Unsafe.getUnsafe().getInt(getTypeAddress(index));
+    }
+
+    int getValueCount() {
+        return valueAddresses.size();
+    }
+
+    boolean hasNextRow() {
+        if (readAddress < appendAddress) {
+            long p = readAddress;
+            rowTimestamp = Unsafe.getUnsafe().getLong(p);
+            final int valueCount = Unsafe.getUnsafe().getInt(p + Long.BYTES);
+            rowFirstFieldIndex = Unsafe.getUnsafe().getInt(p + Long.BYTES + Integer.BYTES);
+            p += ROW_HEADER_SIZE;
+            valueAddresses.clear();
+            for (int i = 0; i < valueCount; i++) {
+                valueAddresses.add(p);
+                p += Integer.BYTES + ((long) Unsafe.getUnsafe().getInt(p) << 1) + Integer.BYTES;
+                switch (Unsafe.getUnsafe().getByte(p)) {
+                    case ENCODING_LONG:
+                    case ENCODING_DOUBLE:
+                        p += Byte.BYTES + Long.BYTES;
+                        break;
+                    case ENCODING_BOOLEAN:
+                        p += Byte.BYTES + Byte.BYTES;
+                        break;
+                    case ENCODING_CHARS:
+                        p += Byte.BYTES + Integer.BYTES + ((long) Unsafe.getUnsafe().getInt(p + Byte.BYTES) << 1);
+                        break;
+                    default:
+                        p += Byte.BYTES;
+                        break;
+                }
+            }
+            readAddress = p;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Writes value to table row, converting it to column type when line protocol allows it.
+     *
+     * @param row         table row
+     * @param columnType  type of the column
+     * @param columnIndex index of the column in the table
+     * @param index       index of the value in the current row
+     * @throws BadCastException when value cannot be converted to column type
+     */
+    void putValue(TableWriter.Row row, int columnType, int columnIndex, int index) throws BadCastException {
+        final long address = getTypeAddress(index) + Integer.BYTES;
+        final byte encoding = Unsafe.getUnsafe().getByte(address);
+        final long valueAddress = address + Byte.BYTES;
+        switch (columnType) {
+            case ColumnType.LONG:
+                if (encoding != ENCODING_LONG) {
+                    throw badCast(encoding, valueAddress, columnType);
+                }
+                row.putLong(columnIndex, Unsafe.getUnsafe().getLong(valueAddress));
+                break;
+            case ColumnType.BOOLEAN:
+                row.putBool(columnIndex, Unsafe.getUnsafe().getByte(valueAddress) == 1);
+                break;
+            case ColumnType.STRING:
+                row.putStr(columnIndex, getChars(valueAddress));
+                break;
+            case ColumnType.SYMBOL:
+                row.putSym(columnIndex, getChars(valueAddress));
+                break;
+            case ColumnType.DOUBLE:
+                if (encoding != ENCODING_DOUBLE) {
+                    throw badCast(encoding, valueAddress, columnType);
+                }
+                row.putDouble(columnIndex, Unsafe.getUnsafe().getDouble(valueAddress));
+                break;
+            case ColumnType.SHORT:
+                if (encoding != ENCODING_LONG) {
+                    throw badCast(encoding, valueAddress, columnType);
+                }
+                final long value = Unsafe.getUnsafe().getLong(valueAddress);
+                if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+                    throw badCast(encoding, valueAddress, columnType);
+                }
+                row.putShort(columnIndex, (short) value);
+                break;
+            case ColumnType.LONG256:
+                if (encoding == ENCODING_CHARS) {
+                    // hex value with "i" suffix, it was not parsed as long
+                    final CharSequence chars = getChars(valueAddress);
+                    if (chars.length() > 2 && chars.charAt(0) == '0' && chars.charAt(1) == 'x') {
+                        row.putLong256(columnIndex, chars, 2, chars.length() - 1);
+                        break;
+                    }
+                }
+                throw badCast(encoding, valueAddress, columnType);
+            case ColumnType.TIMESTAMP:
+                if (encoding != ENCODING_LONG) {
+                    throw badCast(encoding, valueAddress, columnType);
+                }
+                row.putTimestamp(columnIndex, Unsafe.getUnsafe().getLong(valueAddress));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Decodes measurement, which has just been parsed by the event, and appends it to the batch.
+     *
+     * @param event event holding parsed measurement
+     * @return false when batch is full or holds measurements for another table
+     */
+    boolean tryAppend(LineTcpMeasurementEvent event) {
+        final CharSequence measurementName = event.getMeasurementName();
+        if (rowCount > 0 && (rowCount >= maxRows || !Chars.equals(tableName, measurementName))) {
+            return false;
+        }
+
+        if (rowCount++ == 0) {
+            tableName.put(measurementName);
+        }
+
+        // event char sequences are flyweights, they are re-pointed by every getter call
+        final int valueCount = event.getNValues();
+        long size = ROW_HEADER_SIZE;
+        for (int i = 0; i < valueCount; i++) {
+            size += VALUE_HEADER_SIZE + ((long) (event.getName(i).length() + event.getValue(i).length()) << 1);
+        }
+        ensureCapacity(size);
+
+        long timestamp;
+        try {
+            timestamp = event.getTimestamp();
+        } catch (NumericException e) {
+            // measurement is still appended, so that writer can create columns
+            timestamp = Numbers.LONG_NaN;
+        }
+
+        final int firstFieldIndex = event.getFirstFieldIndex();
+        long p = appendAddress;
+        Unsafe.getUnsafe().putLong(p, timestamp);
+        Unsafe.getUnsafe().putInt(p + Long.BYTES, valueCount);
+        Unsafe.getUnsafe().putInt(p + Long.BYTES + Integer.BYTES, firstFieldIndex);
+        p += ROW_HEADER_SIZE;
+        for (int i = 0; i < valueCount; i++) {
+            final CharSequence name = event.getName(i);
+            p = putChars(p, name, 0, name.length());
+            final CharSequence value = event.getValue(i);
+            if (i < firstFieldIndex) {
+                Unsafe.getUnsafe().putInt(p, ColumnType.SYMBOL);
+                p = putCharsValue(p + Integer.BYTES, value, 0, value.length());
+            } else {
+                final int type = CairoLineProtoParserSupport.getValueType(value);
+                Unsafe.getUnsafe().putInt(p, type);
+                p += Integer.BYTES;
+                switch (type) {
+                    case ColumnType.LONG:
+                        try {
+                            final long l = Numbers.parseLong(value, 0, value.length() - 1);
+                            Unsafe.getUnsafe().putByte(p, ENCODING_LONG);
+                            Unsafe.getUnsafe().putLong(p + Byte.BYTES, l);
+                            p += Byte.BYTES + Long.BYTES;
+                        } catch (NumericException e) {
+                            p = putCharsValue(p, value, 0, value.length());
+                        }
+                        break;
+                    case ColumnType.BOOLEAN:
+                        Unsafe.getUnsafe().putByte(p, ENCODING_BOOLEAN);
+                        Unsafe.getUnsafe().putByte(p + Byte.BYTES, (byte) (CairoLineProtoParserSupport.isTrue(value) ? 1 : 0));
+                        p += Byte.BYTES + Byte.BYTES;
+                        break;
+                    case ColumnType.STRING:
+                        p = putCharsValue(p, value, 1, value.length() - 1);
+                        break;
+                    case ColumnType.DOUBLE:
+                        try {
+                            final double d = Numbers.parseDouble(value);
+                            Unsafe.getUnsafe().putByte(p, ENCODING_DOUBLE);
+                            Unsafe.getUnsafe().putDouble(p + Byte.BYTES, d);
+                            p += Byte.BYTES + Long.BYTES;
+                        } catch (NumericException e) {
+                            p = putCharsValue(p, value, 0, value.length());
+                        }
+                        break;
+                    default:
+                        Unsafe.getUnsafe().putByte(p, ENCODING_NONE);
+                        p += Byte.BYTES;
+                        break;
+                }
+            }
+        }
+        appendAddress = p;
+        return true;
+    }
+
+    private static long putChars(long p, CharSequence value, int lo, int hi) {
+        Unsafe.getUnsafe().putInt(p, hi - lo);
+        p += Integer.BYTES;
+        for (int i = lo; i < hi; i++) {
+            Unsafe.getUnsafe().putChar(p, value.charAt(i));
+            p += Character.BYTES;
+        }
+        return p;
+    }
+
+    private static long putCharsValue(long p, CharSequence value, int lo, int hi) {
+        Unsafe.getUnsafe().putByte(p, ENCODING_CHARS);
+        return putChars(p + Byte.BYTES, value, lo, hi);
+    }
+
+    private BadCastException badCast(byte encoding, long valueAddress, int columnType) {
+        final LogRecord record = LOG.info().$("cast error [value=");
+        switch (encoding) {
+            case ENCODING_LONG:
+                record.$(Unsafe.getUnsafe().getLong(valueAddress));
+                break;
+            case ENCODING_DOUBLE:
+                record.$(Unsafe.getUnsafe().getDouble(valueAddress));
+                break;
+            case ENCODING_CHARS:
+                record.$(getChars(valueAddress));
+                break;
+            default:
+                break;
+        }
+        record.$(", toType=").$(ColumnType.nameOf(columnType)).$(']').$();
+        return BadCastException.INSTANCE;
+    }
+
+    private void ensureCapacity(long size) {
+        if (appendAddress + size > hi) {
+            final long capacity = Math.max((hi - lo) * 2, appendAddress - lo + size);
+            final long address = Unsafe.realloc(lo, hi - lo, capacity);
+            appendAddress = address + (appendAddress - lo);
+            readAddress = address + (readAddress - lo);
+            lo = address;
+            hi = address + capacity;
+        }
+    }
+
+    private CharSequence getChars(long valueAddress) {
+        return charsSequence.of(valueAddress + Integer.BYTES, valueAddress + Integer.BYTES + ((long) Unsafe.getUnsafe().getInt(valueAddress) << 1));
+    }
+
+    private long getTypeAddress(int index) {
+        final long address = valueAddresses.getQuick(index);
+        return address + Integer.BYTES + ((long) Unsafe.getUnsafe().getInt(address) << 1);
+    }
+}
@@ -87,9 +87,11 @@ class LineTcpMeasurementScheduler implements Closeable {
         loadByThread = new int[writerWorkerPool.getWorkerCount()];
         int maxMeasurementSize = lineConfiguration.getMaxMeasurementSize();
         int queueSize = lineConfiguration.getWriterQueueSize();
+        int writerBatchRows = lineConfiguration.getWriterBatchRows();
         queue = new RingQueue<>(
                 () -> new LineTcpMeasurementEvent(
                         maxMeasurementSize,
+                        writerBatchRows,
                         lineConfiguration.getMicrosecondClock(),
                         lineConfiguration.getTimestampAdapter()
                 ),
@@ -101,7 +103,7 @@ class LineTcpMeasurementScheduler implements Closeable {
         if (nWriterThreads > 1) {
             FanOut fanOut = new FanOut();
             for (int n = 0; n < nWriterThreads; n++) {
-                SCSequence subSeq = new SCSequence();
+                SCSequence subSeq = new SCSequence(writerWorkerPool.getWakeup());
                 fanOut.and(subSeq);
                 WriterJob writerJob = new WriterJob(n, subSeq);
                 writerWorkerPool.assign(n, writerJob);
@@ -109,7 +111,7 @@ class LineTcpMeasurementScheduler implements Closeable {
             }
             pubSeq.then(fanOut).then(pubSeq);
         } else {
-            SCSequence subSeq = new SCSequence();
+            SCSequence subSeq = new SCSequence(writerWorkerPool.getWakeup());
             pubSeq.then(subSeq).then(pubSeq);
             WriterJob writerJob = new WriterJob(0, subSeq);
             writerWorkerPool.assign(0, writerJob);
@@ -181,7 +183,7 @@ class LineTcpMeasurementScheduler implements Closeable {
         pubSeq.done(nextEventCursor);
         nextEventCursor = -1;
 
-        if (null != tableUpdateDetails && tableUpdateDetails.nUpdates++ > nUpdatesPerLoadRebalance) {
+        if (null != tableUpdateDetails && (tableUpdateDetails.nUpdates += event.getRowCount()) > nUpdatesPerLoadRebalance) {
             loadRebalance();
         }
     }
@@ -205,14 +207,20 @@ class LineTcpMeasurementScheduler implements Closeable {
         return nRebalances;
     }
 
+    /**
+     * Returns event the caller can append measurements to. Event remains claimed until it is committed,
+     * subsequent calls return the same event with measurements appended so far.
+     *
+     * @return event or null when queue is full
+     */
     LineTcpMeasurementEvent getNewEvent() {
         assert isOpen();
-        if (nextEventCursor != -1 || (nextEventCursor = pubSeq.next()) > -1) {
+        if (nextEventCursor != -1) {
             return queue.get(nextEventCursor);
         }
 
-        while (nextEventCursor == -2) {
-            nextEventCursor = pubSeq.next();
+        while ((nextEventCursor = pubSeq.next()) == -2) {
+            // sequence was contended, retry
         }
 
         if (nextEventCursor < 0) {
@@ -220,7 +228,9 @@ class LineTcpMeasurementScheduler implements Closeable {
             return null;
         }
 
-        return queue.get(nextEventCursor);
+        final LineTcpMeasurementEvent event = queue.get(nextEventCursor);
+        event.clearBatch();
+        return event;
     }
 
     private boolean isOpen() {
@@ -318,6 +328,7 @@ class LineTcpMeasurementScheduler implements Closeable {
 
     static class LineTcpMeasurementEvent implements Closeable {
         private final CharSequenceCache cache;
+        private final LineTcpMeasurementBatch batch;
         private final MicrosecondClock clock;
         private final LineProtoTimestampAdapter timestampAdapter;
         private final LongList addresses = new LongList();
@@ -335,8 +346,10 @@ class LineTcpMeasurementScheduler implements Closeable {
         private String rebalanceTableName;
         private volatile boolean rebalanceReleasedByFromThread;
 
-        private LineTcpMeasurementEvent(int maxMeasurementSize, MicrosecondClock clock, LineProtoTimestampAdapter timestampAdapter) {
+        private LineTcpMeasurementEvent(int maxMeasurementSize, int maxBatchRows, MicrosecondClock clock, LineProtoTimestampAdapter timestampAdapter) {
             lexer = new TruncatedLineProtoLexer(maxMeasurementSize);
+            // decoded measurement is at most twice the size of UTF8 text, chars take two bytes
+            batch = new LineTcpMeasurementBatch(2 * maxMeasurementSize, maxBatchRows);
             cache = lexer.getCharSequenceCache();
             this.clock = clock;
             this.timestampAdapter = timestampAdapter;
@@ -384,10 +397,25 @@ class LineTcpMeasurementScheduler implements Closeable {
             });
         }
 
+        /**
+         * Appends measurement parsed by the last {@link #parseLine(long, long)} call to the batch.
+         *
+         * @return false when measurement has to go to another event, either because batch is full
+         * or because it holds measurements for another table
+         */
+        boolean appendLine() {
+            return batch.tryAppend(this);
+        }
+
         @Override
         public void close() {
             lexer.close();
             lexer = null;
+            batch.close();
+        }
+
+        private void clearBatch() {
+            batch.clear();
         }
 
         private void clear() {
@@ -400,6 +428,7 @@ class LineTcpMeasurementScheduler implements Closeable {
 
         void createRebalanceEvent(int fromThreadId, int toThreadId, String tableName) {
             clear();
+            clearBatch();
             threadId = REBALANCE_EVENT_ID;
             rebalanceFromThreadId = fromThreadId;
             rebalanceToThreadId = toThreadId;
@@ -423,12 +452,24 @@ class LineTcpMeasurementScheduler implements Closeable {
             return addresses.size() / 2;
         }
 
+        LineTcpMeasurementBatch getBatch() {
+            return batch;
+        }
+
+        CharSequence getMeasurementName() {
+            return cache.get(measurementNameAddress);
+        }
+
         CharSequence getName(int i) {
             return cache.get(addresses.getQuick(2 * i));
         }
 
+        int getRowCount() {
+            return batch.getRowCount();
+        }
+
         CharSequence getTableName() {
-            return cache.get(measurementNameAddress);
+            return batch.getTableName();
         }
 
         long getTimestamp() throws NumericException {
@@ -457,6 +498,10 @@ class LineTcpMeasurementScheduler implements Closeable {
             return errorPosition == -1;
         }
 
+        boolean hasRows() {
+            return batch.getRowCount() > 0;
+        }
+
         long parseLine(long bytesPtr, long hi) {
             clear();
             long recvBufLineNext = lexer.parseLine(bytesPtr, hi);
@@ -573,30 +618,35 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
 
         private void processNextEvent(LineTcpMeasurementEvent event) {
-            final int index = parserCache.keyIndex(event.getTableName());
-            Parser parser = null;
-            try {
-                if (index < 0) {
-                    parser = parserCache.valueAt(index);
-                    parser.processEvent(event);
-                } else {
-                    parser = new Parser();
-                    parser.processFirstEvent(engine, securityContext, event);
-                    LOG.info().$("created parser [jobName=").$(jobName).$(" table=").$(event.getTableName()).$(']').$();
-                    parserCache.putAt(index, Chars.toString(event.getTableName()), parser);
-                }
-            } catch (CairoException ex) {
-                LOG.error()
-                        .$("could not create parser, measurement will be skipped [jobName=").$(jobName)
-                        .$(", table=").$(event.getTableName())
-                        .$(", ex=").$(ex.getFlyweightMessage())
-                        .$(", errno=").$(ex.getErrno())
-                        .$(']').$();
+            final LineTcpMeasurementBatch batch = event.getBatch();
+            final CharSequence tableName = batch.getTableName();
+            int index = parserCache.keyIndex(tableName);
+            Parser parser = index < 0 ? parserCache.valueAt(index) : null;
+            while (batch.hasNextRow()) {
+                try {
+                    if (null != parser) {
+                        parser.processRow(batch);
+                    } else {
+                        parser = new Parser();
+                        parser.processFirstRow(engine, securityContext, batch);
+                        LOG.info().$("created parser [jobName=").$(jobName).$(" table=").$(tableName).$(']').$();
+                        parserCache.put(Chars.toString(tableName), parser);
+                    }
+                } catch (CairoException ex) {
+                    LOG.error()
+                            .$("could not create parser, measurement will be skipped [jobName=").$(jobName)
+                            .$(", table=").$(tableName)
+                            .$(", ex=").$(ex.getFlyweightMessage())
+                            .$(", errno=").$(ex.getErrno())
+                            .$(']').$();
 
-                Misc.free(parser);
+                    Misc.free(parser);
+                    parser = null;
 
-                if (index < 0) {
-                    parserCache.removeAt(index);
+                    index = parserCache.keyIndex(tableName);
+                    if (index < 0) {
+                        parserCache.removeAt(index);
+                    }
                 }
             }
         }
@@ -648,9 +698,9 @@ class LineTcpMeasurementScheduler implements Closeable {
                 }
             }
 
-            private int addColumn(LineTcpMeasurementEvent event, RecordMetadata metadata, int n, int colType) {
+            private int addColumn(LineTcpMeasurementBatch batch, RecordMetadata metadata, int n, int colType) {
                 final int colIndex = metadata.getColumnCount();
-                CharSequence columnName = event.getName(n);
+                CharSequence columnName = batch.getName(n);
                 if (TableUtils.isValidColumnName(columnName)) {
                     writer.addColumn(columnName, colType);
                 } else {
@@ -662,21 +712,20 @@ class LineTcpMeasurementScheduler implements Closeable {
                 return colIndex;
             }
 
-            private void addRow(LineTcpMeasurementEvent event) {
-                if (error) {
+            private void addRow(LineTcpMeasurementBatch batch) {
+                final long timestamp = batch.getTimestamp();
+                if (error || timestamp == Numbers.LONG_NaN) {
+                    // invalid timestamp has been logged when measurement was received
                     return;
                 }
                 Row row = null;
                 try {
-                    row = writer.newRow(event.getTimestamp());
+                    row = writer.newRow(timestamp);
                     for (int i = 0; i < nMeasurementValues; i++) {
-                        final int columnType = colTypes.getQuick(i);
-                        final int columnIndex = colIndexMappings.getQuick(i);
-                        final CharSequence value = event.getValue(i);
-                        CairoLineProtoParserSupport.putValue(row, columnType, columnIndex, value, LOG);
+                        batch.putValue(row, colTypes.getQuick(i), colIndexMappings.getQuick(i), i);
                     }
                     row.append();
-                } catch (NumericException | BadCastException ex) {
+                } catch (BadCastException ex) {
                     // These exceptions are logged elsewhere
                     if (null != row) {
                         row.cancel();
@@ -685,7 +734,7 @@ class LineTcpMeasurementScheduler implements Closeable {
                 } catch (CairoException ex) {
                     LOG.error()
                             .$("could not insert measurement [jobName=").$(jobName)
-                            .$(", table=").$(event.getTableName())
+                            .$(", table=").$(batch.getTableName())
                             .$(", ex=").$(ex.getFlyweightMessage())
                             .$(", errno=").$(ex.getErrno())
                             .$(']').$();
@@ -716,13 +765,13 @@ class LineTcpMeasurementScheduler implements Closeable {
                 return colTypes.getQuick(i);
             }
 
-            private void parseNames(LineTcpMeasurementEvent event) {
+            private void parseNames(LineTcpMeasurementBatch batch) {
                 RecordMetadata metadata = writer.getMetadata();
                 for (int n = 0; n < nMeasurementValues; n++) {
-                    int colIndex = metadata.getColumnIndexQuiet(event.getName(n));
+                    int colIndex = metadata.getColumnIndexQuiet(batch.getName(n));
                     final int colType = colTypes.getQuick(n);
                     if (colIndex == -1) {
-                        colIndex = addColumn(event, metadata, n, colType);
+                        colIndex = addColumn(batch, metadata, n, colType);
                     } else {
                         final int tableColType = metadata.getColumnType(colIndex);
                         if (tableColType != colType) {
@@ -743,60 +792,56 @@ class LineTcpMeasurementScheduler implements Closeable {
                 }
             }
 
-            private void parseTypes(LineTcpMeasurementEvent event) {
+            private void parseTypes(LineTcpMeasurementBatch batch) {
+                // types of values have been resolved when measurement was received, tags are symbols
                 for (int n = 0; n < nMeasurementValues; n++) {
-                    int colType;
-                    if (n < event.getFirstFieldIndex()) {
-                        colType = ColumnType.SYMBOL;
-                    } else {
-                        colType = CairoLineProtoParserSupport.getValueType(event.getValue(n));
-                    }
-                    colTypes.setQuick(n, colType);
+                    colTypes.setQuick(n, batch.getType(n));
                 }
             }
 
-            private void preprocessEvent(LineTcpMeasurementEvent event) {
+            private void preprocessRow(LineTcpMeasurementBatch batch) {
                 error = false;
-                nMeasurementValues = event.getNValues();
+                nMeasurementValues = batch.getValueCount();
                 colTypes.ensureCapacity(nMeasurementValues);
                 colIndexMappings.ensureCapacity(nMeasurementValues);
-                parseTypes(event);
+                parseTypes(batch);
             }
 
-            private void processEvent(LineTcpMeasurementEvent event) {
-                assert event.getTableName().equals(writer.getName());
-                preprocessEvent(event);
-                parseNames(event);
-                addRow(event);
-            }
-
-            private void processFirstEvent(CairoEngine engine, CairoSecurityContext securityContext, LineTcpMeasurementEvent event) {
+            private void processFirstRow(CairoEngine engine, CairoSecurityContext securityContext, LineTcpMeasurementBatch batch) {
                 sqlExecutionContext.storeTelemetry(Telemetry.SYSTEM_ILP_RESERVE_WRITER, Telemetry.ORIGIN_ILP_TCP);
                 assert null == writer;
-                int status = engine.getStatus(securityContext, path, event.getTableName(), 0, event.getTableName().length());
+                final CharSequence tableName = batch.getTableName();
+                int status = engine.getStatus(securityContext, path, tableName, 0, tableName.length());
                 if (status == TableUtils.TABLE_EXISTS) {
-                    writer = engine.getWriter(securityContext, event.getTableName());
-                    processEvent(event);
+                    writer = engine.getWriter(securityContext, tableName);
+                    processRow(batch);
                     return;
                 }
 
-                preprocessEvent(event);
+                preprocessRow(batch);
                 engine.createTable(
                         securityContext,
                         appendMemory,
                         path,
-                        tableStructureAdapter.of(event, this));
-                int nValues = event.getNValues();
+                        tableStructureAdapter.of(batch, this));
+                int nValues = batch.getValueCount();
                 for (int n = 0; n < nValues; n++) {
                     colIndexMappings.set(n, n);
                 }
-                writer = engine.getWriter(securityContext, event.getTableName());
-                addRow(event);
+                writer = engine.getWriter(securityContext, tableName);
+                addRow(batch);
+            }
+
+            private void processRow(LineTcpMeasurementBatch batch) {
+                assert Chars.equals(batch.getTableName(), writer.getName());
+                preprocessRow(batch);
+                parseNames(batch);
+                addRow(batch);
             }
         }
 
         private class TableStructureAdapter implements TableStructure {
-            private LineTcpMeasurementEvent event;
+            private LineTcpMeasurementBatch batch;
             private Parser parser;
             private int columnCount;
             private int timestampIndex;
@@ -811,7 +856,7 @@ class LineTcpMeasurementScheduler implements Closeable {
                 if (columnIndex == getTimestampIndex()) {
                     return "timestamp";
                 }
-                CharSequence colName = event.getName(columnIndex);
+                CharSequence colName = batch.getName(columnIndex);
                 if (TableUtils.isValidColumnName(colName)) {
                     return colName;
                 }
@@ -858,7 +903,7 @@ class LineTcpMeasurementScheduler implements Closeable {
 
             @Override
             public CharSequence getTableName() {
-                return event.getTableName();
+                return batch.getTableName();
             }
 
             @Override
@@ -866,10 +911,10 @@ class LineTcpMeasurementScheduler implements Closeable {
                 return timestampIndex;
             }
 
-            TableStructureAdapter of(LineTcpMeasurementEvent event, Parser parser) {
-                this.event = event;
+            TableStructureAdapter of(LineTcpMeasurementBatch batch, Parser parser) {
+                this.batch = batch;
                 this.parser = parser;
-                this.timestampIndex = event.getNValues();
+                this.timestampIndex = batch.getValueCount();
                 this.columnCount = timestampIndex + 1;
                 return this;
             }
@@ -51,6 +51,14 @@ public interface LineTcpReceiverConfiguration {
 
     int getWriterQueueSize();
 
+    /**
+     * Consecutive measurements for the same table are passed to the writer job
+     * in batches, this is the maximum number of rows in a batch.
+     *
+     * @return maximum number of rows in a single writer queue entry
+     */
+    int getWriterBatchRows();
+
     MicrosecondClock getMicrosecondClock();
 
     MillisecondClock getMillisecondClock();
@@ -60,6 +60,7 @@ public class LineTcpServer implements Closeable {
                         .getNetDispatcherConfiguration(),
                 contextFactory);
         workerPool.assign(dispatcher);
+        workerPool.wakeOn(dispatcher.getWorkerWakeup());
         scheduler = new LineTcpMeasurementScheduler(lineConfiguration, engine, workerPool, messageBus);
         workerPool.assign(new SynchronizedJob() {
             // Context blocked on LineTcpMeasurementScheduler queue
@@ -81,12 +81,17 @@ public class PGConnectionContext implements IOContext, Mutable {
     private static final byte MESSAGE_TYPE_BIND_COMPLETE = '2';
     private static final byte MESSAGE_TYPE_CLOSE_COMPLETE = '3';
     private static final byte MESSAGE_TYPE_NO_DATA = 'n';
+    private static final byte MESSAGE_TYPE_PARAMETER_DESCRIPTION = 't';
     private static final byte MESSAGE_TYPE_COPY_IN_RESPONSE = 'G';
     private static final int NO_TRANSACTION = 0;
     private static final int IN_TRANSACTION = 1;
     private static final int COMMIT_TRANSACTION = 2;
     private static final int ERROR_TRANSACTION = 3;
     private static final int ROLLING_BACK_TRANSACTION = 4;
+    private static final short FORMAT_TEXT = 0;
+    private static final short FORMAT_BINARY = 1;
+    // micros between 1970-01-01 and 2000-01-01, PostgreSQL binary timestamps are relative to the latter
+    private static final long PG_EPOCH_OFFSET_MICROS = 946684800000000L;
     private final long recvBuffer;
     private final long sendBuffer;
     private final int recvBufferSize;
@@ -123,6 +128,7 @@ public class PGConnectionContext implements IOContext, Mutable {
     private final BindVariableSetter strSetter = this::setStrBindVariable;
     private final BindVariableSetter noopSetter = this::setNoopBindVariable;
     private final ObjList<ColumnAppender> columnAppenders = new ObjList<>();
+    private final ObjList<ColumnAppender> binaryColumnAppenders = new ObjList<>();
     private final WeakObjectPool<IntList> bindVarTypesPool = new WeakObjectPool<>(IntList::new, 16);
     private final WeakObjectPool<NamedStatementWrapper> namedStatementWrapperPool = new WeakObjectPool<>(NamedStatementWrapper::new, 16);
     private final DateLocale dateLocale;
@@ -131,6 +137,11 @@ public class PGConnectionContext implements IOContext, Mutable {
     //    private final ObjList<TypeAdapter> probes = new ObjList<>();
     private final DirectByteCharSequence parameterHolder = new DirectByteCharSequence();
     private final IntList parameterFormats = new IntList();
+    // per-column result format codes of the portal created by Bind; empty list means text for all columns.
+    // Context does not keep named portals, portal is valid until next Parse, Bind or Sync
+    private final IntList portalResultFormats = new IntList();
+    // parameter types of the unnamed statement, named statements keep theirs in NamedStatementWrapper
+    private final IntList unnamedStatementParameterTypes = new IntList();
     private final DirectCharSink utf8Sink;
     private final TypeManager typeManager;
     private final AssociativeCache<InsertStatement> insertStatements = new AssociativeCache<>(8, 8);
@@ -240,6 +251,10 @@ public class PGConnectionContext implements IOContext, Mutable {
         Unsafe.getUnsafe().putByte(address + 3, (byte) (value));
     }
 
+    public static void putLong(long address, long value) {
+        Unsafe.getUnsafe().putLong(address, Long.reverseBytes(value));
+    }
+
     public static void putShort(long address, short value) {
         Unsafe.getUnsafe().putByte(address, (byte) (value >>> 8));
         Unsafe.getUnsafe().putByte(address + 1, (byte) (value));
@@ -523,6 +538,81 @@ public class PGConnectionContext implements IOContext, Mutable {
         sink.putLen(addr);
     }
 
+    private void appendBinaryBooleanColumn(Record record, int columnIndex) {
+        responseAsciiSink.putNetworkInt(Byte.BYTES);
+        responseAsciiSink.put((byte) (record.getBool(columnIndex) ? 1 : 0));
+    }
+
+    private void appendBinaryByteColumn(Record record, int columnIndex) {
+        responseAsciiSink.putNetworkInt(Short.BYTES);
+        responseAsciiSink.putNetworkShort(record.getByte(columnIndex));
+    }
+
+    private void appendBinaryDateColumn(Record record, int columnIndex) {
+        final long longValue = record.getDate(columnIndex);
+        if (longValue == Numbers.LONG_NaN) {
+            responseAsciiSink.setNullValue();
+        } else {
+            responseAsciiSink.putNetworkInt(Long.BYTES);
+            responseAsciiSink.putNetworkLong(longValue * 1000 - PG_EPOCH_OFFSET_MICROS);
+        }
+    }
+
+    private void appendBinaryDoubleColumn(Record record, int columnIndex) {
+        final double doubleValue = record.getDouble(columnIndex);
+        if (Double.isNaN(doubleValue)) {
+            responseAsciiSink.setNullValue();
+        } else {
+            responseAsciiSink.putNetworkInt(Double.BYTES);
+            responseAsciiSink.putNetworkLong(Double.doubleToRawLongBits(doubleValue));
+        }
+    }
+
+    private void appendBinaryFloatColumn(Record record, int columnIndex) {
+        final float floatValue = record.getFloat(columnIndex);
+        if (Float.isNaN(floatValue)) {
+            responseAsciiSink.setNullValue();
+        } else {
+            responseAsciiSink.putNetworkInt(Float.BYTES);
+            responseAsciiSink.putNetworkInt(Float.floatToRawIntBits(floatValue));
+        }
+    }
+
+    private void appendBinaryIntColumn(Record record, int columnIndex) {
+        final int intValue = record.getInt(columnIndex);
+        if (intValue == Numbers.INT_NaN) {
+            responseAsciiSink.setNullValue();
+        } else {
+            responseAsciiSink.putNetworkInt(Integer.BYTES);
+            responseAsciiSink.putNetworkInt(intValue);
+        }
+    }
+
+    private void appendBinaryLongColumn(Record record, int columnIndex) {
+        final long longValue = record.getLong(columnIndex);
+        if (longValue == Numbers.LONG_NaN) {
+            responseAsciiSink.setNullValue();
+        } else {
+            responseAsciiSink.putNetworkInt(Long.BYTES);
+            responseAsciiSink.putNetworkLong(longValue);
+        }
+    }
+
+    private void appendBinaryShortColumn(Record record, int columnIndex) {
+        responseAsciiSink.putNetworkInt(Short.BYTES);
+        responseAsciiSink.putNetworkShort(record.getShort(columnIndex));
+    }
+
+    private void appendBinaryTimestampColumn(Record record, int columnIndex) {
+        final long longValue = record.getTimestamp(columnIndex);
+        if (longValue == Numbers.LONG_NaN) {
+            responseAsciiSink.setNullValue();
+        } else {
+            responseAsciiSink.putNetworkInt(Long.BYTES);
+            responseAsciiSink.putNetworkLong(longValue - PG_EPOCH_OFFSET_MICROS);
+        }
+    }
+
     private void appendBinColumn(Record record, int i) throws SqlException {
         BinarySequence sequence = record.getBin(i);
         if (sequence == null) {
@@ -629,8 +719,19 @@ public class PGConnectionContext implements IOContext, Mutable {
         responseAsciiSink.put(MESSAGE_TYPE_DATA_ROW); // data
         final long offset = responseAsciiSink.skip();
         responseAsciiSink.putNetworkShort((short) columnCount);
-        for (int i = 0; i < columnCount; i++) {
-            columnAppenders.getQuick(metadata.getColumnType(i)).append(record, i);
+        if (portalResultFormats.size() == 0) {
+            for (int i = 0; i < columnCount; i++) {
+                columnAppenders.getQuick(metadata.getColumnType(i)).append(record, i);
+            }
+        } else {
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (portalResultFormats.getQuick(i) == FORMAT_BINARY) {
+                    binaryColumnAppenders.getQuick(columnType).append(record, i);
+                } else {
+                    columnAppenders.getQuick(columnType).append(record, i);
+                }
+            }
         }
         responseAsciiSink.putLen(offset);
     }
@@ -691,7 +792,7 @@ public class PGConnectionContext implements IOContext, Mutable {
         }
     }
 
-    private void bindParameterValues(
+    private long bindParameterValues(
             long lo,
             long msgLimit,
             short parameterFormatCount,
@@ -752,6 +853,45 @@ public class PGConnectionContext implements IOContext, Mutable {
             bindVariableSetters.getQuick(j * 2).set(j, lo, valueLen);
             lo += valueLen;
         }
+        return lo;
+    }
+
+    private void bindResultFormats(long lo, long msgLimit) throws BadProtocolException {
+        // result format count can be:
+        //   0: all columns are sent as text
+        //   1: the single format applies to all columns
+        //   2 or greater: format is given for each column of the result set
+        portalResultFormats.clear();
+        if (lo + Short.BYTES > msgLimit) {
+            // tolerate Bind messages that end before result format section
+            return;
+        }
+        final short resultFormatCount = getShort(lo);
+        lo += Short.BYTES;
+        checkNotTrue(resultFormatCount < 0 || lo + Short.BYTES * resultFormatCount > msgLimit, "invalid result format code count");
+
+        if (resultFormatCount == 0 || currentFactory == null) {
+            return;
+        }
+
+        final RecordMetadata metadata = currentFactory.getMetadata();
+        final int columnCount = metadata.getColumnCount();
+        checkNotTrue(resultFormatCount > 1 && resultFormatCount != columnCount, "result format code count must match column count");
+
+        boolean anyBinary = false;
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            final short code = getShort(resultFormatCount == 1 ? lo : lo + i * Short.BYTES);
+            // columns we cannot encode in binary fall back to text, RowDescription tells client which is which
+            final int format = columnType == ColumnType.BINARY
+                    || (code == FORMAT_BINARY && binaryColumnAppenders.getQuiet(columnType) != null) ? FORMAT_BINARY : FORMAT_TEXT;
+            portalResultFormats.add(format);
+            anyBinary |= format == FORMAT_BINARY;
+        }
+
+        if (!anyBinary) {
+            portalResultFormats.clear();
+        }
     }
 
     private void checkNotTrue(boolean check, String message) throws BadProtocolException {
@@ -842,7 +982,8 @@ public class PGConnectionContext implements IOContext, Mutable {
         }
     }
 
-    private void configureContextFromNamedStatement(
+    @Nullable
+    private NamedStatementWrapper configureContextFromNamedStatement(
             long lo,
             long hi,
             @Nullable @Transient SqlCompiler compiler,
@@ -855,7 +996,9 @@ public class PGConnectionContext implements IOContext, Mutable {
             if (wrapper != null) {
                 setupVariableSettersFromWrapper(wrapper, compiler, factoryCache);
             }
+            return wrapper;
         }
+        return null;
     }
 
     private void doAuthentication(long msgLo, long msgLimit) throws BadProtocolException, PeerDisconnectedException, PeerIsSlowToReadException {
@@ -983,7 +1126,7 @@ public class PGConnectionContext implements IOContext, Mutable {
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         this.currentFactory = factory;
         currentCursor = factory.getCursor(sqlExecutionContext);
-        prepareRowDescription();
+        prepareRowDescription(true);
         sendCursor();
         prepareReadyForQuery();
         sendAndReset();
@@ -1129,6 +1272,20 @@ public class PGConnectionContext implements IOContext, Mutable {
         columnAppenders.extendAndSet(ColumnType.BINARY, this::appendBinColumn);
         columnAppenders.extendAndSet(ColumnType.CHAR, this::appendCharColumn);
         columnAppenders.extendAndSet(ColumnType.LONG256, this::appendLong256Column);
+
+        binaryColumnAppenders.extendAndSet(ColumnType.INT, this::appendBinaryIntColumn);
+        binaryColumnAppenders.extendAndSet(ColumnType.LONG, this::appendBinaryLongColumn);
+        binaryColumnAppenders.extendAndSet(ColumnType.SHORT, this::appendBinaryShortColumn);
+        binaryColumnAppenders.extendAndSet(ColumnType.BYTE, this::appendBinaryByteColumn);
+        binaryColumnAppenders.extendAndSet(ColumnType.DOUBLE, this::appendBinaryDoubleColumn);
+        binaryColumnAppenders.extendAndSet(ColumnType.FLOAT, this::appendBinaryFloatColumn);
+        binaryColumnAppenders.extendAndSet(ColumnType.TIMESTAMP, this::appendBinaryTimestampColumn);
+        binaryColumnAppenders.extendAndSet(ColumnType.DATE, this::appendBinaryDateColumn);
+        binaryColumnAppenders.extendAndSet(ColumnType.BOOLEAN, this::appendBinaryBooleanColumn);
+        // binary representation of varchar and bytea is the same as what we send for text
+        binaryColumnAppenders.extendAndSet(ColumnType.STRING, this::appendStrColumn);
+        binaryColumnAppenders.extendAndSet(ColumnType.SYMBOL, this::appendSymbolColumn);
+        binaryColumnAppenders.extendAndSet(ColumnType.BINARY, this::appendBinColumn);
     }
 
     private void prepareBindComplete() {
@@ -1204,6 +1361,7 @@ public class PGConnectionContext implements IOContext, Mutable {
         queryTag = TAG_OK;
         queryText = null;
         bindVariableSetters.clear();
+        portalResultFormats.clear();
     }
 
     private void prepareLoginOk() {
@@ -1253,7 +1411,18 @@ public class PGConnectionContext implements IOContext, Mutable {
         }
     }
 
-    private void prepareRowDescription() {
+    private void prepareParameterDescription(@Nullable IntList parameterTypes) {
+        responseAsciiSink.put(MESSAGE_TYPE_PARAMETER_DESCRIPTION);
+        final long addr = responseAsciiSink.skip();
+        final int n = parameterTypes != null ? parameterTypes.size() : 0;
+        responseAsciiSink.putNetworkShort((short) n);
+        for (int i = 0; i < n; i++) {
+            responseAsciiSink.putNetworkInt(parameterTypes.getQuick(i));
+        }
+        responseAsciiSink.putLen(addr);
+    }
+
+    private void prepareRowDescription(boolean usePortalFormats) {
         final RecordMetadata metadata = currentFactory.getMetadata();
         ResponseAsciiSink sink = responseAsciiSink;
         sink.put(MESSAGE_TYPE_ROW_DESCRIPTION);
@@ -1277,7 +1446,11 @@ public class PGConnectionContext implements IOContext, Mutable {
             sink.putNetworkInt(-1);
             // this is special behaviour for binary fields to prevent binary data being hex encoded on the wire
             // format code
-            sink.putNetworkShort((short) (columnType == ColumnType.BINARY ? 1 : 0)); // format code
+            if (usePortalFormats && portalResultFormats.size() > 0) {
+                sink.putNetworkShort((short) portalResultFormats.getQuick(i));
+            } else {
+                sink.putNetworkShort(columnType == ColumnType.BINARY ? FORMAT_BINARY : FORMAT_TEXT);
+            }
         }
         sink.putLen(addr);
     }
@@ -1328,12 +1501,13 @@ public class PGConnectionContext implements IOContext, Mutable {
         //we now have all parameter counts, validate them
         validateParameterCounts(parameterFormatCount, parameterValueCount, bindVariableSetters.size() / 2);
 
+        lo += Short.BYTES;
         if (parameterValueCount > 0) {
-            lo += Short.BYTES;
-            bindParameterValues(lo, msgLimit, parameterFormatCount, parameterValueCount, bindVariableSetters);
+            lo = bindParameterValues(lo, msgLimit, parameterFormatCount, parameterValueCount, bindVariableSetters);
         }
 
         compileQuery(compiler, factoryCache);
+        bindResultFormats(lo, msgLimit);
 
         prepareBindComplete();
     }
@@ -1374,13 +1548,20 @@ public class PGConnectionContext implements IOContext, Mutable {
             @Transient SqlCompiler compiler,
             @Transient AssociativeCache<RecordCursorFactory> factoryCache
     ) throws SqlException, BadProtocolException, PeerDisconnectedException, PeerIsSlowToReadException {
+        final boolean isPortal = Unsafe.getUnsafe().getByte(lo) == 'P';
         lo = lo + 1;
         long hi = getStringLength(lo, msgLimit);
         checkNotTrue(hi == -1, "bad portal name length [msgType='D']");
-        configureContextFromNamedStatement(lo, hi, compiler, factoryCache);
+        final NamedStatementWrapper wrapper = configureContextFromNamedStatement(lo, hi, compiler, factoryCache);
+
+        if (!isPortal) {
+            // clients, such as JDBC driver, consider statement described once they receive parameter description
+            prepareParameterDescription(wrapper != null ? wrapper.bindVariableTypes : unnamedStatementParameterTypes);
+        }
 
         if (currentFactory != null) {
-            prepareRowDescription();
+            // result formats of statement are not known until it is bound, they are reported as text
+            prepareRowDescription(isPortal);
         } else {
             prepareNoDataMessage();
         }
@@ -1537,6 +1718,12 @@ public class PGConnectionContext implements IOContext, Mutable {
                 namedStatementMap.put(statementName, wrapper);
             }
             bindVariableTypes = wrapper.bindVariableTypes;
+        } else {
+            bindVariableTypes = unnamedStatementParameterTypes;
+        }
+        if (bindVariableTypes != null) {
+            // statement is parsed again, types are about to be re-read
+            bindVariableTypes.clear();
         }
 
         //query text
@@ -1581,6 +1768,7 @@ public class PGConnectionContext implements IOContext, Mutable {
         } else if (wrapper != null && wrapper.bindVariableTypes != null) {
             bindVarTypesPool.push(wrapper.bindVariableTypes);
             wrapper.bindVariableTypes = null;
+            bindVariableTypes = null;
         }
 
         if (wrapper != null) {
@@ -1968,6 +2156,12 @@ public class PGConnectionContext implements IOContext, Mutable {
             sendBufferPtr += Integer.BYTES;
         }
 
+        public void putNetworkLong(long value) {
+            ensureCapacity(Long.BYTES);
+            putLong(sendBufferPtr, value);
+            sendBufferPtr += Long.BYTES;
+        }
+
         public void putNetworkShort(short value) {
             ensureCapacity(Short.BYTES);
             putShort(sendBufferPtr, value);
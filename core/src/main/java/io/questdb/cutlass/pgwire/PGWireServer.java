@@ -62,6 +62,7 @@ public class PGWireServer implements Closeable {
         );
 
         workerPool.assign(dispatcher);
+        workerPool.wakeOn(dispatcher.getWorkerWakeup());
 
         for (int i = 0, n = workerPool.getWorkerCount(); i < n; i++) {
             final PGJobContext jobContext = new PGJobContext(configuration, engine, messageBus, functionFactoryCache);
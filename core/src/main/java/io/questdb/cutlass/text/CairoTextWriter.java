@@ -123,6 +123,104 @@ public class CairoTextWriter implements Closeable, Mutable {
         return writer == null ? 0 : writer.size() - _size;
     }
 
+    /**
+     * Appends rows, which were parsed from a chunk of text by parallel import, to the table.
+     * Chunks must be appended in the order they were cut from the text.
+     *
+     * @param chunk      parsed chunk
+     * @param lineOffset number of lines in the preceding chunks
+     */
+    public void append(TextImportChunk chunk, long lineOffset) {
+        if (chunk.getErrorLine() > -1) {
+            writer.rollback();
+            throw CairoException.instance(0).put("bad syntax [line=").put(lineOffset + chunk.getErrorLine()).put(", col=").put(chunk.getErrorColumn()).put(']');
+        }
+
+        final boolean partitioned = timestampAdapter != null;
+        final ContiguousVirtualMemory rows = chunk.getRows();
+        final long hi = rows.getAppendOffset();
+        long offset = 0;
+        while (offset < hi) {
+            final TableWriter.Row w = partitioned ? writer.newRow(rows.getLong(offset)) : writer.newRow();
+            offset += Long.BYTES;
+            CharSequence value;
+            byte type;
+            while ((type = rows.getByte(offset++)) != TextImportChunk.ROW_END) {
+                final int index = rows.getInt(offset);
+                offset += Integer.BYTES;
+                switch (type) {
+                    case ColumnType.BOOLEAN:
+                        w.putBool(index, rows.getBool(offset));
+                        offset++;
+                        break;
+                    case ColumnType.BYTE:
+                        w.putByte(index, rows.getByte(offset));
+                        offset++;
+                        break;
+                    case ColumnType.SHORT:
+                        w.putShort(index, rows.getShort(offset));
+                        offset += Short.BYTES;
+                        break;
+                    case ColumnType.CHAR:
+                        w.putChar(index, rows.getChar(offset));
+                        offset += Character.BYTES;
+                        break;
+                    case ColumnType.INT:
+                        w.putInt(index, rows.getInt(offset));
+                        offset += Integer.BYTES;
+                        break;
+                    case ColumnType.LONG:
+                        w.putLong(index, rows.getLong(offset));
+                        offset += Long.BYTES;
+                        break;
+                    case ColumnType.DATE:
+                        w.putDate(index, rows.getLong(offset));
+                        offset += Long.BYTES;
+                        break;
+                    case ColumnType.TIMESTAMP:
+                        w.putTimestamp(index, rows.getLong(offset));
+                        offset += Long.BYTES;
+                        break;
+                    case ColumnType.FLOAT:
+                        w.putFloat(index, rows.getFloat(offset));
+                        offset += Float.BYTES;
+                        break;
+                    case ColumnType.DOUBLE:
+                        w.putDouble(index, rows.getDouble(offset));
+                        offset += Double.BYTES;
+                        break;
+                    case ColumnType.STRING:
+                        value = rows.getStr(offset);
+                        w.putStr(index, value);
+                        offset += ContiguousVirtualMemory.getStorageLength(value);
+                        break;
+                    case ColumnType.SYMBOL:
+                        value = rows.getStr(offset);
+                        w.putSym(index, value);
+                        offset += ContiguousVirtualMemory.getStorageLength(value);
+                        break;
+                    case ColumnType.LONG256:
+                        w.putLong256(index, rows.getLong(offset), rows.getLong(offset + 8), rows.getLong(offset + 16), rows.getLong(offset + 24));
+                        offset += Long256.BYTES;
+                        break;
+                    case ColumnType.BINARY:
+                        w.putBin(index, rows.getBin(offset));
+                        offset += Long.BYTES + Math.max(rows.getBinLen(offset), 0);
+                        break;
+                    default:
+                        assert false;
+                        break;
+                }
+            }
+            w.append();
+        }
+
+        final LongList counts = chunk.getColumnErrorCounts();
+        for (int i = 0, n = counts.size(); i < n; i++) {
+            columnErrorCounts.setQuick(i, columnErrorCounts.getQuick(i) + counts.getQuick(i));
+        }
+    }
+
     public void of(CharSequence name, boolean overwrite, boolean durable, int atomicity, int partitionBy, CharSequence timestampIndexCol) {
         this.tableName = name;
         this.overwrite = overwrite;
@@ -192,6 +290,26 @@ public class CairoTextWriter implements Closeable, Mutable {
         }
     }
 
+    int getAtomicity() {
+        return atomicity;
+    }
+
+    TimestampAdapter getTimestampAdapter() {
+        return timestampAdapter;
+    }
+
+    int getTimestampIndex() {
+        return timestampIndex;
+    }
+
+    ObjList<TypeAdapter> getTypes() {
+        return types;
+    }
+
+    TableWriter getWriter() {
+        return writer;
+    }
+
     private void createTable(
             ObjList<CharSequence> names,
             ObjList<TypeAdapter> detectedTypes,
@@ -91,6 +91,11 @@ public class DefaultTextConfiguration implements TextConfiguration {
         return 128;
     }
 
+    @Override
+    public int getParallelImportChunkSize() {
+        return 16 * 1024 * 1024;
+    }
+
     @Override
     public int getRollBufferLimit() {
         return 4096;
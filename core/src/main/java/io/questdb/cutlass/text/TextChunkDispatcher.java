@@ -0,0 +1,315 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.text;
+
+import io.questdb.MessageBus;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+import io.questdb.tasks.TextImportTask;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Loads data part of text in parallel. Incoming text is accumulated in chunks, which are cut
+ * at line boundaries once they reach configured size, and published to {@link TextImportJob}.
+ * Parsed chunks are appended to the table in the order they were cut, while subsequent chunks
+ * are still being parsed. Owner thread parses chunks itself when workers are busy or absent.
+ * <p>
+ * Line boundaries are found by a scanner, which follows quoting rules of {@link TextLexer},
+ * so that a chunk never ends inside of quoted value.
+ */
+class TextChunkDispatcher implements Closeable, Mutable {
+    private final TextConfiguration configuration;
+    private final ObjList<TextChunkParser> parsers = new ObjList<>();
+    private final ObjList<TextImportChunk> chunks = new ObjList<>();
+    private final long chunkSize;
+    private RingQueue<TextImportTask> queue;
+    private Sequence pubSeq;
+    private CairoTextWriter textWriter;
+    private int ownerSlot;
+    private int window;
+    // ring of dispatched chunks, "head" is the chunk to be appended next
+    private int head;
+    private int activeCount;
+    private long chunkCount;
+    private long lineCount;
+    private long errorCount;
+    private byte columnDelimiter;
+    // line boundary scanner state
+    private long scanOffset;
+    private long lineStart;
+    private boolean eol;
+    private boolean fieldStart;
+    private boolean inQuote;
+    private boolean delayedOutQuote;
+
+    TextChunkDispatcher(TextConfiguration configuration) {
+        this.configuration = configuration;
+        this.chunkSize = configuration.getParallelImportChunkSize();
+    }
+
+    @Override
+    public void clear() {
+        drain();
+        // chunk memory is proportional to chunk size, do not hold on to it between imports,
+        // parsers are sized to worker count of the next import anyway
+        Misc.freeObjListAndKeepObjects(chunks);
+        Misc.freeObjList(parsers);
+        parsers.clear();
+        textWriter = null;
+        queue = null;
+        pubSeq = null;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.freeObjList(chunks);
+        chunks.clear();
+    }
+
+    long getErrorCount() {
+        return errorCount;
+    }
+
+    long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Appends remaining text as the last chunk and waits for all chunks to be appended to the table.
+     */
+    void finish() {
+        if (chunkAt(activeCount).getTextSize() > 0) {
+            dispatch(true);
+        }
+        while (activeCount > 0) {
+            appendHead();
+        }
+    }
+
+    void of(
+            CairoTextWriter textWriter,
+            @Nullable MessageBus bus,
+            int workerCount,
+            byte columnDelimiter,
+            boolean header,
+            boolean skipLinesWithExtraValues
+    ) {
+        assert activeCount == 0;
+        this.textWriter = textWriter;
+        if (bus != null) {
+            this.queue = bus.getTextImportQueue();
+            this.pubSeq = queue != null ? bus.getTextImportPubSequence() : null;
+        } else {
+            this.queue = null;
+            this.pubSeq = null;
+        }
+
+        // one parser per worker and one for the owner thread
+        final int parserCount = workerCount + 1;
+        for (int i = parsers.size(); i < parserCount; i++) {
+            parsers.add(new TextChunkParser(configuration));
+        }
+        for (int i = parserCount, n = parsers.size(); i < n; i++) {
+            Misc.free(parsers.getQuick(i));
+        }
+        parsers.setPos(parserCount);
+        for (int i = 0; i < parserCount; i++) {
+            parsers.getQuick(i).of(textWriter, columnDelimiter, header, skipLinesWithExtraValues);
+        }
+        this.ownerSlot = workerCount;
+
+        // keep workers busy while owner thread is appending rows to the table
+        this.window = parserCount * 2;
+        for (int i = chunks.size(); i < window; i++) {
+            chunks.add(new TextImportChunk(chunkSize));
+        }
+
+        this.columnDelimiter = columnDelimiter;
+        this.head = 0;
+        this.chunkCount = 0;
+        this.lineCount = 0;
+        this.errorCount = 0;
+        this.scanOffset = 0;
+        this.lineStart = 0;
+        this.eol = false;
+        this.fieldStart = true;
+        this.inQuote = false;
+        this.delayedOutQuote = false;
+        chunkAt(0).clearText();
+    }
+
+    void parse(long lo, long hi) {
+        while (lo < hi) {
+            final TextImportChunk chunk = chunkAt(activeCount);
+            final long size = chunk.getTextSize();
+            // fill chunk up to its size, lines that are longer than chunk are accumulated in full
+            final long len = Math.min(hi - lo, size < chunkSize ? chunkSize - size : chunkSize);
+            chunk.appendText(lo, lo + len);
+            lo += len;
+            scan(chunk);
+            if (chunk.getTextSize() >= chunkSize && lineStart > 0) {
+                dispatch(false);
+            }
+        }
+    }
+
+    private void appendHead() {
+        final TextImportChunk chunk = chunks.getQuick(head);
+        await(chunk);
+        head = (head + 1) % window;
+        activeCount--;
+
+        final Throwable error = chunk.getError();
+        if (error != null) {
+            rethrow(error);
+        }
+        textWriter.append(chunk, lineCount);
+        lineCount += chunk.getLineCount();
+        errorCount += chunk.getErrorCount();
+    }
+
+    private static void rethrow(Throwable error) {
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        throw new RuntimeException(error);
+    }
+
+    private void await(TextImportChunk chunk) {
+        while (!chunk.isDone()) {
+            if (!chunk.run(ownerSlot) && !steal()) {
+                LockSupport.parkNanos(1);
+            }
+        }
+    }
+
+    private TextImportChunk chunkAt(int index) {
+        return chunks.getQuick((head + index) % window);
+    }
+
+    private void dispatch(boolean last) {
+        // chunk being dispatched and the one receiving its tail must both be free
+        while (activeCount > window - 2) {
+            appendHead();
+        }
+
+        final TextImportChunk chunk = chunkAt(activeCount);
+        if (!last) {
+            chunk.moveTail(lineStart, chunkAt(activeCount + 1));
+            scanOffset -= lineStart;
+            lineStart = 0;
+        }
+        chunk.of(parsers, chunkCount++ == 0, last);
+        activeCount++;
+        publish(chunk);
+    }
+
+    private void drain() {
+        for (int i = 0; i < activeCount; i++) {
+            final TextImportChunk chunk = chunkAt(i);
+            if (!chunk.cancel()) {
+                while (!chunk.isDone()) {
+                    LockSupport.parkNanos(1);
+                }
+            }
+        }
+        activeCount = 0;
+        head = 0;
+    }
+
+    private void publish(TextImportChunk chunk) {
+        if (pubSeq != null) {
+            long seq;
+            do {
+                seq = pubSeq.next();
+            } while (seq == -2);
+
+            // when queue is full the chunk is left to the owner thread
+            if (seq > -1) {
+                queue.get(seq).chunk = chunk;
+                pubSeq.done(seq);
+            }
+        }
+    }
+
+    private void scan(TextImportChunk chunk) {
+        final long lo = chunk.getTextLo();
+        for (long p = lo + scanOffset, hi = chunk.getTextHi(); p < hi; p++) {
+            final byte c = Unsafe.getUnsafe().getByte(p);
+
+            if (eol) {
+                if (c == '\n' || c == '\r') {
+                    continue;
+                }
+                eol = false;
+                fieldStart = true;
+                lineStart = p - lo;
+            }
+
+            if (delayedOutQuote && c != '"') {
+                inQuote = delayedOutQuote = false;
+            }
+
+            if (c == '"') {
+                if (inQuote) {
+                    delayedOutQuote = !delayedOutQuote;
+                } else if (fieldStart) {
+                    inQuote = true;
+                }
+                fieldStart = false;
+            } else if (!inQuote) {
+                if (c == columnDelimiter) {
+                    fieldStart = true;
+                } else if (c == '\n' || c == '\r') {
+                    eol = true;
+                } else {
+                    fieldStart = false;
+                }
+            }
+        }
+        scanOffset = chunk.getTextSize();
+    }
+
+    private boolean steal() {
+        for (int i = 1; i < activeCount; i++) {
+            if (chunkAt(i).run(ownerSlot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,365 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.text;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ContiguousVirtualMemory;
+import io.questdb.cairo.RowSink;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cutlass.text.types.TimestampAdapter;
+import io.questdb.cutlass.text.types.TypeAdapter;
+import io.questdb.cutlass.text.types.TypeManager;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.log.LogRecord;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.DirectCharSink;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+
+/**
+ * Lexes and parses chunks of text on behalf of parallel import. Each thread taking part
+ * in the import has its own parser because neither lexer nor type adapters, which decode
+ * UTF8 text, can be shared between threads.
+ * <p>
+ * Parsed values are not written to the table, which can only be done by the owner thread.
+ * Instead, type adapters write to a row, which records values in the chunk, to be appended
+ * to the table by {@link CairoTextWriter#append(TextImportChunk, long)}.
+ */
+public class TextChunkParser implements Closeable {
+    private static final Log LOG = LogFactory.getLog(TextChunkParser.class);
+    private final DirectCharSink utf8Sink;
+    private final TypeManager typeManager;
+    private final TextLexer lexer;
+    private final ObjList<TypeAdapter> types = new ObjList<>();
+    private final TextLexer.Listener listener = this::onFields;
+    private final ChunkRow row = new ChunkRow();
+    private TableWriter writer;
+    private TimestampAdapter timestampAdapter;
+    private CharSequence tableName;
+    private TextImportChunk chunk;
+    private LongList columnErrorCounts;
+    private int timestampIndex;
+    private int atomicity;
+    private int fieldCount;
+    private byte columnDelimiter;
+    private boolean header;
+
+    public TextChunkParser(TextConfiguration configuration) {
+        this.utf8Sink = new DirectCharSink(configuration.getUtf8SinkSize());
+        this.typeManager = new TypeManager(configuration, utf8Sink);
+        this.lexer = new TextLexer(configuration, typeManager);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(lexer);
+        Misc.free(utf8Sink);
+    }
+
+    void of(
+            CairoTextWriter textWriter,
+            byte columnDelimiter,
+            boolean header,
+            boolean skipLinesWithExtraValues
+    ) {
+        this.writer = textWriter.getWriter();
+        final ObjList<TypeAdapter> types = textWriter.getTypes();
+        typeManager.clear();
+        this.types.clear();
+        for (int i = 0, n = types.size(); i < n; i++) {
+            this.types.add(typeManager.copyOf(types.getQuick(i)));
+        }
+        this.timestampAdapter = textWriter.getTimestampAdapter();
+        this.timestampIndex = textWriter.getTimestampIndex();
+        this.atomicity = textWriter.getAtomicity();
+        this.tableName = textWriter.getTableName();
+        this.fieldCount = types.size();
+        this.columnDelimiter = columnDelimiter;
+        this.header = header;
+        lexer.setSkipLinesWithExtraValues(skipLinesWithExtraValues);
+        lexer.setTableName(tableName);
+    }
+
+    void parse(TextImportChunk chunk) {
+        this.chunk = chunk;
+        this.columnErrorCounts = chunk.getColumnErrorCounts();
+        columnErrorCounts.seed(writer.getMetadata().getColumnCount(), 0);
+        row.of(chunk.getRows());
+
+        lexer.of(columnDelimiter);
+        if (chunk.isFirst()) {
+            lexer.restart(header);
+        } else {
+            lexer.restart(false, fieldCount);
+        }
+        lexer.parse(chunk.getTextLo(), chunk.getTextHi(), Integer.MAX_VALUE, listener);
+        if (chunk.isLast()) {
+            lexer.parseLast();
+        }
+        chunk.setCounts(lexer.getLineCount(), lexer.getErrorCount());
+    }
+
+    private void logError(long line, int i, DirectByteCharSequence dbcs) {
+        LogRecord logRecord = LOG.error().$("type syntax [table=").$(tableName).$(", type=").$(ColumnType.nameOf(types.getQuick(i).getType())).$("]\n\t");
+        logRecord.$('[').$(line).$(':').$(i).$("] -> ").$(dbcs).$();
+        columnErrorCounts.increment(i);
+    }
+
+    private void onFields(long line, ObjList<DirectByteCharSequence> values, int valuesLength) {
+        if (chunk.getErrorLine() > -1) {
+            // chunk is going to be rejected as a whole
+            return;
+        }
+
+        final boolean partitioned = timestampAdapter != null;
+        DirectByteCharSequence dbcs;
+        if (partitioned) {
+            dbcs = values.getQuick(timestampIndex);
+            try {
+                row.begin(timestampAdapter.getTimestamp(dbcs));
+            } catch (NumericException e) {
+                logError(line, timestampIndex, dbcs);
+                return;
+            }
+        } else {
+            row.begin(Numbers.LONG_NaN);
+        }
+
+        for (int i = 0; i < valuesLength; i++) {
+            dbcs = values.getQuick(i);
+            if ((partitioned && i == timestampIndex) || dbcs.length() == 0) {
+                continue;
+            }
+            try {
+                types.getQuick(i).write(row, i, dbcs);
+            } catch (Exception ignore) {
+                logError(line, i, dbcs);
+                switch (atomicity) {
+                    case Atomicity.SKIP_ALL:
+                        row.cancel();
+                        chunk.setError(line, i);
+                        return;
+                    case Atomicity.SKIP_ROW:
+                        row.cancel();
+                        return;
+                    default:
+                        // SKIP column
+                        break;
+                }
+            }
+        }
+        row.append();
+    }
+
+    /**
+     * Records values in chunk memory instead of writing them to table. Each row starts
+     * with designated timestamp followed by (type, column, value) triplets and ends with
+     * {@link TextImportChunk#ROW_END}. Type identifies put method, which type adapter called,
+     * so that the same method is called when row is appended to the table.
+     */
+    static class ChunkRow implements RowSink {
+        private final Long256Decoder long256Decoder = new Long256Decoder();
+        private ContiguousVirtualMemory rows;
+        private long rowLo;
+
+        @Override
+        public void append() {
+            rows.putByte(TextImportChunk.ROW_END);
+        }
+
+        @Override
+        public void cancel() {
+            rows.jumpTo(rowLo);
+        }
+
+        @Override
+        public void putBin(int index, long address, long len) {
+            putColumn(ColumnType.BINARY, index);
+            rows.putBin(address, len);
+        }
+
+        @Override
+        public void putBin(int index, BinarySequence sequence) {
+            putColumn(ColumnType.BINARY, index);
+            rows.putBin(sequence);
+        }
+
+        @Override
+        public void putBool(int index, boolean value) {
+            putColumn(ColumnType.BOOLEAN, index);
+            rows.putBool(value);
+        }
+
+        @Override
+        public void putByte(int index, byte value) {
+            putColumn(ColumnType.BYTE, index);
+            rows.putByte(value);
+        }
+
+        @Override
+        public void putChar(int index, char value) {
+            putColumn(ColumnType.CHAR, index);
+            rows.putChar(value);
+        }
+
+        @Override
+        public void putDate(int index, long value) {
+            putColumn(ColumnType.DATE, index);
+            rows.putLong(value);
+        }
+
+        @Override
+        public void putDouble(int index, double value) {
+            putColumn(ColumnType.DOUBLE, index);
+            rows.putDouble(value);
+        }
+
+        @Override
+        public void putFloat(int index, float value) {
+            putColumn(ColumnType.FLOAT, index);
+            rows.putFloat(value);
+        }
+
+        @Override
+        public void putInt(int index, int value) {
+            putColumn(ColumnType.INT, index);
+            rows.putInt(value);
+        }
+
+        @Override
+        public void putLong(int index, long value) {
+            putColumn(ColumnType.LONG, index);
+            rows.putLong(value);
+        }
+
+        @Override
+        public void putLong256(int index, long l0, long l1, long l2, long l3) {
+            putColumn(ColumnType.LONG256, index);
+            rows.putLong256(l0, l1, l2, l3);
+        }
+
+        @Override
+        public void putLong256(int index, Long256 value) {
+            putLong256(index, value.getLong0(), value.getLong1(), value.getLong2(), value.getLong3());
+        }
+
+        @Override
+        public void putLong256(int index, CharSequence hexString) {
+            final int len;
+            if (hexString == null || (len = hexString.length()) == 0) {
+                putLong256(index, Long256Impl.NULL_LONG256);
+            } else {
+                putLong256(index, hexString, 2, len);
+            }
+        }
+
+        @Override
+        public void putLong256(int index, @NotNull CharSequence hexString, int start, int end) {
+            try {
+                long256Decoder.decode(hexString, start, end);
+            } catch (NumericException e) {
+                throw CairoException.instance(0).put("invalid long256 [hex=").put(hexString).put(']');
+            }
+            putLong256(index, long256Decoder.l0, long256Decoder.l1, long256Decoder.l2, long256Decoder.l3);
+        }
+
+        @Override
+        public void putShort(int index, short value) {
+            putColumn(ColumnType.SHORT, index);
+            rows.putShort(value);
+        }
+
+        @Override
+        public void putStr(int index, CharSequence value) {
+            putColumn(ColumnType.STRING, index);
+            rows.putStr(value);
+        }
+
+        @Override
+        public void putStr(int index, char value) {
+            putColumn(ColumnType.STRING, index);
+            rows.putStr(value);
+        }
+
+        @Override
+        public void putStr(int index, CharSequence value, int pos, int len) {
+            putColumn(ColumnType.STRING, index);
+            rows.putStr(value, pos, len);
+        }
+
+        @Override
+        public void putSym(int index, CharSequence value) {
+            putColumn(ColumnType.SYMBOL, index);
+            rows.putStr(value);
+        }
+
+        @Override
+        public void putSym(int index, char value) {
+            putColumn(ColumnType.SYMBOL, index);
+            rows.putStr(value);
+        }
+
+        @Override
+        public void putTimestamp(int index, long value) {
+            putColumn(ColumnType.TIMESTAMP, index);
+            rows.putLong(value);
+        }
+
+        void begin(long timestamp) {
+            rowLo = rows.getAppendOffset();
+            rows.putLong(timestamp);
+        }
+
+        void of(ContiguousVirtualMemory rows) {
+            this.rows = rows;
+            rows.jumpTo(0);
+        }
+
+        private void putColumn(int type, int index) {
+            rows.putByte((byte) type);
+            rows.putInt(index);
+        }
+    }
+
+    private static class Long256Decoder extends Long256FromCharSequenceDecoder {
+        private long l0;
+        private long l1;
+        private long l2;
+        private long l3;
+
+        @Override
+        protected void onDecoded(long l0, long l1, long l2, long l3) {
+            this.l0 = l0;
+            this.l1 = l1;
+            this.l2 = l2;
+            this.l3 = l3;
+        }
+    }
+}
@@ -42,6 +42,8 @@ public interface TextConfiguration {
 
     int getMetadataStringPoolCapacity();
 
+    int getParallelImportChunkSize();
+
     int getRollBufferLimit();
 
     int getRollBufferSize();
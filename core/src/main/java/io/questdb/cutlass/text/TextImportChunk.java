@@ -0,0 +1,208 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.text;
+
+import io.questdb.cairo.ContiguousVirtualMemory;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+import java.io.Closeable;
+
+/**
+ * Unit of work of parallel text import: a run of complete lines of text, which is lexed and
+ * parsed by {@link TextChunkParser} that belongs to the executing thread. Parsed rows are kept
+ * in the chunk until the owner thread appends them to the table, in the order of chunks.
+ */
+public class TextImportChunk implements Closeable {
+    static final byte ROW_END = -1;
+    private static final long LOCK_OFFSET;
+
+    static {
+        LOCK_OFFSET = Unsafe.getFieldOffset(TextImportChunk.class, "lock");
+    }
+
+    private final ContiguousVirtualMemory rows;
+    private final LongList columnErrorCounts = new LongList();
+    private ObjList<TextChunkParser> parsers;
+    private long textAddress;
+    private long textCapacity;
+    private long textSize;
+    private boolean first;
+    private boolean last;
+    private long lineCount;
+    private long errorCount;
+    private long errorLine;
+    private int errorColumn;
+    private Throwable error;
+    // to "lock" the chunk thread must successfully CAS the value from 0 to 1
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
+    private volatile int lock = 1;
+    private volatile boolean done = true;
+
+    public TextImportChunk(long pageSize) {
+        this.rows = new ContiguousVirtualMemory(pageSize, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void close() {
+        rows.close();
+        if (textAddress != 0) {
+            Unsafe.free(textAddress, textCapacity);
+            textAddress = 0;
+            textCapacity = 0;
+        }
+        textSize = 0;
+    }
+
+    public boolean run(int workerId) {
+        // workers that do not have parser leave the chunk to owner thread
+        if (workerId < parsers.size() && Unsafe.cas(this, LOCK_OFFSET, 0, 1)) {
+            try {
+                parsers.getQuick(workerId).parse(this);
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                done = true;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    void appendText(long lo, long hi) {
+        final long len = hi - lo;
+        if (textSize + len > textCapacity) {
+            final long capacity = Math.max(textSize + len, textCapacity * 2);
+            textAddress = textAddress == 0 ? Unsafe.malloc(capacity) : Unsafe.realloc(textAddress, textCapacity, capacity);
+            textCapacity = capacity;
+        }
+        Unsafe.getUnsafe().copyMemory(lo, textAddress + textSize, len);
+        textSize += len;
+    }
+
+    /**
+     * Takes the chunk away from workers without parsing it.
+     *
+     * @return true when chunk was not picked up by anyone
+     */
+    boolean cancel() {
+        if (Unsafe.cas(this, LOCK_OFFSET, 0, 1)) {
+            done = true;
+            return true;
+        }
+        return false;
+    }
+
+    void clearText() {
+        textSize = 0;
+    }
+
+    LongList getColumnErrorCounts() {
+        return columnErrorCounts;
+    }
+
+    Throwable getError() {
+        return error;
+    }
+
+    long getErrorCount() {
+        return errorCount;
+    }
+
+    int getErrorColumn() {
+        return errorColumn;
+    }
+
+    long getErrorLine() {
+        return errorLine;
+    }
+
+    long getLineCount() {
+        return lineCount;
+    }
+
+    ContiguousVirtualMemory getRows() {
+        return rows;
+    }
+
+    long getTextHi() {
+        return textAddress + textSize;
+    }
+
+    long getTextLo() {
+        return textAddress;
+    }
+
+    long getTextSize() {
+        return textSize;
+    }
+
+    boolean isDone() {
+        return done;
+    }
+
+    boolean isFirst() {
+        return first;
+    }
+
+    boolean isLast() {
+        return last;
+    }
+
+    /**
+     * Moves text past the given offset to the other chunk, replacing text of that chunk.
+     */
+    void moveTail(long offset, TextImportChunk that) {
+        that.clearText();
+        that.appendText(textAddress + offset, textAddress + textSize);
+        textSize = offset;
+    }
+
+    void of(ObjList<TextChunkParser> parsers, boolean first, boolean last) {
+        this.parsers = parsers;
+        this.first = first;
+        this.last = last;
+        this.lineCount = 0;
+        this.errorCount = 0;
+        this.errorLine = -1;
+        this.errorColumn = -1;
+        this.error = null;
+        this.done = false;
+        // text must be in place before the chunk is unlocked
+        this.lock = 0;
+    }
+
+    void setCounts(long lineCount, long errorCount) {
+        this.lineCount = lineCount;
+        this.errorCount = errorCount;
+    }
+
+    void setError(long line, int column) {
+        this.errorLine = line;
+        this.errorColumn = column;
+    }
+}
@@ -66,6 +66,7 @@ public class TextLexer implements Closeable, Mutable {
     private long fieldLo;
     private long fieldHi;
     private boolean skipLinesWithExtraValues;
+    private boolean fieldCountFixed;
 
     public TextLexer(TextConfiguration textConfiguration, TypeManager typeManager) {
         this.metadataDetector = new TextMetadataDetector(typeManager, textConfiguration);
@@ -108,6 +109,10 @@ public class TextLexer implements Closeable, Mutable {
         metadataDetector.close();
     }
 
+    public byte getColumnDelimiter() {
+        return columnDelimiter;
+    }
+
     public long getErrorCount() {
         return errorCount;
     }
@@ -152,6 +157,7 @@ public class TextLexer implements Closeable, Mutable {
     public final void restart(boolean header) {
         this.fieldLo = 0;
         this.eol = false;
+        this.lastLineStart = 0;
         this.fieldIndex = 0;
         this.fieldMax = -1;
         this.inQuote = false;
@@ -161,10 +167,27 @@ public class TextLexer implements Closeable, Mutable {
         this.useLineRollBuf = false;
         this.rollBufferUnusable = false;
         this.header = header;
+        this.fieldCountFixed = false;
         fields.clear();
         csPool.clear();
     }
 
+    /**
+     * Prepares lexer to parse text that does not start at the beginning of the file,
+     * such as a chunk of parallel import. Field count cannot be derived from the first
+     * line of such text and is provided by the caller instead.
+     *
+     * @param header     true when first line of text is a header
+     * @param fieldCount number of fields in the first line of the file
+     */
+    void restart(boolean header, int fieldCount) {
+        restart(header);
+        for (int i = 0; i < fieldCount; i++) {
+            addField();
+        }
+        this.fieldCountFixed = true;
+    }
+
     private void addField() {
         fields.add(csPool.next());
         fieldMax++;
@@ -401,7 +424,7 @@ public class TextLexer implements Closeable, Mutable {
     }
 
     private void stashField(int fieldIndex) {
-        if (lineCount == 0 && fieldIndex >= fields.size()) {
+        if (lineCount == 0 && !fieldCountFixed && fieldIndex >= fields.size()) {
             addField();
         }
 
@@ -24,6 +24,7 @@
 
 package io.questdb.cutlass.text;
 
+import io.questdb.MessageBus;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.CairoSecurityContext;
 import io.questdb.cairo.sql.RecordMetadata;
@@ -38,6 +39,7 @@ import io.questdb.std.Mutable;
 import io.questdb.std.ObjList;
 import io.questdb.std.str.DirectCharSink;
 import io.questdb.std.str.Path;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
@@ -56,9 +58,12 @@ public class TextLoader implements Closeable, Mutable {
     private final DirectCharSink utf8Sink;
     private final TypeManager typeManager;
     private final ObjList<ParserMethod> parseMethods = new ObjList<>();
+    private final TextChunkDispatcher chunkDispatcher;
     private int state;
     private boolean forceHeaders = false;
     private byte columnDelimiter = -1;
+    private MessageBus messageBus;
+    private int workerCount = -1;
 
     public TextLoader(CairoEngine engine) {
         final TextConfiguration textConfiguration = engine.getConfiguration().getTextConfiguration();
@@ -73,6 +78,7 @@ public class TextLoader implements Closeable, Mutable {
         textMetadataParser = new TextMetadataParser(textConfiguration, typeManager);
         textAnalysisMaxLines = textConfiguration.getTextAnalysisMaxLines();
         textDelimiterScanner = new TextDelimiterScanner(textConfiguration);
+        chunkDispatcher = new TextChunkDispatcher(textConfiguration);
         parseMethods.extendAndSet(LOAD_JSON_METADATA, this::parseJsonMetadata);
         parseMethods.extendAndSet(ANALYZE_STRUCTURE, this::parseStructure);
         parseMethods.extendAndSet(LOAD_DATA, this::parseData);
@@ -81,17 +87,21 @@ public class TextLoader implements Closeable, Mutable {
 
     @Override
     public void clear() {
+        chunkDispatcher.clear();
         textWriter.clear();
         textLexer.clear();
         textMetadataParser.clear();
         jsonLexer.clear();
         forceHeaders = false;
         columnDelimiter = -1;
+        messageBus = null;
+        workerCount = -1;
         typeManager.clear();
     }
 
     @Override
     public void close() {
+        Misc.free(chunkDispatcher);
         Misc.free(textWriter);
         Misc.free(textLexer);
         Misc.free(textMetadataParser);
@@ -137,11 +147,11 @@ public class TextLoader implements Closeable, Mutable {
     }
 
     public long getParsedLineCount() {
-        return textLexer.getLineCount();
+        return textLexer.getLineCount() + chunkDispatcher.getLineCount();
     }
 
     public long getErrorLineCount() {
-        return textLexer.getErrorCount();
+        return textLexer.getErrorCount() + chunkDispatcher.getErrorCount();
     }
 
     public int getPartitionBy() {
@@ -164,6 +174,24 @@ public class TextLoader implements Closeable, Mutable {
         return forceHeaders;
     }
 
+    public boolean isParallel() {
+        return workerCount > -1;
+    }
+
+    /**
+     * Enables parallel load of data part of the text. Text is cut into chunks at line
+     * boundaries, chunks are parsed by worker threads and rows are appended to the table
+     * by the thread calling parse(), in the order of the text. Parallel load is disabled
+     * on clear().
+     *
+     * @param messageBus  bus to publish chunks to workers, when null chunks are parsed by calling thread
+     * @param workerCount number of threads in the pool that runs {@link TextImportJob}
+     */
+    public void setParallel(@Nullable MessageBus messageBus, int workerCount) {
+        this.messageBus = messageBus;
+        this.workerCount = Math.max(workerCount, 0);
+    }
+
     public void setForceHeaders(boolean forceHeaders) {
         this.forceHeaders = forceHeaders;
     }
@@ -193,7 +221,11 @@ public class TextLoader implements Closeable, Mutable {
                 break;
             case ANALYZE_STRUCTURE:
             case LOAD_DATA:
-                textLexer.parseLast();
+                if (isParallel()) {
+                    chunkDispatcher.finish();
+                } else {
+                    textLexer.parseLast();
+                }
                 textWriter.commit();
                 break;
             default:
@@ -202,7 +234,11 @@ public class TextLoader implements Closeable, Mutable {
     }
 
     private void parseData(long lo, long hi, CairoSecurityContext cairoSecurityContext) {
-        textLexer.parse(lo, hi, Integer.MAX_VALUE, textWriter.getTextListener());
+        if (isParallel()) {
+            chunkDispatcher.parse(lo, hi);
+        } else {
+            textLexer.parse(lo, hi, Integer.MAX_VALUE, textWriter.getTextListener());
+        }
     }
 
     private void parseJsonMetadata(long lo, long hi, CairoSecurityContext cairoSecurityContext) throws TextException {
@@ -228,8 +264,18 @@ public class TextLoader implements Closeable, Mutable {
                 textMetadataParser.getColumnTypes()
         );
         textWriter.prepareTable(cairoSecurityContext, textLexer.getColumnNames(), textLexer.getColumnTypes());
-        textLexer.parse(lo, hi, Integer.MAX_VALUE, textWriter.getTextListener());
+        if (isParallel()) {
+            chunkDispatcher.of(
+                    textWriter,
+                    messageBus,
+                    workerCount,
+                    textLexer.getColumnDelimiter(),
+                    textLexer.isHeaderDetected(),
+                    textLexer.isSkipLinesWithExtraValues()
+            );
+        }
         state = LOAD_DATA;
+        parseData(lo, hi, cairoSecurityContext);
     }
 
     @FunctionalInterface
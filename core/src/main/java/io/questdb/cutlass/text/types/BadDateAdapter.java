@@ -25,7 +25,7 @@
 package io.questdb.cutlass.text.types;
 
 import io.questdb.cairo.ColumnType;
-import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.RowSink;
 import io.questdb.std.Numbers;
 import io.questdb.std.str.DirectByteCharSequence;
 
@@ -47,7 +47,7 @@ public final class BadDateAdapter extends DateAdapter {
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) {
+    public void write(RowSink row, int column, DirectByteCharSequence value) {
         row.putDate(column, Numbers.LONG_NaN);
     }
 }
@@ -25,7 +25,7 @@
 package io.questdb.cutlass.text.types;
 
 import io.questdb.cairo.ColumnType;
-import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.RowSink;
 import io.questdb.std.Numbers;
 import io.questdb.std.str.DirectByteCharSequence;
 
@@ -47,7 +47,7 @@ public final class ByteAdapter extends AbstractTypeAdapter {
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) throws Exception {
+    public void write(RowSink row, int column, DirectByteCharSequence value) throws Exception {
         row.putByte(column, (byte) Numbers.parseInt(value));
     }
 }
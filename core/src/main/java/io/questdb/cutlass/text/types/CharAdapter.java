@@ -25,7 +25,7 @@
 package io.questdb.cutlass.text.types;
 
 import io.questdb.cairo.ColumnType;
-import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.RowSink;
 import io.questdb.std.str.DirectByteCharSequence;
 
 public final class CharAdapter extends AbstractTypeAdapter {
@@ -49,7 +49,7 @@ public final class CharAdapter extends AbstractTypeAdapter {
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) {
+    public void write(RowSink row, int column, DirectByteCharSequence value) {
         row.putChar(column, value.charAt(0));
     }
 }
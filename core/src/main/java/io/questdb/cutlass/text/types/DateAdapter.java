@@ -25,7 +25,7 @@
 package io.questdb.cutlass.text.types;
 
 import io.questdb.cairo.ColumnType;
-import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.RowSink;
 import io.questdb.std.Mutable;
 import io.questdb.std.NumericException;
 import io.questdb.std.str.DirectByteCharSequence;
@@ -58,7 +58,7 @@ public class DateAdapter extends AbstractTypeAdapter implements Mutable {
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) throws Exception {
+    public void write(RowSink row, int column, DirectByteCharSequence value) throws Exception {
         row.putDate(column, format.parse(value, locale));
     }
 
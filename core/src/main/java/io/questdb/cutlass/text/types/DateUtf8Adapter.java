@@ -25,7 +25,7 @@
 package io.questdb.cutlass.text.types;
 
 import io.questdb.cairo.ColumnType;
-import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.RowSink;
 import io.questdb.cutlass.text.TextUtil;
 import io.questdb.std.Mutable;
 import io.questdb.std.NumericException;
@@ -65,7 +65,7 @@ public class DateUtf8Adapter extends AbstractTypeAdapter implements Mutable {
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) throws Exception {
+    public void write(RowSink row, int column, DirectByteCharSequence value) throws Exception {
         utf8Sink.clear();
         TextUtil.utf8DecodeEscConsecutiveQuotes(value.getLo(), value.getHi(), utf8Sink);
         row.putDate(column, format.parse(utf8Sink, locale));
@@ -76,4 +76,8 @@ public class DateUtf8Adapter extends AbstractTypeAdapter implements Mutable {
         this.locale = locale;
         return this;
     }
+
+    DateUtf8Adapter of(DateUtf8Adapter that) {
+        return of(that.format, that.locale);
+    }
 }
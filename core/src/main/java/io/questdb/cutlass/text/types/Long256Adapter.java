@@ -25,7 +25,7 @@
 package io.questdb.cutlass.text.types;
 
 import io.questdb.cairo.ColumnType;
-import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.RowSink;
 import io.questdb.std.Long256Util;
 import io.questdb.std.Numbers;
 import io.questdb.std.NumericException;
@@ -67,7 +67,7 @@ public final class Long256Adapter extends AbstractTypeAdapter {
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) {
+    public void write(RowSink row, int column, DirectByteCharSequence value) {
         row.putLong256(column, value);
     }
 }
@@ -24,7 +24,7 @@
 
 package io.questdb.cutlass.text.types;
 
-import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.RowSink;
 import io.questdb.std.str.DirectByteCharSequence;
 
 public interface TypeAdapter {
@@ -32,5 +32,5 @@ public interface TypeAdapter {
 
     boolean probe(CharSequence text);
 
-    void write(TableWriter.Row row, int column, DirectByteCharSequence value) throws Exception;
+    void write(RowSink row, int column, DirectByteCharSequence value) throws Exception;
 }
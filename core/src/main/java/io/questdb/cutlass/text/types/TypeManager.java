@@ -89,6 +89,28 @@ public class TypeManager implements Mutable {
         timestampAdapterPool.clear();
     }
 
+    /**
+     * Returns adapter, which converts text to the same column type and in the same format as
+     * the given one, but does not share decode buffer with adapters of other type managers.
+     * This allows text to be parsed by several threads at the same time, each using its own
+     * type manager. Adapters that are free of mutable state are returned as is.
+     */
+    public TypeAdapter copyOf(TypeAdapter adapter) {
+        if (adapter instanceof StringAdapter) {
+            return stringAdapter;
+        }
+        if (adapter instanceof SymbolAdapter) {
+            return symbolAdapter;
+        }
+        if (adapter instanceof DateUtf8Adapter) {
+            return dateAdapterPool.next().of((DateUtf8Adapter) adapter);
+        }
+        if (adapter instanceof TimestampUtf8Adapter) {
+            return timestampUtf8AdapterPool.next().of((TimestampUtf8Adapter) adapter);
+        }
+        return adapter;
+    }
+
     public InputFormatConfiguration getInputFormatConfiguration() {
         return inputFormatConfiguration;
     }
@@ -67,6 +67,14 @@ public interface FunctionFactory {
 
     default boolean isCursor() { return false; }
 
+    /**
+     * Window functions are only looked up for analytic columns, e.g. "sum(x) over (...)",
+     * where they take precedence over other functions of the same name.
+     *
+     * @return true if function is window function
+     */
+    default boolean isWindow() { return false; }
+
     Function newInstance(
             @Transient ObjList<Function> args,
             int position,
@@ -37,6 +37,7 @@ public class FunctionFactoryCache {
     private final CharSequenceObjHashMap<ObjList<FunctionFactoryDescriptor>> factories = new CharSequenceObjHashMap<>();
     private final CharSequenceObjHashMap<ObjList<FunctionFactoryDescriptor>> booleanFactories = new CharSequenceObjHashMap<>();
     private final CharSequenceObjHashMap<ObjList<FunctionFactoryDescriptor>> commutativeBooleanFactories = new CharSequenceObjHashMap<>();
+    private final CharSequenceObjHashMap<ObjList<FunctionFactoryDescriptor>> windowFactories = new CharSequenceObjHashMap<>();
     private final CharSequenceHashSet groupByFunctionNames = new CharSequenceHashSet();
     private final CharSequenceHashSet cursorFunctionNames = new CharSequenceHashSet();
 
@@ -48,6 +49,12 @@ public class FunctionFactoryCache {
                 try {
                     final FunctionFactoryDescriptor descriptor = new FunctionFactoryDescriptor(factory);
                     final String name = descriptor.getName();
+                    if (factory.isWindow()) {
+                        // window functions share names with group-by functions, keep
+                        // them apart to resolve only in analytic context
+                        addFactoryToList(windowFactories, name, descriptor);
+                        continue;
+                    }
                     addFactoryToList(factories, name, descriptor);
 
                     // Add != counterparts to equality function factories
@@ -84,6 +91,10 @@ public class FunctionFactoryCache {
         return factories.get(token);
     }
 
+    public ObjList<FunctionFactoryDescriptor> getWindowOverloadList(CharSequence token) {
+        return windowFactories.get(token);
+    }
+
     public boolean isCursor(CharSequence name) {
         return cursorFunctionNames.contains(name);
     }
@@ -64,6 +64,7 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
     private RecordMetadata metadata;
     private SqlCodeGenerator sqlCodeGenerator;
     private SqlExecutionContext sqlExecutionContext;
+    private ExpressionNode analyticNode;
 
     public FunctionParser(CairoConfiguration configuration, FunctionFactoryCache functionFactoryCache) {
         this.configuration = configuration;
@@ -159,6 +160,30 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
         }
     }
 
+    /**
+     * Creates function of analytic column. Top level function of the expression is looked up
+     * among window functions first, see {@link FunctionFactory#isWindow()}, and then among
+     * all other functions.
+     *
+     * @param node             expression node of analytic column
+     * @param metadata         metadata for resolving types of columns.
+     * @param executionContext execution context, which has analytic context configured for the column
+     * @return function instance
+     * @throws SqlException when function cannot be created
+     */
+    public Function parseAnalyticFunction(
+            ExpressionNode node,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        analyticNode = node;
+        try {
+            return parseFunction(node, metadata, executionContext);
+        } finally {
+            analyticNode = null;
+        }
+    }
+
     public void setSqlCodeGenerator(SqlCodeGenerator sqlCodeGenerator) {
         this.sqlCodeGenerator = sqlCodeGenerator;
     }
@@ -419,7 +444,13 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
             ExpressionNode node,
             @Transient ObjList<Function> args
     ) throws SqlException {
-        ObjList<FunctionFactoryDescriptor> overload = functionFactoryCache.getOverloadList(node.token);
+        ObjList<FunctionFactoryDescriptor> overload = null;
+        if (node == analyticNode) {
+            overload = functionFactoryCache.getWindowOverloadList(node.token);
+        }
+        if (overload == null) {
+            overload = functionFactoryCache.getOverloadList(node.token);
+        }
         boolean isNegated = functionFactoryCache.isNegated(node.token);
         boolean isFlipped = functionFactoryCache.isFlipped(node.token);
         if (overload == null) {
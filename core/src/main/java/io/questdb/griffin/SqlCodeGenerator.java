@@ -24,6 +24,7 @@
 
 package io.questdb.griffin;
 
+import io.questdb.MessageBus;
 import io.questdb.cairo.*;
 import io.questdb.cairo.map.RecordValueSink;
 import io.questdb.cairo.map.RecordValueSinkFactory;
@@ -33,6 +34,8 @@ import io.questdb.griffin.engine.LimitRecordCursorFactory;
 import io.questdb.griffin.engine.RecordComparator;
 import io.questdb.griffin.engine.analytic.AnalyticFunction;
 import io.questdb.griffin.engine.analytic.CachedAnalyticRecordCursorFactory;
+import io.questdb.griffin.engine.analytic.StreamingAnalyticRecordCursorFactory;
+import io.questdb.griffin.engine.analytic.WindowFunction;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.SymbolFunction;
 import io.questdb.griffin.engine.functions.constants.LongConstant;
@@ -40,9 +43,15 @@ import io.questdb.griffin.engine.groupby.*;
 import io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory;
 import io.questdb.griffin.engine.groupby.vect.*;
 import io.questdb.griffin.engine.join.*;
+import io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.RadixSortKey;
+import io.questdb.griffin.engine.orderby.RadixSortedLightRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.RadixSortedRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.SortedRecordCursorFactory;
+import io.questdb.griffin.engine.profile.ProfiledRecordCursorFactory;
+import io.questdb.griffin.engine.profile.QueryProfiler;
 import io.questdb.griffin.engine.table.*;
 import io.questdb.griffin.engine.union.*;
 import io.questdb.griffin.model.*;
@@ -69,6 +78,8 @@ public class SqlCodeGenerator implements Mutable {
     private static final IntObjHashMap<VectorAggregateFunctionConstructor> minConstructors = new IntObjHashMap<>();
     private static final IntObjHashMap<VectorAggregateFunctionConstructor> maxConstructors = new IntObjHashMap<>();
     private static final IntObjHashMap<VectorAggregateFunctionConstructor> countConstructors = new IntObjHashMap<>();
+    private static final IntObjHashMap<KeyedVectorAggregateFunctionConstructor> firstConstructors = new IntObjHashMap<>();
+    private static final IntObjHashMap<KeyedVectorAggregateFunctionConstructor> lastConstructors = new IntObjHashMap<>();
     private static final SetRecordCursorFactoryConstructor SET_UNION_CONSTRUCTOR = UnionRecordCursorFactory::new;
     private static final SetRecordCursorFactoryConstructor SET_INTERSECT_CONSTRUCTOR = IntersectRecordCursorFactory::new;
     private static final SetRecordCursorFactoryConstructor SET_EXCEPT_CONSTRUCTOR = ExceptRecordCursorFactory::new;
@@ -81,23 +92,30 @@ public class SqlCodeGenerator implements Mutable {
     private final ListColumnFilter listColumnFilterB = new ListColumnFilter();
     private final CairoConfiguration configuration;
     private final RecordComparatorCompiler recordComparatorCompiler;
+    private final FilterCompiler filterCompiler;
     private final IntHashSet intHashSet = new IntHashSet();
     private final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
     private final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
     private final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
     private final ObjList<CharSequence> symbolValueList = new ObjList<>();
-    private final ObjList<VectorAggregateFunction> tempVaf = new ObjList<>();
+    private final ObjList<KeyedVectorAggregateFunction> tempVaf = new ObjList<>();
+    private final ObjList<VectorAggregateFunction> tempNotKeyedVaf = new ObjList<>();
     private final GenericRecordMetadata tempMetadata = new GenericRecordMetadata();
     private final ArrayColumnTypes arrayColumnTypes = new ArrayColumnTypes();
     private final IntList tempKeyIndexesInBase = new IntList();
     private final IntList tempSymbolSkewIndexes = new IntList();
     private final IntList tempKeyIndex = new IntList();
     private final IntList tempAggIndex = new IntList();
-    private final ObjList<VectorAggregateFunctionConstructor> tempVecConstructors = new ObjList<>();
+    private final ObjList<KeyedVectorAggregateFunctionConstructor> tempVecConstructors = new ObjList<>();
     private final IntList tempVecConstructorArgIndexes = new IntList();
     private final IntList tempKeyKinds = new IntList();
+    private final IntList seekColumnIndexes = new IntList();
+    private boolean tempCountUsed;
+    private boolean tempRowOrderSensitive;
     private final ObjObjHashMap<IntList, ObjList<AnalyticFunction>> grouppedAnalytic = new ObjObjHashMap<>();
     private boolean fullFatJoins = false;
+    private final QueryProfiler profiler;
+    private boolean profiling = false;
 
     public SqlCodeGenerator(
             CairoEngine engine,
@@ -108,6 +126,8 @@ public class SqlCodeGenerator implements Mutable {
         this.configuration = configuration;
         this.functionParser = functionParser;
         this.recordComparatorCompiler = new RecordComparatorCompiler(asm);
+        this.filterCompiler = new FilterCompiler(asm);
+        this.profiler = new QueryProfiler(configuration.getNanosecondClock());
     }
 
     @Override
@@ -165,7 +185,7 @@ public class SqlCodeGenerator implements Mutable {
         );
     }
 
-    private VectorAggregateFunctionConstructor assembleFunctionReference(RecordMetadata metadata, ExpressionNode ast) {
+    private KeyedVectorAggregateFunctionConstructor assembleFunctionReference(RecordMetadata metadata, ExpressionNode ast) {
         int columnIndex;
         if (isSingleColumnFunction(ast, "sum")) {
             columnIndex = metadata.getColumnIndex(ast.rhs.token);
@@ -174,7 +194,9 @@ public class SqlCodeGenerator implements Mutable {
         } else if (ast.type == FUNCTION && ast.paramCount == 0 && Chars.equals(ast.token, "count")) {
             // count() is a no-arg function
             tempVecConstructorArgIndexes.add(-1);
-            return countConstructors.get(ColumnType.pow2SizeOf(tempKeyIndexesInBase.getQuick(0)));
+            // count is derived from frame row count, which is passed as size of 4-byte keys
+            tempCountUsed = true;
+            return countConstructors.get(ColumnType.INT);
         } else if (isSingleColumnFunction(ast, "ksum")) {
             columnIndex = metadata.getColumnIndex(ast.rhs.token);
             tempVecConstructorArgIndexes.add(columnIndex);
@@ -195,6 +217,16 @@ public class SqlCodeGenerator implements Mutable {
             columnIndex = metadata.getColumnIndex(ast.rhs.token);
             tempVecConstructorArgIndexes.add(columnIndex);
             return maxConstructors.get(metadata.getColumnType(columnIndex));
+        } else if (isSingleColumnFunction(ast, "first")) {
+            columnIndex = metadata.getColumnIndex(ast.rhs.token);
+            tempVecConstructorArgIndexes.add(columnIndex);
+            tempRowOrderSensitive = true;
+            return firstConstructors.get(metadata.getColumnType(columnIndex));
+        } else if (isSingleColumnFunction(ast, "last")) {
+            columnIndex = metadata.getColumnIndex(ast.rhs.token);
+            tempVecConstructorArgIndexes.add(columnIndex);
+            tempRowOrderSensitive = true;
+            return lastConstructors.get(metadata.getColumnType(columnIndex));
         }
         return null;
     }
@@ -206,10 +238,11 @@ public class SqlCodeGenerator implements Mutable {
     ) {
         tempVaf.clear();
         tempMetadata.clear();
-        tempSymbolSkewIndexes.clear();
         tempVecConstructors.clear();
         tempVecConstructorArgIndexes.clear();
         tempAggIndex.clear();
+        tempCountUsed = false;
+        tempRowOrderSensitive = false;
 
         for (int i = 0, n = columns.size(); i < n; i++) {
             final QueryColumn qc = columns.getQuick(i);
@@ -234,7 +267,7 @@ public class SqlCodeGenerator implements Mutable {
                     }
                 }
             } else {
-                final VectorAggregateFunctionConstructor constructor = assembleFunctionReference(metadata, ast);
+                final KeyedVectorAggregateFunctionConstructor constructor = assembleFunctionReference(metadata, ast);
                 if (constructor != null) {
                     tempVecConstructors.add(constructor);
                     tempAggIndex.add(i);
@@ -246,6 +279,37 @@ public class SqlCodeGenerator implements Mutable {
         return true;
     }
 
+    private boolean isVectorKeyCardinalitySupported(RecordCursorFactory factory, SqlExecutionContext executionContext) {
+        if (tempKeyIndexesInBase.size() < 2) {
+            return true;
+        }
+        try (PageFrameCursor cursor = factory.getPageFrameCursor(executionContext)) {
+            return GroupByRecordCursorFactory.isKeyCardinalitySupported(cursor, tempKeyIndexesInBase, tempKeyKinds);
+        }
+    }
+
+    private boolean isVectorKeyLayoutSupported() {
+        final int keyCount = tempKeyIndexesInBase.size();
+        switch (keyCount) {
+            case 0:
+                // not keyed aggregation cannot tell first and last rows apart
+                return !tempRowOrderSensitive && !tempCountUsed;
+            case 1:
+                return true;
+            case 2:
+                // composite keys are packed into single int, which is only possible
+                // for keys of known cardinality
+                for (int i = 0; i < keyCount; i++) {
+                    if (tempKeyKinds.getQuick(i) != GKK_HOUR_INT && arrayColumnTypes.getColumnType(i) != ColumnType.SYMBOL) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
     @Nullable
     private Function compileFilter(IntrinsicModel intrinsicModel, RecordMetadata readerMeta, SqlExecutionContext executionContext) throws SqlException {
         if (intrinsicModel.filter != null) {
@@ -254,6 +318,67 @@ public class SqlCodeGenerator implements Mutable {
         return null;
     }
 
+    /**
+     * Group-by functions are stateful, each worker gets its own copy. The last
+     * copy is the original list, it is used by the thread that owns the cursor.
+     * Sample by values start with timestamp, copies have to replicate this layout.
+     */
+    private ObjList<ObjList<GroupByFunction>> compileGroupByFunctionCopies(
+            QueryModel model,
+            RecordMetadata metadata,
+            ObjList<GroupByFunction> groupByFunctions,
+            SqlExecutionContext executionContext,
+            boolean timestampValue
+    ) throws SqlException {
+        final int workerCount = executionContext.getWorkerCount();
+        final ObjList<ObjList<GroupByFunction>> copies = new ObjList<>(workerCount + 1);
+        final ArrayColumnTypes copyValueTypes = new ArrayColumnTypes();
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                final ObjList<GroupByFunction> copy = new ObjList<>(groupByFunctions.size());
+                copies.add(copy);
+                // copies must have the same value layout as the original
+                copyValueTypes.clear();
+                if (timestampValue) {
+                    copyValueTypes.add(ColumnType.TIMESTAMP);
+                }
+                GroupByUtils.prepareGroupByFunctions(model, metadata, functionParser, executionContext, copy, copyValueTypes);
+            }
+        } catch (Throwable e) {
+            for (int i = 0, n = copies.size(); i < n; i++) {
+                Misc.freeObjList(copies.getQuick(i));
+            }
+            throw e;
+        }
+        copies.add(groupByFunctions);
+        return copies;
+    }
+
+    private RecordCursorFactory createAsOfSeekJoin(
+            RecordMetadata metadata,
+            RecordCursorFactory master,
+            RecordCursorFactory slave,
+            QueryModel slaveModel,
+            int columnSplit,
+            boolean strict
+    ) {
+        final QueryModel tableModel = getTableModel(slaveModel);
+        final boolean keyed = listColumnFilterA.size() > 0;
+        return new AsOfJoinSeekRecordCursorFactory(
+                metadata,
+                master,
+                slave,
+                engine,
+                Chars.toString(tableModel.getTableName().token),
+                tableModel.getTableVersion(),
+                seekColumnIndexes,
+                columnSplit,
+                keyed ? listColumnFilterB.getColumnIndexFactored(0) : -1,
+                keyed ? seekColumnIndexes.getQuick(listColumnFilterA.getColumnIndexFactored(0)) : -1,
+                strict
+        );
+    }
+
     private RecordCursorFactory createAsOfJoin(
             RecordMetadata metadata,
             RecordCursorFactory master,
@@ -447,7 +572,9 @@ public class SqlCodeGenerator implements Mutable {
             RecordMetadata metadata,
             RecordCursorFactory master,
             RecordCursorFactory slave,
-            int joinType
+            int joinType,
+            boolean spill,
+            SqlExecutionContext executionContext
     ) {
         /*
          * JoinContext provides the following information:
@@ -460,6 +587,19 @@ public class SqlCodeGenerator implements Mutable {
          * The issue is when we use model indexes and vanilla column names they would only work on single-table
          * record cursor but original names with prefixed columns will only work with JoinRecordMetadata
          */
+        if (!spill && !fullFatJoins && isParallelHashJoinSupported(master, slave, executionContext)) {
+            return new ParallelHashJoinRecordCursorFactory(
+                    configuration,
+                    metadata,
+                    master,
+                    slave,
+                    listColumnFilterB,
+                    listColumnFilterA,
+                    joinType != QueryModel.JOIN_INNER,
+                    executionContext.getWorkerCount()
+            );
+        }
+
         final RecordMetadata masterMetadata = master.getMetadata();
         final RecordMetadata slaveMetadata = slave.getMetadata();
         final RecordSink masterKeySink = RecordSinkFactory.getInstance(
@@ -480,7 +620,7 @@ public class SqlCodeGenerator implements Mutable {
         valueTypes.add(ColumnType.LONG);
         valueTypes.add(ColumnType.LONG);
 
-        if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
+        if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins && !spill) {
             if (joinType == QueryModel.JOIN_INNER) {
                 return new HashJoinLightRecordCursorFactory(
                         configuration,
@@ -516,6 +656,17 @@ public class SqlCodeGenerator implements Mutable {
                 false
         );
 
+        RecordSink masterSink = null;
+        if (spill) {
+            entityColumnFilter.of(masterMetadata.getColumnCount());
+            masterSink = RecordSinkFactory.getInstance(
+                    asm,
+                    masterMetadata,
+                    entityColumnFilter,
+                    false
+            );
+        }
+
         if (joinType == QueryModel.JOIN_INNER) {
             return new HashJoinRecordCursorFactory(
                     configuration,
@@ -527,6 +678,7 @@ public class SqlCodeGenerator implements Mutable {
                     masterKeySink,
                     slaveKeySink,
                     slaveSink,
+                    masterSink,
                     masterMetadata.getColumnCount()
             );
         }
@@ -541,6 +693,7 @@ public class SqlCodeGenerator implements Mutable {
                 masterKeySink,
                 slaveKeySink,
                 slaveSink,
+                masterSink,
                 masterMetadata.getColumnCount()
         );
     }
@@ -640,6 +793,20 @@ public class SqlCodeGenerator implements Mutable {
         return generateQuery(model, executionContext, true);
     }
 
+    /**
+     * Generates factory, in which every factory of the plan is wrapped in profiling decorator.
+     */
+    ProfiledRecordCursorFactory generateProfiled(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
+        profiler.clear();
+        profiling = true;
+        try {
+            return (ProfiledRecordCursorFactory) generateQuery(model, executionContext, true);
+        } finally {
+            profiling = false;
+            profiler.clear();
+        }
+    }
+
     private RecordCursorFactory generateFilter(RecordCursorFactory factory, QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         final ExpressionNode filter = model.getWhereClause();
         return filter == null ? factory : generateFilter0(factory, model, executionContext, filter);
@@ -658,6 +825,30 @@ public class SqlCodeGenerator implements Mutable {
                 return new EmptyTableRecordCursorFactory(factory.getMetadata());
             }
         }
+
+        final int workerCount = executionContext.getWorkerCount();
+        if (configuration.isSqlParallelFilterEnabled() && workerCount > 1 && factory.supportPageFrameCursor()) {
+            final MessageBus bus = executionContext.getMessageBus();
+            if (bus != null && bus.getPageFrameFilterQueue() != null) {
+                // filter functions are stateful, each worker gets its own copy and
+                // the last copy is used by the thread that owns the cursor
+                final ObjList<Function> filters = new ObjList<>(workerCount + 1);
+                try {
+                    for (int i = 0; i < workerCount; i++) {
+                        filters.add(compileFilter(filter, factory.getMetadata(), executionContext));
+                    }
+                } catch (Throwable e) {
+                    Misc.freeObjList(filters);
+                    Misc.free(f);
+                    throw e;
+                }
+                filters.add(f);
+                final CompiledFilter compiledFilter = configuration.isSqlJitFilterEnabled()
+                        ? filterCompiler.compile(filter, factory.getMetadata())
+                        : null;
+                return new ParallelFilteredRecordCursorFactory(factory, filters, compiledFilter, configuration.getSqlPageFrameMaxRows());
+            }
+        }
         return new FilteredRecordCursorFactory(factory, f);
     }
 
@@ -716,7 +907,16 @@ public class SqlCodeGenerator implements Mutable {
                             try {
                                 validateBothTimestamps(slaveModel, masterMetadata, slaveMetadata);
                                 processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
-                                if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
+                                if (!fullFatJoins && isTimestampSeekSupported(slaveModel, slave, executionContext)) {
+                                    master = createAsOfSeekJoin(
+                                            createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                            master,
+                                            slave,
+                                            slaveModel,
+                                            masterMetadata.getColumnCount(),
+                                            false
+                                    );
+                                } else if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
                                     if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
                                         master = createAsOfJoin(
                                                 createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
@@ -766,7 +966,16 @@ public class SqlCodeGenerator implements Mutable {
                             try {
                                 validateBothTimestamps(slaveModel, masterMetadata, slaveMetadata);
                                 processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
-                                if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
+                                if (!fullFatJoins && isTimestampSeekSupported(slaveModel, slave, executionContext)) {
+                                    master = createAsOfSeekJoin(
+                                            createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                            master,
+                                            slave,
+                                            slaveModel,
+                                            masterMetadata.getColumnCount(),
+                                            true
+                                    );
+                                } else if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
                                     if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
                                         master = createLtJoin(
                                                 createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
@@ -845,11 +1054,22 @@ public class SqlCodeGenerator implements Mutable {
                             break;
                         default:
                             processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
+                            // spilled join returns records grouped by key hash rather than in master order,
+                            // it can only be used when the result does not have to keep designated timestamp
+                            final boolean spill = configuration.isSqlHashJoinSpillEnabled() && !executionContext.isTimestampRequired();
                             master = createHashJoin(
-                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                    createJoinMetadata(
+                                            masterAlias,
+                                            masterMetadata,
+                                            slaveModel.getName(),
+                                            slaveMetadata,
+                                            spill ? -1 : masterMetadata.getTimestampIndex()
+                                    ),
                                     master,
                                     slave,
-                                    joinType
+                                    joinType,
+                                    spill,
+                                    executionContext
                             );
                             masterAlias = null;
                             break;
@@ -955,7 +1175,7 @@ public class SqlCodeGenerator implements Mutable {
                             } else {
                                 rcf = new LatestByValueIndexedRowCursorFactory(latestByIndex, symbol, false);
                             }
-                            return new DataFrameRecordCursorFactory(metadata, dataFrameCursorFactory, rcf, false, null, false, columnIndexes, null);
+                            return new DataFrameRecordCursorFactory(metadata, dataFrameCursorFactory, rcf, false, null, false, columnIndexes, null, false);
                         }
 
                         if (symbol == SymbolTable.VALUE_NOT_FOUND) {
@@ -1035,7 +1255,8 @@ public class SqlCodeGenerator implements Mutable {
                         dataFrameCursorFactory,
                         latestByIndex,
                         filter,
-                        columnIndexes
+                        columnIndexes,
+                        isLatestByRowsSupported(metadata, latestByIndex, filter, intrinsicModel)
                 );
             }
         }
@@ -1047,7 +1268,10 @@ public class SqlCodeGenerator implements Mutable {
                 RecordSinkFactory.getInstance(asm, metadata, listColumnFilterA, false),
                 keyTypes,
                 filter,
-                columnIndexes
+                columnIndexes,
+                listColumnFilterA.size() == 1
+                        && isLatestByRowsSupported(metadata, listColumnFilterA.getColumnIndexFactored(0), filter, intrinsicModel)
+                        ? listColumnFilterA.getColumnIndexFactored(0) : -1
         );
     }
 
@@ -1163,7 +1387,35 @@ public class SqlCodeGenerator implements Mutable {
                 }
                 orderedMetadata = GenericRecordMetadata.copyOfSansTimestamp(metadata);
 
+                // single fixed-width key is sorted with radix sort, which is able to spill to disk
+                RadixSortKey radixSortKey = null;
+                if (configuration.isSqlRadixSortEnabled() && listColumnFilterA.size() == 1) {
+                    final int factoredIndex = listColumnFilterA.getQuick(0);
+                    final int index = (factoredIndex > 0 ? factoredIndex : -factoredIndex) - 1;
+                    final int type = metadata.getColumnType(index);
+                    if (RadixSortKey.isSupported(type)) {
+                        radixSortKey = new RadixSortKey(index, type, factoredIndex < 0);
+                    }
+                }
+
                 if (recordCursorFactory.recordCursorSupportsRandomAccess()) {
+                    final int topK = getOrderByTopK(model);
+                    if (topK > 0) {
+                        return new LimitedSizeSortedLightRecordCursorFactory(
+                                orderedMetadata,
+                                recordCursorFactory,
+                                recordComparatorCompiler.compile(metadata, listColumnFilterA),
+                                topK
+                        );
+                    }
+                    if (radixSortKey != null) {
+                        return new RadixSortedLightRecordCursorFactory(
+                                configuration,
+                                orderedMetadata,
+                                recordCursorFactory,
+                                radixSortKey
+                        );
+                    }
                     return new SortedLightRecordCursorFactory(
                             configuration,
                             orderedMetadata,
@@ -1177,6 +1429,22 @@ public class SqlCodeGenerator implements Mutable {
 
                 entityColumnFilter.of(orderedMetadata.getColumnCount());
 
+                if (radixSortKey != null) {
+                    return new RadixSortedRecordCursorFactory(
+                            configuration,
+                            orderedMetadata,
+                            recordCursorFactory,
+                            orderedMetadata,
+                            RecordSinkFactory.getInstance(
+                                    asm,
+                                    orderedMetadata,
+                                    entityColumnFilter,
+                                    false
+                            ),
+                            radixSortKey
+                    );
+                }
+
                 return new SortedRecordCursorFactory(
                         configuration,
                         orderedMetadata,
@@ -1200,30 +1468,20 @@ public class SqlCodeGenerator implements Mutable {
     }
 
     private RecordCursorFactory generateQuery(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
+        final int profilerMark = profiler.mark();
         RecordCursorFactory factory = generateQuery0(model, executionContext, processJoins);
         if (model.getUnionModel() != null) {
-            return generateSetFactory(model, factory, executionContext);
+            return profile(generateSetFactory(model, factory, executionContext), profilerMark);
         }
         return factory;
     }
 
     private RecordCursorFactory generateQuery0(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
-        return generateLimit(
-                generateOrderBy(
-                        generateFilter(
-                                generateSelect(
-                                        model,
-                                        executionContext,
-                                        processJoins
-                                ),
-                                model,
-                                executionContext
-                        ),
-                        model
-                ),
-                model,
-                executionContext
-        );
+        final int profilerMark = profiler.mark();
+        RecordCursorFactory factory = profile(generateSelect(model, executionContext, processJoins), profilerMark);
+        factory = profile(generateFilter(factory, model, executionContext), profilerMark);
+        factory = profile(generateOrderBy(factory, model), profilerMark);
+        return profile(generateLimit(factory, model, executionContext), profilerMark);
     }
 
     @NotNull
@@ -1295,6 +1553,21 @@ public class SqlCodeGenerator implements Mutable {
                         timestampIndex
                 );
 
+                if (keyTypes.getColumnCount() == 0 && isVectorSampleBySupported(factory, timestampSampler)) {
+                    final RecordCursorFactory vectorFactory = generateSampleByVector(
+                            model,
+                            factory,
+                            groupByMetadata,
+                            (MicroTimestampSampler) timestampSampler,
+                            recordFunctions,
+                            timestampIndex,
+                            getVectorSampleByFill(sampleByFill)
+                    );
+                    if (vectorFactory != null) {
+                        return vectorFactory;
+                    }
+                }
+
                 if (fillCount == 1 && Chars.equalsLowerCaseAscii(sampleByFill.getQuick(0).token, "prev")) {
                     if (keyTypes.getColumnCount() == 0) {
                         return new SampleByFillPrevNotKeyedRecordCursorFactory(
@@ -1325,6 +1598,22 @@ public class SqlCodeGenerator implements Mutable {
 
                 if (fillCount == 0 || fillCount == 1 && Chars.equalsLowerCaseAscii(sampleByFill.getQuick(0).token, "none")) {
 
+                    if (isParallelSampleBySupported(factory, groupByFunctions, executionContext)) {
+                        return new ParallelSampleByRecordCursorFactory(
+                                configuration,
+                                factory,
+                                groupByMetadata,
+                                compileGroupByFunctionCopies(model, metadata, groupByFunctions, executionContext, true),
+                                recordFunctions,
+                                timestampSampler,
+                                listColumnFilterA,
+                                asm,
+                                keyTypes,
+                                valueTypes,
+                                timestampIndex
+                        );
+                    }
+
                     if (keyTypes.getColumnCount() == 0) {
                         // this sample by is not keyed
                         return new SampleByFillNoneNotKeyedRecordCursorFactory(
@@ -1419,6 +1708,75 @@ public class SqlCodeGenerator implements Mutable {
         }
     }
 
+    @Nullable
+    private RecordCursorFactory generateSampleByVector(
+            QueryModel model,
+            RecordCursorFactory factory,
+            RecordMetadata groupByMetadata,
+            MicroTimestampSampler timestampSampler,
+            ObjList<Function> recordFunctions,
+            int timestampIndex,
+            int fill
+    ) {
+        if (fill == -1) {
+            return null;
+        }
+
+        final ObjList<QueryColumn> columns = model.getColumns();
+        final RecordMetadata metadata = factory.getMetadata();
+        final ObjList<Function> sliceFunctions = new ObjList<>(columns.size());
+        final IntList columnIndexes = new IntList(columns.size());
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final ExpressionNode ast = columns.getQuick(i).getAst();
+            if (ast.type == LITERAL) {
+                // not keyed sample by can only select its timestamp
+                sliceFunctions.add(null);
+                columnIndexes.add(-1);
+                continue;
+            }
+
+            tempVecConstructorArgIndexes.clear();
+            // keyed-only functions, such as first() and last(), cannot sample
+            if (!(assembleFunctionReference(metadata, ast) instanceof VectorAggregateFunctionConstructor)) {
+                Misc.freeObjList(sliceFunctions);
+                return null;
+            }
+
+            final int columnIndex = tempVecConstructorArgIndexes.getQuick(0);
+            final Function function = SampleByNotKeyedVectorRecordCursorFactory.newSliceFunction(
+                    ast.token,
+                    ast.position,
+                    columnIndex == -1 ? -1 : metadata.getColumnType(columnIndex)
+            );
+            if (function == null) {
+                Misc.freeObjList(sliceFunctions);
+                return null;
+            }
+            sliceFunctions.add(function);
+            columnIndexes.add(columnIndex);
+
+            // slice function has to produce the same column as group-by function would
+            final int type = function.getType();
+            if (type != groupByMetadata.getColumnType(i)
+                    || (fill == SampleByNotKeyedVectorRecordCursorFactory.FILL_NULL
+                    && type != ColumnType.INT && type != ColumnType.LONG && type != ColumnType.DOUBLE)) {
+                Misc.freeObjList(sliceFunctions);
+                return null;
+            }
+        }
+
+        Misc.freeObjList(recordFunctions);
+        return new SampleByNotKeyedVectorRecordCursorFactory(
+                factory,
+                groupByMetadata,
+                timestampSampler,
+                sliceFunctions,
+                columnIndexes,
+                timestampIndex,
+                fill
+        );
+    }
+
     private RecordCursorFactory generateSelect(
             QueryModel model,
             SqlExecutionContext executionContext,
@@ -1460,6 +1818,8 @@ public class SqlCodeGenerator implements Mutable {
 
         listColumnFilterA.clear();
         listColumnFilterB.clear();
+        // maps chain metadata columns to base metadata columns, analytic columns are not mapped
+        final IntList columnCrossIndex = new IntList(columnCount);
 
         // we need two passes over columns because partitionBy and orderBy clauses of
         // the analytical function must reference the metadata of "this" factory.
@@ -1480,6 +1840,7 @@ public class SqlCodeGenerator implements Mutable {
                 chainTypes.add(i, m.getType());
                 listColumnFilterA.extendAndSet(i, i + 1);
                 listColumnFilterB.extendAndSet(i, columnIndex);
+                columnCrossIndex.extendAndSet(i, columnIndex);
                 columnSet.add(columnIndex);
             }
         }
@@ -1499,6 +1860,7 @@ public class SqlCodeGenerator implements Mutable {
                 chainTypes.add(addAt, m.getType());
                 listColumnFilterA.extendAndSet(addAt, addAt + 1);
                 listColumnFilterB.extendAndSet(addAt, i);
+                columnCrossIndex.extendAndSet(addAt, i);
                 addAt++;
             }
         }
@@ -1509,15 +1871,16 @@ public class SqlCodeGenerator implements Mutable {
 
         // todo: these ar transient list, we can cache and reuse
         final ObjList<TableColumnMetadata> deferredAnalyticMetadata = new ObjList<>();
+        final ObjList<AnalyticFunction> analyticFunctions = new ObjList<>(columnCount);
+        // window functions can be computed without caching base records when
+        // base records are in the order of every function
+        boolean streaming = true;
 
         for (int i = 0; i < columnCount; i++) {
             final QueryColumn qc = columns.getQuick(i);
             if (qc instanceof AnalyticColumn) {
                 final AnalyticColumn ac = (AnalyticColumn) qc;
                 final ExpressionNode ast = qc.getAst();
-                if (ast.paramCount > 1) {
-                    throw SqlException.$(ast.position, "Too many arguments");
-                }
 
                 ObjList<Function> partitionBy = null;
                 int psz = ac.getPartitionBy().size();
@@ -1556,18 +1919,40 @@ public class SqlCodeGenerator implements Mutable {
 
 
                 final int osz = ac.getOrderBy().size();
+                int timestampIndex = -1;
+                if (ac.getFramingMode() == AnalyticColumn.FRAMING_RANGE && ac.getFrameLo() != AnalyticColumn.FRAME_UNBOUNDED) {
+                    // time based frame needs records in ascending timestamp order
+                    if (osz == 1 && ac.getOrderByDirection().getQuick(0) == QueryModel.ORDER_DIRECTION_ASCENDING) {
+                        timestampIndex = chainMetadata.getColumnIndexQuiet(ac.getOrderBy().getQuick(0).token);
+                    }
+                    if (timestampIndex == -1 || chainMetadata.getColumnType(timestampIndex) != ColumnType.TIMESTAMP) {
+                        throw SqlException.$(ac.getFrameLoPosition(), "RANGE frame requires ascending order by timestamp column");
+                    }
+                }
+
                 executionContext.configureAnalyticContext(
                         partitionByRecord,
                         partitionBySink,
                         keyTypes,
                         osz > 0,
-                        base.recordCursorSupportsRandomAccess()
+                        base.recordCursorSupportsRandomAccess(),
+                        ac.getFramingMode(),
+                        ac.getFrameLo(),
+                        timestampIndex
                 );
 
-                final Function f = functionParser.parseFunction(ac.getAst(), baseMetadata, executionContext);
-                // todo: throw an error when non-analytic function is called in analytic context
-                assert f instanceof AnalyticFunction;
+                // function arguments and partition by functions read the same chain record
+                final Function f = functionParser.parseAnalyticFunction(ac.getAst(), chainMetadata, executionContext);
+                if (!(f instanceof AnalyticFunction)) {
+                    Misc.free(f);
+                    throw SqlException.$(ast.position, "analytic function expected");
+                }
                 AnalyticFunction analyticFunction = (AnalyticFunction) f;
+                analyticFunctions.extendAndSet(i, analyticFunction);
+                streaming = streaming
+                        && analyticFunction instanceof WindowFunction
+                        && analyticFunction.getPassCount() == AnalyticFunction.STREAM
+                        && (osz == 0 || isOrderedByTimestamp(ac, baseMetadata));
 
                 // analyze order by clause on the current model and optimise out
                 // order by on analytic function if it matches the one on the model
@@ -1625,6 +2010,28 @@ public class SqlCodeGenerator implements Mutable {
             }
         }
 
+        if (streaming) {
+            final ObjList<Function> functions = new ObjList<>(columnCount);
+            final ObjList<WindowFunction> windowFunctions = new ObjList<>();
+            for (int i = 0; i < columnCount; i++) {
+                final QueryColumn qc = columns.getQuick(i);
+                if (qc instanceof AnalyticColumn) {
+                    final AnalyticFunction f = analyticFunctions.getQuick(i);
+                    functions.add(f);
+                    windowFunctions.add((WindowFunction) f);
+                } else {
+                    functions.add(functionParser.parseFunction(qc.getAst(), chainMetadata, executionContext));
+                }
+            }
+            return new StreamingAnalyticRecordCursorFactory(
+                    factoryMetadata,
+                    base,
+                    columnCrossIndex,
+                    functions,
+                    windowFunctions
+            );
+        }
+
         final ObjList<RecordComparator> analyticComparators = new ObjList<>(grouppedAnalytic.size());
         final ObjList<ObjList<AnalyticFunction>> functionGroups = new ObjList<>(grouppedAnalytic.size());
         for (ObjObjHashMap.Entry<IntList, ObjList<AnalyticFunction>> e : grouppedAnalytic) {
@@ -1646,6 +2053,7 @@ public class SqlCodeGenerator implements Mutable {
                 recordSink,
                 factoryMetadata,
                 chainTypes,
+                columnCrossIndex,
                 analyticComparators,
                 functionGroups,
                 naturalOrderFunctions
@@ -1812,6 +2220,7 @@ public class SqlCodeGenerator implements Mutable {
             tempKeyIndex.clear();
             arrayColumnTypes.clear();
             tempKeyKinds.clear();
+            tempSymbolSkewIndexes.clear();
 
             boolean pageFramingSupported = false;
             boolean specialCaseKeys = false;
@@ -1820,35 +2229,41 @@ public class SqlCodeGenerator implements Mutable {
             final QueryModel nested = model.getNestedModel();
             assert nested != null;
             // check if underlying model has reference to hour(column) function
-            if (nested.getSelectModelType() == QueryModel.SELECT_MODEL_VIRTUAL
-                    && (columnExpr = nested.getColumns().getQuick(0).getAst()).type == FUNCTION
-                    && isHourKeyword(columnExpr.token)
-                    && columnExpr.paramCount == 1
-                    && columnExpr.rhs.type == LITERAL
-            ) {
+            final int hourColumnIndex = findHourColumn(nested);
+            if (hourColumnIndex > -1) {
                 specialCaseKeys = true;
                 factory = generateSubQuery(nested, executionContext);
                 pageFramingSupported = factory.supportPageFrameCursor();
                 if (pageFramingSupported) {
-
-                    // find position of the hour() argument in the factory meta
-                    tempKeyIndexesInBase.add(factory.getMetadata().getColumnIndex(columnExpr.rhs.token));
+                    final RecordMetadata baseMetadata = factory.getMetadata();
+                    final ObjList<QueryColumn> nestedColumns = nested.getColumns();
+                    final CharSequence functionColumnName = nestedColumns.getQuick(hourColumnIndex).getName();
 
                     // find position of hour() alias in selected columns
-                    // also make sure there are no other literal column than our function reference
-                    final CharSequence functionColumnName = columns.getQuick(0).getName();
+                    // the only other literal columns we can deal with are symbols selected as is
                     for (int i = 0, n = columns.size(); i < n; i++) {
                         columnExpr = columns.getQuick(i).getAst();
                         if (columnExpr.type == LITERAL) {
                             if (Chars.equals(columnExpr.token, functionColumnName)) {
+                                // find position of the hour() argument in the factory meta
+                                tempKeyIndexesInBase.add(baseMetadata.getColumnIndex(nestedColumns.getQuick(hourColumnIndex).getAst().rhs.token));
                                 tempKeyIndex.add(i);
                                 // storage dimension for Rosti is INT when we use hour(). This function produces INT.
                                 tempKeyKinds.add(GKK_HOUR_INT);
                                 arrayColumnTypes.add(ColumnType.INT);
                             } else {
-                                // there is something else here, fallback to default implementation
-                                pageFramingSupported = false;
-                                break;
+                                final int symbolIndexInBase = findSymbolColumnInBase(nestedColumns, columnExpr.token, baseMetadata);
+                                if (symbolIndexInBase > -1) {
+                                    tempKeyIndexesInBase.add(symbolIndexInBase);
+                                    tempKeyIndex.add(i);
+                                    tempSymbolSkewIndexes.extendAndSet(i, symbolIndexInBase);
+                                    tempKeyKinds.add(GKK_VANILLA_INT);
+                                    arrayColumnTypes.add(ColumnType.SYMBOL);
+                                } else {
+                                    // there is something else here, fallback to default implementation
+                                    pageFramingSupported = false;
+                                    break;
+                                }
                             }
                         }
                     }
@@ -1865,7 +2280,15 @@ public class SqlCodeGenerator implements Mutable {
             RecordMetadata metadata = factory.getMetadata();
 
             // inspect model for possibility of vector aggregate intrinsics
-            if (pageFramingSupported && assembleKeysAndFunctionReferences(columns, metadata, !specialCaseKeys)) {
+            if (pageFramingSupported
+                    && assembleKeysAndFunctionReferences(columns, metadata, !specialCaseKeys)
+                    && isVectorKeyLayoutSupported()
+                    && isVectorKeyCardinalitySupported(factory, executionContext)) {
+                final int keyCount = tempKeyIndexesInBase.size();
+                // keys are packed into single int before they reach Rosti, hour() included,
+                // this must agree with GroupByRecordCursorFactory.requiresKeyEncoder()
+                final boolean encodedKeys = keyCount > 1 || tempRowOrderSensitive;
+
                 // create metadata from everything we've gathered
                 GenericRecordMetadata meta = new GenericRecordMetadata();
 
@@ -1901,10 +2324,10 @@ public class SqlCodeGenerator implements Mutable {
 
                 // add aggregates
                 for (int i = 0, n = tempVecConstructors.size(); i < n; i++) {
-                    VectorAggregateFunctionConstructor constructor = tempVecConstructors.getQuick(i);
+                    KeyedVectorAggregateFunctionConstructor constructor = tempVecConstructors.getQuick(i);
                     int indexInBase = tempVecConstructorArgIndexes.getQuick(i);
                     int indexInThis = tempAggIndex.getQuick(i);
-                    VectorAggregateFunction vaf = constructor.create(0, tempKeyKinds.size() == 0 ? 0 : tempKeyKinds.getQuick(0), indexInBase, executionContext.getWorkerCount());
+                    KeyedVectorAggregateFunction vaf = constructor.create(0, keyCount == 0 || encodedKeys ? GKK_VANILLA_INT : tempKeyKinds.getQuick(0), indexInBase, executionContext.getWorkerCount());
                     tempVaf.add(vaf);
                     meta.add(indexInThis,
                             new TableColumnMetadata(
@@ -1915,34 +2338,49 @@ public class SqlCodeGenerator implements Mutable {
                     );
                 }
 
-                if (tempKeyIndexesInBase.size() == 0) {
+                if (keyCount == 0) {
+                    // keyed-only functions, such as first() and last(), are ruled out by isVectorKeyLayoutSupported()
+                    tempNotKeyedVaf.clear();
+                    for (int i = 0, n = tempVaf.size(); i < n; i++) {
+                        tempNotKeyedVaf.add((VectorAggregateFunction) tempVaf.getQuick(i));
+                    }
                     return new GroupByNotKeyedVectorRecordCursorFactory(
                             configuration,
                             factory,
                             meta,
-                            tempVaf
+                            tempNotKeyedVaf
                     );
                 }
 
-                if (tempKeyIndexesInBase.size() == 1) {
-                    for (int i = 0, n = tempVaf.size(); i < n; i++) {
-                        tempVaf.getQuick(i).pushValueTypes(arrayColumnTypes);
-                    }
+                if (keyCount > 1) {
+                    // Rosti stores composite key as single int
+                    arrayColumnTypes.clear();
+                    arrayColumnTypes.add(ColumnType.INT);
+                }
 
-                    GroupByUtils.validateGroupByColumns(model, 1);
+                for (int i = 0, n = tempVaf.size(); i < n; i++) {
+                    tempVaf.getQuick(i).pushValueTypes(arrayColumnTypes);
+                }
 
-                    return new GroupByRecordCursorFactory(
-                            configuration,
-                            factory,
-                            meta,
-                            arrayColumnTypes,
-                            executionContext.getWorkerCount(),
-                            tempVaf,
-                            tempKeyIndexesInBase.getQuick(0),
-                            tempKeyIndex.getQuick(0),
-                            tempSymbolSkewIndexes
-                    );
+                try {
+                    GroupByUtils.validateGroupByColumns(model, keyCount);
+                } catch (Throwable e) {
+                    Misc.freeObjList(tempVaf);
+                    throw e;
                 }
+
+                return new GroupByRecordCursorFactory(
+                        configuration,
+                        factory,
+                        meta,
+                        arrayColumnTypes,
+                        executionContext.getWorkerCount(),
+                        tempVaf,
+                        tempKeyIndexesInBase,
+                        tempKeyIndex,
+                        tempKeyKinds,
+                        tempSymbolSkewIndexes
+                );
             }
 
             if (specialCaseKeys) {
@@ -1998,6 +2436,20 @@ public class SqlCodeGenerator implements Mutable {
                 );
             }
 
+            if (isParallelGroupBySupported(factory, groupByFunctions, executionContext)) {
+                return new ParallelGroupByRecordCursorFactory(
+                        configuration,
+                        factory,
+                        groupByMetadata,
+                        compileGroupByFunctionCopies(model, metadata, groupByFunctions, executionContext, false),
+                        recordFunctions,
+                        listColumnFilterA,
+                        asm,
+                        keyTypes,
+                        valueTypes
+                );
+            }
+
             return new io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory(
                     configuration,
                     factory,
@@ -2111,6 +2563,40 @@ public class SqlCodeGenerator implements Mutable {
         }
     }
 
+    private static int findHourColumn(QueryModel model) {
+        if (model.getSelectModelType() == QueryModel.SELECT_MODEL_VIRTUAL) {
+            final ObjList<QueryColumn> columns = model.getColumns();
+            for (int i = 0, n = columns.size(); i < n; i++) {
+                final ExpressionNode ast = columns.getQuick(i).getAst();
+                if (ast.type == FUNCTION && isHourKeyword(ast.token) && ast.paramCount == 1 && ast.rhs.type == LITERAL) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int findSymbolColumnInBase(ObjList<QueryColumn> nestedColumns, CharSequence name, RecordMetadata baseMetadata) {
+        for (int i = 0, n = nestedColumns.size(); i < n; i++) {
+            final QueryColumn column = nestedColumns.getQuick(i);
+            if (Chars.equals(column.getName(), name)) {
+                final ExpressionNode ast = column.getAst();
+                if (ast.type == LITERAL) {
+                    final int columnIndex = baseMetadata.getColumnIndexQuiet(ast.token);
+                    if (columnIndex > -1 && baseMetadata.getColumnType(columnIndex) == ColumnType.SYMBOL) {
+                        return columnIndex;
+                    }
+                }
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private RecordCursorFactory profile(RecordCursorFactory factory, int profilerMark) {
+        return profiling ? profiler.wrap(factory, profilerMark) : factory;
+    }
+
     private RecordCursorFactory generateSubQuery(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         assert model.getNestedModel() != null;
         return generateQuery(model.getNestedModel(), executionContext, true);
@@ -2150,6 +2636,7 @@ public class SqlCodeGenerator implements Mutable {
             boolean requiresTimestamp = joinsRequiringTimestamp[model.getJoinType()];
             final GenericRecordMetadata myMeta = new GenericRecordMetadata();
             boolean framingSupported;
+            boolean varSizeFramingSupported;
             try {
                 if (requiresTimestamp) {
                     executionContext.pushTimestampRequiredFlag(true);
@@ -2157,6 +2644,7 @@ public class SqlCodeGenerator implements Mutable {
 
                 if (topDownColumnCount > 0) {
                     framingSupported = true;
+                    varSizeFramingSupported = true;
                     for (int i = 0; i < topDownColumnCount; i++) {
                         int columnIndex = readerMeta.getColumnIndexQuiet(topDownColumns.getQuick(i).getName());
                         int type = readerMeta.getColumnType(columnIndex);
@@ -2167,7 +2655,15 @@ public class SqlCodeGenerator implements Mutable {
                             framingSupported = false;
                         }
                         columnIndexes.add(columnIndex);
-                        columnSizes.add((Numbers.msb(typeSize)));
+                        if (type == ColumnType.STRING) {
+                            // strings are framed by their index column, which has 8-byte entries
+                            columnSizes.add(Numbers.msb(Long.BYTES));
+                        } else {
+                            if (typeSize < Byte.BYTES || typeSize > Double.BYTES) {
+                                varSizeFramingSupported = false;
+                            }
+                            columnSizes.add((Numbers.msb(typeSize)));
+                        }
 
                         myMeta.add(new TableColumnMetadata(
                                 Chars.toString(topDownColumns.getQuick(i).getName()),
@@ -2197,6 +2693,7 @@ public class SqlCodeGenerator implements Mutable {
                     }
                 } else {
                     framingSupported = false;
+                    varSizeFramingSupported = false;
                 }
             } finally {
                 if (requiresTimestamp) {
@@ -2284,6 +2781,9 @@ public class SqlCodeGenerator implements Mutable {
                         case PartitionBy.YEAR:
                             intervalHitsOnlyOnePartition = isFocused(intrinsicModel.intervals, Timestamps.FLOOR_YYYY);
                             break;
+                        case PartitionBy.HOUR:
+                            intervalHitsOnlyOnePartition = isFocused(intrinsicModel.intervals, Timestamps.FLOOR_HH);
+                            break;
                         default:
                             intervalHitsOnlyOnePartition = true;
                             break;
@@ -2371,7 +2871,7 @@ public class SqlCodeGenerator implements Mutable {
                                     rcf = new SymbolIndexFilteredRowCursorFactory(keyColumnIndex, symbolKey, f, true, indexDirection, columnIndexes);
                                 }
                             }
-                            return new DataFrameRecordCursorFactory(myMeta, dfcFactory, rcf, orderByKeyColumn, f, false, columnIndexes, columnSizes);
+                            return new DataFrameRecordCursorFactory(myMeta, dfcFactory, rcf, orderByKeyColumn, f, false, columnIndexes, columnSizes, false);
                         }
 
                         symbolValueList.clear();
@@ -2472,7 +2972,7 @@ public class SqlCodeGenerator implements Mutable {
                 }
 
                 model.setWhereClause(intrinsicModel.filter);
-                return new DataFrameRecordCursorFactory(myMeta, dfcFactory, new DataFrameRowCursorFactory(), false, null, framingSupported, columnIndexes, columnSizes);
+                return new DataFrameRecordCursorFactory(myMeta, dfcFactory, new DataFrameRowCursorFactory(), false, null, framingSupported, columnIndexes, columnSizes, varSizeFramingSupported);
             }
 
             // no where clause
@@ -2488,7 +2988,8 @@ public class SqlCodeGenerator implements Mutable {
                         model.getTableVersion(),
                         columnIndexes,
                         columnSizes,
-                        framingSupported
+                        framingSupported,
+                        varSizeFramingSupported
                 );
             }
 
@@ -2499,7 +3000,8 @@ public class SqlCodeGenerator implements Mutable {
                         new FullBwdDataFrameCursorFactory(engine, tableName, model.getTableVersion()),
                         columnIndexes.getQuick(listColumnFilterA.getColumnIndexFactored(0)),
                         null,
-                        columnIndexes
+                        columnIndexes,
+                        configuration.isSqlLatestByRowsEnabled()
                 );
             }
 
@@ -2510,7 +3012,11 @@ public class SqlCodeGenerator implements Mutable {
                     RecordSinkFactory.getInstance(asm, myMeta, listColumnFilterA, false),
                     keyTypes,
                     null,
-                    columnIndexes
+                    columnIndexes,
+                    latestByColumnCount == 1
+                            && configuration.isSqlLatestByRowsEnabled()
+                            && myMeta.getColumnType(listColumnFilterA.getColumnIndexFactored(0)) == ColumnType.SYMBOL
+                            ? columnIndexes.getQuick(listColumnFilterA.getColumnIndexFactored(0)) : -1
             );
         }
     }
@@ -2566,6 +3072,61 @@ public class SqlCodeGenerator implements Mutable {
         return unionFactory;
     }
 
+    /**
+     * Number of leading rows of the sort order, which LIMIT of the model can return. Zero when
+     * LIMIT is not a small non-negative constant, in which case all of the rows have to be sorted.
+     */
+    private int getOrderByTopK(QueryModel model) {
+        final ExpressionNode limitLo = model.getLimitLo();
+        final ExpressionNode limitHi = model.getLimitHi();
+        if (limitLo == null || limitLo.type != ExpressionNode.CONSTANT) {
+            return 0;
+        }
+        try {
+            final long lo = Numbers.parseLong(limitLo.token);
+            final long rows;
+            if (limitHi == null) {
+                rows = lo;
+            } else if (limitHi.type == ExpressionNode.CONSTANT) {
+                final long hi = Numbers.parseLong(limitHi.token);
+                rows = lo > -1 && lo < hi ? hi : 0;
+            } else {
+                return 0;
+            }
+            return rows > 0 && rows <= configuration.getSqlSortTopKMaxRows() ? (int) rows : 0;
+        } catch (NumericException e) {
+            return 0;
+        }
+    }
+
+    private static QueryModel getTableModel(QueryModel model) {
+        while (model != null && model.getTableName() == null) {
+            model = model.getNestedModel();
+        }
+        return model;
+    }
+
+    private static int getVectorSampleByFill(ObjList<ExpressionNode> sampleByFill) {
+        switch (sampleByFill.size()) {
+            case 0:
+                return SampleByNotKeyedVectorRecordCursorFactory.FILL_NONE;
+            case 1:
+                final CharSequence token = sampleByFill.getQuick(0).token;
+                if (Chars.equalsLowerCaseAscii(token, "none")) {
+                    return SampleByNotKeyedVectorRecordCursorFactory.FILL_NONE;
+                }
+                if (isNullKeyword(token)) {
+                    return SampleByNotKeyedVectorRecordCursorFactory.FILL_NULL;
+                }
+                if (Chars.equalsLowerCaseAscii(token, "prev")) {
+                    return SampleByNotKeyedVectorRecordCursorFactory.FILL_PREV;
+                }
+                return -1;
+            default:
+                return -1;
+        }
+    }
+
     private int getTimestampIndex(QueryModel model, RecordCursorFactory factory) throws SqlException {
         final RecordMetadata metadata = factory.getMetadata();
         try {
@@ -2605,6 +3166,130 @@ public class SqlCodeGenerator implements Mutable {
         return ast.type == FUNCTION && ast.paramCount == 1 && Chars.equals(ast.token, name) && ast.rhs.type == LITERAL;
     }
 
+    private static boolean isOrderedByTimestamp(AnalyticColumn ac, RecordMetadata baseMetadata) {
+        final int timestampIndex = baseMetadata.getTimestampIndex();
+        return timestampIndex != -1
+                && ac.getOrderBy().size() == 1
+                && ac.getOrderByDirection().getQuick(0) == QueryModel.ORDER_DIRECTION_ASCENDING
+                && Chars.equalsIgnoreCase(ac.getOrderBy().getQuick(0).token, baseMetadata.getColumnName(timestampIndex));
+    }
+
+    private boolean isLatestByRowsSupported(RecordMetadata metadata, int latestByIndex, Function filter, IntrinsicModel intrinsicModel) {
+        // latest rows cover entire table, they cannot answer queries restricted by time or filter
+        return configuration.isSqlLatestByRowsEnabled()
+                && filter == null
+                && intrinsicModel.intervals == null
+                && intrinsicModel.keyExcludedValues.size() == 0
+                && metadata.getColumnType(latestByIndex) == ColumnType.SYMBOL;
+    }
+
+    private boolean isParallelGroupBySupported(
+            RecordCursorFactory factory,
+            ObjList<GroupByFunction> groupByFunctions,
+            SqlExecutionContext executionContext
+    ) {
+        // spilling maps cannot be merged, they keep their own disk partitions
+        if (configuration.isSqlParallelGroupByEnabled()
+                && !configuration.isSqlMapSpillEnabled()
+                && executionContext.getWorkerCount() > 1
+                && factory.supportVarSizePageFrameCursor()
+                && GroupByUtils.isMergeSupported(groupByFunctions)) {
+            final MessageBus bus = executionContext.getMessageBus();
+            return bus != null && bus.getKeyedGroupByQueue() != null;
+        }
+        return false;
+    }
+
+    private boolean isParallelHashJoinSupported(
+            RecordCursorFactory master,
+            RecordCursorFactory slave,
+            SqlExecutionContext executionContext
+    ) {
+        if (configuration.isSqlParallelHashJoinEnabled()
+                && executionContext.getWorkerCount() > 1
+                && master.supportPageFrameCursor()
+                && slave.supportPageFrameCursor()) {
+            final MessageBus bus = executionContext.getMessageBus();
+            return bus != null && bus.getHashJoinQueue() != null;
+        }
+        return false;
+    }
+
+    private boolean isParallelSampleBySupported(
+            RecordCursorFactory factory,
+            ObjList<GroupByFunction> groupByFunctions,
+            SqlExecutionContext executionContext
+    ) {
+        if (configuration.isSqlParallelSampleByEnabled()
+                && executionContext.getWorkerCount() > 1
+                && factory.supportPageFrameCursor()
+                && GroupByUtils.isMergeSupported(groupByFunctions)) {
+            final MessageBus bus = executionContext.getMessageBus();
+            return bus != null && bus.getSampleByQueue() != null;
+        }
+        return false;
+    }
+
+    private boolean isVectorSampleBySupported(RecordCursorFactory factory, TimestampSampler timestampSampler) {
+        return configuration.isSqlVectorSampleByEnabled()
+                && timestampSampler instanceof MicroTimestampSampler
+                && factory.supportPageFrameCursor();
+    }
+
+    private boolean isTimestampSeekSupported(
+            QueryModel slaveModel,
+            RecordCursorFactory slave,
+            SqlExecutionContext executionContext
+    ) {
+        if (!configuration.isSqlAsOfJoinSeekEnabled()) {
+            return false;
+        }
+
+        final RecordCursorFactory base = slave instanceof ProfiledRecordCursorFactory ? ((ProfiledRecordCursorFactory) slave).getBase() : slave;
+        if (!(base instanceof TableReaderRecordCursorFactory)
+                && !(base instanceof DataFrameRecordCursorFactory && ((DataFrameRecordCursorFactory) base).isFullTableScan())) {
+            return false;
+        }
+
+        final RecordMetadata slaveMetadata = slave.getMetadata();
+        final QueryModel tableModel = getTableModel(slaveModel);
+        if (tableModel == null) {
+            return false;
+        }
+
+        try (TableReader reader = engine.getReader(
+                executionContext.getCairoSecurityContext(),
+                tableModel.getTableName().token,
+                tableModel.getTableVersion())
+        ) {
+            final RecordMetadata readerMetadata = reader.getMetadata();
+            seekColumnIndexes.clear();
+            for (int i = 0, n = slaveMetadata.getColumnCount(); i < n; i++) {
+                final int columnIndex = readerMetadata.getColumnIndexQuiet(slaveMetadata.getColumnName(i));
+                if (columnIndex == -1) {
+                    return false;
+                }
+                seekColumnIndexes.add(columnIndex);
+            }
+
+            // slave rows are located by designated timestamp, which must not be overridden
+            if (seekColumnIndexes.getQuick(slaveMetadata.getTimestampIndex()) != readerMetadata.getTimestampIndex()) {
+                return false;
+            }
+        }
+
+        // without index rows of a key could only be found by scanning slave backwards
+        switch (listColumnFilterA.size()) {
+            case 0:
+                return true;
+            case 1:
+                final int keyIndex = listColumnFilterA.getColumnIndexFactored(0);
+                return slaveMetadata.getColumnType(keyIndex) == ColumnType.SYMBOL && slaveMetadata.isColumnIndexed(keyIndex);
+            default:
+                return false;
+        }
+    }
+
     private void lookupColumnIndexes(
             ListColumnFilter filter,
             ObjList<ExpressionNode> columnNames,
@@ -2800,5 +3485,17 @@ public class SqlCodeGenerator implements Mutable {
         addCountConstructor(ColumnType.DATE);
         addCountConstructor(ColumnType.TIMESTAMP);
         addCountConstructor(ColumnType.INT);
+
+        firstConstructors.put(ColumnType.DOUBLE, (position, keyKind, columnIndex, workerCount) -> new FirstLastVectorAggregateFunction(columnIndex, ColumnType.DOUBLE, workerCount, true));
+        firstConstructors.put(ColumnType.INT, (position, keyKind, columnIndex, workerCount) -> new FirstLastVectorAggregateFunction(columnIndex, ColumnType.INT, workerCount, true));
+        firstConstructors.put(ColumnType.LONG, (position, keyKind, columnIndex, workerCount) -> new FirstLastVectorAggregateFunction(columnIndex, ColumnType.LONG, workerCount, true));
+        firstConstructors.put(ColumnType.DATE, (position, keyKind, columnIndex, workerCount) -> new FirstLastVectorAggregateFunction(columnIndex, ColumnType.DATE, workerCount, true));
+        firstConstructors.put(ColumnType.TIMESTAMP, (position, keyKind, columnIndex, workerCount) -> new FirstLastVectorAggregateFunction(columnIndex, ColumnType.TIMESTAMP, workerCount, true));
+
+        lastConstructors.put(ColumnType.DOUBLE, (position, keyKind, columnIndex, workerCount) -> new FirstLastVectorAggregateFunction(columnIndex, ColumnType.DOUBLE, workerCount, false));
+        lastConstructors.put(ColumnType.INT, (position, keyKind, columnIndex, workerCount) -> new FirstLastVectorAggregateFunction(columnIndex, ColumnType.INT, workerCount, false));
+        lastConstructors.put(ColumnType.LONG, (position, keyKind, columnIndex, workerCount) -> new FirstLastVectorAggregateFunction(columnIndex, ColumnType.LONG, workerCount, false));
+        lastConstructors.put(ColumnType.DATE, (position, keyKind, columnIndex, workerCount) -> new FirstLastVectorAggregateFunction(columnIndex, ColumnType.DATE, workerCount, false));
+        lastConstructors.put(ColumnType.TIMESTAMP, (position, keyKind, columnIndex, workerCount) -> new FirstLastVectorAggregateFunction(columnIndex, ColumnType.TIMESTAMP, workerCount, false));
     }
 }
@@ -32,6 +32,8 @@ import io.questdb.cutlass.text.TextException;
 import io.questdb.cutlass.text.TextLoader;
 import io.questdb.griffin.engine.functions.catalogue.ShowStandardConformingStringsCursorFactory;
 import io.questdb.griffin.engine.functions.catalogue.ShowTransactionIsolationLevelCursorFactory;
+import io.questdb.griffin.engine.profile.ProfiledRecordCursorFactory;
+import io.questdb.griffin.engine.profile.QueryProfileRecordCursorFactory;
 import io.questdb.griffin.engine.table.ShowColumnsRecordCursorFactory;
 import io.questdb.griffin.engine.table.TableListRecordCursorFactory;
 import io.questdb.griffin.model.*;
@@ -85,6 +87,7 @@ public class SqlCompiler implements Closeable {
     private final NativeLPSZ nativeLPSZ = new NativeLPSZ();
     private final CharSequenceObjHashMap<RecordToRowCopier> tableBackupRowCopieCache = new CharSequenceObjHashMap<>();
     private transient SqlExecutionContext currentExecutionContext;
+    private boolean profile = false;
     private transient String cachedTmpBackupRoot;
     private final FindVisitor sqlDatabaseBackupOnFind = (file, type) -> {
         nativeLPSZ.of(file);
@@ -146,6 +149,8 @@ public class SqlCompiler implements Closeable {
         keywordBasedExecutors.put("BACKUP", this::sqlBackup);
         keywordBasedExecutors.put("show", this::sqlShow);
         keywordBasedExecutors.put("SHOW", this::sqlShow);
+        keywordBasedExecutors.put("explain", this::sqlExplain);
+        keywordBasedExecutors.put("EXPLAIN", this::sqlExplain);
 
         configureLexer(lexer);
 
@@ -229,6 +234,21 @@ public class SqlCompiler implements Closeable {
         return executor.execute(executionContext);
     }
 
+    /**
+     * Compiles query in the same way as {@link #compile(CharSequence, SqlExecutionContext)}, except that
+     * factories of SELECT query plan are wrapped in profiling decorators. Factory of the compiled query
+     * is then {@link ProfiledRecordCursorFactory}, which is the root of profiled plan.
+     */
+    @NotNull
+    public CompiledQuery compileProfiled(@NotNull CharSequence query, @NotNull SqlExecutionContext executionContext) throws SqlException {
+        profile = true;
+        try {
+            return compile(query, executionContext);
+        } finally {
+            profile = false;
+        }
+    }
+
     public CairoEngine getEngine() {
         return engine;
     }
@@ -746,6 +766,10 @@ public class SqlCompiler implements Closeable {
 
                 if (SqlKeywords.isAddKeyword(tok)) {
                     alterTableAddColumn(tableNamePosition, writer);
+                } else if (SqlKeywords.isCompressKeyword(tok)) {
+                    expectKeyword(lexer, "partition");
+                    expectKeyword(lexer, "list");
+                    alterTableCompressPartitionByList(writer);
                 } else if (SqlKeywords.isDropKeyword(tok)) {
                     tok = expectToken(lexer, "'column' or 'partition'");
                     if (SqlKeywords.isColumnKeyword(tok)) {
@@ -768,10 +792,16 @@ public class SqlCompiler implements Closeable {
                         final int columnNameNamePosition = lexer.getPosition();
                         tok = expectToken(lexer, "column name");
                         final CharSequence columnName = GenericLexer.immutableOf(tok);
-                        tok = expectToken(lexer, "'add index' or 'cache' or 'nocache'");
+                        tok = expectToken(lexer, "'add index', 'add latest', 'cache' or 'nocache'");
                         if (SqlKeywords.isAddKeyword(tok)) {
-                            expectKeyword(lexer, "index");
-                            alterTableColumnAddIndex(tableNamePosition, columnNameNamePosition, columnName, writer);
+                            tok = expectToken(lexer, "'index' or 'latest'");
+                            if (SqlKeywords.isIndexKeyword(tok)) {
+                                alterTableColumnAddIndex(tableNamePosition, columnNameNamePosition, columnName, writer);
+                            } else if (SqlKeywords.isLatestKeyword(tok)) {
+                                alterTableColumnAddLatestRows(tableNamePosition, columnNameNamePosition, columnName, writer);
+                            } else {
+                                throw SqlException.$(lexer.lastTokenPosition(), "'index' or 'latest' expected");
+                            }
                         } else {
                             if (SqlKeywords.isCacheKeyword(tok)) {
                                 alterTableColumnCacheFlag(tableNamePosition, columnName, writer, true);
@@ -970,6 +1000,18 @@ public class SqlCompiler implements Closeable {
         }
     }
 
+    private void alterTableColumnAddLatestRows(int tableNamePosition, int columnNamePosition, CharSequence columnName, TableWriter w) throws SqlException {
+        try {
+            if (w.getMetadata().getColumnIndexQuiet(columnName) == -1) {
+                throw SqlException.invalidColumn(columnNamePosition, columnName);
+            }
+            w.addLatestRows(columnName);
+        } catch (CairoException e) {
+            throw SqlException.position(tableNamePosition).put(e.getFlyweightMessage())
+                    .put("[errno=").put(e.getErrno()).put(']');
+        }
+    }
+
     private void alterTableColumnCacheFlag(int tableNamePosition, CharSequence columnName, TableWriter writer, boolean cache) throws SqlException {
         try {
             RecordMetadata metadata = writer.getMetadata();
@@ -1043,6 +1085,38 @@ public class SqlCompiler implements Closeable {
         }
     }
 
+    private void alterTableCompressPartitionByList(TableWriter writer) throws SqlException {
+        do {
+            CharSequence tok = expectToken(lexer, "partition name");
+            if (Chars.equals(tok, ',')) {
+                throw SqlException.$(lexer.lastTokenPosition(), "partition name missing");
+            }
+            final CharSequence unquoted = GenericLexer.unquote(tok);
+
+            final long timestamp;
+            try {
+                timestamp = writer.partitionNameToTimestamp(unquoted);
+            } catch (CairoException e) {
+                throw SqlException.$(lexer.lastTokenPosition(), e.getFlyweightMessage())
+                        .put("[errno=").put(e.getErrno()).put(']');
+            }
+
+            if (!writer.compressPartition(timestamp)) {
+                throw SqlException.$(lexer.lastTokenPosition(), "could not compress partition '").put(unquoted).put('\'');
+            }
+
+            tok = SqlUtil.fetchNext(lexer);
+
+            if (tok == null) {
+                break;
+            }
+
+            if (!Chars.equals(tok, ',')) {
+                throw SqlException.$(lexer.lastTokenPosition(), "',' expected");
+            }
+        } while (true);
+    }
+
     private void alterTableDropPartitionByList(TableWriter writer) throws SqlException {
         do {
             CharSequence tok = expectToken(lexer, "partition name");
@@ -1260,6 +1334,9 @@ public class SqlCompiler implements Closeable {
         switch (executionModel.getModelType()) {
             case ExecutionModel.QUERY:
                 LOG.info().$("plan [q=`").$((QueryModel) executionModel).$("`, fd=").$(executionContext.getRequestFd()).$(']').$();
+                if (profile) {
+                    return compiledQuery.of(codeGenerator.generateProfiled((QueryModel) executionModel, executionContext));
+                }
                 return compiledQuery.of(generate((QueryModel) executionModel, executionContext));
             case ExecutionModel.CREATE_TABLE:
                 return createTableWithRetries(executionModel, executionContext);
@@ -1476,7 +1553,7 @@ public class SqlCompiler implements Closeable {
 
     @NotNull
     private CompiledQuery executeCopy(SqlExecutionContext executionContext, CopyModel executionModel) throws SqlException {
-        setupTextLoaderFromModel(executionModel);
+        setupTextLoaderFromModel(executionContext, executionModel);
         if (Chars.equalsLowerCaseAscii(executionModel.getFileName().token, "stdin")) {
             return compiledQuery.ofCopyRemote(textLoader);
         }
@@ -1793,13 +1870,16 @@ public class SqlCompiler implements Closeable {
         }
     }
 
-    private void setupTextLoaderFromModel(CopyModel model) {
+    private void setupTextLoaderFromModel(SqlExecutionContext executionContext, CopyModel model) {
         textLoader.clear();
         textLoader.setState(TextLoader.ANALYZE_STRUCTURE);
         // todo: configure the following
         //   - when happens when data row errors out, max errors may be?
         //   - we should be able to skip X rows from top, dodgy headers etc.
         textLoader.configureDestination(model.getTableName().token, false, false, Atomicity.SKIP_ROW, PartitionBy.NONE, null);
+        if (model.isParallel()) {
+            textLoader.setParallel(executionContext.getMessageBus(), executionContext.getWorkerCount());
+        }
     }
 
     private CompiledQuery sqlBackup(SqlExecutionContext executionContext) throws SqlException {
@@ -1832,6 +1912,30 @@ public class SqlCompiler implements Closeable {
         }
     }
 
+    private CompiledQuery sqlExplain(SqlExecutionContext executionContext) throws SqlException {
+        CharSequence tok = SqlUtil.fetchNext(lexer);
+        if (tok == null || !isAnalyzeKeyword(tok)) {
+            throw SqlException.position(tok == null ? lexer.getPosition() : lexer.lastTokenPosition()).put("'analyze' expected");
+        }
+
+        if (SqlUtil.fetchNext(lexer) == null) {
+            throw SqlException.position(lexer.getPosition()).put("query expected");
+        }
+        final int queryPosition = lexer.lastTokenPosition();
+        lexer.unparse();
+        codeGenerator.clear();
+
+        final ExecutionModel executionModel = compileExecutionModel(executionContext);
+        if (executionModel.getModelType() != ExecutionModel.QUERY) {
+            throw SqlException.position(queryPosition).put("select query expected");
+        }
+        return compiledQuery.of(
+                new QueryProfileRecordCursorFactory(
+                        codeGenerator.generateProfiled((QueryModel) executionModel, executionContext)
+                )
+        );
+    }
+
     private CompiledQuery sqlShow(SqlExecutionContext executionContext) throws SqlException {
         final CharSequence tok = SqlUtil.fetchNext(lexer);
         if (null != tok) {
@@ -30,6 +30,7 @@ import io.questdb.cairo.PartitionBy;
 import io.questdb.cairo.TableUtils;
 import io.questdb.griffin.model.*;
 import io.questdb.std.*;
+import io.questdb.std.microtime.Timestamps;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -313,6 +314,84 @@ public final class SqlParser {
         return model;
     }
 
+    private CharSequence parseAnalyticFrame(GenericLexer lexer, AnalyticColumn col, int framingMode) throws SqlException {
+        // frame can be either "rows|range <start>" or "rows|range between <start> and current row",
+        // where start is one of "unbounded preceding", "<offset> preceding" or "current row"
+        CharSequence tok = tok(lexer, "'between', 'unbounded', 'current' or offset");
+        final boolean between = isBetweenKeyword(tok);
+        if (between) {
+            tok = tok(lexer, "'unbounded', 'current' or offset");
+        }
+
+        final int loPosition = lexer.lastTokenPosition();
+        final long lo;
+        if (isUnboundedKeyword(tok)) {
+            expectTok(lexer, "preceding");
+            lo = AnalyticColumn.FRAME_UNBOUNDED;
+        } else if (isCurrentKeyword(tok)) {
+            expectTok(lexer, "row");
+            lo = 0;
+        } else {
+            lo = parseAnalyticFrameOffset(tok, loPosition, framingMode);
+            expectTok(lexer, "preceding");
+        }
+
+        if (between) {
+            expectTok(lexer, "and");
+            tok = tok(lexer, "'current'");
+            if (!isCurrentKeyword(tok)) {
+                throw SqlException.$(lexer.lastTokenPosition(), "frame must end at current row");
+            }
+            expectTok(lexer, "row");
+        }
+        col.setFrame(framingMode, lo, loPosition);
+        return tok(lexer, "')'");
+    }
+
+    private long parseAnalyticFrameOffset(CharSequence tok, int position, int framingMode) throws SqlException {
+        // ROWS frame offset is number of rows. RANGE frame offset is either number of
+        // timestamp units or interval with single letter qualifier, e.g. '10s' or '1h'
+        final int len = tok.length();
+        int k = 0;
+        while (k < len && tok.charAt(k) >= '0' && tok.charAt(k) <= '9') {
+            k++;
+        }
+
+        if (k == 0) {
+            throw SqlException.$(position, "frame offset expected");
+        }
+
+        final long n;
+        try {
+            n = Numbers.parseLong(tok, 0, k);
+        } catch (NumericException e) {
+            throw SqlException.$(position, "invalid frame offset");
+        }
+
+        if (k == len) {
+            return n;
+        }
+
+        if (framingMode != AnalyticColumn.FRAMING_RANGE || k + 1 < len) {
+            throw SqlException.$(position, "invalid frame offset");
+        }
+
+        switch (tok.charAt(k)) {
+            case 'T':
+                return n * Timestamps.MILLI_MICROS;
+            case 's':
+                return n * Timestamps.SECOND_MICROS;
+            case 'm':
+                return n * Timestamps.MINUTE_MICROS;
+            case 'h':
+                return n * Timestamps.HOUR_MICROS;
+            case 'd':
+                return n * Timestamps.DAY_MICROS;
+            default:
+                throw SqlException.$(position + k, "unsupported interval qualifier");
+        }
+    }
+
     private QueryModel parseAsSubQueryAndExpectClosingBrace(GenericLexer lexer, LowerCaseCharSequenceObjHashMap<WithClauseModel> withClauses) throws SqlException {
         final QueryModel model = parseAsSubQuery(lexer, withClauses);
         expectTok(lexer, ')');
@@ -342,6 +421,9 @@ public final class SqlParser {
                     if (isHeaderKeyword(tok)) {
                         model.setHeader(isTrueKeyword(tok(lexer, "'true' or 'false'")));
                         tok = optTok(lexer);
+                    } else if (isParallelKeyword(tok)) {
+                        model.setParallel(isTrueKeyword(tok(lexer, "'true' or 'false'")));
+                        tok = optTok(lexer);
                     } else {
                         throw SqlException.$(lexer.lastTokenPosition(), "unexpected option");
                     }
@@ -395,7 +477,7 @@ public final class SqlParser {
         ExpressionNode partitionBy = parseCreateTablePartition(lexer, tok);
         if (partitionBy != null) {
             if (PartitionBy.fromString(partitionBy.token) == -1) {
-                throw SqlException.$(partitionBy.position, "'NONE', 'DAY', 'MONTH' or 'YEAR' expected");
+                throw SqlException.$(partitionBy.position, "'NONE', 'HOUR', 'DAY', 'MONTH' or 'YEAR' expected");
             }
             model.setPartitionBy(partitionBy);
             tok = optTok(lexer);
@@ -1157,6 +1239,12 @@ public final class SqlParser {
                         }
                     } while (Chars.equals(tok, ','));
                 }
+
+                if (isRowsKeyword(tok)) {
+                    tok = parseAnalyticFrame(lexer, (AnalyticColumn) col, AnalyticColumn.FRAMING_ROWS);
+                } else if (isRangeKeyword(tok)) {
+                    tok = parseAnalyticFrame(lexer, (AnalyticColumn) col, AnalyticColumn.FRAMING_RANGE);
+                }
                 expectTok(tok, lexer.lastTokenPosition(), ')');
 //                model.addBottomUpColumn(col);
 //                tok = tok(lexer, "'from' or ','");
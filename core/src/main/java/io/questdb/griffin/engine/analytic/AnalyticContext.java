@@ -38,4 +38,21 @@ public interface AnalyticContext {
     boolean isOrdered();
 
     boolean baseSupportsRandomAccess();
+
+    /**
+     * @return one of AnalyticColumn.FRAMING_* constants
+     */
+    int getFramingMode();
+
+    /**
+     * @return number of rows (ROWS frame) or timestamp units (RANGE frame) the frame starts
+     * before current row, AnalyticColumn.FRAME_UNBOUNDED for unbounded frames
+     */
+    long getFrameLo();
+
+    /**
+     * @return index of timestamp column in the record function is given, the record order
+     * is ascending on this column. -1 when frame is not time based.
+     */
+    int getTimestampIndex();
 }
@@ -33,6 +33,17 @@ public interface AnalyticFunction extends Function {
     int TWO_PASS = 2;
     int THREE_PASS = 3;
 
+    /**
+     * Number of passes over the cached record chain the function needs. {@link #STREAM} functions
+     * compute their value in {@link #pass1(Record, long, AnalyticSPI)}, {@link #TWO_PASS} functions
+     * also need {@link #pass2(Record)} to be called for every record after pass1 is complete.
+     *
+     * @return number of passes
+     */
+    default int getPassCount() {
+        return STREAM;
+    }
+
     void pass1(Record record, long recordOffset, AnalyticSPI spi);
 
     void preparePass2(RecordCursor cursor);
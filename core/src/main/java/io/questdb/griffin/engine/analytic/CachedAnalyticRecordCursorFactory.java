@@ -29,9 +29,11 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.RecordComparator;
 import io.questdb.griffin.engine.orderby.LongTreeChain;
+import io.questdb.std.IntList;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
 import io.questdb.std.Transient;
@@ -45,9 +47,11 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
     private final ObjList<ObjList<AnalyticFunction>> orderedFunctions;
     @Nullable private final ObjList<AnalyticFunction> unorderedFunctions;
     private final ObjList<AnalyticFunction> allFunctions;
+    private final ObjList<AnalyticFunction> twoPassFunctions;
     private final ObjList<RecordComparator> comparators;
     private final GenericRecordMetadata metadata;
     private final Record recordChainRecord;
+    private final CachedAnalyticRecordCursor cursor;
     private boolean closed = false;
 
     public CachedAnalyticRecordCursorFactory(
@@ -56,6 +60,7 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
             RecordSink recordSink,
             GenericRecordMetadata metadata,
             @Transient ColumnTypes chainMetadata,
+            IntList columnCrossIndex,
             ObjList<RecordComparator> comparators,
             ObjList<ObjList<AnalyticFunction>> orderedFunctions,
             @Nullable ObjList<AnalyticFunction> unorderedFunctions
@@ -93,10 +98,20 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
             allFunctions.addAll(unorderedFunctions);
         }
 
+        this.twoPassFunctions = new ObjList<>();
+        for (int i = 0, n = allFunctions.size(); i < n; i++) {
+            final AnalyticFunction f = allFunctions.getQuick(i);
+            if (f.getPassCount() == AnalyticFunction.TWO_PASS) {
+                twoPassFunctions.add(f);
+            }
+        }
+
         // create our metadata and also flatten functions for our record representation
         this.metadata = metadata;
         this.recordChainRecord = recordChain.getRecord();
         this.unorderedFunctions = unorderedFunctions;
+        this.cursor = new CachedAnalyticRecordCursor(columnCrossIndex);
+        this.recordChain.setSymbolTableResolver(cursor);
     }
 
     @Override
@@ -118,6 +133,7 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
         resetFunctions();
 
         final RecordCursor baseCursor = base.getCursor(executionContext);
+        cursor.of(baseCursor);
 
         // step #1: store source cursor in record list
         // - add record list' row ids to all trees, which will put these row ids in necessary order
@@ -168,8 +184,19 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
             }
         }
 
+        // step #3: functions that need to see all records before they can
+        // produce their value, write their values in the second pass
+        for (int j = 0, n = twoPassFunctions.size(); j < n; j++) {
+            final AnalyticFunction f = twoPassFunctions.getQuick(j);
+            f.preparePass2(recordChain);
+            recordChain.toTop();
+            while (recordChain.hasNext()) {
+                f.pass2(recordChainRecord);
+            }
+        }
+
         recordChain.toTop();
-        return recordChain;
+        return cursor;
     }
 
     private void resetFunctions() {
@@ -193,4 +220,58 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
     public boolean recordCursorSupportsRandomAccess() {
         return base.recordCursorSupportsRandomAccess();
     }
+
+    private class CachedAnalyticRecordCursor implements RecordCursor {
+        private final IntList columnCrossIndex;
+        private RecordCursor baseCursor;
+
+        public CachedAnalyticRecordCursor(IntList columnCrossIndex) {
+            this.columnCrossIndex = columnCrossIndex;
+        }
+
+        @Override
+        public void close() {
+            baseCursor = Misc.free(baseCursor);
+        }
+
+        @Override
+        public Record getRecord() {
+            return recordChain.getRecord();
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            // chain stores symbol keys, values are in symbol tables of the base cursor
+            return baseCursor.getSymbolTable(columnCrossIndex.getQuick(columnIndex));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return recordChain.hasNext();
+        }
+
+        @Override
+        public Record getRecordB() {
+            return recordChain.getRecordB();
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            recordChain.recordAt(record, atRowId);
+        }
+
+        @Override
+        public void toTop() {
+            recordChain.toTop();
+        }
+
+        @Override
+        public long size() {
+            return recordChain.size();
+        }
+
+        private void of(RecordCursor baseCursor) {
+            this.baseCursor = baseCursor;
+        }
+    }
 }
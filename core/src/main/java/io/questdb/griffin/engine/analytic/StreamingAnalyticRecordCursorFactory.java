@@ -0,0 +1,163 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.analytic;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.SelectedRecord;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+/**
+ * Computes window functions in a single pass over base cursor, which is already
+ * in the order of the functions. Unlike {@link CachedAnalyticRecordCursorFactory}
+ * base records are not copied, memory footprint is that of function frames.
+ */
+public class StreamingAnalyticRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final ObjList<Function> functions;
+    private final StreamingAnalyticRecordCursor cursor;
+
+    /**
+     * @param metadata          metadata of this factory
+     * @param base              factory of records in the order of all window functions
+     * @param columnCrossIndex  maps columns of the record functions are parsed against to base columns
+     * @param functions         functions for each column of this factory, either column references or window functions
+     * @param windowFunctions   window functions to be advanced for every base record
+     */
+    public StreamingAnalyticRecordCursorFactory(
+            RecordMetadata metadata,
+            RecordCursorFactory base,
+            IntList columnCrossIndex,
+            ObjList<Function> functions,
+            ObjList<WindowFunction> windowFunctions
+    ) {
+        super(metadata);
+        this.base = base;
+        this.functions = functions;
+        this.cursor = new StreamingAnalyticRecordCursor(columnCrossIndex, functions, windowFunctions);
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjList(functions);
+        Misc.free(base);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        cursor.of(base.getCursor(executionContext), executionContext);
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    private static class StreamingAnalyticRecordCursor implements RecordCursor {
+        private final IntList columnCrossIndex;
+        private final ObjList<Function> functions;
+        private final ObjList<WindowFunction> windowFunctions;
+        private final SelectedRecord baseRecord;
+        private final VirtualRecord record;
+        private RecordCursor baseCursor;
+
+        public StreamingAnalyticRecordCursor(
+                IntList columnCrossIndex,
+                ObjList<Function> functions,
+                ObjList<WindowFunction> windowFunctions
+        ) {
+            this.columnCrossIndex = columnCrossIndex;
+            this.functions = functions;
+            this.windowFunctions = windowFunctions;
+            this.baseRecord = new SelectedRecord(columnCrossIndex);
+            this.record = new VirtualRecordNoRowid(functions);
+            this.record.of(baseRecord);
+        }
+
+        @Override
+        public void close() {
+            baseCursor = Misc.free(baseCursor);
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return baseCursor.getSymbolTable(columnCrossIndex.getQuick(columnIndex));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (baseCursor.hasNext()) {
+                for (int i = 0, n = windowFunctions.size(); i < n; i++) {
+                    windowFunctions.getQuick(i).computeNext(baseRecord);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Record getRecordB() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void toTop() {
+            baseCursor.toTop();
+            resetFunctions();
+        }
+
+        @Override
+        public long size() {
+            return baseCursor.size();
+        }
+
+        private void of(RecordCursor baseCursor, SqlExecutionContext executionContext) {
+            this.baseCursor = baseCursor;
+            baseRecord.of(baseCursor.getRecord());
+            resetFunctions();
+            Function.init(functions, this, executionContext);
+        }
+
+        private void resetFunctions() {
+            for (int i = 0, n = windowFunctions.size(); i < n; i++) {
+                windowFunctions.getQuick(i).reset();
+            }
+        }
+    }
+}
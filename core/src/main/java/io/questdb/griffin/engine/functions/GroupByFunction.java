@@ -49,10 +49,35 @@ public interface GroupByFunction extends Function {
 
     void computeNext(MapValue mapValue, Record record);
 
+    /**
+     * Merge support is required by maps that spill partial aggregates to disk
+     * and fold them back together when the result is read, as well as by
+     * parallel group-by, which aggregates rows of every worker into its own map.
+     *
+     * @return true when {@link #merge(MapValue, MapValue)} is implemented
+     */
+    default boolean isMergeSupported() {
+        return false;
+    }
+
     default boolean isScalar() {
         return true;
     }
 
+    /**
+     * Folds partial aggregate of srcValue into destValue. Both values are built by
+     * computeFirst() and computeNext() over disjoint sets of rows of the same key,
+     * rows behind destValue precede rows behind srcValue. Values can be built by
+     * different copies of the function, which is why merge must not rely on state
+     * kept outside of map value.
+     *
+     * @param destValue value to merge into
+     * @param srcValue  value to merge from, it is left intact
+     */
+    default void merge(MapValue destValue, MapValue srcValue) {
+        throw new UnsupportedOperationException();
+    }
+
     void pushValueTypes(ArrayColumnTypes columnTypes);
 
     default void setByte(MapValue mapValue, byte value) {
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.analytic.WindowFunction;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+public class CountWindowFunctionFactory implements FunctionFactory {
+    @Override
+    public String getSignature() {
+        return "count()";
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
+        final AnalyticContext analyticContext = sqlExecutionContext.getAnalyticContext();
+        return new CountWindowFunction(
+                position,
+                WindowFrame.newInstance(configuration, analyticContext),
+                WindowFrame.isWholePartition(analyticContext)
+        );
+    }
+
+    private static class CountWindowFunction extends LongFunction implements WindowFunction {
+        private final WindowFrame frame;
+        private final boolean wholePartition;
+        private int columnIndex;
+        private long value;
+        private AnalyticSPI spi;
+
+        public CountWindowFunction(int position, WindowFrame frame, boolean wholePartition) {
+            super(position);
+            this.frame = frame;
+            this.wholePartition = wholePartition;
+        }
+
+        @Override
+        public void close() {
+            Misc.free(frame);
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            value = frame.next(record, 0, Double.NaN).getRowCount();
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return value;
+        }
+
+        @Override
+        public int getPassCount() {
+            return wholePartition ? TWO_PASS : STREAM;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+            frame.init(symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            computeNext(record);
+            if (wholePartition) {
+                this.spi = spi;
+            } else {
+                Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), value);
+            }
+        }
+
+        @Override
+        public void pass2(Record record) {
+            Unsafe.getUnsafe().putLong(spi.getAddress(record.getRowId(), columnIndex), frame.find(record).getRowCount());
+        }
+
+        @Override
+        public void preparePass2(RecordCursor cursor) {
+        }
+
+        @Override
+        public void reset() {
+            frame.clear();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+    }
+}
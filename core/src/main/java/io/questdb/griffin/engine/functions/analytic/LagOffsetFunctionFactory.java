@@ -0,0 +1,114 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+
+public class LagOffsetFunctionFactory implements FunctionFactory {
+    @Override
+    public String getSignature() {
+        return "lag(Di)";
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        return newInstance(position, args.getQuick(0), offsetOf(args.getQuick(1)), ColumnType.DOUBLE, configuration, sqlExecutionContext);
+    }
+
+    static Function newInstance(int position, Function arg, int offset, int type, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
+        // frame of offset preceding rows and the current row, lag is the first row of the full frame
+        final WindowFrame frame = WindowFrame.newRowsInstance(configuration, sqlExecutionContext.getAnalyticContext(), offset, type);
+        switch (type) {
+            case ColumnType.LONG:
+                return new LagLongFunction(position, arg, frame, offset);
+            case ColumnType.TIMESTAMP:
+                return new LagTimestampFunction(position, arg, frame, offset);
+            default:
+                return new LagFunction(position, arg, frame, offset);
+        }
+    }
+
+    static int offsetOf(Function offset) throws SqlException {
+        final int rows = offset.getInt(null);
+        if (rows < 1) {
+            throw SqlException.$(offset.getPosition(), "positive offset expected");
+        }
+        return rows;
+    }
+
+    private static class LagFunction extends DoubleWindowFunction {
+        private final int offset;
+
+        public LagFunction(int position, Function arg, WindowFrame frame, int offset) {
+            super(position, arg, frame, false);
+            this.offset = offset;
+        }
+
+        @Override
+        protected double valueOf(WindowFrameState state) {
+            return state.getRowCount() > offset ? state.getFirst() : Double.NaN;
+        }
+    }
+
+    private static class LagLongFunction extends LongWindowFunction {
+        private final int offset;
+
+        public LagLongFunction(int position, Function arg, WindowFrame frame, int offset) {
+            super(position, arg, frame, false);
+            this.offset = offset;
+        }
+
+        @Override
+        protected long valueOf(WindowFrameState state) {
+            return state.getRowCount() > offset ? state.getFirstLong() : Numbers.LONG_NaN;
+        }
+    }
+
+    private static class LagTimestampFunction extends TimestampWindowFunction {
+        private final int offset;
+
+        public LagTimestampFunction(int position, Function arg, WindowFrame frame, int offset) {
+            super(position, arg, frame, false);
+            this.offset = offset;
+        }
+
+        @Override
+        protected long valueOf(WindowFrameState state) {
+            return state.getRowCount() > offset ? state.getFirstLong() : Numbers.LONG_NaN;
+        }
+    }
+}
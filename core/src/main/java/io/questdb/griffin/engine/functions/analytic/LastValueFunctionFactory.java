@@ -0,0 +1,97 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.std.ObjList;
+
+public class LastValueFunctionFactory implements FunctionFactory {
+    @Override
+    public String getSignature() {
+        return "last_value(D)";
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
+        return newInstance(position, args.getQuick(0), ColumnType.DOUBLE, configuration, sqlExecutionContext);
+    }
+
+    static Function newInstance(int position, Function arg, int type, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
+        final AnalyticContext analyticContext = sqlExecutionContext.getAnalyticContext();
+        final WindowFrame frame = WindowFrame.newInstance(configuration, analyticContext, type);
+        final boolean wholePartition = WindowFrame.isWholePartition(analyticContext);
+        switch (type) {
+            case ColumnType.LONG:
+                return new LastValueLongFunction(position, arg, frame, wholePartition);
+            case ColumnType.TIMESTAMP:
+                return new LastValueTimestampFunction(position, arg, frame, wholePartition);
+            default:
+                return new LastValueFunction(position, arg, frame, wholePartition);
+        }
+    }
+
+    private static class LastValueFunction extends DoubleWindowFunction {
+        public LastValueFunction(int position, Function arg, WindowFrame frame, boolean wholePartition) {
+            super(position, arg, frame, wholePartition);
+        }
+
+        @Override
+        protected double valueOf(WindowFrameState state) {
+            return state.getLast();
+        }
+    }
+
+    private static class LastValueLongFunction extends LongWindowFunction {
+        public LastValueLongFunction(int position, Function arg, WindowFrame frame, boolean wholePartition) {
+            super(position, arg, frame, wholePartition);
+        }
+
+        @Override
+        protected long valueOf(WindowFrameState state) {
+            return state.getLastLong();
+        }
+    }
+
+    private static class LastValueTimestampFunction extends TimestampWindowFunction {
+        public LastValueTimestampFunction(int position, Function arg, WindowFrame frame, boolean wholePartition) {
+            super(position, arg, frame, wholePartition);
+        }
+
+        @Override
+        protected long valueOf(WindowFrameState state) {
+            return state.getLastLong();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.functions.TimestampFunction;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+public class LeadOffsetFunctionFactory implements FunctionFactory {
+    @Override
+    public String getSignature() {
+        return "lead(Di)";
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        return newInstance(position, args.getQuick(0), LagOffsetFunctionFactory.offsetOf(args.getQuick(1)), ColumnType.DOUBLE, configuration, sqlExecutionContext);
+    }
+
+    static Function newInstance(int position, Function arg, int offset, int type, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
+        final WindowFrame frame = WindowFrame.newRowsInstance(configuration, sqlExecutionContext.getAnalyticContext(), offset, type);
+        switch (type) {
+            case ColumnType.LONG:
+                return new LeadLongFunction(position, arg, frame, offset);
+            case ColumnType.TIMESTAMP:
+                return new LeadTimestampFunction(position, arg, frame, offset);
+            default:
+                return new LeadFunction(position, arg, frame, offset);
+        }
+    }
+
+    // Lead value is not known until "offset" more records of the partition are seen. The function
+    // keeps chain offsets of records waiting for their value in the frame and writes the value
+    // into the first record of the frame once the frame is full. This makes lead() unsuitable
+    // for streaming, records have to be cached.
+    private static class LeadFunction extends DoubleFunction implements AnalyticFunction {
+        private final Function arg;
+        private final WindowFrame frame;
+        private final int offset;
+        private int columnIndex;
+
+        public LeadFunction(int position, Function arg, WindowFrame frame, int offset) {
+            super(position);
+            this.arg = arg;
+            this.frame = frame;
+            this.offset = offset;
+        }
+
+        @Override
+        public void close() {
+            Misc.free(arg);
+            Misc.free(frame);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            // not called
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+            arg.init(symbolTableSource, executionContext);
+            frame.init(symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), Double.NaN);
+            final WindowFrameState state = frame.next(record, recordOffset, arg.getDouble(record));
+            if (state.getRowCount() > offset) {
+                Unsafe.getUnsafe().putDouble(spi.getAddress(state.getFirstTag(), columnIndex), state.getLast());
+            }
+        }
+
+        @Override
+        public void pass2(Record record) {
+        }
+
+        @Override
+        public void preparePass2(RecordCursor cursor) {
+        }
+
+        @Override
+        public void reset() {
+            frame.clear();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+    }
+
+    private static class LeadLongFunction extends LongFunction implements AnalyticFunction {
+        private final Function arg;
+        private final WindowFrame frame;
+        private final int offset;
+        private int columnIndex;
+
+        public LeadLongFunction(int position, Function arg, WindowFrame frame, int offset) {
+            super(position);
+            this.arg = arg;
+            this.frame = frame;
+            this.offset = offset;
+        }
+
+        @Override
+        public void close() {
+            Misc.free(arg);
+            Misc.free(frame);
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            // not called
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+            arg.init(symbolTableSource, executionContext);
+            frame.init(symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), Numbers.LONG_NaN);
+            final WindowFrameState state = frame.nextLong(record, recordOffset, arg.getLong(record));
+            if (state.getRowCount() > offset) {
+                Unsafe.getUnsafe().putLong(spi.getAddress(state.getFirstTag(), columnIndex), state.getLastLong());
+            }
+        }
+
+        @Override
+        public void pass2(Record record) {
+        }
+
+        @Override
+        public void preparePass2(RecordCursor cursor) {
+        }
+
+        @Override
+        public void reset() {
+            frame.clear();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+    }
+
+    private static class LeadTimestampFunction extends TimestampFunction implements AnalyticFunction {
+        private final Function arg;
+        private final WindowFrame frame;
+        private final int offset;
+        private int columnIndex;
+
+        public LeadTimestampFunction(int position, Function arg, WindowFrame frame, int offset) {
+            super(position);
+            this.arg = arg;
+            this.frame = frame;
+            this.offset = offset;
+        }
+
+        @Override
+        public void close() {
+            Misc.free(arg);
+            Misc.free(frame);
+        }
+
+        @Override
+        public long getTimestamp(Record rec) {
+            // not called
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+            arg.init(symbolTableSource, executionContext);
+            frame.init(symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), Numbers.LONG_NaN);
+            final WindowFrameState state = frame.nextLong(record, recordOffset, arg.getTimestamp(record));
+            if (state.getRowCount() > offset) {
+                Unsafe.getUnsafe().putLong(spi.getAddress(state.getFirstTag(), columnIndex), state.getLastLong());
+            }
+        }
+
+        @Override
+        public void pass2(Record record) {
+        }
+
+        @Override
+        public void preparePass2(RecordCursor cursor) {
+        }
+
+        @Override
+        public void reset() {
+            frame.clear();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+    }
+}
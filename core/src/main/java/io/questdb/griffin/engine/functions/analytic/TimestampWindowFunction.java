@@ -0,0 +1,112 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.WindowFunction;
+import io.questdb.griffin.engine.functions.TimestampFunction;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+
+/**
+ * Base of window functions that compute timestamp value out of the frame of the current record.
+ * When the frame is the whole partition the value is written in the second pass, after
+ * all records of the partition are added to the frame.
+ */
+abstract class TimestampWindowFunction extends TimestampFunction implements WindowFunction {
+    protected final Function arg;
+    private final WindowFrame frame;
+    private final boolean wholePartition;
+    private int columnIndex;
+    private long value;
+    private AnalyticSPI spi;
+
+    TimestampWindowFunction(int position, Function arg, WindowFrame frame, boolean wholePartition) {
+        super(position);
+        this.arg = arg;
+        this.frame = frame;
+        this.wholePartition = wholePartition;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(arg);
+        Misc.free(frame);
+    }
+
+    @Override
+    public void computeNext(Record record) {
+        value = valueOf(frame.nextLong(record, 0, arg.getTimestamp(record)));
+    }
+
+    @Override
+    public long getTimestamp(Record rec) {
+        return value;
+    }
+
+    @Override
+    public int getPassCount() {
+        return wholePartition ? TWO_PASS : STREAM;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+        arg.init(symbolTableSource, executionContext);
+        frame.init(symbolTableSource, executionContext);
+    }
+
+    @Override
+    public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+        if (wholePartition) {
+            frame.nextLong(record, 0, arg.getTimestamp(record));
+            this.spi = spi;
+        } else {
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), value);
+        }
+    }
+
+    @Override
+    public void pass2(Record record) {
+        Unsafe.getUnsafe().putLong(spi.getAddress(record.getRowId(), columnIndex), valueOf(frame.find(record)));
+    }
+
+    @Override
+    public void preparePass2(RecordCursor cursor) {
+    }
+
+    @Override
+    public void reset() {
+        frame.clear();
+    }
+
+    @Override
+    public void setColumnIndex(int columnIndex) {
+        this.columnIndex = columnIndex;
+    }
+
+    protected abstract long valueOf(WindowFrameState state);
+}
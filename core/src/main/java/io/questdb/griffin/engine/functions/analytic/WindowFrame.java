@@ -0,0 +1,243 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.SingleColumnType;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Window frames of all partitions of a window function. Partitions are looked up via
+ * map, which values are indexes of {@link WindowFrameState} instances. Frame states are
+ * reused between executions of the query.
+ */
+class WindowFrame implements Closeable, Mutable {
+    static final long FRAME_UNBOUNDED = AnalyticColumn.FRAME_UNBOUNDED;
+    private static final SingleColumnType INT_COLUMN_TYPE = new SingleColumnType(ColumnType.INT);
+    private final ObjList<WindowFrameState> states = new ObjList<>();
+    @Nullable
+    private final Map map;
+    @Nullable
+    private final VirtualRecord partitionByRecord;
+    @Nullable
+    private final RecordSink partitionBySink;
+    private final long frameLo;
+    private final int timestampIndex;
+    private final boolean longValues;
+    private int stateCount;
+
+    private WindowFrame(
+            @Nullable Map map,
+            @Nullable VirtualRecord partitionByRecord,
+            @Nullable RecordSink partitionBySink,
+            long frameLo,
+            int timestampIndex,
+            boolean longValues
+    ) {
+        this.map = map;
+        this.partitionByRecord = partitionByRecord;
+        this.partitionBySink = partitionBySink;
+        this.frameLo = frameLo;
+        this.timestampIndex = timestampIndex;
+        this.longValues = longValues;
+    }
+
+    /**
+     * Creates frame of double values as specified by "over" clause of the function.
+     */
+    static WindowFrame newInstance(CairoConfiguration configuration, AnalyticContext analyticContext) {
+        return newInstance(configuration, analyticContext, ColumnType.DOUBLE);
+    }
+
+    /**
+     * Creates frame as specified by "over" clause of the function.
+     *
+     * @param valueType type of the function argument, values of all types but double are kept as longs
+     */
+    static WindowFrame newInstance(CairoConfiguration configuration, AnalyticContext analyticContext, int valueType) {
+        final boolean range = analyticContext.getFramingMode() == AnalyticColumn.FRAMING_RANGE
+                && analyticContext.getFrameLo() != FRAME_UNBOUNDED;
+        return newInstance(
+                configuration,
+                analyticContext,
+                analyticContext.getFramingMode() == AnalyticColumn.FRAMING_NONE ? FRAME_UNBOUNDED : analyticContext.getFrameLo(),
+                range ? analyticContext.getTimestampIndex() : -1,
+                valueType
+        );
+    }
+
+    /**
+     * Creates ROWS frame that ignores frame clause of the function.
+     */
+    static WindowFrame newRowsInstance(CairoConfiguration configuration, AnalyticContext analyticContext, long rows, int valueType) {
+        return newInstance(configuration, analyticContext, rows, -1, valueType);
+    }
+
+    /**
+     * Function value depends on entire partition when there is neither "order by" nor
+     * frame clause. Such values can only be computed after all records are seen.
+     */
+    static boolean isWholePartition(AnalyticContext analyticContext) {
+        return !analyticContext.isOrdered() && analyticContext.getFramingMode() == AnalyticColumn.FRAMING_NONE;
+    }
+
+    private static WindowFrame newInstance(
+            CairoConfiguration configuration,
+            AnalyticContext analyticContext,
+            long frameLo,
+            int timestampIndex,
+            int valueType
+    ) {
+        final boolean longValues = valueType != ColumnType.DOUBLE;
+        final VirtualRecord partitionByRecord = analyticContext.getPartitionByRecord();
+        if (partitionByRecord != null) {
+            return new WindowFrame(
+                    MapFactory.createMap(configuration, analyticContext.getPartitionByKeyTypes(), INT_COLUMN_TYPE),
+                    partitionByRecord,
+                    analyticContext.getPartitionBySink(),
+                    frameLo,
+                    timestampIndex,
+                    longValues
+            );
+        }
+        return new WindowFrame(null, null, null, frameLo, timestampIndex, longValues);
+    }
+
+    @Override
+    public void clear() {
+        if (map != null) {
+            map.clear();
+        }
+        stateCount = 0;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(map);
+        if (partitionByRecord != null) {
+            Misc.freeObjList(partitionByRecord.getFunctions());
+        }
+    }
+
+    /**
+     * Finds frame of the partition the record belongs to.
+     *
+     * @return frame state or null when the partition has not been seen
+     */
+    WindowFrameState find(Record record) {
+        if (map == null) {
+            return stateCount > 0 ? states.getQuick(0) : null;
+        }
+        final MapValue value = key(record).findValue();
+        return value != null ? states.getQuick(value.getInt(0)) : null;
+    }
+
+    void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+        if (partitionByRecord != null) {
+            Function.init(partitionByRecord.getFunctions(), symbolTableSource, executionContext);
+        }
+    }
+
+    /**
+     * Adds record to the frame of its partition.
+     *
+     * @param record record to find partition and timestamp of
+     * @param tag    value to keep alongside frame row when frame is not time based
+     * @param value  value of the function argument
+     * @return frame state after the record is added
+     */
+    WindowFrameState next(Record record, long tag, double value) {
+        return nextLong(record, tag, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Adds record to the frame of its partition.
+     *
+     * @param record record to find partition and timestamp of
+     * @param tag    value to keep alongside frame row when frame is not time based
+     * @param value  long value of the function argument or raw bits of double value
+     * @return frame state after the record is added
+     */
+    WindowFrameState nextLong(Record record, long tag, long value) {
+        final WindowFrameState state;
+        if (map == null) {
+            state = stateCount > 0 ? states.getQuick(0) : nextState();
+        } else {
+            final MapValue mapValue = key(record).createValue();
+            if (mapValue.isNew()) {
+                mapValue.putInt(0, stateCount);
+                state = nextState();
+            } else {
+                state = states.getQuick(mapValue.getInt(0));
+            }
+        }
+
+        if (timestampIndex != -1) {
+            state.add(record.getTimestamp(timestampIndex), value, frameLo, true);
+        } else {
+            state.add(tag, value, frameLo, false);
+        }
+        return state;
+    }
+
+    private MapKey key(Record record) {
+        assert map != null && partitionByRecord != null;
+        partitionByRecord.of(record);
+        final MapKey key = map.withKey();
+        key.put(partitionByRecord, partitionBySink);
+        return key;
+    }
+
+    private WindowFrameState nextState() {
+        final WindowFrameState state;
+        if (stateCount < states.size()) {
+            state = states.getQuick(stateCount);
+        } else {
+            state = new WindowFrameState(longValues);
+            states.add(state);
+        }
+        state.clear();
+        stateCount++;
+        return state;
+    }
+}
@@ -0,0 +1,304 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.std.Numbers;
+
+/**
+ * Window frame of a single partition. Bounded frames keep their rows in a ring buffer, rows
+ * leave the frame as new rows arrive. Unbounded frames only keep running aggregates.
+ * Each row carries a "tag", which is row timestamp for RANGE frames and arbitrary
+ * caller-provided value otherwise.
+ * <p>
+ * Values are kept as longs, double values are stored as their raw bits. Min and max of
+ * bounded frames are maintained by monotonic queues of frame rows, which makes both
+ * adding and evicting a row amortised O(1).
+ */
+class WindowFrameState {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long DOUBLE_NULL = Double.doubleToRawLongBits(Double.NaN);
+    private final boolean longValues;
+    private final long nullValue;
+    private final MonotonicQueue minQueue = new MonotonicQueue(false);
+    private final MonotonicQueue maxQueue = new MonotonicQueue(true);
+    private long[] tags = new long[INITIAL_CAPACITY];
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+    // sequence number of the next row of bounded frame, the first row of the frame is "nextSeq - size"
+    private long nextSeq;
+    // aggregates of the frame, null values are excluded from all but row count
+    private long rowCount;
+    private long count;
+    private double sum;
+    private long min;
+    private long max;
+    private long first;
+    private long last;
+
+    WindowFrameState(boolean longValues) {
+        this.longValues = longValues;
+        this.nullValue = longValues ? Numbers.LONG_NaN : DOUBLE_NULL;
+    }
+
+    /**
+     * Adds row to the frame.
+     *
+     * @param tag     row tag, timestamp of the row for RANGE frames
+     * @param value   long value or raw bits of double value
+     * @param frameLo frame size in rows or time units, {@link WindowFrame#FRAME_UNBOUNDED} for unbounded frame
+     * @param range   true for time based frames
+     */
+    void add(long tag, long value, long frameLo, boolean range) {
+        rowCount++;
+        if (rowCount == 1) {
+            first = value;
+        }
+        last = value;
+        final boolean notNull = !isNull(value);
+        if (notNull) {
+            aggregate(value);
+        }
+
+        if (frameLo == WindowFrame.FRAME_UNBOUNDED) {
+            return;
+        }
+
+        if (size == values.length) {
+            grow();
+        }
+        final int tail = (head + size) % values.length;
+        tags[tail] = tag;
+        values[tail] = value;
+        size++;
+        if (notNull) {
+            minQueue.push(nextSeq, value);
+            maxQueue.push(nextSeq, value);
+        }
+        nextSeq++;
+
+        if (range) {
+            final long lo = tag - frameLo;
+            while (tags[head] < lo) {
+                evict();
+            }
+        } else {
+            while (size > frameLo + 1) {
+                evict();
+            }
+        }
+        first = values[head];
+        min = minQueue.peek();
+        max = maxQueue.peek();
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+        nextSeq = 0;
+        rowCount = 0;
+        count = 0;
+        sum = 0;
+        min = nullValue;
+        max = nullValue;
+        first = nullValue;
+        last = nullValue;
+        minQueue.clear();
+        maxQueue.clear();
+    }
+
+    double getAvg() {
+        return count > 0 ? sum / count : Double.NaN;
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    double getFirst() {
+        return Double.longBitsToDouble(first);
+    }
+
+    long getFirstLong() {
+        return first;
+    }
+
+    long getFirstTag() {
+        return tags[head];
+    }
+
+    double getLast() {
+        return Double.longBitsToDouble(last);
+    }
+
+    long getLastLong() {
+        return last;
+    }
+
+    double getMax() {
+        return Double.longBitsToDouble(max);
+    }
+
+    long getMaxLong() {
+        return max;
+    }
+
+    double getMin() {
+        return Double.longBitsToDouble(min);
+    }
+
+    long getMinLong() {
+        return min;
+    }
+
+    double getSum() {
+        return count > 0 ? sum : Double.NaN;
+    }
+
+    private void aggregate(long value) {
+        if (count++ == 0) {
+            sum = toDouble(value);
+            min = value;
+            max = value;
+        } else {
+            sum += toDouble(value);
+            if (less(value, min)) {
+                min = value;
+            }
+            if (less(max, value)) {
+                max = value;
+            }
+        }
+    }
+
+    private void evict() {
+        final long value = values[head];
+        final long seq = nextSeq - size;
+        head = (head + 1) % values.length;
+        size--;
+        rowCount--;
+        if (!isNull(value)) {
+            if (--count == 0) {
+                // start from scratch rather than carry rounding error of subtractions
+                sum = 0;
+            } else {
+                sum -= toDouble(value);
+            }
+            minQueue.evict(seq);
+            maxQueue.evict(seq);
+        }
+    }
+
+    private void grow() {
+        final int capacity = values.length;
+        final long[] tags = new long[capacity * 2];
+        final long[] values = new long[capacity * 2];
+        for (int i = 0; i < size; i++) {
+            final int index = (head + i) % capacity;
+            tags[i] = this.tags[index];
+            values[i] = this.values[index];
+        }
+        this.tags = tags;
+        this.values = values;
+        this.head = 0;
+    }
+
+    private boolean isNull(long value) {
+        return longValues ? value == Numbers.LONG_NaN : Double.isNaN(Double.longBitsToDouble(value));
+    }
+
+    private boolean less(long a, long b) {
+        return longValues ? a < b : Double.longBitsToDouble(a) < Double.longBitsToDouble(b);
+    }
+
+    private double toDouble(long value) {
+        return longValues ? value : Double.longBitsToDouble(value);
+    }
+
+    /**
+     * Queue of frame rows, which values are increasing for min queue and decreasing for
+     * max queue. Row at the head of the queue is the min or max of the frame. Rows that
+     * can never become min or max, because a later row has a better value, are dropped
+     * on push.
+     */
+    private class MonotonicQueue {
+        private final boolean max;
+        private long[] seqs = new long[INITIAL_CAPACITY];
+        private long[] values = new long[INITIAL_CAPACITY];
+        private int head;
+        private int size;
+
+        private MonotonicQueue(boolean max) {
+            this.max = max;
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+
+        void evict(long seq) {
+            if (size > 0 && seqs[head] == seq) {
+                head = (head + 1) % seqs.length;
+                size--;
+            }
+        }
+
+        long peek() {
+            return size > 0 ? values[head] : nullValue;
+        }
+
+        void push(long seq, long value) {
+            while (size > 0) {
+                final long tail = values[(head + size - 1) % values.length];
+                if (max ? less(value, tail) : less(tail, value)) {
+                    break;
+                }
+                size--;
+            }
+            if (size == seqs.length) {
+                grow();
+            }
+            final int tail = (head + size) % seqs.length;
+            seqs[tail] = seq;
+            values[tail] = value;
+            size++;
+        }
+
+        private void grow() {
+            final int capacity = seqs.length;
+            final long[] seqs = new long[capacity * 2];
+            final long[] values = new long[capacity * 2];
+            for (int i = 0; i < size; i++) {
+                final int index = (head + i) % capacity;
+                seqs[i] = this.seqs[index];
+                values[i] = this.values[index];
+            }
+            this.seqs = seqs;
+            this.values = values;
+            this.head = 0;
+        }
+    }
+}
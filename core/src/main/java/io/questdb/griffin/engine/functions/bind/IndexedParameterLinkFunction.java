@@ -139,6 +139,11 @@ public class IndexedParameterLinkFunction implements ScalarFunction {
         return getBase().getSymbol(rec);
     }
 
+    @Override
+    public CharSequence getSymbolB(Record rec) {
+        return getBase().getSymbolB(rec);
+    }
+
     @Override
     public long getTimestamp(Record rec) {
         return getBase().getTimestamp(rec);
@@ -149,6 +149,11 @@ public class NamedParameterLinkFunction implements ScalarFunction {
         return getBase().getSymbol(rec);
     }
 
+    @Override
+    public CharSequence getSymbolB(Record rec) {
+        return getBase().getSymbolB(rec);
+    }
+
     @Override
     public long getTimestamp(Record rec) {
         return getBase().getTimestamp(rec);
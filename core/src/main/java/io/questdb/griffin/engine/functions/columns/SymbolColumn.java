@@ -54,6 +54,11 @@ public class SymbolColumn extends SymbolFunction implements ScalarFunction {
         return rec.getSym(columnIndex);
     }
 
+    @Override
+    public CharSequence getSymbolB(Record rec) {
+        return rec.getSymB(columnIndex);
+    }
+
     @Override
     public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
         this.symbolTable = symbolTableSource.getSymbolTable(columnIndex);
@@ -73,4 +78,9 @@ public class SymbolColumn extends SymbolFunction implements ScalarFunction {
     public CharSequence valueOf(int symbolKey) {
         return symbolTable.valueOf(symbolKey);
     }
+
+    @Override
+    public CharSequence valueBOf(int key) {
+        return symbolTable.valueBOf(key);
+    }
 }
@@ -36,7 +36,7 @@ import org.jetbrains.annotations.NotNull;
 
 public class FirstByteGroupByFunction extends ByteFunction implements GroupByFunction, UnaryFunction {
     private final Function arg;
-    private int valueIndex;
+    protected int valueIndex;
 
     public FirstByteGroupByFunction(int position, @NotNull Function arg) {
         super(position);
@@ -53,6 +53,10 @@ public class FirstByteGroupByFunction extends ByteFunction implements GroupByFun
         // empty
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+    }
+
     @Override
     public Function getArg() {
         return this.arg;
@@ -63,6 +67,11 @@ public class FirstByteGroupByFunction extends ByteFunction implements GroupByFun
         return rec.getByte(this.valueIndex);
     }
 
+    @Override
+    public boolean isMergeSupported() {
+        return true;
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
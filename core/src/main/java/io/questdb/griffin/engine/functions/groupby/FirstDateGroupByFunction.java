@@ -37,7 +37,7 @@ import org.jetbrains.annotations.NotNull;
 
 public class FirstDateGroupByFunction extends DateFunction implements GroupByFunction, UnaryFunction {
     private final Function arg;
-    private int valueIndex;
+    protected int valueIndex;
 
     public FirstDateGroupByFunction(int position, @NotNull Function arg) {
         super(position);
@@ -54,6 +54,10 @@ public class FirstDateGroupByFunction extends DateFunction implements GroupByFun
         // empty
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+    }
+
     @Override
     public Function getArg() {
         return this.arg;
@@ -64,6 +68,11 @@ public class FirstDateGroupByFunction extends DateFunction implements GroupByFun
         return rec.getDate(this.valueIndex);
     }
 
+    @Override
+    public boolean isMergeSupported() {
+        return true;
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -36,7 +36,7 @@ import org.jetbrains.annotations.NotNull;
 
 public class FirstDoubleGroupByFunction extends DoubleFunction implements GroupByFunction, UnaryFunction {
     private final Function arg;
-    private int valueIndex;
+    protected int valueIndex;
 
     public FirstDoubleGroupByFunction(int position, @NotNull Function arg) {
         super(position);
@@ -53,6 +53,15 @@ public class FirstDoubleGroupByFunction extends DoubleFunction implements GroupB
         // empty
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+    }
+
+    @Override
+    public boolean isMergeSupported() {
+        return true;
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -37,7 +37,7 @@ import org.jetbrains.annotations.NotNull;
 
 public class FirstIntGroupByFunction extends IntFunction implements GroupByFunction, UnaryFunction {
     private final Function arg;
-    private int valueIndex;
+    protected int valueIndex;
 
     public FirstIntGroupByFunction(int position, @NotNull Function arg) {
         super(position);
@@ -53,6 +53,10 @@ public class FirstIntGroupByFunction extends IntFunction implements GroupByFunct
     public void computeNext(MapValue mapValue, Record record) {
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+    }
+
     @Override
     public Function getArg() {
         return this.arg;
@@ -63,6 +67,11 @@ public class FirstIntGroupByFunction extends IntFunction implements GroupByFunct
         return rec.getInt(valueIndex);
     }
 
+    @Override
+    public boolean isMergeSupported() {
+        return true;
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -36,7 +36,7 @@ import org.jetbrains.annotations.NotNull;
 
 public class FirstShortGroupByFunction extends ShortFunction implements GroupByFunction, UnaryFunction {
     private final Function arg;
-    private int valueIndex;
+    protected int valueIndex;
 
     public FirstShortGroupByFunction(int position, @NotNull Function arg) {
         super(position);
@@ -53,6 +53,15 @@ public class FirstShortGroupByFunction extends ShortFunction implements GroupByF
         // empty
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+    }
+
+    @Override
+    public boolean isMergeSupported() {
+        return true;
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
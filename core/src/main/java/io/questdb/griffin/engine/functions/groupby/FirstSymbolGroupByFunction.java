@@ -37,7 +37,7 @@ import org.jetbrains.annotations.NotNull;
 
 public class FirstSymbolGroupByFunction extends SymbolFunction implements GroupByFunction, UnaryFunction {
     private final SymbolFunction arg;
-    private int valueIndex;
+    protected int valueIndex;
 
     public FirstSymbolGroupByFunction(int position, @NotNull SymbolFunction arg) {
         super(position);
@@ -53,6 +53,15 @@ public class FirstSymbolGroupByFunction extends SymbolFunction implements GroupB
     public void computeNext(MapValue mapValue, Record record) {
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+    }
+
+    @Override
+    public boolean isMergeSupported() {
+        return true;
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -79,6 +88,11 @@ public class FirstSymbolGroupByFunction extends SymbolFunction implements GroupB
         return arg.valueOf(getInt(rec));
     }
 
+    @Override
+    public CharSequence getSymbolB(Record rec) {
+        return arg.valueBOf(getInt(rec));
+    }
+
     @Override
     public boolean isSymbolTableStatic() {
         return arg.isSymbolTableStatic();
@@ -88,4 +102,9 @@ public class FirstSymbolGroupByFunction extends SymbolFunction implements GroupB
     public CharSequence valueOf(int key) {
         return arg.valueOf(key);
     }
+
+    @Override
+    public CharSequence valueBOf(int key) {
+        return arg.valueBOf(key);
+    }
 }
\ No newline at end of file
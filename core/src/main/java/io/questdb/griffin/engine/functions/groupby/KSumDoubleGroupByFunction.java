@@ -72,6 +72,22 @@ public class KSumDoubleGroupByFunction extends DoubleFunction implements GroupBy
         }
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        // fold the other compensated sum in, its own error term included
+        final double sum = destValue.getDouble(valueIndex);
+        final double y = srcValue.getDouble(valueIndex) - (destValue.getDouble(valueIndex + 1) + srcValue.getDouble(valueIndex + 1));
+        final double t = sum + y;
+        destValue.putDouble(valueIndex, t);
+        destValue.putDouble(valueIndex + 1, t - sum - y);
+        destValue.addLong(valueIndex + 2, srcValue.getLong(valueIndex + 2));
+    }
+
+    @Override
+    public boolean isMergeSupported() {
+        return true;
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
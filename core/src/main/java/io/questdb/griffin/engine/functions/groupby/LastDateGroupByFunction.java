@@ -39,4 +39,9 @@ public class LastDateGroupByFunction extends FirstDateGroupByFunction {
     public void computeNext(MapValue mapValue, Record record) {
         super.computeFirst(mapValue, record);
     }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.putDate(valueIndex, srcValue.getDate(valueIndex));
+    }
 }
@@ -39,4 +39,9 @@ public class LastIntGroupByFunction extends FirstIntGroupByFunction {
     public void computeNext(MapValue mapValue, Record record) {
         super.computeFirst(mapValue, record);
     }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.putInt(valueIndex, srcValue.getInt(valueIndex));
+    }
 }
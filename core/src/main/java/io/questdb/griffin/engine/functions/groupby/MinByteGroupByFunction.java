@@ -57,6 +57,20 @@ public class MinByteGroupByFunction extends ByteFunction implements GroupByFunct
         }
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        byte min = destValue.getByte(valueIndex);
+        byte next = srcValue.getByte(valueIndex);
+        if (next < min) {
+            destValue.putByte(valueIndex, next);
+        }
+    }
+
+    @Override
+    public boolean isMergeSupported() {
+        return true;
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
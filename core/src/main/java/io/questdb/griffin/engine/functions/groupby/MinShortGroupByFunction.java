@@ -62,6 +62,20 @@ public class MinShortGroupByFunction extends ShortFunction implements GroupByFun
         }
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        short min = destValue.getShort(valueIndex);
+        short next = srcValue.getShort(valueIndex);
+        if (next < min) {
+            destValue.putShort(valueIndex, next);
+        }
+    }
+
+    @Override
+    public boolean isMergeSupported() {
+        return true;
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -53,6 +53,16 @@ public class SumByteGroupByFunction extends ByteFunction implements GroupByFunct
         mapValue.addByte(valueIndex, arg.getByte(record));
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.addByte(valueIndex, srcValue.getByte(valueIndex));
+    }
+
+    @Override
+    public boolean isMergeSupported() {
+        return true;
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
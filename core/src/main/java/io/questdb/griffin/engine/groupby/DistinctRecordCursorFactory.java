@@ -26,14 +26,17 @@ package io.questdb.griffin.engine.groupby;
 
 import org.jetbrains.annotations.NotNull;
 
+import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.EntityColumnFilter;
 import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.RecordSinkFactory;
 import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
@@ -46,6 +49,8 @@ import io.questdb.std.Misc;
 import io.questdb.std.Transient;
 
 public class DistinctRecordCursorFactory implements RecordCursorFactory {
+    // value of spilling map entry, whose record has been returned already
+    private static final long ROW_RETURNED = -1;
 
     protected final RecordCursorFactory base;
     private final Map dataMap;
@@ -64,10 +69,19 @@ public class DistinctRecordCursorFactory implements RecordCursorFactory {
         // sink will be storing record columns to map key
         columnFilter.of(metadata.getColumnCount());
         this.mapSink = RecordSinkFactory.getInstance(asm, metadata, columnFilter, false);
-        this.dataMap = MapFactory.createMap(configuration, metadata);
+        if (configuration.isSqlMapSpillEnabled() && base.recordCursorSupportsRandomAccess()) {
+            // keys that are first seen after spill can't be told apart from spilled ones, map
+            // stores row id of such keys and cursor returns their records after base cursor is exhausted
+            final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+            valueTypes.add(ColumnType.LONG);
+            this.dataMap = MapFactory.createSpillingMap(configuration, metadata, valueTypes, DistinctRecordCursorFactory::merge);
+            this.cursor = new DistinctRecordCursor(true);
+        } else {
+            this.dataMap = MapFactory.createMap(configuration, metadata);
+            this.cursor = new DistinctRecordCursor(false);
+        }
         this.base = base;
         this.metadata = metadata;
-        this.cursor = new DistinctRecordCursor();
     }
 
     @Override
@@ -99,14 +113,23 @@ public class DistinctRecordCursorFactory implements RecordCursorFactory {
         return base.recordCursorSupportsRandomAccess();
     }
 
+    private static void merge(MapValue destValue, MapValue srcValue) {
+        if (srcValue.getLong(0) == ROW_RETURNED) {
+            destValue.putLong(0, ROW_RETURNED);
+        }
+    }
+
     private static class DistinctRecordCursor implements RecordCursor {
+        private final boolean spillable;
         private RecordCursor baseCursor;
         private Map dataMap;
+        private RecordCursor mapCursor;
         private RecordSink recordSink;
         private Record record;
         private SqlExecutionInterruptor interruptor;
 
-        public DistinctRecordCursor() {
+        public DistinctRecordCursor(boolean spillable) {
+            this.spillable = spillable;
         }
 
         @Override
@@ -126,14 +149,30 @@ public class DistinctRecordCursorFactory implements RecordCursorFactory {
 
         @Override
         public boolean hasNext() {
+            if (mapCursor != null) {
+                return hasNextSpilled();
+            }
             while (baseCursor.hasNext()) {
                 interruptor.checkInterrupted();
                 MapKey key = dataMap.withKey();
                 recordSink.copy(record, key);
-                if (key.create()) {
+                if (spillable) {
+                    final MapValue value = key.createValue();
+                    if (value.isNew()) {
+                        if (!dataMap.isSpilled()) {
+                            value.putLong(0, ROW_RETURNED);
+                            return true;
+                        }
+                        value.putLong(0, record.getRowId());
+                    }
+                } else if (key.create()) {
                     return true;
                 }
             }
+            if (dataMap.isSpilled()) {
+                mapCursor = dataMap.getCursor();
+                return hasNextSpilled();
+            }
             return false;
         }
 
@@ -151,6 +190,7 @@ public class DistinctRecordCursorFactory implements RecordCursorFactory {
         public void toTop() {
             baseCursor.toTop();
             dataMap.clear();
+            mapCursor = null;
         }
 
         public void of(RecordCursor baseCursor, Map dataMap, RecordSink recordSink, SqlExecutionInterruptor interruptor) {
@@ -159,11 +199,25 @@ public class DistinctRecordCursorFactory implements RecordCursorFactory {
             this.recordSink = recordSink;
             this.record = baseCursor.getRecord();
             this.interruptor = interruptor;
+            this.mapCursor = null;
         }
 
         @Override
         public long size() {
             return -1;
         }
+
+        private boolean hasNextSpilled() {
+            final Record mapRecord = mapCursor.getRecord();
+            while (mapCursor.hasNext()) {
+                interruptor.checkInterrupted();
+                final long rowId = mapRecord.getLong(0);
+                if (rowId != ROW_RETURNED) {
+                    baseCursor.recordAt(record, rowId);
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 }
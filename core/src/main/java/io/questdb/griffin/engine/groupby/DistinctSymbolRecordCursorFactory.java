@@ -150,6 +150,11 @@ public class DistinctSymbolRecordCursorFactory implements RecordCursorFactory {
                 return symbolMapReader.valueOf(recordIndex);
             }
 
+            @Override
+            public CharSequence getSymB(int col) {
+                return symbolMapReader.valueBOf(recordIndex);
+            }
+
             @Override
             public int getInt(int col) {
                 return recordIndex;
@@ -162,7 +167,7 @@ public class DistinctSymbolRecordCursorFactory implements RecordCursorFactory {
 
             @Override
             public CharSequence getStrB(int col) {
-                return getSym(col);
+                return getSymB(col);
             }
 
             @Override
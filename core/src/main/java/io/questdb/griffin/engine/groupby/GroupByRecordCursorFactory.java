@@ -48,6 +48,7 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
     private final RecordSink mapSink;
     // this sink is used to copy recordKeyMap keys to dataMap
     private final RecordMetadata metadata;
+    private final boolean spillable;
 
     public GroupByRecordCursorFactory(
             CairoConfiguration configuration,
@@ -62,7 +63,12 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
     ) {
         // sink will be storing record columns to map key
         try {
-            this.dataMap = MapFactory.createMap(configuration, keyTypes, valueTypes);
+            this.spillable = configuration.isSqlMapSpillEnabled() && GroupByUtils.isMergeSupported(groupByFunctions);
+            if (spillable) {
+                this.dataMap = MapFactory.createSpillingMap(configuration, keyTypes, valueTypes, (destValue, srcValue) -> GroupByUtils.mergeFunctions(groupByFunctions, destValue, srcValue));
+            } else {
+                this.dataMap = MapFactory.createMap(configuration, keyTypes, valueTypes);
+            }
             this.mapSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, false);
             this.base = base;
             this.metadata = groupByMetadata;
@@ -114,6 +120,7 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
 
     @Override
     public boolean recordCursorSupportsRandomAccess() {
-        return true;
+        // records of spilling map are valid until its cursor moves to the next partition
+        return !spillable;
     }
 }
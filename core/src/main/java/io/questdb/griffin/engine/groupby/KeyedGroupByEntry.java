@@ -0,0 +1,180 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.table.PageFrameRecord;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+import java.io.Closeable;
+
+/**
+ * Unit of work of parallel keyed group-by: a contiguous range of rows of the base page frames,
+ * which is aggregated into the entry's own map using group-by function copies of the executing
+ * thread. There is an entry per worker, so that every map holds partial aggregates of its own
+ * share of rows. Maps are merged in the order of their ranges, which keeps rows behind merged
+ * values in table order, as required by merge of first() and last().
+ */
+public class KeyedGroupByEntry implements Closeable {
+
+    private static final long LOCK_OFFSET;
+
+    static {
+        LOCK_OFFSET = Unsafe.getFieldOffset(KeyedGroupByEntry.class, "lock");
+    }
+
+    private final FastMap map;
+    private final KeyedGroupByFrames frames;
+    private final ObjList<PageFrameRecord> records;
+    private final ObjList<ObjList<GroupByFunction>> functions;
+    private final RecordSink keySink;
+    private long rowLo;
+    private long rowHi;
+    private Throwable error;
+    // to "lock" the entry thread must successfully CAS the value from 0 to 1
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
+    private volatile int lock = 1;
+    private volatile boolean done = true;
+
+    KeyedGroupByEntry(
+            FastMap map,
+            KeyedGroupByFrames frames,
+            ObjList<PageFrameRecord> records,
+            ObjList<ObjList<GroupByFunction>> functions,
+            RecordSink keySink
+    ) {
+        this.map = map;
+        this.frames = frames;
+        this.records = records;
+        this.functions = functions;
+        this.keySink = keySink;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(map);
+    }
+
+    /**
+     * Aggregates the entry on behalf of worker thread. The last function copy is reserved
+     * for the thread that owns the cursor, workers without a copy of their own leave
+     * the entry to the owner.
+     *
+     * @param workerId id of worker thread
+     * @return true when entry was aggregated by this call
+     */
+    public boolean run(int workerId) {
+        return workerId < functions.size() - 1 && run0(workerId);
+    }
+
+    /**
+     * Aggregates the entry on the thread that owns the cursor using the function copy
+     * reserved for that thread.
+     *
+     * @return true when entry was aggregated by this call
+     */
+    boolean runOwner() {
+        return run0(functions.size() - 1);
+    }
+
+    private boolean run0(int slot) {
+        if (Unsafe.cas(this, LOCK_OFFSET, 0, 1)) {
+            try {
+                aggregate(records.getQuick(slot), functions.getQuick(slot));
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                done = true;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Takes the entry away from workers without aggregating it.
+     *
+     * @return true when entry was not picked up by anyone
+     */
+    boolean cancel() {
+        if (Unsafe.cas(this, LOCK_OFFSET, 0, 1)) {
+            done = true;
+            return true;
+        }
+        return false;
+    }
+
+    Throwable getError() {
+        return error;
+    }
+
+    FastMap getMap() {
+        return map;
+    }
+
+    boolean isDone() {
+        return done;
+    }
+
+    void of(long rowLo, long rowHi) {
+        this.rowLo = rowLo;
+        this.rowHi = rowHi;
+        this.error = null;
+        this.done = false;
+        this.lock = 0;
+    }
+
+    private void aggregate(PageFrameRecord record, ObjList<GroupByFunction> groupByFunctions) {
+        final int n = groupByFunctions.size();
+        map.clear();
+        if (rowLo == rowHi) {
+            return;
+        }
+
+        int frameIndex = frames.findFrame(rowLo);
+        long row = rowLo;
+        while (row < rowHi) {
+            final long firstRow = frames.getFirstRow(frameIndex);
+            final long lo = row - firstRow;
+            final long hi = Math.min(frames.getFirstRow(frameIndex + 1), rowHi) - firstRow;
+            frames.of(record, frameIndex);
+            for (long r = lo; r < hi; r++) {
+                record.setRow(r);
+                final MapKey key = map.withKey();
+                keySink.copy(record, key);
+                final MapValue value = key.createValue();
+                GroupByUtils.updateFunctions(groupByFunctions, n, value, record);
+            }
+            row = firstRow + hi;
+            frameIndex++;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.griffin.engine.table.PageFrameRecord;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+
+/**
+ * Addresses of all page frames of the base cursor. Frames are copied before aggregation starts,
+ * which allows keyed group-by entries to address any contiguous range of rows. Rows are
+ * numbered across frames in the order frames are added.
+ */
+class KeyedGroupByFrames {
+    private final ObjList<LongList> columnAddresses = new ObjList<>();
+    private final ObjList<LongList> indexAddresses = new ObjList<>();
+    private final IntList partitionIndexes = new IntList();
+    private final LongList partitionLos = new LongList();
+    // number of rows that precede the frame, followed by total row count
+    private final LongList firstRows = new LongList();
+    private final int columnCount;
+    private int size;
+
+    KeyedGroupByFrames(int columnCount) {
+        this.columnCount = columnCount;
+        firstRows.add(0);
+    }
+
+    void add(PageFrame frame) {
+        LongList addresses = columnAddresses.getQuiet(size);
+        LongList indexes = indexAddresses.getQuiet(size);
+        if (addresses == null) {
+            columnAddresses.extendAndSet(size, addresses = new LongList(columnCount));
+            indexAddresses.extendAndSet(size, indexes = new LongList(columnCount));
+        }
+        addresses.clear();
+        indexes.clear();
+        for (int i = 0; i < columnCount; i++) {
+            addresses.add(frame.getPageAddress(i));
+            indexes.add(frame.getIndexPageAddress(i));
+        }
+        partitionIndexes.extendAndSet(size, frame.getPartitionIndex());
+        partitionLos.extendAndSet(size, frame.getPartitionLo());
+        firstRows.extendAndSet(size + 1, getRowCount() + frame.getPartitionHi() - frame.getPartitionLo());
+        size++;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * @param row row number, must be less than total row count
+     * @return index of the frame that contains the row
+     */
+    int findFrame(long row) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo < hi) {
+            final int mid = (lo + hi + 1) >>> 1;
+            if (firstRows.getQuick(mid) <= row) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    long getFirstRow(int frameIndex) {
+        return firstRows.getQuick(frameIndex);
+    }
+
+    long getRowCount() {
+        return firstRows.getQuick(size);
+    }
+
+    void of(PageFrameRecord record, int frameIndex) {
+        record.of(
+                columnAddresses.getQuick(frameIndex),
+                indexAddresses.getQuick(frameIndex),
+                partitionIndexes.getQuick(frameIndex),
+                partitionLos.getQuick(frameIndex)
+        );
+    }
+}
@@ -55,6 +55,11 @@ public class MapSymbolColumn extends SymbolFunction {
         return symbolTable.valueOf(getInt(rec));
     }
 
+    @Override
+    public CharSequence getSymbolB(Record rec) {
+        return symbolTable.valueBOf(getInt(rec));
+    }
+
     @Override
     public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
         this.symbolTable = symbolTableSource.getSymbolTable(cursorColumnIndex);
@@ -67,6 +72,11 @@ public class MapSymbolColumn extends SymbolFunction {
         return symbolTable.valueOf(symbolKey);
     }
 
+    @Override
+    public CharSequence valueBOf(int symbolKey) {
+        return symbolTable.valueBOf(symbolKey);
+    }
+
     @Override
     public @Nullable StaticSymbolTable getStaticSymbolTable() {
         return symbolTable instanceof StaticSymbolTable ? (StaticSymbolTable) symbolTable : null;
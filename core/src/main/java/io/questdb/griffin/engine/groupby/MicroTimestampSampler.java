@@ -24,7 +24,7 @@
 
 package io.questdb.griffin.engine.groupby;
 
-class MicroTimestampSampler implements TimestampSampler {
+public class MicroTimestampSampler implements TimestampSampler {
     private final long bucket;
 
     MicroTimestampSampler(long bucket) {
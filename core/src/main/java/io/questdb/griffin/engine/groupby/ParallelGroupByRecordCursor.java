@@ -0,0 +1,274 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.SymbolMapReader;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapRecord;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.AbstractVirtualFunctionRecordCursor;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.table.PageFrameRecord;
+import io.questdb.griffin.engine.table.PageFrameSymbolTable;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.tasks.KeyedGroupByTask;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.locks.LockSupport;
+
+class ParallelGroupByRecordCursor extends AbstractVirtualFunctionRecordCursor {
+    private final RecordMetadata metadata;
+    private final ObjList<ObjList<GroupByFunction>> functions;
+    private final ObjList<GroupByFunction> ownerFunctions;
+    private final ObjList<Function> recordFunctions;
+    private final ObjList<PageFrameRecord> records = new ObjList<>();
+    private final ObjList<KeyedGroupByEntry> entries = new ObjList<>();
+    private final KeyedGroupByFrames frames;
+    private final int ownerSlot;
+    private PageFrameCursor pageFrameCursor;
+    private RingQueue<KeyedGroupByTask> queue;
+    private Sequence pubSeq;
+    private SqlExecutionInterruptor interruptor;
+    private int activeCount;
+
+    ParallelGroupByRecordCursor(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            ObjList<ObjList<GroupByFunction>> functions,
+            ObjList<Function> recordFunctions,
+            RecordSink keySink,
+            ColumnTypes keyTypes,
+            ColumnTypes valueTypes
+    ) {
+        super(recordFunctions, true);
+        this.metadata = metadata;
+        this.functions = functions;
+        this.ownerSlot = functions.size() - 1;
+        this.ownerFunctions = functions.getQuick(ownerSlot);
+        this.recordFunctions = recordFunctions;
+        this.frames = new KeyedGroupByFrames(metadata.getColumnCount());
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            records.add(new PageFrameRecord());
+        }
+        try {
+            // one map per function copy, each worker aggregates its share of rows into its own map
+            for (int i = 0, n = functions.size(); i < n; i++) {
+                entries.add(
+                        new KeyedGroupByEntry(
+                                new FastMap(
+                                        configuration.getSqlMapPageSize(),
+                                        keyTypes,
+                                        valueTypes,
+                                        configuration.getSqlMapKeyCapacity(),
+                                        configuration.getSqlFastMapLoadFactor(),
+                                        configuration.getSqlMapMaxResizes()
+                                ),
+                                frames,
+                                records,
+                                functions,
+                                keySink
+                        )
+                );
+            }
+        } catch (Throwable e) {
+            freeMaps();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (pageFrameCursor != null) {
+            drain();
+            pageFrameCursor = Misc.free(pageFrameCursor);
+        }
+        interruptor = null;
+        super.close();
+    }
+
+    @Override
+    public long size() {
+        return entries.getQuick(0).getMap().size();
+    }
+
+    private static void ofSymbolTable(PageFrameRecord record, int columnIndex, SymbolMapReader symbolMapReader) {
+        final ObjList<PageFrameSymbolTable> symbolTables = record.getSymbolTables();
+        PageFrameSymbolTable symbolTable = symbolTables.getQuiet(columnIndex);
+        if (symbolTable == null) {
+            symbolTable = new PageFrameSymbolTable();
+            symbolTables.extendAndSet(columnIndex, symbolTable);
+        }
+        symbolTable.of(symbolMapReader);
+    }
+
+    private static void rethrow(Throwable error) {
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        throw new RuntimeException(error);
+    }
+
+    private void aggregate() {
+        frames.clear();
+        PageFrame frame;
+        while ((frame = pageFrameCursor.next()) != null) {
+            if (frame.getPartitionHi() > frame.getPartitionLo()) {
+                frames.add(frame);
+            }
+        }
+
+        // rows are split into contiguous ranges of about the same size, one per entry
+        final long rowCount = frames.getRowCount();
+        final int entryCount = entries.size();
+        final long rowsPerEntry = (rowCount + entryCount - 1) / entryCount;
+        for (int i = 0; i < entryCount; i++) {
+            final KeyedGroupByEntry entry = entries.getQuick(i);
+            entry.of(Math.min(rowCount, i * rowsPerEntry), Math.min(rowCount, (i + 1) * rowsPerEntry));
+            activeCount++;
+            publish(entry);
+        }
+
+        // entries are merged in the order of their ranges into the map of the first entry
+        final FastMap dataMap = entries.getQuick(0).getMap();
+        for (int i = 0; i < entryCount; i++) {
+            final KeyedGroupByEntry entry = entries.getQuick(i);
+            await(entry);
+            final Throwable error = entry.getError();
+            if (error != null) {
+                rethrow(error);
+            }
+            if (i > 0) {
+                merge(dataMap, entry.getMap());
+            }
+        }
+        activeCount = 0;
+    }
+
+    private void await(KeyedGroupByEntry entry) {
+        while (!entry.isDone()) {
+            interruptor.checkInterrupted();
+            if (!entry.runOwner() && !steal()) {
+                LockSupport.parkNanos(1);
+            }
+        }
+    }
+
+    private void drain() {
+        for (int i = 0; i < activeCount; i++) {
+            final KeyedGroupByEntry entry = entries.getQuick(i);
+            if (!entry.cancel()) {
+                while (!entry.isDone()) {
+                    LockSupport.parkNanos(1);
+                }
+            }
+        }
+        activeCount = 0;
+    }
+
+    private void merge(FastMap dataMap, FastMap srcMap) {
+        final RecordCursor srcCursor = srcMap.getCursor();
+        final MapRecord srcRecord = (MapRecord) srcCursor.getRecord();
+        while (srcCursor.hasNext()) {
+            final MapValue value = dataMap.createValueFromRecord(srcRecord);
+            if (!value.isNew()) {
+                GroupByUtils.mergeFunctions(ownerFunctions, value, srcRecord.getValue());
+            }
+        }
+        // worker map keeps its memory for the next cursor
+        srcMap.clear();
+    }
+
+    private void publish(KeyedGroupByEntry entry) {
+        if (pubSeq != null) {
+            long seq;
+            do {
+                seq = pubSeq.next();
+            } while (seq == -2);
+
+            // when queue is full the entry is left to the owner thread
+            if (seq > -1) {
+                queue.get(seq).entry = entry;
+                pubSeq.done(seq);
+            }
+        }
+    }
+
+    private boolean steal() {
+        for (int i = 0, n = entries.size(); i < n; i++) {
+            if (entries.getQuick(i).runOwner()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void freeMaps() {
+        Misc.freeObjList(entries);
+        entries.clear();
+    }
+
+    void of(PageFrameCursor pageFrameCursor, @Nullable MessageBus bus, SqlExecutionContext executionContext) {
+        this.pageFrameCursor = pageFrameCursor;
+        this.interruptor = executionContext.getSqlExecutionInterruptor();
+        if (bus != null) {
+            this.queue = bus.getKeyedGroupByQueue();
+            this.pubSeq = queue != null ? bus.getKeyedGroupByPubSequence() : null;
+        } else {
+            this.queue = null;
+            this.pubSeq = null;
+        }
+
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (metadata.getColumnType(i) == ColumnType.SYMBOL) {
+                final SymbolMapReader symbolMapReader = pageFrameCursor.getSymbolMapReader(i);
+                for (int j = 0, m = records.size(); j < m; j++) {
+                    ofSymbolTable(records.getQuick(j), i, symbolMapReader);
+                }
+            }
+        }
+
+        for (int i = 0; i < ownerSlot; i++) {
+            Function.init(functions.getQuick(i), records.getQuick(i), executionContext);
+        }
+        // record functions include group-by functions of the owner thread
+        Function.init(recordFunctions, records.getQuick(ownerSlot), executionContext);
+        aggregate();
+        of(entries.getQuick(0).getMap().getCursor());
+    }
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Keyed GROUP BY over factory that supports page frames, STRING columns included. Rows of
+ * the base factory are split into contiguous ranges, one per worker, and each range is
+ * aggregated into its own map. The thread that owns the cursor merges the maps in range
+ * order, so keys come out in the order of their first occurrence, same as in single
+ * threaded group-by. All group-by functions must support merge.
+ */
+public class ParallelGroupByRecordCursorFactory implements RecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final RecordMetadata metadata;
+    private final ObjList<ObjList<GroupByFunction>> functions;
+    private final ObjList<Function> recordFunctions;
+    private final ParallelGroupByRecordCursor cursor;
+
+    /**
+     * @param functions group-by function copies, one per worker, the last copy is used by the owner
+     *                  thread and is also referenced by record functions
+     */
+    public ParallelGroupByRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordCursorFactory base,
+            RecordMetadata groupByMetadata,
+            @NotNull ObjList<ObjList<GroupByFunction>> functions,
+            @NotNull ObjList<Function> recordFunctions,
+            @Transient @NotNull ListColumnFilter listColumnFilter,
+            @Transient @NotNull BytecodeAssembler asm,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes
+    ) {
+        assert base.supportVarSizePageFrameCursor();
+        this.base = base;
+        this.metadata = groupByMetadata;
+        this.functions = functions;
+        this.recordFunctions = recordFunctions;
+        this.cursor = new ParallelGroupByRecordCursor(
+                configuration,
+                base.getMetadata(),
+                functions,
+                recordFunctions,
+                RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, false),
+                keyTypes,
+                valueTypes
+        );
+    }
+
+    @Override
+    public void close() {
+        cursor.freeMaps();
+        // last function copy is owned by record functions
+        for (int i = 0, n = functions.size() - 1; i < n; i++) {
+            Misc.freeObjList(functions.getQuick(i));
+        }
+        Misc.freeObjList(recordFunctions);
+        Misc.free(base);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        final PageFrameCursor pageFrameCursor = base.getPageFrameCursor(executionContext);
+        try {
+            cursor.of(pageFrameCursor, executionContext.getMessageBus(), executionContext);
+        } catch (Throwable e) {
+            cursor.close();
+            throw e;
+        }
+        return cursor;
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+}
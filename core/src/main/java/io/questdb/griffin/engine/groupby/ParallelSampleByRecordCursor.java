@@ -0,0 +1,433 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.SymbolMapReader;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapRecord;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.TimestampFunction;
+import io.questdb.griffin.engine.table.PageFrameRecord;
+import io.questdb.griffin.engine.table.PageFrameSymbolTable;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.tasks.SampleByTask;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.locks.LockSupport;
+
+class ParallelSampleByRecordCursor implements NoRandomAccessRecordCursor {
+    // entry maps hold buckets of a single slice, they start small and grow on demand
+    private static final int ENTRY_MAP_PAGE_SIZE = Numbers.SIZE_1MB;
+    private final RecordMetadata metadata;
+    private final ObjList<ObjList<GroupByFunction>> functions;
+    private final ObjList<GroupByFunction> ownerFunctions;
+    private final ObjList<Function> recordFunctions;
+    private final ObjList<PageFrameRecord> records = new ObjList<>();
+    private final ObjList<SampleByEntry> entries = new ObjList<>();
+    private final IntList columnShifts = new IntList();
+    private final VirtualRecord record;
+    private final TimestampSampler timestampSampler;
+    private final int timestampIndex;
+    private final int pageFrameMaxRows;
+    private final int window;
+    private final int ownerSlot;
+    // merged buckets, of which all but the last one are complete
+    private FastMap pending;
+    // last bucket of "pending" map, which can continue in the next slice
+    private FastMap carry;
+    private RecordCursor mapCursor;
+    private long openBucket;
+    private long pendingFirstBucket;
+    private long baselineOffset;
+    private PageFrameCursor pageFrameCursor;
+    private RingQueue<SampleByTask> queue;
+    private Sequence pubSeq;
+    private SqlExecutionInterruptor interruptor;
+    private PageFrame frame;
+    private long frameRowCount;
+    private long frameOffset;
+    private boolean framesExhausted;
+    // ring of dispatched entries, "head" is the entry that is merged next
+    private int head;
+    private int activeCount;
+
+    ParallelSampleByRecordCursor(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            ObjList<ObjList<GroupByFunction>> functions,
+            ObjList<Function> recordFunctions,
+            RecordSink keySink,
+            TimestampSampler timestampSampler,
+            ColumnTypes keyTypes,
+            ColumnTypes valueTypes,
+            int timestampIndex,
+            int pageFrameMaxRows
+    ) {
+        this.metadata = metadata;
+        this.functions = functions;
+        this.ownerSlot = functions.size() - 1;
+        this.ownerFunctions = functions.getQuick(ownerSlot);
+        this.recordFunctions = recordFunctions;
+        this.timestampSampler = timestampSampler;
+        this.timestampIndex = timestampIndex;
+        this.pageFrameMaxRows = pageFrameMaxRows;
+        for (int i = 0, n = recordFunctions.size(); i < n; i++) {
+            if (recordFunctions.getQuick(i) == null) {
+                recordFunctions.setQuick(i, new TimestampFunc(0));
+            }
+        }
+        this.record = new VirtualRecordNoRowid(recordFunctions);
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            records.add(new PageFrameRecord());
+        }
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            columnShifts.add(Numbers.msb(ColumnType.sizeOf(metadata.getColumnType(i))));
+        }
+        // keep workers busy while owner thread is merging results
+        this.window = functions.size() * 2;
+        try {
+            this.pending = createMap(configuration, configuration.getSqlMapPageSize(), keyTypes, valueTypes);
+            this.carry = createMap(configuration, configuration.getSqlMapPageSize(), keyTypes, valueTypes);
+            for (int i = 0; i < window; i++) {
+                entries.add(
+                        new SampleByEntry(
+                                createMap(configuration, ENTRY_MAP_PAGE_SIZE, keyTypes, valueTypes),
+                                records,
+                                functions,
+                                keySink,
+                                timestampSampler,
+                                timestampIndex
+                        )
+                );
+            }
+        } catch (Throwable e) {
+            freeMaps();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (pageFrameCursor != null) {
+            drain();
+            pending.clear();
+            carry.clear();
+            pageFrameCursor = Misc.free(pageFrameCursor);
+        }
+        interruptor = null;
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return (SymbolTable) recordFunctions.getQuick(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (true) {
+            if (mapCursor != null) {
+                while (mapCursor.hasNext()) {
+                    final MapRecord mapRecord = (MapRecord) mapCursor.getRecord();
+                    if (mapRecord.getTimestamp(0) != openBucket) {
+                        return true;
+                    }
+                    // last bucket may continue in the next slice, it is carried over
+                    carry.createValueFromRecord(mapRecord);
+                }
+                mapCursor = null;
+                final FastMap tmp = pending;
+                pending = carry;
+                carry = tmp;
+                carry.clear();
+                pendingFirstBucket = openBucket;
+            }
+
+            if (activeCount == 0) {
+                if (pending.size() == 0) {
+                    return false;
+                }
+                // slices are exhausted, whatever is left is complete
+                openBucket = Numbers.LONG_NaN;
+                openMapCursor();
+                continue;
+            }
+
+            final SampleByEntry entry = entries.getQuick(head);
+            await(entry);
+            final Throwable error = entry.getError();
+            if (error != null) {
+                rethrow(error);
+            }
+            merge(entry);
+            head = (head + 1) % window;
+            activeCount--;
+            dispatch();
+
+            // nothing is complete while all merged rows belong to the open bucket
+            if (pendingFirstBucket != openBucket) {
+                openMapCursor();
+            }
+        }
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        drain();
+        pageFrameCursor.toTop();
+        GroupByUtils.toTop(recordFunctions);
+        for (int i = 0; i < ownerSlot; i++) {
+            GroupByUtils.toTop(functions.getQuick(i));
+        }
+        start();
+    }
+
+    private static FastMap createMap(CairoConfiguration configuration, int pageSize, ColumnTypes keyTypes, ColumnTypes valueTypes) {
+        return new FastMap(
+                pageSize,
+                keyTypes,
+                valueTypes,
+                configuration.getSqlMapKeyCapacity(),
+                configuration.getSqlFastMapLoadFactor(),
+                configuration.getSqlMapMaxResizes()
+        );
+    }
+
+    private static void ofSymbolTable(PageFrameRecord record, int columnIndex, SymbolMapReader symbolMapReader) {
+        final ObjList<PageFrameSymbolTable> symbolTables = record.getSymbolTables();
+        PageFrameSymbolTable symbolTable = symbolTables.getQuiet(columnIndex);
+        if (symbolTable == null) {
+            symbolTable = new PageFrameSymbolTable();
+            symbolTables.extendAndSet(columnIndex, symbolTable);
+        }
+        symbolTable.of(symbolMapReader);
+    }
+
+    private static void rethrow(Throwable error) {
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        throw new RuntimeException(error);
+    }
+
+    private void await(SampleByEntry entry) {
+        while (!entry.isDone()) {
+            interruptor.checkInterrupted();
+            if (!entry.runOwner() && !steal()) {
+                LockSupport.parkNanos(1);
+            }
+        }
+    }
+
+    private void dispatch() {
+        while (activeCount < window) {
+            final SampleByEntry entry = entries.getQuick((head + activeCount) % window);
+            if (!nextTask(entry)) {
+                break;
+            }
+            activeCount++;
+            publish(entry);
+        }
+    }
+
+    private void drain() {
+        mapCursor = null;
+        for (int i = 0; i < activeCount; i++) {
+            final SampleByEntry entry = entries.getQuick((head + i) % window);
+            if (!entry.cancel()) {
+                while (!entry.isDone()) {
+                    LockSupport.parkNanos(1);
+                }
+            }
+        }
+        activeCount = 0;
+        head = 0;
+    }
+
+    private void merge(SampleByEntry entry) {
+        if (pending.size() == 0) {
+            pendingFirstBucket = entry.getFirstBucket();
+        }
+        // slices are merged in timestamp order, which is what first() and last() rely on
+        final RecordCursor entryCursor = entry.getMap().getCursor();
+        final MapRecord entryRecord = (MapRecord) entryCursor.getRecord();
+        while (entryCursor.hasNext()) {
+            final MapValue value = pending.createValueFromRecord(entryRecord);
+            if (!value.isNew()) {
+                GroupByUtils.mergeFunctions(ownerFunctions, value, entryRecord.getValue());
+            }
+        }
+        openBucket = entry.getLastBucket();
+    }
+
+    private boolean nextFrame() {
+        while (frame == null || frameOffset == frameRowCount) {
+            if (framesExhausted || (frame = pageFrameCursor.next()) == null) {
+                framesExhausted = true;
+                return false;
+            }
+            frameOffset = 0;
+            frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+        }
+        return true;
+    }
+
+    private boolean nextTask(SampleByEntry entry) {
+        if (!nextFrame()) {
+            return false;
+        }
+
+        final long rowCount = Math.min(pageFrameMaxRows, frameRowCount - frameOffset);
+        final LongList addresses = entry.getColumnAddresses();
+        addresses.clear();
+        for (int i = 0, n = columnShifts.size(); i < n; i++) {
+            final long address = frame.getPageAddress(i);
+            addresses.add(address == 0 ? 0 : address + (frameOffset << columnShifts.getQuick(i)));
+        }
+        entry.of(frame.getPartitionIndex(), frame.getPartitionLo() + frameOffset, rowCount, baselineOffset);
+        frameOffset += rowCount;
+        return true;
+    }
+
+    private void openMapCursor() {
+        mapCursor = pending.getCursor();
+        record.of(mapCursor.getRecord());
+    }
+
+    private void publish(SampleByEntry entry) {
+        if (pubSeq != null) {
+            long seq;
+            do {
+                seq = pubSeq.next();
+            } while (seq == -2);
+
+            // when queue is full the entry is left to the owner thread
+            if (seq > -1) {
+                queue.get(seq).entry = entry;
+                pubSeq.done(seq);
+            }
+        }
+    }
+
+    private void start() {
+        head = 0;
+        activeCount = 0;
+        mapCursor = null;
+        pending.clear();
+        carry.clear();
+        openBucket = Numbers.LONG_NaN;
+        pendingFirstBucket = Numbers.LONG_NaN;
+        frame = null;
+        frameOffset = 0;
+        frameRowCount = 0;
+        framesExhausted = false;
+        // buckets are aligned to the first timestamp, same as in single threaded sample by
+        if (nextFrame()) {
+            final long timestamp = Unsafe.getUnsafe().getLong(frame.getPageAddress(timestampIndex));
+            baselineOffset = timestamp - timestampSampler.round(timestamp);
+        }
+        dispatch();
+    }
+
+    private boolean steal() {
+        for (int i = 1; i < activeCount; i++) {
+            if (entries.getQuick((head + i) % window).runOwner()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void freeMaps() {
+        Misc.freeObjList(entries);
+        entries.clear();
+        pending = Misc.free(pending);
+        carry = Misc.free(carry);
+    }
+
+    void of(PageFrameCursor pageFrameCursor, @Nullable MessageBus bus, SqlExecutionContext executionContext) {
+        this.pageFrameCursor = pageFrameCursor;
+        this.interruptor = executionContext.getSqlExecutionInterruptor();
+        if (bus != null) {
+            this.queue = bus.getSampleByQueue();
+            this.pubSeq = queue != null ? bus.getSampleByPubSequence() : null;
+        } else {
+            this.queue = null;
+            this.pubSeq = null;
+        }
+
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (metadata.getColumnType(i) == ColumnType.SYMBOL) {
+                final SymbolMapReader symbolMapReader = pageFrameCursor.getSymbolMapReader(i);
+                for (int j = 0, m = records.size(); j < m; j++) {
+                    ofSymbolTable(records.getQuick(j), i, symbolMapReader);
+                }
+            }
+        }
+
+        for (int i = 0; i < ownerSlot; i++) {
+            Function.init(functions.getQuick(i), records.getQuick(i), executionContext);
+        }
+        // record functions include group-by functions of the owner thread
+        Function.init(recordFunctions, records.getQuick(ownerSlot), executionContext);
+        start();
+    }
+
+    private class TimestampFunc extends TimestampFunction implements Function {
+
+        public TimestampFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public long getTimestamp(Record rec) {
+            // bucket timestamp is the first map value
+            return rec.getTimestamp(0) + baselineOffset;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * SAMPLE BY with FILL(NONE) over factory that supports page frames. Slices of page frames
+ * are aggregated by the worker pool into bucket maps, which are then merged in timestamp
+ * order by the thread that owns the cursor. Buckets are aligned in the same way as single
+ * threaded sample by does it and all group-by functions must support merge.
+ */
+public class ParallelSampleByRecordCursorFactory implements RecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final RecordMetadata metadata;
+    private final ObjList<ObjList<GroupByFunction>> functions;
+    private final ObjList<Function> recordFunctions;
+    private final ParallelSampleByRecordCursor cursor;
+
+    /**
+     * @param functions group-by function copies, one per worker, the last copy is used by the owner
+     *                  thread and is also referenced by record functions
+     */
+    public ParallelSampleByRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordCursorFactory base,
+            RecordMetadata groupByMetadata,
+            @NotNull ObjList<ObjList<GroupByFunction>> functions,
+            @NotNull ObjList<Function> recordFunctions,
+            @NotNull TimestampSampler timestampSampler,
+            @Transient @NotNull ListColumnFilter listColumnFilter,
+            @Transient @NotNull BytecodeAssembler asm,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            int timestampIndex
+    ) {
+        assert base.supportPageFrameCursor();
+        this.base = base;
+        this.metadata = groupByMetadata;
+        this.functions = functions;
+        this.recordFunctions = recordFunctions;
+        final RecordSink keySink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, false);
+        // sample by keys are followed by bucket timestamp in map key
+        final ArrayColumnTypes mapKeyTypes = new ArrayColumnTypes();
+        for (int i = 0, n = keyTypes.getColumnCount(); i < n; i++) {
+            mapKeyTypes.add(keyTypes.getColumnType(i));
+        }
+        mapKeyTypes.add(ColumnType.TIMESTAMP);
+        this.cursor = new ParallelSampleByRecordCursor(
+                configuration,
+                base.getMetadata(),
+                functions,
+                recordFunctions,
+                keySink,
+                timestampSampler,
+                mapKeyTypes,
+                valueTypes,
+                timestampIndex,
+                configuration.getSqlPageFrameMaxRows()
+        );
+    }
+
+    @Override
+    public void close() {
+        cursor.freeMaps();
+        // last function copy is owned by record functions
+        for (int i = 0, n = functions.size() - 1; i < n; i++) {
+            Misc.freeObjList(functions.getQuick(i));
+        }
+        Misc.freeObjList(recordFunctions);
+        Misc.free(base);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        final PageFrameCursor pageFrameCursor = base.getPageFrameCursor(executionContext);
+        try {
+            cursor.of(pageFrameCursor, executionContext.getMessageBus(), executionContext);
+        } catch (Throwable e) {
+            cursor.close();
+            throw e;
+        }
+        return cursor;
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+}
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.table.PageFrameRecord;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+import java.io.Closeable;
+
+/**
+ * Unit of work of parallel sample by: a slice of page frame, which is aggregated into
+ * the entry's own map using group-by function copies of the executing thread. Map is keyed
+ * by sample by keys followed by bucket timestamp, the bucket timestamp is also stored in
+ * the first map value. Rows of a slice are in timestamp order, which means that map
+ * entries are ordered by bucket and only the first and the last bucket of the slice can
+ * be shared with neighbouring slices.
+ */
+public class SampleByEntry implements Closeable {
+
+    private static final long LOCK_OFFSET;
+
+    static {
+        LOCK_OFFSET = Unsafe.getFieldOffset(SampleByEntry.class, "lock");
+    }
+
+    private final LongList columnAddresses = new LongList();
+    private final FastMap map;
+    private final ObjList<PageFrameRecord> records;
+    private final ObjList<ObjList<GroupByFunction>> functions;
+    private final RecordSink keySink;
+    private final TimestampSampler timestampSampler;
+    private final int timestampIndex;
+    private int partitionIndex;
+    private long partitionLo;
+    private long rowCount;
+    private long baselineOffset;
+    private long firstBucket;
+    private long lastBucket;
+    private Throwable error;
+    // to "lock" the entry thread must successfully CAS the value from 0 to 1
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
+    private volatile int lock = 1;
+    private volatile boolean done = true;
+
+    SampleByEntry(
+            FastMap map,
+            ObjList<PageFrameRecord> records,
+            ObjList<ObjList<GroupByFunction>> functions,
+            RecordSink keySink,
+            TimestampSampler timestampSampler,
+            int timestampIndex
+    ) {
+        this.map = map;
+        this.records = records;
+        this.functions = functions;
+        this.keySink = keySink;
+        this.timestampSampler = timestampSampler;
+        this.timestampIndex = timestampIndex;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(map);
+    }
+
+    /**
+     * Aggregates the entry on behalf of worker thread. The last function copy is reserved
+     * for the thread that owns the cursor, workers without a copy of their own leave
+     * the entry to the owner.
+     *
+     * @param workerId id of worker thread
+     * @return true when entry was aggregated by this call
+     */
+    public boolean run(int workerId) {
+        return workerId < functions.size() - 1 && run0(workerId);
+    }
+
+    /**
+     * Aggregates the entry on the thread that owns the cursor using the function copy
+     * reserved for that thread.
+     *
+     * @return true when entry was aggregated by this call
+     */
+    boolean runOwner() {
+        return run0(functions.size() - 1);
+    }
+
+    private boolean run0(int slot) {
+        if (Unsafe.cas(this, LOCK_OFFSET, 0, 1)) {
+            try {
+                aggregate(records.getQuick(slot), functions.getQuick(slot));
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                done = true;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Takes the entry away from workers without aggregating it.
+     *
+     * @return true when entry was not picked up by anyone
+     */
+    boolean cancel() {
+        if (Unsafe.cas(this, LOCK_OFFSET, 0, 1)) {
+            done = true;
+            return true;
+        }
+        return false;
+    }
+
+    LongList getColumnAddresses() {
+        return columnAddresses;
+    }
+
+    Throwable getError() {
+        return error;
+    }
+
+    long getFirstBucket() {
+        return firstBucket;
+    }
+
+    long getLastBucket() {
+        return lastBucket;
+    }
+
+    FastMap getMap() {
+        return map;
+    }
+
+    boolean isDone() {
+        return done;
+    }
+
+    void of(int partitionIndex, long partitionLo, long rowCount, long baselineOffset) {
+        this.partitionIndex = partitionIndex;
+        this.partitionLo = partitionLo;
+        this.rowCount = rowCount;
+        this.baselineOffset = baselineOffset;
+        this.error = null;
+        this.done = false;
+        // column addresses must be populated before the entry is unlocked
+        this.lock = 0;
+    }
+
+    private void aggregate(PageFrameRecord record, ObjList<GroupByFunction> groupByFunctions) {
+        final int n = groupByFunctions.size();
+        map.clear();
+        record.of(columnAddresses, partitionIndex, partitionLo);
+        long bucket = Long.MIN_VALUE;
+        for (long row = 0; row < rowCount; row++) {
+            record.setRow(row);
+            bucket = timestampSampler.round(record.getTimestamp(timestampIndex) - baselineOffset);
+            if (row == 0) {
+                firstBucket = bucket;
+            }
+            final MapKey key = map.withKey();
+            keySink.copy(record, key);
+            key.putLong(bucket);
+            final MapValue value = key.createValue();
+            if (value.isNew()) {
+                value.putTimestamp(0, bucket);
+            }
+            GroupByUtils.updateFunctions(groupByFunctions, n, value, record);
+        }
+        lastBucket = bucket;
+    }
+}
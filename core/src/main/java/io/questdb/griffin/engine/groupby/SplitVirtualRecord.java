@@ -135,6 +135,11 @@ public class SplitVirtualRecord implements Record {
         return getFunction(col).getSymbol(base);
     }
 
+    @Override
+    public CharSequence getSymB(int col) {
+        return getFunction(col).getSymbolB(base);
+    }
+
     @Override
     public long getTimestamp(int col) {
         return getFunction(col).getTimestamp(base);
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.std.LongList;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rosti;
+import io.questdb.std.Unsafe;
+
+/**
+ * Keyed first() and last() on top of Rosti. Frames are aggregated concurrently and in no
+ * particular order, so instead of values the map keeps position of the row in scan order,
+ * which is min() for first() and max() for last() of row positions. Once maps are merged,
+ * row positions are resolved to values using addresses of the frames they came from.
+ * <p>
+ * Keys for every frame row must be present, which is why these functions require
+ * materialised keys, see {@link RostiKeyEncoder}.
+ */
+public class FirstLastVectorAggregateFunction implements KeyedVectorAggregateFunction {
+    private final boolean first;
+    private final int columnIndex;
+    private final int type;
+    private final int valueShift;
+    private final long nullValue;
+    private final WorkerLocalBuffers rowNumbers;
+    private final LongList frameRowLos = new LongList();
+    private final LongList frameAddresses = new LongList();
+    private int valueOffset;
+
+    public FirstLastVectorAggregateFunction(int columnIndex, int type, int workerCount, boolean first) {
+        this.first = first;
+        this.columnIndex = columnIndex;
+        this.type = type;
+        this.valueShift = ColumnType.pow2SizeOf(type);
+        this.nullValue = nullOf(type);
+        this.rowNumbers = new WorkerLocalBuffers(workerCount);
+    }
+
+    @Override
+    public void aggregate(long pRosti, long keyAddress, long valueAddress, long valueAddressSize, long rowLo, int workerId) {
+        final long count = valueAddressSize >>> valueShift;
+        final long pRowNumbers = rowNumbers.get(workerId, count * Long.BYTES);
+        for (long i = 0; i < count; i++) {
+            Unsafe.getUnsafe().putLong(pRowNumbers + (i << 3), rowLo + i);
+        }
+        if (first) {
+            Rosti.keyedIntMinLong(pRosti, keyAddress, pRowNumbers, count, valueOffset);
+        } else {
+            Rosti.keyedIntMaxLong(pRosti, keyAddress, pRowNumbers, count, valueOffset);
+        }
+    }
+
+    @Override
+    public void clear() {
+        frameRowLos.clear();
+        frameAddresses.clear();
+    }
+
+    @Override
+    public void close() {
+        rowNumbers.close();
+    }
+
+    @Override
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    @Override
+    public int getType() {
+        return type;
+    }
+
+    @Override
+    public int getValueOffset() {
+        return valueOffset;
+    }
+
+    @Override
+    public void initRosti(long pRosti) {
+        Unsafe.getUnsafe().putLong(Rosti.getInitialValueSlot(pRosti, valueOffset), first ? Long.MAX_VALUE : Long.MIN_VALUE);
+    }
+
+    @Override
+    public boolean isRowOrderSensitive() {
+        return true;
+    }
+
+    @Override
+    public void merge(long pRostiA, long pRostiB) {
+        if (first) {
+            Rosti.keyedIntMinLongMerge(pRostiA, pRostiB, valueOffset);
+        } else {
+            Rosti.keyedIntMaxLongMerge(pRostiA, pRostiB, valueOffset);
+        }
+    }
+
+    @Override
+    public void onFrame(PageFrame frame, long rowLo) {
+        frameRowLos.add(rowLo);
+        frameAddresses.add(frame.getPageAddress(columnIndex));
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes types) {
+        this.valueOffset = types.getColumnCount();
+        types.add(ColumnType.LONG);
+    }
+
+    @Override
+    public void wrapUp(long pRosti) {
+        final long ctrlStart = Rosti.getCtrl(pRosti);
+        final long slots = Rosti.getSlots(pRosti);
+        final long shift = Rosti.getSlotShift(pRosti);
+        final long size = Rosti.getSize(pRosti);
+        final long offset = Unsafe.getUnsafe().getInt(Rosti.getValueOffsets(pRosti) + valueOffset * Integer.BYTES);
+
+        long ctrl = ctrlStart;
+        long count = 0;
+        while (count < size) {
+            if ((Unsafe.getUnsafe().getByte(ctrl) & 0x80) == 0) {
+                final long pValue = slots + ((ctrl - ctrlStart) << shift) + offset;
+                resolve(pValue, Unsafe.getUnsafe().getLong(pValue));
+                count++;
+            }
+            ctrl++;
+        }
+    }
+
+    private static long nullOf(int type) {
+        switch (type) {
+            case ColumnType.INT:
+                return Numbers.INT_NaN;
+            case ColumnType.DOUBLE:
+                return Double.doubleToRawLongBits(Double.NaN);
+            default:
+                return Numbers.LONG_NaN;
+        }
+    }
+
+    private void resolve(long pValue, long rowNumber) {
+        long address = 0;
+        long row = 0;
+        if (rowNumber != Long.MAX_VALUE && rowNumber != Long.MIN_VALUE) {
+            int frameIndex = frameRowLos.binarySearch(rowNumber);
+            if (frameIndex < 0) {
+                frameIndex = -frameIndex - 2;
+            }
+            address = frameAddresses.getQuick(frameIndex);
+            row = rowNumber - frameRowLos.getQuick(frameIndex);
+        }
+
+        if (valueShift == 3) {
+            Unsafe.getUnsafe().putLong(pValue, address == 0 ? nullValue : Unsafe.getUnsafe().getLong(address + (row << 3)));
+        } else {
+            Unsafe.getUnsafe().putInt(pValue, address == 0 ? (int) nullValue : Unsafe.getUnsafe().getInt(address + (row << 2)));
+        }
+    }
+}
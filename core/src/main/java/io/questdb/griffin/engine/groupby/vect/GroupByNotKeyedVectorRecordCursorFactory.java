@@ -117,7 +117,7 @@ public class GroupByNotKeyedVectorRecordCursorFactory implements RecordCursorFac
                 } else {
                     final VectorAggregateEntry entry = entryPool.next();
                     // null pRosti means that we do not need keyed aggregation
-                    entry.of(queuedCount++, vaf, null, 0, pageAddress, pageSize, doneLatch);
+                    entry.of(queuedCount++, vaf, pageAddress, pageSize, doneLatch);
                     activeEntries.add(entry);
                     queue.get(seq).entry = entry;
                     pubSeq.done(seq);
@@ -28,6 +28,7 @@ import io.questdb.MessageBus;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.SymbolMapReader;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.log.Log;
@@ -40,12 +41,15 @@ import io.questdb.std.*;
 import io.questdb.std.str.CharSink;
 import io.questdb.tasks.VectorAggregateTask;
 
+import static io.questdb.griffin.SqlCodeGenerator.GKK_HOUR_INT;
+import static io.questdb.griffin.SqlCodeGenerator.GKK_VANILLA_INT;
+
 public class GroupByRecordCursorFactory implements RecordCursorFactory {
 
     private final static Log LOG = LogFactory.getLog(GroupByRecordCursorFactory.class);
 
     private final RecordCursorFactory base;
-    private final ObjList<VectorAggregateFunction> vafList;
+    private final ObjList<KeyedVectorAggregateFunction> vafList;
     private final ObjectPool<VectorAggregateEntry> entryPool;
     private final ObjList<VectorAggregateEntry> activeEntries;
     private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
@@ -53,6 +57,13 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
 
     private final long[] pRosti;
     private final int keyColumnIndex;
+    private final int keyColumnIndexB;
+    // keys are materialised for composite keys and row order sensitive functions
+    private final RostiKeyEncoder keyEncoder;
+    // key kind of single key that is read straight from key column
+    private final int keyKind;
+    private final WorkerLocalBuffers nullKeyBuffers;
+    private final IntList valueShifts;
     private final RostiRecordCursor cursor;
 
     public GroupByRecordCursorFactory(
@@ -61,16 +72,17 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
             RecordMetadata metadata,
             @Transient ColumnTypes columnTypes,
             int workerCount,
-            @Transient ObjList<VectorAggregateFunction> vafList,
-            int keyColumnIndexInBase,
-            int keyColumnIndexInThisCursor,
+            @Transient ObjList<KeyedVectorAggregateFunction> vafList,
+            @Transient IntList keyColumnIndexesInBase,
+            @Transient IntList keyColumnIndexesInThisCursor,
+            @Transient IntList keyKinds,
             @Transient IntList symbolTableSkewIndex
     ) {
 
         this.entryPool = new ObjectPool<>(VectorAggregateEntry::new, configuration.getGroupByPoolCapacity());
         this.activeEntries = new ObjList<>(configuration.getGroupByPoolCapacity());
         // columnTypes and functions must align in the following way:
-        // columnTypes[0] is the type of key, for now single key is supported
+        // columnTypes[0] is the type of key, composite keys are packed into single INT
         // functions.size = columnTypes.size - 1, functions do not have instance for key, only for values
         // functions[0].type == columnTypes[1]
         // ...
@@ -113,44 +125,99 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
         final long pRosti = this.pRosti[0];
         final long columnOffsets = Rosti.getValueOffsets(pRosti);
 
-        // skew logic assumes single key, for multiple keys skew would be different
-
+        // keys are in the middle of aggregates, all key columns read from offset 0
+        // of the slot and aggregates follow in the order of their columns
+        final int keyCount = keyColumnIndexesInThisCursor.size();
         final IntList columnSkewIndex = new IntList();
-        // key is in the middle, shift aggregates before the key one position left
-        addOffsets(columnSkewIndex, vafList, 0, keyColumnIndexInThisCursor, columnOffsets);
+        // for composite keys: 0 - first key, 1 - second key, -1 - not a key
+        final IntList keyComponents = new IntList();
+        for (int i = 0, vafIndex = 0, n = keyCount + vafCount; i < n; i++) {
+            final int keyIndex = keyIndexOf(keyColumnIndexesInThisCursor, i);
+            if (keyIndex > -1) {
+                columnSkewIndex.add(0);
+                keyComponents.add(keyIndex);
+            } else {
+                columnSkewIndex.add(Unsafe.getUnsafe().getInt(columnOffsets + vafList.getQuick(vafIndex++).getValueOffset() * Integer.BYTES));
+                keyComponents.add(-1);
+            }
+        }
 
-        // this is offset of the key column
-        columnSkewIndex.add(0);
+        this.vafList.addAll(vafList);
+        this.keyColumnIndex = keyColumnIndexesInBase.getQuick(0);
+        this.keyColumnIndexB = keyCount > 1 ? keyColumnIndexesInBase.getQuick(1) : -1;
+        if (requiresKeyEncoder(keyCount, vafList)) {
+            this.keyEncoder = new RostiKeyEncoder(keyKinds.getQuick(0), keyCount > 1 ? keyKinds.getQuick(1) : -1, workerCount);
+            this.keyKind = GKK_VANILLA_INT;
+        } else {
+            this.keyEncoder = null;
+            this.keyKind = keyKinds.getQuick(0);
+        }
+        this.nullKeyBuffers = new WorkerLocalBuffers(workerCount);
 
-        // add remaining aggregate columns as is
-        addOffsets(columnSkewIndex, vafList, keyColumnIndexInThisCursor, vafCount, columnOffsets);
+        final RecordMetadata baseMetadata = base.getMetadata();
+        this.valueShifts = new IntList(vafCount);
+        for (int i = 0; i < vafCount; i++) {
+            final int columnIndex = vafList.getQuick(i).getColumnIndex();
+            valueShifts.add(columnIndex > -1 ? ColumnType.pow2SizeOf(baseMetadata.getColumnType(columnIndex)) : 2);
+        }
 
-        this.vafList.addAll(vafList);
-        this.keyColumnIndex = keyColumnIndexInBase;
+        final IntList symbolSkew;
         if (symbolTableSkewIndex.size() > 0) {
-            final IntList symbolSkew = new IntList(symbolTableSkewIndex.size());
+            symbolSkew = new IntList(symbolTableSkewIndex.size());
             symbolSkew.addAll(symbolTableSkewIndex);
-            this.cursor = new RostiRecordCursor(pRosti, columnSkewIndex, symbolSkew);
         } else {
-            this.cursor = new RostiRecordCursor(pRosti, columnSkewIndex, null);
+            symbolSkew = null;
         }
+        this.cursor = new RostiRecordCursor(pRosti, columnSkewIndex, symbolSkew, keyCount > 1 ? keyComponents : null);
     }
 
-    private static void addOffsets(
-            IntList columnSkewIndex,
-            @Transient ObjList<VectorAggregateFunction> vafList,
-            int start,
-            int end,
-            long columnOffsets
-    ) {
-        for (int i = start; i < end; i++) {
-            columnSkewIndex.add(Unsafe.getUnsafe().getInt(columnOffsets + vafList.getQuick(i).getValueOffset() * Integer.BYTES));
+    /**
+     * Keyed vector aggregation reads keys straight from the key column unless key is composite
+     * or there is a function that needs scan-order row numbers to go with the keys.
+     *
+     * @param keyCount number of key columns
+     * @param vafList  aggregate functions
+     * @return true when keys have to be materialised
+     */
+    public static boolean requiresKeyEncoder(int keyCount, @Transient ObjList<KeyedVectorAggregateFunction> vafList) {
+        if (keyCount > 1) {
+            return true;
         }
+        for (int i = 0, n = vafList.size(); i < n; i++) {
+            if (vafList.getQuick(i).isRowOrderSensitive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Composite keys are packed into single int, which only works while product of key
+     * cardinalities fits into int.
+     *
+     * @param cursor                  page frame cursor of the base factory
+     * @param keyColumnIndexesInBase  key column indexes in base metadata
+     * @param keyKinds                key kinds, see SqlCodeGenerator.GKK_*
+     * @return false when keys cannot be packed and query has to use generic group by
+     */
+    public static boolean isKeyCardinalitySupported(
+            PageFrameCursor cursor,
+            @Transient IntList keyColumnIndexesInBase,
+            @Transient IntList keyKinds
+    ) {
+        return keyColumnIndexesInBase.size() < 2 || RostiKeyEncoder.isCardinalitySupported(
+                keyKinds.getQuick(0),
+                getSymbolCount(cursor, keyColumnIndexesInBase.getQuick(0)),
+                keyKinds.getQuick(1),
+                getSymbolCount(cursor, keyColumnIndexesInBase.getQuick(1))
+        );
     }
 
     @Override
     public void close() {
         Misc.freeObjList(vafList);
+        Misc.free(keyEncoder);
+        Misc.free(nullKeyBuffers);
         for (int i = 0, n = pRosti.length; i < n; i++) {
             Rosti.free(pRosti[i]);
         }
@@ -170,6 +237,15 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
         final PageFrameCursor cursor = base.getPageFrameCursor(executionContext);
         final int vafCount = vafList.size();
 
+        if (keyEncoder != null) {
+            try {
+                keyEncoder.of(getSymbolCount(cursor, keyColumnIndex), getSymbolCount(cursor, keyColumnIndexB));
+            } catch (Throwable e) {
+                Misc.free(cursor);
+                throw e;
+            }
+        }
+
         // clear state of aggregate functions
         for (int i = 0; i < vafCount; i++) {
             vafList.getQuick(i).clear();
@@ -197,10 +273,42 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
         }
 
         PageFrame frame;
+        // position of the first row of the frame in scan order
+        long rowLo = 0;
         while ((frame = cursor.next()) != null) {
             final long keyAddress = frame.getPageAddress(keyColumnIndex);
+            if (keyEncoder != null) {
+                final long keyAddressB = keyColumnIndexB > -1 ? frame.getPageAddress(keyColumnIndexB) : 0;
+                final long rowCount = frame.getPartitionHi() - frame.getPartitionLo();
+                for (int i = 0; i < vafCount; i++) {
+                    final KeyedVectorAggregateFunction vaf = vafList.getQuick(i);
+                    final int columnIndex = vaf.getColumnIndex();
+                    final long valueAddress = columnIndex > -1 ? frame.getPageAddress(columnIndex) : 0;
+                    // page size of column top is row count, keep it in bytes for consistency
+                    final long valueAddressSize = rowCount << valueShifts.getQuick(i);
+                    vaf.onFrame(frame, rowLo);
+
+                    long seq = pubSeq.next();
+                    if (seq < 0) {
+                        final long keys = keyEncoder.encode(workerId, keyAddress, keyAddressB, rowCount);
+                        vaf.aggregate(pRosti[workerId], keys, valueAddress, valueAddressSize, rowLo, workerId);
+                        ownCount++;
+                    } else {
+                        final VectorAggregateEntry entry = entryPool.next();
+                        entry.of(queuedCount++, vaf, pRosti, keyEncoder, keyAddress, keyAddressB, valueAddress, valueAddressSize, rowLo, rowCount, doneLatch);
+                        activeEntries.add(entry);
+                        queue.get(seq).entry = entry;
+                        pubSeq.done(seq);
+                    }
+                    total++;
+                }
+                rowLo += rowCount;
+                continue;
+            }
+
+            final long rowCount = frame.getPartitionHi() - frame.getPartitionLo();
             for (int i = 0; i < vafCount; i++) {
-                final VectorAggregateFunction vaf = vafList.getQuick(i);
+                final KeyedVectorAggregateFunction vaf = vafList.getQuick(i);
                 // when column index = -1 we assume that vector function does not have value
                 // argument and it can only derive count via memory size
                 final int columnIndex = vaf.getColumnIndex();
@@ -212,31 +320,42 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
                     valueAddressSize = frame.getPageSize(columnIndex);
                 } else {
                     valueAddress = 0;
-                    valueAddressSize = frame.getPageSize(keyColumnIndex);
+                    valueAddressSize = rowCount << valueShifts.getQuick(i);
                 }
+
+                if (keyAddress == 0 && columnIndex == -1) {
+                    // key column top, count() needs key for every row; null keys are in buffer
+                    // of this thread, so frame cannot be handed over to other workers
+                    vaf.aggregate(pRosti[workerId], nullKeys(workerId, rowCount), valueAddress, valueAddressSize, rowLo, workerId);
+                    ownCount++;
+                    total++;
+                    continue;
+                }
+
                 long seq = pubSeq.next();
                 if (seq < 0) {
                     if (keyAddress == 0) {
-                        vaf.aggregate(valueAddress, valueAddressSize, workerId);
+                        // values of key column top are attributed to null key when function wraps up,
+                        // functions that need keys on every row use key encoder, this cast is safe
+                        ((VectorAggregateFunction) vaf).aggregate(valueAddress, valueAddressSize, workerId);
                     } else {
-                        vaf.aggregate(pRosti[workerId], keyAddress, valueAddress, valueAddressSize, workerId);
+                        vaf.aggregate(pRosti[workerId], keyAddress, valueAddress, valueAddressSize, rowLo, workerId);
                     }
                     ownCount++;
                 } else {
-                    if (keyAddress != 0 || valueAddress != 0) {
-                        final VectorAggregateEntry entry = entryPool.next();
-                        if (keyAddress == 0) {
-                            entry.of(queuedCount++, vaf, null, 0, valueAddress, valueAddressSize, doneLatch);
-                        } else {
-                            entry.of(queuedCount++, vaf, pRosti, keyAddress, valueAddress, valueAddressSize, doneLatch);
-                        }
-                        activeEntries.add(entry);
-                        queue.get(seq).entry = entry;
-                        pubSeq.done(seq);
+                    final VectorAggregateEntry entry = entryPool.next();
+                    if (keyAddress == 0) {
+                        entry.of(queuedCount++, (VectorAggregateFunction) vaf, valueAddress, valueAddressSize, doneLatch);
+                    } else {
+                        entry.of(queuedCount++, vaf, pRosti, null, keyAddress, 0, valueAddress, valueAddressSize, rowLo, rowCount, doneLatch);
                     }
+                    activeEntries.add(entry);
+                    queue.get(seq).entry = entry;
+                    pubSeq.done(seq);
                 }
                 total++;
             }
+            rowLo += rowCount;
         }
 
         // all done? great start consuming the queue we just published
@@ -252,7 +371,7 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
             LOG.debug().$("merging").$();
 
             for (int j = 0; j < vafCount; j++) {
-                final VectorAggregateFunction vaf = vafList.getQuick(j);
+                final KeyedVectorAggregateFunction vaf = vafList.getQuick(j);
                 for (int i = 1, n = pRosti.length; i < n; i++) {
                     vaf.merge(pRosti0, pRosti[i]);
                 }
@@ -266,7 +385,42 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
 
         LOG.info().$("done [total=").$(total).$(", ownCount=").$(ownCount).$(", reclaimed=").$(reclaimed).$(", queuedCount=").$(queuedCount).$(']').$();
 
-        return this.cursor.of(cursor);
+        return this.cursor.of(cursor, keyEncoder);
+    }
+
+    private long nullKeys(int workerId, long rowCount) {
+        // hour() keys are timestamps, native functions derive hour from them
+        if (keyKind == GKK_HOUR_INT) {
+            final long keys = nullKeyBuffers.get(workerId, rowCount * Long.BYTES);
+            for (long i = 0; i < rowCount; i++) {
+                Unsafe.getUnsafe().putLong(keys + (i << 3), Numbers.LONG_NaN);
+            }
+            return keys;
+        }
+        final long keys = nullKeyBuffers.get(workerId, rowCount * Integer.BYTES);
+        for (long i = 0; i < rowCount; i++) {
+            Unsafe.getUnsafe().putInt(keys + (i << 2), Numbers.INT_NaN);
+        }
+        return keys;
+    }
+
+    private static int keyIndexOf(IntList keyColumnIndexes, int columnIndex) {
+        for (int i = 0, n = keyColumnIndexes.size(); i < n; i++) {
+            if (keyColumnIndexes.getQuick(i) == columnIndex) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int getSymbolCount(PageFrameCursor cursor, int columnIndex) {
+        if (columnIndex > -1) {
+            final SymbolMapReader symbolMapReader = cursor.getSymbolMapReader(columnIndex);
+            if (symbolMapReader != null) {
+                return symbolMapReader.size();
+            }
+        }
+        return 0;
     }
 
     @Override
@@ -284,6 +438,8 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
         private final long pRosti;
         private final IntList symbolTableSkewIndex;
         private final IntList columnSkewIndex;
+        private final IntList keyComponents;
+        private RostiKeyEncoder keyEncoder;
         private RostiRecord recordB;
         private long ctrlStart;
         private long ctrl;
@@ -293,15 +449,17 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
         private long count;
         private PageFrameCursor parent;
 
-        public RostiRecordCursor(long pRosti, IntList columnSkewIndex, IntList symbolTableSkewIndex) {
+        public RostiRecordCursor(long pRosti, IntList columnSkewIndex, IntList symbolTableSkewIndex, IntList keyComponents) {
             this.pRosti = pRosti;
             this.record = new RostiRecord();
             this.symbolTableSkewIndex = symbolTableSkewIndex;
             this.columnSkewIndex = columnSkewIndex;
+            this.keyComponents = keyComponents;
         }
 
-        public RostiRecordCursor of(PageFrameCursor parent) {
+        public RostiRecordCursor of(PageFrameCursor parent, RostiKeyEncoder keyEncoder) {
             this.parent = parent;
+            this.keyEncoder = keyEncoder;
             this.toTop();
             return this;
         }
@@ -418,7 +576,18 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
 
             @Override
             public int getInt(int col) {
-                return Unsafe.getUnsafe().getInt(getValueOffset(col));
+                final int value = Unsafe.getUnsafe().getInt(getValueOffset(col));
+                if (keyComponents != null) {
+                    switch (keyComponents.getQuick(col)) {
+                        case 0:
+                            return keyEncoder.decodeA(value);
+                        case 1:
+                            return keyEncoder.decodeB(value);
+                        default:
+                            break;
+                    }
+                }
+                return value;
             }
 
             @Override
@@ -476,6 +645,11 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
                 return parent.getSymbolMapReader(symbolTableSkewIndex.getQuick(col)).valueOf(getInt(col));
             }
 
+            @Override
+            public CharSequence getSymB(int col) {
+                return parent.getSymbolMapReader(symbolTableSkewIndex.getQuick(col)).valueBOf(getInt(col));
+            }
+
             @Override
             public long getTimestamp(int col) {
                 return getLong(col);
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.std.Mutable;
+
+import java.io.Closeable;
+
+/**
+ * Aggregate function that can only be used by keyed vector aggregation, see
+ * {@link GroupByRecordCursorFactory}. Values are read off Rosti, so unlike
+ * {@link VectorAggregateFunction} these functions do not produce value of their own.
+ */
+public interface KeyedVectorAggregateFunction extends Closeable, Mutable {
+
+    // row order sensitive functions also receive position of the first row of the frame in scan order
+    void aggregate(long pRosti, long keyAddress, long valueAddress, long valueAddressSize, long rowLo, int workerId);
+
+    @Override
+    default void close() {
+    }
+
+    int getColumnIndex();
+
+    int getType();
+
+    // value offset in map
+    int getValueOffset();
+
+    void initRosti(long pRosti);
+
+    // result of function depends on order of rows, e.g. first() and last()
+    default boolean isRowOrderSensitive() {
+        return false;
+    }
+
+    void merge(long pRostiA, long pRostiB);
+
+    // called for every frame, in scan order, before the frame is aggregated
+    default void onFrame(PageFrame frame, long rowLo) {
+    }
+
+    void pushValueTypes(ArrayColumnTypes types);
+
+    // sets null as result of aggregation of all nulls
+    // this typically checks non-null count and replaces 0 with null if all values were null
+    void wrapUp(long pRosti);
+}
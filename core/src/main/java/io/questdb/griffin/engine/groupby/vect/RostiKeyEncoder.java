@@ -0,0 +1,149 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.sql.ReaderOutOfDateException;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.microtime.Timestamps;
+
+import java.io.Closeable;
+
+import static io.questdb.griffin.SqlCodeGenerator.GKK_HOUR_INT;
+
+/**
+ * Materialises Rosti keys for a page frame when they cannot be read off the key column directly.
+ * This is the case for composite keys, where values of two key columns are packed into single int,
+ * and for aggregate functions that need a key for every row, even when key column has not been
+ * written to yet (column top).
+ * <p>
+ * Composite key is (a + 1) * cardinalityOf(b) + (b + 1), where 0 stands for null component. Hour
+ * components are derived from timestamp values.
+ */
+class RostiKeyEncoder implements Closeable {
+    private static final long HOUR_CARDINALITY = 25;
+    private final int keyKindA;
+    private final int keyKindB;
+    private final boolean composite;
+    private final WorkerLocalBuffers buffers;
+    private int cardinalityB;
+
+    RostiKeyEncoder(int keyKindA, int keyKindB, int workerCount) {
+        this.keyKindA = keyKindA;
+        this.keyKindB = keyKindB;
+        this.composite = keyKindB > -1;
+        this.buffers = new WorkerLocalBuffers(workerCount);
+    }
+
+    @Override
+    public void close() {
+        buffers.close();
+    }
+
+    int decodeA(int key) {
+        return composite ? decodeComponent(key / cardinalityB) : key;
+    }
+
+    int decodeB(int key) {
+        return decodeComponent(key % cardinalityB);
+    }
+
+    /**
+     * Produces int keys for page frame rows in buffer that belongs to the worker.
+     *
+     * @param workerId  worker that will aggregate the keys
+     * @param addressA  address of first key column page, 0 for column top
+     * @param addressB  address of second key column page, 0 for column top
+     * @param rowCount  number of rows in the frame
+     * @return address of key buffer
+     */
+    long encode(int workerId, long addressA, long addressB, long rowCount) {
+        if (!composite && keyKindA != GKK_HOUR_INT && addressA != 0) {
+            // key column can be used as is
+            return addressA;
+        }
+
+        final long keys = buffers.get(workerId, rowCount * Integer.BYTES);
+        if (composite) {
+            for (long i = 0; i < rowCount; i++) {
+                final long a = component(keyKindA, addressA, i);
+                final long b = component(keyKindB, addressB, i);
+                Unsafe.getUnsafe().putInt(keys + (i << 2), (int) (a * cardinalityB + b));
+            }
+        } else if (addressA == 0) {
+            for (long i = 0; i < rowCount; i++) {
+                Unsafe.getUnsafe().putInt(keys + (i << 2), Numbers.INT_NaN);
+            }
+        } else {
+            // hour key
+            for (long i = 0; i < rowCount; i++) {
+                final long micros = Unsafe.getUnsafe().getLong(addressA + (i << 3));
+                Unsafe.getUnsafe().putInt(keys + (i << 2), micros == Numbers.LONG_NaN ? Numbers.INT_NaN : Timestamps.getHourOfDay(micros));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Prepares encoder for the next cursor. Symbol tables grow between executions, so key ranges
+     * have to be established each time.
+     *
+     * @param symbolCountA number of symbols of first key column, ignored for hour
+     * @param symbolCountB number of symbols of second key column, ignored for hour
+     */
+    void of(int symbolCountA, int symbolCountB) {
+        if (composite) {
+            if (!isCardinalitySupported(keyKindA, symbolCountA, keyKindB, symbolCountB)) {
+                // symbol tables outgrew the plan, recompiled query falls back to generic group by
+                throw ReaderOutOfDateException.INSTANCE;
+            }
+            this.cardinalityB = (int) cardinalityOf(keyKindB, symbolCountB);
+        }
+    }
+
+    static boolean isCardinalitySupported(int keyKindA, int symbolCountA, int keyKindB, int symbolCountB) {
+        return cardinalityOf(keyKindA, symbolCountA) * cardinalityOf(keyKindB, symbolCountB) <= Integer.MAX_VALUE;
+    }
+
+    private static long cardinalityOf(int keyKind, int symbolCount) {
+        return keyKind == GKK_HOUR_INT ? HOUR_CARDINALITY : symbolCount + 1L;
+    }
+
+    private static long component(int keyKind, long address, long row) {
+        if (address == 0) {
+            return 0;
+        }
+        if (keyKind == GKK_HOUR_INT) {
+            final long micros = Unsafe.getUnsafe().getLong(address + (row << 3));
+            return micros == Numbers.LONG_NaN ? 0 : Timestamps.getHourOfDay(micros) + 1;
+        }
+        final int value = Unsafe.getUnsafe().getInt(address + (row << 2));
+        return value == Numbers.INT_NaN ? 0 : value + 1;
+    }
+
+    private static int decodeComponent(int value) {
+        return value == 0 ? Numbers.INT_NaN : value - 1;
+    }
+}
@@ -0,0 +1,857 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.functions.*;
+import io.questdb.griffin.engine.functions.constants.DoubleConstant;
+import io.questdb.griffin.engine.functions.constants.IntConstant;
+import io.questdb.griffin.engine.functions.constants.LongConstant;
+import io.questdb.griffin.engine.groupby.MicroTimestampSampler;
+import io.questdb.griffin.engine.groupby.SplitVirtualRecord;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Not keyed SAMPLE BY over fixed size intervals. Bucket boundaries are located in
+ * the timestamp column of each page frame and every contiguous run of rows is
+ * aggregated in one tight loop. Buckets may span frames.
+ * <p>
+ * Runs of rows are slices of page frames, which native vector kernels are not meant
+ * to see, so slices are aggregated by bounded loops. Loops add values up in row
+ * order, which gives the same results as row by row SAMPLE BY.
+ */
+public class SampleByNotKeyedVectorRecordCursorFactory implements RecordCursorFactory {
+    public static final int FILL_NONE = 0;
+    public static final int FILL_NULL = 1;
+    public static final int FILL_PREV = 2;
+
+    private final RecordCursorFactory base;
+    private final RecordMetadata metadata;
+    private final ObjList<SliceFunction> sliceFunctions;
+    private final SampleByNotKeyedVectorRecordCursor cursor;
+
+    public SampleByNotKeyedVectorRecordCursorFactory(
+            RecordCursorFactory base,
+            RecordMetadata metadata,
+            MicroTimestampSampler timestampSampler,
+            @Transient ObjList<Function> recordFunctions,
+            @Transient IntList columnIndexes,
+            int timestampIndex,
+            int fill
+    ) {
+        this.base = base;
+        this.metadata = metadata;
+        this.sliceFunctions = new ObjList<>(recordFunctions.size());
+        this.cursor = new SampleByNotKeyedVectorRecordCursor(
+                base.getMetadata(),
+                recordFunctions,
+                columnIndexes,
+                timestampSampler,
+                timestampIndex,
+                fill
+        );
+    }
+
+    /**
+     * Creates function, which aggregates slices of page frames for SAMPLE BY.
+     *
+     * @param name       aggregate function name
+     * @param position   position of function in SQL text
+     * @param columnType type of aggregated column, ignored by count()
+     * @return function or null when aggregate function and column type cannot be sampled this way
+     */
+    @Nullable
+    public static Function newSliceFunction(CharSequence name, int position, int columnType) {
+        if (Chars.equals(name, "count")) {
+            return new CountFunc(position);
+        }
+        if (Chars.equals(name, "sum")) {
+            switch (columnType) {
+                case ColumnType.INT:
+                    return new SumIntFunc(position);
+                case ColumnType.LONG:
+                    return new SumLongFunc(position);
+                case ColumnType.DOUBLE:
+                    return new SumDoubleFunc(position);
+                default:
+                    return null;
+            }
+        }
+        if (Chars.equals(name, "avg")) {
+            switch (columnType) {
+                case ColumnType.INT:
+                    return new AvgIntFunc(position);
+                case ColumnType.LONG:
+                    return new AvgLongFunc(position);
+                case ColumnType.DOUBLE:
+                    return new AvgDoubleFunc(position);
+                default:
+                    return null;
+            }
+        }
+        if (Chars.equals(name, "min")) {
+            switch (columnType) {
+                case ColumnType.INT:
+                    return new MinIntFunc(position);
+                case ColumnType.LONG:
+                    return new MinLongFunc(position);
+                case ColumnType.DATE:
+                    return new MinDateFunc(position);
+                case ColumnType.TIMESTAMP:
+                    return new MinTimestampFunc(position);
+                case ColumnType.DOUBLE:
+                    return new MinDoubleFunc(position);
+                default:
+                    return null;
+            }
+        }
+        if (Chars.equals(name, "max")) {
+            switch (columnType) {
+                case ColumnType.INT:
+                    return new MaxIntFunc(position);
+                case ColumnType.LONG:
+                    return new MaxLongFunc(position);
+                case ColumnType.DATE:
+                    return new MaxDateFunc(position);
+                case ColumnType.TIMESTAMP:
+                    return new MaxTimestampFunc(position);
+                case ColumnType.DOUBLE:
+                    return new MaxDoubleFunc(position);
+                default:
+                    return null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjList(sliceFunctions);
+        Misc.free(base);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        cursor.of(base.getPageFrameCursor(executionContext), executionContext.getSqlExecutionInterruptor());
+        return cursor;
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    private static Function createPlaceholder(Function function) {
+        switch (function.getType()) {
+            case ColumnType.INT:
+                return new IntConstant(function.getPosition(), Numbers.INT_NaN);
+            case ColumnType.LONG:
+                return new LongConstant(function.getPosition(), Numbers.LONG_NaN);
+            default:
+                assert function.getType() == ColumnType.DOUBLE;
+                return new DoubleConstant(function.getPosition(), Double.NaN);
+        }
+    }
+
+    // index of first row in [lo, hi) with timestamp not less than value
+    private static long lowerBound(long address, long lo, long hi, long value) {
+        while (lo < hi) {
+            final long mid = (lo + hi) >>> 1;
+            if (Unsafe.getUnsafe().getLong(address + (mid << 3)) < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static long maxLong(long address, long count, long max) {
+        for (long p = address, lim = address + (count << 3); p < lim; p += Long.BYTES) {
+            final long value = Unsafe.getUnsafe().getLong(p);
+            if (value > max) {
+                max = value;
+            }
+        }
+        return max;
+    }
+
+    private static long minLong(long address, long count, long min) {
+        for (long p = address, lim = address + (count << 3); p < lim; p += Long.BYTES) {
+            final long value = Unsafe.getUnsafe().getLong(p);
+            if (value != Numbers.LONG_NaN && (value < min || min == Numbers.LONG_NaN)) {
+                min = value;
+            }
+        }
+        return min;
+    }
+
+    private interface SliceFunction extends Function {
+        void aggregate(long address, long count);
+
+        void clear();
+    }
+
+    private static class CountFunc extends LongFunction implements SliceFunction {
+        private long count;
+
+        public CountFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public void aggregate(long address, long count) {
+            this.count += count;
+        }
+
+        @Override
+        public void clear() {
+            count = 0;
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return count;
+        }
+    }
+
+    private static class SumIntFunc extends LongFunction implements SliceFunction {
+        private long sum;
+        private long count;
+
+        public SumIntFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public void aggregate(long address, long count) {
+            if (address != 0) {
+                for (long p = address, lim = address + (count << 2); p < lim; p += Integer.BYTES) {
+                    final int value = Unsafe.getUnsafe().getInt(p);
+                    if (value != Numbers.INT_NaN) {
+                        sum += value;
+                        this.count++;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void clear() {
+            sum = 0;
+            count = 0;
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return count > 0 ? sum : Numbers.LONG_NaN;
+        }
+    }
+
+    private static class SumLongFunc extends LongFunction implements SliceFunction {
+        private long sum;
+        private long count;
+
+        public SumLongFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public void aggregate(long address, long count) {
+            if (address != 0) {
+                for (long p = address, lim = address + (count << 3); p < lim; p += Long.BYTES) {
+                    final long value = Unsafe.getUnsafe().getLong(p);
+                    if (value != Numbers.LONG_NaN) {
+                        sum += value;
+                        this.count++;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void clear() {
+            sum = 0;
+            count = 0;
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return count > 0 ? sum : Numbers.LONG_NaN;
+        }
+    }
+
+    private static class SumDoubleFunc extends DoubleFunction implements SliceFunction {
+        private double sum;
+        private long count;
+
+        public SumDoubleFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public void aggregate(long address, long count) {
+            if (address != 0) {
+                for (long p = address, lim = address + (count << 3); p < lim; p += Double.BYTES) {
+                    final double value = Unsafe.getUnsafe().getDouble(p);
+                    if (Numbers.isFinite(value)) {
+                        add(value);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void clear() {
+            sum = 0;
+            count = 0;
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return count > 0 ? sum : Double.NaN;
+        }
+
+        protected void add(double value) {
+            sum += value;
+            count++;
+        }
+
+        protected double avg() {
+            return sum / count;
+        }
+    }
+
+    private static class AvgDoubleFunc extends SumDoubleFunc {
+
+        public AvgDoubleFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return avg();
+        }
+    }
+
+    private static class AvgIntFunc extends AvgDoubleFunc {
+
+        public AvgIntFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public void aggregate(long address, long count) {
+            if (address != 0) {
+                for (long p = address, lim = address + (count << 2); p < lim; p += Integer.BYTES) {
+                    final int value = Unsafe.getUnsafe().getInt(p);
+                    if (value != Numbers.INT_NaN) {
+                        add(value);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class AvgLongFunc extends AvgDoubleFunc {
+
+        public AvgLongFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public void aggregate(long address, long count) {
+            if (address != 0) {
+                for (long p = address, lim = address + (count << 3); p < lim; p += Long.BYTES) {
+                    final long value = Unsafe.getUnsafe().getLong(p);
+                    if (value != Numbers.LONG_NaN) {
+                        add(value);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class MinIntFunc extends IntFunction implements SliceFunction {
+        private int min;
+
+        public MinIntFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public void aggregate(long address, long count) {
+            if (address != 0) {
+                for (long p = address, lim = address + (count << 2); p < lim; p += Integer.BYTES) {
+                    final int value = Unsafe.getUnsafe().getInt(p);
+                    if (value != Numbers.INT_NaN && (value < min || min == Numbers.INT_NaN)) {
+                        min = value;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void clear() {
+            min = Numbers.INT_NaN;
+        }
+
+        @Override
+        public int getInt(Record rec) {
+            return min;
+        }
+    }
+
+    private static class MaxIntFunc extends IntFunction implements SliceFunction {
+        private int max;
+
+        public MaxIntFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public void aggregate(long address, long count) {
+            if (address != 0) {
+                // null is the smallest int, it does not need to be skipped
+                for (long p = address, lim = address + (count << 2); p < lim; p += Integer.BYTES) {
+                    final int value = Unsafe.getUnsafe().getInt(p);
+                    if (value > max) {
+                        max = value;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void clear() {
+            max = Numbers.INT_NaN;
+        }
+
+        @Override
+        public int getInt(Record rec) {
+            return max;
+        }
+    }
+
+    private static class MinLongFunc extends LongFunction implements SliceFunction {
+        private long min;
+
+        public MinLongFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public void aggregate(long address, long count) {
+            if (address != 0) {
+                min = minLong(address, count, min);
+            }
+        }
+
+        @Override
+        public void clear() {
+            min = Numbers.LONG_NaN;
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return min;
+        }
+    }
+
+    private static class MaxLongFunc extends LongFunction implements SliceFunction {
+        private long max;
+
+        public MaxLongFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public void aggregate(long address, long count) {
+            if (address != 0) {
+                max = maxLong(address, count, max);
+            }
+        }
+
+        @Override
+        public void clear() {
+            max = Numbers.LONG_NaN;
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return max;
+        }
+    }
+
+    private static class MinDateFunc extends DateFunction implements SliceFunction {
+        private long min;
+
+        public MinDateFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public void aggregate(long address, long count) {
+            if (address != 0) {
+                min = minLong(address, count, min);
+            }
+        }
+
+        @Override
+        public void clear() {
+            min = Numbers.LONG_NaN;
+        }
+
+        @Override
+        public long getDate(Record rec) {
+            return min;
+        }
+    }
+
+    private static class MaxDateFunc extends DateFunction implements SliceFunction {
+        private long max;
+
+        public MaxDateFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public void aggregate(long address, long count) {
+            if (address != 0) {
+                max = maxLong(address, count, max);
+            }
+        }
+
+        @Override
+        public void clear() {
+            max = Numbers.LONG_NaN;
+        }
+
+        @Override
+        public long getDate(Record rec) {
+            return max;
+        }
+    }
+
+    private static class MinTimestampFunc extends TimestampFunction implements SliceFunction {
+        private long min;
+
+        public MinTimestampFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public void aggregate(long address, long count) {
+            if (address != 0) {
+                min = minLong(address, count, min);
+            }
+        }
+
+        @Override
+        public void clear() {
+            min = Numbers.LONG_NaN;
+        }
+
+        @Override
+        public long getTimestamp(Record rec) {
+            return min;
+        }
+    }
+
+    private static class MaxTimestampFunc extends TimestampFunction implements SliceFunction {
+        private long max;
+
+        public MaxTimestampFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public void aggregate(long address, long count) {
+            if (address != 0) {
+                max = maxLong(address, count, max);
+            }
+        }
+
+        @Override
+        public void clear() {
+            max = Numbers.LONG_NaN;
+        }
+
+        @Override
+        public long getTimestamp(Record rec) {
+            return max;
+        }
+    }
+
+    private static class MinDoubleFunc extends DoubleFunction implements SliceFunction {
+        private double min;
+
+        public MinDoubleFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public void aggregate(long address, long count) {
+            if (address != 0) {
+                for (long p = address, lim = address + (count << 3); p < lim; p += Double.BYTES) {
+                    final double value = Unsafe.getUnsafe().getDouble(p);
+                    if (value < min || min != min) {
+                        min = value;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void clear() {
+            min = Double.NaN;
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return min;
+        }
+    }
+
+    private static class MaxDoubleFunc extends DoubleFunction implements SliceFunction {
+        private double max;
+
+        public MaxDoubleFunc(int position) {
+            super(position);
+        }
+
+        @Override
+        public void aggregate(long address, long count) {
+            if (address != 0) {
+                for (long p = address, lim = address + (count << 3); p < lim; p += Double.BYTES) {
+                    final double value = Unsafe.getUnsafe().getDouble(p);
+                    if (value > max || max != max) {
+                        max = value;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void clear() {
+            max = Double.NaN;
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return max;
+        }
+    }
+
+    private class SampleByNotKeyedVectorRecordCursor implements NoRandomAccessRecordCursor {
+        private final SplitVirtualRecord record;
+        private final MicroTimestampSampler timestampSampler;
+        private final int timestampIndex;
+        private final int fill;
+        // base column index and value size of every slice function
+        private final IntList columnIndexes = new IntList();
+        private final IntList columnShifts = new IntList();
+        private PageFrameCursor pageFrameCursor;
+        private SqlExecutionInterruptor interruptor;
+        private PageFrame frame;
+        private long timestampAddress;
+        private long frameRow;
+        private long frameRowCount;
+        private long baselineOffset;
+        // bucket of the current row and bucket of the next row to aggregate
+        private long lastBucket;
+        private long nextBucket;
+
+        private SampleByNotKeyedVectorRecordCursor(
+                RecordMetadata baseMetadata,
+                ObjList<Function> recordFunctions,
+                IntList recordColumnIndexes,
+                MicroTimestampSampler timestampSampler,
+                int timestampIndex,
+                int fill
+        ) {
+            this.timestampSampler = timestampSampler;
+            this.timestampIndex = timestampIndex;
+            this.fill = fill;
+
+            final int n = recordFunctions.size();
+            final ObjList<Function> functionsA = new ObjList<>(n);
+            final ObjList<Function> functionsB = new ObjList<>(n);
+            final TimestampFunc timestampFunc = new TimestampFunc(0);
+            for (int i = 0; i < n; i++) {
+                final Function function = recordFunctions.getQuick(i);
+                if (function == null) {
+                    functionsA.add(timestampFunc);
+                    functionsB.add(timestampFunc);
+                } else {
+                    final int columnIndex = recordColumnIndexes.getQuick(i);
+                    sliceFunctions.add((SliceFunction) function);
+                    columnIndexes.add(columnIndex);
+                    // count() does not read its column
+                    columnShifts.add(columnIndex == -1 ? 0 : ColumnType.pow2SizeOf(baseMetadata.getColumnType(columnIndex)));
+                    functionsA.add(function);
+                    functionsB.add(fill == FILL_NULL ? createPlaceholder(function) : function);
+                }
+            }
+            this.record = new SplitVirtualRecord(functionsA, functionsB);
+        }
+
+        @Override
+        public void close() {
+            pageFrameCursor = Misc.free(pageFrameCursor);
+            interruptor = null;
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextBucket == Numbers.LONG_NaN) {
+                return false;
+            }
+
+            if (fill != FILL_NONE && lastBucket != Numbers.LONG_NaN) {
+                final long expectedBucket = timestampSampler.nextTimestamp(lastBucket);
+                if (expectedBucket < nextBucket) {
+                    // gap row, previous values stay in slice functions for FILL(PREV)
+                    lastBucket = expectedBucket;
+                    if (fill == FILL_NULL) {
+                        record.setActiveB();
+                    }
+                    return true;
+                }
+            }
+
+            record.setActiveA();
+            aggregateBucket();
+            return true;
+        }
+
+        @Override
+        public void toTop() {
+            pageFrameCursor.toTop();
+            start();
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        private void aggregate(long lo, long hi) {
+            if (hi > lo) {
+                for (int i = 0, n = sliceFunctions.size(); i < n; i++) {
+                    final int columnIndex = columnIndexes.getQuick(i);
+                    final long address = columnIndex == -1 ? 0 : frame.getPageAddress(columnIndex);
+                    // column top is passed through as zero address, functions treat it as nulls
+                    sliceFunctions.getQuick(i).aggregate(address == 0 ? 0 : address + (lo << columnShifts.getQuick(i)), hi - lo);
+                }
+            }
+        }
+
+        private void aggregateBucket() {
+            lastBucket = nextBucket;
+            for (int i = 0, n = sliceFunctions.size(); i < n; i++) {
+                sliceFunctions.getQuick(i).clear();
+            }
+
+            // first timestamp that falls into the following bucket
+            final long limit = timestampSampler.nextTimestamp(lastBucket) + baselineOffset;
+            while (true) {
+                interruptor.checkInterrupted();
+                final long hi = lowerBound(timestampAddress, frameRow, frameRowCount, limit);
+                aggregate(frameRow, hi);
+                frameRow = hi;
+                if (frameRow < frameRowCount) {
+                    nextBucket = bucketOf(frameRow);
+                    return;
+                }
+                // frames are in timestamp order, next frame may continue current bucket
+                if (!nextFrame()) {
+                    nextBucket = Numbers.LONG_NaN;
+                    return;
+                }
+            }
+        }
+
+        private long bucketOf(long row) {
+            return timestampSampler.round(Unsafe.getUnsafe().getLong(timestampAddress + (row << 3)) - baselineOffset);
+        }
+
+        private boolean nextFrame() {
+            while ((frame = pageFrameCursor.next()) != null) {
+                frameRowCount = frame.getPageSize(timestampIndex) >>> 3;
+                if (frameRowCount > 0) {
+                    timestampAddress = frame.getPageAddress(timestampIndex);
+                    frameRow = 0;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void of(PageFrameCursor pageFrameCursor, SqlExecutionInterruptor interruptor) {
+            this.pageFrameCursor = pageFrameCursor;
+            this.interruptor = interruptor;
+            start();
+        }
+
+        private void start() {
+            lastBucket = Numbers.LONG_NaN;
+            if (nextFrame()) {
+                final long timestamp = Unsafe.getUnsafe().getLong(timestampAddress);
+                baselineOffset = timestamp - timestampSampler.round(timestamp);
+                nextBucket = bucketOf(0);
+            } else {
+                nextBucket = Numbers.LONG_NaN;
+            }
+        }
+
+        private class TimestampFunc extends TimestampFunction implements Function {
+
+            public TimestampFunc(int position) {
+                super(position);
+            }
+
+            @Override
+            public long getTimestamp(Record rec) {
+                return lastBucket + baselineOffset;
+            }
+        }
+    }
+}
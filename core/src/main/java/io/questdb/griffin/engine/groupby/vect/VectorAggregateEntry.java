@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.groupby.vect;
 import io.questdb.mp.CountDownLatchSPI;
 import io.questdb.std.Mutable;
 import io.questdb.std.Unsafe;
+import org.jetbrains.annotations.Nullable;
 
 public class VectorAggregateEntry implements Mutable {
 
@@ -37,10 +38,15 @@ public class VectorAggregateEntry implements Mutable {
     }
 
     private long[] pRosti;
+    private RostiKeyEncoder keyEncoder;
     private long keyAddress;
+    private long keyAddressB;
+    private long rowLo;
+    private long rowCount;
     private long valueAddress;
     private long valueCount;
     private VectorAggregateFunction func;
+    private KeyedVectorAggregateFunction keyedFunc;
     private int srcSequence;
     // to "lock" the entry thread must successfully CAS targetSequence form "srcSequence" value
     // to "srcSequence+1". Executing thread must not be changing value of "srcSequence"
@@ -51,17 +57,44 @@ public class VectorAggregateEntry implements Mutable {
     void of(
             int sequence,
             VectorAggregateFunction vaf,
-            long[] pRosti,
-            long keyPageAddress,
             long valuePageAddress,
             long valuePageCount,
             CountDownLatchSPI doneLatch
     ) {
-        this.pRosti = pRosti;
-        this.keyAddress = keyPageAddress;
+        this.func = vaf;
+        this.keyedFunc = null;
+        this.pRosti = null;
+        this.keyEncoder = null;
         this.valueAddress = valuePageAddress;
         this.valueCount = valuePageCount;
-        this.func = vaf;
+        this.srcSequence = sequence;
+        this.targetSequence = sequence;
+        this.doneLatch = doneLatch;
+    }
+
+    void of(
+            int sequence,
+            KeyedVectorAggregateFunction vaf,
+            long[] pRosti,
+            @Nullable RostiKeyEncoder keyEncoder,
+            long keyPageAddressA,
+            long keyPageAddressB,
+            long valuePageAddress,
+            long valuePageSize,
+            long rowLo,
+            long rowCount,
+            CountDownLatchSPI doneLatch
+    ) {
+        this.func = null;
+        this.keyedFunc = vaf;
+        this.pRosti = pRosti;
+        this.keyEncoder = keyEncoder;
+        this.keyAddress = keyPageAddressA;
+        this.keyAddressB = keyPageAddressB;
+        this.valueAddress = valuePageAddress;
+        this.valueCount = valuePageSize;
+        this.rowLo = rowLo;
+        this.rowCount = rowCount;
         this.srcSequence = sequence;
         this.targetSequence = sequence;
         this.doneLatch = doneLatch;
@@ -73,8 +106,9 @@ public class VectorAggregateEntry implements Mutable {
 
     public boolean run(int workerId) {
         if (tryLock()) {
-            if (pRosti != null) {
-                func.aggregate(pRosti[workerId], keyAddress, valueAddress, valueCount, workerId);
+            if (keyedFunc != null) {
+                final long keys = keyEncoder != null ? keyEncoder.encode(workerId, keyAddress, keyAddressB, rowCount) : keyAddress;
+                keyedFunc.aggregate(pRosti[workerId], keys, valueAddress, valueCount, rowLo, workerId);
             } else {
                 func.aggregate(valueAddress, valueCount, workerId);
             }
@@ -88,6 +122,8 @@ public class VectorAggregateEntry implements Mutable {
     public void clear() {
         this.valueAddress = 0;
         this.valueCount = 0;
+        this.keyEncoder = null;
         func = null;
+        keyedFunc = null;
     }
 }
@@ -24,28 +24,20 @@
 
 package io.questdb.griffin.engine.groupby.vect;
 
-import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.sql.Function;
-import io.questdb.std.Mutable;
 
-public interface VectorAggregateFunction extends Function, Mutable {
+public interface VectorAggregateFunction extends Function, KeyedVectorAggregateFunction {
 
     void aggregate(long address, long addressSize, int workerId);
 
     void aggregate(long pRosti, long keyAddress, long valueAddress, long valueAddressSize, int workerId);
 
-    int getColumnIndex();
+    @Override
+    default void aggregate(long pRosti, long keyAddress, long valueAddress, long valueAddressSize, long rowLo, int workerId) {
+        aggregate(pRosti, keyAddress, valueAddress, valueAddressSize, workerId);
+    }
 
-    // value offset in map
-    int getValueOffset();
-
-    void initRosti(long pRosti);
-
-    void merge(long pRostiA, long pRostiB);
-
-    void pushValueTypes(ArrayColumnTypes types);
-
-    // sets null as result of aggregation of all nulls
-    // this typically checks non-null count and replaces 0 with null if all values were null
-    void wrapUp(long pRosti);
+    @Override
+    default void close() {
+    }
 }
@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.groupby.vect;
 
 @FunctionalInterface
-public interface VectorAggregateFunctionConstructor {
+public interface VectorAggregateFunctionConstructor extends KeyedVectorAggregateFunctionConstructor {
+    @Override
     VectorAggregateFunction create(int position, int keyKind, int columnIndex, int workerCount);
 }
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.std.Unsafe;
+
+import java.io.Closeable;
+
+/**
+ * Scratch memory, one buffer per worker. Buffers grow on demand and are released on close.
+ */
+class WorkerLocalBuffers implements Closeable {
+    private final long[] addresses;
+    private final long[] sizes;
+
+    WorkerLocalBuffers(int workerCount) {
+        this.addresses = new long[workerCount];
+        this.sizes = new long[workerCount];
+    }
+
+    @Override
+    public void close() {
+        for (int i = 0, n = addresses.length; i < n; i++) {
+            if (addresses[i] != 0) {
+                Unsafe.free(addresses[i], sizes[i]);
+                addresses[i] = 0;
+                sizes[i] = 0;
+            }
+        }
+    }
+
+    long get(int workerId, long size) {
+        final long oldSize = sizes[workerId];
+        if (oldSize < size) {
+            if (oldSize == 0) {
+                addresses[workerId] = Unsafe.malloc(size);
+            } else {
+                addresses[workerId] = Unsafe.realloc(addresses[workerId], oldSize, size);
+            }
+            sizes[workerId] = size;
+        }
+        return addresses[workerId];
+    }
+}
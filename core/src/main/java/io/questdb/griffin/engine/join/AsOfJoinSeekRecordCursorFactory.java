@@ -0,0 +1,292 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.Transient;
+
+/**
+ * ASOF and LT join that does not iterate slave table. For every master row the latest slave
+ * row is located by binary search of designated timestamp, first across partitions and then
+ * within partition. When join key is indexed symbol column the row is found via backward
+ * index cursor of the key value. Cost of the join is therefore proportional to number of
+ * master rows rather than to size of slave table.
+ */
+public class AsOfJoinSeekRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory masterFactory;
+    private final RecordCursorFactory slaveFactory;
+    private final CairoEngine engine;
+    private final String tableName;
+    private final long tableVersion;
+    private final AsOfJoinSeekRecordCursor cursor;
+
+    /**
+     * @param slaveFactory   full scan of slave table, it is not used to read rows and is kept for lifecycle only
+     * @param columnIndexes  table column indexes of slave metadata columns
+     * @param slaveKeyIndex  table column index of indexed symbol slave key or -1 when join has no key
+     * @param strict         true for LT join, which excludes slave rows with timestamp equal to master's
+     */
+    public AsOfJoinSeekRecordCursorFactory(
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            RecordCursorFactory slaveFactory,
+            CairoEngine engine,
+            String tableName,
+            long tableVersion,
+            @Transient IntList columnIndexes,
+            int columnSplit,
+            int masterKeyIndex,
+            int slaveKeyIndex,
+            boolean strict
+    ) {
+        super(metadata);
+        this.masterFactory = masterFactory;
+        this.slaveFactory = slaveFactory;
+        this.engine = engine;
+        this.tableName = tableName;
+        this.tableVersion = tableVersion;
+        final IntList slaveColumnIndexes = new IntList(columnIndexes.size());
+        slaveColumnIndexes.addAll(columnIndexes);
+        this.cursor = new AsOfJoinSeekRecordCursor(
+                columnSplit,
+                NullRecordFactory.getInstance(slaveFactory.getMetadata()),
+                slaveColumnIndexes,
+                masterFactory.getMetadata().getTimestampIndex(),
+                masterKeyIndex,
+                slaveKeyIndex,
+                strict
+        );
+    }
+
+    @Override
+    public void close() {
+        ((JoinRecordMetadata) getMetadata()).close();
+        masterFactory.close();
+        slaveFactory.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        final TableReader reader = engine.getReader(executionContext.getCairoSecurityContext(), tableName, tableVersion);
+        try {
+            cursor.of(masterFactory.getCursor(executionContext), reader);
+        } catch (CairoException e) {
+            reader.close();
+            throw e;
+        }
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    private static class AsOfJoinSeekRecordCursor implements NoRandomAccessRecordCursor {
+        private final OuterJoinRecord record;
+        private final TableReaderSelectedColumnRecord slaveRecord;
+        private final IntList columnIndexes;
+        private final int columnSplit;
+        private final int masterTimestampIndex;
+        private final int masterKeyIndex;
+        private final int keyColumnIndex;
+        private final boolean strict;
+        private RecordCursor masterCursor;
+        private Record masterRecord;
+        private TableReader reader;
+        private SymbolMapReader symbolMapReader;
+        private int timestampIndex;
+        private int partitionCount;
+        private int partitionIndex;
+
+        public AsOfJoinSeekRecordCursor(
+                int columnSplit,
+                Record nullRecord,
+                IntList columnIndexes,
+                int masterTimestampIndex,
+                int masterKeyIndex,
+                int keyColumnIndex,
+                boolean strict
+        ) {
+            this.record = new OuterJoinRecord(columnSplit, nullRecord);
+            this.slaveRecord = new TableReaderSelectedColumnRecord(columnIndexes);
+            this.columnIndexes = columnIndexes;
+            this.columnSplit = columnSplit;
+            this.masterTimestampIndex = masterTimestampIndex;
+            this.masterKeyIndex = masterKeyIndex;
+            this.keyColumnIndex = keyColumnIndex;
+            this.strict = strict;
+        }
+
+        @Override
+        public void close() {
+            masterCursor = Misc.free(masterCursor);
+            reader = Misc.free(reader);
+            symbolMapReader = null;
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            if (columnIndex < columnSplit) {
+                return masterCursor.getSymbolTable(columnIndex);
+            }
+            return reader.getSymbolMapReader(columnIndexes.getQuick(columnIndex - columnSplit));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (masterCursor.hasNext()) {
+                record.hasSlave(seek(masterRecord.getTimestamp(masterTimestampIndex)));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public long size() {
+            return masterCursor.size();
+        }
+
+        @Override
+        public void toTop() {
+            partitionIndex = -1;
+            masterCursor.toTop();
+        }
+
+        private int findKey() {
+            final int key = symbolMapReader.keyOf(masterRecord.getSym(masterKeyIndex));
+            if (key == SymbolTable.VALUE_NOT_FOUND) {
+                return -1;
+            }
+            return TableUtils.toIndexKey(key);
+        }
+
+        private long getMinTimestamp(int partitionIndex) {
+            if (reader.openPartition(partitionIndex) < 1) {
+                return Long.MAX_VALUE;
+            }
+            return getTimestampColumn(partitionIndex).getLong(0);
+        }
+
+        private ReadOnlyColumn getTimestampColumn(int partitionIndex) {
+            return reader.getColumn(TableReader.getPrimaryColumnIndex(reader.getColumnBase(partitionIndex), timestampIndex));
+        }
+
+        void of(RecordCursor masterCursor, TableReader reader) {
+            this.masterCursor = masterCursor;
+            this.masterRecord = masterCursor.getRecord();
+            this.reader = reader;
+            this.timestampIndex = reader.getMetadata().getTimestampIndex();
+            this.symbolMapReader = keyColumnIndex == -1 ? null : reader.getSymbolMapReader(keyColumnIndex);
+            this.partitionCount = reader.getPartitionCount();
+            this.partitionIndex = -1;
+            slaveRecord.of(reader);
+            record.of(masterRecord, slaveRecord);
+        }
+
+        private void positionPartition(long timestamp) {
+            // master is ordered by timestamp, partition we need is usually either current or one of the next few
+            int index = partitionIndex;
+            for (int i = index + 1; i < partitionCount; i++) {
+                final long min = getMinTimestamp(i);
+                if (min == Long.MAX_VALUE) {
+                    // empty partition
+                    continue;
+                }
+                if (min > timestamp) {
+                    break;
+                }
+                index = i;
+            }
+
+            while (index > -1 && getMinTimestamp(index) > timestamp) {
+                index--;
+            }
+            partitionIndex = index;
+        }
+
+        private boolean seek(long timestamp) {
+            if (strict) {
+                if (timestamp == Numbers.LONG_NaN) {
+                    return false;
+                }
+                // timestamps are integers, "less than" is "less or equal" to preceding value
+                timestamp--;
+            }
+
+            positionPartition(timestamp);
+            if (partitionIndex == -1) {
+                return false;
+            }
+
+            final long row = BinarySearch.find(
+                    getTimestampColumn(partitionIndex),
+                    timestamp,
+                    0,
+                    reader.openPartition(partitionIndex) - 1,
+                    BinarySearch.SCAN_DOWN
+            );
+
+            if (keyColumnIndex == -1) {
+                slaveRecord.jumpTo(partitionIndex, row);
+                return true;
+            }
+
+            final int key = findKey();
+            if (key == -1) {
+                return false;
+            }
+
+            long hi = row;
+            for (int i = partitionIndex; i > -1; i--) {
+                if (i < partitionIndex) {
+                    hi = reader.openPartition(i) - 1;
+                    if (hi < 0) {
+                        continue;
+                    }
+                }
+                final RowCursor rowCursor = reader
+                        .getBitmapIndexReader(reader.getColumnBase(i), keyColumnIndex, BitmapIndexReader.DIR_BACKWARD)
+                        .getCursor(true, key, 0, hi);
+                if (rowCursor.hasNext()) {
+                    slaveRecord.jumpTo(i, rowCursor.next());
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
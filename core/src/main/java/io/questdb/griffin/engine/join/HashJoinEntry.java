@@ -0,0 +1,94 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.std.Unsafe;
+
+/**
+ * Unit of work of parallel hash join. Entry is published on message bus and is
+ * executed either by a worker or by the thread that owns join cursor, whichever
+ * locks the entry first.
+ */
+public abstract class HashJoinEntry {
+
+    private static final long LOCK_OFFSET;
+
+    static {
+        LOCK_OFFSET = Unsafe.getFieldOffset(HashJoinEntry.class, "lock");
+    }
+
+    private Throwable error;
+    // to "lock" the entry thread must successfully CAS the value from 0 to 1
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
+    private volatile int lock = 1;
+    private volatile boolean done = true;
+
+    public boolean run() {
+        if (Unsafe.cas(this, LOCK_OFFSET, 0, 1)) {
+            try {
+                exec();
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                done = true;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Takes the entry away from workers without executing it.
+     *
+     * @return true when entry was not picked up by anyone
+     */
+    boolean cancel() {
+        if (Unsafe.cas(this, LOCK_OFFSET, 0, 1)) {
+            done = true;
+            return true;
+        }
+        return false;
+    }
+
+    abstract void exec();
+
+    Throwable getError() {
+        return error;
+    }
+
+    boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Makes entry available for execution. Entry state must be populated before this call.
+     */
+    void ready() {
+        this.error = null;
+        this.done = false;
+        this.lock = 0;
+    }
+}
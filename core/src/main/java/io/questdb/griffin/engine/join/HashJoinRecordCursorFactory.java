@@ -44,6 +44,7 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.SqlExecutionInterruptor;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
+import org.jetbrains.annotations.Nullable;
 
 public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
     private final Map joinKeyMap;
@@ -53,6 +54,7 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
     private final RecordSink masterSink;
     private final RecordSink slaveKeySink;
     private final HashJoinRecordCursor cursor;
+    private final HashJoinSpill spill;
 
     public HashJoinRecordCursorFactory(
             CairoConfiguration configuration,
@@ -64,6 +66,7 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
             RecordSink masterSink,
             RecordSink slaveKeySink,
             RecordSink slaveChainSink,
+            @Nullable RecordSink masterChainSink, // when provided build side spills to disk once it outgrows memory
             int columnSplit
 
     ) {
@@ -74,6 +77,11 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         slaveChain = new RecordChain(slaveFactory.getMetadata(), slaveChainSink, configuration.getSqlHashJoinValuePageSize(), configuration.getSqlHashJoinValueMaxPages());
         this.masterSink = masterSink;
         this.slaveKeySink = slaveKeySink;
+        if (masterChainSink != null) {
+            this.spill = new HashJoinSpill(configuration, masterFactory.getMetadata(), masterChainSink, slaveFactory.getMetadata(), slaveChainSink);
+        } else {
+            this.spill = null;
+        }
         this.cursor = new HashJoinRecordCursor(columnSplit, joinKeyMap, slaveChain);
     }
 
@@ -81,6 +89,7 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
     public void close() {
         joinKeyMap.close();
         slaveChain.close();
+        Misc.free(spill);
         ((JoinRecordMetadata) getMetadata()).close();
         masterFactory.close();
         slaveFactory.close();
@@ -88,14 +97,25 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
 
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        final SqlExecutionInterruptor interruptor = executionContext.getSqlExecutionInterruptor();
         RecordCursor slaveCursor = slaveFactory.getCursor(executionContext);
+        RecordCursor masterCursor = null;
+        final boolean spilled;
         try {
-            buildMapOfSlaveRecords(slaveCursor, executionContext.getSqlExecutionInterruptor());
+            spilled = buildMapOfSlaveRecords(slaveCursor, interruptor);
+            masterCursor = masterFactory.getCursor(executionContext);
+            if (spilled) {
+                spill.partitionMaster(masterCursor, masterSink, interruptor);
+            }
         } catch (CairoException e) {
+            Misc.free(masterCursor);
             slaveCursor.close();
+            if (spill != null) {
+                spill.clear();
+            }
             throw e;
         }
-        cursor.of(masterFactory.getCursor(executionContext), slaveCursor);
+        cursor.of(masterCursor, slaveCursor, spilled, interruptor);
         return cursor;
     }
 
@@ -104,8 +124,12 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         return false;
     }
 
-    private void buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionInterruptor interruptor) {
+    private boolean buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionInterruptor interruptor) {
+        if (spill != null) {
+            return spill.build(slaveCursor, joinKeyMap, slaveKeySink, slaveChain, interruptor);
+        }
         HashOuterJoinRecordCursorFactory.buildMap(slaveCursor, slaveCursor.getRecord(), joinKeyMap, slaveKeySink, slaveChain, interruptor);
+        return false;
     }
 
     private class HashJoinRecordCursor implements NoRandomAccessRecordCursor {
@@ -115,8 +139,12 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         private final int columnSplit;
         private RecordCursor masterCursor;
         private RecordCursor slaveCursor;
+        private RecordCursor probeCursor;
         private Record masterRecord;
+        private SqlExecutionInterruptor interruptor;
         private boolean useSlaveCursor;
+        private boolean spilled;
+        private int partitionIndex;
 
         public HashJoinRecordCursor(int columnSplit, Map joinKeyMap, RecordChain slaveChain) {
             this.recordA = new JoinRecord(columnSplit);
@@ -129,6 +157,11 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         public void close() {
             masterCursor = Misc.free(masterCursor);
             slaveCursor = Misc.free(slaveCursor);
+            if (spilled) {
+                // temporary files are not needed once cursor is done
+                spill.clear();
+                spilled = false;
+            }
         }
 
         @Override
@@ -155,32 +188,55 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
                 return true;
             }
 
-            while (masterCursor.hasNext()) {
-                MapKey key = joinKeyMap.withKey();
-                key.put(masterRecord, masterSink);
-                MapValue value = key.findValue();
-                if (value != null) {
-                    slaveChain.of(value.getLong(0));
-                    // we know cursor has values
-                    // advance to get first value
-                    slaveChain.hasNext();
-                    useSlaveCursor = true;
-                    return true;
+            do {
+                while (probeCursor.hasNext()) {
+                    MapKey key = joinKeyMap.withKey();
+                    key.put(masterRecord, masterSink);
+                    MapValue value = key.findValue();
+                    if (value != null) {
+                        slaveChain.of(value.getLong(0));
+                        // we know cursor has values
+                        // advance to get first value
+                        slaveChain.hasNext();
+                        useSlaveCursor = true;
+                        return true;
+                    }
                 }
-            }
+            } while (nextPartition());
             return false;
         }
 
         @Override
         public void toTop() {
-            masterCursor.toTop();
+            if (spilled) {
+                spill.toTop();
+                partitionIndex = -1;
+            } else {
+                masterCursor.toTop();
+            }
             useSlaveCursor = false;
         }
 
-        void of(RecordCursor masterCursor, RecordCursor slaveCursor) {
+        private boolean nextPartition() {
+            if (spilled) {
+                while (++partitionIndex < spill.getPartitionCount()) {
+                    if (spill.openPartition(partitionIndex, joinKeyMap, slaveKeySink, slaveChain, false, interruptor)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        void of(RecordCursor masterCursor, RecordCursor slaveCursor, boolean spilled, SqlExecutionInterruptor interruptor) {
             this.masterCursor = masterCursor;
             this.slaveCursor = slaveCursor;
-            this.masterRecord = masterCursor.getRecord();
+            this.spilled = spilled;
+            this.interruptor = interruptor;
+            // spilled join reads master records back from partitions, one partition at a time
+            this.probeCursor = spilled ? spill.getMasterCursor() : masterCursor;
+            this.masterRecord = probeCursor.getRecord();
+            this.partitionIndex = -1;
             Record slaveRecord = slaveChain.getRecord();
             this.slaveChain.setSymbolTableResolver(slaveCursor);
             recordA.of(masterRecord, slaveRecord);
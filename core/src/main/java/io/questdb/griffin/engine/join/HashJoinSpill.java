@@ -0,0 +1,364 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Grace hash join support for full fat hash joins. Slave records are loaded into memory
+ * as usual until they outgrow spill threshold. After that records of both sides are written
+ * to temporary files, partitioned by hash of the join key. Equal keys of both sides end up
+ * in the same partition, so the join is then evaluated one partition at a time, holding
+ * only slave records of one partition in memory.
+ * <p>
+ * Records of a partition are kept in {@link RecordChain} and chain images are appended to
+ * partition file once they reach block size. Symbols are stored as keys and are resolved
+ * by cursors of the respective sides.
+ */
+class HashJoinSpill implements Closeable {
+    private static final Log LOG = LogFactory.getLog(HashJoinSpill.class);
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+    private static final long MIN_BLOCK_SIZE = 64 * 1024;
+    private final FilesFacade ff;
+    private final CharSequence spillRoot;
+    private final int mkDirMode;
+    private final Path path = new Path();
+    private final long id;
+    private final long memoryLimit;
+    private final int partitionCount;
+    private final long blockSize;
+    private final JoinKeyHasher hasher;
+    private final Side master;
+    private final Side slave;
+    private long headerAddress;
+
+    HashJoinSpill(
+            CairoConfiguration configuration,
+            @Transient ColumnTypes masterTypes,
+            RecordSink masterChainSink,
+            @Transient ColumnTypes slaveTypes,
+            RecordSink slaveChainSink
+    ) {
+        this.ff = configuration.getFilesFacade();
+        this.spillRoot = configuration.getSqlTempRoot();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.id = ID_SEQUENCE.incrementAndGet();
+        this.memoryLimit = configuration.getSqlHashJoinSpillThreshold();
+        this.partitionCount = Numbers.ceilPow2(Math.max(2, configuration.getSqlHashJoinSpillPartitionCount()));
+        // write buffers of both sides take at most half of the limit
+        this.blockSize = Math.max(MIN_BLOCK_SIZE, memoryLimit / (4L * partitionCount));
+        this.hasher = new JoinKeyHasher(partitionCount);
+        this.master = new Side('m', masterTypes, masterChainSink);
+        this.slave = new Side('s', slaveTypes, slaveChainSink);
+        this.headerAddress = Unsafe.malloc(Long.BYTES);
+    }
+
+    /**
+     * Removes temporary files and releases memory of partition buffers.
+     */
+    void clear() {
+        master.clear();
+        slave.clear();
+    }
+
+    @Override
+    public void close() {
+        clear();
+        master.close();
+        slave.close();
+        if (headerAddress != 0) {
+            Unsafe.free(headerAddress, Long.BYTES);
+            headerAddress = 0;
+        }
+        Misc.free(path);
+    }
+
+    /**
+     * Builds join key map of slave records in memory. When records outgrow memory limit
+     * map and chain are cleared and slave records are written to partitions instead.
+     *
+     * @return true when slave records were written to partitions
+     */
+    boolean build(
+            RecordCursor slaveCursor,
+            Map joinKeyMap,
+            RecordSink slaveKeySink,
+            RecordChain slaveChain,
+            SqlExecutionInterruptor interruptor
+    ) {
+        clear();
+        joinKeyMap.clear();
+        slaveChain.clear();
+        final Record record = slaveCursor.getRecord();
+        while (slaveCursor.hasNext()) {
+            interruptor.checkInterrupted();
+            HashOuterJoinRecordCursorFactory.putSlaveRecord(record, joinKeyMap, slaveKeySink, slaveChain);
+            if (slaveChain.getMemoryUsed() > memoryLimit) {
+                joinKeyMap.clear();
+                slaveChain.clear();
+                slaveCursor.toTop();
+                slave.partition(slaveCursor, slaveKeySink, interruptor);
+                LOG.info().$("hash join spilled [id=").$(id).$(", partitions=").$(partitionCount).$(", limit=").$(memoryLimit).$(']').$();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loads join key map with slave records of the partition and positions master
+     * cursor of the partition at its first record.
+     *
+     * @return false when partition cannot produce join records
+     */
+    boolean openPartition(
+            int partitionIndex,
+            Map joinKeyMap,
+            RecordSink slaveKeySink,
+            RecordChain slaveChain,
+            boolean outer,
+            SqlExecutionInterruptor interruptor
+    ) {
+        joinKeyMap.clear();
+        slaveChain.clear();
+        if (master.isEmpty(partitionIndex) || (!outer && slave.isEmpty(partitionIndex))) {
+            return false;
+        }
+        slave.of(partitionIndex);
+        final Record record = slave.getRecord();
+        while (slave.hasNext()) {
+            interruptor.checkInterrupted();
+            HashOuterJoinRecordCursorFactory.putSlaveRecord(record, joinKeyMap, slaveKeySink, slaveChain);
+        }
+        master.of(partitionIndex);
+        return true;
+    }
+
+    RecordCursor getMasterCursor() {
+        return master;
+    }
+
+    int getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * Rewinds master cursor before the first partition.
+     */
+    void toTop() {
+        master.readLimit = 0;
+        master.toTop();
+    }
+
+    void partitionMaster(RecordCursor masterCursor, RecordSink masterKeySink, SqlExecutionInterruptor interruptor) {
+        master.partition(masterCursor, masterKeySink, interruptor);
+    }
+
+    private long openSpillFile(char side, int partitionIndex) {
+        path.of(spillRoot).put(Files.SEPARATOR).$();
+        if (!ff.exists(path) && ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.instance(ff.errno()).put("could not create spill directory [path=").put(path).put(']');
+        }
+        spillFileName(side, partitionIndex);
+        final long fd = ff.openRW(path);
+        if (fd == -1) {
+            throw CairoException.instance(ff.errno()).put("could not open spill file [path=").put(path).put(']');
+        }
+        return fd;
+    }
+
+    private void spillFileName(char side, int partitionIndex) {
+        path.of(spillRoot).concat("join-");
+        path.put(Os.getPid()).put('-').put(id).put('-').put(side).put('-').put(partitionIndex).put(".tmp");
+        path.$();
+    }
+
+    /**
+     * Partitions of one side of the join. Reading side is a cursor over records of a
+     * single partition.
+     */
+    private class Side implements NoRandomAccessRecordCursor {
+        private final char name;
+        private final RecordChain[] buffers;
+        private final long[] lastOffsets;
+        private final long[] fds;
+        private final long[] fileSizes;
+        private final RecordChain reader;
+        private RecordCursor symbolTableSource;
+        private long readFd;
+        private long readOffset;
+        private long readLimit;
+
+        private Side(char name, ColumnTypes columnTypes, RecordSink chainSink) {
+            this.name = name;
+            this.buffers = new RecordChain[partitionCount];
+            this.lastOffsets = new long[partitionCount];
+            this.fds = new long[partitionCount];
+            this.fileSizes = new long[partitionCount];
+            Arrays.fill(fds, -1);
+            final long pageSize = Math.max(MIN_BLOCK_SIZE / 4, blockSize / 4);
+            for (int i = 0; i < partitionCount; i++) {
+                buffers[i] = new RecordChain(columnTypes, chainSink, pageSize, Integer.MAX_VALUE);
+            }
+            this.reader = new RecordChain(columnTypes, chainSink, pageSize, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public void close() {
+            for (int i = 0; i < partitionCount; i++) {
+                Misc.free(buffers[i]);
+            }
+            Misc.free(reader);
+        }
+
+        @Override
+        public Record getRecord() {
+            return reader.getRecord();
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return symbolTableSource.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!reader.hasNext()) {
+                if (readOffset >= readLimit) {
+                    return false;
+                }
+                if (ff.read(readFd, headerAddress, Long.BYTES, readOffset) != Long.BYTES) {
+                    throw CairoException.instance(ff.errno()).put("could not read spill file [fd=").put(readFd).put(", offset=").put(readOffset).put(']');
+                }
+                final long size = Unsafe.getUnsafe().getLong(headerAddress);
+                reader.load(ff, readFd, readOffset + Long.BYTES, size);
+                reader.toTop();
+                readOffset += Long.BYTES + size;
+            }
+            return true;
+        }
+
+        @Override
+        public void toTop() {
+            readOffset = 0;
+            reader.truncate();
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        private void clear() {
+            for (int i = 0; i < partitionCount; i++) {
+                final long fd = fds[i];
+                if (fd != -1) {
+                    ff.close(fd);
+                    spillFileName(name, i);
+                    if (!ff.remove(path)) {
+                        LOG.error().$("could not remove spill file [path=").$(path).$(", errno=").$(ff.errno()).$(']').$();
+                    }
+                    fds[i] = -1;
+                    fileSizes[i] = 0;
+                }
+                buffers[i].clear();
+                lastOffsets[i] = -1;
+            }
+            reader.clear();
+            readFd = -1;
+            readOffset = readLimit = 0;
+            symbolTableSource = null;
+        }
+
+        private void flush(int partitionIndex) {
+            final RecordChain buffer = buffers[partitionIndex];
+            long fd = fds[partitionIndex];
+            if (fd == -1) {
+                fd = fds[partitionIndex] = openSpillFile(name, partitionIndex);
+            }
+            final long offset = fileSizes[partitionIndex];
+            final long size = buffer.spill(ff, fd, offset + Long.BYTES);
+            Unsafe.getUnsafe().putLong(headerAddress, size);
+            if (ff.write(fd, headerAddress, Long.BYTES, offset) != Long.BYTES) {
+                throw CairoException.instance(ff.errno()).put("could not write spill file [fd=").put(fd).put(", offset=").put(offset).put(']');
+            }
+            fileSizes[partitionIndex] = offset + Long.BYTES + size;
+            buffer.truncate();
+            lastOffsets[partitionIndex] = -1;
+        }
+
+        private boolean isEmpty(int partitionIndex) {
+            return fileSizes[partitionIndex] == 0;
+        }
+
+        private void of(int partitionIndex) {
+            readFd = fds[partitionIndex];
+            readLimit = fileSizes[partitionIndex];
+            toTop();
+        }
+
+        private void partition(RecordCursor cursor, RecordSink keySink, SqlExecutionInterruptor interruptor) {
+            symbolTableSource = cursor;
+            final Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                interruptor.checkInterrupted();
+                final int partitionIndex = hasher.partitionOf(record, keySink);
+                final RecordChain buffer = buffers[partitionIndex];
+                // records of a block are linked, block is iterated from its first record
+                lastOffsets[partitionIndex] = buffer.put(record, lastOffsets[partitionIndex]);
+                if (buffer.getMemoryUsed() > blockSize) {
+                    flush(partitionIndex);
+                }
+            }
+            for (int i = 0; i < partitionCount; i++) {
+                if (lastOffsets[i] != -1) {
+                    flush(i);
+                }
+                // buffers are not needed until the next spill
+                buffers[i].clear();
+            }
+            reader.setSymbolTableResolver(cursor);
+        }
+    }
+}
@@ -44,6 +44,7 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.SqlExecutionInterruptor;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
+import org.jetbrains.annotations.Nullable;
 
 public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactory {
     private final Map joinKeyMap;
@@ -53,6 +54,7 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
     private final RecordSink masterSink;
     private final RecordSink slaveKeySink;
     private final HashOuterJoinRecordCursor cursor;
+    private final HashJoinSpill spill;
 
     public HashOuterJoinRecordCursorFactory(
             CairoConfiguration configuration,
@@ -64,6 +66,7 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
             RecordSink masterSink,
             RecordSink slaveKeySink,
             RecordSink slaveChainSink,
+            @Nullable RecordSink masterChainSink, // when provided build side spills to disk once it outgrows memory
             int columnSplit
 
     ) {
@@ -74,6 +77,11 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         slaveChain = new RecordChain(slaveFactory.getMetadata(), slaveChainSink, configuration.getSqlHashJoinValuePageSize(), configuration.getSqlHashJoinValueMaxPages());
         this.masterSink = masterSink;
         this.slaveKeySink = slaveKeySink;
+        if (masterChainSink != null) {
+            this.spill = new HashJoinSpill(configuration, masterFactory.getMetadata(), masterChainSink, slaveFactory.getMetadata(), slaveChainSink);
+        } else {
+            this.spill = null;
+        }
         this.cursor = new HashOuterJoinRecordCursor(
                 columnSplit,
                 joinKeyMap,
@@ -87,16 +95,20 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         slaveChain.clear();
         while (slaveCursor.hasNext()) {
             interruptor.checkInterrupted();
-            MapKey key = joinKeyMap.withKey();
-            key.put(record, slaveKeySink);
-            MapValue value = key.createValue();
-            if (value.isNew()) {
-                long offset = slaveChain.put(record, -1);
-                value.putLong(0, offset);
-                value.putLong(1, offset);
-            } else {
-                value.putLong(1, slaveChain.put(record, value.getLong(1)));
-            }
+            putSlaveRecord(record, joinKeyMap, slaveKeySink, slaveChain);
+        }
+    }
+
+    static void putSlaveRecord(Record record, Map joinKeyMap, RecordSink slaveKeySink, RecordChain slaveChain) {
+        MapKey key = joinKeyMap.withKey();
+        key.put(record, slaveKeySink);
+        MapValue value = key.createValue();
+        if (value.isNew()) {
+            long offset = slaveChain.put(record, -1);
+            value.putLong(0, offset);
+            value.putLong(1, offset);
+        } else {
+            value.putLong(1, slaveChain.put(record, value.getLong(1)));
         }
     }
 
@@ -104,6 +116,7 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
     public void close() {
         joinKeyMap.close();
         slaveChain.close();
+        Misc.free(spill);
         ((JoinRecordMetadata) getMetadata()).close();
         masterFactory.close();
         slaveFactory.close();
@@ -111,14 +124,25 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
 
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        final SqlExecutionInterruptor interruptor = executionContext.getSqlExecutionInterruptor();
         RecordCursor slaveCursor = slaveFactory.getCursor(executionContext);
+        RecordCursor masterCursor = null;
+        final boolean spilled;
         try {
-            buildMapOfSlaveRecords(slaveCursor, executionContext.getSqlExecutionInterruptor());
+            spilled = buildMapOfSlaveRecords(slaveCursor, interruptor);
+            masterCursor = masterFactory.getCursor(executionContext);
+            if (spilled) {
+                spill.partitionMaster(masterCursor, masterSink, interruptor);
+            }
         } catch (CairoException e) {
+            Misc.free(masterCursor);
             slaveCursor.close();
+            if (spill != null) {
+                spill.clear();
+            }
             throw e;
         }
-        cursor.of(masterFactory.getCursor(executionContext), slaveCursor);
+        cursor.of(masterCursor, slaveCursor, spilled, interruptor);
         return cursor;
     }
 
@@ -127,8 +151,12 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         return false;
     }
 
-    private void buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionInterruptor interruptor) {
+    private boolean buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionInterruptor interruptor) {
+        if (spill != null) {
+            return spill.build(slaveCursor, joinKeyMap, slaveKeySink, slaveChain, interruptor);
+        }
         buildMap(slaveCursor, slaveCursor.getRecord(), joinKeyMap, slaveKeySink, slaveChain, interruptor);
+        return false;
     }
 
     private class HashOuterJoinRecordCursor implements NoRandomAccessRecordCursor {
@@ -138,8 +166,12 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         private final int columnSplit;
         private RecordCursor masterCursor;
         private RecordCursor slaveCursor;
+        private RecordCursor probeCursor;
         private Record masterRecord;
+        private SqlExecutionInterruptor interruptor;
         private boolean useSlaveCursor;
+        private boolean spilled;
+        private int partitionIndex;
 
         public HashOuterJoinRecordCursor(int columnSplit, Map joinKeyMap, RecordChain slaveChain, Record nullRecord) {
             this.record = new OuterJoinRecord(columnSplit, nullRecord);
@@ -152,6 +184,11 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         public void close() {
             masterCursor = Misc.free(masterCursor);
             slaveCursor = Misc.free(slaveCursor);
+            if (spilled) {
+                // temporary files are not needed once cursor is done
+                spill.clear();
+                spilled = false;
+            }
         }
 
         @Override
@@ -178,36 +215,59 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
                 return true;
             }
 
-            if (masterCursor.hasNext()) {
-                MapKey key = joinKeyMap.withKey();
-                key.put(masterRecord, masterSink);
-                MapValue value = key.findValue();
-                if (value != null) {
-                    slaveChain.of(value.getLong(0));
-                    // we know cursor has values
-                    // advance to get first value
-                    slaveChain.hasNext();
-                    useSlaveCursor = true;
-                    record.hasSlave(true);
-                } else {
-                    useSlaveCursor = false;
-                    record.hasSlave(false);
+            while (!probeCursor.hasNext()) {
+                if (!nextPartition()) {
+                    return false;
                 }
-                return true;
             }
-            return false;
+            MapKey key = joinKeyMap.withKey();
+            key.put(masterRecord, masterSink);
+            MapValue value = key.findValue();
+            if (value != null) {
+                slaveChain.of(value.getLong(0));
+                // we know cursor has values
+                // advance to get first value
+                slaveChain.hasNext();
+                useSlaveCursor = true;
+                record.hasSlave(true);
+            } else {
+                useSlaveCursor = false;
+                record.hasSlave(false);
+            }
+            return true;
         }
 
         @Override
         public void toTop() {
-            masterCursor.toTop();
+            if (spilled) {
+                spill.toTop();
+                partitionIndex = -1;
+            } else {
+                masterCursor.toTop();
+            }
             useSlaveCursor = false;
         }
 
-        void of(RecordCursor masterCursor, RecordCursor slaveCursor) {
+        private boolean nextPartition() {
+            if (spilled) {
+                while (++partitionIndex < spill.getPartitionCount()) {
+                    if (spill.openPartition(partitionIndex, joinKeyMap, slaveKeySink, slaveChain, true, interruptor)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        void of(RecordCursor masterCursor, RecordCursor slaveCursor, boolean spilled, SqlExecutionInterruptor interruptor) {
             this.masterCursor = masterCursor;
             this.slaveCursor = slaveCursor;
-            this.masterRecord = masterCursor.getRecord();
+            this.spilled = spilled;
+            this.interruptor = interruptor;
+            // spilled join reads master records back from partitions, one partition at a time
+            this.probeCursor = spilled ? spill.getMasterCursor() : masterCursor;
+            this.masterRecord = probeCursor.getRecord();
+            this.partitionIndex = -1;
             Record slaveRecord = slaveChain.getRecord();
             this.slaveChain.setSymbolTableResolver(slaveCursor);
             record.of(masterRecord, slaveRecord);
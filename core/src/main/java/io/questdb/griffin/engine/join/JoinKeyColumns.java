@@ -0,0 +1,140 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.SymbolMapReader;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.*;
+
+/**
+ * Join key columns of one side of parallel hash join. Key values are read straight from
+ * page frame column addresses and are compared as raw bits, same way map keys of the
+ * serial join are compared. Symbol keys of master side are translated to keys of the
+ * slave symbol table, so that both sides can be compared as int values.
+ * <p>
+ * Instance is immutable while join is running and can be used by multiple threads.
+ */
+class JoinKeyColumns {
+    private static final long FIBONACCI_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private final IntList columnIndexes = new IntList();
+    private final IntList shifts = new IntList();
+    private final LongList nullValues = new LongList();
+    private final ObjList<IntList> symbolKeys = new ObjList<>();
+
+    void add(int columnIndex, int columnType) {
+        columnIndexes.add(columnIndex);
+        shifts.add(Numbers.msb(ColumnType.sizeOf(columnType)));
+        nullValues.add(nullValueOf(columnType));
+        symbolKeys.add(null);
+    }
+
+    int getColumnCount() {
+        return columnIndexes.size();
+    }
+
+    int getColumnIndex(int keyIndex) {
+        return columnIndexes.getQuick(keyIndex);
+    }
+
+    long hash(LongList columnAddresses, long row) {
+        long h = 0;
+        for (int k = 0, n = columnIndexes.size(); k < n; k++) {
+            h = (h + valueOf(k, columnAddresses, row)) * FIBONACCI_MULTIPLIER;
+            h ^= h >>> 31;
+        }
+        return h;
+    }
+
+    /**
+     * Maps symbol keys of key column to keys of another symbol table. Values that are absent
+     * in the target table are mapped to a key that never matches.
+     *
+     * @param keyIndex index of key column
+     * @param source   symbol table of this side
+     * @param target   symbol table of the other side
+     */
+    void translateSymbols(int keyIndex, SymbolMapReader source, SymbolMapReader target) {
+        IntList keys = symbolKeys.getQuick(keyIndex);
+        if (keys == null) {
+            keys = new IntList();
+            symbolKeys.setQuick(keyIndex, keys);
+        }
+        keys.clear();
+        for (int i = 0, n = source.size(); i < n; i++) {
+            keys.add(target.keyOf(source.valueOf(i)));
+        }
+    }
+
+    long valueOf(int keyIndex, LongList columnAddresses, long row) {
+        final long address = columnAddresses.getQuick(columnIndexes.getQuick(keyIndex));
+        if (address == 0) {
+            return nullValues.getQuick(keyIndex);
+        }
+        final long value;
+        switch (shifts.getQuick(keyIndex)) {
+            case 0:
+                value = Unsafe.getUnsafe().getByte(address + row);
+                break;
+            case 1:
+                value = Unsafe.getUnsafe().getShort(address + (row << 1));
+                break;
+            case 2:
+                value = Unsafe.getUnsafe().getInt(address + (row << 2));
+                break;
+            default:
+                value = Unsafe.getUnsafe().getLong(address + (row << 3));
+                break;
+        }
+        final IntList keys = symbolKeys.getQuick(keyIndex);
+        return keys == null ? value : translate(keys, (int) value);
+    }
+
+    private static long nullValueOf(int columnType) {
+        switch (columnType) {
+            case ColumnType.INT:
+            case ColumnType.SYMBOL:
+                return Numbers.INT_NaN;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return Numbers.LONG_NaN;
+            case ColumnType.FLOAT:
+                return Float.floatToRawIntBits(Float.NaN);
+            case ColumnType.DOUBLE:
+                return Double.doubleToRawLongBits(Double.NaN);
+            default:
+                return 0;
+        }
+    }
+
+    private static int translate(IntList keys, int key) {
+        if (key > -1 && key < keys.size()) {
+            return keys.getQuick(key);
+        }
+        return key == SymbolTable.VALUE_IS_NULL ? SymbolTable.VALUE_IS_NULL : SymbolTable.VALUE_NOT_FOUND;
+    }
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.RecordSinkSPI;
+import io.questdb.cairo.sql.Record;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.Long256;
+import io.questdb.std.Numbers;
+
+/**
+ * Hashes join key of a record to one of the power-of-two number of partitions. Key is
+ * copied with the same {@link RecordSink} that writes it to join key map, which makes
+ * equal keys of master and slave records land in the same partition.
+ */
+class JoinKeyHasher implements RecordSinkSPI {
+    private static final long FIBONACCI_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private final int partitionShift;
+    private long hash;
+
+    JoinKeyHasher(int partitionCount) {
+        assert partitionCount > 1 && Numbers.ceilPow2(partitionCount) == partitionCount;
+        this.partitionShift = 64 - Numbers.msb(partitionCount);
+    }
+
+    @Override
+    public void putBin(BinarySequence value) {
+        if (value == null) {
+            mix(-1);
+        } else {
+            final long len = value.length();
+            mix(len);
+            for (long i = 0; i < len; i++) {
+                mix(value.byteAt(i));
+            }
+        }
+    }
+
+    @Override
+    public void putBool(boolean value) {
+        mix(value ? 1 : 0);
+    }
+
+    @Override
+    public void putByte(byte value) {
+        mix(value);
+    }
+
+    @Override
+    public void putDate(long value) {
+        mix(value);
+    }
+
+    @Override
+    public void putDouble(double value) {
+        mix(Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public void putFloat(float value) {
+        mix(Float.floatToRawIntBits(value));
+    }
+
+    @Override
+    public void putInt(int value) {
+        mix(value);
+    }
+
+    @Override
+    public void putLong(long value) {
+        mix(value);
+    }
+
+    @Override
+    public void putLong256(Long256 value) {
+        mix(value.getLong0());
+        mix(value.getLong1());
+        mix(value.getLong2());
+        mix(value.getLong3());
+    }
+
+    @Override
+    public void putShort(short value) {
+        mix(value);
+    }
+
+    @Override
+    public void putChar(char value) {
+        mix(value);
+    }
+
+    @Override
+    public void putStr(CharSequence value) {
+        if (value == null) {
+            mix(-1);
+        } else {
+            putStr(value, 0, value.length());
+        }
+    }
+
+    @Override
+    public void putStr(CharSequence value, int lo, int hi) {
+        mix(hi - lo);
+        for (int i = lo; i < hi; i++) {
+            mix(value.charAt(i));
+        }
+    }
+
+    @Override
+    public void putRecord(Record value) {
+        // not part of join keys
+    }
+
+    @Override
+    public void putTimestamp(long value) {
+        mix(value);
+    }
+
+    @Override
+    public void skip(int bytes) {
+    }
+
+    int partitionOf(Record record, RecordSink keySink) {
+        hash = 0;
+        keySink.copy(record, this);
+        // top bits of the product are the best mixed ones
+        return (int) (hash >>> partitionShift);
+    }
+
+    private void mix(long value) {
+        hash = (hash ^ value) * FIBONACCI_MULTIPLIER;
+    }
+}
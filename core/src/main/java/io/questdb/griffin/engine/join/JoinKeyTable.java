@@ -0,0 +1,191 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.LongList;
+import io.questdb.std.Mutable;
+
+import java.io.Closeable;
+
+/**
+ * Open addressing hash table of join keys of one slave partition of parallel hash join.
+ * Every key refers to a chain of slave row references, which are kept in the order they
+ * were added. Table is populated by a single thread and can then be searched by
+ * multiple threads at the same time.
+ * <p>
+ * Both key slots and row chains are kept in native memory. Slot table is limited by
+ * the number of map resizes and row chains by the page limits of the light hash join.
+ */
+class JoinKeyTable implements Closeable, Mutable {
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+    // slot is hash, offsets of the first and the last row of key chain and key values
+    private static final int HASH_OFFSET = 0;
+    private static final int HEAD_OFFSET = 1;
+    private static final int TAIL_OFFSET = 2;
+    private static final int KEY_OFFSET = 3;
+    private final int keyColumnCount;
+    private final int slotSize;
+    private final double loadFactor;
+    private final int maxResizes;
+    private final LongChain rows;
+    private DirectLongList slots;
+    private int capacity;
+    private int mask;
+    private int free;
+    private int resizes;
+
+    JoinKeyTable(int keyColumnCount, double loadFactor, int maxResizes, long valuePageSize, int valueMaxPages) {
+        this.keyColumnCount = keyColumnCount;
+        this.slotSize = KEY_OFFSET + keyColumnCount;
+        this.loadFactor = loadFactor;
+        this.maxResizes = maxResizes;
+        this.rows = new LongChain(valuePageSize, valueMaxPages);
+        this.slots = allocate(MIN_CAPACITY);
+    }
+
+    @Override
+    public void clear() {
+        if (capacity > MIN_CAPACITY) {
+            // do not hold on to memory of large joins
+            slots.close();
+            slots = allocate(MIN_CAPACITY);
+        } else {
+            slots.zero(-1);
+            free = (int) (capacity * loadFactor);
+        }
+        resizes = 0;
+        rows.clear();
+    }
+
+    @Override
+    public void close() {
+        slots.close();
+        rows.close();
+    }
+
+    /**
+     * Finds chain of rows with key equal to the key of the given row.
+     *
+     * @return offset of the first row of the chain or -1 when key is not in the table
+     */
+    long find(long hash, JoinKeyColumns columns, LongList columnAddresses, long row) {
+        int slot = (int) hash & mask;
+        while (true) {
+            final long base = (long) slot * slotSize;
+            final long head = slots.get(base + HEAD_OFFSET);
+            if (head == -1) {
+                return -1;
+            }
+            if (slots.get(base + HASH_OFFSET) == hash && keyEquals(base, columns, columnAddresses, row)) {
+                return head;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    LongChain.TreeCursor getCursor(long chainOffset) {
+        return rows.getCursor(chainOffset);
+    }
+
+    /**
+     * Appends row reference to the chain of the key of the given row.
+     */
+    void put(long hash, JoinKeyColumns columns, LongList columnAddresses, long row, long rowRef) {
+        int slot = (int) hash & mask;
+        while (true) {
+            final long base = (long) slot * slotSize;
+            if (slots.get(base + HEAD_OFFSET) == -1) {
+                final long offset = rows.put(rowRef, -1);
+                slots.set(base + HASH_OFFSET, hash);
+                slots.set(base + HEAD_OFFSET, offset);
+                slots.set(base + TAIL_OFFSET, offset);
+                for (int k = 0; k < keyColumnCount; k++) {
+                    slots.set(base + KEY_OFFSET + k, columns.valueOf(k, columnAddresses, row));
+                }
+                if (--free == 0) {
+                    rehash();
+                }
+                return;
+            }
+            if (slots.get(base + HASH_OFFSET) == hash && keyEquals(base, columns, columnAddresses, row)) {
+                slots.set(base + TAIL_OFFSET, rows.put(rowRef, slots.get(base + TAIL_OFFSET)));
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private DirectLongList allocate(int capacity) {
+        final DirectLongList slots = new DirectLongList((long) capacity * slotSize);
+        slots.setPos((long) capacity * slotSize);
+        slots.zero(-1);
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.free = (int) (capacity * loadFactor);
+        return slots;
+    }
+
+    private boolean keyEquals(long base, JoinKeyColumns columns, LongList columnAddresses, long row) {
+        for (int k = 0; k < keyColumnCount; k++) {
+            if (slots.get(base + KEY_OFFSET + k) != columns.valueOf(k, columnAddresses, row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        if (resizes == maxResizes || capacity == MAX_CAPACITY) {
+            throw LimitOverflowException.instance().put("limit of ").put(maxResizes).put(" resizes exceeded in JoinKeyTable");
+        }
+        resizes++;
+        final DirectLongList oldSlots = slots;
+        final int oldCapacity = capacity;
+        slots = allocate(oldCapacity << 1);
+        // old table was full
+        free -= (int) (oldCapacity * loadFactor);
+        try {
+            for (int i = 0; i < oldCapacity; i++) {
+                final long oldBase = (long) i * slotSize;
+                if (oldSlots.get(oldBase + HEAD_OFFSET) != -1) {
+                    int slot = (int) oldSlots.get(oldBase + HASH_OFFSET) & mask;
+                    while (slots.get((long) slot * slotSize + HEAD_OFFSET) != -1) {
+                        slot = (slot + 1) & mask;
+                    }
+                    final long base = (long) slot * slotSize;
+                    for (int k = 0; k < slotSize; k++) {
+                        slots.set(base + k, oldSlots.get(oldBase + k));
+                    }
+                }
+            }
+        } finally {
+            oldSlots.close();
+        }
+    }
+}
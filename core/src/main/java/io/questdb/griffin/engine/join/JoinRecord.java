@@ -205,6 +205,14 @@ public class JoinRecord implements Record {
         return slave.getSym(col - split);
     }
 
+    @Override
+    public CharSequence getSymB(int col) {
+        if (col < split) {
+            return master.getSymB(col);
+        }
+        return slave.getSymB(col - split);
+    }
+
     @Override
     public long getTimestamp(int col) {
         if (col < split) {
@@ -126,51 +126,32 @@ public class LtJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactory
         }
 
         private void nextSlave(long masterTimestamp) {
-            long slaveTimestamp = this.slaveTimestamp;
-            positionSlaveRecB();
-            // check where this record falls
+            // slave rows before dangling one are all earlier than previous master timestamp,
+            // when dangling row is not earlier than current master the previous match stands
             if (slaveTimestamp < masterTimestamp) {
-                overScrollSlave(masterTimestamp, slaveTimestamp);
-            }
-        }
-
-        private void positionSlaveRecB() {
-            if (this.latestSlaveRowID != Long.MIN_VALUE) {
-                record.hasSlave(true);
-                slaveCursor.recordAt(slaveRecB, latestSlaveRowID);
+                if (latestSlaveRowID != Long.MIN_VALUE) {
+                    record.hasSlave(true);
+                    slaveCursor.recordAt(slaveRecB, latestSlaveRowID);
+                }
+                scrollSlave(masterTimestamp);
             }
         }
 
-        private void slaveIsDone() {
-            positionSlaveRecB();
-            this.slaveTimestamp = Long.MAX_VALUE;
-        }
-
-        private void overScrollSlave(long masterTimestamp, long slaveTimestamp) {
-            latestSlaveRowID = slaveRecA.getRowId();
-            this.slaveTimestamp = slaveTimestamp;
-
-            // scroll slave down
-            while (true) {
-                if (slaveCursor.hasNext()) {
-                    slaveTimestamp = slaveRecA.getTimestamp(slaveTimestampIndex);
-                    if (slaveTimestamp < masterTimestamp) {
-                        record.hasSlave(true);
-                        slaveCursor.recordAt(slaveRecB, latestSlaveRowID);
-                        latestSlaveRowID = slaveRecA.getRowId();
-                        this.slaveTimestamp = slaveTimestamp;
-                    } else {
-                        latestSlaveRowID = slaveRecA.getRowId();
-                        this.slaveTimestamp = slaveTimestamp;
-                        break;
-                    }
-                } else {
+        private void scrollSlave(long masterTimestamp) {
+            while (slaveCursor.hasNext()) {
+                final long slaveTimestamp = slaveRecA.getTimestamp(slaveTimestampIndex);
+                latestSlaveRowID = slaveRecA.getRowId();
+                if (slaveTimestamp < masterTimestamp) {
                     record.hasSlave(true);
                     slaveCursor.recordAt(slaveRecB, latestSlaveRowID);
-                    this.slaveTimestamp = Long.MAX_VALUE;
-                    break;
+                } else {
+                    // hold on to dangling record
+                    this.slaveTimestamp = slaveTimestamp;
+                    return;
                 }
             }
+            // slave is exhausted, its last record is the match for all remaining master records
+            this.slaveTimestamp = Long.MAX_VALUE;
         }
 
         @Override
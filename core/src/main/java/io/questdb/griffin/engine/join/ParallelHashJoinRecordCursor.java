@@ -0,0 +1,544 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.table.PageFrameRecord;
+import io.questdb.griffin.engine.table.PageFrameSymbolTable;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.tasks.HashJoinTask;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hash join over page frames of both sides. Join runs in three steps, each split into
+ * entries that are executed by the worker pool:
+ * <ol>
+ * <li>slave page frames are split into slices and key hash of every row is calculated,
+ * top bits of the hash pick the partition of the row</li>
+ * <li>key table of every partition is built from the rows of all slices that belong
+ * to the partition</li>
+ * <li>master page frames are split into slices and rows of every slice are looked up in
+ * the key table of their partition</li>
+ * </ol>
+ * Master slices are dispatched in a bounded window and their matches are returned in
+ * frame order, so the result has the same order as the serial hash join.
+ */
+class ParallelHashJoinRecordCursor implements NoRandomAccessRecordCursor {
+    private static final int MIN_SLICE_CAPACITY = 1024;
+    private final JoinRecord record;
+    private final OuterJoinRecord outerRecord;
+    private final PageFrameRecord masterRecord = new PageFrameRecord();
+    private final PageFrameRecord slaveRecord = new PageFrameRecord();
+    private final RecordMetadata masterMetadata;
+    private final RecordMetadata slaveMetadata;
+    private final IntList masterColumnShifts = new IntList();
+    private final IntList slaveColumnShifts = new IntList();
+    private final JoinKeyColumns masterKey;
+    private final JoinKeyColumns slaveKey;
+    private final ObjList<JoinKeyTable> tables = new ObjList<>();
+    private final ObjList<SlaveSlice> slices = new ObjList<>();
+    private final ObjList<PartitionBuild> builds = new ObjList<>();
+    private final ObjList<MasterSlice> probes = new ObjList<>();
+    private final int columnSplit;
+    private final int partitionShift;
+    private final int pageFrameMaxRows;
+    private final int window;
+    private PageFrameCursor masterFrames;
+    private PageFrameCursor slaveFrames;
+    private RingQueue<HashJoinTask> queue;
+    private Sequence pubSeq;
+    private SqlExecutionInterruptor interruptor;
+    private int sliceCount;
+    private PageFrame frame;
+    private long frameRowCount;
+    private long frameOffset;
+    private boolean framesExhausted;
+    // ring of dispatched master slices, "head" is the slice results are read from
+    private int head;
+    private int activeCount;
+    private MasterSlice current;
+    private LongList matches;
+    private int matchIndex;
+    private LongChain.TreeCursor chain;
+
+    ParallelHashJoinRecordCursor(
+            CairoConfiguration configuration,
+            RecordMetadata masterMetadata,
+            RecordMetadata slaveMetadata,
+            JoinKeyColumns masterKey,
+            JoinKeyColumns slaveKey,
+            boolean outer,
+            int workerCount
+    ) {
+        this.masterMetadata = masterMetadata;
+        this.slaveMetadata = slaveMetadata;
+        this.masterKey = masterKey;
+        this.slaveKey = slaveKey;
+        this.columnSplit = masterMetadata.getColumnCount();
+        if (outer) {
+            this.outerRecord = new OuterJoinRecord(columnSplit, NullRecordFactory.getInstance(slaveMetadata));
+            this.record = outerRecord;
+        } else {
+            this.outerRecord = null;
+            this.record = new JoinRecord(columnSplit);
+        }
+        this.record.of(masterRecord, slaveRecord);
+        this.pageFrameMaxRows = configuration.getSqlPageFrameMaxRows();
+
+        final int partitionCount = Math.max(2, Numbers.ceilPow2(workerCount));
+        this.partitionShift = 64 - Numbers.msb(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            tables.add(
+                    new JoinKeyTable(
+                            slaveKey.getColumnCount(),
+                            configuration.getSqlFastMapLoadFactor(),
+                            configuration.getSqlMapMaxResizes(),
+                            configuration.getSqlHashJoinLightValuePageSize(),
+                            configuration.getSqlHashJoinLightValueMaxPages()
+                    )
+            );
+            builds.add(new PartitionBuild(i));
+        }
+        // keep workers busy while owner thread is consuming results
+        this.window = workerCount * 2;
+        for (int i = 0; i < window; i++) {
+            probes.add(new MasterSlice());
+        }
+        addColumnShifts(masterMetadata, masterColumnShifts);
+        addColumnShifts(slaveMetadata, slaveColumnShifts);
+    }
+
+    @Override
+    public void close() {
+        if (masterFrames != null) {
+            drain();
+            for (int i = 0, n = tables.size(); i < n; i++) {
+                tables.getQuick(i).clear();
+            }
+            // do not hold on to row hashes of large slave tables
+            Misc.freeObjList(slices);
+            slices.clear();
+            masterFrames = Misc.free(masterFrames);
+        }
+        slaveFrames = Misc.free(slaveFrames);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return masterRecord.getSymbolTable(columnIndex);
+        }
+        return slaveRecord.getSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (true) {
+            if (chain != null && chain.hasNext()) {
+                final long rowRef = chain.next();
+                final SlaveSlice slice = slices.getQuick((int) (rowRef >>> 32));
+                slaveRecord.of(slice.columnAddresses, slice.partitionIndex, slice.partitionLo);
+                slaveRecord.setRow((int) rowRef);
+                return true;
+            }
+
+            if (current != null) {
+                if (matchIndex < matches.size()) {
+                    masterRecord.setRow(matches.getQuick(matchIndex++));
+                    final int partition = (int) matches.getQuick(matchIndex++);
+                    final long chainHead = matches.getQuick(matchIndex++);
+                    if (partition == -1) {
+                        // outer join only
+                        chain = null;
+                        outerRecord.hasSlave(false);
+                        return true;
+                    }
+                    if (outerRecord != null) {
+                        outerRecord.hasSlave(true);
+                    }
+                    chain = tables.getQuick(partition).getCursor(chainHead);
+                    continue;
+                }
+                current = null;
+                head = (head + 1) % window;
+                activeCount--;
+                dispatch();
+            }
+
+            if (activeCount == 0) {
+                return false;
+            }
+
+            final MasterSlice slice = probes.getQuick(head);
+            await(slice);
+            current = slice;
+            matches = slice.matches;
+            matchIndex = 0;
+            masterRecord.of(slice.columnAddresses, slice.partitionIndex, slice.partitionLo);
+        }
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        drain();
+        masterFrames.toTop();
+        resetFrames();
+        dispatch();
+    }
+
+    private static void addColumnShifts(RecordMetadata metadata, IntList columnShifts) {
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            columnShifts.add(Numbers.msb(ColumnType.sizeOf(metadata.getColumnType(i))));
+        }
+    }
+
+    private static void ofFrame(LongList columnAddresses, PageFrame frame, long frameOffset, IntList columnShifts) {
+        columnAddresses.clear();
+        for (int i = 0, n = columnShifts.size(); i < n; i++) {
+            final long address = frame.getPageAddress(i);
+            columnAddresses.add(address == 0 ? 0 : address + (frameOffset << columnShifts.getQuick(i)));
+        }
+    }
+
+    private static void ofSymbolTables(PageFrameRecord record, RecordMetadata metadata, PageFrameCursor frames) {
+        final ObjList<PageFrameSymbolTable> symbolTables = record.getSymbolTables();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (metadata.getColumnType(i) == ColumnType.SYMBOL) {
+                PageFrameSymbolTable symbolTable = symbolTables.getQuiet(i);
+                if (symbolTable == null) {
+                    symbolTable = new PageFrameSymbolTable();
+                    symbolTables.extendAndSet(i, symbolTable);
+                }
+                symbolTable.of(frames.getSymbolMapReader(i));
+            }
+        }
+    }
+
+    private static void rethrow(Throwable error) {
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        throw new RuntimeException(error);
+    }
+
+    private void await(HashJoinEntry entry) {
+        while (!entry.isDone()) {
+            interruptor.checkInterrupted();
+            if (!entry.run() && !steal()) {
+                LockSupport.parkNanos(1);
+            }
+        }
+        final Throwable error = entry.getError();
+        if (error != null) {
+            rethrow(error);
+        }
+    }
+
+    private void awaitAll(ObjList<? extends HashJoinEntry> entries, int count) {
+        try {
+            for (int i = 0; i < count; i++) {
+                final HashJoinEntry entry = entries.getQuick(i);
+                while (!entry.isDone()) {
+                    interruptor.checkInterrupted();
+                    if (!entry.run() && !stealFrom(entries, i + 1, count)) {
+                        LockSupport.parkNanos(1);
+                    }
+                }
+                final Throwable error = entry.getError();
+                if (error != null) {
+                    rethrow(error);
+                }
+            }
+        } catch (Throwable e) {
+            for (int i = 0; i < count; i++) {
+                cancelOrWait(entries.getQuick(i));
+            }
+            throw e;
+        }
+    }
+
+    private void build() {
+        sliceCount = 0;
+        PageFrame frame;
+        while ((frame = slaveFrames.next()) != null) {
+            final long lo = frame.getPartitionLo();
+            final long rowCount = frame.getPartitionHi() - lo;
+            for (long offset = 0; offset < rowCount; offset += pageFrameMaxRows) {
+                final SlaveSlice slice;
+                if (sliceCount < slices.size()) {
+                    slice = slices.getQuick(sliceCount);
+                } else {
+                    slice = new SlaveSlice();
+                    slices.add(slice);
+                }
+                sliceCount++;
+                ofFrame(slice.columnAddresses, frame, offset, slaveColumnShifts);
+                slice.partitionIndex = frame.getPartitionIndex();
+                slice.partitionLo = lo + offset;
+                slice.rowCount = Math.min(pageFrameMaxRows, rowCount - offset);
+                slice.ready();
+                publish(slice);
+            }
+        }
+        awaitAll(slices, sliceCount);
+
+        for (int i = 0, n = builds.size(); i < n; i++) {
+            final PartitionBuild build = builds.getQuick(i);
+            build.ready();
+            publish(build);
+        }
+        awaitAll(builds, builds.size());
+    }
+
+    private void cancelOrWait(HashJoinEntry entry) {
+        if (!entry.cancel()) {
+            while (!entry.isDone()) {
+                LockSupport.parkNanos(1);
+            }
+        }
+    }
+
+    private void dispatch() {
+        while (activeCount < window) {
+            final MasterSlice slice = probes.getQuick((head + activeCount) % window);
+            if (!nextMasterSlice(slice)) {
+                break;
+            }
+            activeCount++;
+            publish(slice);
+        }
+    }
+
+    private void drain() {
+        current = null;
+        chain = null;
+        for (int i = 0; i < activeCount; i++) {
+            cancelOrWait(probes.getQuick((head + i) % window));
+        }
+        activeCount = 0;
+        head = 0;
+    }
+
+    private boolean nextMasterSlice(MasterSlice slice) {
+        while (frame == null || frameOffset == frameRowCount) {
+            if (framesExhausted || (frame = masterFrames.next()) == null) {
+                framesExhausted = true;
+                return false;
+            }
+            frameOffset = 0;
+            frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+        }
+
+        final long rowCount = Math.min(pageFrameMaxRows, frameRowCount - frameOffset);
+        ofFrame(slice.columnAddresses, frame, frameOffset, masterColumnShifts);
+        slice.partitionIndex = frame.getPartitionIndex();
+        slice.partitionLo = frame.getPartitionLo() + frameOffset;
+        slice.rowCount = rowCount;
+        slice.ready();
+        frameOffset += rowCount;
+        return true;
+    }
+
+    private void publish(HashJoinEntry entry) {
+        if (pubSeq != null) {
+            long seq;
+            do {
+                seq = pubSeq.next();
+            } while (seq == -2);
+
+            // when queue is full the entry is left to the owner thread
+            if (seq > -1) {
+                queue.get(seq).entry = entry;
+                pubSeq.done(seq);
+            }
+        }
+    }
+
+    private void resetFrames() {
+        frame = null;
+        frameOffset = 0;
+        frameRowCount = 0;
+        framesExhausted = false;
+    }
+
+    private boolean steal() {
+        for (int i = 1; i < activeCount; i++) {
+            if (probes.getQuick((head + i) % window).run()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean stealFrom(ObjList<? extends HashJoinEntry> entries, int lo, int hi) {
+        for (int i = lo; i < hi; i++) {
+            if (entries.getQuick(i).run()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void freeTables() {
+        Misc.freeObjList(tables);
+        Misc.freeObjList(slices);
+    }
+
+    void of(
+            PageFrameCursor masterFrames,
+            PageFrameCursor slaveFrames,
+            @Nullable MessageBus bus,
+            SqlExecutionInterruptor interruptor
+    ) {
+        this.masterFrames = masterFrames;
+        this.slaveFrames = slaveFrames;
+        this.interruptor = interruptor;
+        if (bus != null) {
+            this.queue = bus.getHashJoinQueue();
+            this.pubSeq = queue != null ? bus.getHashJoinPubSequence() : null;
+        } else {
+            this.queue = null;
+            this.pubSeq = null;
+        }
+
+        ofSymbolTables(masterRecord, masterMetadata, masterFrames);
+        ofSymbolTables(slaveRecord, slaveMetadata, slaveFrames);
+        for (int k = 0, n = masterKey.getColumnCount(); k < n; k++) {
+            final int columnIndex = masterKey.getColumnIndex(k);
+            if (masterMetadata.getColumnType(columnIndex) == ColumnType.SYMBOL) {
+                masterKey.translateSymbols(
+                        k,
+                        masterFrames.getSymbolMapReader(columnIndex),
+                        slaveFrames.getSymbolMapReader(slaveKey.getColumnIndex(k))
+                );
+            }
+        }
+
+        head = 0;
+        activeCount = 0;
+        current = null;
+        chain = null;
+        build();
+        resetFrames();
+        dispatch();
+    }
+
+    private class SlaveSlice extends HashJoinEntry implements Closeable {
+        private final LongList columnAddresses = new LongList();
+        // key hash of every row, partition of the row is in the top bits of the hash
+        private final DirectLongList hashes = new DirectLongList(MIN_SLICE_CAPACITY);
+        private int partitionIndex;
+        private long partitionLo;
+        private long rowCount;
+
+        @Override
+        public void close() {
+            hashes.close();
+        }
+
+        @Override
+        void exec() {
+            hashes.setCapacity(rowCount);
+            for (long row = 0; row < rowCount; row++) {
+                hashes.set(row, slaveKey.hash(columnAddresses, row));
+            }
+        }
+    }
+
+    private class PartitionBuild extends HashJoinEntry {
+        private final int partitionIndex;
+
+        private PartitionBuild(int partitionIndex) {
+            this.partitionIndex = partitionIndex;
+        }
+
+        @Override
+        void exec() {
+            final JoinKeyTable table = tables.getQuick(partitionIndex);
+            table.clear();
+            for (int s = 0; s < sliceCount; s++) {
+                final SlaveSlice slice = slices.getQuick(s);
+                final DirectLongList hashes = slice.hashes;
+                for (long row = 0, n = slice.rowCount; row < n; row++) {
+                    final long hash = hashes.get(row);
+                    if ((int) (hash >>> partitionShift) == partitionIndex) {
+                        table.put(hash, slaveKey, slice.columnAddresses, row, ((long) s << 32) | row);
+                    }
+                }
+            }
+        }
+    }
+
+    private class MasterSlice extends HashJoinEntry {
+        private final LongList columnAddresses = new LongList();
+        // triples of row, partition and offset of slave row chain, partition is -1 when outer join row has no match
+        private final LongList matches = new LongList();
+        private int partitionIndex;
+        private long partitionLo;
+        private long rowCount;
+
+        @Override
+        void exec() {
+            matches.clear();
+            for (long row = 0; row < rowCount; row++) {
+                final long hash = masterKey.hash(columnAddresses, row);
+                final int partition = (int) (hash >>> partitionShift);
+                final long chainHead = tables.getQuick(partition).find(hash, masterKey, columnAddresses, row);
+                if (chainHead != -1) {
+                    matches.add(row);
+                    matches.add(partition);
+                    matches.add(chainHead);
+                } else if (outerRecord != null) {
+                    matches.add(row);
+                    matches.add(-1);
+                    matches.add(-1);
+                }
+            }
+        }
+    }
+}
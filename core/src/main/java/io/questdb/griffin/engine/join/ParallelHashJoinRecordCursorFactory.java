@@ -0,0 +1,116 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnFilter;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
+import io.questdb.std.Transient;
+
+/**
+ * Inner or left outer hash join of two factories that support page frames. Slave side is
+ * partitioned by key hash and key tables of partitions are built by the worker pool, which
+ * then probes master page frames. Join keys are restricted to fixed-size column types,
+ * which is what page frames are limited to.
+ */
+public class ParallelHashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory masterFactory;
+    private final RecordCursorFactory slaveFactory;
+    private final ParallelHashJoinRecordCursor cursor;
+
+    public ParallelHashJoinRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            RecordCursorFactory slaveFactory,
+            @Transient ColumnFilter masterKeyColumns,
+            @Transient ColumnFilter slaveKeyColumns,
+            boolean outer,
+            int workerCount
+    ) {
+        super(metadata);
+        assert masterFactory.supportPageFrameCursor() && slaveFactory.supportPageFrameCursor();
+        this.masterFactory = masterFactory;
+        this.slaveFactory = slaveFactory;
+        final RecordMetadata masterMetadata = masterFactory.getMetadata();
+        final RecordMetadata slaveMetadata = slaveFactory.getMetadata();
+        final JoinKeyColumns masterKey = new JoinKeyColumns();
+        final JoinKeyColumns slaveKey = new JoinKeyColumns();
+        for (int i = 0, n = masterKeyColumns.getColumnCount(); i < n; i++) {
+            final int masterIndex = masterKeyColumns.getColumnIndexFactored(i);
+            final int slaveIndex = slaveKeyColumns.getColumnIndexFactored(i);
+            masterKey.add(masterIndex, masterMetadata.getColumnType(masterIndex));
+            slaveKey.add(slaveIndex, slaveMetadata.getColumnType(slaveIndex));
+        }
+        this.cursor = new ParallelHashJoinRecordCursor(
+                configuration,
+                masterMetadata,
+                slaveMetadata,
+                masterKey,
+                slaveKey,
+                outer,
+                workerCount
+        );
+    }
+
+    @Override
+    public void close() {
+        ((JoinRecordMetadata) getMetadata()).close();
+        cursor.freeTables();
+        masterFactory.close();
+        slaveFactory.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        final PageFrameCursor slaveFrames = slaveFactory.getPageFrameCursor(executionContext);
+        final PageFrameCursor masterFrames;
+        try {
+            masterFrames = masterFactory.getPageFrameCursor(executionContext);
+        } catch (Throwable e) {
+            Misc.free(slaveFrames);
+            throw e;
+        }
+        try {
+            cursor.of(masterFrames, slaveFrames, executionContext.getMessageBus(), executionContext.getSqlExecutionInterruptor());
+        } catch (Throwable e) {
+            cursor.close();
+            throw e;
+        }
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+}
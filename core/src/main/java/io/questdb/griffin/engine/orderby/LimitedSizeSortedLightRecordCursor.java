@@ -0,0 +1,145 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.sql.DelegatingRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.std.LongList;
+
+/**
+ * Keeps row ids of first "limit" rows in sort order. Row ids are kept in sorted list, every
+ * row of base cursor is compared to the last row of the list first, rows that would not make
+ * it into the list are rejected with a single comparison.
+ */
+class LimitedSizeSortedLightRecordCursor implements DelegatingRecordCursor {
+    private final RecordComparator comparator;
+    private final LongList rowIds = new LongList();
+    private final int limit;
+    private RecordCursor base;
+    private Record baseRecord;
+    private Record placeHolderRecord;
+    private int index;
+
+    public LimitedSizeSortedLightRecordCursor(RecordComparator comparator, int limit) {
+        this.comparator = comparator;
+        this.limit = limit;
+    }
+
+    @Override
+    public void close() {
+        rowIds.clear();
+        base.close();
+    }
+
+    @Override
+    public long size() {
+        return rowIds.size();
+    }
+
+    @Override
+    public Record getRecord() {
+        return baseRecord;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (index < rowIds.size()) {
+            base.recordAt(baseRecord, rowIds.getQuick(index++));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Record getRecordB() {
+        return base.getRecordB();
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        base.recordAt(record, atRowId);
+    }
+
+    @Override
+    public void toTop() {
+        index = 0;
+    }
+
+    @Override
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
+        this.base = base;
+        this.baseRecord = base.getRecord();
+        // comparisons re-position this record, base cursor may keep state in the record it returns
+        this.placeHolderRecord = base.getRecordB();
+        SqlExecutionInterruptor interruptor = executionContext.getSqlExecutionInterruptor();
+
+        rowIds.clear();
+        while (base.hasNext()) {
+            interruptor.checkInterrupted();
+            put(baseRecord.getRowId());
+        }
+        index = 0;
+    }
+
+    private int compareTo(int index) {
+        base.recordAt(placeHolderRecord, rowIds.getQuick(index));
+        return comparator.compare(placeHolderRecord);
+    }
+
+    private void put(long rowId) {
+        comparator.setLeft(baseRecord);
+        final int size = rowIds.size();
+        if (size == limit) {
+            if (compareTo(size - 1) > 0) {
+                return;
+            }
+            rowIds.removeIndex(size - 1);
+        }
+
+        // new row goes in front of rows it is equal to, this is
+        // the order equal rows come out of LongTreeChain in
+        int lo = 0;
+        int hi = rowIds.size();
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (compareTo(mid) > 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        rowIds.add(lo, rowId);
+    }
+}
@@ -0,0 +1,453 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sorts (key, value) pairs of longs by key, keys are compared as unsigned. Pairs are
+ * accumulated in memory buffer, which grows up to the memory limit. Full buffer is sorted
+ * with radix sort and written to temporary file as a sorted run. When sort is done
+ * runs are merged with a k-way merge, which reads every run in chunks. When there are
+ * more runs than buffer has chunks, groups of runs are merged into larger runs first.
+ * Pairs with equal
+ * keys come out in order they were added, or in reverse of that order when chain is
+ * created with "lifo" flag.
+ * <p>
+ * Radix sort needs scratch memory of the same size as the buffer, so the actual memory
+ * footprint of sorting a run is up to twice the limit.
+ */
+public class RadixSortChain implements Closeable, Mutable {
+    private static final Log LOG = LogFactory.getLog(RadixSortChain.class);
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+    private static final int ENTRY_SIZE = 2 * Long.BYTES;
+    // native sort switches to quick sort, which is not stable, on smaller inputs
+    private static final int NATIVE_SORT_THRESHOLD = 600;
+    private static final long MIN_CHUNK_SIZE = 256 * ENTRY_SIZE;
+    private final FilesFacade ff;
+    private final CharSequence spillRoot;
+    private final int mkDirMode;
+    private final long initialCapacity;
+    private final long maxCapacity;
+    private final long id;
+    private final Path path = new Path();
+    private final LongList runFds = new LongList();
+    private final LongList runSizes = new LongList();
+    private final IntList runFileIds = new IntList();
+    // per run merge state: file offset, chunk position, chunk limit
+    private final LongList runOffsets = new LongList();
+    private final LongList chunkPositions = new LongList();
+    private final LongList chunkLimits = new LongList();
+    private final IntList heap = new IntList();
+    private final boolean lifo;
+    private final int fanIn;
+    private long bufferAddress;
+    private long bufferCapacity;
+    private long appendAddress;
+    private long readAddress;
+    private long chunkSize;
+    private int mergeLo;
+    private int nextRunFileId;
+    private long key;
+    private long value;
+
+    public RadixSortChain(FilesFacade ff, CharSequence spillRoot, int mkDirMode, long pageSize, long memoryLimit, boolean lifo) {
+        this.ff = ff;
+        this.lifo = lifo;
+        this.spillRoot = spillRoot;
+        this.mkDirMode = mkDirMode;
+        this.maxCapacity = Math.max(MIN_CHUNK_SIZE, memoryLimit / ENTRY_SIZE * ENTRY_SIZE);
+        this.initialCapacity = Math.min(maxCapacity, Math.max(MIN_CHUNK_SIZE, Numbers.ceilPow2(pageSize) / ENTRY_SIZE * ENTRY_SIZE));
+        this.fanIn = (int) Math.max(2, maxCapacity / MIN_CHUNK_SIZE - 1);
+        this.id = ID_SEQUENCE.incrementAndGet();
+    }
+
+    @Override
+    public void clear() {
+        removeRuns();
+        if (bufferCapacity > initialCapacity) {
+            Unsafe.free(bufferAddress, bufferCapacity);
+            bufferAddress = 0;
+            bufferCapacity = 0;
+        }
+        appendAddress = bufferAddress;
+        readAddress = bufferAddress;
+    }
+
+    @Override
+    public void close() {
+        removeRuns();
+        if (bufferAddress != 0) {
+            Unsafe.free(bufferAddress, bufferCapacity);
+            bufferAddress = 0;
+            bufferCapacity = 0;
+            appendAddress = 0;
+            readAddress = 0;
+        }
+        Misc.free(path);
+    }
+
+    public int getRunCount() {
+        return runFds.size();
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public boolean hasNext() {
+        if (runFds.size() == 0) {
+            if (readAddress < appendAddress) {
+                value = Unsafe.getUnsafe().getLong(readAddress + Long.BYTES);
+                readAddress += ENTRY_SIZE;
+                return true;
+            }
+            return false;
+        }
+        return nextMerged();
+    }
+
+    public void put(long key, long value) {
+        if (appendAddress + ENTRY_SIZE > bufferAddress + bufferCapacity) {
+            if (bufferCapacity < maxCapacity) {
+                grow();
+            } else {
+                spillRun();
+            }
+        }
+        Unsafe.getUnsafe().putLong(appendAddress, key);
+        Unsafe.getUnsafe().putLong(appendAddress + Long.BYTES, value);
+        appendAddress += ENTRY_SIZE;
+    }
+
+    /**
+     * Sorts pairs that have been added so far and positions chain at the first pair.
+     * When some of the pairs have been spilled remaining ones are spilled too and
+     * chain switches to merging the runs.
+     */
+    public void sort() {
+        if (runFds.size() == 0) {
+            sortBuffer();
+        } else {
+            spillRun();
+            // every pass merges consecutive groups of runs, until all runs can be merged at once
+            while (runFds.size() > fanIn) {
+                for (int lo = 0; lo < runFds.size(); lo++) {
+                    final int hi = Math.min(lo + fanIn, runFds.size());
+                    if (hi - lo > 1) {
+                        mergeRuns(lo, hi);
+                    }
+                }
+            }
+        }
+        toTop();
+    }
+
+    public void toTop() {
+        if (runFds.size() == 0) {
+            readAddress = bufferAddress;
+        } else {
+            startMerge(0, runFds.size(), runFds.size());
+        }
+    }
+
+    private static void insertionSort(long lo, long hi) {
+        for (long i = lo + ENTRY_SIZE; i < hi; i += ENTRY_SIZE) {
+            final long key = Unsafe.getUnsafe().getLong(i);
+            final long value = Unsafe.getUnsafe().getLong(i + Long.BYTES);
+            long j = i - ENTRY_SIZE;
+            while (j >= lo && Long.compareUnsigned(Unsafe.getUnsafe().getLong(j), key) > 0) {
+                Unsafe.getUnsafe().putLong(j + ENTRY_SIZE, Unsafe.getUnsafe().getLong(j));
+                Unsafe.getUnsafe().putLong(j + ENTRY_SIZE + Long.BYTES, Unsafe.getUnsafe().getLong(j + Long.BYTES));
+                j -= ENTRY_SIZE;
+            }
+            Unsafe.getUnsafe().putLong(j + ENTRY_SIZE, key);
+            Unsafe.getUnsafe().putLong(j + ENTRY_SIZE + Long.BYTES, value);
+        }
+    }
+
+    private static void reverse(long lo, long hi) {
+        for (long l = lo, h = hi - ENTRY_SIZE; l < h; l += ENTRY_SIZE, h -= ENTRY_SIZE) {
+            final long key = Unsafe.getUnsafe().getLong(l);
+            final long value = Unsafe.getUnsafe().getLong(l + Long.BYTES);
+            Unsafe.getUnsafe().putLong(l, Unsafe.getUnsafe().getLong(h));
+            Unsafe.getUnsafe().putLong(l + Long.BYTES, Unsafe.getUnsafe().getLong(h + Long.BYTES));
+            Unsafe.getUnsafe().putLong(h, key);
+            Unsafe.getUnsafe().putLong(h + Long.BYTES, value);
+        }
+    }
+
+    private long chunkKey(int run) {
+        return Unsafe.getUnsafe().getLong(chunkPositions.getQuick(run));
+    }
+
+    private boolean fillChunk(int run) {
+        final long remaining = runSizes.getQuick(run) - runOffsets.getQuick(run);
+        if (remaining == 0) {
+            return false;
+        }
+        final long chunkAddress = bufferAddress + (run - mergeLo) * chunkSize;
+        final long len = Math.min(chunkSize, remaining);
+        final long fd = runFds.getQuick(run);
+        if (ff.read(fd, chunkAddress, len, runOffsets.getQuick(run)) != len) {
+            throw CairoException.instance(ff.errno()).put("could not read sort run [fd=").put(fd).put(", offset=").put(runOffsets.getQuick(run)).put(']');
+        }
+        runOffsets.setQuick(run, runOffsets.getQuick(run) + len);
+        chunkPositions.setQuick(run, chunkAddress);
+        chunkLimits.setQuick(run, chunkAddress + len);
+        return true;
+    }
+
+    private void grow() {
+        final long capacity = bufferCapacity == 0 ? initialCapacity : Math.min(maxCapacity, bufferCapacity * 2);
+        final long appendOffset = appendAddress - bufferAddress;
+        bufferAddress = bufferAddress == 0 ? Unsafe.malloc(capacity) : Unsafe.realloc(bufferAddress, bufferCapacity, capacity);
+        bufferCapacity = capacity;
+        appendAddress = bufferAddress + appendOffset;
+        readAddress = bufferAddress;
+    }
+
+    private boolean less(long keyA, int runA, long keyB, int runB) {
+        // runs are numbered in order they were written, this keeps order of equal keys across runs
+        final int cmp = Long.compareUnsigned(keyA, keyB);
+        return cmp < 0 || (cmp == 0 && (lifo ? runA > runB : runA < runB));
+    }
+
+    /**
+     * Merges runs from lo to hi into single run, which takes place of the group. Merging
+     * consecutive runs keeps order of equal keys.
+     */
+    private void mergeRuns(int lo, int hi) {
+        final int runCount = hi - lo;
+        startMerge(lo, hi, runCount + 1);
+        final long outAddress = bufferAddress + runCount * chunkSize;
+        final long outLimit = outAddress + chunkSize;
+        long outPosition = outAddress;
+        long outOffset = 0;
+
+        final long fd = openRun();
+        // new run is written at the end of the list and moved to position of the group once complete
+        runFds.add(fd);
+        while (nextMerged()) {
+            Unsafe.getUnsafe().putLong(outPosition, key);
+            Unsafe.getUnsafe().putLong(outPosition + Long.BYTES, value);
+            outPosition += ENTRY_SIZE;
+            if (outPosition == outLimit) {
+                writeRun(fd, outAddress, chunkSize, outOffset);
+                outOffset += chunkSize;
+                outPosition = outAddress;
+            }
+        }
+        if (outPosition > outAddress) {
+            writeRun(fd, outAddress, outPosition - outAddress, outOffset);
+            outOffset += outPosition - outAddress;
+        }
+
+        final int last = runFds.size() - 1;
+        final int fileId = runFileIds.getQuick(last);
+        for (int run = lo; run < hi; run++) {
+            removeRun(run);
+        }
+        runFds.removeIndex(last);
+        runFileIds.removeIndex(last);
+        for (int run = hi - 1; run > lo; run--) {
+            runFds.removeIndex(run);
+            runSizes.removeIndex(run);
+            runFileIds.removeIndex(run);
+        }
+        runFds.setQuick(lo, fd);
+        runSizes.setQuick(lo, outOffset);
+        runFileIds.setQuick(lo, fileId);
+        LOG.debug().$("merged sort runs [id=").$(id).$(", count=").$(runCount).$(", size=").$(outOffset).$(']').$();
+    }
+
+    private boolean nextMerged() {
+        final int size = heap.size();
+        if (size == 0) {
+            return false;
+        }
+        final int run = heap.getQuick(0);
+        final long position = chunkPositions.getQuick(run);
+        key = Unsafe.getUnsafe().getLong(position);
+        value = Unsafe.getUnsafe().getLong(position + Long.BYTES);
+        if (position + ENTRY_SIZE < chunkLimits.getQuick(run)) {
+            chunkPositions.setQuick(run, position + ENTRY_SIZE);
+        } else if (!fillChunk(run)) {
+            // run is exhausted, last element of the heap takes its place
+            heap.setQuick(0, heap.getQuick(size - 1));
+            heap.removeIndex(size - 1);
+            if (size == 1) {
+                return true;
+            }
+        }
+        siftDown(0);
+        return true;
+    }
+
+    private long openRun() {
+        if (runFds.size() == 0) {
+            openRunDir();
+        }
+        final int fileId = nextRunFileId++;
+        runFileName(fileId);
+        final long fd = ff.openRW(path);
+        if (fd == -1) {
+            throw CairoException.instance(ff.errno()).put("could not open sort run [path=").put(path).put(']');
+        }
+        runFileIds.add(fileId);
+        return fd;
+    }
+
+    private void openRunDir() {
+        path.of(spillRoot).put(Files.SEPARATOR).$();
+        if (!ff.exists(path) && ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.instance(ff.errno()).put("could not create sort spill directory [path=").put(path).put(']');
+        }
+    }
+
+    private void removeRun(int run) {
+        ff.close(runFds.getQuick(run));
+        runFileName(runFileIds.getQuick(run));
+        if (!ff.remove(path)) {
+            LOG.error().$("could not remove sort run [path=").$(path).$(", errno=").$(ff.errno()).$(']').$();
+        }
+    }
+
+    private void removeRuns() {
+        for (int i = 0, n = runFds.size(); i < n; i++) {
+            removeRun(i);
+        }
+        runFds.clear();
+        runSizes.clear();
+        runFileIds.clear();
+        heap.clear();
+        nextRunFileId = 0;
+    }
+
+    private void runFileName(int fileId) {
+        path.of(spillRoot).concat("sort-");
+        path.put(Os.getPid()).put('-').put(id).put('-').put(fileId).put(".tmp");
+        path.$();
+    }
+
+    private void siftDown(int index) {
+        final int size = heap.size();
+        final int run = heap.getQuick(index);
+        final long key = chunkKey(run);
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            int childRun = heap.getQuick(child);
+            long childKey = chunkKey(childRun);
+            if (child + 1 < size) {
+                final int rightRun = heap.getQuick(child + 1);
+                final long rightKey = chunkKey(rightRun);
+                if (less(rightKey, rightRun, childKey, childRun)) {
+                    child++;
+                    childRun = rightRun;
+                    childKey = rightKey;
+                }
+            }
+            if (!less(childKey, childRun, key, run)) {
+                break;
+            }
+            heap.setQuick(index, childRun);
+            index = child;
+        }
+        heap.setQuick(index, run);
+    }
+
+    private void sortBuffer() {
+        final long count = (appendAddress - bufferAddress) / ENTRY_SIZE;
+        if (lifo) {
+            // both sorts are stable, reversed input comes out with equal keys in reverse order
+            reverse(bufferAddress, appendAddress);
+        }
+        if (count < NATIVE_SORT_THRESHOLD) {
+            insertionSort(bufferAddress, appendAddress);
+        } else {
+            // radix sort is stable
+            Vect.sortLongIndexAscInPlace(bufferAddress, count);
+        }
+    }
+
+    private void spillRun() {
+        final long size = appendAddress - bufferAddress;
+        if (size == 0) {
+            return;
+        }
+        sortBuffer();
+
+        final long fd = openRun();
+        runFds.add(fd);
+        runSizes.add(size);
+        writeRun(fd, bufferAddress, size, 0);
+        LOG.debug().$("spilled sort run [id=").$(id).$(", run=").$(runFds.size() - 1).$(", size=").$(size).$(']').$();
+        appendAddress = bufferAddress;
+    }
+
+    private void startMerge(int lo, int hi, int chunkCount) {
+        // buffer is split in chunks of equal size, every merged run is read into its own chunk
+        chunkSize = Math.max(MIN_CHUNK_SIZE, bufferCapacity / chunkCount / ENTRY_SIZE * ENTRY_SIZE);
+        if (chunkSize * chunkCount > bufferCapacity) {
+            final long capacity = chunkSize * chunkCount;
+            bufferAddress = Unsafe.realloc(bufferAddress, bufferCapacity, capacity);
+            bufferCapacity = capacity;
+        }
+        appendAddress = bufferAddress;
+        readAddress = bufferAddress;
+        mergeLo = lo;
+
+        final int runCount = runFds.size();
+        runOffsets.setPos(runCount);
+        chunkPositions.setPos(runCount);
+        chunkLimits.setPos(runCount);
+        heap.clear();
+        for (int run = lo; run < hi; run++) {
+            runOffsets.setQuick(run, 0);
+            if (fillChunk(run)) {
+                heap.add(run);
+            }
+        }
+        for (int i = heap.size() / 2 - 1; i > -1; i--) {
+            siftDown(i);
+        }
+    }
+
+    private void writeRun(long fd, long address, long len, long offset) {
+        if (ff.write(fd, address, len, offset) != len) {
+            throw CairoException.instance(ff.errno()).put("could not write sort run [fd=").put(fd).put(", size=").put(len).put(']');
+        }
+    }
+}
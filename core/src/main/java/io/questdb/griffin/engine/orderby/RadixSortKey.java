@@ -0,0 +1,102 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+
+/**
+ * Maps value of a fixed-width column to a long, unsigned order of which is the order of
+ * ORDER BY on that column. Nulls come first in ascending order and last in descending.
+ */
+public class RadixSortKey {
+    private final int columnIndex;
+    private final int columnType;
+    private final boolean descending;
+
+    public RadixSortKey(int columnIndex, int columnType, boolean descending) {
+        assert isSupported(columnType);
+        this.columnIndex = columnIndex;
+        this.columnType = columnType;
+        this.descending = descending;
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (columnType) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public long of(Record record) {
+        final long key = unsignedOf(record);
+        return descending ? ~key : key;
+    }
+
+    private static long ofDouble(double value) {
+        if (value != value) {
+            return 0;
+        }
+        // +0.0 and -0.0 are equal
+        final long bits = Double.doubleToRawLongBits(value + 0.0);
+        return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+    }
+
+    private long unsignedOf(Record record) {
+        switch (columnType) {
+            case ColumnType.BOOLEAN:
+                return record.getBool(columnIndex) ? 1 : 0;
+            case ColumnType.BYTE:
+                return record.getByte(columnIndex) ^ Long.MIN_VALUE;
+            case ColumnType.SHORT:
+                return record.getShort(columnIndex) ^ Long.MIN_VALUE;
+            case ColumnType.CHAR:
+                return record.getChar(columnIndex);
+            case ColumnType.INT:
+                return record.getInt(columnIndex) ^ Long.MIN_VALUE;
+            case ColumnType.LONG:
+                return record.getLong(columnIndex) ^ Long.MIN_VALUE;
+            case ColumnType.DATE:
+                return record.getDate(columnIndex) ^ Long.MIN_VALUE;
+            case ColumnType.TIMESTAMP:
+                return record.getTimestamp(columnIndex) ^ Long.MIN_VALUE;
+            case ColumnType.FLOAT:
+                return ofDouble(record.getFloat(columnIndex));
+            default:
+                return ofDouble(record.getDouble(columnIndex));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.sql.DelegatingRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
+
+class RadixSortedRecordCursor implements DelegatingRecordCursor {
+    private final RecordChain recordChain;
+    private final RadixSortChain chain;
+    private final RadixSortKey sortKey;
+    private final Record recordChainRecord;
+    private RecordCursor base;
+
+    public RadixSortedRecordCursor(RecordChain recordChain, RadixSortChain chain, RadixSortKey sortKey) {
+        this.recordChain = recordChain;
+        this.chain = chain;
+        this.sortKey = sortKey;
+        this.recordChainRecord = recordChain.getRecord();
+    }
+
+    @Override
+    public void close() {
+        base.close();
+        chain.clear();
+        recordChain.clear();
+    }
+
+    @Override
+    public Record getRecord() {
+        return recordChainRecord;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (chain.hasNext()) {
+            recordChain.recordAt(recordChainRecord, chain.getValue());
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Record getRecordB() {
+        return recordChain.getRecordB();
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        recordChain.recordAt(record, atRowId);
+    }
+
+    @Override
+    public void toTop() {
+        chain.toTop();
+    }
+
+    @Override
+    public long size() {
+        return base.size();
+    }
+
+    @Override
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
+        try {
+            this.base = base;
+            recordChain.setSymbolTableResolver(base);
+            final Record record = base.getRecord();
+            final SqlExecutionInterruptor interruptor = executionContext.getSqlExecutionInterruptor();
+
+            chain.clear();
+            recordChain.clear();
+            while (base.hasNext()) {
+                interruptor.checkInterrupted();
+                chain.put(sortKey.of(record), recordChain.put(record, -1L));
+            }
+            chain.sort();
+        } catch (CairoException ex) {
+            base.close();
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlExecutionContext;
+
+/**
+ * Orders rows of cursor without random access by single fixed-width column. Rows are
+ * copied to record chain, sort key and chain offset of every row are radix sorted.
+ */
+public class RadixSortedRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final RecordChain recordChain;
+    private final RadixSortChain chain;
+    private final RadixSortedRecordCursor cursor;
+
+    public RadixSortedRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            RecordCursorFactory base,
+            ColumnTypes columnTypes,
+            RecordSink recordSink,
+            RadixSortKey sortKey
+    ) {
+        super(metadata);
+        this.recordChain = new RecordChain(
+                columnTypes,
+                recordSink,
+                configuration.getSqlSortValuePageSize(),
+                configuration.getSqlSortValueMaxPages()
+        );
+        this.chain = new RadixSortChain(
+                configuration.getFilesFacade(),
+                configuration.getSqlTempRoot(),
+                configuration.getMkDirMode(),
+                configuration.getSqlSortLightValuePageSize(),
+                configuration.getSqlSortSpillThreshold(),
+                false
+        );
+        this.base = base;
+        this.cursor = new RadixSortedRecordCursor(recordChain, chain, sortKey);
+    }
+
+    @Override
+    public void close() {
+        base.close();
+        recordChain.close();
+        chain.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        this.cursor.of(base.getCursor(executionContext), executionContext);
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+}
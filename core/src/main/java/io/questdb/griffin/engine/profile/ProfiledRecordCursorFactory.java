@@ -0,0 +1,216 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.profile;
+
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.NanosecondClock;
+import io.questdb.std.ObjList;
+
+/**
+ * Decorates factory with counters of rows produced by its cursor and of time spent opening
+ * and iterating the cursor. Time is inclusive of time spent in the factories this factory
+ * reads from. Profiled factories form a tree, which is printed in plan order.
+ */
+public class ProfiledRecordCursorFactory implements RecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final ObjList<ProfiledRecordCursorFactory> children = new ObjList<>();
+    private final ProfiledRecordCursor cursor = new ProfiledRecordCursor();
+    private final NanosecondClock clock;
+    private long cursorCount;
+    private long rowCount;
+    private long size;
+    private long openNanos;
+    private long nextNanos;
+
+    public ProfiledRecordCursorFactory(RecordCursorFactory base, NanosecondClock clock) {
+        this.base = base;
+        this.clock = clock;
+        clear();
+    }
+
+    public void clear() {
+        cursorCount = 0;
+        rowCount = 0;
+        size = -1;
+        openNanos = 0;
+        nextNanos = 0;
+        for (int i = 0, n = children.size(); i < n; i++) {
+            children.getQuick(i).clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        // children are owned by base factory
+        base.close();
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return base.followedOrderByAdvice();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        final long start = clock.getTicks();
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        openNanos += clock.getTicks() - start;
+        cursorCount++;
+        return cursor.of(baseCursor);
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return base.getMetadata();
+    }
+
+    @Override
+    public PageFrameCursor getPageFrameCursor(SqlExecutionContext executionContext) {
+        return base.getPageFrameCursor(executionContext);
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return base.recordCursorSupportsRandomAccess();
+    }
+
+    @Override
+    public boolean supportPageFrameCursor() {
+        return base.supportPageFrameCursor();
+    }
+
+    @Override
+    public boolean supportVarSizePageFrameCursor() {
+        return base.supportVarSizePageFrameCursor();
+    }
+
+    public RecordCursorFactory getBase() {
+        return base;
+    }
+
+    public ObjList<ProfiledRecordCursorFactory> getChildren() {
+        return children;
+    }
+
+    /**
+     * @return number of cursors opened
+     */
+    public long getCursorCount() {
+        return cursorCount;
+    }
+
+    public String getName() {
+        return base.getClass().getSimpleName();
+    }
+
+    /**
+     * @return time spent in getCursor()
+     */
+    public long getOpenNanos() {
+        return openNanos;
+    }
+
+    /**
+     * @return time spent in hasNext()
+     */
+    public long getNextNanos() {
+        return nextNanos;
+    }
+
+    /**
+     * @return number of rows cursors returned
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return size cursor reported before it was closed, such as number of groups in group-by map
+     */
+    public long getSize() {
+        return size;
+    }
+
+    private class ProfiledRecordCursor implements RecordCursor {
+        private RecordCursor base;
+
+        @Override
+        public void close() {
+            if (base != null) {
+                size = base.size();
+                base.close();
+                base = null;
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return base.getRecord();
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return base.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            final long start = clock.getTicks();
+            final boolean next = base.hasNext();
+            nextNanos += clock.getTicks() - start;
+            if (next) {
+                rowCount++;
+            }
+            return next;
+        }
+
+        @Override
+        public Record getRecordB() {
+            return base.getRecordB();
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            base.recordAt(record, atRowId);
+        }
+
+        @Override
+        public void toTop() {
+            base.toTop();
+        }
+
+        @Override
+        public long size() {
+            return base.size();
+        }
+
+        private ProfiledRecordCursor of(RecordCursor base) {
+            this.base = base;
+            return this;
+        }
+    }
+}
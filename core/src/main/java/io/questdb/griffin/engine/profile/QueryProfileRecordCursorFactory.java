@@ -0,0 +1,186 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.profile;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.ObjList;
+
+/**
+ * Result of EXPLAIN ANALYZE. Each cursor runs profiled query to completion and lists
+ * profiled factories in plan order, one row per factory.
+ */
+public class QueryProfileRecordCursorFactory implements RecordCursorFactory {
+    private static final RecordMetadata METADATA;
+    private static final int N_FACTORY_COL = 0;
+    private static final int N_ROWS_COL = 1;
+    private static final int N_SIZE_COL = 2;
+    private static final int N_CURSORS_COL = 3;
+    private static final int N_OPEN_NANOS_COL = 4;
+    private static final int N_NEXT_NANOS_COL = 5;
+    private final ProfiledRecordCursorFactory root;
+    private final ObjList<ProfiledRecordCursorFactory> nodes = new ObjList<>();
+    private final ObjList<String> names = new ObjList<>();
+    private final QueryProfileCursor cursor = new QueryProfileCursor();
+
+    public QueryProfileRecordCursorFactory(ProfiledRecordCursorFactory root) {
+        this.root = root;
+        collect(root, 0);
+    }
+
+    @Override
+    public void close() {
+        root.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        root.clear();
+        try (RecordCursor cursor = root.getCursor(executionContext)) {
+            while (cursor.hasNext()) {
+                // rows are counted by profiled cursors
+            }
+        }
+        cursor.toTop();
+        return cursor;
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return METADATA;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    private void collect(ProfiledRecordCursorFactory node, int depth) {
+        final StringBuilder name = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            name.append("  ");
+        }
+        nodes.add(node);
+        names.add(name.append(node.getName()).toString());
+        final ObjList<ProfiledRecordCursorFactory> children = node.getChildren();
+        for (int i = 0, n = children.size(); i < n; i++) {
+            collect(children.getQuick(i), depth + 1);
+        }
+    }
+
+    private class QueryProfileCursor implements RecordCursor {
+        private final QueryProfileRecord record = new QueryProfileRecord();
+        private int index;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return ++index < nodes.size();
+        }
+
+        @Override
+        public Record getRecordB() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void toTop() {
+            index = -1;
+        }
+
+        @Override
+        public long size() {
+            return nodes.size();
+        }
+
+        private class QueryProfileRecord implements Record {
+            @Override
+            public long getLong(int col) {
+                final ProfiledRecordCursorFactory node = nodes.getQuick(index);
+                switch (col) {
+                    case N_ROWS_COL:
+                        return node.getRowCount();
+                    case N_SIZE_COL:
+                        return node.getSize();
+                    case N_CURSORS_COL:
+                        return node.getCursorCount();
+                    case N_OPEN_NANOS_COL:
+                        return node.getOpenNanos();
+                    case N_NEXT_NANOS_COL:
+                        return node.getNextNanos();
+                    default:
+                        throw new UnsupportedOperationException();
+                }
+            }
+
+            @Override
+            public CharSequence getStr(int col) {
+                assert col == N_FACTORY_COL;
+                return names.getQuick(index);
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                return getStr(col);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                return getStr(col).length();
+            }
+        }
+    }
+
+    static {
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        metadata.add(new TableColumnMetadata("factory", ColumnType.STRING, null));
+        metadata.add(new TableColumnMetadata("rows", ColumnType.LONG, null));
+        metadata.add(new TableColumnMetadata("size", ColumnType.LONG, null));
+        metadata.add(new TableColumnMetadata("cursors", ColumnType.LONG, null));
+        metadata.add(new TableColumnMetadata("openNanos", ColumnType.LONG, null));
+        metadata.add(new TableColumnMetadata("nextNanos", ColumnType.LONG, null));
+        METADATA = metadata;
+    }
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.profile;
+
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.NanosecondClock;
+import io.questdb.std.ObjList;
+
+/**
+ * Wraps factories in profiling decorators as code generator creates them. Factories that
+ * are not yet consumed by other factories are kept on the stack. When code generator wraps
+ * a factory, decorators created since the given mark become its children.
+ */
+public class QueryProfiler {
+    private final ObjList<ProfiledRecordCursorFactory> stack = new ObjList<>();
+    private final NanosecondClock clock;
+
+    public QueryProfiler(NanosecondClock clock) {
+        this.clock = clock;
+    }
+
+    public void clear() {
+        stack.clear();
+    }
+
+    public int mark() {
+        return stack.size();
+    }
+
+    public RecordCursorFactory wrap(RecordCursorFactory factory, int mark) {
+        if (factory instanceof ProfiledRecordCursorFactory) {
+            return factory;
+        }
+        final ProfiledRecordCursorFactory profiled = new ProfiledRecordCursorFactory(factory, clock);
+        final ObjList<ProfiledRecordCursorFactory> children = profiled.getChildren();
+        for (int i = mark, n = stack.size(); i < n; i++) {
+            children.add(stack.getQuick(i));
+        }
+        stack.setPos(mark);
+        stack.add(profiled);
+        return profiled;
+    }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+
+/**
+ * Result of filter compilation: generated filter loop along with the columns it reads
+ * and symbol constants it compares against. Symbol constants are resolved to keys
+ * every time cursor is opened because symbol tables may grow in between.
+ */
+public class CompiledFilter {
+    private final PageFrameFilter filter;
+    private final IntList columns = new IntList();
+    private final IntList symbolColumns = new IntList();
+    private final ObjList<String> symbolValues = new ObjList<>();
+    private final IntList symbolKeys = new IntList();
+
+    CompiledFilter(PageFrameFilter filter, IntList columns, IntList symbolColumns, ObjList<String> symbolValues) {
+        this.filter = filter;
+        this.columns.addAll(columns);
+        this.symbolColumns.addAll(symbolColumns);
+        this.symbolValues.addAll(symbolValues);
+    }
+
+    /**
+     * Generated code reads memory unconditionally. Columns that are not present in the
+     * page frame (column top) have zero address, these frames have to be evaluated by
+     * the filter function.
+     *
+     * @param columnAddresses addresses of page frame columns
+     * @return true when all columns referenced by the filter are present in the frame
+     */
+    public boolean isApplicable(LongList columnAddresses) {
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            if (columnAddresses.getQuick(columns.getQuick(i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void filter(LongList columnAddresses, long rowCount, LongList rows) {
+        filter.filter(columnAddresses, symbolKeys, rowCount, rows);
+    }
+
+    public void of(PageFrameCursor pageFrameCursor) {
+        symbolKeys.clear();
+        for (int i = 0, n = symbolColumns.size(); i < n; i++) {
+            symbolKeys.add(pageFrameCursor.getSymbolMapReader(symbolColumns.getQuick(i)).keyOf(symbolValues.getQuick(i)));
+        }
+    }
+}
@@ -24,6 +24,8 @@
 
 package io.questdb.griffin.engine.table;
 
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.FullFwdDataFrameCursorFactory;
 import io.questdb.cairo.NullColumn;
 import io.questdb.cairo.ReadOnlyColumn;
 import io.questdb.cairo.SymbolMapReader;
@@ -33,6 +35,7 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.IntList;
 import io.questdb.std.LongList;
 import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -41,8 +44,10 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
     private final boolean followsOrderByAdvice;
     private final Function filter;
     private final boolean framingSupported;
+    private final boolean varSizeFramingSupported;
     private final IntList columnIndexes;
     private final IntList columnSizes;
+    private final boolean entity;
     private TableReaderPageFrameCursor pageFrameCursor;
 
     public DataFrameRecordCursorFactory(
@@ -54,15 +59,18 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
             @Nullable Function filter,
             boolean framingSupported,
             @NotNull IntList columnIndexes,
-            @Nullable IntList columnSizes
+            @Nullable IntList columnSizes,
+            boolean varSizeFramingSupported
     ) {
         super(metadata, dataFrameCursorFactory);
         this.cursor = new DataFrameRecordCursor(rowCursorFactory, rowCursorFactory.isEntity(), filter, columnIndexes);
         this.followsOrderByAdvice = followsOrderByAdvice;
         this.filter = filter;
         this.framingSupported = framingSupported;
+        this.varSizeFramingSupported = varSizeFramingSupported;
         this.columnIndexes = columnIndexes;
         this.columnSizes = columnSizes;
+        this.entity = rowCursorFactory.isEntity();
     }
 
     @Override
@@ -70,6 +78,14 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         return followsOrderByAdvice;
     }
 
+    /**
+     * @return true when cursor returns every row of the table in timestamp order, which
+     * allows consumers to locate rows by binary search or via symbol index instead of iterating.
+     */
+    public boolean isFullTableScan() {
+        return entity && filter == null && dataFrameCursorFactory instanceof FullFwdDataFrameCursorFactory;
+    }
+
     @Override
     public boolean recordCursorSupportsRandomAccess() {
         return true;
@@ -92,7 +108,7 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         DataFrameCursor dataFrameCursor = dataFrameCursorFactory.getCursor(executionContext.getCairoSecurityContext());
         if (pageFrameCursor != null) {
             return pageFrameCursor.of(dataFrameCursor);
-        } else if (framingSupported) {
+        } else if (framingSupported || varSizeFramingSupported) {
             pageFrameCursor = new TableReaderPageFrameCursor(columnIndexes, columnSizes);
             return pageFrameCursor.of(dataFrameCursor);
         } else {
@@ -105,6 +121,11 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         return framingSupported;
     }
 
+    @Override
+    public boolean supportVarSizePageFrameCursor() {
+        return varSizeFramingSupported;
+    }
+
     @Override
     public void close() {
         Misc.free(filter);
@@ -113,6 +134,9 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
     private static class TableReaderPageFrameCursor implements PageFrameCursor {
         private final LongList columnPageNextAddress = new LongList();
         private final LongList columnPageAddress = new LongList();
+        private final LongList columnIndexPageAddress = new LongList();
+        // 1 for STRING columns, which are paged by their index column, 0 otherwise
+        private final IntList varSizeColumns = new IntList();
         private final TableReaderPageFrameCursor.TableReaderPageFrame frame = new TableReaderPageFrameCursor.TableReaderPageFrame();
         private final LongList topsRemaining = new LongList();
         private final IntList pages = new IntList();
@@ -124,6 +148,8 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         private TableReader reader;
         private int partitionIndex;
         private long partitionRemaining = 0L;
+        private long frameLo;
+        private long frameHi;
         private DataFrameCursor dataFrameCursor;
 
         public TableReaderPageFrameCursor(IntList columnIndexes, IntList columnSizes) {
@@ -160,6 +186,7 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
                 final long partitionHi = dataFrame.getRowHi();
 
                 this.partitionRemaining = partitionHi - partitionLo;
+                this.frameHi = partitionLo;
 
                 if (partitionRemaining > 0) {
                     final int base = reader.getColumnBase(dataFrame.getPartitionIndex());
@@ -185,7 +212,7 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
                         }
 
                         if (loRemaining > 0) {
-                            final ReadOnlyColumn col = reader.getColumn(TableReader.getPrimaryColumnIndex(base, columnIndexes.getQuick(i)));
+                            final ReadOnlyColumn col = getPagedColumn(base, i);
                             if (col instanceof NullColumn) {
                                 columnPageNextAddress.setQuick(i, 0);
                                 pageNRowsRemaining.setQuick(i, partitionSize - partitionLo);
@@ -220,6 +247,7 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
             pages.setAll(columnCount, 0);
             topsRemaining.setAll(columnCount, 0);
             columnPageAddress.setAll(columnCount, 0);
+            columnIndexPageAddress.setAll(columnCount, 0);
             columnPageNextAddress.setAll(columnCount, 0);
             pageNRowsRemaining.setAll(columnCount, -1L);
             pageSizes.setAll(columnCount, -1L);
@@ -233,18 +261,22 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         public TableReaderPageFrameCursor of(DataFrameCursor dataFrameCursor) {
             this.reader = dataFrameCursor.getTableReader();
             this.dataFrameCursor = dataFrameCursor;
+            for (int i = 0; i < columnCount; i++) {
+                final int type = reader.getMetadata().getColumnType(columnIndexes.getQuick(i));
+                varSizeColumns.extendAndSet(i, type == ColumnType.STRING ? 1 : 0);
+            }
             toTop();
             return this;
         }
 
         private PageFrame computeFrame(long min) {
             for (int i = 0; i < columnCount; i++) {
-                final int columnIndex = columnIndexes.getQuick(i);
                 final long top = topsRemaining.getQuick(i);
                 if (top > 0) {
                     assert min <= top;
                     topsRemaining.setQuick(i, top - min);
-                    columnPageAddress.setQuick(columnIndex, 0);
+                    columnPageAddress.setQuick(i, 0);
+                    columnIndexPageAddress.setQuick(i, 0);
                     pageSizes.setQuick(i, min);
                 } else {
                     long addr = columnPageNextAddress.getQuick(i);
@@ -258,9 +290,20 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
                     } else {
                         pageSizes.setQuick(i, min);
                     }
+
+                    if (varSizeColumns.getQuick(i) == 1) {
+                        // index is paged, page address of the column is that of the first value in the frame
+                        columnIndexPageAddress.setQuick(i, addr);
+                        if (addr != 0) {
+                            final ReadOnlyColumn col = reader.getColumn(TableReader.getPrimaryColumnIndex(reader.getColumnBase(partitionIndex), columnIndexes.getQuick(i)));
+                            columnPageAddress.setQuick(i, col.getPageAddress(0) + Unsafe.getUnsafe().getLong(addr));
+                        }
+                    }
                 }
             }
             partitionRemaining -= min;
+            frameLo = frameHi;
+            frameHi += min;
             return frame;
         }
 
@@ -282,7 +325,7 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
                     } else if (partitionRemaining > 0) {
                         final int page = pages.getQuick(i);
                         pages.setQuick(i, page + 1);
-                        final ReadOnlyColumn col = reader.getColumn(TableReader.getPrimaryColumnIndex(base, columnIndexes.getQuick(i)));
+                        final ReadOnlyColumn col = getPagedColumn(base, i);
                         // page size is liable to change after it is mapped
                         // it is important to map page first and call pageSize() after
                         columnPageNextAddress.setQuick(i, col.getPageAddress(page));
@@ -298,6 +341,10 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
             return min;
         }
 
+        private ReadOnlyColumn getPagedColumn(int base, int i) {
+            return reader.getColumn(TableReader.getPrimaryColumnIndex(base, columnIndexes.getQuick(i)) + varSizeColumns.getQuick(i));
+        }
+
         private class TableReaderPageFrame implements PageFrame {
 
             @Override
@@ -305,10 +352,30 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
                 return columnPageAddress.getQuick(columnIndex);
             }
 
+            @Override
+            public long getIndexPageAddress(int columnIndex) {
+                return columnIndexPageAddress.getQuick(columnIndex);
+            }
+
             @Override
             public long getPageSize(int columnIndex) {
                 return pageSizes.getQuick(columnIndex);
             }
+
+            @Override
+            public int getPartitionIndex() {
+                return partitionIndex;
+            }
+
+            @Override
+            public long getPartitionLo() {
+                return frameLo;
+            }
+
+            @Override
+            public long getPartitionHi() {
+                return frameHi;
+            }
         }
     }
 
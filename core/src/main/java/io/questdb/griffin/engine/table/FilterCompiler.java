@@ -0,0 +1,854 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlKeywords;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Compiles WHERE clause into {@link PageFrameFilter}, which evaluates the whole predicate
+ * in a single loop over column page addresses instead of calling filter function for each row.
+ * Supported expressions are comparisons, AND, OR, NOT, +, -, *, / and null checks over
+ * fixed-width columns as well as symbol to constant equality. Compiler returns null for
+ * anything else and the caller is expected to keep using filter function.
+ * <p>
+ * Generated code must produce the same result as functions it replaces. Operand types follow
+ * the overloads function parser would pick and operations that have null semantics delegate
+ * to static methods of this class, which JIT inlines. Boolean operators do not short-circuit,
+ * none of the supported operations have side effects, so predicate itself is free of branches
+ * and the only stack map frames in generated method are those of the loop.
+ */
+public class FilterCompiler {
+    private static final int TYPE_UNSUPPORTED = -1;
+    private static final int OP_AND = 1;
+    private static final int OP_OR = 2;
+    private static final int OP_EQ = 3;
+    private static final int OP_NE = 4;
+    private static final int OP_LT = 5;
+    private static final int OP_LE = 6;
+    private static final int OP_GT = 7;
+    private static final int OP_GE = 8;
+    private static final int OP_ADD = 9;
+    private static final int OP_SUB = 10;
+    private static final int OP_MUL = 11;
+    private static final int OP_DIV = 12;
+    // local variable slots of filter(LongList, IntList, long, LongList) method
+    private static final int ARG_COLUMN_ADDRESSES = 1;
+    private static final int ARG_SYMBOL_KEYS = 2;
+    private static final int ARG_ROW_COUNT = 3;
+    private static final int ARG_ROWS = 5;
+    private static final int LOCAL_ROW = 6;
+    private static final int LOCAL_FIRST_COLUMN = 8;
+    private static final CharSequenceIntHashMap operators = new CharSequenceIntHashMap();
+    private final BytecodeAssembler asm;
+    // columns referenced by filter in order of appearance, each has "long" local with page address
+    private final IntList columns = new IntList();
+    private final IntList columnSlots = new IntList();
+    // pool indexes of numeric constants in order of appearance
+    private final IntList constants = new IntList();
+    private final IntList symbolColumns = new IntList();
+    private final ObjList<String> symbolValues = new ObjList<>();
+    private final IntList unsafeGetters = new IntList();
+    private RecordMetadata metadata;
+    private int nodeCount;
+    private int constantIndex;
+    private int symbolIndex;
+    private int getUnsafeIndex;
+    private int longListGetQuickIndex;
+    private int longListAddIndex;
+    private int intListGetQuickIndex;
+    private int intToLongIndex;
+    private int intToDoubleIndex;
+    private int longToDoubleIndex;
+    private int eqIntIndex;
+    private int eqLongIndex;
+    private int eqDoubleIndex;
+    private int ltIndex;
+    private int leIndex;
+    private int gtIndex;
+    private int geIndex;
+    private int addIntIndex;
+    private int subIntIndex;
+    private int addLongIndex;
+    private int subLongIndex;
+    private int divLongIndex;
+
+    public FilterCompiler(BytecodeAssembler asm) {
+        this.asm = asm;
+    }
+
+    public static int addInt(int l, int r) {
+        if (l == Numbers.INT_NaN || r == Numbers.INT_NaN) {
+            return Numbers.INT_NaN;
+        }
+        return l + r;
+    }
+
+    public static long addLong(long l, long r) {
+        if (l == Numbers.LONG_NaN || r == Numbers.LONG_NaN) {
+            return Numbers.LONG_NaN;
+        }
+        return l + r;
+    }
+
+    public static long divLong(long l, long r) {
+        if (l == Numbers.LONG_NaN || r == Numbers.LONG_NaN || r == 0) {
+            return Numbers.LONG_NaN;
+        }
+        return l / r;
+    }
+
+    public static boolean eq(int l, int r) {
+        return l == r;
+    }
+
+    public static boolean eq(long l, long r) {
+        return l == r;
+    }
+
+    public static boolean eq(double l, double r) {
+        return l != l && r != r || Math.abs(l - r) < 0.0000000001;
+    }
+
+    public static boolean ge(double l, double r) {
+        return l >= r;
+    }
+
+    public static boolean gt(double l, double r) {
+        return l > r;
+    }
+
+    public static boolean le(double l, double r) {
+        return l <= r;
+    }
+
+    public static boolean lt(double l, double r) {
+        return l < r;
+    }
+
+    public static int subInt(int l, int r) {
+        if (l == Numbers.INT_NaN || r == Numbers.INT_NaN) {
+            return Numbers.INT_NaN;
+        }
+        return l - r;
+    }
+
+    public static long subLong(long l, long r) {
+        if (l == Numbers.LONG_NaN || r == Numbers.LONG_NaN) {
+            return Numbers.LONG_NaN;
+        }
+        return l - r;
+    }
+
+    /**
+     * Generates filter class for the expression.
+     *
+     * @param filter   WHERE clause, function parser must have accepted it already
+     * @param metadata metadata of page frames the filter is evaluated against
+     * @return compiled filter or null when expression cannot be compiled
+     */
+    @Nullable
+    public CompiledFilter compile(ExpressionNode filter, RecordMetadata metadata) {
+        this.metadata = metadata;
+        try {
+            if (typeOf(filter) != ColumnType.BOOLEAN) {
+                return null;
+            }
+
+            asm.init(PageFrameFilter.class);
+            asm.setupPool();
+            final int stackMapTableIndex = asm.poolUtf8("StackMapTable");
+            final int thisClassIndex = asm.poolClass(asm.poolUtf8("io/questdb/griffin/engine/table/GeneratedPageFrameFilter"));
+            final int interfaceClassIndex = asm.poolClass(PageFrameFilter.class);
+            final int longListClassIndex = asm.poolClass(LongList.class);
+            final int intListClassIndex = asm.poolClass(IntList.class);
+            final int filterNameIndex = asm.poolUtf8("filter");
+            final int filterDescIndex = asm.poolUtf8("(Lio/questdb/std/LongList;Lio/questdb/std/IntList;JLio/questdb/std/LongList;)V");
+            poolMethods(longListClassIndex, intListClassIndex);
+
+            columns.clear();
+            columnSlots.setAll(metadata.getColumnCount(), -1);
+            constants.clear();
+            symbolColumns.clear();
+            symbolValues.clear();
+            nodeCount = 0;
+            collect(filter);
+            asm.finishPool();
+
+            asm.defineClass(thisClassIndex);
+            asm.interfaceCount(1);
+            asm.putShort(interfaceClassIndex);
+            asm.fieldCount(0);
+            asm.methodCount(2);
+            asm.defineDefaultConstructor();
+            instrumentFilterMethod(filter, stackMapTableIndex, filterNameIndex, filterDescIndex, thisClassIndex, longListClassIndex, intListClassIndex);
+            // class attribute count
+            asm.putShort(0);
+
+            return new CompiledFilter(asm.newInstance(), columns, symbolColumns, symbolValues);
+        } catch (NumericException e) {
+            // typeOf() has validated constants, this is not expected
+            return null;
+        } finally {
+            this.metadata = null;
+        }
+    }
+
+    private static int arithmeticTypeOf(int op, int lhs, int rhs) {
+        if (!isNumeric(lhs) || !isNumeric(rhs)) {
+            return TYPE_UNSUPPORTED;
+        }
+        if (lhs == ColumnType.DOUBLE || rhs == ColumnType.DOUBLE) {
+            return ColumnType.DOUBLE;
+        }
+        if (!isArithmetic(lhs) || !isArithmetic(rhs) || (isSmallInt(lhs) && isSmallInt(rhs))) {
+            // there are dedicated BYTE, SHORT, FLOAT and TIMESTAMP overloads, they are left to functions
+            return TYPE_UNSUPPORTED;
+        }
+        if (lhs == ColumnType.LONG || rhs == ColumnType.LONG) {
+            // int + long is as close to "+(NL)" as it is to "+(LL)"
+            return op == OP_ADD && lhs != ColumnType.LONG ? TYPE_UNSUPPORTED : ColumnType.LONG;
+        }
+        if (op == OP_DIV) {
+            // there is no "int" division, function parser finds "long" and "double" overloads equally good
+            return TYPE_UNSUPPORTED;
+        }
+        return ColumnType.INT;
+    }
+
+    private static int constantTypeOf(CharSequence tok) {
+        if (SqlKeywords.isNullKeyword(tok) || Chars.isQuoted(tok)) {
+            return ColumnType.STRING;
+        }
+
+        if (SqlKeywords.isTrueKeyword(tok) || SqlKeywords.isFalseKeyword(tok)) {
+            return ColumnType.BOOLEAN;
+        }
+
+        // same order as function parser uses to create constants
+        try {
+            Numbers.parseInt(tok);
+            return ColumnType.INT;
+        } catch (NumericException ignore) {
+        }
+
+        try {
+            Numbers.parseLong(tok);
+            return ColumnType.LONG;
+        } catch (NumericException ignore) {
+        }
+
+        try {
+            Numbers.parseDouble(tok);
+            return ColumnType.DOUBLE;
+        } catch (NumericException ignore) {
+        }
+        return TYPE_UNSUPPORTED;
+    }
+
+    private static int equalityTypeOf(int lhs, int rhs) {
+        if (isIntFamily(lhs) && isIntFamily(rhs)) {
+            return ColumnType.INT;
+        }
+        // there is no "long" overload for these types, they are compared as doubles
+        if (lhs > ColumnType.LONG || rhs > ColumnType.LONG) {
+            return ColumnType.DOUBLE;
+        }
+        return ColumnType.LONG;
+    }
+
+    private static boolean isArithmetic(int type) {
+        return isIntFamily(type) || type == ColumnType.LONG;
+    }
+
+    private static boolean isIntFamily(int type) {
+        return type == ColumnType.BYTE || type == ColumnType.SHORT || type == ColumnType.INT;
+    }
+
+    private static boolean isIntStrConstant(CharSequence tok) {
+        if (SqlKeywords.isNullKeyword(tok)) {
+            return true;
+        }
+        try {
+            Numbers.parseInt(tok, 1, tok.length() - 1);
+            return true;
+        } catch (NumericException e) {
+            return false;
+        }
+    }
+
+    private static boolean isNegatedConstant(ExpressionNode node) {
+        return node.paramCount == 1 && Chars.equals(node.token, '-') && node.rhs.type == ExpressionNode.CONSTANT;
+    }
+
+    private static boolean isNumeric(int type) {
+        return type >= ColumnType.BYTE && type <= ColumnType.DOUBLE && type != ColumnType.CHAR;
+    }
+
+    private static boolean isSmallInt(int type) {
+        return type == ColumnType.BYTE || type == ColumnType.SHORT;
+    }
+
+    private static boolean isSymbolConstant(CharSequence tok) {
+        // '' is a char constant, it does not compare to symbols the way strings do
+        return SqlKeywords.isNullKeyword(tok) || tok.length() > 2;
+    }
+
+    private static int operatorOf(CharSequence tok) {
+        if (SqlKeywords.isAndKeyword(tok)) {
+            return OP_AND;
+        }
+        if (Chars.equalsLowerCaseAscii(tok, "or")) {
+            return OP_OR;
+        }
+        final int index = operators.keyIndex(tok);
+        return index < 0 ? operators.valueAt(index) : TYPE_UNSUPPORTED;
+    }
+
+    private int columnIndexOf(ExpressionNode node) {
+        final CharSequence tok = node.token;
+        // bind variables
+        if (Chars.startsWith(tok, ':') || Chars.startsWith(tok, '$')) {
+            return -1;
+        }
+        return metadata.getColumnIndexQuiet(tok);
+    }
+
+    /*
+     * Pools constants and assigns local variables to columns. Nodes are visited
+     * in the same order code is generated.
+     */
+    private void collect(ExpressionNode node) throws NumericException {
+        nodeCount++;
+        switch (node.type) {
+            case ExpressionNode.CONSTANT:
+                switch (constantTypeOf(node.token)) {
+                    case ColumnType.INT:
+                        constants.add(asm.poolIntConst(Numbers.parseInt(node.token)));
+                        break;
+                    case ColumnType.LONG:
+                        constants.add(asm.poolLongConst(Numbers.parseLong(node.token)));
+                        break;
+                    case ColumnType.DOUBLE:
+                        constants.add(asm.poolDoubleConst(Numbers.parseDouble(node.token)));
+                        break;
+                    default:
+                        // booleans are generated inline, strings are handled by equality
+                        break;
+                }
+                break;
+            case ExpressionNode.LITERAL:
+                final int columnIndex = columnIndexOf(node);
+                if (columnSlots.getQuick(columnIndex) == -1) {
+                    columnSlots.setQuick(columnIndex, LOCAL_FIRST_COLUMN + 2 * columns.size());
+                    columns.add(columnIndex);
+                }
+                break;
+            default:
+                if (isNegatedConstant(node)) {
+                    // negative numbers are unary minus applied to constant
+                    final CharSequence tok = node.rhs.token;
+                    switch (constantTypeOf(tok)) {
+                        case ColumnType.INT:
+                            constants.add(asm.poolIntConst(-Numbers.parseInt(tok)));
+                            break;
+                        case ColumnType.LONG:
+                            // there is no "long" negation, function parser uses "double" one
+                            constants.add(asm.poolDoubleConst(-(double) Numbers.parseLong(tok)));
+                            break;
+                        default:
+                            constants.add(asm.poolDoubleConst(-Numbers.parseDouble(tok)));
+                            break;
+                    }
+                    break;
+                }
+                if (node.paramCount == 1) {
+                    collect(node.rhs);
+                    break;
+                }
+                collect(node.lhs);
+                if (typeOf(node.rhs) == ColumnType.STRING) {
+                    nodeCount++;
+                    final CharSequence tok = node.rhs.token;
+                    final boolean isNull = SqlKeywords.isNullKeyword(tok);
+                    if (typeOf(node.lhs) == ColumnType.SYMBOL) {
+                        symbolColumns.add(columnIndexOf(node.lhs));
+                        symbolValues.add(isNull ? null : Chars.toString(tok, 1, tok.length() - 1));
+                    } else {
+                        constants.add(asm.poolIntConst(isNull ? Numbers.INT_NaN : Numbers.parseInt(tok, 1, tok.length() - 1)));
+                    }
+                } else {
+                    collect(node.rhs);
+                }
+                break;
+        }
+    }
+
+    private void convert(int fromType, int toType) {
+        switch (toType) {
+            case ColumnType.LONG:
+                switch (fromType) {
+                    case ColumnType.BYTE:
+                    case ColumnType.SHORT:
+                        asm.i2l();
+                        break;
+                    case ColumnType.INT:
+                        asm.invokeStatic(intToLongIndex);
+                        break;
+                    default:
+                        break;
+                }
+                break;
+            case ColumnType.DOUBLE:
+                switch (fromType) {
+                    case ColumnType.BYTE:
+                    case ColumnType.SHORT:
+                        asm.i2d();
+                        break;
+                    case ColumnType.INT:
+                        asm.invokeStatic(intToDoubleIndex);
+                        break;
+                    case ColumnType.LONG:
+                    case ColumnType.DATE:
+                    case ColumnType.TIMESTAMP:
+                        asm.invokeStatic(longToDoubleIndex);
+                        break;
+                    case ColumnType.FLOAT:
+                        asm.f2d();
+                        break;
+                    default:
+                        break;
+                }
+                break;
+            default:
+                // int family and symbol keys are on stack as int already
+                break;
+        }
+    }
+
+    private void emitArithmetic(ExpressionNode node, int type) {
+        emitValue(node.lhs, type);
+        emitValue(node.rhs, type);
+        final int op = operatorOf(node.token);
+        switch (type) {
+            case ColumnType.INT:
+                switch (op) {
+                    case OP_ADD:
+                        asm.invokeStatic(addIntIndex);
+                        break;
+                    case OP_SUB:
+                        asm.invokeStatic(subIntIndex);
+                        break;
+                    default:
+                        asm.imul();
+                        break;
+                }
+                break;
+            case ColumnType.LONG:
+                switch (op) {
+                    case OP_ADD:
+                        asm.invokeStatic(addLongIndex);
+                        break;
+                    case OP_SUB:
+                        asm.invokeStatic(subLongIndex);
+                        break;
+                    case OP_MUL:
+                        asm.lmul();
+                        break;
+                    default:
+                        asm.invokeStatic(divLongIndex);
+                        break;
+                }
+                break;
+            default:
+                switch (op) {
+                    case OP_ADD:
+                        asm.dadd();
+                        break;
+                    case OP_SUB:
+                        asm.dsub();
+                        break;
+                    case OP_MUL:
+                        asm.dmul();
+                        break;
+                    default:
+                        asm.ddiv();
+                        break;
+                }
+                break;
+        }
+    }
+
+    private void emitColumn(ExpressionNode node) {
+        final int columnIndex = columnIndexOf(node);
+        final int columnType = metadata.getColumnType(columnIndex);
+        final int shift = Numbers.msb(ColumnType.sizeOf(columnType));
+        asm.invokeStatic(getUnsafeIndex);
+        asm.lload(columnSlots.getQuick(columnIndex));
+        asm.lload(LOCAL_ROW);
+        if (shift > 0) {
+            asm.iconst(shift);
+            asm.lshl();
+        }
+        asm.ladd();
+        asm.invokeVirtual(unsafeGetters.getQuick(columnType));
+    }
+
+    private void emitEquality(ExpressionNode node) {
+        final int lhsType = typeOf(node.lhs);
+        final int rhsType = typeOf(node.rhs);
+        if (lhsType == ColumnType.SYMBOL) {
+            emitColumn(node.lhs);
+            asm.iload(LOCAL_FIRST_COLUMN + 2 * columns.size() + symbolIndex++);
+            asm.invokeStatic(eqIntIndex);
+        } else if (rhsType == ColumnType.STRING) {
+            emitValue(node.lhs, ColumnType.INT);
+            asm.ldc_w(constants.getQuick(constantIndex++));
+            asm.invokeStatic(eqIntIndex);
+        } else {
+            final int type = equalityTypeOf(lhsType, rhsType);
+            emitValue(node.lhs, type);
+            emitValue(node.rhs, type);
+            switch (type) {
+                case ColumnType.INT:
+                    asm.invokeStatic(eqIntIndex);
+                    break;
+                case ColumnType.LONG:
+                    asm.invokeStatic(eqLongIndex);
+                    break;
+                default:
+                    asm.invokeStatic(eqDoubleIndex);
+                    break;
+            }
+        }
+    }
+
+    private void emitPredicate(ExpressionNode node) {
+        switch (node.type) {
+            case ExpressionNode.CONSTANT:
+                asm.iconst(SqlKeywords.isTrueKeyword(node.token) ? 1 : 0);
+                break;
+            case ExpressionNode.LITERAL:
+                // boolean column, "true" is stored as 1
+                emitColumn(node);
+                asm.iconst(1);
+                asm.invokeStatic(eqIntIndex);
+                break;
+            default:
+                if (node.paramCount == 1) {
+                    // not
+                    emitPredicate(node.rhs);
+                    asm.iconst(1);
+                    asm.ixor();
+                    break;
+                }
+                switch (operatorOf(node.token)) {
+                    case OP_AND:
+                        emitPredicate(node.lhs);
+                        emitPredicate(node.rhs);
+                        asm.iand();
+                        break;
+                    case OP_OR:
+                        emitPredicate(node.lhs);
+                        emitPredicate(node.rhs);
+                        asm.ior();
+                        break;
+                    case OP_EQ:
+                        emitEquality(node);
+                        break;
+                    case OP_NE:
+                        emitEquality(node);
+                        asm.iconst(1);
+                        asm.ixor();
+                        break;
+                    case OP_LT:
+                        emitRelation(node, ltIndex);
+                        break;
+                    case OP_LE:
+                        emitRelation(node, leIndex);
+                        break;
+                    case OP_GT:
+                        emitRelation(node, gtIndex);
+                        break;
+                    default:
+                        emitRelation(node, geIndex);
+                        break;
+                }
+                break;
+        }
+    }
+
+    private void emitRelation(ExpressionNode node, int methodIndex) {
+        // there is only "double" overload of "<", which other relations are derived from
+        emitValue(node.lhs, ColumnType.DOUBLE);
+        emitValue(node.rhs, ColumnType.DOUBLE);
+        asm.invokeStatic(methodIndex);
+    }
+
+    private void emitValue(ExpressionNode node, int targetType) {
+        final int type = typeOf(node);
+        switch (isNegatedConstant(node) ? ExpressionNode.CONSTANT : node.type) {
+            case ExpressionNode.CONSTANT:
+                if (type == ColumnType.INT) {
+                    asm.ldc_w(constants.getQuick(constantIndex++));
+                } else {
+                    asm.ldc2_w(constants.getQuick(constantIndex++));
+                }
+                break;
+            case ExpressionNode.LITERAL:
+                emitColumn(node);
+                break;
+            default:
+                emitArithmetic(node, type);
+                break;
+        }
+        convert(type, targetType);
+    }
+
+    private void instrumentFilterMethod(
+            ExpressionNode filter,
+            int stackMapTableIndex,
+            int nameIndex,
+            int descIndex,
+            int thisClassIndex,
+            int longListClassIndex,
+            int intListClassIndex
+    ) {
+        final int columnCount = columns.size();
+        final int symbolCount = symbolColumns.size();
+        final int firstSymbolSlot = LOCAL_FIRST_COLUMN + 2 * columnCount;
+        // every node leaves at most a long or a double on stack, column read needs six more slots
+        asm.startMethod(nameIndex, descIndex, 2 * nodeCount + 8, firstSymbolSlot + symbolCount);
+
+        // hoist page addresses and symbol keys out of the loop
+        for (int i = 0; i < columnCount; i++) {
+            asm.aload(ARG_COLUMN_ADDRESSES);
+            asm.iconst(columns.getQuick(i));
+            asm.invokeVirtual(longListGetQuickIndex);
+            asm.lstore(LOCAL_FIRST_COLUMN + 2 * i);
+        }
+        for (int i = 0; i < symbolCount; i++) {
+            asm.aload(ARG_SYMBOL_KEYS);
+            asm.iconst(i);
+            asm.invokeVirtual(intListGetQuickIndex);
+            asm.istore(firstSymbolSlot + i);
+        }
+        asm.lconst_0();
+        asm.lstore(LOCAL_ROW);
+
+        // for (row = 0; row < rowCount; row++)
+        final int loop = asm.position();
+        asm.lload(LOCAL_ROW);
+        asm.lload(ARG_ROW_COUNT);
+        asm.lcmp();
+        final int exitBranch = asm.ifge();
+
+        constantIndex = 0;
+        symbolIndex = 0;
+        emitPredicate(filter);
+        final int skipBranch = asm.ifeq();
+        asm.aload(ARG_ROWS);
+        asm.lload(LOCAL_ROW);
+        asm.invokeVirtual(longListAddIndex);
+
+        final int next = asm.position();
+        asm.lload(LOCAL_ROW);
+        asm.lconst_1();
+        asm.ladd();
+        asm.lstore(LOCAL_ROW);
+        final int loopBranch = asm.goto_();
+
+        final int exit = asm.position();
+        asm.return_();
+
+        asm.setJmp(exitBranch, exit);
+        asm.setJmp(skipBranch, next);
+        asm.setJmp(loopBranch, loop);
+
+        asm.endMethodCode();
+        // exceptions
+        asm.putShort(0);
+
+        // attributes: 1 - StackMapTable
+        asm.putShort(1);
+        asm.startStackMapTables(stackMapTableIndex, 3);
+        // all branch targets have empty stack and the same locals
+        final int codeStart = asm.getCodeStart();
+        asm.full_frame(loop - codeStart);
+        asm.putShort(6 + columnCount + symbolCount);
+        asm.putITEM_Object(thisClassIndex);
+        asm.putITEM_Object(longListClassIndex);
+        asm.putITEM_Object(intListClassIndex);
+        asm.putITEM_Long();
+        asm.putITEM_Object(longListClassIndex);
+        asm.putITEM_Long();
+        for (int i = 0; i < columnCount; i++) {
+            asm.putITEM_Long();
+        }
+        for (int i = 0; i < symbolCount; i++) {
+            asm.putITEM_Integer();
+        }
+        // stack
+        asm.putShort(0);
+        asm.same_frame(next - loop - 1);
+        asm.same_frame(exit - next - 1);
+        asm.endStackMapTables();
+        asm.endMethod();
+    }
+
+    private void poolMethods(int longListClassIndex, int intListClassIndex) {
+        getUnsafeIndex = asm.poolMethod(Unsafe.class, "getUnsafe", "()Lsun/misc/Unsafe;");
+        final int unsafeClassIndex = asm.poolClass(asm.poolUtf8("sun/misc/Unsafe"));
+        unsafeGetters.setAll(ColumnType.SYMBOL + 1, -1);
+        final int getByteIndex = asm.poolMethod(unsafeClassIndex, "getByte", "(J)B");
+        final int getIntIndex = asm.poolMethod(unsafeClassIndex, "getInt", "(J)I");
+        final int getLongIndex = asm.poolMethod(unsafeClassIndex, "getLong", "(J)J");
+        unsafeGetters.setQuick(ColumnType.BOOLEAN, getByteIndex);
+        unsafeGetters.setQuick(ColumnType.BYTE, getByteIndex);
+        unsafeGetters.setQuick(ColumnType.SHORT, asm.poolMethod(unsafeClassIndex, "getShort", "(J)S"));
+        unsafeGetters.setQuick(ColumnType.INT, getIntIndex);
+        unsafeGetters.setQuick(ColumnType.SYMBOL, getIntIndex);
+        unsafeGetters.setQuick(ColumnType.LONG, getLongIndex);
+        unsafeGetters.setQuick(ColumnType.DATE, getLongIndex);
+        unsafeGetters.setQuick(ColumnType.TIMESTAMP, getLongIndex);
+        unsafeGetters.setQuick(ColumnType.FLOAT, asm.poolMethod(unsafeClassIndex, "getFloat", "(J)F"));
+        unsafeGetters.setQuick(ColumnType.DOUBLE, asm.poolMethod(unsafeClassIndex, "getDouble", "(J)D"));
+
+        longListGetQuickIndex = asm.poolMethod(longListClassIndex, "getQuick", "(I)J");
+        longListAddIndex = asm.poolMethod(longListClassIndex, "add", "(J)V");
+        intListGetQuickIndex = asm.poolMethod(intListClassIndex, "getQuick", "(I)I");
+
+        final int numbersClassIndex = asm.poolClass(Numbers.class);
+        intToLongIndex = asm.poolMethod(numbersClassIndex, "intToLong", "(I)J");
+        intToDoubleIndex = asm.poolMethod(numbersClassIndex, "intToDouble", "(I)D");
+        longToDoubleIndex = asm.poolMethod(numbersClassIndex, "longToDouble", "(J)D");
+
+        final int thisCompilerIndex = asm.poolClass(FilterCompiler.class);
+        eqIntIndex = asm.poolMethod(thisCompilerIndex, "eq", "(II)Z");
+        eqLongIndex = asm.poolMethod(thisCompilerIndex, "eq", "(JJ)Z");
+        eqDoubleIndex = asm.poolMethod(thisCompilerIndex, "eq", "(DD)Z");
+        ltIndex = asm.poolMethod(thisCompilerIndex, "lt", "(DD)Z");
+        leIndex = asm.poolMethod(thisCompilerIndex, "le", "(DD)Z");
+        gtIndex = asm.poolMethod(thisCompilerIndex, "gt", "(DD)Z");
+        geIndex = asm.poolMethod(thisCompilerIndex, "ge", "(DD)Z");
+        addIntIndex = asm.poolMethod(thisCompilerIndex, "addInt", "(II)I");
+        subIntIndex = asm.poolMethod(thisCompilerIndex, "subInt", "(II)I");
+        addLongIndex = asm.poolMethod(thisCompilerIndex, "addLong", "(JJ)J");
+        subLongIndex = asm.poolMethod(thisCompilerIndex, "subLong", "(JJ)J");
+        divLongIndex = asm.poolMethod(thisCompilerIndex, "divLong", "(JJ)J");
+    }
+
+    private int typeOf(ExpressionNode node) {
+        switch (node.type) {
+            case ExpressionNode.CONSTANT:
+                return constantTypeOf(node.token);
+            case ExpressionNode.LITERAL:
+                final int columnIndex = columnIndexOf(node);
+                if (columnIndex < 0) {
+                    return TYPE_UNSUPPORTED;
+                }
+                final int columnType = metadata.getColumnType(columnIndex);
+                if (columnType == ColumnType.BOOLEAN || isNumeric(columnType)) {
+                    return columnType;
+                }
+                if (columnType == ColumnType.SYMBOL && metadata.isSymbolTableStatic(columnIndex)) {
+                    return columnType;
+                }
+                return TYPE_UNSUPPORTED;
+            case ExpressionNode.OPERATION:
+                return operationTypeOf(node);
+            default:
+                return TYPE_UNSUPPORTED;
+        }
+    }
+
+    private int operationTypeOf(ExpressionNode node) {
+        if (node.paramCount == 1) {
+            if (isNegatedConstant(node)) {
+                switch (constantTypeOf(node.rhs.token)) {
+                    case ColumnType.INT:
+                        return ColumnType.INT;
+                    case ColumnType.LONG:
+                    case ColumnType.DOUBLE:
+                        return ColumnType.DOUBLE;
+                    default:
+                        return TYPE_UNSUPPORTED;
+                }
+            }
+            return SqlKeywords.isNotKeyword(node.token) && typeOf(node.rhs) == ColumnType.BOOLEAN ? ColumnType.BOOLEAN : TYPE_UNSUPPORTED;
+        }
+
+        if (node.paramCount != 2) {
+            return TYPE_UNSUPPORTED;
+        }
+
+        final int op = operatorOf(node.token);
+        if (op == TYPE_UNSUPPORTED) {
+            return TYPE_UNSUPPORTED;
+        }
+
+        final int lhs = typeOf(node.lhs);
+        final int rhs = typeOf(node.rhs);
+        switch (op) {
+            case OP_AND:
+            case OP_OR:
+                return lhs == ColumnType.BOOLEAN && rhs == ColumnType.BOOLEAN ? ColumnType.BOOLEAN : TYPE_UNSUPPORTED;
+            case OP_EQ:
+            case OP_NE:
+                if (rhs == ColumnType.STRING) {
+                    if (lhs == ColumnType.SYMBOL && node.lhs.type == ExpressionNode.LITERAL && isSymbolConstant(node.rhs.token)) {
+                        return ColumnType.BOOLEAN;
+                    }
+                    // "=(Is)" overload, which parses string constant as int
+                    return isIntFamily(lhs) && isIntStrConstant(node.rhs.token) ? ColumnType.BOOLEAN : TYPE_UNSUPPORTED;
+                }
+                return isNumeric(lhs) && isNumeric(rhs) ? ColumnType.BOOLEAN : TYPE_UNSUPPORTED;
+            case OP_LT:
+            case OP_LE:
+            case OP_GT:
+            case OP_GE:
+                return isNumeric(lhs) && isNumeric(rhs) ? ColumnType.BOOLEAN : TYPE_UNSUPPORTED;
+            default:
+                return arithmeticTypeOf(op, lhs, rhs);
+        }
+    }
+
+    static {
+        operators.put("=", OP_EQ);
+        operators.put("!=", OP_NE);
+        operators.put("<", OP_LT);
+        operators.put("<=", OP_LE);
+        operators.put(">", OP_GT);
+        operators.put(">=", OP_GE);
+        operators.put("+", OP_ADD);
+        operators.put("-", OP_SUB);
+        operators.put("*", OP_MUL);
+        operators.put("/", OP_DIV);
+    }
+}
@@ -50,12 +50,13 @@ public class LatestByAllFilteredRecordCursorFactory extends AbstractTreeSetRecor
             @NotNull RecordSink recordSink,
             @Transient @NotNull ColumnTypes columnTypes,
             @Nullable Function filter,
-            @NotNull IntList columnIndexes
+            @NotNull IntList columnIndexes,
+            int latestRowsColumnIndex
     ) {
         super(metadata, dataFrameCursorFactory, configuration);
         this.map = MapFactory.createMap(configuration, columnTypes);
         if (filter == null) {
-            this.cursor = new LatestByAllRecordCursor(map, rows, recordSink, columnIndexes);
+            this.cursor = new LatestByAllRecordCursor(map, rows, recordSink, columnIndexes, latestRowsColumnIndex);
         } else {
             this.cursor = new LatestByAllFilteredRecordCursor(map, rows, recordSink, filter, columnIndexes);
         }
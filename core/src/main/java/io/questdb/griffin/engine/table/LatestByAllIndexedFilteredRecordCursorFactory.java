@@ -39,11 +39,12 @@ public class LatestByAllIndexedFilteredRecordCursorFactory extends AbstractTreeS
             @NotNull DataFrameCursorFactory dataFrameCursorFactory,
             int columnIndex,
             @Nullable Function filter,
-            @NotNull IntList columnIndexes
+            @NotNull IntList columnIndexes,
+            boolean latestRowsEnabled
     ) {
         super(metadata, dataFrameCursorFactory, configuration);
         if (filter == null) {
-            this.cursor = new LatestByAllIndexedRecordCursor(columnIndex, rows, columnIndexes);
+            this.cursor = new LatestByAllIndexedRecordCursor(columnIndex, rows, columnIndexes, latestRowsEnabled);
         } else {
             this.cursor = new LatestByAllIndexedFilteredRecordCursor(columnIndex, rows, filter, columnIndexes);
         }
@@ -31,6 +31,7 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.DirectLongList;
 import io.questdb.std.IntHashSet;
 import io.questdb.std.IntList;
+import io.questdb.std.LongList;
 import io.questdb.std.Rows;
 import org.jetbrains.annotations.NotNull;
 
@@ -38,14 +39,35 @@ class LatestByAllIndexedRecordCursor extends AbstractRecordListCursor {
 
     private final int columnIndex;
     private final IntHashSet found = new IntHashSet();
+    private final boolean latestRowsEnabled;
+    private final LongList latestRows = new LongList();
+    private final LongList latestRowOrder = new LongList();
 
-    public LatestByAllIndexedRecordCursor(int columnIndex, DirectLongList rows, @NotNull IntList columnIndexes) {
+    public LatestByAllIndexedRecordCursor(int columnIndex, DirectLongList rows, @NotNull IntList columnIndexes, boolean latestRowsEnabled) {
         super(rows, columnIndexes);
         this.columnIndex = columnIndex;
+        this.latestRowsEnabled = latestRowsEnabled;
     }
 
     @Override
     protected void buildTreeMap(SqlExecutionContext executionContext) {
+        if (latestRowsEnabled && dataFrameCursor.getTableReader().readLatestRows(columnIndex, latestRows)) {
+            // keep order of index scan, which visits partitions from last to first
+            // and index keys in ascending order within each partition
+            latestRowOrder.clear();
+            for (int i = 0, n = latestRows.size(); i < n; i++) {
+                final long rowId = latestRows.getQuick(i);
+                if (rowId > -1) {
+                    latestRowOrder.add(((long) (Integer.MAX_VALUE - Rows.toPartitionIndex(rowId)) << 32) | i);
+                }
+            }
+            latestRowOrder.sort();
+            for (int i = 0, n = latestRowOrder.size(); i < n; i++) {
+                rows.add(latestRows.getQuick((int) latestRowOrder.getQuick(i)));
+            }
+            return;
+        }
+
         found.clear();
 
         int keyCount = dataFrameCursor.getTableReader().getSymbolMapReader(columnIndex).size() + 1;
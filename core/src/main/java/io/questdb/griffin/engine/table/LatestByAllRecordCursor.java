@@ -31,6 +31,7 @@ import io.questdb.cairo.sql.DataFrame;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.DirectLongList;
 import io.questdb.std.IntList;
+import io.questdb.std.LongList;
 import io.questdb.std.Rows;
 import org.jetbrains.annotations.NotNull;
 
@@ -38,15 +39,36 @@ class LatestByAllRecordCursor extends AbstractRecordListCursor {
 
     private final Map map;
     private final RecordSink recordSink;
+    // symbol column, which latest rows are read instead of scanning table, or -1
+    private final int latestRowsColumnIndex;
+    private final LongList latestRows = new LongList();
 
-    public LatestByAllRecordCursor(Map map, DirectLongList rows, RecordSink recordSink, @NotNull IntList columnIndexes) {
+    public LatestByAllRecordCursor(Map map, DirectLongList rows, RecordSink recordSink, @NotNull IntList columnIndexes, int latestRowsColumnIndex) {
         super(rows, columnIndexes);
         this.map = map;
         this.recordSink = recordSink;
+        this.latestRowsColumnIndex = latestRowsColumnIndex;
     }
 
     @Override
     protected void buildTreeMap(SqlExecutionContext executionContext) {
+        if (latestRowsColumnIndex > -1 && dataFrameCursor.getTableReader().readLatestRows(latestRowsColumnIndex, latestRows)) {
+            // table scan finds rows in descending order
+            int count = 0;
+            for (int i = 0, n = latestRows.size(); i < n; i++) {
+                final long rowId = latestRows.getQuick(i);
+                if (rowId > -1) {
+                    latestRows.setQuick(count++, rowId);
+                }
+            }
+            latestRows.setPos(count);
+            latestRows.sort();
+            for (int i = count - 1; i > -1; i--) {
+                rows.add(latestRows.getQuick(i));
+            }
+            return;
+        }
+
         map.clear();
         DataFrame frame;
         while ((frame = this.dataFrameCursor.next()) != null) {
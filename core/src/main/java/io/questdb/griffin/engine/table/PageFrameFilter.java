@@ -0,0 +1,45 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+
+/**
+ * Filter loop generated by {@link FilterCompiler}. Implementations read column values
+ * directly from page addresses and do not keep state, so single instance can be shared
+ * by all threads evaluating the same query.
+ */
+public interface PageFrameFilter {
+    /**
+     * Evaluates filter against rows of page frame slice.
+     *
+     * @param columnAddresses addresses of the first row of each column, indexed by column
+     * @param symbolKeys      keys of symbol constants in the order they were collected by compiler
+     * @param rowCount        number of rows in the slice
+     * @param rows            receives numbers of matching rows, relative to the start of the slice
+     */
+    void filter(LongList columnAddresses, IntList symbolKeys, long rowCount, LongList rows);
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.Function;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+/**
+ * Unit of work of parallel filter: a slice of page frame, which is evaluated against
+ * filter copy that belongs to the executing thread. Row numbers of matching records,
+ * relative to the start of the slice, are accumulated in the entry. When filter has been
+ * compiled, the slice is evaluated by generated code instead of the function.
+ */
+public class PageFrameFilterEntry {
+
+    private static final long LOCK_OFFSET;
+
+    static {
+        LOCK_OFFSET = Unsafe.getFieldOffset(PageFrameFilterEntry.class, "lock");
+    }
+
+    private final LongList columnAddresses = new LongList();
+    private final LongList rows = new LongList();
+    private ObjList<Function> filters;
+    private CompiledFilter compiledFilter;
+    private ObjList<PageFrameRecord> records;
+    private int partitionIndex;
+    private long partitionLo;
+    private long rowCount;
+    private Throwable error;
+    // to "lock" the entry thread must successfully CAS the value from 0 to 1
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
+    private volatile int lock = 1;
+    private volatile boolean done = true;
+
+    /**
+     * Evaluates the entry on behalf of worker thread. The last filter copy is reserved
+     * for the thread that owns the cursor, workers without a copy of their own leave
+     * the entry to the owner.
+     *
+     * @param workerId id of worker thread
+     * @return true when entry was evaluated by this call
+     */
+    public boolean run(int workerId) {
+        return workerId < filters.size() - 1 && run0(workerId);
+    }
+
+    LongList getColumnAddresses() {
+        return columnAddresses;
+    }
+
+    Throwable getError() {
+        return error;
+    }
+
+    int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    long getPartitionLo() {
+        return partitionLo;
+    }
+
+    LongList getRows() {
+        return rows;
+    }
+
+    boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Evaluates the entry on the thread that owns the cursor using the filter copy
+     * reserved for that thread.
+     *
+     * @return true when entry was evaluated by this call
+     */
+    boolean runOwner() {
+        return run0(filters.size() - 1);
+    }
+
+    private boolean run0(int slot) {
+        if (Unsafe.cas(this, LOCK_OFFSET, 0, 1)) {
+            try {
+                if (compiledFilter != null && compiledFilter.isApplicable(columnAddresses)) {
+                    compiledFilter.filter(columnAddresses, rowCount, rows);
+                } else {
+                    final PageFrameRecord record = records.getQuick(slot);
+                    final Function filter = filters.getQuick(slot);
+                    record.of(columnAddresses, partitionIndex, partitionLo);
+                    for (long row = 0; row < rowCount; row++) {
+                        record.setRow(row);
+                        if (filter.getBool(record)) {
+                            rows.add(row);
+                        }
+                    }
+                }
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                done = true;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Takes the entry away from workers without evaluating it.
+     *
+     * @return true when entry was not picked up by anyone
+     */
+    boolean cancel() {
+        if (Unsafe.cas(this, LOCK_OFFSET, 0, 1)) {
+            done = true;
+            return true;
+        }
+        return false;
+    }
+
+    void of(
+            ObjList<Function> filters,
+            CompiledFilter compiledFilter,
+            ObjList<PageFrameRecord> records,
+            int partitionIndex,
+            long partitionLo,
+            long rowCount
+    ) {
+        this.filters = filters;
+        this.compiledFilter = compiledFilter;
+        this.records = records;
+        this.partitionIndex = partitionIndex;
+        this.partitionLo = partitionLo;
+        this.rowCount = rowCount;
+        this.rows.clear();
+        this.error = null;
+        this.done = false;
+        // column addresses must be populated before the entry is unlocked
+        this.lock = 0;
+    }
+}
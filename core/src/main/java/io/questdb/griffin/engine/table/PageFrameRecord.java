@@ -0,0 +1,192 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectCharSequence;
+
+/**
+ * Record over a snapshot of page frame column addresses. Fixed-size column types are
+ * supported, as well as STRING columns of variable-size page frames, which also need
+ * index addresses. Column address of 0 denotes column top and reads as null.
+ */
+public class PageFrameRecord implements Record, SymbolTableSource {
+    private final ObjList<PageFrameSymbolTable> symbolTables = new ObjList<>();
+    private final ObjList<DirectCharSequence> csViewsA = new ObjList<>();
+    private final ObjList<DirectCharSequence> csViewsB = new ObjList<>();
+    private LongList columnAddresses;
+    private LongList indexAddresses;
+    private int partitionIndex;
+    private long partitionLo;
+    private long row;
+
+    @Override
+    public boolean getBool(int col) {
+        final long address = columnAddresses.getQuick(col);
+        return address != 0 && Unsafe.getUnsafe().getByte(address + row) == 1;
+    }
+
+    @Override
+    public byte getByte(int col) {
+        final long address = columnAddresses.getQuick(col);
+        return address == 0 ? 0 : Unsafe.getUnsafe().getByte(address + row);
+    }
+
+    @Override
+    public char getChar(int col) {
+        final long address = columnAddresses.getQuick(col);
+        return address == 0 ? 0 : Unsafe.getUnsafe().getChar(address + (row << 1));
+    }
+
+    @Override
+    public long getDate(int col) {
+        return getLong(col);
+    }
+
+    @Override
+    public double getDouble(int col) {
+        final long address = columnAddresses.getQuick(col);
+        return address == 0 ? Double.NaN : Unsafe.getUnsafe().getDouble(address + (row << 3));
+    }
+
+    @Override
+    public float getFloat(int col) {
+        final long address = columnAddresses.getQuick(col);
+        return address == 0 ? Float.NaN : Unsafe.getUnsafe().getFloat(address + (row << 2));
+    }
+
+    @Override
+    public int getInt(int col) {
+        final long address = columnAddresses.getQuick(col);
+        return address == 0 ? Numbers.INT_NaN : Unsafe.getUnsafe().getInt(address + (row << 2));
+    }
+
+    @Override
+    public long getLong(int col) {
+        final long address = columnAddresses.getQuick(col);
+        return address == 0 ? Numbers.LONG_NaN : Unsafe.getUnsafe().getLong(address + (row << 3));
+    }
+
+    @Override
+    public long getRowId() {
+        return Rows.toRowID(partitionIndex, partitionLo + row);
+    }
+
+    @Override
+    public short getShort(int col) {
+        final long address = columnAddresses.getQuick(col);
+        return address == 0 ? 0 : Unsafe.getUnsafe().getShort(address + (row << 1));
+    }
+
+    @Override
+    public CharSequence getStr(int col) {
+        return getStr(col, csViewsA);
+    }
+
+    @Override
+    public CharSequence getStrB(int col) {
+        return getStr(col, csViewsB);
+    }
+
+    @Override
+    public int getStrLen(int col) {
+        final long address = getStrAddress(col);
+        return address == 0 ? TableUtils.NULL_LEN : Unsafe.getUnsafe().getInt(address);
+    }
+
+    @Override
+    public CharSequence getSym(int col) {
+        return symbolTables.getQuick(col).valueOf(getInt(col));
+    }
+
+    @Override
+    public CharSequence getSymB(int col) {
+        return symbolTables.getQuick(col).valueBOf(getInt(col));
+    }
+
+    @Override
+    public long getTimestamp(int col) {
+        return getLong(col);
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return symbolTables.getQuick(columnIndex);
+    }
+
+    public ObjList<PageFrameSymbolTable> getSymbolTables() {
+        return symbolTables;
+    }
+
+    public void of(LongList columnAddresses, int partitionIndex, long partitionLo) {
+        of(columnAddresses, null, partitionIndex, partitionLo);
+    }
+
+    /**
+     * @param indexAddresses index page addresses of STRING columns, see {@link io.questdb.cairo.sql.PageFrame#getIndexPageAddress(int)}
+     */
+    public void of(LongList columnAddresses, LongList indexAddresses, int partitionIndex, long partitionLo) {
+        this.columnAddresses = columnAddresses;
+        this.indexAddresses = indexAddresses;
+        this.partitionIndex = partitionIndex;
+        this.partitionLo = partitionLo;
+        this.row = 0;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+
+    private CharSequence getStr(int col, ObjList<DirectCharSequence> csViews) {
+        final long address = getStrAddress(col);
+        if (address == 0) {
+            return null;
+        }
+        final int len = Unsafe.getUnsafe().getInt(address);
+        if (len == TableUtils.NULL_LEN) {
+            return null;
+        }
+        DirectCharSequence view = csViews.getQuiet(col);
+        if (view == null) {
+            csViews.extendAndSet(col, view = new DirectCharSequence());
+        }
+        final long lo = address + Integer.BYTES;
+        return view.of(lo, lo + ((long) len << 1));
+    }
+
+    private long getStrAddress(int col) {
+        final long indexAddress = indexAddresses.getQuick(col);
+        if (indexAddress == 0) {
+            return 0;
+        }
+        // index offsets are relative to the start of column file, page address is that of the first row
+        final long offset = Unsafe.getUnsafe().getLong(indexAddress + (row << 3)) - Unsafe.getUnsafe().getLong(indexAddress);
+        return columnAddresses.getQuick(col) + offset;
+    }
+}
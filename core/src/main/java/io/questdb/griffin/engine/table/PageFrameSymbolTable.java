@@ -0,0 +1,83 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.SymbolMapReader;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.DirectCharSequence;
+
+/**
+ * Symbol table view owned by a single thread of parallel query, each worker record
+ * has its own instance. Values are read straight from mapped symbol chars into flyweights
+ * of this view, which does not change state of the shared reader and does not need
+ * locking. Only key lookups, which use reader's index cursor, are serialised.
+ */
+public class PageFrameSymbolTable implements StaticSymbolTable {
+    private final DirectCharSequence csA = new DirectCharSequence();
+    private final DirectCharSequence csB = new DirectCharSequence();
+    private SymbolMapReader reader;
+
+    @Override
+    public boolean containsNullValue() {
+        return reader.containsNullValue();
+    }
+
+    @Override
+    public int keyOf(CharSequence value) {
+        synchronized (reader) {
+            return reader.keyOf(value);
+        }
+    }
+
+    @Override
+    public int size() {
+        return reader.size();
+    }
+
+    @Override
+    public CharSequence valueOf(int key) {
+        return valueOf(key, csA);
+    }
+
+    @Override
+    public CharSequence valueBOf(int key) {
+        return valueOf(key, csB);
+    }
+
+    public PageFrameSymbolTable of(SymbolMapReader reader) {
+        this.reader = reader;
+        return this;
+    }
+
+    private CharSequence valueOf(int key, DirectCharSequence cs) {
+        if (key > -1 && key < reader.size()) {
+            final long address = reader.symbolCharsAddressOf(key);
+            final long lo = address + Integer.BYTES;
+            return cs.of(lo, lo + Unsafe.getUnsafe().getInt(address) * 2L);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,292 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.SymbolMapReader;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.tasks.PageFrameFilterTask;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.locks.LockSupport;
+
+class ParallelFilteredRecordCursor implements NoRandomAccessRecordCursor {
+    private final RecordMetadata metadata;
+    private final ObjList<Function> filters;
+    private final CompiledFilter compiledFilter;
+    private final ObjList<PageFrameRecord> records = new ObjList<>();
+    private final ObjList<PageFrameFilterEntry> entries = new ObjList<>();
+    private final IntList columnShifts = new IntList();
+    private final PageFrameRecord record = new PageFrameRecord();
+    private final int pageFrameMaxRows;
+    private final int window;
+    private PageFrameCursor pageFrameCursor;
+    private RingQueue<PageFrameFilterTask> queue;
+    private Sequence pubSeq;
+    private PageFrame frame;
+    private long frameRowCount;
+    private long frameOffset;
+    private boolean framesExhausted;
+    // ring of dispatched entries, "head" is the entry results are read from
+    private int head;
+    private int activeCount;
+    private PageFrameFilterEntry current;
+    private LongList currentRows;
+    private int currentRowIndex;
+
+    ParallelFilteredRecordCursor(
+            RecordMetadata metadata,
+            ObjList<Function> filters,
+            @Nullable CompiledFilter compiledFilter,
+            int pageFrameMaxRows
+    ) {
+        this.metadata = metadata;
+        this.filters = filters;
+        this.compiledFilter = compiledFilter;
+        this.pageFrameMaxRows = pageFrameMaxRows;
+        for (int i = 0, n = filters.size(); i < n; i++) {
+            records.add(new PageFrameRecord());
+        }
+        // keep workers busy while owner thread is consuming results
+        this.window = filters.size() * 2;
+        for (int i = 0; i < window; i++) {
+            entries.add(new PageFrameFilterEntry());
+        }
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            columnShifts.add(Numbers.msb(ColumnType.sizeOf(metadata.getColumnType(i))));
+        }
+    }
+
+    @Override
+    public void close() {
+        if (pageFrameCursor != null) {
+            drain();
+            pageFrameCursor = Misc.free(pageFrameCursor);
+        }
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return record.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (true) {
+            if (current != null) {
+                if (currentRowIndex < currentRows.size()) {
+                    record.setRow(currentRows.getQuick(currentRowIndex++));
+                    return true;
+                }
+                current = null;
+                head = (head + 1) % window;
+                activeCount--;
+                dispatch();
+            }
+
+            if (activeCount == 0) {
+                return false;
+            }
+
+            final PageFrameFilterEntry entry = entries.getQuick(head);
+            await(entry);
+            final Throwable error = entry.getError();
+            if (error != null) {
+                rethrow(error);
+            }
+            current = entry;
+            currentRows = entry.getRows();
+            currentRowIndex = 0;
+            record.of(entry.getColumnAddresses(), entry.getPartitionIndex(), entry.getPartitionLo());
+        }
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        drain();
+        pageFrameCursor.toTop();
+        for (int i = 0, n = filters.size(); i < n; i++) {
+            filters.getQuick(i).toTop();
+        }
+        resetFrames();
+        dispatch();
+    }
+
+    private static void rethrow(Throwable error) {
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        throw new RuntimeException(error);
+    }
+
+    private static void ofSymbolTable(PageFrameRecord record, int columnIndex, SymbolMapReader symbolMapReader) {
+        final ObjList<PageFrameSymbolTable> symbolTables = record.getSymbolTables();
+        PageFrameSymbolTable symbolTable = symbolTables.getQuiet(columnIndex);
+        if (symbolTable == null) {
+            symbolTable = new PageFrameSymbolTable();
+            symbolTables.extendAndSet(columnIndex, symbolTable);
+        }
+        symbolTable.of(symbolMapReader);
+    }
+
+    private void await(PageFrameFilterEntry entry) {
+        while (!entry.isDone()) {
+            if (!entry.runOwner() && !steal()) {
+                LockSupport.parkNanos(1);
+            }
+        }
+    }
+
+    private void dispatch() {
+        while (activeCount < window) {
+            final PageFrameFilterEntry entry = entries.getQuick((head + activeCount) % window);
+            if (!nextTask(entry)) {
+                break;
+            }
+            activeCount++;
+            publish(entry);
+        }
+    }
+
+    private void drain() {
+        current = null;
+        for (int i = 0; i < activeCount; i++) {
+            final PageFrameFilterEntry entry = entries.getQuick((head + i) % window);
+            if (!entry.cancel()) {
+                while (!entry.isDone()) {
+                    LockSupport.parkNanos(1);
+                }
+            }
+        }
+        activeCount = 0;
+        head = 0;
+    }
+
+    private boolean nextTask(PageFrameFilterEntry entry) {
+        while (frame == null || frameOffset == frameRowCount) {
+            if (framesExhausted || (frame = pageFrameCursor.next()) == null) {
+                framesExhausted = true;
+                return false;
+            }
+            frameOffset = 0;
+            frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+        }
+
+        final long rowCount = Math.min(pageFrameMaxRows, frameRowCount - frameOffset);
+        final LongList addresses = entry.getColumnAddresses();
+        addresses.clear();
+        for (int i = 0, n = columnShifts.size(); i < n; i++) {
+            final long address = frame.getPageAddress(i);
+            addresses.add(address == 0 ? 0 : address + (frameOffset << columnShifts.getQuick(i)));
+        }
+        entry.of(filters, compiledFilter, records, frame.getPartitionIndex(), frame.getPartitionLo() + frameOffset, rowCount);
+        frameOffset += rowCount;
+        return true;
+    }
+
+    private void publish(PageFrameFilterEntry entry) {
+        if (pubSeq != null) {
+            long seq;
+            do {
+                seq = pubSeq.next();
+            } while (seq == -2);
+
+            // when queue is full the entry is left to the owner thread
+            if (seq > -1) {
+                queue.get(seq).entry = entry;
+                pubSeq.done(seq);
+            }
+        }
+    }
+
+    private void resetFrames() {
+        frame = null;
+        frameOffset = 0;
+        frameRowCount = 0;
+        framesExhausted = false;
+    }
+
+    private boolean steal() {
+        for (int i = 1; i < activeCount; i++) {
+            if (entries.getQuick((head + i) % window).runOwner()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void of(PageFrameCursor pageFrameCursor, @Nullable MessageBus bus, SqlExecutionContext executionContext) {
+        this.pageFrameCursor = pageFrameCursor;
+        if (bus != null) {
+            this.queue = bus.getPageFrameFilterQueue();
+            this.pubSeq = queue != null ? bus.getPageFrameFilterPubSequence() : null;
+        } else {
+            this.queue = null;
+            this.pubSeq = null;
+        }
+
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (metadata.getColumnType(i) == ColumnType.SYMBOL) {
+                final SymbolMapReader symbolMapReader = pageFrameCursor.getSymbolMapReader(i);
+                ofSymbolTable(record, i, symbolMapReader);
+                for (int j = 0, m = records.size(); j < m; j++) {
+                    ofSymbolTable(records.getQuick(j), i, symbolMapReader);
+                }
+            }
+        }
+
+        for (int i = 0, n = filters.size(); i < n; i++) {
+            filters.getQuick(i).init(records.getQuick(i), executionContext);
+        }
+
+        if (compiledFilter != null) {
+            compiledFilter.of(pageFrameCursor);
+        }
+
+        head = 0;
+        activeCount = 0;
+        current = null;
+        resetFrames();
+        dispatch();
+    }
+}
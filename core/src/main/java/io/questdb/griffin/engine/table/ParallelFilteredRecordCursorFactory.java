@@ -0,0 +1,96 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Evaluates filter over page frames of the base factory using worker pool. Frames are
+ * split into tasks of bounded size, which are published on message bus and executed
+ * by {@link PageFrameFilterJob}. Each worker evaluates its own copy of the filter because
+ * functions are not thread-safe. The cursor returns matching rows in frame order.
+ * <p>
+ * Filter may also be compiled by {@link FilterCompiler}, in which case all threads share
+ * generated code and functions are only used for frames generated code cannot read.
+ */
+public class ParallelFilteredRecordCursorFactory implements RecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final ObjList<Function> filters;
+    private final CompiledFilter compiledFilter;
+    private final ParallelFilteredRecordCursor cursor;
+
+    /**
+     * @param base           factory that supports page frames
+     * @param filters        filter copies, one per worker, followed by the copy that belongs to the thread
+     *                       that owns the cursor
+     * @param compiledFilter generated filter or null when filter could not be compiled
+     */
+    public ParallelFilteredRecordCursorFactory(
+            @NotNull RecordCursorFactory base,
+            @NotNull ObjList<Function> filters,
+            @Nullable CompiledFilter compiledFilter,
+            int pageFrameMaxRows
+    ) {
+        assert base.supportPageFrameCursor();
+        this.base = base;
+        this.filters = filters;
+        this.compiledFilter = compiledFilter;
+        this.cursor = new ParallelFilteredRecordCursor(base.getMetadata(), filters, compiledFilter, pageFrameMaxRows);
+    }
+
+    @Override
+    public void close() {
+        base.close();
+        Misc.freeObjList(filters);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        final PageFrameCursor pageFrameCursor = base.getPageFrameCursor(executionContext);
+        final MessageBus bus = executionContext.getMessageBus();
+        cursor.of(pageFrameCursor, bus, executionContext);
+        return cursor;
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return base.getMetadata();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    boolean isFilterCompiled() {
+        return compiledFilter != null;
+    }
+}
@@ -30,7 +30,7 @@ import io.questdb.std.IntList;
 import io.questdb.std.Long256;
 import io.questdb.std.str.CharSink;
 
-class SelectedRecord implements Record {
+public class SelectedRecord implements Record {
     private final IntList columnCrossIndex;
     private Record base;
 
@@ -143,12 +143,17 @@ class SelectedRecord implements Record {
         return base.getSym(getColumnIndex(col));
     }
 
+    @Override
+    public CharSequence getSymB(int col) {
+        return base.getSymB(getColumnIndex(col));
+    }
+
     @Override
     public long getTimestamp(int col) {
         return base.getTimestamp(getColumnIndex(col));
     }
 
-    Record getBaseRecord() {
+    public Record getBaseRecord() {
         return base;
     }
 
@@ -156,7 +161,7 @@ class SelectedRecord implements Record {
         return columnCrossIndex.getQuick(columnIndex);
     }
 
-    void of(Record record) {
+    public void of(Record record) {
         this.base = record;
     }
 }
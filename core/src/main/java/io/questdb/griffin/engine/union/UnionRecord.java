@@ -131,6 +131,11 @@ class UnionRecord implements Record {
         return base.getSym(col);
     }
 
+    @Override
+    public CharSequence getSymB(int col) {
+        return base.getSymB(col);
+    }
+
     @Override
     public long getTimestamp(int col) {
         return base.getTimestamp(col);
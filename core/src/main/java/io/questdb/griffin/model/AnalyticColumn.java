@@ -30,9 +30,19 @@ import io.questdb.std.ObjectFactory;
 
 public final class AnalyticColumn extends QueryColumn {
     public final static ObjectFactory<AnalyticColumn> FACTORY = AnalyticColumn::new;
+    public static final int FRAMING_NONE = 0;
+    public static final int FRAMING_ROWS = 1;
+    public static final int FRAMING_RANGE = 2;
+    // frame start, which is "unbounded preceding"
+    public static final long FRAME_UNBOUNDED = Long.MAX_VALUE;
     private final ObjList<ExpressionNode> partitionBy = new ObjList<>(2);
     private final ObjList<ExpressionNode> orderBy = new ObjList<>(2);
     private final IntList orderByDirection = new IntList(2);
+    private int framingMode = FRAMING_NONE;
+    // number of rows for ROWS frame or number of timestamp units (micros) for RANGE frame
+    // preceding current row
+    private long frameLo = FRAME_UNBOUNDED;
+    private int frameLoPosition;
 
     private AnalyticColumn() {
     }
@@ -48,6 +58,21 @@ public final class AnalyticColumn extends QueryColumn {
         partitionBy.clear();
         orderBy.clear();
         orderByDirection.clear();
+        framingMode = FRAMING_NONE;
+        frameLo = FRAME_UNBOUNDED;
+        frameLoPosition = 0;
+    }
+
+    public long getFrameLo() {
+        return frameLo;
+    }
+
+    public int getFrameLoPosition() {
+        return frameLoPosition;
+    }
+
+    public int getFramingMode() {
+        return framingMode;
     }
 
     public ObjList<ExpressionNode> getPartitionBy() {
@@ -62,6 +87,12 @@ public final class AnalyticColumn extends QueryColumn {
         return orderByDirection;
     }
 
+    public void setFrame(int framingMode, long frameLo, int frameLoPosition) {
+        this.framingMode = framingMode;
+        this.frameLo = frameLo;
+        this.frameLoPosition = frameLoPosition;
+    }
+
     @Override
     public AnalyticColumn of(CharSequence alias, ExpressionNode ast) {
         return (AnalyticColumn) super.of(alias, ast);
@@ -34,9 +34,11 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
     private ExpressionNode tableName;
     private ExpressionNode fileName;
     private boolean header;
+    private boolean parallel;
 
     @Override
     public void clear() {
+        parallel = false;
     }
 
     public ExpressionNode getFileName() {
@@ -68,6 +70,14 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         this.header = header;
     }
 
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
     @Override
     public void toSink(CharSink sink) {
 
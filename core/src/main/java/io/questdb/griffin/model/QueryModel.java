@@ -760,6 +760,21 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                             }
                         }
                     }
+
+                    final int framingMode = ac.getFramingMode();
+                    if (framingMode != AnalyticColumn.FRAMING_NONE) {
+                        if (partitionBy.size() > 0 || orderBy.size() > 0) {
+                            sink.put(' ');
+                        }
+                        sink.put(framingMode == AnalyticColumn.FRAMING_ROWS ? "rows " : "range ");
+                        if (ac.getFrameLo() == AnalyticColumn.FRAME_UNBOUNDED) {
+                            sink.put("unbounded preceding");
+                        } else if (ac.getFrameLo() == 0) {
+                            sink.put("current row");
+                        } else {
+                            sink.put(ac.getFrameLo()).put(" preceding");
+                        }
+                    }
                     sink.put(')');
                 }
             } else {
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.mp;
+
+/**
+ * Backoff that adjusts its spin phase to how soon work tends to arrive. Worker keeps
+ * a moving average of idle passes that precede useful ones. When work typically shows
+ * up within spin range, spinning catches it without the cost of parking. When gaps are
+ * longer the spin phase shrinks so that idle worker does not burn the core. Parking
+ * starts short, doubles up to the maximum and is cut short by {@link WorkerWakeup}
+ * of the pool when a queue consumed by its workers is published to.
+ */
+public class AdaptiveIdleStrategy implements WorkerIdleStrategy {
+    private static final long MIN_SPIN_COUNT = 10L;
+    private static final long MAX_SPIN_COUNT = 1000L;
+    private static final long YIELD_COUNT = 100L;
+    private static final long MIN_PARK_NANOS = 10000L;
+    private final long maxParkNanos;
+    private final WorkerWakeup wakeup;
+    private long avgIdleCount = MAX_SPIN_COUNT;
+    private long spinCount = MIN_SPIN_COUNT;
+    private long parkNanos = MIN_PARK_NANOS;
+
+    public AdaptiveIdleStrategy(WorkerWakeup wakeup) {
+        this(1000000L, wakeup);
+    }
+
+    public AdaptiveIdleStrategy(long maxParkNanos, WorkerWakeup wakeup) {
+        this.maxParkNanos = Math.max(maxParkNanos, MIN_PARK_NANOS);
+        this.wakeup = wakeup;
+    }
+
+    public long getSpinCount() {
+        return spinCount;
+    }
+
+    @Override
+    public void idle(long idleCount) {
+        if (idleCount <= spinCount) {
+            Thread.onSpinWait();
+        } else if (idleCount <= spinCount + YIELD_COUNT) {
+            Thread.yield();
+        } else {
+            wakeup.park(parkNanos);
+            parkNanos = Math.min(parkNanos << 1, maxParkNanos);
+        }
+    }
+
+    @Override
+    public void wake(long idleCount) {
+        // moving average with 1/8 weight of the latest observation
+        avgIdleCount += (Math.min(idleCount, Integer.MAX_VALUE) - avgIdleCount) >> 3;
+        spinCount = avgIdleCount < MAX_SPIN_COUNT ? Math.max(MIN_SPIN_COUNT, avgIdleCount << 1) : MIN_SPIN_COUNT;
+        parkNanos = MIN_PARK_NANOS;
+    }
+}
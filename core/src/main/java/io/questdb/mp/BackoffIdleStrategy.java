@@ -0,0 +1,53 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.mp;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spins, then yields and finally parks for fixed time. Thresholds are fixed regardless
+ * of how often work arrives.
+ */
+public class BackoffIdleStrategy implements WorkerIdleStrategy {
+    private static final long YIELD_THRESHOLD = 10L;
+    private static final long SLEEP_THRESHOLD = 10000L;
+    private static final long PARK_NANOS = 1000000L;
+
+    @Override
+    public void idle(long idleCount) {
+        if (idleCount > YIELD_THRESHOLD) {
+            Thread.yield();
+        }
+
+        if (idleCount > SLEEP_THRESHOLD) {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    @Override
+    public void wake(long idleCount) {
+    }
+}
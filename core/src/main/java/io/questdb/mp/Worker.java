@@ -30,12 +30,9 @@ import io.questdb.std.Os;
 import io.questdb.std.Unsafe;
 
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.LockSupport;
 
 public class Worker extends Thread {
     private final static long RUNNING_OFFSET = Unsafe.getFieldOffset(Worker.class, "running");
-    private static final long YIELD_THRESHOLD = 10L;
-    private static final long SLEEP_THRESHOLD = 10000L;
     private final static AtomicInteger COUNTER = new AtomicInteger();
     private final ObjHashSet<? extends Job> jobs;
     private final SOCountDownLatch haltLatch;
@@ -44,6 +41,15 @@ public class Worker extends Thread {
     private final WorkerCleaner cleaner;
     private final boolean haltOnError;
     private final int workerId;
+    private final WorkerIdleStrategy idleStrategy;
+    private final boolean jobCountersEnabled;
+    // counters are written by worker thread only, other threads read them
+    // for monitoring purposes, hence no fences. Per job counters are
+    // only maintained when enabled by configuration
+    private final long[] jobUsefulCounts;
+    private final long[] jobIdleCounts;
+    private long usefulPassCount;
+    private long idlePassCount;
     private volatile int running = 0;
     private volatile int fence;
 
@@ -55,6 +61,20 @@ public class Worker extends Thread {
             final WorkerCleaner cleaner,
             final boolean haltOnError,
             final int workerId
+    ) {
+        this(jobs, haltLatch, affinity, log, cleaner, haltOnError, workerId, new BackoffIdleStrategy(), false);
+    }
+
+    public Worker(
+            final ObjHashSet<? extends Job> jobs,
+            final SOCountDownLatch haltLatch,
+            final int affinity,
+            final Log log,
+            final WorkerCleaner cleaner,
+            final boolean haltOnError,
+            final int workerId,
+            final WorkerIdleStrategy idleStrategy,
+            final boolean jobCountersEnabled
     ) {
         this.log = log;
         this.jobs = jobs;
@@ -64,6 +84,38 @@ public class Worker extends Thread {
         this.cleaner = cleaner;
         this.haltOnError = haltOnError;
         this.workerId = workerId;
+        this.idleStrategy = idleStrategy;
+        this.jobCountersEnabled = jobCountersEnabled;
+        this.jobUsefulCounts = new long[jobs.size()];
+        this.jobIdleCounts = new long[jobs.size()];
+    }
+
+    public long getIdlePassCount() {
+        return idlePassCount;
+    }
+
+    /**
+     * @param job job assigned to this worker
+     * @return number of times job returned false, or -1 when job is not assigned to this worker;
+     * always 0 when job counters are not enabled
+     */
+    public long getJobIdleCount(Job job) {
+        final int index = jobIndex(job);
+        return index > -1 ? jobIdleCounts[index] : -1;
+    }
+
+    /**
+     * @param job job assigned to this worker
+     * @return number of times job returned true, or -1 when job is not assigned to this worker;
+     * always 0 when job counters are not enabled
+     */
+    public long getJobUsefulCount(Job job) {
+        final int index = jobIndex(job);
+        return index > -1 ? jobUsefulCounts[index] : -1;
+    }
+
+    public long getUsefulPassCount() {
+        return usefulPassCount;
     }
 
     public int getWorkerId() {
@@ -104,7 +156,14 @@ public class Worker extends Thread {
                         loadFence();
                         try {
                             try {
-                                useful |= jobs.get(i).run(workerId);
+                                if (jobs.get(i).run(workerId)) {
+                                    if (jobCountersEnabled) {
+                                        jobUsefulCounts[i]++;
+                                    }
+                                    useful = true;
+                                } else if (jobCountersEnabled) {
+                                    jobIdleCounts[i]++;
+                                }
                             } catch (Throwable e) {
                                 onError(i, e);
                             }
@@ -114,26 +173,31 @@ public class Worker extends Thread {
                     }
 
                     if (useful) {
-                        uselessCounter = 0;
+                        usefulPassCount++;
+                        if (uselessCounter > 0) {
+                            idleStrategy.wake(uselessCounter);
+                            uselessCounter = 0;
+                        }
                         continue;
                     }
 
+                    idlePassCount++;
                     uselessCounter++;
 
                     if (uselessCounter < 0) {
                         // deal with overflow
-                        uselessCounter = SLEEP_THRESHOLD + 1;
-                    }
-
-                    if (uselessCounter > YIELD_THRESHOLD) {
-                        Thread.yield();
+                        uselessCounter = Long.MAX_VALUE;
                     }
 
-                    if (uselessCounter > SLEEP_THRESHOLD) {
-                        LockSupport.parkNanos(1000000);
-                    }
+                    idleStrategy.idle(uselessCounter);
                 }
             }
+            if (log != null) {
+                log.info().$("halted [name=").$(getName())
+                        .$(", usefulPasses=").$(usefulPassCount)
+                        .$(", idlePasses=").$(idlePassCount)
+                        .$(']').$();
+            }
         } catch (Throwable e) {
             ex = e;
         } finally {
@@ -146,6 +210,15 @@ public class Worker extends Thread {
         }
     }
 
+    private int jobIndex(Job job) {
+        for (int i = 0, n = jobs.size(); i < n; i++) {
+            if (jobs.get(i) == job) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     private void onError(int i, Throwable e) throws Throwable {
         if (haltOnError) {
             throw e;
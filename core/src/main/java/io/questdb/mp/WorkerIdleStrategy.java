@@ -0,0 +1,44 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.mp;
+
+/**
+ * Decides what worker thread does after a pass over its jobs found nothing to do.
+ * Instance is created for each worker and is only ever called by that worker thread.
+ */
+public interface WorkerIdleStrategy {
+    /**
+     * @param idleCount number of consecutive idle passes, starts with 1
+     */
+    void idle(long idleCount);
+
+    /**
+     * Invoked on the first useful pass after one or more idle passes.
+     *
+     * @param idleCount number of idle passes that preceded useful one
+     */
+    void wake(long idleCount);
+}
@@ -44,6 +44,9 @@ public class WorkerPool {
     private final ObjList<ObjList<Closeable>> cleaners;
     private final boolean haltOnError;
     private final boolean daemons;
+    private final WorkerIdleStrategyFactory idleStrategyFactory;
+    private final boolean jobCountersEnabled;
+    private final WorkerWakeup wakeup = new WorkerWakeup();
 
     public WorkerPool(WorkerPoolConfiguration configuration) {
         this.workerCount = configuration.getWorkerCount();
@@ -51,6 +54,8 @@ public class WorkerPool {
         this.halted = new SOCountDownLatch(workerCount);
         this.haltOnError = configuration.haltOnError();
         this.daemons = configuration.isDaemonPool();
+        this.idleStrategyFactory = configuration.getIdleStrategyFactory();
+        this.jobCountersEnabled = configuration.isJobCountersEnabled();
 
         assert workerAffinity.length == workerCount;
 
@@ -87,16 +92,82 @@ public class WorkerPool {
         cleaners.getQuick(worker).add(cleaner);
     }
 
+    /**
+     * Sums number of idle runs of the job across workers it is assigned to.
+     * Counters are available after pool is started and when enabled by configuration.
+     *
+     * @param job instance of job
+     * @return number of runs when job had nothing to do
+     */
+    public long getJobIdleCount(Job job) {
+        long count = 0;
+        for (int i = 0, n = workers.size(); i < n; i++) {
+            count += Math.max(0, workers.getQuick(i).getJobIdleCount(job));
+        }
+        return count;
+    }
+
+    /**
+     * Sums number of useful runs of the job across workers it is assigned to.
+     * Counters are available after pool is started and when enabled by configuration.
+     *
+     * @param job instance of job
+     * @return number of runs when job did some work
+     */
+    public long getJobUsefulCount(Job job) {
+        long count = 0;
+        for (int i = 0, n = workers.size(); i < n; i++) {
+            count += Math.max(0, workers.getQuick(i).getJobUsefulCount(job));
+        }
+        return count;
+    }
+
+    /**
+     * @return wakeup that parked workers of this pool wait on
+     */
+    public WorkerWakeup getWakeup() {
+        return wakeup;
+    }
+
     public int getWorkerCount() {
         return workerCount;
     }
 
+    /**
+     * @param worker worker index
+     * @return number of passes over worker's jobs when none of them did any work
+     */
+    public long getWorkerIdlePassCount(int worker) {
+        return workers.getQuick(worker).getIdlePassCount();
+    }
+
+    /**
+     * @param worker worker index
+     * @return number of passes over worker's jobs when at least one of them did some work
+     */
+    public long getWorkerUsefulPassCount(int worker) {
+        return workers.getQuick(worker).getUsefulPassCount();
+    }
+
+    /**
+     * Makes signals of the source, which is wait strategy of queues consumed by jobs of
+     * this pool, wake up parked workers of this pool.
+     *
+     * @param source wakeup signalled when work is published, null when there is nothing to link
+     */
+    public void wakeOn(@Nullable WorkerWakeup source) {
+        if (source != null) {
+            source.link(wakeup);
+        }
+    }
+
     public void halt() {
         if (running.compareAndSet(true, false)) {
             started.await();
             for (int i = 0; i < workerCount; i++) {
                 workers.getQuick(i).halt();
             }
+            wakeup.signalAll();
             halted.await();
 
             for (int i = 0; i < workerCount; i++) {
@@ -124,7 +195,9 @@ public class WorkerPool {
                             }
                         },
                         haltOnError,
-                        i
+                        i,
+                        idleStrategyFactory.newInstance(wakeup),
+                        jobCountersEnabled
                 );
                 worker.setDaemon(daemons);
                 workers.add(worker);
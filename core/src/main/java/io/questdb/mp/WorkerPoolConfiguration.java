@@ -25,6 +25,10 @@
 package io.questdb.mp;
 
 public interface WorkerPoolConfiguration {
+    default WorkerIdleStrategyFactory getIdleStrategyFactory() {
+        return wakeup -> new BackoffIdleStrategy();
+    }
+
     int[] getWorkerAffinity();
 
     int getWorkerCount();
@@ -34,4 +38,13 @@ public interface WorkerPoolConfiguration {
     default boolean isDaemonPool() {
         return false;
     }
+
+    /**
+     * Per job run counters cost a memory write for every job run, they are meant for diagnostics.
+     *
+     * @return true when workers should count useful and idle runs of each job
+     */
+    default boolean isJobCountersEnabled() {
+        return false;
+    }
 }
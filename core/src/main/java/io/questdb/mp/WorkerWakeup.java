@@ -0,0 +1,162 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.mp;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wakes up parked workers when work is published. Each worker pool owns an instance,
+ * its threads park via {@link #park(long)} and become visible to {@link #signal()}.
+ * Components that own queues consumed by pool jobs, such as message bus or IO dispatcher,
+ * have instances of their own, which are wait strategies of consumer sequences. Pool
+ * links itself to them via {@link WorkerPool#wakeOn(WorkerWakeup)}, so that publishing
+ * to a queue wakes only workers of the pools that run its jobs.
+ * <p>
+ * Signal unparks a single thread, one publish is one unit of work. Signal is a single
+ * volatile read when nobody is parked.
+ * <p>
+ * Park is always bounded. Work published between worker's last idle pass and the park
+ * call does not unpark it and is picked up at most one park interval later.
+ */
+public final class WorkerWakeup implements WaitStrategy {
+    private static final int SLOT_COUNT = 256;
+    private static final long AWAIT_NANOS = 1000000L;
+    private static final WorkerWakeup[] NO_LINKS = new WorkerWakeup[0];
+    private final AtomicReferenceArray<Thread> slots = new AtomicReferenceArray<>(SLOT_COUNT);
+    private final AtomicInteger parkedCount = new AtomicInteger();
+    private volatile int slotLimit = 0;
+    private volatile WorkerWakeup[] links = NO_LINKS;
+
+    @Override
+    public boolean acceptSignal() {
+        return true;
+    }
+
+    @Override
+    public void alert() {
+        signal();
+    }
+
+    @Override
+    public void await() {
+        park(AWAIT_NANOS);
+    }
+
+    public int getParkedCount() {
+        return parkedCount.get();
+    }
+
+    /**
+     * Forwards signals of this instance to another one. Links are made when
+     * jobs are assigned to pools, before work is published.
+     *
+     * @param target wakeup to be signalled together with this one
+     */
+    public synchronized void link(WorkerWakeup target) {
+        for (WorkerWakeup link : links) {
+            if (link == target) {
+                return;
+            }
+        }
+        final WorkerWakeup[] copy = Arrays.copyOf(links, links.length + 1);
+        copy[links.length] = target;
+        links = copy;
+    }
+
+    public void park(long nanos) {
+        final Thread thread = Thread.currentThread();
+        final int slot = claimSlot(thread);
+        if (slot == -1) {
+            // too many parked threads, they will not be woken up early
+            LockSupport.parkNanos(nanos);
+            return;
+        }
+
+        parkedCount.incrementAndGet();
+        try {
+            LockSupport.parkNanos(nanos);
+        } finally {
+            // slot is already released when thread was woken up by signal
+            if (slots.compareAndSet(slot, thread, null)) {
+                parkedCount.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void signal() {
+        if (parkedCount.get() > 0) {
+            for (int i = 0, n = slotLimit; i < n; i++) {
+                final Thread thread = slots.get(i);
+                if (thread != null && slots.compareAndSet(i, thread, null)) {
+                    parkedCount.decrementAndGet();
+                    LockSupport.unpark(thread);
+                    break;
+                }
+            }
+        }
+
+        final WorkerWakeup[] links = this.links;
+        for (int i = 0, n = links.length; i < n; i++) {
+            links[i].signal();
+        }
+    }
+
+    /**
+     * Unparks all threads parked at the moment, typically to let them observe
+     * that they should stop.
+     */
+    public void signalAll() {
+        for (int i = 0, n = slotLimit; i < n; i++) {
+            final Thread thread = slots.get(i);
+            if (thread != null && slots.compareAndSet(i, thread, null)) {
+                parkedCount.decrementAndGet();
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    private int claimSlot(Thread thread) {
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            if (slots.get(i) == null && slots.compareAndSet(i, null, thread)) {
+                if (i >= slotLimit) {
+                    updateSlotLimit(i + 1);
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private synchronized void updateSlotLimit(int limit) {
+        if (limit > slotLimit) {
+            slotLimit = limit;
+        }
+    }
+}
@@ -48,7 +48,7 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
     protected final IOContextFactory<C> ioContextFactory;
     protected final NetworkFacade nf;
     protected final int initialBias;
-    protected final AtomicInteger connectionCount = new AtomicInteger();
+    protected final AtomicInteger connectionCount;
     protected final RingQueue<IOEvent<C>> disconnectQueue;
     protected final MPSequence disconnectPubSeq;
     protected final SCSequence disconnectSubSeq;
@@ -57,14 +57,24 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
     protected final LongMatrix<C> pending = new LongMatrix<>(4);
     private final int sndBufSize;
     private final int rcvBufSize;
+    private final WorkerWakeup workerWakeup = new WorkerWakeup();
 
     public AbstractIODispatcher(
             IODispatcherConfiguration configuration,
             IOContextFactory<C> ioContextFactory
+    ) {
+        this(configuration, ioContextFactory, new AtomicInteger());
+    }
+
+    protected AbstractIODispatcher(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory,
+            AtomicInteger connectionCount
     ) {
         this.LOG = LogFactory.getLog(configuration.getDispatcherLogName());
         this.nf = configuration.getNetworkFacade();
         this.serverFd = nf.socketTcp(false);
+        this.connectionCount = connectionCount;
 
         this.interestQueue = new RingQueue<>(IOEvent::new, configuration.getInterestQueueCapacity());
         this.interestPubSeq = new MPSequence(interestQueue.getCapacity());
@@ -73,7 +83,7 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
 
         this.ioEventQueue = new RingQueue<>(IOEvent::new, configuration.getIOQueueCapacity());
         this.ioEventPubSeq = new SPSequence(configuration.getIOQueueCapacity());
-        this.ioEventSubSeq = new MCSequence(configuration.getIOQueueCapacity());
+        this.ioEventSubSeq = new MCSequence(configuration.getIOQueueCapacity(), workerWakeup);
         this.ioEventPubSeq.then(this.ioEventSubSeq).then(this.ioEventPubSeq);
 
         this.disconnectQueue = new RingQueue<>(IOEvent::new, configuration.getIOQueueCapacity());
@@ -90,6 +100,12 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
         this.sndBufSize = configuration.getSndBufSize();
         this.rcvBufSize = configuration.getRcvBufSize();
 
+        // dispatchers of the same group bind to the same port, kernel spreads
+        // incoming connections between their listen sockets
+        if (configuration.getDispatcherCount() > 1 && nf.setReusePort(this.serverFd) < 0) {
+            LOG.error().$("could not set SO_REUSEPORT [fd=").$(serverFd).$(", errno=").$(nf.errno()).$(']').$();
+        }
+
         if (nf.bindTcp(this.serverFd, configuration.getBindIPv4Address(), configuration.getBindPort())) {
             nf.listen(this.serverFd, configuration.getListenBacklog());
         } else {
@@ -126,6 +142,11 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
         return connectionCount.get();
     }
 
+    @Override
+    public WorkerWakeup getWorkerWakeup() {
+        return workerWakeup;
+    }
+
     @Override
     public void registerChannel(C context, int operation) {
         long cursor = interestPubSeq.nextBully();
@@ -179,7 +200,8 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
             }
 
             final int connectionCount = this.connectionCount.get();
-            if (connectionCount == activeConnectionLimit) {
+            // connection count may be shared by several dispatchers
+            if (connectionCount >= activeConnectionLimit) {
                 LOG.info().$("connection limit exceeded [fd=").$(fd)
                         .$(", connectionCount=").$(connectionCount)
                         .$(", activeConnectionLimit=").$(activeConnectionLimit)
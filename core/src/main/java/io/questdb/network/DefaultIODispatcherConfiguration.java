@@ -49,6 +49,11 @@ public class DefaultIODispatcherConfiguration implements IODispatcherConfigurati
         return MillisecondClockImpl.INSTANCE;
     }
 
+    @Override
+    public int getDispatcherCount() {
+        return 1;
+    }
+
     @Override
     public int getEventCapacity() {
         return 1024;
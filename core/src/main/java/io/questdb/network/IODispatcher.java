@@ -25,6 +25,7 @@
 package io.questdb.network;
 
 import io.questdb.mp.Job;
+import io.questdb.mp.WorkerWakeup;
 
 import java.io.Closeable;
 
@@ -36,4 +37,11 @@ public interface IODispatcher<C extends IOContext> extends Closeable, Job {
     boolean processIOQueue(IORequestProcessor<C> processor);
 
     void disconnect(C context);
+
+    /**
+     * @return wait strategy of IO event queue, pool processing IO events should be woken up by it
+     */
+    default WorkerWakeup getWorkerWakeup() {
+        return null;
+    }
 }
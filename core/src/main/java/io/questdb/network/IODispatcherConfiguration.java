@@ -38,6 +38,13 @@ public interface IODispatcherConfiguration {
 
     MillisecondClock getClock();
 
+    /**
+     * Number of dispatchers sharing the listen port. Each dispatcher runs its own
+     * event loop over the connections it accepted. Values above 1 require SO_REUSEPORT
+     * and are only honoured on Linux.
+     */
+    int getDispatcherCount();
+
     default String getDispatcherLogName() {
         return "IODispatcher";
     }
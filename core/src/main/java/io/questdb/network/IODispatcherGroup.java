@@ -0,0 +1,134 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.network;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.EagerThreadSetup;
+import io.questdb.mp.WorkerWakeup;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs several Linux dispatchers for the same server. Every dispatcher owns a
+ * listen socket bound to the same port with SO_REUSEPORT, so the kernel shards
+ * incoming connections between their event loops. Each connection context stays
+ * with the dispatcher that accepted it. Active connection limit is shared by the group.
+ */
+public class IODispatcherGroup<C extends IOContext> implements IODispatcher<C>, EagerThreadSetup {
+    private static final Log LOG = LogFactory.getLog(IODispatcherGroup.class);
+    private final ObjList<IODispatcherLinux<C>> dispatchers;
+    private final IOContextFactory<C> ioContextFactory;
+    private final WorkerWakeup workerWakeup = new WorkerWakeup();
+
+    public IODispatcherGroup(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory
+    ) {
+        final int dispatcherCount = configuration.getDispatcherCount();
+        final AtomicInteger connectionCount = new AtomicInteger();
+        this.ioContextFactory = ioContextFactory;
+        this.dispatchers = new ObjList<>(dispatcherCount);
+        try {
+            for (int i = 0; i < dispatcherCount; i++) {
+                final IODispatcherLinux<C> dispatcher = new IODispatcherLinux<>(configuration, ioContextFactory, connectionCount);
+                dispatchers.add(dispatcher);
+                dispatcher.getWorkerWakeup().link(workerWakeup);
+            }
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+        LOG.info().$("started [name=").$(configuration.getDispatcherLogName()).$(", dispatchers=").$(dispatcherCount).$(']').$();
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjList(dispatchers);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void disconnect(C context) {
+        ((IODispatcher<C>) context.getDispatcher()).disconnect(context);
+    }
+
+    @Override
+    public int getConnectionCount() {
+        // all dispatchers share the same counter
+        return dispatchers.getQuick(0).getConnectionCount();
+    }
+
+    @Override
+    public WorkerWakeup getWorkerWakeup() {
+        return workerWakeup;
+    }
+
+    public IODispatcherLinux<C> getDispatcher(int index) {
+        return dispatchers.getQuick(index);
+    }
+
+    public int getDispatcherCount() {
+        return dispatchers.size();
+    }
+
+    @Override
+    public boolean processIOQueue(IORequestProcessor<C> processor) {
+        // take one event from every dispatcher so that none of them starves
+        boolean useful = false;
+        for (int i = 0, n = dispatchers.size(); i < n; i++) {
+            useful |= dispatchers.getQuick(i).processIOQueue(processor);
+        }
+        return useful;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void registerChannel(C context, int operation) {
+        ((IODispatcher<C>) context.getDispatcher()).registerChannel(context, operation);
+    }
+
+    @Override
+    public boolean run(int workerId) {
+        // dispatchers are synchronized jobs, workers skip the ones busy on
+        // other threads, starting point is staggered to spread the load
+        boolean useful = false;
+        final int n = dispatchers.size();
+        for (int i = 0; i < n; i++) {
+            useful |= dispatchers.getQuick((workerId + i) % n).run(workerId);
+        }
+        return useful;
+    }
+
+    @Override
+    public void setup() {
+        if (ioContextFactory instanceof EagerThreadSetup) {
+            ((EagerThreadSetup) ioContextFactory).setup();
+        }
+    }
+}
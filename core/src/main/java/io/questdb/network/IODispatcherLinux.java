@@ -24,16 +24,39 @@
 
 package io.questdb.network;
 
+import io.questdb.std.LongIntHashMap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class IODispatcherLinux<C extends IOContext> extends AbstractIODispatcher<C> {
     private static final int M_ID = 2;
     private final Epoll epoll;
+    // maps epoll id to pending row, stored rows are offset by "pendingRowBase"
+    // so that rows can be zapped from top without re-indexing the rest
+    private final LongIntHashMap pendingIndex = new LongIntHashMap();
     private long fdid = 1;
+    private int pendingRowBase;
+    // rows of connections handed to workers, they are removed lazily
+    private int pendingDeletedCount;
+    private long loopCount;
+    private long usefulLoopCount;
+    private long eventCount;
+    private long maxEventBatchSize;
+    private long idleDisconnectCount;
 
     public IODispatcherLinux(
             IODispatcherConfiguration configuration,
             IOContextFactory<C> ioContextFactory
     ) {
-        super(configuration, ioContextFactory);
+        this(configuration, ioContextFactory, new AtomicInteger());
+    }
+
+    IODispatcherLinux(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory,
+            AtomicInteger connectionCount
+    ) {
+        super(configuration, ioContextFactory, connectionCount);
         this.epoll = new Epoll(configuration.getEpollFacade(), configuration.getEventCapacity());
         this.epoll.listen(serverFd);
         logSuccess(configuration);
@@ -58,20 +81,89 @@ public class IODispatcherLinux<C extends IOContext> extends AbstractIODispatcher
     public void close() {
         super.close();
         this.epoll.close();
-        LOG.info().$("closed").$();
+        LOG.info().$("closed [loops=").$(loopCount)
+                .$(", usefulLoops=").$(usefulLoopCount)
+                .$(", events=").$(eventCount)
+                .$(", maxEventBatch=").$(maxEventBatchSize)
+                .$(", idleDisconnects=").$(idleDisconnectCount)
+                .$(']').$();
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public long getIdleDisconnectCount() {
+        return idleDisconnectCount;
+    }
+
+    public long getLoopCount() {
+        return loopCount;
+    }
+
+    public long getMaxEventBatchSize() {
+        return maxEventBatchSize;
+    }
+
+    public int getPendingCount() {
+        return pendingIndex.size();
+    }
+
+    public long getUsefulLoopCount() {
+        return usefulLoopCount;
     }
 
     @Override
     protected void pendingAdded(int index) {
-        pending.set(index, M_ID, fdid++);
+        final long id = fdid++;
+        pending.set(index, M_ID, id);
+        pendingIndex.put(id, index + pendingRowBase);
+    }
+
+    private void addPendingRow(long fd, long id, long timestamp, C context) {
+        int r = pending.addRow();
+        pending.set(r, M_TIMESTAMP, timestamp);
+        pending.set(r, M_FD, fd);
+        pending.set(r, M_ID, id);
+        pending.set(r, context);
+        pendingIndex.put(id, r + pendingRowBase);
+    }
+
+    private void compactPending() {
+        // move live rows down, ids stay the same because they are registered with epoll
+        int live = 0;
+        for (int i = 0, n = pending.size(); i < n; i++) {
+            final C context = pending.get(i);
+            if (context != null) {
+                if (live < i) {
+                    pending.set(live, M_TIMESTAMP, pending.get(i, M_TIMESTAMP));
+                    pending.set(live, M_FD, pending.get(i, M_FD));
+                    pending.set(live, M_ID, pending.get(i, M_ID));
+                    pending.set(live, context);
+                }
+                pendingIndex.put(pending.get(live, M_ID), live);
+                live++;
+            }
+        }
+        pending.setPos(live);
+        pendingRowBase = 0;
+        pendingDeletedCount = 0;
     }
 
     private void processIdleConnections(long deadline) {
         int count = 0;
         for (int i = 0, n = pending.size(); i < n && pending.get(i, M_TIMESTAMP) < deadline; i++, count++) {
-            doDisconnect(pending.get(i));
+            final C context = pending.get(i);
+            if (context != null) {
+                pendingIndex.remove(pending.get(i, M_ID));
+                doDisconnect(context);
+                idleDisconnectCount++;
+            } else {
+                pendingDeletedCount--;
+            }
         }
         pending.zapTop(count);
+        pendingRowBase += count;
     }
 
     private boolean processRegistrations(long timestamp) {
@@ -93,12 +185,7 @@ public class IODispatcherLinux<C extends IOContext> extends AbstractIODispatcher
                 System.out.println("oops2: " + nf.errno());
             }
             offset += EpollAccessor.SIZEOF_EVENT;
-
-            int r = pending.addRow();
-            pending.set(r, M_TIMESTAMP, timestamp);
-            pending.set(r, M_FD, fd);
-            pending.set(r, M_ID, id);
-            pending.set(r, context);
+            addPendingRow(fd, id, timestamp, context);
         }
 
         if (offset > 0) {
@@ -119,11 +206,14 @@ public class IODispatcherLinux<C extends IOContext> extends AbstractIODispatcher
         processDisconnects();
         final long timestamp = clock.getTicks();
         final int n = epoll.poll();
-        int watermark = pending.size();
+        final int watermark = pending.size();
         int offset = 0;
+        loopCount++;
         if (n > 0) {
             // check all activated FDs
             LOG.debug().$("epoll [n=").$(n).$(']').$();
+            eventCount += n;
+            maxEventBatchSize = Math.max(maxEventBatchSize, n);
             for (int i = 0; i < n; i++) {
                 epoll.setOffset(offset);
                 offset += EpollAccessor.SIZEOF_EVENT;
@@ -135,18 +225,22 @@ public class IODispatcherLinux<C extends IOContext> extends AbstractIODispatcher
                     // find row in pending for two reasons:
                     // 1. find payload
                     // 2. remove row from pending, remaining rows will be timed out
-                    int row = pending.binarySearch(id, M_ID);
-                    if (row < 0) {
+                    final int keyIndex = pendingIndex.keyIndex(id);
+                    if (keyIndex > -1) {
                         LOG.error().$("internal error: epoll returned unexpected id [id=").$(id).$(']').$();
                         continue;
                     }
 
+                    final int row = pendingIndex.valueAt(keyIndex) - pendingRowBase;
+                    pendingIndex.removeAt(keyIndex);
                     publishOperation(
                             (epoll.getEvent() & EpollAccessor.EPOLLIN) > 0 ? IOOperation.READ : IOOperation.WRITE,
                             pending.get(row)
                     );
-                    pending.deleteRow(row);
-                    watermark--;
+                    // row is left behind as a gap, it is removed either
+                    // together with timed out rows or by compaction
+                    pending.set(row, null);
+                    pendingDeletedCount++;
                 }
             }
 
@@ -154,6 +248,10 @@ public class IODispatcherLinux<C extends IOContext> extends AbstractIODispatcher
             if (watermark < pending.size()) {
                 enqueuePending(watermark);
             }
+
+            if (pendingDeletedCount > pendingIndex.size()) {
+                compactPending();
+            }
             useful = true;
         }
 
@@ -164,6 +262,10 @@ public class IODispatcherLinux<C extends IOContext> extends AbstractIODispatcher
             useful = true;
         }
 
-        return processRegistrations(timestamp) || useful;
+        if (processRegistrations(timestamp) || useful) {
+            usefulLoopCount++;
+            return true;
+        }
+        return false;
     }
 }
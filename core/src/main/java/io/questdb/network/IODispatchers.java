@@ -38,6 +38,9 @@ public class IODispatchers {
         switch (Os.type) {
             case Os.LINUX_AMD64:
             case Os.LINUX_ARM64:
+                if (configuration.getDispatcherCount() > 1) {
+                    return new IODispatcherGroup<>(configuration, ioContextFactory);
+                }
                 return new IODispatcherLinux<>(configuration, ioContextFactory);
             case Os.OSX:
             case Os.FREEBSD:
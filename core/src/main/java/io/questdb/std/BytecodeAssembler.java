@@ -112,6 +112,14 @@ public class BytecodeAssembler {
         putShort(0x8F);
     }
 
+    public void dadd() {
+        putByte(0x63);
+    }
+
+    public void ddiv() {
+        putByte(0x6f);
+    }
+
     public void defineClass(int thisClassIndex) {
         defineClass(thisClassIndex, objectClassIndex);
     }
@@ -153,6 +161,14 @@ public class BytecodeAssembler {
         putShort(0);
     }
 
+    public void dmul() {
+        putByte(0x6b);
+    }
+
+    public void dsub() {
+        putByte(0x67);
+    }
+
     public void dump(String path) {
         try (FileOutputStream fos = new FileOutputStream(path)) {
             int p = buf.position();
@@ -245,6 +261,10 @@ public class BytecodeAssembler {
         putByte(0x60);
     }
 
+    public void iand() {
+        putByte(0x7e);
+    }
+
     public void iconst(int v) {
         if (v == -1) {
             putByte(iconst_m1);
@@ -270,6 +290,14 @@ public class BytecodeAssembler {
         return genericGoto(0xa0);
     }
 
+    public int ifeq() {
+        return genericGoto(0x99);
+    }
+
+    public int ifge() {
+        return genericGoto(0x9c);
+    }
+
     public int ifne() {
         return genericGoto(0x9a);
     }
@@ -284,6 +312,10 @@ public class BytecodeAssembler {
         optimisedIO(iload_0, iload_1, iload_2, iload_3, iload, value);
     }
 
+    public void imul() {
+        putByte(0x68);
+    }
+
     public void ineg() {
         putByte(0x74);
     }
@@ -317,6 +349,10 @@ public class BytecodeAssembler {
         putShort(index);
     }
 
+    public void ior() {
+        putByte(0x80);
+    }
+
     public void irem() {
         putByte(0x70);
     }
@@ -333,6 +369,10 @@ public class BytecodeAssembler {
         putByte(0x64);
     }
 
+    public void ixor() {
+        putByte(0x82);
+    }
+
     public void l2d() {
         putShort(0x8A);
     }
@@ -345,6 +385,10 @@ public class BytecodeAssembler {
         putShort(0x88);
     }
 
+    public void ladd() {
+        putByte(0x61);
+    }
+
     public void lcmp() {
         putByte(0x94);
     }
@@ -353,6 +397,10 @@ public class BytecodeAssembler {
         putByte(0x09);
     }
 
+    public void lconst_1() {
+        putByte(0x0a);
+    }
+
     public void ldc(int index) {
         putByte(0x12);
         putByte(index);
@@ -363,6 +411,11 @@ public class BytecodeAssembler {
         putShort(index);
     }
 
+    public void ldc_w(int index) {
+        putByte(0x13);
+        putShort(index);
+    }
+
     public void lload(int value) {
         optimisedIO(lload_0, lload_1, lload_2, lload_3, lload, value);
     }
@@ -382,6 +435,10 @@ public class BytecodeAssembler {
         putByte(0xad);
     }
 
+    public void lshl() {
+        putByte(0x79);
+    }
+
     public void lstore(int value) {
         optimisedIO(lstore_0, lstore_1, lstore_2, lstore_3, lstore, value);
     }
@@ -428,10 +485,24 @@ public class BytecodeAssembler {
         return classCache.valueAt(index);
     }
 
+    public int poolDoubleConst(double value) {
+        putByte(0x06);
+        putLong(Double.doubleToRawLongBits(value));
+        int index = poolCount;
+        poolCount += 2;
+        return index;
+    }
+
     public int poolField(int classIndex, int nameAndTypeIndex) {
         return poolRef(0x09, classIndex, nameAndTypeIndex);
     }
 
+    public int poolIntConst(int value) {
+        putByte(0x03);
+        putInt(value);
+        return poolCount++;
+    }
+
     public int poolInterfaceMethod(Class<?> clazz, String name, String sig) {
         return poolInterfaceMethod(poolClass(clazz), poolNameAndType(poolUtf8(name), poolUtf8(sig)));
     }
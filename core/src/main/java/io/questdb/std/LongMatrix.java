@@ -101,6 +101,11 @@ public class LongMatrix<T> {
         data[offset(r, c)] = value;
     }
 
+    public void setPos(int pos) {
+        assert pos <= this.pos;
+        this.pos = pos;
+    }
+
     public int size() {
         return pos;
     }
@@ -68,6 +68,8 @@ final public class Timestamps {
     public static final TimestampFloorMethod FLOOR_MM = Timestamps::floorMM;
     public static final TimestampAddMethod ADD_MM = Timestamps::addMonths;
     public static final TimestampAddMethod ADD_YYYY = Timestamps::addYear;
+    public static final TimestampFloorMethod FLOOR_HH = Timestamps::floorHH;
+    public static final TimestampAddMethod ADD_HH = Timestamps::addHours;
     private static final char BEFORE_ZERO = '0' - 1;
     private static final char AFTER_NINE = '9' + 1;
 
@@ -188,6 +190,10 @@ final public class Timestamps {
                 ;
     }
 
+    public static long ceilHH(long micros) {
+        return floorHH(micros) + HOUR_MICROS - 1;
+    }
+
     public static long ceilMM(long micros) {
         int y, m;
         boolean l;
@@ -222,7 +228,8 @@ final public class Timestamps {
     }
 
     public static long floorHH(long micros) {
-        return micros - micros % HOUR_MICROS;
+        final long r = micros % HOUR_MICROS;
+        return r < 0 ? micros - r - HOUR_MICROS : micros - r;
     }
 
     public static long floorMI(long micros) {
@@ -499,6 +499,33 @@ open module io.questdb {
             io.questdb.griffin.engine.functions.str.ToLowercaseFunctionFactory,
 
             // analytic functions
-            io.questdb.griffin.engine.functions.analytic.RowNumberFunctionFactory
+            io.questdb.griffin.engine.functions.analytic.RowNumberFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.SumWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.AvgWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.MinWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.MaxWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.CountWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.FirstValueFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LastValueFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LagFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LagOffsetFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LeadFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LeadOffsetFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.MinLongWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.MinTimestampWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.MaxLongWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.MaxTimestampWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.FirstValueLongFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.FirstValueTimestampFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LastValueLongFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LastValueTimestampFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LagLongFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LagLongOffsetFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LagTimestampFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LagTimestampOffsetFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LeadLongFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LeadLongOffsetFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LeadTimestampFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LeadTimestampOffsetFunctionFactory
             ;
 }
@@ -30,6 +30,9 @@ import io.questdb.cutlass.json.JsonException;
 import io.questdb.cutlass.line.*;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.mp.AdaptiveIdleStrategy;
+import io.questdb.mp.BackoffIdleStrategy;
+import io.questdb.mp.WorkerWakeup;
 import io.questdb.network.EpollFacadeImpl;
 import io.questdb.network.IOOperation;
 import io.questdb.network.NetworkFacadeImpl;
@@ -99,6 +102,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals("Keep-Alive: timeout=5, max=10000" + Misc.EOL, configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getKeepAliveHeader());
 
         Assert.assertEquals(256, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getActiveConnectionLimit());
+        Assert.assertEquals(1, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getDispatcherCount());
         Assert.assertEquals(1024, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getEventCapacity());
         Assert.assertEquals(1024, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getIOQueueCapacity());
         Assert.assertEquals(300000, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getIdleConnectionTimeout());
@@ -113,6 +117,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(0.1222d, configuration.getCairoConfiguration().getTextConfiguration().getMaxRequiredDelimiterStdDev(), 0.000000001);
         Assert.assertEquals(0.8, configuration.getCairoConfiguration().getTextConfiguration().getMaxRequiredLineLengthStdDev(), 0.000000001);
         Assert.assertEquals(128, configuration.getCairoConfiguration().getTextConfiguration().getMetadataStringPoolCapacity());
+        Assert.assertEquals(16 * 1024 * 1024, configuration.getCairoConfiguration().getTextConfiguration().getParallelImportChunkSize());
         Assert.assertEquals(1024 * 4096, configuration.getCairoConfiguration().getTextConfiguration().getRollBufferLimit());
         Assert.assertEquals(1024, configuration.getCairoConfiguration().getTextConfiguration().getRollBufferSize());
         Assert.assertEquals(1000, configuration.getCairoConfiguration().getTextConfiguration().getTextAnalysisMaxLines());
@@ -170,6 +175,9 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlSortLightValueMaxPages());
         Assert.assertEquals(16 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinValuePageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlHashJoinValueMaxPages());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlHashJoinSpillEnabled());
+        Assert.assertEquals(256 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinSpillThreshold());
+        Assert.assertEquals(32, configuration.getCairoConfiguration().getSqlHashJoinSpillPartitionCount());
         Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlLatestByRowCount());
         Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinLightValuePageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlHashJoinLightValueMaxPages());
@@ -177,6 +185,24 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlSortValueMaxPages());
         Assert.assertEquals(10000, configuration.getCairoConfiguration().getWorkStealTimeoutNanos());
         Assert.assertTrue(configuration.getCairoConfiguration().isParallelIndexingEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isOutOfOrderParallelCopyEnabled());
+        Assert.assertEquals(64 * 1024 * 1024, configuration.getCairoConfiguration().getInflatedColumnCacheSize());
+        Assert.assertEquals(1024 * 1024 * 1024, configuration.getCairoConfiguration().getInflatedColumnMemoryLimit());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelFilterEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlJitFilterEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelHashJoinEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelSampleByEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelGroupByEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlVectorSampleByEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlLatestByRowsEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlAsOfJoinSeekEnabled());
+        Assert.assertEquals(1_000_000, configuration.getCairoConfiguration().getSqlPageFrameMaxRows());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlMapSpillEnabled());
+        Assert.assertEquals(256 * 1024 * 1024, configuration.getCairoConfiguration().getSqlMapSpillThreshold());
+        Assert.assertEquals(64, configuration.getCairoConfiguration().getSqlMapSpillPartitionCount());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlRadixSortEnabled());
+        Assert.assertEquals(256 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortSpillThreshold());
+        Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlSortTopKMaxRows());
         Assert.assertEquals(16 * 1024, configuration.getCairoConfiguration().getSqlJoinMetadataPageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlJoinMetadataMaxResizes());
         Assert.assertEquals(64, configuration.getCairoConfiguration().getAnalyticColumnPoolCapacity());
@@ -221,6 +247,7 @@ public class PropServerConfigurationTest {
         // influxdb line TCP protocol
         Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().isEnabled());
         Assert.assertEquals(10, configuration.getLineTcpReceiverConfiguration().getNetDispatcherConfiguration().getActiveConnectionLimit());
+        Assert.assertEquals(1, configuration.getLineTcpReceiverConfiguration().getNetDispatcherConfiguration().getDispatcherCount());
         Assert.assertEquals(0, configuration.getLineTcpReceiverConfiguration().getNetDispatcherConfiguration().getBindIPv4Address());
         Assert.assertEquals(9009, configuration.getLineTcpReceiverConfiguration().getNetDispatcherConfiguration().getBindPort());
         Assert.assertEquals(1024, configuration.getLineTcpReceiverConfiguration().getNetDispatcherConfiguration().getEventCapacity());
@@ -235,7 +262,10 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(4096, configuration.getLineTcpReceiverConfiguration().getNetMsgBufferSize());
         Assert.assertEquals(4096, configuration.getLineTcpReceiverConfiguration().getMaxMeasurementSize());
         Assert.assertEquals(128, configuration.getLineTcpReceiverConfiguration().getWriterQueueSize());
+        Assert.assertEquals(1000, configuration.getLineTcpReceiverConfiguration().getWriterBatchRows());
         Assert.assertEquals(0, configuration.getLineTcpReceiverConfiguration().getWorkerPoolConfiguration().getWorkerCount());
+        Assert.assertTrue(configuration.getWorkerPoolConfiguration().getIdleStrategyFactory().newInstance(new WorkerWakeup()) instanceof BackoffIdleStrategy);
+        Assert.assertFalse(configuration.getWorkerPoolConfiguration().isJobCountersEnabled());
         Assert.assertArrayEquals(new int[]{}, configuration.getLineTcpReceiverConfiguration().getWorkerPoolConfiguration().getWorkerAffinity());
         Assert.assertFalse(configuration.getLineTcpReceiverConfiguration().getWorkerPoolConfiguration().haltOnError());
         Assert.assertEquals(10_000, configuration.getLineTcpReceiverConfiguration().getNUpdatesPerLoadRebalance());
@@ -277,6 +307,7 @@ public class PropServerConfigurationTest {
 
         // long
         properties.setProperty("http.multipart.idle.spin.count", "400");
+        env.put("QDB_SHARED_WORKER_IDLE_STRATEGY", "adaptive");
         env.put("QDB_HTTP_MULTIPART_IDLE_SPIN_COUNT", "900");
 
         // boolean
@@ -293,6 +324,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals("2.0 ", configuration.getHttpServerConfiguration().getHttpContextConfiguration().getHttpVersion());
         Assert.assertEquals(3, configuration.getWorkerPoolConfiguration().getWorkerCount());
         Assert.assertArrayEquals(new int[]{5, 6, 7}, configuration.getWorkerPoolConfiguration().getWorkerAffinity());
+        Assert.assertTrue(configuration.getWorkerPoolConfiguration().getIdleStrategyFactory().newInstance(new WorkerWakeup()) instanceof AdaptiveIdleStrategy);
         Assert.assertEquals(12288, configuration.getHttpServerConfiguration().getHttpContextConfiguration().getSendBufferSize());
         Assert.assertEquals(900, configuration.getHttpServerConfiguration().getHttpContextConfiguration().getMultipartIdleSpinCount());
         Assert.assertFalse(configuration.getHttpServerConfiguration().getHttpContextConfiguration().readOnlySecurityContext());
@@ -351,6 +383,13 @@ public class PropServerConfigurationTest {
         new PropServerConfiguration("root", properties, null, LOG);
     }
 
+    @Test(expected = ServerConfigurationException.class)
+    public void testInvalidIdleStrategy() throws ServerConfigurationException, JsonException {
+        Properties properties = new Properties();
+        properties.setProperty("shared.worker.idle.strategy", "sleepy");
+        new PropServerConfiguration("root", properties, null, LOG);
+    }
+
     @Test(expected = ServerConfigurationException.class)
     public void testInvalidIntSize() throws ServerConfigurationException, JsonException {
         Properties properties = new Properties();
@@ -415,6 +454,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(6, configuration.getHttpServerConfiguration().getWorkerCount());
             Assert.assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6}, configuration.getHttpServerConfiguration().getWorkerAffinity());
             Assert.assertTrue(configuration.getHttpServerConfiguration().haltOnError());
+            Assert.assertTrue(configuration.getWorkerPoolConfiguration().isJobCountersEnabled());
             Assert.assertEquals(128, configuration.getHttpServerConfiguration().getHttpContextConfiguration().getSendBufferSize());
             Assert.assertEquals("index2.html", configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getIndexFileName());
             Assert.assertEquals(32, configuration.getHttpServerConfiguration().getQueryCacheRows());
@@ -433,6 +473,7 @@ public class PropServerConfigurationTest {
             Assert.assertTrue(configuration.getHttpServerConfiguration().getHttpContextConfiguration().allowDeflateBeforeSend());
 
             Assert.assertEquals(64, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getActiveConnectionLimit());
+            Assert.assertEquals(2, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getDispatcherCount());
             Assert.assertEquals(2048, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getEventCapacity());
             Assert.assertEquals(64, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getIOQueueCapacity());
             Assert.assertEquals(7000000, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getIdleConnectionTimeout());
@@ -447,6 +488,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(0.3d, configuration.getCairoConfiguration().getTextConfiguration().getMaxRequiredDelimiterStdDev(), 0.000000001);
             Assert.assertEquals(0.9d, configuration.getCairoConfiguration().getTextConfiguration().getMaxRequiredLineLengthStdDev(), 0.000000001);
             Assert.assertEquals(512, configuration.getCairoConfiguration().getTextConfiguration().getMetadataStringPoolCapacity());
+            Assert.assertEquals(4194304, configuration.getCairoConfiguration().getTextConfiguration().getParallelImportChunkSize());
             Assert.assertEquals(6144, configuration.getCairoConfiguration().getTextConfiguration().getRollBufferLimit());
             Assert.assertEquals(3072, configuration.getCairoConfiguration().getTextConfiguration().getRollBufferSize());
             Assert.assertEquals(400, configuration.getCairoConfiguration().getTextConfiguration().getTextAnalysisMaxLines());
@@ -498,6 +540,9 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(1027, configuration.getCairoConfiguration().getSqlSortLightValueMaxPages());
             Assert.assertEquals(8 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinValuePageSize());
             Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlHashJoinValueMaxPages());
+            Assert.assertTrue(configuration.getCairoConfiguration().isSqlHashJoinSpillEnabled());
+            Assert.assertEquals(16 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinSpillThreshold());
+            Assert.assertEquals(8, configuration.getCairoConfiguration().getSqlHashJoinSpillPartitionCount());
             Assert.assertEquals(10000, configuration.getCairoConfiguration().getSqlLatestByRowCount());
             Assert.assertEquals(2 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinLightValuePageSize());
             Assert.assertEquals(1025, configuration.getCairoConfiguration().getSqlHashJoinLightValueMaxPages());
@@ -505,6 +550,24 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(1028, configuration.getCairoConfiguration().getSqlSortValueMaxPages());
             Assert.assertEquals(1000000, configuration.getCairoConfiguration().getWorkStealTimeoutNanos());
             Assert.assertFalse(configuration.getCairoConfiguration().isParallelIndexingEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isOutOfOrderParallelCopyEnabled());
+            Assert.assertEquals(8 * 1024 * 1024, configuration.getCairoConfiguration().getInflatedColumnCacheSize());
+            Assert.assertEquals(32 * 1024 * 1024, configuration.getCairoConfiguration().getInflatedColumnMemoryLimit());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelFilterEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlJitFilterEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelHashJoinEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelSampleByEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelGroupByEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlVectorSampleByEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlLatestByRowsEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlAsOfJoinSeekEnabled());
+            Assert.assertEquals(100_000, configuration.getCairoConfiguration().getSqlPageFrameMaxRows());
+            Assert.assertTrue(configuration.getCairoConfiguration().isSqlMapSpillEnabled());
+            Assert.assertEquals(32 * 1024 * 1024, configuration.getCairoConfiguration().getSqlMapSpillThreshold());
+            Assert.assertEquals(16, configuration.getCairoConfiguration().getSqlMapSpillPartitionCount());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlRadixSortEnabled());
+            Assert.assertEquals(64 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortSpillThreshold());
+            Assert.assertEquals(50, configuration.getCairoConfiguration().getSqlSortTopKMaxRows());
             Assert.assertEquals(8 * 1024, configuration.getCairoConfiguration().getSqlJoinMetadataPageSize());
             Assert.assertEquals(10_000, configuration.getCairoConfiguration().getSqlJoinMetadataMaxResizes());
 
@@ -529,6 +592,7 @@ public class PropServerConfigurationTest {
             // influxdb line TCP protocol
             Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().isEnabled());
             Assert.assertEquals(11, configuration.getLineTcpReceiverConfiguration().getNetDispatcherConfiguration().getActiveConnectionLimit());
+            Assert.assertEquals(3, configuration.getLineTcpReceiverConfiguration().getNetDispatcherConfiguration().getDispatcherCount());
             Assert.assertEquals(167903521, configuration.getLineTcpReceiverConfiguration().getNetDispatcherConfiguration().getBindIPv4Address());
             Assert.assertEquals(9916, configuration.getLineTcpReceiverConfiguration().getNetDispatcherConfiguration().getBindPort());
             Assert.assertEquals(1025, configuration.getLineTcpReceiverConfiguration().getNetDispatcherConfiguration().getEventCapacity());
@@ -542,6 +606,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(2049, configuration.getLineTcpReceiverConfiguration().getNetMsgBufferSize());
             Assert.assertEquals(128, configuration.getLineTcpReceiverConfiguration().getMaxMeasurementSize());
             Assert.assertEquals(256, configuration.getLineTcpReceiverConfiguration().getWriterQueueSize());
+            Assert.assertEquals(500, configuration.getLineTcpReceiverConfiguration().getWriterBatchRows());
             Assert.assertEquals(2, configuration.getLineTcpReceiverConfiguration().getWorkerPoolConfiguration().getWorkerCount());
             Assert.assertArrayEquals(new int[]{1, 2}, configuration.getLineTcpReceiverConfiguration().getWorkerPoolConfiguration().getWorkerAffinity());
             Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().getWorkerPoolConfiguration().haltOnError());
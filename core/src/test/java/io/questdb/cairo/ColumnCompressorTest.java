@@ -0,0 +1,222 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.*;
+import io.questdb.std.str.NativeLPSZ;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnCompressorTest extends AbstractCairoTest {
+    private static final FilesFacade ff = FilesFacadeImpl.INSTANCE;
+
+    @Before
+    public void setUp1() {
+        // Zip allocates its static memory when class is loaded, this must not count as a leak
+        Assert.assertNotEquals(0, Zip.gzipHeader);
+    }
+
+    @Test
+    public void testCompressEmptyFile() throws Exception {
+        assertRoundTrip(0, 1024);
+    }
+
+    @Test
+    public void testCompressMultipleBlocks() throws Exception {
+        assertRoundTrip(1024 * 1024 + 13, 64 * 1024);
+    }
+
+    @Test
+    public void testCompressSingleBlock() throws Exception {
+        assertRoundTrip(1000, 64 * 1024);
+    }
+
+    @Test
+    public void testMissingFile() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (
+                    Path path = new Path().of(root).concat("missing.d").$();
+                    ColumnCompressor compressor = new ColumnCompressor(ff, 1024)
+            ) {
+                Assert.assertEquals(-1, compressor.compress(path));
+                Assert.assertEquals(-1, compressor.decompress(path));
+            }
+        });
+    }
+
+    @Test
+    public void testNotCompressedFile() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (Path path = new Path().of(root).concat("x.d.z").$()) {
+                writeFile(path, 128, new Rnd());
+                try {
+                    new CompressedOnePageMemory(ff, path);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "not a compressed column file");
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testSharedInflatedFiles() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (
+                    Path path = new Path().of(root).concat("x.d").$();
+                    Path compressedPath = new Path().of(root).concat("x.d.z").$();
+                    Path otherPath = new Path().of(root).concat("y.d").$();
+                    Path otherCompressedPath = new Path().of(root).concat("y.d.z").$();
+                    ColumnCompressor compressor = new ColumnCompressor(ff, 1024)
+            ) {
+                writeFile(path, 3000, new Rnd());
+                writeFile(otherPath, 2000, new Rnd());
+                Assert.assertTrue(compressor.compress(path) > 0);
+                Assert.assertTrue(compressor.compress(otherPath) > 0);
+
+                final NativeLPSZ name = new NativeLPSZ();
+                final InflatedColumnMemory inflatedMemory = new InflatedColumnMemory(configuration.getMicrosecondClock(), 4000, 4500);
+                final SharedColumnMappings mappings = new SharedColumnMappings(inflatedMemory);
+
+                SharedColumnMappings.Mapping mapping = mappings.acquire(ff, compressedPath, name.of(compressedPath.address()), true, 10, 0, 0);
+                // file is inflated on first read
+                Assert.assertEquals(0, inflatedMemory.getUsedSize());
+                final long address = mapping.getMemory().addressOf(0);
+                Assert.assertEquals(3000, inflatedMemory.getUsedSize());
+                assertContent(mapping.getMemory(), 3000);
+                mapping.close();
+
+                // last reader is gone, inflated file is kept for the next one
+                Assert.assertEquals(1, inflatedMemory.getIdleCount());
+                Assert.assertEquals(3000, inflatedMemory.getIdleSize());
+                mapping = mappings.acquire(ff, compressedPath, name.of(compressedPath.address()), true, 10, 0, 0);
+                Assert.assertEquals(address, mapping.getMemory().addressOf(0));
+                Assert.assertEquals(0, inflatedMemory.getIdleCount());
+                Assert.assertEquals(0, inflatedMemory.getIdleSize());
+                Assert.assertEquals(3000, inflatedMemory.getUsedSize());
+                mapping.close();
+
+                // file of another partition size is inflated again
+                mapping = mappings.acquire(ff, compressedPath, name.of(compressedPath.address()), true, 11, 0, 0);
+                Assert.assertEquals(0, inflatedMemory.getIdleCount());
+                assertContent(mapping.getMemory(), 3000);
+                mapping.close();
+                Assert.assertEquals(1, inflatedMemory.getIdleCount());
+
+                // memory limit cannot hold both files, file nobody reads goes first
+                mapping = mappings.acquire(ff, otherCompressedPath, name.of(otherCompressedPath.address()), true, 10, 0, 0);
+                assertContent(mapping.getMemory(), 2000);
+                mapping.close();
+                Assert.assertEquals(1, inflatedMemory.getIdleCount());
+                Assert.assertEquals(2000, inflatedMemory.getIdleSize());
+                Assert.assertEquals(2000, inflatedMemory.getUsedSize());
+
+                // files readers read cannot be freed
+                mapping = mappings.acquire(ff, compressedPath, name.of(compressedPath.address()), true, 10, 0, 0);
+                assertContent(mapping.getMemory(), 3000);
+                Assert.assertEquals(3000, inflatedMemory.getUsedSize());
+                final SharedColumnMappings.Mapping otherMapping = mappings.acquire(ff, otherCompressedPath, name.of(otherCompressedPath.address()), true, 10, 0, 0);
+                try {
+                    otherMapping.getMemory().addressOf(0);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "inflated column memory limit reached");
+                }
+                otherMapping.close();
+                mapping.close();
+                Assert.assertEquals(1, inflatedMemory.getIdleCount());
+                Assert.assertEquals(3000, inflatedMemory.getUsedSize());
+
+                inflatedMemory.releaseIdle(Long.MAX_VALUE);
+                Assert.assertEquals(0, inflatedMemory.getIdleCount());
+                Assert.assertEquals(0, inflatedMemory.getIdleSize());
+                Assert.assertEquals(0, inflatedMemory.getUsedSize());
+            }
+        });
+    }
+
+    private static void assertRoundTrip(long size, int blockSize) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (
+                    Path path = new Path().of(root).concat("x.d").$();
+                    Path compressedPath = new Path().of(root).concat("x.d.z").$();
+                    ColumnCompressor compressor = new ColumnCompressor(ff, blockSize)
+            ) {
+                writeFile(path, size, new Rnd());
+
+                Assert.assertTrue(compressor.compress(path) > 0);
+                Assert.assertFalse(ff.exists(path));
+                Assert.assertTrue(ff.exists(compressedPath));
+                // compressor leaves path intact
+                TestUtils.assertEquals(root.toString() + Files.SEPARATOR + "x.d", path);
+
+                try (CompressedOnePageMemory mem = new CompressedOnePageMemory(ff, compressedPath)) {
+                    Assert.assertEquals(size, mem.size());
+                    assertContent(mem, size);
+                }
+
+                Assert.assertEquals(size, compressor.decompress(path));
+                Assert.assertTrue(ff.exists(path));
+                Assert.assertFalse(ff.exists(compressedPath));
+
+                try (OnePageMemory mem = new OnePageMemory(ff, path, ff.length(path))) {
+                    Assert.assertEquals(size, mem.size());
+                    assertContent(mem, size);
+                }
+            }
+        });
+    }
+
+    private static void assertContent(OnePageMemory mem, long size) {
+        final Rnd rnd = new Rnd();
+        for (long i = 0; i < size; i++) {
+            Assert.assertEquals(expectedByte(rnd, i), mem.getByte(i));
+        }
+    }
+
+    private static byte expectedByte(Rnd rnd, long offset) {
+        // mix of repeating and random bytes for the data to be somewhat compressible
+        return offset % 3 == 0 ? rnd.nextByte() : (byte) (offset % 7);
+    }
+
+    private static void writeFile(Path path, long size, Rnd rnd) {
+        final long fd = ff.openRW(path);
+        Assert.assertTrue(fd > 0);
+        final long buf = Unsafe.malloc(Math.max(1, size));
+        try {
+            for (long i = 0; i < size; i++) {
+                Unsafe.getUnsafe().putByte(buf + i, expectedByte(rnd, i));
+            }
+            Assert.assertEquals(size, ff.write(fd, buf, size, 0));
+        } finally {
+            Unsafe.free(buf, Math.max(1, size));
+            ff.close(fd);
+        }
+    }
+}
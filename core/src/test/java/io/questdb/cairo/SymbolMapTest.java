@@ -96,6 +96,34 @@ public class SymbolMapTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testCacheBeyondCapacity() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            int N = 10000;
+            try (Path path = new Path().of(configuration.getRoot())) {
+                // capacity is well below symbol count to make off-heap cache grow
+                create(path, "x", 16, true);
+                try (SymbolMapWriter writer = new SymbolMapWriter(configuration, path, "x", 0)) {
+                    Assert.assertTrue(writer.isCached());
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, writer.put(Integer.toString(i)));
+                    }
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, writer.put(Integer.toString(i)));
+                    }
+                }
+
+                // reopened writer fills cache from symbol map content
+                try (SymbolMapWriter writer = new SymbolMapWriter(configuration, path, "x", N)) {
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, writer.put(Integer.toString(i)));
+                    }
+                    Assert.assertEquals(N, writer.getSymbolCount());
+                }
+            }
+        });
+    }
+
     @Test
     public void testLookupPerformance() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -288,6 +316,38 @@ public class SymbolMapTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testValueFlyweights() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (Path path = new Path().of(configuration.getRoot())) {
+                create(path, "x", 64, true);
+                try (SymbolMapWriter writer = new SymbolMapWriter(configuration, path, "x", 0)) {
+                    Assert.assertEquals(0, writer.put("abc"));
+                    Assert.assertEquals(1, writer.put("xyz"));
+                    Assert.assertEquals(2, writer.put("klmn"));
+                }
+
+                try (SymbolMapReaderImpl reader = new SymbolMapReaderImpl(configuration, path, "x", 3)) {
+                    CharSequence a = reader.valueOf(0);
+                    CharSequence b = reader.valueBOf(1);
+                    TestUtils.assertEquals("abc", a);
+                    TestUtils.assertEquals("xyz", b);
+
+                    // lookups must not disturb values held by caller
+                    Assert.assertEquals(2, reader.keyOf("klmn"));
+                    Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, reader.keyOf("abd"));
+                    TestUtils.assertEquals("abc", a);
+                    TestUtils.assertEquals("xyz", b);
+
+                    // B value is independent of A
+                    TestUtils.assertEquals("klmn", reader.valueBOf(2));
+                    TestUtils.assertEquals("abc", a);
+                    Assert.assertNull(reader.valueBOf(3));
+                }
+            }
+        });
+    }
+
     @Test
     public void testTransactionalRead() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -104,6 +104,7 @@ public class TableReaderRecordCursorFactoryTest extends AbstractCairoTest {
                         TableUtils.ANY_TABLE_VERSION,
                         columnIndexes,
                         columnSizes,
+                        false,
                         false
                 )) {
                     long count = 0;
@@ -1915,6 +1915,12 @@ public class TableReaderTest extends AbstractCairoTest {
         TestUtils.assertMemoryLeak(this::testTableCursor);
     }
 
+    @Test
+    public void testReadByHour() throws Exception {
+        CairoTestUtils.createAllTable(configuration, PartitionBy.HOUR);
+        TestUtils.assertMemoryLeak(() -> testTableCursor(10 * 60000));
+    }
+
     @Test
     public void testReadByMonth() throws Exception {
         CairoTestUtils.createAllTable(configuration, PartitionBy.MONTH);
@@ -2158,6 +2164,11 @@ public class TableReaderTest extends AbstractCairoTest {
         testRemoveActivePartition(PartitionBy.DAY, current -> Timestamps.addDays(Timestamps.floorDD(current), 1), "2017-12-15");
     }
 
+    @Test
+    public void testRemoveActivePartitionByHour() throws Exception {
+        testRemoveActivePartition(PartitionBy.HOUR, current -> Timestamps.addHours(Timestamps.floorHH(current), 1), "2017-12-11T04");
+    }
+
     @Test
     public void testRemoveActivePartitionByMonth() throws Exception {
         testRemoveActivePartition(PartitionBy.MONTH, current -> Timestamps.addMonths(Timestamps.floorMM(current), 1), "2018-04");
@@ -2516,6 +2527,16 @@ public class TableReaderTest extends AbstractCairoTest {
         testRemovePartitionReload(PartitionBy.DAY, "2017-12-14", 3000, current -> Timestamps.addDays(Timestamps.floorDD(current), 1));
     }
 
+    @Test
+    public void testRemovePartitionByHour() throws Exception {
+        testRemovePartition(PartitionBy.HOUR, "2017-12-11T12", 2000, current -> Timestamps.addHours(Timestamps.floorHH(current), 1));
+    }
+
+    @Test
+    public void testRemovePartitionByHourReload() throws Exception {
+        testRemovePartitionReload(PartitionBy.HOUR, "2017-12-11T03", 3000, current -> Timestamps.addHours(Timestamps.floorHH(current), 1));
+    }
+
     @Test
     public void testRemovePartitionByMonth() throws Exception {
         testRemovePartition(PartitionBy.MONTH, "2018-01", 1000, current -> Timestamps.addMonths(Timestamps.floorMM(current), 1));
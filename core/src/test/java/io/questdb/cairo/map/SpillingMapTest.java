@@ -0,0 +1,164 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.map;
+
+import io.questdb.cairo.AbstractCairoTest;
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.std.*;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+
+public class SpillingMapTest extends AbstractCairoTest {
+    private static final long MEMORY_LIMIT = 4 * Numbers.SIZE_1MB;
+
+    @Test
+    public void testClearRemovesSpillFiles() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (SpillingMap map = createMap()) {
+                populate(map, 400_000, 200_000);
+                Assert.assertTrue(map.isSpilled());
+                Assert.assertTrue(countSpillFiles() > 0);
+
+                map.clear();
+                Assert.assertFalse(map.isSpilled());
+                Assert.assertEquals(0, countSpillFiles());
+                Assert.assertEquals(0, map.size());
+
+                // map is reusable after clear
+                populate(map, 1000, 100);
+                assertCounts(map, 100, 10);
+            }
+        });
+    }
+
+    @Test
+    public void testInMemory() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (SpillingMap map = createMap()) {
+                populate(map, 10_000, 1000);
+                Assert.assertFalse(map.isSpilled());
+                Assert.assertEquals(1000, map.size());
+                assertCounts(map, 1000, 10);
+            }
+        });
+    }
+
+    @Test
+    public void testSpillAndMerge() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (SpillingMap map = createMap()) {
+                final int keyCount = 200_000;
+                final int repeats = 4;
+                long maxMemoryUsed = 0;
+                for (int i = 0, n = keyCount * repeats; i < n; i++) {
+                    MapKey key = map.withKey();
+                    maxMemoryUsed = Math.max(maxMemoryUsed, map.getMemoryUsed());
+                    putKey(key, i % keyCount);
+                    MapValue value = key.createValue();
+                    if (value.isNew()) {
+                        value.putLong(0, 1);
+                        value.putLong(1, i);
+                    } else {
+                        value.addLong(0, 1);
+                    }
+                }
+                Assert.assertTrue(map.isSpilled());
+                Assert.assertEquals(-1, map.size());
+                Assert.assertTrue(maxMemoryUsed <= MEMORY_LIMIT);
+
+                assertCounts(map, keyCount, repeats);
+                // cursor can be iterated again
+                assertCounts(map, keyCount, repeats);
+            }
+        });
+    }
+
+    private static void assertCounts(SpillingMap map, int keyCount, int expectedCount) {
+        final IntHashSet keys = new IntHashSet();
+        final RecordCursor cursor = map.getCursor();
+        final Record record = cursor.getRecord();
+        while (cursor.hasNext()) {
+            final int k = record.getInt(2);
+            Assert.assertTrue(keys.add(k));
+            Assert.assertEquals(expectedCount, record.getLong(0));
+            // value of the earliest occurrence is kept
+            Assert.assertEquals(k, record.getLong(1));
+            TestUtils.assertEquals("k" + k, record.getStr(3));
+        }
+        Assert.assertEquals(keyCount, keys.size());
+    }
+
+    private static int countSpillFiles() {
+        final File[] files = new File(root.toString(), "tmp").listFiles();
+        return files == null ? 0 : files.length;
+    }
+
+    private static SpillingMap createMap() {
+        ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+        keyTypes.add(ColumnType.INT);
+        keyTypes.add(ColumnType.STRING);
+        ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+        valueTypes.add(ColumnType.LONG);
+        valueTypes.add(ColumnType.LONG);
+        return new SpillingMap(
+                FilesFacadeImpl.INSTANCE,
+                new File(root.toString(), "tmp").getAbsolutePath(),
+                configuration.getMkDirMode(),
+                Numbers.SIZE_1MB,
+                keyTypes,
+                valueTypes,
+                1024,
+                0.5,
+                MEMORY_LIMIT,
+                16,
+                (destValue, srcValue) -> destValue.addLong(0, srcValue.getLong(0))
+        );
+    }
+
+    private static void populate(SpillingMap map, int n, int keyCount) {
+        for (int i = 0; i < n; i++) {
+            MapKey key = map.withKey();
+            putKey(key, i % keyCount);
+            MapValue value = key.createValue();
+            if (value.isNew()) {
+                value.putLong(0, 1);
+                value.putLong(1, i);
+            } else {
+                value.addLong(0, 1);
+            }
+        }
+    }
+
+    private static void putKey(MapKey key, int k) {
+        key.putInt(k);
+        key.putStr("k" + k);
+    }
+}
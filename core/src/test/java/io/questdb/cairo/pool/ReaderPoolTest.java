@@ -878,6 +878,60 @@ public class ReaderPoolTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testSharedPartitionMappings() throws Exception {
+        try (TableModel model = new TableModel(configuration, "w", PartitionBy.DAY)
+                .col("i", ColumnType.INT)
+                .col("s", ColumnType.STRING)
+                .timestamp()
+        ) {
+            CairoTestUtils.create(model);
+        }
+
+        assertWithPool(pool -> {
+            try (TableWriter w = new TableWriter(configuration, "w")) {
+                appendSharedMappingRows(w, 1);
+
+                try (
+                        TableReader r1 = pool.get("w");
+                        TableReader r2 = pool.get("w")
+                ) {
+                    Assert.assertNotSame(r1, r2);
+                    final String expected = printAllPartitions(r1);
+                    TestUtils.assertEquals(expected, printAllPartitions(r2));
+
+                    final int partitionCount = r1.getPartitionCount();
+                    Assert.assertEquals(3, partitionCount);
+                    for (int p = 0; p < partitionCount; p++) {
+                        for (int c = 0; c < 3; c++) {
+                            final long address1 = getColumnAddress(r1, p, c);
+                            final long address2 = getColumnAddress(r2, p, c);
+                            if (p < partitionCount - 1) {
+                                Assert.assertEquals(address1, address2);
+                            } else {
+                                // last partition is appended to, each reader maps it on its own
+                                Assert.assertNotEquals(address1, address2);
+                            }
+                        }
+                    }
+
+                    // same partition sizes under new data version must not resolve to old mappings
+                    w.truncate();
+                    appendSharedMappingRows(w, 2);
+
+                    Assert.assertTrue(r1.reload());
+                    final String truncated = printAllPartitions(r1);
+                    Assert.assertNotEquals(expected, truncated);
+                    Assert.assertNotEquals(getColumnAddress(r1, 0, 0), getColumnAddress(r2, 0, 0));
+
+                    Assert.assertTrue(r2.reload());
+                    TestUtils.assertEquals(truncated, printAllPartitions(r2));
+                    Assert.assertEquals(getColumnAddress(r1, 0, 0), getColumnAddress(r2, 0, 0));
+                }
+            }
+        });
+    }
+
     @Test
     public void testUnlockByAnotherThread() throws Exception {
         assertWithPool(pool -> {
@@ -927,6 +981,26 @@ public class ReaderPoolTest extends AbstractCairoTest {
         });
     }
 
+    private static void appendSharedMappingRows(TableWriter w, int multiplier) {
+        for (int i = 0; i < 30; i++) {
+            TableWriter.Row r = w.newRow(i * 8_640_000_000L);
+            r.putInt(0, i * multiplier);
+            r.putStr(1, multiplier == 1 ? "abc" : "xyz");
+            r.append();
+        }
+        w.commit();
+    }
+
+    private static long getColumnAddress(TableReader reader, int partitionIndex, int columnIndex) {
+        return reader.getColumn(TableReader.getPrimaryColumnIndex(reader.getColumnBase(partitionIndex), columnIndex)).getPageAddress(0);
+    }
+
+    private static String printAllPartitions(TableReader reader) {
+        sink.clear();
+        printer.print(reader.getCursor(), reader.getMetadata(), true);
+        return sink.toString();
+    }
+
     private void assertWithPool(PoolAwareCode code) throws Exception {
         assertWithPool(code, configuration);
     }
@@ -30,6 +30,7 @@ import io.questdb.TelemetryJob;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.DefaultCairoConfiguration;
 import io.questdb.cutlass.http.processors.*;
+import io.questdb.cutlass.text.TextImportJob;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.WorkerPool;
@@ -154,7 +155,7 @@ public class HttpQueryTestBuilder {
                                 engine,
                                 null,
                                 workerPool.getWorkerCount()
-                        ) : new TextImportProcessor(engine);
+                        ) : new TextImportProcessor(engine, messageBus, workerPool.getWorkerCount());
                     }
 
                     @Override
@@ -224,6 +225,7 @@ public class HttpQueryTestBuilder {
 
                 QueryCache.configure(httpConfiguration);
 
+                workerPool.assign(new TextImportJob(messageBus));
                 workerPool.start(LOG);
 
                 try {
@@ -1434,6 +1434,15 @@ public class IODispatcherTest {
 
     @Test
     public void testImportSkipLEV() throws Exception {
+        testImportSkipLEV("");
+    }
+
+    @Test
+    public void testImportSkipLEVParallel() throws Exception {
+        testImportSkipLEV("&parallel=true");
+    }
+
+    private void testImportSkipLEV(String extraParams) throws Exception {
         testImport(
                 "HTTP/1.1 200 OK\r\n" +
                         "Server: questDB/1.0\r\n" +
@@ -1445,7 +1454,7 @@ public class IODispatcherTest {
                         "{\"status\":\"OK\",\"location\":\"clipboard-157200856\",\"rowsRejected\":59,\"rowsImported\":59,\"header\":true,\"columns\":[{\"name\":\"VendorID\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"lpepPickupDatetime\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"LpepDropoffDatetime\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"StoreAndFwdFlag\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"RateCodeID\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"PickupLongitude\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"PickupLatitude\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"DropoffLongitude\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"DropoffLatitude\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"PassengerCount\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"TripDistance\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"FareAmount\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"Extra\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"MTATax\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"TipAmount\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"TollsAmount\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"EhailFee\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"TotalAmount\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"PaymentType\",\"type\":\"STRING\",\"size\":0,\"errors\":0},{\"name\":\"TripType\",\"type\":\"STRING\",\"size\":0,\"errors\":0}]}\r\n" +
                         "00\r\n" +
                         "\r\n",
-                "POST /upload?fmt=json&overwrite=true&forceHeader=true&skipLev=true&name=clipboard-157200856 HTTP/1.1\r\n" +
+                "POST /upload?fmt=json&overwrite=true&forceHeader=true&skipLev=true" + extraParams + "&name=clipboard-157200856 HTTP/1.1\r\n" +
                         "Host: localhost:9001\r\n" +
                         "Connection: keep-alive\r\n" +
                         "Content-Length: 832\r\n" +
@@ -3735,6 +3744,98 @@ public class IODispatcherTest {
         }, false);
     }
 
+    @Test
+    public void testMultipleDispatchers() throws Exception {
+        if (Os.type != Os.LINUX_AMD64 && Os.type != Os.LINUX_ARM64) {
+            return;
+        }
+
+        LOG.info().$("started testMultipleDispatchers").$();
+
+        assertMemoryLeak(() -> {
+            final int clientCount = 32;
+            SOCountDownLatch contextClosedLatch = new SOCountDownLatch(clientCount);
+
+            try (IODispatcher<HelloContext> dispatcher = IODispatchers.create(
+                    new DefaultIODispatcherConfiguration() {
+                        @Override
+                        public int getActiveConnectionLimit() {
+                            return clientCount;
+                        }
+
+                        @Override
+                        public int getDispatcherCount() {
+                            return 2;
+                        }
+
+                        @Override
+                        public int getInitialBias() {
+                            return IODispatcherConfiguration.BIAS_WRITE;
+                        }
+                    },
+                    (fd, dispatcher1) -> new HelloContext(fd, contextClosedLatch, dispatcher1)
+            )) {
+                Assert.assertTrue(dispatcher instanceof IODispatcherGroup);
+                AtomicBoolean serverRunning = new AtomicBoolean(true);
+                SOCountDownLatch serverHaltLatch = new SOCountDownLatch(2);
+
+                for (int i = 0; i < 2; i++) {
+                    final int workerId = i;
+                    new Thread(() -> {
+                        while (serverRunning.get()) {
+                            dispatcher.run(workerId);
+                            dispatcher.processIOQueue(
+                                    (operation, context) -> {
+                                        if (operation == IOOperation.WRITE) {
+                                            Assert.assertEquals(1024, Net.send(context.getFd(), context.buffer, 1024));
+                                            context.dispatcher.disconnect(context);
+                                        }
+                                    }
+                            );
+                        }
+                        serverHaltLatch.countDown();
+                    }).start();
+                }
+
+                long sockAddr = Net.sockaddr("127.0.0.1", 9001);
+                long buffer = Unsafe.malloc(1024);
+                try {
+                    for (int i = 0; i < clientCount; i++) {
+                        long fd = Net.socketTcp(true);
+                        try {
+                            Assert.assertTrue(fd > -1);
+                            Assert.assertEquals(0, Net.connect(fd, sockAddr));
+                            Assert.assertEquals(1024, Net.recv(fd, buffer, 1024));
+                        } finally {
+                            Net.close(fd);
+                        }
+                    }
+
+                    contextClosedLatch.await();
+
+                    serverRunning.set(false);
+                    serverHaltLatch.await();
+
+                    Assert.assertEquals(0, dispatcher.getConnectionCount());
+
+                    // every connection fired exactly one write event on the dispatcher that accepted it
+                    final IODispatcherGroup<HelloContext> group = (IODispatcherGroup<HelloContext>) dispatcher;
+                    long eventCount = 0;
+                    for (int i = 0, n = group.getDispatcherCount(); i < n; i++) {
+                        IODispatcherLinux<HelloContext> d = group.getDispatcher(i);
+                        Assert.assertTrue(d.getLoopCount() > 0);
+                        Assert.assertEquals(0, d.getPendingCount());
+                        eventCount += d.getEventCount();
+                    }
+                    Assert.assertTrue(eventCount >= clientCount);
+                } finally {
+                    Unsafe.free(buffer, 1024);
+                    Net.freeSockAddr(sockAddr);
+                }
+            }
+        });
+    }
+
     @Test
     public void testPostRequestToGetProcessor() throws Exception {
         testImport(
@@ -65,6 +65,7 @@ public class LineTcpConnectionContextTest extends AbstractCairoTest {
     private int rebalanceNLoadCheckCycles = 0;
     private int rebalanceNRebalances = 0;
     private long microSecondTicks;
+    private int writerBatchRows;
 
     @BeforeClass
     public static void setUp() throws IOException {
@@ -111,6 +112,7 @@ public class LineTcpConnectionContextTest extends AbstractCairoTest {
         };
         nWriterThreads = 2;
         microSecondTicks = -1;
+        writerBatchRows = 1000;
         lineTcpConfiguration = new DefaultLineTcpReceiverConfiguration() {
             @Override
             public int getNetMsgBufferSize() {
@@ -122,6 +124,11 @@ public class LineTcpConnectionContextTest extends AbstractCairoTest {
                 return 128;
             }
 
+            @Override
+            public int getWriterBatchRows() {
+                return writerBatchRows;
+            }
+
             @Override
             public NetworkFacade getNetworkFacade() {
                 return nf;
@@ -227,6 +234,62 @@ public class LineTcpConnectionContextTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testBatchRowLimit() throws Exception {
+        writerBatchRows = 3;
+        final AtomicInteger nCommits = new AtomicInteger();
+        runInContext(() -> {
+            recvBuffer = "weather,location=us-midwest temperature=82 1465839830100400200\n" +
+                    "weather,location=us-midwest temperature=83 1465839830100500200\n" +
+                    "weather,location=us-eastcoast temperature=81 1465839830101400200\n" +
+                    "weather,location=us-midwest temperature=85 1465839830102300200\n" +
+                    "weather,location=us-eastcoast temperature=89 1465839830102400200\n" +
+                    "weather,location=us-eastcoast temperature=80 1465839830102400200\n" +
+                    "weather,location=us-westcost temperature=82 1465839830102500200\n";
+            handleContextIO();
+            Assert.assertFalse(disconnected);
+            // 3 + 3 + 1 rows
+            Assert.assertEquals(3, nCommits.get());
+            waitForIOCompletion();
+            closeContext();
+            String expected = "location\ttemperature\ttimestamp\n" +
+                    "us-midwest\t82.0\t2016-06-13T17:43:50.100400Z\n" +
+                    "us-midwest\t83.0\t2016-06-13T17:43:50.100500Z\n" +
+                    "us-eastcoast\t81.0\t2016-06-13T17:43:50.101400Z\n" +
+                    "us-midwest\t85.0\t2016-06-13T17:43:50.102300Z\n" +
+                    "us-eastcoast\t89.0\t2016-06-13T17:43:50.102400Z\n" +
+                    "us-eastcoast\t80.0\t2016-06-13T17:43:50.102400Z\n" +
+                    "us-westcost\t82.0\t2016-06-13T17:43:50.102500Z\n";
+            assertTable(expected, "weather");
+        }, nCommits::incrementAndGet);
+    }
+
+    @Test
+    public void testBatchTableSwitch() throws Exception {
+        final AtomicInteger nCommits = new AtomicInteger();
+        runInContext(() -> {
+            recvBuffer = "weather,location=us-midwest temperature=82 1465839830100400200\n" +
+                    "weather,location=us-midwest temperature=83 1465839830100500200\n" +
+                    "rain,location=us-eastcoast mm=1.5,storm=t 1465839830101400200\n" +
+                    "rain,location=us-eastcoast mm=3i,storm=f 1465839830101500200\n" +
+                    "weather,location=us-midwest temperature=85,sky=\"clear\" 1465839830102300200\n" +
+                    "weather,location=us-westcost temperature=82 1465839830102500200\n";
+            handleContextIO();
+            Assert.assertFalse(disconnected);
+            Assert.assertEquals(3, nCommits.get());
+            waitForIOCompletion();
+            closeContext();
+            assertTable("location\ttemperature\ttimestamp\tsky\n" +
+                    "us-midwest\t82.0\t2016-06-13T17:43:50.100400Z\t\n" +
+                    "us-midwest\t83.0\t2016-06-13T17:43:50.100500Z\t\n" +
+                    "us-midwest\t85.0\t2016-06-13T17:43:50.102300Z\tclear\n" +
+                    "us-westcost\t82.0\t2016-06-13T17:43:50.102500Z\t\n", "weather");
+            // second row cannot be stored as double column is a long value
+            assertTable("location\tmm\tstorm\ttimestamp\n" +
+                    "us-eastcoast\t1.5\ttrue\t2016-06-13T17:43:50.101400Z\n", "rain");
+        }, nCommits::incrementAndGet);
+    }
+
     @Test
     public void testBadCast() throws Exception {
         addTable();
@@ -637,6 +700,8 @@ public class LineTcpConnectionContextTest extends AbstractCairoTest {
 
     @Test
     public void testFailure() throws Exception {
+        // commit every line, so that failure happens mid-buffer
+        writerBatchRows = 1;
         final AtomicInteger nCommitedLines = new AtomicInteger(4);
         Runnable onCommitNewEvent = () -> {
             if (nCommitedLines.decrementAndGet() <= 0) {
@@ -402,6 +402,60 @@ public class PGJobContextTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testBinaryResultFormat() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CountDownLatch haltLatch = new CountDownLatch(1);
+            final AtomicBoolean running = new AtomicBoolean(true);
+            try {
+                startBasicServer(
+                        NetworkFacadeImpl.INSTANCE,
+                        new DefaultPGWireConfiguration(),
+                        haltLatch,
+                        running
+                );
+
+                Properties properties = new Properties();
+                properties.setProperty("user", "admin");
+                properties.setProperty("password", "quest");
+                properties.setProperty("sslmode", "disable");
+                properties.setProperty("binaryTransfer", "true");
+                // use server-side prepared statement, and therefore binary results, from the first execution
+                properties.setProperty("prepareThreshold", "-1");
+                final Connection connection = DriverManager.getConnection("jdbc:postgresql://127.0.0.1:9120/qdb", properties);
+                PreparedStatement statement = connection.prepareStatement(
+                        "select" +
+                                " 1 a," +
+                                " 2L b," +
+                                " 3.5 c," +
+                                " cast(4.25 as float) d," +
+                                " cast(5 as short) e," +
+                                " true f," +
+                                " cast(null as int) g," +
+                                " cast(1576152000000000 as timestamp) h," +
+                                " 'abc' i" +
+                                " from long_sequence(2)"
+                );
+
+                final String expected = "a[INTEGER],b[BIGINT],c[DOUBLE],d[REAL],e[SMALLINT],f[BIT],g[INTEGER],h[TIMESTAMP],i[VARCHAR]\n" +
+                        "1,2,3.5,4.25,5,true,null,2019-12-12 12:00:00.0,abc\n" +
+                        "1,2,3.5,4.25,5,true,null,2019-12-12 12:00:00.0,abc\n";
+
+                StringSink sink = new StringSink();
+                for (int i = 0; i < 3; i++) {
+                    sink.clear();
+                    try (ResultSet rs = statement.executeQuery()) {
+                        assertResultSet(expected, sink, rs);
+                    }
+                }
+                connection.close();
+            } finally {
+                running.set(false);
+                haltLatch.await();
+            }
+        });
+    }
+
     @Test
     public void testBlobOverLimit() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -0,0 +1,368 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.text;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.*;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cutlass.text.types.TypeAdapter;
+import io.questdb.cutlass.text.types.TypeManager;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.std.microtime.TimestampFormatUtils;
+import io.questdb.std.str.DirectCharSink;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ParallelTextLoaderTest extends AbstractGriffinTest {
+    private static final int WORKER_COUNT = 3;
+
+    @Test
+    public void testChunkRowReplay() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (ts timestamp, b binary, l long256, s string)", sqlExecutionContext);
+            final TextConfiguration textConfiguration = configuration.getTextConfiguration();
+            final ObjList<CharSequence> names = new ObjList<>();
+            names.add("ts");
+            try (
+                    Path path = new Path();
+                    DirectCharSink utf8Sink = new DirectCharSink(textConfiguration.getUtf8SinkSize())
+            ) {
+                final TypeManager typeManager = new TypeManager(textConfiguration, utf8Sink);
+                try (
+                        CairoTextWriter textWriter = new CairoTextWriter(engine, path, typeManager);
+                        TextImportChunk chunk = new TextImportChunk(1024)
+                ) {
+                    final ObjList<TypeAdapter> types = new ObjList<>();
+                    types.add(typeManager.getTypeAdapter(ColumnType.STRING));
+                    textWriter.of("x", false, false, Atomicity.SKIP_ROW, PartitionBy.NONE, null);
+                    textWriter.prepareTable(AllowAllCairoSecurityContext.INSTANCE, names, types);
+
+                    final long bin = Unsafe.malloc(4);
+                    try {
+                        Unsafe.getUnsafe().putInt(bin, 0x04030201);
+                        chunk.of(new ObjList<>(), true, true);
+                        final TextChunkParser.ChunkRow row = new TextChunkParser.ChunkRow();
+                        row.of(chunk.getRows());
+
+                        row.begin(Numbers.LONG_NaN);
+                        row.putTimestamp(0, "2020-01-01T00:00:00.000001Z");
+                        row.putBin(1, bin, 4);
+                        row.putLong256(2, "0x01");
+                        row.putStr(3, "abc");
+                        row.append();
+
+                        row.begin(Numbers.LONG_NaN);
+                        row.putBin(1, null);
+                        row.putStr(3, "cancelled");
+                        row.cancel();
+
+                        row.begin(Numbers.LONG_NaN);
+                        row.putTimestamp(0, "2020-01-02T00:00:00.000Z");
+                        row.putBin(1, null);
+                        row.putStr(3, "def");
+                        row.append();
+                    } finally {
+                        Unsafe.free(bin, 4);
+                    }
+
+                    textWriter.append(chunk, 0);
+                    textWriter.commit();
+                }
+            }
+            TestUtils.assertEquals(
+                    "ts\tb\tl\ts\n" +
+                            "2020-01-01T00:00:00.000001Z\t00000000 01 02 03 04\t0x01\tabc\n" +
+                            "2020-01-02T00:00:00.000000Z\t\t\tdef\n",
+                    print(compiler, sqlExecutionContext, "x")
+            );
+        });
+    }
+
+    @Test
+    public void testNonPartitioned() throws Exception {
+        assertParallelLoad(generateCsv(2000, false, false), Atomicity.SKIP_ROW, PartitionBy.NONE, null, WORKER_COUNT);
+    }
+
+    @Test
+    public void testNonPartitionedSkipColumn() throws Exception {
+        assertParallelLoad(generateCsv(2000, true, false), Atomicity.SKIP_COL, PartitionBy.NONE, null, WORKER_COUNT);
+    }
+
+    @Test
+    public void testNonPartitionedSkipRow() throws Exception {
+        assertParallelLoad(generateCsv(2000, true, false), Atomicity.SKIP_ROW, PartitionBy.NONE, null, WORKER_COUNT);
+    }
+
+    @Test
+    public void testOwnerThreadOnly() throws Exception {
+        assertParallelLoad(generateCsv(1000, true, false), Atomicity.SKIP_ROW, PartitionBy.NONE, null, 0);
+    }
+
+    @Test
+    public void testPartitionedOutOfOrder() throws Exception {
+        assertParallelLoad(generateCsv(2000, false, true), Atomicity.SKIP_ROW, PartitionBy.DAY, "ts", WORKER_COUNT);
+    }
+
+    @Test
+    public void testPartitionedSkipAll() throws Exception {
+        assertParallelLoad(generateCsv(2000, true, false), Atomicity.SKIP_ALL, PartitionBy.DAY, "ts", WORKER_COUNT);
+    }
+
+    @Test
+    public void testPartitionedSkipRow() throws Exception {
+        // serial load cancels rows on the writer, which leaves designated timestamp of the cancelled row
+        // behind when no other column was written; parallel load never hands cancelled rows to the writer,
+        // text is ordered by timestamp, so non-partitioned serial load is the reference here
+        assertParallelLoad(generateCsv(2000, true, false), Atomicity.SKIP_ROW, PartitionBy.NONE, null, PartitionBy.DAY, "ts", WORKER_COUNT);
+    }
+
+    @Test
+    public void testSkipAll() throws Exception {
+        assertParallelLoad(generateCsv(2000, true, false), Atomicity.SKIP_ALL, PartitionBy.NONE, null, WORKER_COUNT);
+    }
+
+    private static String generateCsv(int lineCount, boolean errors, boolean shuffleTimestamps) {
+        final Rnd rnd = new Rnd();
+        final StringSink csv = new StringSink();
+        csv.put("i,s,sym,d,ts\r\n");
+        for (int i = 0; i < lineCount; i++) {
+            // bad values are kept out of structure analysis to keep column types stable
+            if (errors && i > 200 && rnd.nextPositiveInt() % 50 == 0) {
+                csv.put("x").put(i);
+            } else {
+                csv.put(i);
+            }
+            csv.put(',');
+            switch (rnd.nextPositiveInt() % 4) {
+                case 0:
+                    csv.put('"').put(rnd.nextChars(5)).put(",\"\"").put(rnd.nextChars(3)).put("\"\"\n").put(rnd.nextChars(4)).put('"');
+                    break;
+                case 1:
+                    break;
+                default:
+                    csv.put(rnd.nextChars(1 + rnd.nextPositiveInt() % 10));
+                    break;
+            }
+            csv.put(',');
+            csv.put("sym").put(rnd.nextPositiveInt() % 10);
+            csv.put(',');
+            csv.put(rnd.nextPositiveInt() % 1000 / 8.0, 3);
+            csv.put(',');
+            appendTimestamp(csv, rnd, i, shuffleTimestamps);
+            csv.put(rnd.nextPositiveInt() % 3 == 0 ? "\r\n" : "\n");
+            if (rnd.nextPositiveInt() % 100 == 0) {
+                csv.put("\n");
+            }
+        }
+        // last line without end of line
+        csv.put(lineCount).put(",last,sym1,1.5,");
+        appendTimestamp(csv, rnd, lineCount, shuffleTimestamps);
+        return csv.toString();
+    }
+
+    private static void appendTimestamp(StringSink csv, Rnd rnd, int line, boolean shuffle) {
+        // shuffled timestamps stay within single partition
+        final long millis = shuffle ? rnd.nextPositiveLong() % (24 * 3600_000L) : line * 60_000L;
+        TimestampFormatUtils.appendDateTimeUSec(csv, (1577836800000L + millis) * 1000L);
+    }
+
+    private static void load(TextLoader loader, CharSequence tableName, String text, int atomicity, int partitionBy, CharSequence timestampColumn) throws TextException {
+        loader.setState(TextLoader.ANALYZE_STRUCTURE);
+        loader.configureDestination(tableName, false, false, atomicity, partitionBy, timestampColumn);
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        final int len = bytes.length;
+        final long buf = Unsafe.malloc(len);
+        try {
+            for (int i = 0; i < len; i++) {
+                Unsafe.getUnsafe().putByte(buf + i, bytes[i]);
+            }
+            // feed text in uneven pieces to exercise chunks that span several parse() calls
+            final int bufSize = 777;
+            for (int lo = 0; lo < len; lo += bufSize) {
+                loader.parse(buf + lo, buf + Math.min(len, lo + bufSize), AllowAllCairoSecurityContext.INSTANCE);
+            }
+            loader.wrapUp();
+        } finally {
+            Unsafe.free(buf, len);
+        }
+    }
+
+    private static String print(SqlCompiler compiler, SqlExecutionContext executionContext, CharSequence query) throws Exception {
+        try (
+                RecordCursorFactory factory = compiler.compile(query, executionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(executionContext)
+        ) {
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), true);
+            return sink.toString();
+        }
+    }
+
+    private static String loadAndPrint(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext executionContext,
+            String tableName,
+            String text,
+            int atomicity,
+            int partitionBy,
+            CharSequence timestampColumn,
+            MessageBus messageBus,
+            int workerCount
+    ) throws Exception {
+        final StringSink result = new StringSink();
+        try (TextLoader loader = new TextLoader(engine)) {
+            if (workerCount > -1) {
+                loader.setParallel(messageBus, workerCount);
+                Assert.assertTrue(loader.isParallel());
+            }
+            try {
+                load(loader, tableName, text, atomicity, partitionBy, timestampColumn);
+                result.put("parsed=").put(loader.getParsedLineCount())
+                        .put(", written=").put(loader.getWrittenLineCount())
+                        .put(", errors=").put(loader.getErrorLineCount());
+                final LongList errorCounts = loader.getColumnErrorCounts();
+                for (int i = 0, n = errorCounts.size(); i < n; i++) {
+                    result.put(", ").put(errorCounts.getQuick(i));
+                }
+                result.put('\n');
+            } catch (CairoException e) {
+                result.put(e.getFlyweightMessage()).put('\n');
+            }
+            Assert.assertFalse(loader.isParallel() && workerCount < 0);
+        }
+        result.put(print(compiler, executionContext, tableName));
+        return result.toString();
+    }
+
+    private void assertParallelLoad(String text, int atomicity, int partitionBy, CharSequence timestampColumn, int workerCount) throws Exception {
+        assertParallelLoad(text, atomicity, partitionBy, timestampColumn, partitionBy, timestampColumn, workerCount);
+    }
+
+    private void assertParallelLoad(
+            String text,
+            int atomicity,
+            int serialPartitionBy,
+            CharSequence serialTimestampColumn,
+            int partitionBy,
+            CharSequence timestampColumn,
+            int workerCount
+    ) throws Exception {
+        assertMemoryLeak(() -> {
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                private final TextConfiguration textConfiguration = new DefaultTextConfiguration() {
+                    @Override
+                    public int getParallelImportChunkSize() {
+                        return 1024;
+                    }
+                };
+
+                @Override
+                public TextConfiguration getTextConfiguration() {
+                    return textConfiguration;
+                }
+
+                @Override
+                public boolean isOutOfOrderEnabled() {
+                    return true;
+                }
+            };
+
+            try (
+                    CairoEngine engine = new CairoEngine(configuration);
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1)
+                        .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+                final MessageBus messageBus = engine.getMessageBus();
+
+                final String expected = loadAndPrint(engine, compiler, executionContext, "serial", text, atomicity, serialPartitionBy, serialTimestampColumn, null, -1);
+                Assert.assertTrue(expected.length() > 0);
+
+                runWithWorkers(messageBus, () -> {
+                    final String actual = loadAndPrint(engine, compiler, executionContext, "parallel", text, atomicity, partitionBy, timestampColumn, messageBus, workerCount);
+                    TestUtils.assertEquals(expected, actual);
+                });
+
+                Assert.assertEquals(0, engine.getBusyWriterCount());
+                Assert.assertEquals(0, engine.getBusyReaderCount());
+            }
+        });
+    }
+
+    private void runWithWorkers(MessageBus messageBus, LoadCode code) throws Exception {
+        final Sequence seq = messageBus.getTextImportSubSequence();
+        // consume sequence fully and do nothing
+        // this might be needed to make sure we don't consume things other tests publish here
+        while (true) {
+            long cursor = seq.next();
+            if (cursor == -1) {
+                break;
+            } else if (cursor > -1) {
+                seq.done(cursor);
+            }
+        }
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final SOCountDownLatch haltLatch = new SOCountDownLatch(WORKER_COUNT);
+        final TextImportJob job = new TextImportJob(messageBus);
+        for (int i = 0; i < WORKER_COUNT; i++) {
+            final int workerId = i;
+            new Thread(() -> {
+                while (running.get()) {
+                    job.run(workerId);
+                }
+                haltLatch.countDown();
+            }).start();
+        }
+
+        try {
+            code.run();
+        } finally {
+            running.set(false);
+            haltLatch.await();
+        }
+    }
+
+    @FunctionalInterface
+    private interface LoadCode {
+        void run() throws Exception;
+    }
+}
@@ -31,7 +31,11 @@ import io.questdb.cairo.TableUtils;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.engine.functions.bind.BindVariableService;
+import io.questdb.mp.Job;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.mp.Sequence;
 import io.questdb.std.*;
+import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -40,8 +44,11 @@ import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class AbstractGriffinTest extends AbstractCairoTest {
     protected static final BindVariableService bindVariableService = new BindVariableService();
+    protected static final int PARALLEL_WORKER_COUNT = 4;
     private static final LongList rows = new LongList();
     protected static SqlExecutionContext sqlExecutionContext;
     protected static CairoEngine engine;
@@ -373,6 +380,119 @@ public class AbstractGriffinTest extends AbstractCairoTest {
         }
     }
 
+    /**
+     * Runs query on worker pool and compares result with result of single threaded run.
+     *
+     * @param subSeq       subscriber sequence of the queue query publishes tasks to
+     * @param job          job that runs tasks of the queue
+     * @param factoryClass factory that plan of the query run on worker pool must contain, query must return rows
+     *                     for the check to mean anything; null skips both checks
+     * @param query        query to run
+     * @param ddl          statements that create test data
+     */
+    protected static void assertParallel(Sequence subSeq, Job job, @Nullable Class<?> factoryClass, String query, String... ddl) throws Exception {
+        assertMemoryLeak(() -> {
+            for (int i = 0; i < ddl.length; i++) {
+                compiler.compile(ddl[i], sqlExecutionContext);
+            }
+            final String expected = printQuery(compiler, sqlExecutionContext, query);
+            if (factoryClass != null) {
+                Assert.assertTrue(expected.indexOf('\n') < expected.length() - 1);
+            }
+            runWithWorkers(subSeq, job, parallelContext -> {
+                if (factoryClass != null) {
+                    TestUtils.assertContains(planOf(compiler, parallelContext, query), factoryClass.getSimpleName());
+                }
+                TestUtils.assertEquals(expected, printQuery(compiler, parallelContext, query));
+            });
+        });
+    }
+
+    /**
+     * @return profile of the query, it names factories query runs on
+     */
+    protected static String planOf(SqlCompiler compiler, SqlExecutionContext executionContext, CharSequence query) throws SqlException {
+        try (
+                RecordCursorFactory factory = compiler.compile("explain analyze " + query, executionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(executionContext)
+        ) {
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), false);
+            return sink.toString();
+        }
+    }
+
+    /**
+     * Prints result of the query with header. Query runs twice, second pass makes sure factory cursor can be reused.
+     */
+    protected static String printQuery(SqlCompiler compiler, SqlExecutionContext executionContext, CharSequence query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, executionContext).getRecordCursorFactory()) {
+            final StringSink result = new StringSink();
+            for (int i = 0; i < 2; i++) {
+                sink.clear();
+                try (RecordCursor cursor = factory.getCursor(executionContext)) {
+                    printer.print(cursor, factory.getMetadata(), true);
+                }
+                if (i == 0) {
+                    result.put(sink);
+                } else {
+                    TestUtils.assertEquals(result, sink);
+                }
+            }
+            return result.toString();
+        }
+    }
+
+    protected static void runWithWorkers(Sequence subSeq, Job job, ParallelCode code) throws Exception {
+        runWithWorkers(subSeq, job, 0, code);
+    }
+
+    /**
+     * Runs code with execution context of {@link #PARALLEL_WORKER_COUNT} workers. Worker threads run job until code is done.
+     *
+     * @param firstWorkerId id of the first worker thread, lower ids are left to the thread that runs query
+     */
+    protected static void runWithWorkers(Sequence subSeq, Job job, int firstWorkerId, ParallelCode code) throws Exception {
+        // consume sequence fully and do nothing
+        // this might be needed to make sure we don't consume things other tests publish here
+        while (true) {
+            long cursor = subSeq.next();
+            if (cursor == -1) {
+                break;
+            } else if (cursor > -1) {
+                subSeq.done(cursor);
+            }
+        }
+
+        final SqlExecutionContext parallelContext = new SqlExecutionContextImpl(engine, PARALLEL_WORKER_COUNT)
+                .with(
+                        AllowAllCairoSecurityContext.INSTANCE,
+                        bindVariableService,
+                        null,
+                        -1,
+                        null
+                );
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final SOCountDownLatch haltLatch = new SOCountDownLatch(PARALLEL_WORKER_COUNT - firstWorkerId);
+        for (int i = firstWorkerId; i < PARALLEL_WORKER_COUNT; i++) {
+            final int workerId = i;
+            new Thread(() -> {
+                while (running.get()) {
+                    job.run(workerId);
+                }
+                haltLatch.countDown();
+            }).start();
+        }
+
+        try {
+            code.run(parallelContext);
+        } finally {
+            running.set(false);
+            haltLatch.await();
+        }
+    }
+
     protected static void printSqlResult(
             CharSequence expected,
             CharSequence query,
@@ -703,4 +823,9 @@ public class AbstractGriffinTest extends AbstractCairoTest {
             assertFactoryCursor(expected, null, factory, true, sqlExecutionContext, true, true);
         }
     }
+
+    @FunctionalInterface
+    protected interface ParallelCode {
+        void run(SqlExecutionContext parallelContext) throws Exception;
+    }
 }
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.InflatedColumnMemory;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.std.Files;
+import io.questdb.std.Rnd;
+import io.questdb.std.Zip;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.questdb.griffin.CompiledQuery.ALTER;
+
+public class AlterTableCompressPartitionTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+        // Zip allocates its static memory when class is loaded, this must not count as a leak
+        Assert.assertNotEquals(0, Zip.gzipHeader);
+    }
+
+    @Test
+    public void testAddIndexToCompressedPartition() throws Exception {
+        assertSameAsUncompressed(
+                "alter table %s alter column sym add index",
+                "select * from %s where sym = 'ibm'"
+        );
+    }
+
+    @Test
+    public void testCompressActivePartition() throws Exception {
+        assertFailure("alter table x compress partition list '2018-01-09'", 38, "could not compress partition");
+    }
+
+    @Test
+    public void testCompressAndRead() throws Exception {
+        assertMemoryLeak(() -> {
+            createX("x");
+            final String expected = print("select * from x");
+            final String expectedAgg = print("select sym, sum(amt), sum(j) from x order by sym");
+
+            Assert.assertEquals(ALTER, compiler.compile("alter table x compress partition list '2018-01-02', '2018-01-03'", sqlExecutionContext).getType());
+            assertCompressed("x", "2018-01-02", true);
+            assertCompressed("x", "2018-01-03", true);
+            assertCompressed("x", "2018-01-04", false);
+
+            // pooled readers still have raw files mapped
+            TestUtils.assertEquals(expected, print("select * from x"));
+
+            engine.releaseAllReaders();
+            TestUtils.assertEquals(expected, print("select * from x"));
+            TestUtils.assertEquals(expectedAgg, print("select sym, sum(amt), sum(j) from x order by sym"));
+            TestUtils.assertEquals(
+                    "count\n120\n",
+                    print("select count() from x where timestamp = '2018-01-02'")
+            );
+        });
+    }
+
+    @Test
+    public void testColumnsInflatedOnRead() throws Exception {
+        assertMemoryLeak(() -> {
+            createX("x");
+            Assert.assertEquals(ALTER, compiler.compile("alter table x compress partition list '2018-01-02', '2018-01-03'", sqlExecutionContext).getType());
+            engine.releaseAllReaders();
+
+            final InflatedColumnMemory inflatedMemory = engine.getInflatedColumnMemory();
+            print("select sum(j) from x");
+            final long usedSize = inflatedMemory.getUsedSize();
+            Assert.assertTrue(usedSize > 0);
+
+            // columns query does not read stay compressed
+            print("select * from x");
+            Assert.assertTrue(inflatedMemory.getUsedSize() > usedSize);
+
+            engine.releaseAllReaders();
+            Assert.assertEquals(0, inflatedMemory.getUsedSize());
+        });
+    }
+
+    @Test
+    public void testCompressMissingPartition() throws Exception {
+        assertFailure("alter table x compress partition list '2017-01-05'", 38, "could not compress partition");
+    }
+
+    @Test
+    public void testCompressPartitionExpectList() throws Exception {
+        assertFailure("alter table x compress partition", 32, "'list' expected");
+    }
+
+    @Test
+    public void testCompressPartitionNameMissing() throws Exception {
+        assertFailure("alter table x compress partition list ,", 38, "partition name missing");
+    }
+
+    @Test
+    public void testCompressTwice() throws Exception {
+        assertSameAsUncompressed(
+                "alter table %s compress partition list '2018-01-02'",
+                "select * from %s"
+        );
+    }
+
+    @Test
+    public void testDropColumnOfCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createX("x");
+            compiler.compile("alter table x compress partition list '2018-01-02'", sqlExecutionContext);
+            compiler.compile("alter table x drop column n", sqlExecutionContext);
+            try (Path path = new Path()) {
+                Assert.assertFalse(Files.exists(path.of(configuration.getRoot()).concat("x").concat("2018-01-02").concat("n.d.z").$()));
+                Assert.assertFalse(Files.exists(path.of(configuration.getRoot()).concat("x").concat("2018-01-02").concat("n.i.z").$()));
+            }
+            // column of the same name starts empty
+            compiler.compile("alter table x add column n string", sqlExecutionContext);
+            engine.releaseAllReaders();
+            TestUtils.assertEquals(
+                    "count\n0\n",
+                    print("select count() from x where n != null")
+            );
+        });
+    }
+
+    @Test
+    public void testOutOfOrderInsertIntoCompressedPartition() throws Exception {
+        final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+            @Override
+            public boolean isOutOfOrderEnabled() {
+                return true;
+            }
+        };
+        assertMemoryLeak(() -> {
+            try (
+                    CairoEngine engine = new CairoEngine(configuration);
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1)
+                        .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+                assertSameAsUncompressed(
+                        engine,
+                        compiler,
+                        executionContext,
+                        "insert into %s select" +
+                                " cast(x as int) i," +
+                                " rnd_symbol('msft','ibm', 'googl') sym," +
+                                " round(rnd_double(0)*100, 3) amt," +
+                                " to_timestamp('2018-01-02', 'yyyy-MM-dd') + x * 1000000 timestamp," +
+                                " rnd_str('ABC', 'CDE', null, 'XYZ') c," +
+                                " rnd_long() j," +
+                                " rnd_bin(10, 20, 2) m," +
+                                " rnd_str(5,16,2) n" +
+                                " from long_sequence(10)",
+                        "select * from %s"
+                );
+                // writer restores raw files of the partition it merges into
+                assertCompressed("x", "2018-01-02", false);
+                assertCompressed("x", "2018-01-03", true);
+            }
+        });
+    }
+
+    @Test
+    public void testRenameColumnOfCompressedPartition() throws Exception {
+        assertSameAsUncompressed(
+                "alter table %s rename column c to c2",
+                "select c2, n from %s where timestamp = '2018-01-02'"
+        );
+    }
+
+    private void assertCompressed(String tableName, String partitionName, boolean compressed) {
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(tableName).concat(partitionName);
+            final int plen = path.length();
+            Assert.assertEquals(compressed, Files.exists(path.concat("j.d.z").$()));
+            Assert.assertEquals(!compressed, Files.exists(path.trimTo(plen).concat("j.d").$()));
+            Assert.assertEquals(compressed, Files.exists(path.trimTo(plen).concat("n.i.z").$()));
+            Assert.assertEquals(!compressed, Files.exists(path.trimTo(plen).concat("n.i").$()));
+        }
+    }
+
+    private void assertFailure(String sql, int position, String message) throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                createX("x");
+                compiler.compile(sql, sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(position, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), message);
+            }
+        });
+    }
+
+    /**
+     * Runs same statement against compressed and uncompressed copies of the table
+     * and asserts that query results are the same.
+     */
+    private void assertSameAsUncompressed(String statement, String query) throws Exception {
+        assertMemoryLeak(() -> assertSameAsUncompressed(engine, compiler, sqlExecutionContext, statement, query));
+    }
+
+    private void assertSameAsUncompressed(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext executionContext,
+            String statement,
+            String query
+    ) throws SqlException {
+        createX(compiler, executionContext, "x");
+        createX(compiler, executionContext, "y");
+        compiler.compile("alter table x compress partition list '2018-01-02', '2018-01-03'", executionContext);
+        engine.releaseAllReaders();
+
+        SharedRandom.RANDOM.set(new Rnd());
+        compiler.compile(String.format(statement, "x"), executionContext);
+        SharedRandom.RANDOM.set(new Rnd());
+        compiler.compile(String.format(statement, "y"), executionContext);
+        engine.releaseAllReaders();
+
+        final String expected = print(compiler, executionContext, String.format(query, "y"));
+        Assert.assertTrue(expected.length() > 100);
+        TestUtils.assertEquals(expected, print(compiler, executionContext, String.format(query, "x")));
+    }
+
+    private void createX(String tableName) throws SqlException {
+        createX(compiler, sqlExecutionContext, tableName);
+    }
+
+    private static void createX(SqlCompiler compiler, SqlExecutionContext executionContext, String tableName) throws SqlException {
+        compiler.compile(
+                "create table " + tableName + " as (" +
+                        "select" +
+                        " cast(x as int) i," +
+                        " rnd_symbol('msft','ibm', 'googl') sym," +
+                        " round(rnd_double(0)*100, 3) amt," +
+                        " to_timestamp('2018-01', 'yyyy-MM') + x * 720000000 timestamp," +
+                        " rnd_str('ABC', 'CDE', null, 'XYZ') c," +
+                        " rnd_long() j," +
+                        " rnd_bin(10, 20, 2) m," +
+                        " rnd_str(5,16,2) n" +
+                        " from long_sequence(1000)" +
+                        ") timestamp (timestamp) partition by DAY",
+                executionContext
+        );
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    private String print(String query) throws SqlException {
+        return print(compiler, sqlExecutionContext, query);
+    }
+
+    private static String print(SqlCompiler compiler, SqlExecutionContext executionContext, String query) throws SqlException {
+        try (
+                RecordCursorFactory factory = compiler.compile(query, executionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(executionContext)
+        ) {
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), true);
+            return sink.toString();
+        }
+    }
+}
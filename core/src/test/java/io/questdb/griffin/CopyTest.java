@@ -433,9 +433,18 @@ public class CopyTest extends AbstractCairoTest {
 
     @Test
     public void testSimpleCopy() throws Exception {
+        assertSimpleCopy("copy x from '/target/test-classes/csv/test-import.csv'");
+    }
+
+    @Test
+    public void testSimpleCopyParallel() throws Exception {
+        assertSimpleCopy("copy x from '/target/test-classes/csv/test-import.csv' with parallel true");
+    }
+
+    private void assertSimpleCopy(String copy) throws Exception {
         assertMemoryLeak(() -> {
 
-            compiler.compile("copy x from '/target/test-classes/csv/test-import.csv'", sqlExecutionContext);
+            compiler.compile(copy, sqlExecutionContext);
 
             final String expected = "StrSym\tIntSym\tIntCol\tDoubleCol\tIsoDate\tFmt1Date\tFmt2Date\tPhone\tboolean\tlong\n" +
                     "CMP1\t1\t6992\t2.12060110410675\t2015-01-05T19:15:09.000Z\t2015-01-05T19:15:09.000Z\t2015-01-05T00:00:00.000Z\t6992\ttrue\t4952743\n" +
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.griffin.engine.profile.ProfiledRecordCursorFactory;
+import io.questdb.std.Rnd;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExplainAnalyzeTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testExplainAnalyzeExpectsAnalyze() throws Exception {
+        assertFailure("explain select * from x", 8, "'analyze' expected");
+    }
+
+    @Test
+    public void testExplainAnalyzeExpectsQuery() throws Exception {
+        assertFailure("explain analyze", 15, "query expected");
+    }
+
+    @Test
+    public void testExplainAnalyzeExpectsSelect() throws Exception {
+        assertFailure("explain analyze insert into x select * from x", 16, "select query expected");
+    }
+
+    @Test
+    public void testExplainAnalyzeGroupBy() throws Exception {
+        assertProfile(
+                "explain analyze select sym, count() from x where i > 50 order by sym",
+                "SortedLightRecordCursorFactory\t3\t3\t1\n" +
+                        "  GroupByRecordCursorFactory\t3\t3\t1\n" +
+                        "    FilteredRecordCursorFactory\t50\t-1\t1\n" +
+                        "      DataFrameRecordCursorFactory\t100\t100\t1\n"
+        );
+    }
+
+    @Test
+    public void testExplainAnalyzeJoin() throws Exception {
+        assertProfile(
+                "explain analyze select x.i, y.i from x join (select * from x where i < 10) y on (sym)",
+                "SelectedRecordCursorFactory\t301\t-1\t1\n" +
+                        "  HashJoinLightRecordCursorFactory\t301\t-1\t1\n" +
+                        "    TableReaderRecordCursorFactory\t100\t100\t1\n" +
+                        "    FilteredRecordCursorFactory\t9\t-1\t1\n" +
+                        "      DataFrameRecordCursorFactory\t100\t100\t1\n"
+        );
+    }
+
+    @Test
+    public void testExplainAnalyzeUnion() throws Exception {
+        assertProfile(
+                "explain analyze select i from x where i < 3 union all select i from x where i > 98",
+                "UnionAllRecordCursorFactory\t4\t-1\t1\n" +
+                        "  FilteredRecordCursorFactory\t2\t-1\t1\n" +
+                        "    DataFrameRecordCursorFactory\t100\t100\t1\n" +
+                        "  FilteredRecordCursorFactory\t2\t-1\t1\n" +
+                        "    DataFrameRecordCursorFactory\t100\t100\t1\n"
+        );
+    }
+
+    @Test
+    public void testProfiledQueryResult() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            final String query = "select sym, sum(i) from x where i > 10 order by sym";
+            final String expected;
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                expected = print(factory);
+            }
+            try (RecordCursorFactory factory = compiler.compileProfiled(query, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof ProfiledRecordCursorFactory);
+                TestUtils.assertEquals(expected, print(factory));
+                final ProfiledRecordCursorFactory profiled = (ProfiledRecordCursorFactory) factory;
+                Assert.assertEquals(3, profiled.getRowCount());
+                Assert.assertEquals(1, profiled.getCursorCount());
+                // profile accumulates over executions
+                TestUtils.assertEquals(expected, print(factory));
+                Assert.assertEquals(6, profiled.getRowCount());
+                Assert.assertEquals(2, profiled.getCursorCount());
+            }
+        });
+    }
+
+    private void assertFailure(String query, int position, String message) throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            try {
+                compiler.compile(query, sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(position, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), message);
+            }
+        });
+    }
+
+    private void assertProfile(String query, String expected) throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                // query runs every time cursor is opened, counters start from zero
+                for (int i = 0; i < 2; i++) {
+                    sink.clear();
+                    try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                        final Record record = cursor.getRecord();
+                        while (cursor.hasNext()) {
+                            sink.put(record.getStr(0)).put('\t')
+                                    .put(record.getLong(1)).put('\t')
+                                    .put(record.getLong(2)).put('\t')
+                                    .put(record.getLong(3)).put('\n');
+                            Assert.assertTrue(record.getLong(4) >= 0);
+                            Assert.assertTrue(record.getLong(5) >= 0);
+                        }
+                    }
+                    TestUtils.assertEquals(expected, sink);
+                }
+            }
+        });
+    }
+
+    private void createX() throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " cast(x as int) i," +
+                        " rnd_symbol('msft','ibm', 'googl') sym," +
+                        " timestamp_sequence(0, 1000000000) ts" +
+                        " from long_sequence(100)" +
+                        ") timestamp (ts)",
+                sqlExecutionContext
+        );
+    }
+
+    private String print(RecordCursorFactory factory) {
+        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), true);
+            return sink.toString();
+        }
+    }
+}
@@ -26,11 +26,14 @@ package io.questdb.griffin;
 
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.OutOfOrderCopyJob;
 import io.questdb.cairo.TableWriter;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.mp.Sequence;
 import io.questdb.std.Chars;
 import io.questdb.std.Rnd;
 import io.questdb.std.microtime.TimestampFormatUtils;
@@ -42,6 +45,7 @@ import org.junit.Test;
 
 import java.io.File;
 import java.net.URL;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class OutOfOrderTest extends AbstractGriffinTest {
 
@@ -1696,6 +1700,93 @@ public class OutOfOrderTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testPartitionedOOMergeOOParallel() throws Exception {
+        Sequence seq = engine.getMessageBus().getOutOfOrderCopySubSequence();
+        // consume sequence fully and do nothing
+        // this might be needed to make sure we don't consume things other tests publish here
+        while (true) {
+            long cursor = seq.next();
+            if (cursor == -1) {
+                break;
+            } else if (cursor > -1) {
+                seq.done(cursor);
+            }
+        }
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final SOCountDownLatch haltLatch = new SOCountDownLatch(1);
+        final OutOfOrderCopyJob job = new OutOfOrderCopyJob(engine.getMessageBus());
+        new Thread(() -> {
+            while (running.get()) {
+                job.run(0);
+            }
+            haltLatch.countDown();
+        }).start();
+
+        try {
+            assertMemoryLeak(() -> {
+                        compiler.compile(
+                                "create table x_1 as (" +
+                                        "select" +
+                                        " cast(x as int) i," +
+                                        " rnd_symbol('msft','ibm', 'googl') sym," +
+                                        " round(rnd_double(0)*100, 3) amt," +
+                                        " to_timestamp('2018-01', 'yyyy-MM') + x * 720000000 timestamp," +
+                                        " rnd_boolean() b," +
+                                        " rnd_str('ABC', 'CDE', null, 'XYZ') c," +
+                                        " rnd_double(2) d," +
+                                        " rnd_float(2) e," +
+                                        " rnd_short(10,1024) f," +
+                                        " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) g," +
+                                        " rnd_symbol(4,4,4,2) ik," +
+                                        " rnd_long() j," +
+                                        " timestamp_shuffle(0,100000000000L) ts," +
+                                        " rnd_byte(2,50) l," +
+                                        " rnd_bin(10, 20, 2) m," +
+                                        " rnd_str(5,16,2) n," +
+                                        " rnd_char() t" +
+                                        " from long_sequence(10000)" +
+                                        ")",
+                                sqlExecutionContext
+                        );
+
+                        compiler.compile(
+                                "create table x as (select * from x_1 order by ts) timestamp(ts) partition by DAY",
+                                sqlExecutionContext
+                        );
+
+                        compiler.compile(
+                                "create table y as (select * from x_1) timestamp(ts) partition by DAY",
+                                sqlExecutionContext
+                        );
+
+                        final String sqlTemplate = "select i,sym,amt,timestamp,b,c,d,e,f,g,ik,ts,l,n,t,m from ";
+
+                        sink.clear();
+                        try (RecordCursorFactory factory = compiler.compile(sqlTemplate + "x", sqlExecutionContext).getRecordCursorFactory()) {
+                            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                                printer.print(cursor, factory.getMetadata(), true);
+                            }
+                        }
+
+                        String expected = Chars.toString(sink);
+
+                        sink.clear();
+                        try (RecordCursorFactory factory = compiler.compile(sqlTemplate + "y", sqlExecutionContext).getRecordCursorFactory()) {
+                            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                                printer.print(cursor, factory.getMetadata(), true);
+                            }
+                        }
+                        TestUtils.assertEquals(expected, sink);
+                    }
+            );
+        } finally {
+            running.set(false);
+            haltLatch.await();
+        }
+    }
+
     @Test
     public void testPartitionedOOONullSetters() throws Exception {
         assertMemoryLeak(() -> {
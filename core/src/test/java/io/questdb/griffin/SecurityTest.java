@@ -87,6 +87,12 @@ public class SecurityTest extends AbstractGriffinTest {
             public int getSqlSortLightValueMaxPages() {
                 return 11;
             }
+
+            @Override
+            public boolean isSqlRadixSortEnabled() {
+                // radix sort spills to disk instead of breaching sort page limits
+                return false;
+            }
         };
         memoryRestrictedEngine = new CairoEngine(readOnlyConfiguration);
         SqlExecutionInterruptor dummyInterruptor = () -> {
@@ -1138,7 +1138,7 @@ public class SqlParserTest extends AbstractGriffinTest {
                         "timestamp(t) " +
                         "partition by EPOCH",
                 128,
-                "'NONE', 'DAY', 'MONTH' or 'YEAR' expected"
+                "'NONE', 'HOUR', 'DAY', 'MONTH' or 'YEAR' expected"
         );
     }
 
@@ -3462,6 +3462,50 @@ public class SqlParserTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testOneAnalyticColumnRangeFrame() throws Exception {
+        assertQuery(
+                "select-analytic a, b, f(c) f over (partition by b order by ts range 3600000000 preceding) from (select [a, b, c, ts] from xyz timestamp (ts))",
+                "select a,b, f(c) over (partition by b order by ts range between 1h preceding and current row) from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("b", ColumnType.INT)
+                        .col("c", ColumnType.INT)
+                        .timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testOneAnalyticColumnRowsFrame() throws Exception {
+        assertQuery(
+                "select-analytic a, b, f(c) f over (order by ts rows 10 preceding), g(c) g over (rows unbounded preceding) from (select [a, b, c, ts] from xyz timestamp (ts))",
+                "select a,b, f(c) over (order by ts rows 10 preceding), g(c) over (rows between unbounded preceding and current row) from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("b", ColumnType.INT)
+                        .col("c", ColumnType.INT)
+                        .timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameEndNotCurrentRow() throws Exception {
+        assertSyntaxError(
+                "select a,b, f(c) over (partition by b order by ts rows between 1 preceding and 2 preceding) from xyz",
+                79,
+                "frame must end at current row"
+        );
+    }
+
+    @Test
+    public void testAnalyticRowsFrameIntervalOffset() throws Exception {
+        assertSyntaxError(
+                "select a,b, f(c) over (partition by b order by ts rows 1h preceding) from xyz",
+                55,
+                "invalid frame offset"
+        );
+    }
+
     @Test
     public void testOneAnalyticColumnPrefixed() throws Exception {
         // extra model in the middle is because we reference "b" as both "b" and "z.b"
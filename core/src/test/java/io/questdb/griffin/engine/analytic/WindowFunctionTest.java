@@ -0,0 +1,298 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.analytic;
+
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WindowFunctionTest extends AbstractGriffinTest {
+    private static final String DDL = "create table x as (" +
+            "select" +
+            " cast(case when x = 1 or x = 2 or x = 6 or x = 8 then 'a' else 'b' end as symbol) s," +
+            " cast(x as double) d," +
+            " timestamp_sequence(0, 1000000) ts" +
+            " from long_sequence(8)" +
+            ") timestamp(ts)";
+
+    @Test
+    public void testAnalyticFunctionExpected() throws Exception {
+        assertFailure(
+                "select ts, abs(d) over (order by ts) from x",
+                DDL,
+                11,
+                "analytic function expected"
+        );
+    }
+
+    @Test
+    public void testDescendingOrderIsCached() throws Exception {
+        final String query = "select ts, s, d, sum(d) over (order by ts desc) from x";
+        assertQuery(
+                "ts\ts\td\tsum\n" +
+                        "1970-01-01T00:00:00.000000Z\ta\t1.0\t36.0\n" +
+                        "1970-01-01T00:00:01.000000Z\ta\t2.0\t35.0\n" +
+                        "1970-01-01T00:00:02.000000Z\tb\t3.0\t33.0\n" +
+                        "1970-01-01T00:00:03.000000Z\tb\t4.0\t30.0\n" +
+                        "1970-01-01T00:00:04.000000Z\tb\t5.0\t26.0\n" +
+                        "1970-01-01T00:00:05.000000Z\ta\t6.0\t21.0\n" +
+                        "1970-01-01T00:00:06.000000Z\tb\t7.0\t15.0\n" +
+                        "1970-01-01T00:00:07.000000Z\ta\t8.0\t8.0\n",
+                query,
+                DDL,
+                null,
+                true
+        );
+        assertMemoryLeak(() -> assertFactory(query, CachedAnalyticRecordCursorFactory.class));
+    }
+
+    @Test
+    public void testLagLead() throws Exception {
+        final String query = "select ts, s, d," +
+                " lag(d) over (partition by s order by ts)," +
+                " lead(d) over (partition by s order by ts)," +
+                " lag(d, 2) over (order by ts)," +
+                " lead(d, 2) over (order by ts)" +
+                " from x";
+        assertQuery(
+                "ts\ts\td\tlag\tlead\tlag1\tlead1\n" +
+                        "1970-01-01T00:00:00.000000Z\ta\t1.0\tNaN\t2.0\tNaN\t3.0\n" +
+                        "1970-01-01T00:00:01.000000Z\ta\t2.0\t1.0\t6.0\tNaN\t4.0\n" +
+                        "1970-01-01T00:00:02.000000Z\tb\t3.0\tNaN\t4.0\t1.0\t5.0\n" +
+                        "1970-01-01T00:00:03.000000Z\tb\t4.0\t3.0\t5.0\t2.0\t6.0\n" +
+                        "1970-01-01T00:00:04.000000Z\tb\t5.0\t4.0\t7.0\t3.0\t7.0\n" +
+                        "1970-01-01T00:00:05.000000Z\ta\t6.0\t2.0\t8.0\t4.0\t8.0\n" +
+                        "1970-01-01T00:00:06.000000Z\tb\t7.0\t5.0\tNaN\t5.0\tNaN\n" +
+                        "1970-01-01T00:00:07.000000Z\ta\t8.0\t6.0\tNaN\t6.0\tNaN\n",
+                query,
+                DDL,
+                null,
+                true
+        );
+        // lead() needs records ahead of current one
+        assertMemoryLeak(() -> assertFactory(query, CachedAnalyticRecordCursorFactory.class));
+    }
+
+    @Test
+    public void testLongAndTimestampValues() throws Exception {
+        // long values are beyond double precision, timestamps keep their type
+        final String query = "select ts, s, l," +
+                " lag(l) over (order by ts)," +
+                " lead(l, 2) over (order by ts)," +
+                " min(l) over (order by ts rows 2 preceding)," +
+                " max(l) over (order by ts rows 2 preceding)," +
+                " lag(ts) over (partition by s order by ts)," +
+                " first_value(ts) over (partition by s order by ts rows 1 preceding)," +
+                " max(ts) over (partition by s)" +
+                " from x";
+        assertQuery(
+                "ts\ts\tl\tlag\tlead\tmin\tmax\tlag1\tfirst_value\tmax1\n" +
+                        "1970-01-01T00:00:00.000000Z\ta\t9007199254741001\tNaN\t9007199254740993\t9007199254741001\t9007199254741001\t\t1970-01-01T00:00:00.000000Z\t1970-01-01T00:00:07.000000Z\n" +
+                        "1970-01-01T00:00:01.000000Z\ta\t9007199254740996\t9007199254741001\t9007199254740992\t9007199254740996\t9007199254741001\t1970-01-01T00:00:00.000000Z\t1970-01-01T00:00:00.000000Z\t1970-01-01T00:00:07.000000Z\n" +
+                        "1970-01-01T00:00:02.000000Z\tb\t9007199254740993\t9007199254740996\t9007199254740993\t9007199254740993\t9007199254741001\t\t1970-01-01T00:00:02.000000Z\t1970-01-01T00:00:06.000000Z\n" +
+                        "1970-01-01T00:00:03.000000Z\tb\t9007199254740992\t9007199254740993\t9007199254740996\t9007199254740992\t9007199254740996\t1970-01-01T00:00:02.000000Z\t1970-01-01T00:00:02.000000Z\t1970-01-01T00:00:06.000000Z\n" +
+                        "1970-01-01T00:00:04.000000Z\tb\t9007199254740993\t9007199254740992\t9007199254741001\t9007199254740992\t9007199254740993\t1970-01-01T00:00:03.000000Z\t1970-01-01T00:00:03.000000Z\t1970-01-01T00:00:06.000000Z\n" +
+                        "1970-01-01T00:00:05.000000Z\ta\t9007199254740996\t9007199254740993\t9007199254741008\t9007199254740992\t9007199254740996\t1970-01-01T00:00:01.000000Z\t1970-01-01T00:00:01.000000Z\t1970-01-01T00:00:07.000000Z\n" +
+                        "1970-01-01T00:00:06.000000Z\tb\t9007199254741001\t9007199254740996\tNaN\t9007199254740993\t9007199254741001\t1970-01-01T00:00:04.000000Z\t1970-01-01T00:00:04.000000Z\t1970-01-01T00:00:06.000000Z\n" +
+                        "1970-01-01T00:00:07.000000Z\ta\t9007199254741008\t9007199254741001\tNaN\t9007199254740996\t9007199254741008\t1970-01-01T00:00:05.000000Z\t1970-01-01T00:00:05.000000Z\t1970-01-01T00:00:07.000000Z\n",
+                query,
+                "create table x as (" +
+                        "select" +
+                        " cast(case when x = 1 or x = 2 or x = 6 or x = 8 then 'a' else 'b' end as symbol) s," +
+                        " 9007199254740992 + (x - 4) * (x - 4) l," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(8)" +
+                        ") timestamp(ts)",
+                null,
+                true
+        );
+        assertMemoryLeak(() -> assertFactory(query, CachedAnalyticRecordCursorFactory.class));
+    }
+
+    @Test
+    public void testRangeFrame() throws Exception {
+        final String query = "select ts, s, d," +
+                " avg(d) over (partition by s order by ts range between 2s preceding and current row)," +
+                " count() over (partition by s order by ts range between 2s preceding and current row)," +
+                " sum(d) over (order by ts range 1s preceding)" +
+                " from x";
+        assertQuery(
+                "ts\ts\td\tavg\tcount\tsum\n" +
+                        "1970-01-01T00:00:00.000000Z\ta\t1.0\t1.0\t1\t1.0\n" +
+                        "1970-01-01T00:00:01.000000Z\ta\t2.0\t1.5\t2\t3.0\n" +
+                        "1970-01-01T00:00:02.000000Z\tb\t3.0\t3.0\t1\t5.0\n" +
+                        "1970-01-01T00:00:03.000000Z\tb\t4.0\t3.5\t2\t7.0\n" +
+                        "1970-01-01T00:00:04.000000Z\tb\t5.0\t4.0\t3\t9.0\n" +
+                        "1970-01-01T00:00:05.000000Z\ta\t6.0\t6.0\t1\t11.0\n" +
+                        "1970-01-01T00:00:06.000000Z\tb\t7.0\t6.0\t2\t13.0\n" +
+                        "1970-01-01T00:00:07.000000Z\ta\t8.0\t7.0\t2\t15.0\n",
+                query,
+                DDL,
+                null,
+                false,
+                true,
+                true
+        );
+        assertMemoryLeak(() -> assertFactory(query, StreamingAnalyticRecordCursorFactory.class));
+    }
+
+    @Test
+    public void testRangeFrameRequiresTimestampOrder() throws Exception {
+        assertFailure(
+                "select ts, sum(d) over (partition by s range 1s preceding) from x",
+                DDL,
+                45,
+                "RANGE frame requires ascending order by timestamp column"
+        );
+    }
+
+    @Test
+    public void testRowsFrame() throws Exception {
+        final String query = "select ts, s, d," +
+                " sum(d) over (order by ts rows between 2 preceding and current row)," +
+                " min(d) over (order by ts rows 2 preceding)," +
+                " max(d) over (order by ts rows 2 preceding)," +
+                " first_value(d) over (order by ts rows 2 preceding)," +
+                " last_value(d) over (order by ts rows 2 preceding)," +
+                " count() over (order by ts rows 2 preceding)" +
+                " from x";
+        assertQuery(
+                "ts\ts\td\tsum\tmin\tmax\tfirst_value\tlast_value\tcount\n" +
+                        "1970-01-01T00:00:00.000000Z\ta\t1.0\t1.0\t1.0\t1.0\t1.0\t1.0\t1\n" +
+                        "1970-01-01T00:00:01.000000Z\ta\t2.0\t3.0\t1.0\t2.0\t1.0\t2.0\t2\n" +
+                        "1970-01-01T00:00:02.000000Z\tb\t3.0\t6.0\t1.0\t3.0\t1.0\t3.0\t3\n" +
+                        "1970-01-01T00:00:03.000000Z\tb\t4.0\t9.0\t2.0\t4.0\t2.0\t4.0\t3\n" +
+                        "1970-01-01T00:00:04.000000Z\tb\t5.0\t12.0\t3.0\t5.0\t3.0\t5.0\t3\n" +
+                        "1970-01-01T00:00:05.000000Z\ta\t6.0\t15.0\t4.0\t6.0\t4.0\t6.0\t3\n" +
+                        "1970-01-01T00:00:06.000000Z\tb\t7.0\t18.0\t5.0\t7.0\t5.0\t7.0\t3\n" +
+                        "1970-01-01T00:00:07.000000Z\ta\t8.0\t21.0\t6.0\t8.0\t6.0\t8.0\t3\n",
+                query,
+                DDL,
+                null,
+                false,
+                true,
+                true
+        );
+        assertMemoryLeak(() -> assertFactory(query, StreamingAnalyticRecordCursorFactory.class));
+    }
+
+    @Test
+    public void testRunningAggregates() throws Exception {
+        final String query = "select ts, s, d," +
+                " sum(d) over (partition by s order by ts)," +
+                " avg(d) over (partition by s order by ts)," +
+                " min(d) over (partition by s order by ts)," +
+                " max(d) over (partition by s order by ts)," +
+                " count() over (partition by s order by ts)" +
+                " from x";
+        assertQuery(
+                "ts\ts\td\tsum\tavg\tmin\tmax\tcount\n" +
+                        "1970-01-01T00:00:00.000000Z\ta\t1.0\t1.0\t1.0\t1.0\t1.0\t1\n" +
+                        "1970-01-01T00:00:01.000000Z\ta\t2.0\t3.0\t1.5\t1.0\t2.0\t2\n" +
+                        "1970-01-01T00:00:02.000000Z\tb\t3.0\t3.0\t3.0\t3.0\t3.0\t1\n" +
+                        "1970-01-01T00:00:03.000000Z\tb\t4.0\t7.0\t3.5\t3.0\t4.0\t2\n" +
+                        "1970-01-01T00:00:04.000000Z\tb\t5.0\t12.0\t4.0\t3.0\t5.0\t3\n" +
+                        "1970-01-01T00:00:05.000000Z\ta\t6.0\t9.0\t3.0\t1.0\t6.0\t3\n" +
+                        "1970-01-01T00:00:06.000000Z\tb\t7.0\t19.0\t4.75\t3.0\t7.0\t4\n" +
+                        "1970-01-01T00:00:07.000000Z\ta\t8.0\t17.0\t4.25\t1.0\t8.0\t4\n",
+                query,
+                DDL,
+                null,
+                false,
+                true,
+                true
+        );
+        assertMemoryLeak(() -> assertFactory(query, StreamingAnalyticRecordCursorFactory.class));
+    }
+
+    @Test
+    public void testStreamingMatchesCached() throws Exception {
+        assertMemoryLeak(() -> {
+            // timestamps strictly increase, rows with equal timestamps have no defined order
+            compiler.compile("create table x as (" +
+                    "select" +
+                    " rnd_symbol(20, 3, 3, 2) s," +
+                    " rnd_double(2) d," +
+                    " timestamp_sequence(0, rnd_long(1, 2000000, 0)) ts" +
+                    " from long_sequence(10000)" +
+                    ") timestamp(ts)", sqlExecutionContext);
+            // same data without designated timestamp has to be cached and sorted
+            compiler.compile("create table y (s symbol, d double, ts timestamp)", sqlExecutionContext);
+            compiler.compile("insert into y select * from x", sqlExecutionContext);
+
+            final String columns = "select ts, s, d," +
+                    " sum(d) over (partition by s order by ts)," +
+                    " avg(d) over (partition by s order by ts range 10s preceding)," +
+                    " min(d) over (order by ts rows 5 preceding)," +
+                    " max(d) over (partition by s order by ts rows 3 preceding)," +
+                    " first_value(d) over (partition by s order by ts range 1m preceding)," +
+                    " lag(d, 3) over (partition by s order by ts)," +
+                    " count() over (partition by s order by ts range 30s preceding)" +
+                    " from ";
+
+            final String expected = printQuery(compiler, sqlExecutionContext, columns + "y");
+            assertFactory(columns + "y", CachedAnalyticRecordCursorFactory.class);
+            TestUtils.assertEquals(expected, printQuery(compiler, sqlExecutionContext, columns + "x"));
+            assertFactory(columns + "x", StreamingAnalyticRecordCursorFactory.class);
+        });
+    }
+
+    @Test
+    public void testWholePartition() throws Exception {
+        final String query = "select ts, s, d," +
+                " sum(d) over (partition by s)," +
+                " avg(d) over ()," +
+                " count() over (partition by s)," +
+                " first_value(d) over (partition by s)," +
+                " last_value(d) over (partition by s)" +
+                " from x";
+        assertQuery(
+                "ts\ts\td\tsum\tavg\tcount\tfirst_value\tlast_value\n" +
+                        "1970-01-01T00:00:00.000000Z\ta\t1.0\t17.0\t4.5\t4\t1.0\t8.0\n" +
+                        "1970-01-01T00:00:01.000000Z\ta\t2.0\t17.0\t4.5\t4\t1.0\t8.0\n" +
+                        "1970-01-01T00:00:02.000000Z\tb\t3.0\t19.0\t4.5\t4\t3.0\t7.0\n" +
+                        "1970-01-01T00:00:03.000000Z\tb\t4.0\t19.0\t4.5\t4\t3.0\t7.0\n" +
+                        "1970-01-01T00:00:04.000000Z\tb\t5.0\t19.0\t4.5\t4\t3.0\t7.0\n" +
+                        "1970-01-01T00:00:05.000000Z\ta\t6.0\t17.0\t4.5\t4\t1.0\t8.0\n" +
+                        "1970-01-01T00:00:06.000000Z\tb\t7.0\t19.0\t4.5\t4\t3.0\t7.0\n" +
+                        "1970-01-01T00:00:07.000000Z\ta\t8.0\t17.0\t4.5\t4\t1.0\t8.0\n",
+                query,
+                DDL,
+                null,
+                true
+        );
+        // frame of every record is the whole partition, values are known after all records are seen
+        assertMemoryLeak(() -> assertFactory(query, CachedAnalyticRecordCursorFactory.class));
+    }
+
+    private static void assertFactory(String query, Class<?> expected) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals(expected, factory.getClass());
+        }
+    }
+}
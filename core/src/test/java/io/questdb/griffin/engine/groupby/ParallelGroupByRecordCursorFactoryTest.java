@@ -0,0 +1,188 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Chars;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelGroupByRecordCursorFactoryTest extends AbstractGriffinTest {
+    // doubles hold whole numbers, so that their sums do not depend on the order of addition
+    private static final String DDL = "create table x as (" +
+            "select" +
+            " rnd_symbol(20, 3, 3, 2) s," +
+            " rnd_str(500, 3, 8, 2) str," +
+            " rnd_int(0, 50, 2) i," +
+            " rnd_long(0, 1000000, 2) l," +
+            " cast(rnd_int(0, 1000, 2) as double) d," +
+            " timestamp_sequence(17000000, 7300000) k" +
+            " from long_sequence(30000)" +
+            ") timestamp(k) partition by HOUR";
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertParallel(
+                "select str2, count(), sum(l), max(d) from x",
+                DDL,
+                "alter table x add column str2 string",
+                "insert into x select rnd_symbol(20, 3, 3, 2) s, rnd_str(500, 3, 8, 2) str, rnd_int(0, 50, 2) i, rnd_long(0, 1000000, 2) l," +
+                        " cast(rnd_int(0, 1000, 2) as double) d, timestamp_sequence(300000000000, 7300000) k, rnd_str(30, 2, 4, 3) str2" +
+                        " from long_sequence(10000)"
+        );
+    }
+
+    @Test
+    public void testIntervalScan() throws Exception {
+        assertParallel(
+                "select str, count(), sum(i), first(d), last(d) from x where k between '1970-01-01T05:00:00.000Z' and '1970-01-02T12:00:00.000Z'",
+                DDL
+        );
+    }
+
+    @Test
+    public void testIntKey() throws Exception {
+        // symbol functions keep single int key off the vectorised path
+        assertParallel(
+                "select i, count(), sum(l), ksum(d), nsum(d), first(s), last(s) from x",
+                DDL
+        );
+    }
+
+    @Test
+    public void testLongKey() throws Exception {
+        assertParallel(
+                "select l, count(), sum(i), min(d), max(d), avg(d) from x",
+                "create table x as (" +
+                        "select" +
+                        " rnd_int(0, 50, 2) i," +
+                        " rnd_long(0, 5000, 2) l," +
+                        " cast(rnd_int(0, 1000, 2) as double) d," +
+                        " timestamp_sequence(0, 7300000) k" +
+                        " from long_sequence(30000)" +
+                        ") timestamp(k) partition by HOUR"
+        );
+    }
+
+    @Test
+    public void testMixedKeys() throws Exception {
+        assertParallel(
+                "select s, i, str, count(), sum(l), min(d), max(d), avg(d), first(d), last(d) from x",
+                DDL
+        );
+    }
+
+    @Test
+    public void testOrderBy() throws Exception {
+        // sort reads group-by records by row id
+        assertParallel(
+                "select str, count() c, sum(l) sl from x order by sl desc, str",
+                DDL
+        );
+    }
+
+    @Test
+    public void testStringKey() throws Exception {
+        assertParallel(
+                "select str, count(), sum(i), sum(d), min(l), max(l), first(l), last(l) from x",
+                DDL
+        );
+    }
+
+    @Test
+    public void testToTop() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(DDL, sqlExecutionContext);
+            runWithWorkers(parallelContext -> {
+                final String query = "select str, s, count(), sum(l) from x";
+                assertParallelGroupBy(query, parallelContext);
+                try (RecordCursorFactory factory = compiler.compile(query, parallelContext).getRecordCursorFactory()) {
+                    try (RecordCursor cursor = factory.getCursor(parallelContext)) {
+                        final Record record = cursor.getRecord();
+                        long sum = 0;
+                        int count = 0;
+                        // abandon the cursor half way through
+                        while (cursor.hasNext() && count++ < 1000) {
+                            sum += record.getLong(2) + record.getLong(3);
+                        }
+                        cursor.toTop();
+                        long expectedSum = 0;
+                        count = 0;
+                        while (cursor.hasNext()) {
+                            if (count++ < 1000) {
+                                expectedSum += record.getLong(2) + record.getLong(3);
+                            }
+                        }
+                        Assert.assertEquals(expectedSum, sum);
+                        Assert.assertEquals(count, cursor.size());
+                    }
+                }
+            });
+        });
+    }
+
+    @Test
+    public void testUnsupportedFunctionRunsSingleThreaded() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select rnd_symbol('A', 'B', 'C') s, rnd_str('a', 'b', 'c') str, timestamp_sequence(0, 1000000) k" +
+                            " from long_sequence(1000)" +
+                            ") timestamp(k) partition by HOUR",
+                    sqlExecutionContext
+            );
+            runWithWorkers(parallelContext -> {
+                // count(symbol) does not support merge
+                try (
+                        RecordCursorFactory factory = compiler.compile("explain analyze select str, count(s) from x", parallelContext).getRecordCursorFactory();
+                        RecordCursor cursor = factory.getCursor(parallelContext)
+                ) {
+                    sink.clear();
+                    printer.print(cursor, factory.getMetadata(), false);
+                    Assert.assertFalse(Chars.contains(sink, ParallelGroupByRecordCursorFactory.class.getSimpleName()));
+                    TestUtils.assertContains(sink, GroupByRecordCursorFactory.class.getSimpleName());
+                }
+            });
+        });
+    }
+
+    private static void assertParallelGroupBy(String query, SqlExecutionContext executionContext) throws SqlException {
+        TestUtils.assertContains(planOf(compiler, executionContext, query), ParallelGroupByRecordCursorFactory.class.getSimpleName());
+    }
+
+    private static void assertParallel(String query, String... ddl) throws Exception {
+        assertParallel(engine.getMessageBus().getKeyedGroupBySubSequence(), new KeyedGroupByJob(engine.getMessageBus()), ParallelGroupByRecordCursorFactory.class, query, ddl);
+    }
+
+    private static void runWithWorkers(ParallelCode code) throws Exception {
+        runWithWorkers(engine.getMessageBus().getKeyedGroupBySubSequence(), new KeyedGroupByJob(engine.getMessageBus()), code);
+    }
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Chars;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelSampleByRecordCursorFactoryTest extends AbstractGriffinTest {
+    // doubles hold whole numbers, so that their sums do not depend on the order of addition
+    private static final String DDL = "create table x as (" +
+            "select" +
+            " rnd_symbol(20, 3, 3, 2) s," +
+            " rnd_int(0, 1000, 2) i," +
+            " rnd_long(0, 1000000, 2) l," +
+            " cast(rnd_int(0, 1000, 2) as double) d," +
+            " timestamp_sequence(17000000, 7300000) k" +
+            " from long_sequence(30000)" +
+            ") timestamp(k) partition by HOUR";
+
+    @Test
+    public void testBucketsLargerThanPartition() throws Exception {
+        assertParallel(
+                "select k, s, count(), sum(d), first(l), last(l) from x sample by 1d",
+                DDL
+        );
+    }
+
+    @Test
+    public void testCalendarBuckets() throws Exception {
+        assertParallel(
+                "select k, count(), min(d), max(i), first(d), last(d) from x sample by 1M",
+                "create table x as (" +
+                        "select" +
+                        " rnd_int(0, 1000, 2) i," +
+                        " cast(rnd_int(0, 1000, 2) as double) d," +
+                        " timestamp_sequence(1000, 730000000) k" +
+                        " from long_sequence(20000)" +
+                        ") timestamp(k) partition by DAY"
+        );
+    }
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertParallel(
+                "select k, s, count(), sum(l), max(d2) from x sample by 10m",
+                DDL,
+                "alter table x add column d2 double",
+                "insert into x select rnd_symbol(20, 3, 3, 2) s, rnd_int(0, 1000, 2) i, rnd_long(0, 1000000, 2) l, cast(rnd_int(0, 1000, 2) as double) d," +
+                        " timestamp_sequence(300000000000, 7300000) k, rnd_double() d2 from long_sequence(10000)"
+        );
+    }
+
+    @Test
+    public void testKeyed() throws Exception {
+        assertParallel(
+                "select k, s, count(), sum(i), sum(d), min(l), max(l), avg(d), first(d), last(d) from x sample by 1m",
+                DDL
+        );
+    }
+
+    @Test
+    public void testNotKeyed() throws Exception {
+        assertParallel(
+                "select k, count(), sum(i), sum(l), ksum(d), nsum(d), min(d), max(d), avg(d), first(i), last(i) from x sample by 7m",
+                DDL
+        );
+    }
+
+    @Test
+    public void testToTop() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(DDL, sqlExecutionContext);
+            runWithWorkers(parallelContext -> {
+                final String query = "select k, s, count(), sum(l) from x sample by 1m";
+                assertParallelSampleBy(query, parallelContext);
+                try (RecordCursorFactory factory = compiler.compile(query, parallelContext).getRecordCursorFactory()) {
+                    try (RecordCursor cursor = factory.getCursor(parallelContext)) {
+                        final Record record = cursor.getRecord();
+                        long sum = 0;
+                        int count = 0;
+                        // abandon the cursor half way through
+                        while (cursor.hasNext() && count++ < 1000) {
+                            sum += record.getLong(2) + record.getLong(3);
+                        }
+                        cursor.toTop();
+                        long expectedSum = 0;
+                        count = 0;
+                        while (cursor.hasNext()) {
+                            if (count++ < 1000) {
+                                expectedSum += record.getLong(2) + record.getLong(3);
+                            }
+                        }
+                        Assert.assertEquals(expectedSum, sum);
+                    }
+                }
+            });
+        });
+    }
+
+    @Test
+    public void testUnsupportedFunctionRunsSingleThreaded() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select rnd_symbol('A', 'B', 'C') s, timestamp_sequence(0, 1000000) k" +
+                            " from long_sequence(1000)" +
+                            ") timestamp(k) partition by HOUR",
+                    sqlExecutionContext
+            );
+            runWithWorkers(parallelContext -> {
+                // count(symbol) does not support merge
+                try (
+                        RecordCursorFactory factory = compiler.compile("explain analyze select k, count(s) from x sample by 1m", parallelContext).getRecordCursorFactory();
+                        RecordCursor cursor = factory.getCursor(parallelContext)
+                ) {
+                    sink.clear();
+                    printer.print(cursor, factory.getMetadata(), false);
+                    Assert.assertFalse(Chars.contains(sink, ParallelSampleByRecordCursorFactory.class.getSimpleName()));
+                    TestUtils.assertContains(sink, SampleByFillNoneNotKeyedRecordCursorFactory.class.getSimpleName());
+                }
+            });
+        });
+    }
+
+    private static void assertParallelSampleBy(String query, SqlExecutionContext executionContext) throws SqlException {
+        TestUtils.assertContains(planOf(compiler, executionContext, query), ParallelSampleByRecordCursorFactory.class.getSimpleName());
+    }
+
+    private static void assertParallel(String query, String... ddl) throws Exception {
+        assertParallel(engine.getMessageBus().getSampleBySubSequence(), new SampleByJob(engine.getMessageBus()), ParallelSampleByRecordCursorFactory.class, query, ddl);
+    }
+
+    private static void runWithWorkers(ParallelCode code) throws Exception {
+        runWithWorkers(engine.getMessageBus().getSampleBySubSequence(), new SampleByJob(engine.getMessageBus()), code);
+    }
+}
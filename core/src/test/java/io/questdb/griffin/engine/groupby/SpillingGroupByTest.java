@@ -0,0 +1,132 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.*;
+import io.questdb.std.Numbers;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SpillingGroupByTest extends AbstractGriffinTest {
+
+    @Test
+    public void testDistinct() throws Exception {
+        assertSpilledResult(
+                "select * from (select distinct s, i from x) order by s, i",
+                false
+        );
+    }
+
+    @Test
+    public void testGroupBy() throws Exception {
+        assertSpilledResult(
+                "select s, i, count(), sum(i), sum(l), avg(d), ksum(d), nsum(d), min(l), max(l), min(d), max(d), first(l), last(l) from x order by s, i",
+                true
+        );
+    }
+
+    @Test
+    public void testGroupByUnsupportedFunctionDoesNotSpill() throws Exception {
+        assertSpilledResult(
+                "select s, i, count(s) from x order by s, i",
+                false
+        );
+    }
+
+    private void assertSpilledResult(String query, boolean expectSpill) throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (" +
+                    "select" +
+                    " rnd_str(4, 4, 0) s," +
+                    " rnd_int(0, 20, 0) i," +
+                    " rnd_long(0, 1000000, 0) l," +
+                    " cast(rnd_int(0, 1000, 0) as double) d" +
+                    " from long_sequence(30000)" +
+                    ")", sqlExecutionContext);
+
+            final String expected = print(compiler, sqlExecutionContext, query);
+
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public long getSqlMapSpillThreshold() {
+                    return Numbers.SIZE_1MB;
+                }
+
+                @Override
+                public int getSqlMapSpillPartitionCount() {
+                    return 8;
+                }
+
+                @Override
+                public CharSequence getSqlTempRoot() {
+                    return temp.getRoot().getAbsolutePath();
+                }
+
+                @Override
+                public boolean isSqlMapSpillEnabled() {
+                    return true;
+                }
+            };
+
+            try (
+                    CairoEngine engine = new CairoEngine(configuration);
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1)
+                        .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+                TestUtils.assertEquals(expected, print(compiler, executionContext, query));
+                if (expectSpill) {
+                    // spilling map has no random access, result has to be sorted separately
+                    TestUtils.assertContains(planOf(compiler, executionContext, query), "SortedRecordCursorFactory");
+                }
+            }
+        });
+    }
+
+    private static String planOf(SqlCompiler compiler, SqlExecutionContext executionContext, String query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, executionContext).getRecordCursorFactory()) {
+            return factory.getClass().getSimpleName();
+        }
+    }
+
+    private static String print(SqlCompiler compiler, SqlExecutionContext executionContext, String query) throws SqlException {
+        try (
+                RecordCursorFactory factory = compiler.compile(query, executionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(executionContext)
+        ) {
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), true);
+            Assert.assertTrue(sink.length() > 0);
+            return sink.toString();
+        }
+    }
+}
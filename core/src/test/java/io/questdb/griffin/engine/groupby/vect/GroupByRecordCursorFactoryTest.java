@@ -0,0 +1,164 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.sql.ReaderOutOfDateException;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GroupByRecordCursorFactoryTest extends AbstractGriffinTest {
+    // a few dozen partitions are enough for every worker to get page frames, thousands only make test slow
+    private static final String DDL = "create table x as (" +
+            "select" +
+            " rnd_symbol('A','B','C',null) s1," +
+            " rnd_symbol(15,4,4,2) s2," +
+            " rnd_double(2) d," +
+            " rnd_int(0, 1000, 2) i," +
+            " rnd_long(0, 1000000, 2) l," +
+            " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) dt," +
+            " timestamp_sequence(0, 100000000) ts" +
+            " from long_sequence(20000)" +
+            ") timestamp(ts) partition by DAY";
+
+    @Test
+    public void testCompositeKeyColumnTop() throws Exception {
+        assertVectorised(
+                "select s1, s3, sum(l) sum, count() count, last(d) last from x",
+                "order by s1, s3",
+                DDL,
+                "alter table x add column s3 symbol",
+                "insert into x select rnd_symbol('A','B','C',null) s1, rnd_symbol(15,4,4,2) s2, rnd_double(2) d, rnd_int(0, 1000, 2) i," +
+                        " rnd_long(0, 1000000, 2) l, rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) dt," +
+                        " timestamp_sequence(100000000000000, 100000000) ts, rnd_symbol('X','Y',null) s3 from long_sequence(10000)"
+        );
+    }
+
+    @Test
+    public void testFirstLast() throws Exception {
+        assertVectorised(
+                "select s2, first(d) fd, last(d) ld, first(i) fi, last(i) li, first(l) fl, last(l) ll, first(dt) fdt, last(dt) ldt, first(ts) fts, last(ts) lts from x",
+                "order by s2",
+                DDL
+        );
+    }
+
+    @Test
+    public void testFirstLastValueColumnTop() throws Exception {
+        assertVectorised(
+                "select s1, first(j) first, last(j) last, count() count from x",
+                "order by s1",
+                DDL,
+                "alter table x add column j long",
+                "insert into x select rnd_symbol('A','B','C',null) s1, rnd_symbol(15,4,4,2) s2, rnd_double(2) d, rnd_int(0, 1000, 2) i," +
+                        " rnd_long(0, 1000000, 2) l, rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) dt," +
+                        " timestamp_sequence(100000000000000, 100000000) ts, rnd_long(0, 100, 2) j from long_sequence(10000)"
+        );
+    }
+
+    @Test
+    public void testHourAndSymbol() throws Exception {
+        assertVectorised(
+                "select hour(ts) h, s1, sum(i) sum, min(dt) min, max(l) max, first(d) first, count() count from x",
+                "order by h, s1",
+                DDL
+        );
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(DDL, sqlExecutionContext);
+            final String query = "select s1, s2, sum(i) sum, avg(i) avg, min(l) min, first(dt) first, last(i) last, count() count from x";
+            final String expected = printQuery(compiler, sqlExecutionContext, "select * from (" + query.replace(" from x", " from (x limit 1000000)") + ") order by s1, s2");
+            runWithWorkers(engine.getMessageBus().getVectorAggregateSubSequence(), new GroupByJob(engine.getMessageBus()), 1, parallelContext -> {
+                try (RecordCursorFactory factory = compiler.compile(query, parallelContext).getRecordCursorFactory()) {
+                    Assert.assertTrue(factory instanceof GroupByRecordCursorFactory);
+                }
+                TestUtils.assertEquals(expected, printQuery(compiler, parallelContext, "select * from (" + query + ") order by s1, s2"));
+            });
+        });
+    }
+
+    @Test
+    public void testSymbolKeyColumnTop() throws Exception {
+        assertVectorised(
+                "select s3, sum(l) sum, count() count from x",
+                "order by s3",
+                DDL,
+                "alter table x add column s3 symbol",
+                "insert into x select rnd_symbol('A','B','C',null) s1, rnd_symbol(15,4,4,2) s2, rnd_double(2) d, rnd_int(0, 1000, 2) i," +
+                        " rnd_long(0, 1000000, 2) l, rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) dt," +
+                        " timestamp_sequence(100000000000000, 100000000) ts, rnd_symbol('X','Y',null) s3 from long_sequence(10000)"
+        );
+    }
+
+    @Test
+    public void testTooManyKeyCombinations() throws Exception {
+        assertMemoryLeak(() -> {
+            final String columns = "rnd_symbol(70000,4,4,0) s1, rnd_symbol(70000,4,4,0) s2, rnd_double() d";
+            compiler.compile("create table x as (select " + columns + " from long_sequence(10))", sqlExecutionContext);
+            final String query = "select s1, s2, sum(d) from x";
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof GroupByRecordCursorFactory);
+                compiler.compile("insert into x select " + columns + " from long_sequence(200000)", sqlExecutionContext);
+                try {
+                    factory.getCursor(sqlExecutionContext).close();
+                    Assert.fail();
+                } catch (ReaderOutOfDateException ignore) {
+                }
+            }
+
+            // symbol tables are too large to pack keys into int, query recompiles to generic group by
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertFalse(factory instanceof GroupByRecordCursorFactory);
+            }
+            TestUtils.assertEquals(
+                    "sum\n200010\n",
+                    printQuery(compiler, sqlExecutionContext, "select sum(count) from (select s1, s2, count() count from x)")
+            );
+        });
+    }
+
+    private void assertVectorised(String query, String orderBy, String... ddl) throws Exception {
+        assertMemoryLeak(() -> {
+            for (int i = 0; i < ddl.length; i++) {
+                compiler.compile(ddl[i], sqlExecutionContext);
+            }
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof GroupByRecordCursorFactory);
+            }
+            // limit does not support page frames, reference query takes generic group by path
+            final String referenceQuery = query.replace(" from x", " from (x limit 1000000)");
+            try (RecordCursorFactory factory = compiler.compile(referenceQuery, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertFalse(factory instanceof GroupByRecordCursorFactory);
+            }
+            final String expected = printQuery(compiler, sqlExecutionContext, "select * from (" + referenceQuery + ") " + orderBy);
+            TestUtils.assertEquals(expected, printQuery(compiler, sqlExecutionContext, "select * from (" + query + ") " + orderBy));
+        });
+    }
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.griffin.*;
+import io.questdb.griffin.engine.groupby.SampleByFillNoneNotKeyedRecordCursorFactory;
+import io.questdb.std.Chars;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SampleByNotKeyedVectorRecordCursorFactoryTest extends AbstractGriffinTest {
+    // doubles hold whole numbers, so that their sums do not depend on the order of addition
+    private static final String DDL = "create table x as (" +
+            "select" +
+            " rnd_int(0, 1000, 2) i," +
+            " rnd_long(0, 1000000, 2) l," +
+            " cast(rnd_int(0, 1000, 2) as double) d," +
+            " timestamp_sequence(17000000, 7300000) k" +
+            " from long_sequence(30000)" +
+            ") timestamp(k) partition by HOUR";
+    // timestamps are aligned to buckets and leave gaps between them
+    private static final String DDL_GAPS = "create table x as (" +
+            "select" +
+            " rnd_int(0, 1000, 2) i," +
+            " rnd_long(0, 1000000, 2) l," +
+            " cast(rnd_int(0, 1000, 2) as double) d," +
+            " timestamp_sequence(0, 130000000) k" +
+            " from long_sequence(10000)" +
+            ") timestamp(k) partition by HOUR";
+
+    @Test
+    public void testBucketsLargerThanPartition() throws Exception {
+        assertVectorised(
+                "select k, count(), sum(i), sum(l), sum(d), min(l), max(d), avg(i) from x sample by 5h",
+                DDL
+        );
+    }
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertVectorised(
+                "select k, count(), sum(l), min(d2), max(d2), avg(d2) from x sample by 10m",
+                DDL,
+                "alter table x add column d2 double",
+                "insert into x select rnd_int(0, 1000, 2) i, rnd_long(0, 1000000, 2) l, cast(rnd_int(0, 1000, 2) as double) d," +
+                        " timestamp_sequence(300000000000, 7300000) k, cast(rnd_int(0, 1000, 2) as double) d2 from long_sequence(10000)"
+        );
+    }
+
+    @Test
+    public void testFillNone() throws Exception {
+        assertVectorised(
+                "select k, count(), sum(i), sum(l), sum(d), min(i), min(l), min(d), max(i), max(l), max(d), avg(i), avg(l), avg(d) from x sample by 7m",
+                DDL
+        );
+    }
+
+    @Test
+    public void testFillNull() throws Exception {
+        assertVectorised(
+                "select k, count(), sum(i), sum(l), min(d), max(l), avg(d) from x sample by 1m fill(null)",
+                DDL_GAPS
+        );
+    }
+
+    @Test
+    public void testFillPrev() throws Exception {
+        assertVectorised(
+                "select k, count(), sum(i), sum(l), min(d), max(l), avg(d) from x sample by 1m fill(prev)",
+                DDL_GAPS
+        );
+    }
+
+    @Test
+    public void testRowOrderSensitiveFunctionIsNotVectorised() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(DDL, sqlExecutionContext);
+            final String plan = planOf(compiler, sqlExecutionContext, "select k, sum(d), first(d) from x sample by 1h");
+            Assert.assertFalse(Chars.contains(plan, SampleByNotKeyedVectorRecordCursorFactory.class.getSimpleName()));
+            TestUtils.assertContains(plan, SampleByFillNoneNotKeyedRecordCursorFactory.class.getSimpleName());
+        });
+    }
+
+    private void assertVectorised(String query, String... ddl) throws Exception {
+        assertMemoryLeak(() -> {
+            for (int i = 0; i < ddl.length; i++) {
+                compiler.compile(ddl[i], sqlExecutionContext);
+            }
+
+            TestUtils.assertContains(
+                    planOf(compiler, sqlExecutionContext, query),
+                    SampleByNotKeyedVectorRecordCursorFactory.class.getSimpleName()
+            );
+            final String actual = printQuery(compiler, sqlExecutionContext, query);
+            Assert.assertTrue(actual.indexOf('\n') < actual.length() - 1);
+
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public boolean isSqlVectorSampleByEnabled() {
+                    return false;
+                }
+            };
+
+            try (
+                    CairoEngine engine = new CairoEngine(configuration);
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1)
+                        .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+                TestUtils.assertEquals(printQuery(compiler, executionContext, query), actual);
+            }
+        });
+    }
+}
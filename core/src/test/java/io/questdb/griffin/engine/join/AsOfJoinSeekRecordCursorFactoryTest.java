@@ -0,0 +1,136 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.griffin.*;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsOfJoinSeekRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAsOfKeyed() throws Exception {
+        assertSeek(
+                "select m.k, m.s, m.ts, q.k2, q.s2, q.ts2 from m asof join q on m.s = q.s2",
+                true
+        );
+    }
+
+    @Test
+    public void testAsOfNoKey() throws Exception {
+        assertSeek(
+                "select m.k, m.s, m.ts, q.k2, q.s2, q.ts2 from m asof join q",
+                true
+        );
+    }
+
+    @Test
+    public void testLtKeyed() throws Exception {
+        assertSeek(
+                "select m.k, m.s, m.ts, q.k2, q.s2, q.ts2 from m lt join q on m.s = q.s2",
+                true
+        );
+    }
+
+    @Test
+    public void testLtNoKey() throws Exception {
+        assertSeek(
+                "select m.k, m.s, m.ts, q.k2, q.s2, q.ts2 from m lt join q",
+                true
+        );
+    }
+
+    @Test
+    public void testNotIndexedKeyDoesNotSeek() throws Exception {
+        assertSeek(
+                "select m.k, m.s, m.ts, q.k2, q.t2, q.ts2 from m asof join q on m.s = q.t2",
+                false
+        );
+    }
+
+    @Test
+    public void testSlaveIntervalDoesNotSeek() throws Exception {
+        assertSeek(
+                "select m.k, m.s, m.ts, q.k2, q.s2, q.ts2 from m asof join (q where ts2 > '1970-01-02') q on m.s = q.s2",
+                false
+        );
+    }
+
+    private void assertSeek(String query, boolean expectSeek) throws Exception {
+        assertMemoryLeak(() -> {
+            // sparse master against dense slave, timestamps of both collide
+            compiler.compile(
+                    "create table m as (" +
+                            "select x k, rnd_symbol('A', 'B', 'C', 'X', null) s, timestamp_sequence(0, 3600000000) ts" +
+                            " from long_sequence(150)" +
+                            ") timestamp(ts) partition by DAY",
+                    sqlExecutionContext
+            );
+            compiler.compile(
+                    "create table q as (" +
+                            "select x k2, rnd_symbol('A', 'B', 'D') t2, timestamp_sequence(1800000000, 60000000) ts2" +
+                            " from long_sequence(3000)" +
+                            ") timestamp(ts2) partition by DAY",
+                    sqlExecutionContext
+            );
+            // indexed symbol with column top and null values in first partitions
+            compiler.compile("alter table q add column s2 symbol index", sqlExecutionContext);
+            compiler.compile(
+                    "insert into q select x + 3000 k2, rnd_symbol('A', 'B', 'D') t2, timestamp_sequence(200000000000, 60000000) ts2," +
+                            " rnd_symbol('A', 'B', 'D', null) s2 from long_sequence(5000)",
+                    sqlExecutionContext
+            );
+
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public boolean isSqlAsOfJoinSeekEnabled() {
+                    return false;
+                }
+            };
+
+            final String expected;
+            try (
+                    CairoEngine engine = new CairoEngine(configuration);
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1)
+                        .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+                Assert.assertFalse(planOf(compiler, executionContext, query).contains(AsOfJoinSeekRecordCursorFactory.class.getSimpleName()));
+                expected = printQuery(compiler, executionContext, query);
+            }
+            Assert.assertTrue(expected.indexOf('\n') < expected.length() - 1);
+
+            // join result is wrapped into column selection, look for join factory in query profile
+            Assert.assertEquals(expectSeek, planOf(compiler, sqlExecutionContext, query).contains(AsOfJoinSeekRecordCursorFactory.class.getSimpleName()));
+            TestUtils.assertEquals(expected, printQuery(compiler, sqlExecutionContext, query));
+        });
+    }
+}
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelHashJoinRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertParallel(
+                "x join y on x.i = y.i2",
+                "create table x as (" +
+                        "select x k, rnd_int(0, 500, 0) i, timestamp_sequence(0, 100000000) ts" +
+                        " from long_sequence(5000)" +
+                        ") timestamp(ts) partition by DAY",
+                "create table y as (" +
+                        "select x k2, rnd_int(0, 500, 0) i2, timestamp_sequence(0, 100000000) ts2" +
+                        " from long_sequence(3000)" +
+                        ") timestamp(ts2) partition by DAY",
+                "alter table y add column c2 double",
+                "insert into y select x k2, rnd_int(0, 500, 0) i2, timestamp_sequence(500000000000, 100000000) ts2, rnd_double() c2 from long_sequence(3000)"
+        );
+    }
+
+    @Test
+    public void testInnerJoinOnSymbol() throws Exception {
+        assertParallel(
+                "x join y on x.s = y.s2",
+                "create table x as (" +
+                        "select x k, rnd_symbol(50, 3, 3, 2) s, timestamp_sequence(0, 10000000) ts" +
+                        " from long_sequence(20000)" +
+                        ") timestamp(ts) partition by DAY",
+                "create table y as (" +
+                        "select x k2, rnd_symbol(50, 3, 3, 2) s2, rnd_double() d2, timestamp_sequence(0, 600000000) ts2" +
+                        " from long_sequence(200)" +
+                        ") timestamp(ts2) partition by DAY"
+        );
+    }
+
+    @Test
+    public void testMultipleKeys() throws Exception {
+        assertParallel(
+                "x join y on x.s = y.s2 and x.i = y.i2 and x.b = y.b2 and x.sh = y.sh2 and x.ch = y.ch2 and x.l = y.l2 and x.d = y.d2",
+                "create table x as (" +
+                        "select" +
+                        " x k," +
+                        " rnd_symbol('A', 'B', 'C') s," +
+                        " rnd_int(0, 20, 0) i," +
+                        " rnd_byte(0, 2) b," +
+                        " rnd_short(0, 2) sh," +
+                        " rnd_char() ch," +
+                        " rnd_long(0, 1, 0) l," +
+                        " cast(rnd_int(0, 1, 0) as double) d," +
+                        " timestamp_sequence(0, 10000000) ts" +
+                        " from long_sequence(10000)" +
+                        ") timestamp(ts) partition by DAY",
+                "create table y as (" +
+                        "select" +
+                        " x k2," +
+                        " rnd_symbol('C', 'B', 'D') s2," +
+                        " rnd_int(0, 20, 0) i2," +
+                        " rnd_byte(0, 2) b2," +
+                        " rnd_short(0, 2) sh2," +
+                        " rnd_char() ch2," +
+                        " rnd_long(0, 1, 0) l2," +
+                        " cast(rnd_int(0, 1, 0) as double) d2," +
+                        " timestamp_sequence(0, 10000000) ts2" +
+                        " from long_sequence(10000)" +
+                        ") timestamp(ts2) partition by DAY"
+        );
+    }
+
+    @Test
+    public void testOuterJoinOnSymbol() throws Exception {
+        assertParallel(
+                "x left join y on x.s = y.s2",
+                "create table x as (" +
+                        "select x k, rnd_symbol(100, 3, 3, 2) s, timestamp_sequence(0, 10000000) ts" +
+                        " from long_sequence(5000)" +
+                        ") timestamp(ts) partition by DAY",
+                "create table y as (" +
+                        "select x k2, rnd_symbol(40, 3, 3, 2) s2, rnd_long() l2" +
+                        " from long_sequence(500)" +
+                        ")"
+        );
+    }
+
+    @Test
+    public void testRowChainLimit() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_int(0, 10, 0) i from long_sequence(100))", sqlExecutionContext);
+            compiler.compile("create table y as (select rnd_int(0, 10, 0) i2 from long_sequence(1000))", sqlExecutionContext);
+            final CairoConfiguration limitedConfiguration = new DefaultCairoConfiguration(root) {
+                @Override
+                public int getSqlHashJoinLightValuePageSize() {
+                    return 1024;
+                }
+
+                @Override
+                public int getSqlHashJoinLightValueMaxPages() {
+                    return 1;
+                }
+            };
+            final RecordCursorFactory master = compiler.compile("x", sqlExecutionContext).getRecordCursorFactory();
+            final RecordCursorFactory slave = compiler.compile("y", sqlExecutionContext).getRecordCursorFactory();
+            final JoinRecordMetadata metadata = new JoinRecordMetadata(configuration, 2);
+            metadata.copyColumnMetadataFrom("x", master.getMetadata());
+            metadata.copyColumnMetadataFrom("y", slave.getMetadata());
+            final ListColumnFilter masterKey = new ListColumnFilter();
+            final ListColumnFilter slaveKey = new ListColumnFilter();
+            masterKey.add(1);
+            slaveKey.add(1);
+            runWithWorkers(parallelContext -> {
+                try (RecordCursorFactory factory = new ParallelHashJoinRecordCursorFactory(
+                        limitedConfiguration,
+                        metadata,
+                        master,
+                        slave,
+                        masterKey,
+                        slaveKey,
+                        false,
+                        parallelContext.getWorkerCount()
+                )) {
+                    try (RecordCursor ignored = factory.getCursor(parallelContext)) {
+                        Assert.fail();
+                    } catch (LimitOverflowException e) {
+                        TestUtils.assertContains(e.getFlyweightMessage(), "Maximum number of pages (1) breached");
+                    }
+                }
+            });
+        });
+    }
+
+    @Test
+    public void testToTop() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select rnd_symbol('A','B','C') s, rnd_long() l, timestamp_sequence(0, 10000000) ts" +
+                            " from long_sequence(30000)" +
+                            ") timestamp(ts) partition by DAY",
+                    sqlExecutionContext
+            );
+            compiler.compile(
+                    "create table y as (" +
+                            "select rnd_symbol('A','B','D') s2, rnd_long() l2" +
+                            " from long_sequence(10)" +
+                            ")",
+                    sqlExecutionContext
+            );
+            runWithWorkers(parallelContext -> {
+                final String query = "x join y on x.s = y.s2";
+                assertParallelJoin(query, parallelContext);
+                try (RecordCursorFactory factory = compiler.compile(query, parallelContext).getRecordCursorFactory()) {
+                    try (RecordCursor cursor = factory.getCursor(parallelContext)) {
+                        final Record record = cursor.getRecord();
+                        long sum = 0;
+                        int count = 0;
+                        // abandon the cursor half way through
+                        while (cursor.hasNext() && count++ < 1000) {
+                            sum += record.getLong(1) + record.getLong(4);
+                        }
+                        cursor.toTop();
+                        long expectedSum = 0;
+                        count = 0;
+                        while (cursor.hasNext()) {
+                            if (count++ < 1000) {
+                                expectedSum += record.getLong(1) + record.getLong(4);
+                            }
+                        }
+                        Assert.assertEquals(expectedSum, sum);
+                    }
+                }
+            });
+        });
+    }
+
+    private static void assertParallelJoin(String query, SqlExecutionContext executionContext) throws SqlException {
+        // join result is wrapped into column selection, look for join factory in query profile
+        TestUtils.assertContains(planOf(compiler, executionContext, query), ParallelHashJoinRecordCursorFactory.class.getSimpleName());
+    }
+
+    private static void assertParallel(String query, String... ddl) throws Exception {
+        assertParallel(engine.getMessageBus().getHashJoinSubSequence(), new HashJoinJob(engine.getMessageBus()), ParallelHashJoinRecordCursorFactory.class, query, ddl);
+    }
+
+    private static void runWithWorkers(ParallelCode code) throws Exception {
+        runWithWorkers(engine.getMessageBus().getHashJoinSubSequence(), new HashJoinJob(engine.getMessageBus()), code);
+    }
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.*;
+import io.questdb.std.Numbers;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+
+public class SpillingHashJoinTest extends AbstractGriffinTest {
+
+    @Test
+    public void testInnerJoin() throws Exception {
+        assertSpilledResult("select x.k, x.i, x.s, y.k, y.str, y.l from x join y on (i, s) order by x.k, y.k");
+    }
+
+    @Test
+    public void testInnerJoinUnordered() throws Exception {
+        assertSpilledResult("select x.k, x.i, y.k, y.str from x join y on (i)");
+    }
+
+    @Test
+    public void testOuterJoin() throws Exception {
+        assertSpilledResult("select x.k, x.i, x.s, x.ts, y.k, y.s, y.str from x left join y on (i, s) order by x.ts, y.k");
+    }
+
+    @Test
+    public void testOuterJoinUnordered() throws Exception {
+        assertSpilledResult("select x.k, x.s, y.k, y.l from x left join y on (i)");
+    }
+
+    private static String[] sortedLines(String text) {
+        final String[] lines = text.split("\n");
+        // header stays first
+        Arrays.sort(lines, 1, lines.length);
+        return lines;
+    }
+
+    private static int countSpillFiles() {
+        final File[] files = temp.getRoot().listFiles((dir, name) -> name.startsWith("join-"));
+        return files == null ? 0 : files.length;
+    }
+
+    private void assertSpilledResult(String query) throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (" +
+                    "select" +
+                    " x k," +
+                    " rnd_int(0, 6000, 0) i," +
+                    " rnd_symbol('a', 'b', 'c') s," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(5000)" +
+                    ") timestamp(ts)", sqlExecutionContext);
+            compiler.compile("create table y as (" +
+                    "select" +
+                    " x k," +
+                    " rnd_int(0, 5000, 0) i," +
+                    " rnd_symbol('c', 'b', 'a', 'd') s," +
+                    " rnd_str(4, 8, 1) str," +
+                    " rnd_long() l" +
+                    " from long_sequence(60000)" +
+                    ")", sqlExecutionContext);
+
+            final String expected = print(compiler, sqlExecutionContext, query, false);
+
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public long getSqlHashJoinSpillThreshold() {
+                    return Numbers.SIZE_1MB;
+                }
+
+                @Override
+                public int getSqlHashJoinSpillPartitionCount() {
+                    return 8;
+                }
+
+                @Override
+                public CharSequence getSqlTempRoot() {
+                    return temp.getRoot().getAbsolutePath();
+                }
+
+                @Override
+                public boolean isSqlHashJoinSpillEnabled() {
+                    return true;
+                }
+            };
+
+            try (
+                    CairoEngine engine = new CairoEngine(configuration);
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1)
+                        .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+                final String actual = print(compiler, executionContext, query, true);
+                // spilled join does not keep master order
+                Assert.assertArrayEquals(sortedLines(expected), sortedLines(actual));
+                Assert.assertEquals(0, countSpillFiles());
+            }
+        });
+    }
+
+    private String print(SqlCompiler compiler, SqlExecutionContext executionContext, String query, boolean expectSpill) throws SqlException {
+        try (
+                RecordCursorFactory factory = compiler.compile(query, executionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(executionContext)
+        ) {
+            if (expectSpill) {
+                Assert.assertTrue(countSpillFiles() > 0);
+            }
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), true);
+            Assert.assertTrue(sink.length() > 0);
+            final String result = sink.toString();
+
+            // cursor can be iterated again
+            cursor.toTop();
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), true);
+            TestUtils.assertEquals(result, sink);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.*;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Test;
+
+public class LimitedSizeSortTest extends AbstractGriffinTest {
+
+    @Test
+    public void testLimit() throws Exception {
+        assertSameAsFullSort(
+                "select * from x order by k limit 10",
+                "select * from x order by k desc limit 25",
+                "select * from x order by k, d desc limit 7",
+                "select * from x order by str limit 30",
+                "select * from x where k > 100 order by d limit 15"
+        );
+    }
+
+    @Test
+    public void testLimitAboveThreshold() throws Exception {
+        assertSameAsFullSort("select * from x order by k limit 5000");
+    }
+
+    @Test
+    public void testLimitExceedsRowCount() throws Exception {
+        assertSameAsFullSort("select * from (x where k = 1) order by d limit 500");
+    }
+
+    @Test
+    public void testLimitRange() throws Exception {
+        assertSameAsFullSort(
+                "select * from x order by k limit 5, 20",
+                "select * from x order by k desc limit 0, 3",
+                "select * from x order by k limit 20, 5"
+        );
+    }
+
+    @Test
+    public void testLimitTail() throws Exception {
+        assertSameAsFullSort(
+                "select * from x order by k limit -10",
+                "select * from x order by k limit -10, -5"
+        );
+    }
+
+    @Test
+    public void testLimitZero() throws Exception {
+        assertSameAsFullSort("select * from x order by k limit 0");
+    }
+
+    private void assertSameAsFullSort(String... queries) throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (" +
+                    "select" +
+                    " rnd_int(0, 200, 0) k," +
+                    " rnd_double() d," +
+                    " rnd_str(3, 3, 0) str," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(10000)" +
+                    ")", sqlExecutionContext);
+
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public int getSqlSortTopKMaxRows() {
+                    return 0;
+                }
+
+                @Override
+                public boolean isSqlRadixSortEnabled() {
+                    return false;
+                }
+            };
+
+            try (
+                    CairoEngine engine = new CairoEngine(configuration);
+                    SqlCompiler fullSortCompiler = new SqlCompiler(engine)
+            ) {
+                final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1)
+                        .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+                for (String query : queries) {
+                    final String expected = print(fullSortCompiler, executionContext, query);
+                    TestUtils.assertEquals(expected, print(compiler, sqlExecutionContext, query));
+                }
+            }
+        });
+    }
+
+    private static String print(SqlCompiler compiler, SqlExecutionContext executionContext, String query) throws SqlException {
+        try (
+                RecordCursorFactory factory = compiler.compile(query, executionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(executionContext)
+        ) {
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), true);
+            return sink.toString();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.AbstractCairoTest;
+import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rnd;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+
+public class RadixSortChainTest extends AbstractCairoTest {
+
+    @Test
+    public void testClearRemovesRuns() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (RadixSortChain chain = createChain(16 * 1024, false)) {
+                populate(chain, 10_000, 100);
+                chain.sort();
+                Assert.assertTrue(chain.getRunCount() > 1);
+                Assert.assertTrue(countRunFiles() > 0);
+
+                chain.clear();
+                Assert.assertEquals(0, chain.getRunCount());
+                Assert.assertEquals(0, countRunFiles());
+
+                // chain is reusable after clear
+                populate(chain, 500, 10);
+                chain.sort();
+                assertSorted(chain, 500, 10, false);
+            }
+        });
+    }
+
+    @Test
+    public void testInMemory() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (RadixSortChain chain = createChain(Numbers.SIZE_1MB, false)) {
+                populate(chain, 10_000, 100);
+                chain.sort();
+                Assert.assertEquals(0, chain.getRunCount());
+                assertSorted(chain, 10_000, 100, false);
+            }
+        });
+    }
+
+    @Test
+    public void testInMemoryLifo() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (RadixSortChain chain = createChain(Numbers.SIZE_1MB, true)) {
+                populate(chain, 10_000, 100);
+                chain.sort();
+                assertSorted(chain, 10_000, 100, true);
+            }
+        });
+    }
+
+    @Test
+    public void testInMemorySmall() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (RadixSortChain chain = createChain(Numbers.SIZE_1MB, false)) {
+                populate(chain, 100, 7);
+                chain.sort();
+                assertSorted(chain, 100, 7, false);
+            }
+        });
+    }
+
+    @Test
+    public void testSpillAndMerge() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (RadixSortChain chain = createChain(16 * 1024, false)) {
+                populate(chain, 100_000, 1000);
+                chain.sort();
+                Assert.assertTrue(chain.getRunCount() > 1);
+                assertSorted(chain, 100_000, 1000, false);
+                // merge can be restarted
+                chain.toTop();
+                assertSorted(chain, 100_000, 1000, false);
+            }
+        });
+    }
+
+    @Test
+    public void testSpillAndMergeLifo() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (RadixSortChain chain = createChain(16 * 1024, true)) {
+                populate(chain, 100_000, 1000);
+                chain.sort();
+                Assert.assertTrue(chain.getRunCount() > 1);
+                assertSorted(chain, 100_000, 1000, true);
+            }
+        });
+    }
+
+    private static void assertSorted(RadixSortChain chain, int n, int keyCount, boolean lifo) {
+        // values are sequence numbers, key of value is recovered from the same random sequence
+        final long[] keys = keysOf(n, keyCount);
+        long prevKey = Long.MIN_VALUE;
+        long prevValue = -1;
+        int count = 0;
+        while (chain.hasNext()) {
+            final long value = chain.getValue();
+            final long key = keys[(int) value];
+            if (count > 0) {
+                Assert.assertTrue(key >= prevKey);
+                if (key == prevKey) {
+                    Assert.assertTrue(lifo ? value < prevValue : value > prevValue);
+                }
+            }
+            prevKey = key;
+            prevValue = value;
+            count++;
+        }
+        Assert.assertEquals(n, count);
+    }
+
+    private static int countRunFiles() {
+        final File[] files = new File(root.toString(), "tmp").listFiles();
+        return files == null ? 0 : files.length;
+    }
+
+    private static RadixSortChain createChain(long memoryLimit, boolean lifo) {
+        return new RadixSortChain(
+                FilesFacadeImpl.INSTANCE,
+                new File(root.toString(), "tmp").getAbsolutePath(),
+                configuration.getMkDirMode(),
+                4096,
+                memoryLimit,
+                lifo
+        );
+    }
+
+    private static long[] keysOf(int n, int keyCount) {
+        final Rnd rnd = new Rnd();
+        final long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = rnd.nextPositiveInt() % keyCount;
+        }
+        return keys;
+    }
+
+    private static void populate(RadixSortChain chain, int n, int keyCount) {
+        final long[] keys = keysOf(n, keyCount);
+        for (int i = 0; i < n; i++) {
+            chain.put(keys[i], i);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.*;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RadixSortTest extends AbstractGriffinTest {
+
+    @Test
+    public void testDoubleNullsAndSigns() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table y as (" +
+                    "select" +
+                    " cast(x as int) i," +
+                    " case when x % 4 = 0 then cast(null as double) else (x - 5) * 1.5 end d" +
+                    " from long_sequence(8)" +
+                    ")", sqlExecutionContext);
+            assertRadix(
+                    "select * from y order by d",
+                    "RadixSortedLightRecordCursorFactory",
+                    "i\td\n" +
+                            "8\tNaN\n" +
+                            "4\tNaN\n" +
+                            "1\t-6.0\n" +
+                            "2\t-4.5\n" +
+                            "3\t-3.0\n" +
+                            "5\t0.0\n" +
+                            "6\t1.5\n" +
+                            "7\t3.0\n"
+            );
+            assertRadix(
+                    "select * from y order by d desc",
+                    "RadixSortedLightRecordCursorFactory",
+                    "i\td\n" +
+                            "7\t3.0\n" +
+                            "6\t1.5\n" +
+                            "5\t0.0\n" +
+                            "3\t-3.0\n" +
+                            "2\t-4.5\n" +
+                            "1\t-6.0\n" +
+                            "8\tNaN\n" +
+                            "4\tNaN\n"
+            );
+        });
+    }
+
+    @Test
+    public void testOrderByNonRandomAccess() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            // ties keep arrival order, same as the tree sort
+            assertSameAsTreeSort("select * from (x union all x) order by k", "select * from (x union all x) order by k", "RadixSortedRecordCursorFactory");
+            assertSameAsTreeSort("select * from (x union all x) order by ts desc", "select * from (x union all x) order by ts desc", "RadixSortedRecordCursorFactory");
+        });
+    }
+
+    @Test
+    public void testOrderByRandomAccess() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            assertSameAsTreeSort("select * from x order by k", "select * from x order by k", "RadixSortedLightRecordCursorFactory");
+            assertSameAsTreeSort("select * from x order by k desc", "select * from x order by k desc", "RadixSortedLightRecordCursorFactory");
+            assertSameAsTreeSort("select * from x order by s", "select * from x order by s", "RadixSortedLightRecordCursorFactory");
+            assertSameAsTreeSort("select * from x order by d", "select * from x order by d", "RadixSortedLightRecordCursorFactory");
+            assertSameAsTreeSort("select * from x order by ts desc", "select * from x order by ts desc", "RadixSortedLightRecordCursorFactory");
+        });
+    }
+
+    @Test
+    public void testStringKeyUsesTreeSort() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            assertSameAsTreeSort("select * from x order by str", "select * from x order by str", "SortedLightRecordCursorFactory");
+        });
+    }
+
+    private static void createX() throws SqlException {
+        compiler.compile("create table x as (" +
+                "select" +
+                " rnd_int(0, 200, 0) k," +
+                " rnd_short() s," +
+                " rnd_double() d," +
+                " rnd_str(3, 3, 0) str," +
+                " rnd_long() l," +
+                " timestamp_sequence(0, 1000000) ts" +
+                " from long_sequence(20000)" +
+                ")", sqlExecutionContext);
+    }
+
+    private void assertRadix(String query, String expectedFactory, String expected) throws Exception {
+        try (
+                CairoEngine engine = new CairoEngine(radixConfiguration());
+                SqlCompiler compiler = new SqlCompiler(engine)
+        ) {
+            final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1)
+                    .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+            Assert.assertEquals(expectedFactory, factoryOf(compiler, executionContext, query));
+            TestUtils.assertEquals(expected, print(compiler, executionContext, query));
+        }
+    }
+
+    private void assertSameAsTreeSort(String query, String treeQuery, String expectedFactory) throws Exception {
+        final CairoConfiguration treeConfiguration = new DefaultCairoConfiguration(root) {
+            @Override
+            public boolean isSqlRadixSortEnabled() {
+                return false;
+            }
+        };
+
+        final String expected;
+        try (
+                CairoEngine engine = new CairoEngine(treeConfiguration);
+                SqlCompiler compiler = new SqlCompiler(engine)
+        ) {
+            final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1)
+                    .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+            expected = print(compiler, executionContext, treeQuery);
+        }
+        assertRadix(query, expectedFactory, expected);
+    }
+
+    private static String factoryOf(SqlCompiler compiler, SqlExecutionContext executionContext, String query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, executionContext).getRecordCursorFactory()) {
+            return factory.getClass().getSimpleName();
+        }
+    }
+
+    private static String print(SqlCompiler compiler, SqlExecutionContext executionContext, String query) throws SqlException {
+        try (
+                RecordCursorFactory factory = compiler.compile(query, executionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(executionContext)
+        ) {
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), true);
+            Assert.assertTrue(sink.length() > 0);
+            return sink.toString();
+        }
+    }
+
+    private CairoConfiguration radixConfiguration() {
+        return new DefaultCairoConfiguration(root) {
+            @Override
+            public long getSqlSortSpillThreshold() {
+                // small threshold makes sort spill runs to disk
+                return 64 * 1024;
+            }
+
+            @Override
+            public CharSequence getSqlTempRoot() {
+                return temp.getRoot().getAbsolutePath();
+            }
+
+            @Override
+            public boolean isSqlRadixSortEnabled() {
+                return true;
+            }
+        };
+    }
+}
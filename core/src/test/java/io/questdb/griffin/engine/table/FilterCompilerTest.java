@@ -0,0 +1,204 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FilterCompilerTest extends AbstractGriffinTest {
+
+    @Test
+    public void testArithmetic() throws Exception {
+        assertCompiled(
+                "l + i > 20",
+                "i - l < 5",
+                "i * 2 - 1 < l",
+                "l / 3 = i",
+                "l - i * 3 = 0",
+                "b + i >= 5",
+                "d * 2 + f > 1.5",
+                "i / 2.0 < d",
+                "2000000000 + i < 0",
+                "ts * 0.5 > dt + d",
+                "i > -5 and d > -0.5 and l > -3000000000"
+        );
+    }
+
+    @Test
+    public void testBooleanOperators() throws Exception {
+        assertCompiled(
+                "i > 10 and l < 50",
+                "bo or sh > 10",
+                "not bo and not (i > 0.0 or d < 0.5)",
+                "bo and true",
+                "i < 0 or false"
+        );
+    }
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertCompiled(
+                "c = null or c > 0",
+                "c + i > 10 and s = 'B'"
+        );
+    }
+
+    @Test
+    public void testComparisons() throws Exception {
+        assertCompiled(
+                "i = 15",
+                "l != 15",
+                "l = i",
+                "sh < b",
+                "d >= 0.25 and d < 0.75",
+                "f > 0.5",
+                "ts > dt",
+                "i = '15'",
+                "l > 3000000000"
+        );
+    }
+
+    @Test
+    public void testNullChecks() throws Exception {
+        assertCompiled(
+                "i = null",
+                "i != null and d > 0.5",
+                "l = NaN or d = NaN",
+                "f = NaN",
+                "dt = NaN",
+                "i = NaN"
+        );
+    }
+
+    @Test
+    public void testSymbols() throws Exception {
+        assertCompiled(
+                "s = 'A' or s2 = null",
+                "s != 'B' and s2 != null",
+                "s = 'Z'",
+                "s = null"
+        );
+    }
+
+    @Test
+    public void testUnsupportedExpression() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String[] filters = {
+                    "i % 2 = 0",
+                    "abs(i) > 10",
+                    "cast(s as string) = 'A'",
+                    "i + l > 20",
+                    "f * 2 > 1"
+            };
+            final String[] expected = new String[filters.length];
+            for (int i = 0; i < filters.length; i++) {
+                expected[i] = printQuery(compiler, sqlExecutionContext, query(filters[i]));
+            }
+            runWithWorkers(parallelContext -> {
+                for (int i = 0; i < filters.length; i++) {
+                    final String query = query(filters[i]);
+                    try (RecordCursorFactory factory = compiler.compile(query, parallelContext).getRecordCursorFactory()) {
+                        Assert.assertTrue(factory instanceof ParallelFilteredRecordCursorFactory);
+                        Assert.assertFalse(filters[i], ((ParallelFilteredRecordCursorFactory) factory).isFilterCompiled());
+                    }
+                    TestUtils.assertEquals(expected[i], printQuery(compiler, parallelContext, query));
+                }
+            });
+        });
+    }
+
+    private static void createTable() throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " rnd_symbol('A','B','C') s," +
+                        " rnd_symbol(4, 1, 1, 2) s2," +
+                        " rnd_int(-100, 100, 4) i," +
+                        " rnd_long(-100, 100, 4) l," +
+                        " rnd_short(-100, 100) sh," +
+                        " rnd_byte(0, 100) b," +
+                        " rnd_boolean() bo," +
+                        " rnd_float(4) f," +
+                        " rnd_double(4) d," +
+                        " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 4) dt," +
+                        " timestamp_sequence(0, 10000000) ts" +
+                        " from long_sequence(50000)" +
+                        ") timestamp(ts) partition by DAY",
+                sqlExecutionContext
+        );
+        compiler.compile("alter table x add column c int", sqlExecutionContext);
+        compiler.compile(
+                "insert into x select" +
+                        " rnd_symbol('A','B','C') s," +
+                        " rnd_symbol(4, 1, 1, 2) s2," +
+                        " rnd_int(-100, 100, 4) i," +
+                        " rnd_long(-100, 100, 4) l," +
+                        " rnd_short(-100, 100) sh," +
+                        " rnd_byte(0, 100) b," +
+                        " rnd_boolean() bo," +
+                        " rnd_float(4) f," +
+                        " rnd_double(4) d," +
+                        " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 4) dt," +
+                        " timestamp_sequence(500000000000, 10000000) ts," +
+                        " rnd_int(-100, 100, 4) c" +
+                        " from long_sequence(50000)",
+                sqlExecutionContext
+        );
+    }
+
+    private static String query(String filter) {
+        return "select * from x where " + filter;
+    }
+
+    private void assertCompiled(String... filters) throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            // filter function evaluated by the calling thread is the reference
+            final String[] expected = new String[filters.length];
+            for (int i = 0; i < filters.length; i++) {
+                expected[i] = printQuery(compiler, sqlExecutionContext, query(filters[i]));
+            }
+            runWithWorkers(parallelContext -> {
+                for (int i = 0; i < filters.length; i++) {
+                    final String query = query(filters[i]);
+                    try (RecordCursorFactory factory = compiler.compile(query, parallelContext).getRecordCursorFactory()) {
+                        Assert.assertTrue(factory instanceof ParallelFilteredRecordCursorFactory);
+                        Assert.assertTrue(filters[i], ((ParallelFilteredRecordCursorFactory) factory).isFilterCompiled());
+                    }
+                    Assert.assertEquals(filters[i], expected[i], printQuery(compiler, parallelContext, query));
+                }
+            });
+        });
+    }
+
+    private static void runWithWorkers(ParallelCode code) throws Exception {
+        runWithWorkers(engine.getMessageBus().getPageFrameFilterSubSequence(), new PageFrameFilterJob(engine.getMessageBus()), code);
+    }
+}
@@ -0,0 +1,309 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.*;
+import io.questdb.std.LongList;
+import io.questdb.std.Rnd;
+import io.questdb.std.Zip;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatestByRowsTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAddColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("", "DAY");
+            compiler.compile("alter table x add column s2 symbol", sqlExecutionContext);
+            assertLatestRows("x latest by s", "s", true);
+            assertLatestRows("x latest by s2", "s2", false);
+
+            // existing rows have null in new column
+            compiler.compile("alter table x alter column s2 add latest", sqlExecutionContext);
+            assertLatestRows("x latest by s2", "s2", true);
+            compiler.compile("insert into x select rnd_symbol('A','B','C') s, rnd_long() l, timestamp_sequence(2000000000000, 1000000000) ts, rnd_symbol('D','E',null) s2 from long_sequence(1000)", sqlExecutionContext);
+            assertLatestRows("x latest by s2", "s2", true);
+        });
+    }
+
+    @Test
+    public void testAddLatestTwice() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("", "DAY");
+            try {
+                compiler.compile("alter table x alter column s add latest", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "already tracking latest rows");
+            }
+        });
+    }
+
+    @Test
+    public void testAddColumnToEmptyTable() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (s symbol, l long, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            compiler.compile("alter table x add column s2 symbol", sqlExecutionContext);
+            compiler.compile("alter table x alter column s2 add latest", sqlExecutionContext);
+            compiler.compile("insert into x select rnd_symbol('A','B','C') s, rnd_long() l, timestamp_sequence(0, 1000000000) ts, rnd_symbol('D','E',null) s2 from long_sequence(1000)", sqlExecutionContext);
+            assertLatestRows("x latest by s2", "s2", true);
+        });
+    }
+
+    @Test
+    public void testCompressedPartitions() throws Exception {
+        // Zip allocates its static memory when class is loaded, this must not count as a leak
+        Assert.assertNotEquals(0, Zip.gzipHeader);
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_symbol('A','B','C',null) s, rnd_long() l, timestamp_sequence(0, 1000000000) ts from long_sequence(300)) timestamp(ts) partition by DAY", sqlExecutionContext);
+            compiler.compile("insert into x select rnd_symbol('D') s, rnd_long() l, timestamp_sequence(400000000000, 1000000000) ts from long_sequence(10)", sqlExecutionContext);
+            compiler.compile("alter table x compress partition list '1970-01-01', '1970-01-02'", sqlExecutionContext);
+            compiler.compile("alter table x alter column s add latest", sqlExecutionContext);
+            assertLatestRows("x latest by s", "s", true);
+        });
+    }
+
+    @Test
+    public void testIndexed() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(", index(s)", "DAY");
+            appendRows(3);
+            assertLatestRows("x latest by s", "s", true);
+        });
+    }
+
+    @Test
+    public void testMultipleCommits() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("", "DAY");
+            appendRows(5);
+            assertLatestRows("x latest by s", "s", true);
+            assertLatestRows("x latest by s where l > 0", "s", true);
+            assertLatestRows("x latest by s where ts > '1970-01-10'", "s", true);
+        });
+    }
+
+    @Test
+    public void testNotPartitioned() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("", "NONE");
+            appendRows(3);
+            assertLatestRows("x latest by s", "s", true);
+        });
+    }
+
+    @Test
+    public void testNotTracked() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_symbol(20, 3, 3, 2) s, rnd_long() l, timestamp_sequence(0, 100000000) ts from long_sequence(1000)) timestamp(ts) partition by DAY", sqlExecutionContext);
+            assertLatestRows("x latest by s", "s", false);
+            try {
+                compiler.compile("alter table x alter column l add latest", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "cannot track latest rows");
+            }
+        });
+    }
+
+    @Test
+    public void testOutOfOrderRebuildsLatestRows() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("", "DAY");
+            engine.releaseAllWriters();
+
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public boolean isOutOfOrderEnabled() {
+                    return true;
+                }
+            };
+            try (TableWriter writer = new TableWriter(configuration, "x")) {
+                TableWriter.Row row = writer.newRow(50_000_000_000L);
+                row.putSym(0, "Z");
+                row.append();
+                row = writer.newRow(10_000_000_000L);
+                row.putSym(0, "A");
+                row.append();
+                writer.commit();
+            }
+            assertLatestRows("x latest by s", "s", true);
+
+            // truncate starts tracking afresh
+            compiler.compile("truncate table x", sqlExecutionContext);
+            appendRows(2);
+            assertLatestRows("x latest by s", "s", true);
+        });
+    }
+
+    @Test
+    public void testOutOfOrderIntoOlderPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("", "DAY");
+            appendRows(2);
+            engine.releaseAllWriters();
+
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public boolean isOutOfOrderEnabled() {
+                    return true;
+                }
+            };
+            // out-of-order rows land in the middle of the table, keys in older partitions stay as they are
+            try (TableWriter writer = new TableWriter(configuration, "x")) {
+                final Rnd rnd = new Rnd();
+                long timestamp = writer.getMaxTimestamp();
+                for (int i = 0; i < 100; i++) {
+                    TableWriter.Row row = writer.newRow(timestamp += 1000000);
+                    row.putSym(0, rnd.nextBoolean() ? "Y" : null);
+                    row.append();
+                }
+                for (int i = 0; i < 500; i++) {
+                    TableWriter.Row row = writer.newRow(500_000_000_000L + i * 100_000_000L);
+                    row.putSym(0, rnd.nextBoolean() ? "Z" : "A");
+                    row.append();
+                }
+                writer.commit();
+            }
+            assertLatestRows("x latest by s", "s", true);
+        });
+    }
+
+    @Test
+    public void testRemovePartitionRebuildsLatestRows() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("", "DAY");
+            compiler.compile("alter table x drop partition list '1970-01-01'", sqlExecutionContext);
+            assertLatestRows("x latest by s", "s", true);
+            // symbol keys seen only in dropped partition have no rows
+            compiler.compile("create table y as (select rnd_symbol('A','B') s, timestamp_sequence(0, 1000000000) ts from long_sequence(200)) timestamp(ts) partition by DAY", sqlExecutionContext);
+            compiler.compile("alter table y alter column s add latest", sqlExecutionContext);
+            compiler.compile("insert into y select rnd_symbol('C') s, timestamp_sequence(400000000000, 1000000000) ts from long_sequence(10)", sqlExecutionContext);
+            compiler.compile("alter table y drop partition list '1970-01-01', '1970-01-02', '1970-01-03'", sqlExecutionContext);
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "y")) {
+                final LongList rowIds = new LongList();
+                Assert.assertTrue(reader.readLatestRows(0, rowIds));
+                // null, A, B and C
+                Assert.assertEquals(4, rowIds.size());
+                Assert.assertEquals(-1, rowIds.getQuick(0));
+                Assert.assertEquals(-1, rowIds.getQuick(1));
+                Assert.assertEquals(-1, rowIds.getQuick(2));
+                Assert.assertNotEquals(-1, rowIds.getQuick(3));
+            }
+        });
+    }
+
+    @Test
+    public void testRollback() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("", "DAY");
+            try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                TableWriter.Row row = writer.newRow(writer.getMaxTimestamp() + 1);
+                row.putSym(0, "new");
+                row.append();
+                writer.rollback();
+
+                final Rnd rnd = new Rnd();
+                long timestamp = writer.getMaxTimestamp();
+                for (int i = 0; i < 100; i++) {
+                    row = writer.newRow(timestamp += 1000000);
+                    row.putSym(0, rnd.nextBoolean() ? "A" : null);
+                    row.putLong(1, i);
+                    if (i % 10 == 0) {
+                        row.cancel();
+                    } else {
+                        row.append();
+                    }
+                }
+                writer.commit();
+            }
+            assertLatestRows("x latest by s", "s", true);
+        });
+    }
+
+    private static void appendRows(int commits) throws SqlException {
+        for (int i = 0; i < commits; i++) {
+            compiler.compile(
+                    "insert into x select rnd_symbol(20, 3, 3, 2) s, rnd_long() l, timestamp_sequence(" + (i + 1) * 2_000_000_000_000L + ", 100000000) ts" +
+                            " from long_sequence(2000)",
+                    sqlExecutionContext
+            );
+        }
+    }
+
+    private static void assertLatestRows(String query, String columnName, boolean expectLatestRows) throws SqlException {
+        final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+            @Override
+            public boolean isSqlLatestByRowsEnabled() {
+                return false;
+            }
+        };
+        final String expected;
+        try (
+                CairoEngine engine = new CairoEngine(configuration);
+                SqlCompiler compiler = new SqlCompiler(engine)
+        ) {
+            final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1)
+                    .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+            expected = print(compiler, executionContext, query);
+        }
+        TestUtils.assertEquals(expected, print(compiler, sqlExecutionContext, query));
+
+        try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+            final LongList rowIds = new LongList();
+            Assert.assertEquals(expectLatestRows, reader.readLatestRows(reader.getMetadata().getColumnIndex(columnName), rowIds));
+        }
+    }
+
+    private static void createTable(String index, String partitionBy) throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select rnd_symbol(20, 3, 3, 2) s, rnd_long() l, timestamp_sequence(0, 100000000) ts" +
+                        " from long_sequence(10000)" +
+                        ")" + index + " timestamp(ts) partition by " + partitionBy,
+                sqlExecutionContext
+        );
+        compiler.compile("alter table x alter column s add latest", sqlExecutionContext);
+    }
+
+    private static String print(SqlCompiler compiler, SqlExecutionContext executionContext, String query) throws SqlException {
+        try (
+                RecordCursorFactory factory = compiler.compile(query, executionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(executionContext)
+        ) {
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), true);
+            Assert.assertTrue(sink.length() > 0);
+            return sink.toString();
+        }
+    }
+}
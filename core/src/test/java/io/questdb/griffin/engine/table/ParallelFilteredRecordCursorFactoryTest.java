@@ -0,0 +1,148 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertParallel(
+                "select * from x where c > 0.5 or c = NaN",
+                "create table x as (" +
+                        "select rnd_symbol('A','B','C') s, rnd_double() d, timestamp_sequence(0, 100000000) ts" +
+                        " from long_sequence(5000)" +
+                        ") timestamp(ts) partition by DAY",
+                "alter table x add column c double",
+                "insert into x select rnd_symbol('A','B','C') s, rnd_double() d, timestamp_sequence(500000000000, 100000000) ts, rnd_double() c from long_sequence(5000)"
+        );
+    }
+
+    @Test
+    public void testLimit() throws Exception {
+        assertParallel(
+                "select * from x where s = 'B' limit 7",
+                "create table x as (" +
+                        "select rnd_symbol('A','B','C') s, rnd_long() l, timestamp_sequence(0, 10000000) ts" +
+                        " from long_sequence(100000)" +
+                        ") timestamp(ts) partition by DAY"
+        );
+    }
+
+    @Test
+    public void testNoMatches() throws Exception {
+        assertParallel(
+                "select * from x where s = 'Z'",
+                "create table x as (" +
+                        "select rnd_symbol('A','B','C') s, rnd_long() l, timestamp_sequence(0, 10000000) ts" +
+                        " from long_sequence(10000)" +
+                        ") timestamp(ts) partition by DAY"
+        );
+    }
+
+    @Test
+    public void testSymbolAndDoubleFilter() throws Exception {
+        assertParallel(
+                "select * from x where s in ('A', 'C') and d < 0.3 and i > 0",
+                "create table x as (" +
+                        "select" +
+                        " rnd_symbol('A','B','C', null) s," +
+                        " rnd_double(2) d," +
+                        " rnd_int() i," +
+                        " rnd_short() sh," +
+                        " rnd_byte() b," +
+                        " rnd_boolean() bo," +
+                        " rnd_char() ch," +
+                        " rnd_float(2) f," +
+                        " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) dt," +
+                        " timestamp_sequence(0, 10000000) ts" +
+                        " from long_sequence(200000)" +
+                        ") timestamp(ts) partition by DAY"
+        );
+    }
+
+    @Test
+    public void testSymbolValueFilter() throws Exception {
+        assertParallel(
+                "select * from x where cast(s as string) ~ '[AB]' and length(s) > 4",
+                "create table x as (" +
+                        "select rnd_symbol(20, 4, 6, 2) s, rnd_int() i, timestamp_sequence(0, 10000000) ts" +
+                        " from long_sequence(50000)" +
+                        ") timestamp(ts) partition by DAY"
+        );
+    }
+
+    @Test
+    public void testToTop() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select rnd_symbol('A','B','C') s, rnd_long() l, timestamp_sequence(0, 10000000) ts" +
+                            " from long_sequence(30000)" +
+                            ") timestamp(ts) partition by DAY",
+                    sqlExecutionContext
+            );
+            runWithWorkers(parallelContext -> {
+                try (RecordCursorFactory factory = compiler.compile("x where l > 0", parallelContext).getRecordCursorFactory()) {
+                    Assert.assertTrue(factory instanceof ParallelFilteredRecordCursorFactory);
+                    try (RecordCursor cursor = factory.getCursor(parallelContext)) {
+                        final Record record = cursor.getRecord();
+                        long sum = 0;
+                        int count = 0;
+                        // abandon the cursor half way through
+                        while (cursor.hasNext() && count++ < 1000) {
+                            sum += record.getLong(1);
+                        }
+                        cursor.toTop();
+                        long expectedSum = 0;
+                        count = 0;
+                        while (cursor.hasNext()) {
+                            final long l = record.getLong(1);
+                            Assert.assertTrue(l > 0);
+                            if (count++ < 1000) {
+                                expectedSum += l;
+                            }
+                        }
+                        Assert.assertEquals(expectedSum, sum);
+                    }
+                }
+            });
+        });
+    }
+
+    private static void assertParallel(String query, String... ddl) throws Exception {
+        assertParallel(engine.getMessageBus().getPageFrameFilterSubSequence(), new PageFrameFilterJob(engine.getMessageBus()), null, query, ddl);
+    }
+
+    private static void runWithWorkers(ParallelCode code) throws Exception {
+        runWithWorkers(engine.getMessageBus().getPageFrameFilterSubSequence(), new PageFrameFilterJob(engine.getMessageBus()), code);
+    }
+}
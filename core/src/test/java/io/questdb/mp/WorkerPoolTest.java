@@ -0,0 +1,213 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.mp;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WorkerPoolTest {
+
+    @Test
+    public void testAdaptiveSpinCount() {
+        AdaptiveIdleStrategy strategy = new AdaptiveIdleStrategy(new WorkerWakeup());
+        // work arrives quickly, worker should spin long enough to catch it
+        for (int i = 0; i < 100; i++) {
+            strategy.wake(200);
+        }
+        Assert.assertTrue(strategy.getSpinCount() >= 200);
+
+        // long gaps between work, spinning is waste
+        for (int i = 0; i < 100; i++) {
+            strategy.wake(100_000);
+        }
+        Assert.assertEquals(10, strategy.getSpinCount());
+    }
+
+    @Test
+    public void testJobCounters() throws Exception {
+        final int usefulRuns = 1000;
+        final AtomicInteger remaining = new AtomicInteger(usefulRuns);
+        final SOCountDownLatch jobDone = new SOCountDownLatch(1);
+        final SOCountDownLatch idleJobDone = new SOCountDownLatch(1);
+        final Job job = (workerId) -> {
+            if (remaining.get() > 0 && remaining.decrementAndGet() >= 0) {
+                return true;
+            }
+            jobDone.countDown();
+            return false;
+        };
+        final Job idleJob = (workerId) -> {
+            idleJobDone.countDown();
+            return false;
+        };
+
+        final WorkerPool pool = new WorkerPool(new TestConfiguration(2, wakeup -> new BackoffIdleStrategy(), true));
+        pool.assign(job);
+        pool.assign(1, idleJob);
+        pool.start(null);
+        jobDone.await();
+        idleJobDone.await();
+        pool.halt();
+
+        Assert.assertEquals(usefulRuns, pool.getJobUsefulCount(job));
+        Assert.assertTrue(pool.getJobIdleCount(job) > 0);
+        Assert.assertEquals(0, pool.getJobUsefulCount(idleJob));
+        Assert.assertTrue(pool.getJobIdleCount(idleJob) > 0);
+
+        long usefulPasses = 0;
+        long idlePasses = 0;
+        for (int i = 0; i < pool.getWorkerCount(); i++) {
+            usefulPasses += pool.getWorkerUsefulPassCount(i);
+            idlePasses += pool.getWorkerIdlePassCount(i);
+        }
+        Assert.assertEquals(usefulRuns, usefulPasses);
+        Assert.assertTrue(idlePasses > 0);
+    }
+
+    @Test
+    public void testJobCountersDisabled() throws Exception {
+        final SOCountDownLatch jobDone = new SOCountDownLatch(1);
+        final Job job = (workerId) -> {
+            jobDone.countDown();
+            return true;
+        };
+
+        final WorkerPool pool = new WorkerPool(new TestConfiguration(1, wakeup -> new BackoffIdleStrategy(), false));
+        pool.assign(job);
+        pool.start(null);
+        jobDone.await();
+        pool.halt();
+
+        Assert.assertEquals(0, pool.getJobUsefulCount(job));
+        Assert.assertEquals(0, pool.getJobIdleCount(job));
+        Assert.assertTrue(pool.getWorkerUsefulPassCount(0) > 0);
+    }
+
+    @Test
+    public void testWakeup() {
+        final RingQueue<Event> queue = new RingQueue<>(Event.FACTORY, 16);
+        final MPSequence pubSeq = new MPSequence(queue.getCapacity());
+        final WorkerWakeup source = new WorkerWakeup();
+        final MCSequence subSeq = new MCSequence(queue.getCapacity(), source);
+        pubSeq.then(subSeq).then(pubSeq);
+
+        final SOCountDownLatch consumed = new SOCountDownLatch(1);
+        final WorkerPool pool = newParkingPool();
+        final WorkerPool otherPool = newParkingPool();
+        pool.assign((workerId) -> {
+            long cursor = subSeq.next();
+            if (cursor > -1) {
+                subSeq.done(cursor);
+                consumed.countDown();
+                return true;
+            }
+            return false;
+        });
+        otherPool.assign((workerId) -> false);
+        pool.wakeOn(source);
+        pool.start(null);
+        otherPool.start(null);
+        try {
+            // workers park for much longer than we are prepared to wait
+            awaitParked(pool);
+            awaitParked(otherPool);
+
+            long cursor = pubSeq.nextBully();
+            queue.get(cursor).value = 1;
+            pubSeq.done(cursor);
+            Assert.assertTrue(consumed.await(TimeUnit.SECONDS.toNanos(2)));
+
+            // publishing must not disturb pools that do not consume the queue
+            Assert.assertEquals(1, otherPool.getWakeup().getParkedCount());
+        } finally {
+            pool.halt();
+            otherPool.halt();
+        }
+    }
+
+    private static void awaitParked(WorkerPool pool) {
+        while (pool.getWakeup().getParkedCount() == 0) {
+            Thread.yield();
+        }
+    }
+
+    private static WorkerPool newParkingPool() {
+        return new WorkerPool(new TestConfiguration(1, wakeup -> new WorkerIdleStrategy() {
+            @Override
+            public void idle(long idleCount) {
+                wakeup.park(TimeUnit.SECONDS.toNanos(30));
+            }
+
+            @Override
+            public void wake(long idleCount) {
+            }
+        }, false));
+    }
+
+    private static class TestConfiguration implements WorkerPoolConfiguration {
+        private final int workerCount;
+        private final WorkerIdleStrategyFactory idleStrategyFactory;
+        private final boolean jobCountersEnabled;
+
+        private TestConfiguration(int workerCount, WorkerIdleStrategyFactory idleStrategyFactory, boolean jobCountersEnabled) {
+            this.workerCount = workerCount;
+            this.idleStrategyFactory = idleStrategyFactory;
+            this.jobCountersEnabled = jobCountersEnabled;
+        }
+
+        @Override
+        public WorkerIdleStrategyFactory getIdleStrategyFactory() {
+            return idleStrategyFactory;
+        }
+
+        @Override
+        public int[] getWorkerAffinity() {
+            final int[] affinity = new int[workerCount];
+            for (int i = 0; i < workerCount; i++) {
+                affinity[i] = -1;
+            }
+            return affinity;
+        }
+
+        @Override
+        public int getWorkerCount() {
+            return workerCount;
+        }
+
+        @Override
+        public boolean haltOnError() {
+            return false;
+        }
+
+        @Override
+        public boolean isJobCountersEnabled() {
+            return jobCountersEnabled;
+        }
+    }
+}
@@ -103,6 +103,20 @@ public class TimestampsTest {
         TestUtils.assertEquals("1888-05-12T23:59:59.999Z", sink);
     }
 
+    @Test
+    public void testCeilHH() throws Exception {
+        long micros = TimestampFormatUtils.parseDateTime("2008-05-12T23:45:51.045Z");
+        TimestampFormatUtils.appendDateTime(sink, Timestamps.ceilHH(micros));
+        TestUtils.assertEquals("2008-05-12T23:59:59.999Z", sink);
+    }
+
+    @Test
+    public void testCeilHHPrevEpoch() throws Exception {
+        long micros = TimestampFormatUtils.parseDateTime("1888-05-12T23:45:51.045Z");
+        TimestampFormatUtils.appendDateTime(sink, Timestamps.ceilHH(micros));
+        TestUtils.assertEquals("1888-05-12T23:59:59.999Z", sink);
+    }
+
     @Test
     public void testCeilMM() throws Exception {
         long micros = TimestampFormatUtils.parseDateTime("2008-05-12T23:45:51.045Z");
@@ -157,6 +171,13 @@ public class TimestampsTest {
         TestUtils.assertEquals("2008-05-12T23:00:00.000Z", sink);
     }
 
+    @Test
+    public void testFloorHHPrevEpoch() throws Exception {
+        long micros = TimestampFormatUtils.parseDateTime("1888-05-12T23:45:51.045Z");
+        TimestampFormatUtils.appendDateTime(sink, Timestamps.floorHH(micros));
+        TestUtils.assertEquals("1888-05-12T23:00:00.000Z", sink);
+    }
+
     @Test
     public void testFloorMM() throws Exception {
         long micros = TimestampFormatUtils.parseDateTime("2008-05-12T23:45:51.045Z");